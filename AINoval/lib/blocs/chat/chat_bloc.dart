@@ -89,6 +89,8 @@ class ChatBloc extends Bloc<ChatEvent, ChatState> {
   StreamSubscription? _aiConfigSubscription;
   // 标记用户是否请求取消，用于在流式处理过程中提前退出
   bool _cancelRequested = false;
+  // 当前生成对应的服务端流ID，停止生成时通知服务端
+  String? _activeStreamId;
   
   // 临时存储上下文数据，用于在非活动状态时保存加载的数据
   List<dynamic> _tempCachedSettings = [];
@@ -801,6 +803,15 @@ class ChatBloc extends Bloc<ChatEvent, ChatState> {
     // 设置取消标志，供 _handleStreamedResponse 检测
     _cancelRequested = true;
 
+    // 断开连接不会停止服务端生成，需显式通知服务端停止
+    final streamId = _activeStreamId;
+    _activeStreamId = null;
+    if (streamId != null) {
+      repository.cancelStream(streamId).catchError((e) {
+        AppLogger.w('ChatBloc', '通知服务端停止生成失败: streamId=$streamId', e);
+      });
+    }
+
     // 确保无论当前状态如何都重置isGenerating
     if (state is ChatSessionActive) {
       final currentState = state as ChatSessionActive;
@@ -914,6 +925,7 @@ class ChatBloc extends Bloc<ChatEvent, ChatState> {
         novelId: initialState.session.novelId, // 🚀 修复：添加缺失的novelId参数
         // Pass configId if needed:
         // configId: initialState.selectedModel?.id,
+        onStreamId: (streamId) => _activeStreamId = streamId,
       );
       
       AppLogger.i('ChatBloc', 'streamMessage调用完成，开始监听流数据');
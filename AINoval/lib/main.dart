@@ -833,6 +833,8 @@ extension _TaskEventBootstrap on _MyAppState {
       _taskListenerUserId = userId;
 
       final taskRepo = context.read<TaskRepository>();
+      // 任务事件流溢出时服务端发送重同步标记，缓存据此重新拉取任务状态
+      TaskEventCache.instance.setResyncLoader(() => taskRepo.getUserHistoryTasks(size: 50));
       
       // 🔧 跨标签页协调：检查是否为主标签页
       if (kIsWeb && TabCoordinationService().initialized) {
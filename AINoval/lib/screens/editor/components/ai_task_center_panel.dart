@@ -219,6 +219,15 @@ class _AITaskCenterPanelState extends State<AITaskCenterPanel> {
       }
       AppLogger.i('AITaskCenterPanel', 'BUS事件: type=${ev['type']} id=${ev['taskId']} parent=${ev['parentTaskId'] ?? ev['parentId']} hasResult=${ev.containsKey('result')}');
       
+      if (ty == TaskEventCache.resyncEventType) {
+        // 有事件被跳过：从第一页重新加载任务状态
+        _lastEventTs = DateTime.now().millisecondsSinceEpoch;
+        _currentHistoryPage = 0;
+        _hasMoreHistory = true;
+        _loadHistoryTasks();
+        return;
+      }
+      
       final String taskId = (ev['taskId'] ?? '').toString();
       if (taskId.isEmpty) return;
       final String? parentId = (ev['parentTaskId'] ?? ev['parentId'])?.toString();
@@ -31,6 +31,11 @@ class ApiClient {
   late final Dio _dio;
   AuthService? _authService;
 
+  /// 编辑器读取接口的 ETag 缓存：按路径和请求参数保存上次的 ETag 与响应体 JSON，
+  /// 请求时携带 If-None-Match，服务端返回 304 时由缓存的 JSON 重新解码出响应体
+  static const int _maxEditorEtagEntries = 32;
+  final Map<String, _EtagCachedResponse> _editorEtagCache = {};
+
   /// 设置AuthService实例（用于处理401错误）
   void setAuthService(AuthService authService) {
     _authService = authService;
@@ -192,6 +197,46 @@ class ApiClient {
     }
   }
 
+  /// 带 ETag 协商的 POST 请求，用于编辑器内容读取接口
+  Future<dynamic> _postWithEtag(String path, Map<String, dynamic> data) async {
+    final key = '$path|${jsonEncode(data)}';
+    final cached = _editorEtagCache[key];
+    try {
+      final response = await _dio.post(
+        path,
+        data: data,
+        options: Options(
+          headers: cached != null ? {'If-None-Match': cached.etag} : null,
+          validateStatus: (status) =>
+              status != null && ((status >= 200 && status < 300) || status == 304),
+        ),
+      );
+      if (response.statusCode == 304 && cached != null) {
+        AppLogger.d('ApiClient', '内容未变化(304)，复用缓存响应: $path');
+        // 重新插入，保持最近使用的条目在末尾
+        _editorEtagCache.remove(key);
+        _editorEtagCache[key] = cached;
+        // 每次命中都解码出新的对象，调用方修改返回值不会污染缓存
+        return jsonDecode(cached.json);
+      }
+      final body = _normalizeResponseData(response.data);
+      final etag = response.headers.value('etag');
+      _editorEtagCache.remove(key);
+      if (etag != null && etag.isNotEmpty) {
+        _editorEtagCache[key] = _EtagCachedResponse(etag, jsonEncode(body));
+        if (_editorEtagCache.length > _maxEditorEtagEntries) {
+          _editorEtagCache.remove(_editorEtagCache.keys.first);
+        }
+      }
+      return body;
+    } on DioException catch (e) {
+      throw _handleDioError(e);
+    } catch (e) {
+      AppLogger.e('ApiClient', 'post 执行出错，路径: $path', e);
+      throw ApiException(-1, '执行 POST 请求时发生意外错误: ${e.toString()}');
+    }
+  }
+
   /// 基础流式POST请求方法
   ///
   /// 返回原始字节流 Stream<List<int>>
@@ -963,7 +1008,7 @@ class ApiClient {
 
   /// 根据ID获取小说详情
   Future<dynamic> getNovelDetailById(String id) async {
-    return post('/novels/get-with-scenes', data: {'id': id});
+    return _postWithEtag('/novels/get-with-scenes', {'id': id});
   }
 
   /// 分页加载小说详情和场景内容
@@ -971,7 +1016,7 @@ class ApiClient {
   Future<dynamic> getNovelWithPaginatedScenes(String novelId, String lastEditedChapterId, {int chaptersLimit = 5}) async {
     try {
       AppLogger.i('ApiClient', '分页加载小说详情: $novelId, 中心章节: $lastEditedChapterId, 限制: $chaptersLimit');
-      final response = await post('/novels/get-with-paginated-scenes', data: {
+      final response = await _postWithEtag('/novels/get-with-paginated-scenes', {
         'novelId': novelId,
         'lastEditedChapterId': lastEditedChapterId,
         'chaptersLimit': chaptersLimit
@@ -992,7 +1037,7 @@ class ApiClient {
   Future<dynamic> loadMoreScenes(String novelId, String actId, String fromChapterId, String direction, {int chaptersLimit = 3}) async {
     try {
       AppLogger.i('ApiClient', '加载更多场景: $novelId, 卷: $actId, 从章节: $fromChapterId, 方向: $direction, 限制: $chaptersLimit');
-      final response = await post('/novels/load-more-scenes', data: {
+      final response = await _postWithEtag('/novels/load-more-scenes', {
         'novelId': novelId,
         'actId': actId,
         'fromChapterId': fromChapterId,
@@ -1011,7 +1056,7 @@ class ApiClient {
   Future<dynamic> getChaptersAfter(String novelId, String currentChapterId, {int chaptersLimit = 3, required bool includeCurrentChapter}) async {
     try {
       AppLogger.i('ApiClient', '获取后续章节: $novelId, 当前章节: $currentChapterId, 限制: $chaptersLimit, includeCurrentChapter: $includeCurrentChapter');
-      final response = await post('/novels/get-chapters-after', data: {
+      final response = await _postWithEtag('/novels/get-chapters-after', {
         'novelId': novelId,
         'currentChapterId': currentChapterId,
         'chaptersLimit': chaptersLimit,
@@ -1478,6 +1523,16 @@ class ApiClient {
     }
   }
 
+  /// 停止服务端正在生成的 AI 流（流ID来自流事件ID）
+  Future<void> cancelAiStream(String streamId) async {
+    try {
+      await delete('/ai/streams/$streamId');
+    } catch (e) {
+      AppLogger.e('ApiClient', '停止 AI 流失败 (streamId: $streamId)', e);
+      rethrow;
+    }
+  }
+
   /// 获取 AI 会话消息数量 (非流式)
   Future<int> countAiChatSessionMessages(String sessionId) async {
     try {
@@ -2234,12 +2289,12 @@ class ApiClient {
   /// 与分页加载不同，一次性获取小说的所有场景数据
   Future<Map<String, dynamic>?> getNovelWithAllScenes(String novelId) async {
     try {
-      final response = await _dio.post('/novels/get-with-scenes', data: {
+      final data = await _postWithEtag('/novels/get-with-scenes', {
         'id': novelId,
       });
-      return response.data;
-    } on DioException catch (e) {
-      throw _handleDioError(e);
+      return data is Map<String, dynamic> ? data : null;
+    } on ApiException {
+      rethrow;
     } catch (e) {
       AppLogger.e('ApiClient', '获取小说及其所有场景失败: $novelId', e);
       return null;
@@ -2722,3 +2777,13 @@ class ApiClient {
     }
   }
 }
+
+/// 编辑器读取接口的 ETag 缓存条目
+class _EtagCachedResponse {
+  _EtagCachedResponse(this.etag, this.json);
+
+  final String etag;
+
+  /// 响应体的 JSON 文本，命中时重新解码
+  final String json;
+}
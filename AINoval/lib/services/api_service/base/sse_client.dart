@@ -47,6 +47,8 @@ class SseClient {
   
   // 🔧 特殊连接互斥锁：对于/api/tasks/events，同一时间只允许一个连接
   static const String _taskEventsPath = '/api/tasks/events';
+  // 可续传 AI 流的最大重连次数
+  static const int _maxResumeAttempts = 3;
   StreamSubscription? _taskEventsConnection;
 
   // Static instance
@@ -89,6 +91,10 @@ class SseClient {
   /// - [body]: The request body for POST requests.
   /// - [connectionId]: Optional. An identifier for this connection. If not provided, a random ID will be generated.
   /// - [timeout]: Optional. Timeout duration for the stream. If not provided, no timeout is applied.
+  /// - [resumable]: Whether the endpoint registers the stream as resumable on the server
+  ///   (event ids "streamId:seq"). On a network error the client reconnects to
+  ///   `/ai/streams/{streamId}` with `Last-Event-ID` instead of failing.
+  /// - [onStreamId]: Called once with the server stream id, e.g. to stop generation via [cancelAiStream].
   Stream<T> streamEvents<T>({
     required String path,
     required T Function(Map<String, dynamic>) parser,
@@ -98,6 +104,8 @@ class SseClient {
     Map<String, dynamic>? body, // For POST requests
     String? connectionId,
     Duration? timeout,
+    bool resumable = false,
+    void Function(String streamId)? onStreamId,
   }) async* {
     // 挂起状态：直接返回一个已关闭的流，彻底阻断底层 subscribeToSSE
     if (_suspended) {
@@ -225,54 +233,103 @@ class SseClient {
       // This method directly returns the stream subscription management is handled internally.
       // We listen to it and push data/errors into our controller.
       late StreamSubscription sseSubscription; // 预声明变量
-      sseSubscription = SSEClient.subscribeToSSE(
-        method: method,
-        url: urlString,
-        header: headers,
-        body: body,
-      ).listen(
-        (event) {
-          AppLogger.v(_tag, '[SSE] Raw Event: ID=${event.id}, Event=${event.event}, DataLen=${event.data?.length ?? 0}');
-          //TODO调试
-          //AppLogger.v(_tag, '[SSE] Raw Event: ID=${event.id}, Event=${event.event}, Data=${event.data}');
-
-          // 处理心跳消息
-          if (event.id != null && event.id!.startsWith('heartbeat-')) {
-            //AppLogger.v(_tag, '[SSE] 收到心跳消息: ${event.id}');
-            return; // 跳过心跳处理
-          }
+      // 可续传的 AI 流：事件ID形如 "流ID:序号"，记录流ID和最后收到的事件ID，连接中断时据此重连
+      String? aiStreamId;
+      String? lastEventId;
+      int resumeAttempts = 0;
+      void connect(SSERequestType connectMethod, String connectUrl, Map<String, String> connectHeaders,
+          Map<String, dynamic>? connectBody) {
+        sseSubscription = SSEClient.subscribeToSSE(
+          method: connectMethod,
+          url: connectUrl,
+          header: connectHeaders,
+          body: connectBody,
+        ).listen(
+          (event) {
+            AppLogger.v(_tag, '[SSE] Raw Event: ID=${event.id}, Event=${event.event}, DataLen=${event.data?.length ?? 0}');
+            //TODO调试
+            //AppLogger.v(_tag, '[SSE] Raw Event: ID=${event.id}, Event=${event.event}, Data=${event.data}');
+
+            // 处理心跳消息
+            if (event.id != null && event.id!.startsWith('heartbeat-')) {
+              //AppLogger.v(_tag, '[SSE] 收到心跳消息: ${event.id}');
+              return; // 跳过心跳处理
+            }
 
-          // Determine event name (treat null/empty as 'message')
-          final currentEventName = (event.event == null || event.event!.isEmpty) ? 'message' : event.event;
+            final rawId = event.id;
+            if (resumable && rawId != null) {
+              final sep = rawId.lastIndexOf(':');
+              if (sep > 0 && int.tryParse(rawId.substring(sep + 1)) != null) {
+                lastEventId = rawId;
+                if (aiStreamId == null) {
+                  aiStreamId = rawId.substring(0, sep);
+                  onStreamId?.call(aiStreamId!);
+                }
+              }
+            }
 
-          // 处理complete事件 - 这是流式生成结束的标志
-          if (currentEventName == 'complete') {
-            AppLogger.i(_tag, '[SSE] 收到complete事件，表示流式生成已完成');
-            // 🚀 修复：发送结束信号给下游，而不是直接关闭
-            try {
-              final json = jsonDecode(event.data ?? '{}');
-              if (json is Map<String, dynamic> && json.containsKey('data') && json['data'] == '[DONE]') {
-                AppLogger.i(_tag, '[SSE] 收到[DONE]标记，发送结束信号给下游');
+            // Determine event name (treat null/empty as 'message')
+            final currentEventName = (event.event == null || event.event!.isEmpty) ? 'message' : event.event;
+
+            // 处理complete事件 - 这是流式生成结束的标志
+            if (currentEventName == 'complete') {
+              AppLogger.i(_tag, '[SSE] 收到complete事件，表示流式生成已完成');
+              // 🚀 修复：发送结束信号给下游，而不是直接关闭
+              try {
+                final json = jsonDecode(event.data ?? '{}');
+                if (json is Map<String, dynamic> && json.containsKey('data') && json['data'] == '[DONE]') {
+                  AppLogger.i(_tag, '[SSE] 收到[DONE]标记，发送结束信号给下游');
                 
-                // 双保险：如果是任务事件SSE，收到complete时主动挂起并请求登出，避免旧token继续操作
-                if (fullPath == _taskEventsPath && _authService != null) {
-                  try {
-                    suspendAll();
-                    // fire-and-forget 登出
-                    _authService!.logout().catchError((e) {
-                      AppLogger.w(_tag, '[SSE] 收到complete后自动登出失败', e);
+                  // 双保险：如果是任务事件SSE，收到complete时主动挂起并请求登出，避免旧token继续操作
+                  if (fullPath == _taskEventsPath && _authService != null) {
+                    try {
+                      suspendAll();
+                      // fire-and-forget 登出
+                      _authService!.logout().catchError((e) {
+                        AppLogger.w(_tag, '[SSE] 收到complete后自动登出失败', e);
+                      });
+                    } catch (_) {}
+                  }
+
+                  // 🚀 发送一个带有finishReason的结束信号
+                  final endSignal = {
+                    'id': 'stream_end_${DateTime.now().millisecondsSinceEpoch}',
+                    'content': '',
+                    'finishReason': 'stop',
+                    'isComplete': true,
+                  };
+                
+                  final parsedEndSignal = parser(endSignal);
+                  if (!controller.isClosed) {
+                    controller.add(parsedEndSignal);
+                    // 🚀 修复：不再主动取消底层连接，避免插件层自动重连
+                    // try { sseSubscription.cancel(); } catch (_) {}
+                    // _activeConnections.remove(cid);
+                    // if (shouldGlobalUnsubscribe) {
+                    //   try { flutter_sse.SSEClient.unsubscribeFromSSE(); } catch (_) {}
+                    // }
+                    // 延迟关闭，确保下游能收到结束信号
+                    Future.delayed(const Duration(milliseconds: 100), () {
+                      if (!controller.isClosed) {
+                        controller.close();
+                      }
                     });
-                  } catch (_) {}
+                  }
+                  return;
                 }
-
-                // 🚀 发送一个带有finishReason的结束信号
+              } catch (e) {
+                AppLogger.e(_tag, '[SSE] 解析complete事件数据失败', e);
+              }
+            
+              // 🚀 如果解析失败，也要发送结束信号
+              try {
                 final endSignal = {
                   'id': 'stream_end_${DateTime.now().millisecondsSinceEpoch}',
                   'content': '',
                   'finishReason': 'stop',
                   'isComplete': true,
                 };
-                
+              
                 final parsedEndSignal = parser(endSignal);
                 if (!controller.isClosed) {
                   controller.add(parsedEndSignal);
@@ -282,272 +339,260 @@ class SseClient {
                   // if (shouldGlobalUnsubscribe) {
                   //   try { flutter_sse.SSEClient.unsubscribeFromSSE(); } catch (_) {}
                   // }
-                  // 延迟关闭，确保下游能收到结束信号
                   Future.delayed(const Duration(milliseconds: 100), () {
                     if (!controller.isClosed) {
                       controller.close();
                     }
                   });
                 }
-                return;
+              } catch (parseError) {
+                AppLogger.e(_tag, '[SSE] 发送结束信号失败', parseError);
+                if (!controller.isClosed) {
+                  controller.close();
+                }
               }
-            } catch (e) {
-              AppLogger.e(_tag, '[SSE] 解析complete事件数据失败', e);
+              return; // 无论如何都跳过complete事件的后续处理
             }
-            
-            // 🚀 如果解析失败，也要发送结束信号
-            try {
-              final endSignal = {
-                'id': 'stream_end_${DateTime.now().millisecondsSinceEpoch}',
-                'content': '',
-                'finishReason': 'stop',
-                'isComplete': true,
-              };
-              
-              final parsedEndSignal = parser(endSignal);
-              if (!controller.isClosed) {
-                controller.add(parsedEndSignal);
-                // 🚀 修复：不再主动取消底层连接，避免插件层自动重连
-                // try { sseSubscription.cancel(); } catch (_) {}
-                // _activeConnections.remove(cid);
-                // if (shouldGlobalUnsubscribe) {
-                //   try { flutter_sse.SSEClient.unsubscribeFromSSE(); } catch (_) {}
-                // }
-                Future.delayed(const Duration(milliseconds: 100), () {
-                  if (!controller.isClosed) {
-                    controller.close();
-                  }
-                });
+
+            // Filter by expected event name
+            if (eventName != null && currentEventName != eventName) {
+              //AppLogger.v(_tag, '[SSE] Skipping event name: $currentEventName (Expected: $eventName)');
+              return; // Skip this event
+            }
+
+            final data = event.data;
+            if (data == null || data.isEmpty || data == '[DONE]') {
+               //AppLogger.v(_tag, '[SSE] Skipping empty or [DONE] data.');
+              return; // Skip this event
+            }
+
+            // 检查特殊结束标记 "}"
+            if (data == '}' || data.trim() == '}') {
+              AppLogger.i(_tag, '[SSE] 检测到特殊结束标记 "}"，关闭流');
+              try { sseSubscription.cancel(); } catch (_) {}
+              _activeConnections.remove(cid);
+              if (shouldGlobalUnsubscribe) {
+                try { flutter_sse.SSEClient.unsubscribeFromSSE(); } catch (_) {}
               }
-            } catch (parseError) {
-              AppLogger.e(_tag, '[SSE] 发送结束信号失败', parseError);
               if (!controller.isClosed) {
                 controller.close();
               }
+              return;
             }
-            return; // 无论如何都跳过complete事件的后续处理
-          }
-
-          // Filter by expected event name
-          if (eventName != null && currentEventName != eventName) {
-            //AppLogger.v(_tag, '[SSE] Skipping event name: $currentEventName (Expected: $eventName)');
-            return; // Skip this event
-          }
-
-          final data = event.data;
-          if (data == null || data.isEmpty || data == '[DONE]') {
-             //AppLogger.v(_tag, '[SSE] Skipping empty or [DONE] data.');
-            return; // Skip this event
-          }
 
-          // 检查特殊结束标记 "}"
-          if (data == '}' || data.trim() == '}') {
-            AppLogger.i(_tag, '[SSE] 检测到特殊结束标记 "}"，关闭流');
-            try { sseSubscription.cancel(); } catch (_) {}
-            _activeConnections.remove(cid);
-            if (shouldGlobalUnsubscribe) {
-              try { flutter_sse.SSEClient.unsubscribeFromSSE(); } catch (_) {}
-            }
-            if (!controller.isClosed) {
-              controller.close();
-            }
-            return;
-          }
-
-          // Parse data
-          try {
-            final json = jsonDecode(data);
-            if (json is Map<String, dynamic>) {
-              AppLogger.v(_tag, '[SSE] JSON Map keys: ${json.keys.join(',')}');
-              // 检查JSON对象中是否包含特殊结束标记
-              if (json['content'] == '}' || 
-                  (json['finishReason'] != null && json['finishReason'].toString().isNotEmpty)) {
-                AppLogger.i(_tag, '[SSE] 检测到JSON中的结束标记: content="${json['content']}", finishReason=${json['finishReason']}');
-                try { sseSubscription.cancel(); } catch (_) {}
-                _activeConnections.remove(cid);
-                if (shouldGlobalUnsubscribe) {
-                  try { flutter_sse.SSEClient.unsubscribeFromSSE(); } catch (_) {}
-                }
-                if (!controller.isClosed) {
-                  controller.close();
+            // Parse data
+            try {
+              final json = jsonDecode(data);
+              if (json is Map<String, dynamic>) {
+                AppLogger.v(_tag, '[SSE] JSON Map keys: ${json.keys.join(',')}');
+                // 检查JSON对象中是否包含特殊结束标记
+                if (json['content'] == '}' || 
+                    (json['finishReason'] != null && json['finishReason'].toString().isNotEmpty)) {
+                  AppLogger.i(_tag, '[SSE] 检测到JSON中的结束标记: content="${json['content']}", finishReason=${json['finishReason']}');
+                  try { sseSubscription.cancel(); } catch (_) {}
+                  _activeConnections.remove(cid);
+                  if (shouldGlobalUnsubscribe) {
+                    try { flutter_sse.SSEClient.unsubscribeFromSSE(); } catch (_) {}
+                  }
+                  if (!controller.isClosed) {
+                    controller.close();
+                  }
+                  return;
                 }
-                return;
-              }
               
-              // 错误JSON短路：包含 code + message 即视为错误事件，不再进入 parser
-              if (json.containsKey('code') && json.containsKey('message')) {
-                final code = (json['code']?.toString() ?? '').toUpperCase();
-                final msg = json['message']?.toString() ?? 'Unknown error';
-                if (code == 'PAYMENT_REQUIRED' || msg.contains('积分余额不足')) {
-                  controller.addError(InsufficientCreditsException(msg));
-                } else {
-                  controller.addError(ApiException(-1, msg));
-                }
-                try { sseSubscription.cancel(); } catch (_) {}
-                _activeConnections.remove(cid);
-                if (shouldGlobalUnsubscribe) {
-                  try { flutter_sse.SSEClient.unsubscribeFromSSE(); } catch (_) {}
+                // 错误JSON短路：包含 code + message 即视为错误事件，不再进入 parser
+                if (json.containsKey('code') && json.containsKey('message')) {
+                  final code = (json['code']?.toString() ?? '').toUpperCase();
+                  final msg = json['message']?.toString() ?? 'Unknown error';
+                  if (code == 'PAYMENT_REQUIRED' || msg.contains('积分余额不足')) {
+                    controller.addError(InsufficientCreditsException(msg));
+                  } else {
+                    controller.addError(ApiException(-1, msg));
+                  }
+                  try { sseSubscription.cancel(); } catch (_) {}
+                  _activeConnections.remove(cid);
+                  if (shouldGlobalUnsubscribe) {
+                    try { flutter_sse.SSEClient.unsubscribeFromSSE(); } catch (_) {}
+                  }
+                  if (!controller.isClosed) {
+                    controller.close();
+                  }
+                  return;
                 }
+
+                final parsedData = parser(json);
+                //AppLogger.v(_tag, '[SSE] Parsed data for event \'$currentEventName\': $parsedData');
                 if (!controller.isClosed) {
-                  controller.close();
+                  controller.add(parsedData); // Add parsed data to our stream
                 }
-                return;
-              }
-
-              final parsedData = parser(json);
-              //AppLogger.v(_tag, '[SSE] Parsed data for event \'$currentEventName\': $parsedData');
-              if (!controller.isClosed) {
-                controller.add(parsedData); // Add parsed data to our stream
+              } else {
+                AppLogger.w(_tag, '[SSE] Event data is not a JSON object: $data');
               }
-            } else {
-              AppLogger.w(_tag, '[SSE] Event data is not a JSON object: $data');
+            } catch (e, stack) {
+              AppLogger.e(_tag, '[SSE] Failed to parse JSON data: $data', e, stack);
+               if (!controller.isClosed) {
+                  // 🚀 修复：保持原始异常类型，特别是 InsufficientCreditsException
+                  if (e is InsufficientCreditsException || e is ApiException) {
+                    AppLogger.w(_tag, '[SSE] 保留原始异常类型: ${e.runtimeType}');
+                    controller.addError(e, stack);
+                  } else {
+                    // Report parsing errors through the stream
+                    controller.addError(ApiException(-1, 'Failed to parse SSE data: $e'), stack);
+                  }
+               }
             }
-          } catch (e, stack) {
-            AppLogger.e(_tag, '[SSE] Failed to parse JSON data: $data', e, stack);
-             if (!controller.isClosed) {
-                // 🚀 修复：保持原始异常类型，特别是 InsufficientCreditsException
-                if (e is InsufficientCreditsException || e is ApiException) {
-                  AppLogger.w(_tag, '[SSE] 保留原始异常类型: ${e.runtimeType}');
-                  controller.addError(e, stack);
-                } else {
-                  // Report parsing errors through the stream
-                  controller.addError(ApiException(-1, 'Failed to parse SSE data: $e'), stack);
-                }
-             }
-          }
-        },
-        onError: (error, stackTrace) {
-          AppLogger.e(_tag, '[SSE] Stream error received', error, stackTrace);
+          },
+          onError: (error, stackTrace) {
+            AppLogger.e(_tag, '[SSE] Stream error received', error, stackTrace);
           
-          // 🚀 重要修复：检查并处理HTTP 402积分不足错误
-          final errorString = error.toString();
-          ApiException? processedError;
+            // 🚀 重要修复：检查并处理HTTP 402积分不足错误
+            final errorString = error.toString();
+            ApiException? processedError;
           
-          // ✅ 新增：401 未授权（登录失效）处理——立即停止重连并触发全局停止监听
-          final lower = errorString.toLowerCase();
-          final bool isUnauthorized = errorString.contains('401') ||
-              lower.contains('unauthorized') ||
-              lower.contains('authentication token is missing');
-          if (isUnauthorized) {
-            AppLogger.w(_tag, '[SSE] 检测到 401 未授权，停止重试并请求用户重新登录');
-            try { sseSubscription.cancel(); } catch (_) {}
-            try { flutter_sse.SSEClient.unsubscribeFromSSE(); } catch (_) {}
-            _activeConnections.remove(cid);
+            // ✅ 新增：401 未授权（登录失效）处理——立即停止重连并触发全局停止监听
+            final lower = errorString.toLowerCase();
+            final bool isUnauthorized = errorString.contains('401') ||
+                lower.contains('unauthorized') ||
+                lower.contains('authentication token is missing');
+            if (isUnauthorized) {
+              AppLogger.w(_tag, '[SSE] 检测到 401 未授权，停止重试并请求用户重新登录');
+              try { sseSubscription.cancel(); } catch (_) {}
+              try { flutter_sse.SSEClient.unsubscribeFromSSE(); } catch (_) {}
+              _activeConnections.remove(cid);
             
-            // 🔧 关键修复：调用AuthService的logout，清除认证状态并触发跳转登录页
-            if (_authService != null) {
-              AppLogger.i(_tag, '[SSE] 执行自动登出以清除过期令牌');
-              // 使用fire-and-forget模式调用logout，不阻塞错误处理流程
-              _authService!.logout().catchError((e) {
-                AppLogger.e(_tag, '[SSE] 自动登出失败', e);
-              });
-            } else {
-              AppLogger.w(_tag, '[SSE] AuthService未设置，无法自动登出');
-            }
+              // 🔧 关键修复：调用AuthService的logout，清除认证状态并触发跳转登录页
+              if (_authService != null) {
+                AppLogger.i(_tag, '[SSE] 执行自动登出以清除过期令牌');
+                // 使用fire-and-forget模式调用logout，不阻塞错误处理流程
+                _authService!.logout().catchError((e) {
+                  AppLogger.e(_tag, '[SSE] 自动登出失败', e);
+                });
+              } else {
+                AppLogger.w(_tag, '[SSE] AuthService未设置，无法自动登出');
+              }
             
-            // 通知上游：登录失效
-            if (!controller.isClosed) {
-              controller.addError(ApiException(401, '登录已过期，请重新登录'), stackTrace);
-              controller.close();
+              // 通知上游：登录失效
+              if (!controller.isClosed) {
+                controller.addError(ApiException(401, '登录已过期，请重新登录'), stackTrace);
+                controller.close();
+              }
+              // 广播：停止全局任务事件监听，避免重复连接风暴
+              try { EventBus.instance.fire(const StopTaskEventsListening()); } catch (_) {}
+              return;
             }
-            // 广播：停止全局任务事件监听，避免重复连接风暴
-            try { EventBus.instance.fire(const StopTaskEventsListening()); } catch (_) {}
-            return;
-          }
           
-          // 检查是否是积分不足异常（HTTP 402 Payment Required）
-          if (errorString.contains('402') || errorString.toLowerCase().contains('payment required')) {
-            AppLogger.w(_tag, '[SSE] 检测到积分不足错误 (HTTP 402)');
-            // 尝试从错误消息中提取积分信息
-            final match = RegExp(r'需要 (\d+) 积分，当前余额 (\d+) 积分').firstMatch(errorString);
-            if (match != null) {
-              final requiredCredits = int.tryParse(match.group(1) ?? '');
-              // 提取当前余额但暂不使用；为避免未使用警告，仅用于丰富提示
-              final currentCredits = int.tryParse(match.group(2) ?? '');
-              if (currentCredits != null) {
-                AppLogger.d(_tag, '[SSE] Parsed current credits from error: $currentCredits');
+            // 检查是否是积分不足异常（HTTP 402 Payment Required）
+            if (errorString.contains('402') || errorString.toLowerCase().contains('payment required')) {
+              AppLogger.w(_tag, '[SSE] 检测到积分不足错误 (HTTP 402)');
+              // 尝试从错误消息中提取积分信息
+              final match = RegExp(r'需要 (\d+) 积分，当前余额 (\d+) 积分').firstMatch(errorString);
+              if (match != null) {
+                final requiredCredits = int.tryParse(match.group(1) ?? '');
+                // 提取当前余额但暂不使用；为避免未使用警告，仅用于丰富提示
+                final currentCredits = int.tryParse(match.group(2) ?? '');
+                if (currentCredits != null) {
+                  AppLogger.d(_tag, '[SSE] Parsed current credits from error: $currentCredits');
+                }
+                final message = '积分余额不足，需要 ${match.group(1)} 积分，当前余额 ${match.group(2)} 积分';
+                processedError = InsufficientCreditsException(message, requiredCredits);
+              } else {
+                // 通用积分不足异常
+                processedError = InsufficientCreditsException('积分余额不足，请充值后继续使用');
               }
-              final message = '积分余额不足，需要 ${match.group(1)} 积分，当前余额 ${match.group(2)} 积分';
-              processedError = InsufficientCreditsException(message, requiredCredits);
+            }
+          
+            // 可续传的 AI 流：服务端生成不受断开影响，凭流ID和 Last-Event-ID 重连补收错过的事件
+            if (resumable && processedError == null && aiStreamId != null && lastEventId != null &&
+                resumeAttempts < _maxResumeAttempts) {
+              resumeAttempts++;
+              AppLogger.w(_tag, '[SSE] AI流连接中断，第$resumeAttempts次重连: streamId=$aiStreamId, lastEventId=$lastEventId');
+              try { sseSubscription.cancel(); } catch (_) {}
+              final resumeHeaders = Map<String, String>.from(headers)
+                ..remove('Content-Type')
+                ..['Last-Event-ID'] = lastEventId!;
+              Future.delayed(Duration(milliseconds: 500 * resumeAttempts), () {
+                if (controller.isClosed) return;
+                connect(SSERequestType.GET, '$_baseUrl/ai/streams/$aiStreamId', resumeHeaders, null);
+                _activeConnections[cid] = sseSubscription;
+              });
+              return;
+            }
+
+            // 🔧 新增：检查是否为不可恢复的网络错误 & 对 POST 端点设置最多重试3次
+            final bool isPostMethod = method == SSERequestType.POST;
+            bool shouldStopRetry;
+            if (isPostMethod && shouldGlobalUnsubscribe) {
+              // ✅ 设定生成类POST流属于一次性短流，收到错误（包括 AbortError）后不应重连
+              shouldStopRetry = true;
             } else {
-              // 通用积分不足异常
-              processedError = InsufficientCreditsException('积分余额不足，请充值后继续使用');
+              shouldStopRetry = _shouldStopRetryOnError(error);
             }
-          }
           
-          // 🔧 新增：检查是否为不可恢复的网络错误 & 对 POST 端点设置最多重试3次
-          final bool isPostMethod = method == SSERequestType.POST;
-          bool shouldStopRetry;
-          if (isPostMethod && shouldGlobalUnsubscribe) {
-            // ✅ 设定生成类POST流属于一次性短流，收到错误（包括 AbortError）后不应重连
-            shouldStopRetry = true;
-          } else {
-            shouldStopRetry = _shouldStopRetryOnError(error);
-          }
+            // 🚀 积分不足错误也应该停止重试
+            if (processedError is InsufficientCreditsException) {
+              shouldStopRetry = true;
+              AppLogger.w(_tag, '[SSE] 积分不足错误，停止重试');
+            }
           
-          // 🚀 积分不足错误也应该停止重试
-          if (processedError is InsufficientCreditsException) {
-            shouldStopRetry = true;
-            AppLogger.w(_tag, '[SSE] 积分不足错误，停止重试');
-          }
+            // 🔧 关键修复：对于/api/tasks/events，任何错误都不应该自动重连！
+            // 因为会导致无限重连风暴，应该由上层逻辑（如BLoC）决定何时重连
+            if (method == SSERequestType.GET && fullPath == _taskEventsPath) {
+              shouldStopRetry = true;
+              AppLogger.w(_tag, '[SSE] /api/tasks/events连接发生错误，禁止自动重连: $error');
+            }
           
-          // 🔧 关键修复：对于/api/tasks/events，任何错误都不应该自动重连！
-          // 因为会导致无限重连风暴，应该由上层逻辑（如BLoC）决定何时重连
-          if (method == SSERequestType.GET && fullPath == _taskEventsPath) {
-            shouldStopRetry = true;
-            AppLogger.w(_tag, '[SSE] /api/tasks/events连接发生错误，禁止自动重连: $error');
-          }
+            if (shouldStopRetry) {
+              AppLogger.w(_tag, '[SSE] 检测到不可恢复的网络错误，停止重试: $error');
+              // 取消订阅以停止自动重试
+              sseSubscription.cancel();
+              if (shouldGlobalUnsubscribe) {
+                try { flutter_sse.SSEClient.unsubscribeFromSSE(); } catch (_) {}
+              }
+              // 🔧 对于任务事件连接，调用全局取消避免自动重连
+              if (method == SSERequestType.GET && fullPath == _taskEventsPath) {
+                try { 
+                  flutter_sse.SSEClient.unsubscribeFromSSE();
+                  _taskEventsConnection = null;
+                  AppLogger.i(_tag, '[SSE] 已调用全局取消，阻止/api/tasks/events自动重连');
+                } catch (_) {}
+              }
+            }
           
-          if (shouldStopRetry) {
-            AppLogger.w(_tag, '[SSE] 检测到不可恢复的网络错误，停止重试: $error');
-            // 取消订阅以停止自动重试
-            sseSubscription.cancel();
-            if (shouldGlobalUnsubscribe) {
-              try { flutter_sse.SSEClient.unsubscribeFromSSE(); } catch (_) {}
+            if (!controller.isClosed) {
+              // 🚀 修复：使用处理后的异常或创建通用异常
+              final finalError = processedError ?? ApiException(-1, 'SSE stream error: $error');
+              controller.addError(finalError, stackTrace);
+              // 仅在停止重试时才关闭下游，允许在窗口内继续尝试
+              if (shouldStopRetry) {
+                controller.close();
+              }
             }
+            // 移除连接
+            _activeConnections.remove(cid);
+            // 🔧 清理任务事件连接引用
+            if (method == SSERequestType.GET && fullPath == _taskEventsPath && _taskEventsConnection == sseSubscription) {
+              _taskEventsConnection = null;
+            }
+          },
+          onDone: () {
+            AppLogger.i(_tag, '[SSE] Stream finished (onDone received).');
+            // 移除连接
+            _activeConnections.remove(cid);
             // 🔧 对于任务事件连接，调用全局取消避免自动重连
             if (method == SSERequestType.GET && fullPath == _taskEventsPath) {
               try { 
                 flutter_sse.SSEClient.unsubscribeFromSSE();
                 _taskEventsConnection = null;
-                AppLogger.i(_tag, '[SSE] 已调用全局取消，阻止/api/tasks/events自动重连');
+                AppLogger.i(_tag, '[SSE] /api/tasks/events连接正常关闭，已调用全局取消');
               } catch (_) {}
             }
-          }
-          
-          if (!controller.isClosed) {
-            // 🚀 修复：使用处理后的异常或创建通用异常
-            final finalError = processedError ?? ApiException(-1, 'SSE stream error: $error');
-            controller.addError(finalError, stackTrace);
-            // 仅在停止重试时才关闭下游，允许在窗口内继续尝试
-            if (shouldStopRetry) {
-              controller.close();
+            if (!controller.isClosed) {
+              controller.close(); // Close controller when the source stream is done
             }
-          }
-          // 移除连接
-          _activeConnections.remove(cid);
-          // 🔧 清理任务事件连接引用
-          if (method == SSERequestType.GET && fullPath == _taskEventsPath && _taskEventsConnection == sseSubscription) {
-            _taskEventsConnection = null;
-          }
-        },
-        onDone: () {
-          AppLogger.i(_tag, '[SSE] Stream finished (onDone received).');
-          // 移除连接
-          _activeConnections.remove(cid);
-          // 🔧 对于任务事件连接，调用全局取消避免自动重连
-          if (method == SSERequestType.GET && fullPath == _taskEventsPath) {
-            try { 
-              flutter_sse.SSEClient.unsubscribeFromSSE();
-              _taskEventsConnection = null;
-              AppLogger.i(_tag, '[SSE] /api/tasks/events连接正常关闭，已调用全局取消');
-            } catch (_) {}
-          }
-          if (!controller.isClosed) {
-            controller.close(); // Close controller when the source stream is done
-          }
-        },
-      );
+          },
+        );
+      }
+      connect(method, urlString, headers, body);
 
       // 保存此连接以便于后续管理
       _activeConnections[cid] = sseSubscription;
@@ -46,7 +46,7 @@ abstract class ChatRepository {
   });
 
   /// 流式发送消息并获取响应
-  /// 流式返回 AI ChatMessage 对象片段
+  /// 流式返回 AI ChatMessage 对象片段；连接中断时自动续传，[onStreamId] 收到服务端流ID
   Stream<ChatMessage> streamMessage({
     required String userId,
     required String sessionId,
@@ -55,8 +55,12 @@ abstract class ChatRepository {
     Map<String, dynamic>? metadata,
     String? configId,
     String? novelId,
+    void Function(String streamId)? onStreamId,
   });
 
+  /// 停止服务端正在进行的生成
+  Future<void> cancelStream(String streamId);
+
   /// 获取会话消息历史
   Stream<ChatMessage> getMessageHistory(String userId, String sessionId,
       {int limit = 100, String? novelId});
@@ -308,6 +308,7 @@ class ChatRepositoryImpl implements ChatRepository {
     Map<String, dynamic>? metadata,
     String? configId,
     String? novelId,
+    void Function(String streamId)? onStreamId,
   }) {
     AppLogger.i('ChatRepositoryImpl',
         '开始流式消息: userId=$userId, sessionId=$sessionId, novelId=$novelId, configId=$configId, hasConfig=${config != null}');
@@ -351,6 +352,8 @@ class ChatRepositoryImpl implements ChatRepository {
           }
         },
         eventName: 'chat-message', // 🚀 使用与后端一致的事件名称
+        resumable: true,
+        onStreamId: onStreamId,
       ).where((message) {
         // 🚀 首先检查消息是否属于当前会话
         if (message.sessionId != sessionId) {
@@ -440,6 +443,18 @@ class ChatRepositoryImpl implements ChatRepository {
     }
   }
 
+  /// 停止服务端正在进行的生成 (非流式)
+  @override
+  Future<void> cancelStream(String streamId) async {
+    try {
+      AppLogger.i('ChatRepositoryImpl', '停止AI流: streamId=$streamId');
+      await apiClient.cancelAiStream(streamId);
+    } catch (e, stackTrace) {
+      AppLogger.e('ChatRepositoryImpl', '停止AI流失败: streamId=$streamId', e, stackTrace);
+      throw ApiExceptionHelper.fromException(e, '停止生成失败');
+    }
+  }
+
   /// 获取会话消息数量 (非流式)
   @override
   Future<int> countSessionMessages(String sessionId) async {
@@ -57,6 +57,7 @@ class NextOutlineRepositoryImpl implements NextOutlineRepository {
         }
       },
       eventName: 'outline-chunk',
+      resumable: true,
     );
   }
 
@@ -97,6 +98,7 @@ class NextOutlineRepositoryImpl implements NextOutlineRepository {
         }
       },
       eventName: 'outline-chunk',
+      resumable: true,
     );
   }
 
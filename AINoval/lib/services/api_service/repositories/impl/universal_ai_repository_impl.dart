@@ -136,6 +136,7 @@ class UniversalAIRepositoryImpl implements UniversalAIRepository {
         },
         eventName: 'message', // 🚀 与后端保持一致的事件名
         connectionId: 'universal_ai_${request.requestType.value}_${DateTime.now().millisecondsSinceEpoch}',
+        resumable: true,
       ).where((response) {
         // 🚀 修复：不要过滤掉结束信号（即使content为空但有finishReason的响应）
         if (response.finishReason != null) {
@@ -701,12 +701,25 @@ class AuthService {
     }
     
     try {
-      await _apiClient.post('/auth/change-password', data: {
+      final data = await _apiClient.post('/auth/change-password', data: {
         'currentPassword': currentPassword,
         'newPassword': newPassword,
         'username': AppConfig.username, // 确保后端能识别当前用户
       });
-      // 密码修改成功
+      // 密码修改后旧令牌全部失效，保存后端重新签发的令牌
+      final newToken = data['token'];
+      final newRefreshToken = data['refreshToken'];
+      final prefs = await SharedPreferences.getInstance();
+      await prefs.setString(_tokenKey, newToken);
+      await prefs.setString(_refreshTokenKey, newRefreshToken);
+      AppConfig.setAuthToken(newToken);
+
+      _currentState = AuthState.authenticated(
+        token: newToken,
+        userId: _currentState.userId,
+        username: _currentState.username,
+      );
+      _authStateController.add(_currentState);
       return;
     } on ApiException catch (e) {
       if (e.statusCode == 401) {
@@ -2,10 +2,18 @@ import 'dart:async';
 
 /// 前端全局任务事件缓存与聚合器
 /// - 缓存最近事件与任务最新状态，支持晚到的界面初始化时回放当前聚合状态
+/// - 收到服务端的重同步标记（连接缓冲溢出、有事件被跳过）时重新拉取任务状态
 class TaskEventCache {
   TaskEventCache._internal();
   static final TaskEventCache instance = TaskEventCache._internal();
 
+  /// 服务端重同步标记的事件类型，该事件不带 taskId
+  static const String resyncEventType = 'TASK_EVENTS_RESYNC';
+
+  /// 重同步时拉取任务状态的加载器（由启动任务事件监听处注入）
+  Future<List<Map<String, dynamic>>> Function()? _resyncLoader;
+  bool _resyncInFlight = false;
+
   final List<Map<String, dynamic>> _events = <Map<String, dynamic>>[]; // 最近事件（可限制大小）
   final Map<String, Map<String, dynamic>> _tasks = <String, Map<String, dynamic>>{}; // taskId -> latest
   final Map<String, List<Map<String, dynamic>>> _childrenByParent = <String, List<Map<String, dynamic>>>{};
@@ -62,6 +70,28 @@ class TaskEventCache {
     );
   }
 
+  /// 设置重同步时拉取任务状态的加载器
+  void setResyncLoader(Future<List<Map<String, dynamic>>> Function() loader) {
+    _resyncLoader = loader;
+  }
+
+  /// 有事件被跳过：重新拉取任务状态覆盖缓存，同一时间只进行一次
+  Future<void> _resync() async {
+    final loader = _resyncLoader;
+    if (loader == null || _resyncInFlight) return;
+    _resyncInFlight = true;
+    try {
+      final tasks = await loader();
+      if (tasks.isNotEmpty) {
+        initializeHistoryTasks(tasks);
+      }
+    } catch (_) {
+      // 拉取失败时保留现有缓存，后续事件继续增量更新
+    } finally {
+      _resyncInFlight = false;
+    }
+  }
+
   /// 批量初始化历史任务数据
   void initializeHistoryTasks(List<Map<String, dynamic>> historyTasks) {
     for (final task in historyTasks) {
@@ -103,6 +133,10 @@ class TaskEventCache {
   void onEvent(Map<String, dynamic> ev) {
     final String type = (ev['type'] ?? '').toString();
     if (type == 'HEARTBEAT') return;
+    if (type == resyncEventType) {
+      _resync();
+      return;
+    }
     final String taskId = (ev['taskId'] ?? '').toString();
     if (taskId.isEmpty) return;
 
@@ -2,42 +2,43 @@ package com.ainovel.server.config;
 
 import com.ainovel.server.domain.model.AIFeatureType;
 import com.ainovel.server.domain.model.AIPromptPreset;
-import com.ainovel.server.repository.AIPromptPresetRepository;
-import com.ainovel.server.repository.EnhancedUserPromptTemplateRepository;
+import com.ainovel.server.service.seed.SeedItem;
+import com.ainovel.server.service.seed.SystemSeedSource;
 import com.ainovel.server.web.dto.request.UniversalAIRequestDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.nio.charset.StandardCharsets;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.ApplicationArguments;
-import org.springframework.boot.ApplicationRunner;
 import org.springframework.core.annotation.Order;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Component;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.time.LocalDateTime;
 import java.util.*;
 import java.util.EnumMap;
 import java.util.Collections;
 
 /**
  * AI提示词预设初始化器
- * 在应用启动完成后自动初始化系统默认预设
+ * 声明系统默认预设种子；预设关联的系统模板ID由数据库生成，种子写入后再补充关联
  */
 @Slf4j
 @Component
 @Order(2) // 确保在 PromptProviderInitializer 之后执行
-public class AIPromptPresetInitializer implements ApplicationRunner {
+public class AIPromptPresetInitializer implements SystemSeedSource {
 
     @Autowired
-    private AIPromptPresetRepository presetRepository;
-
-    @Autowired
-    private EnhancedUserPromptTemplateRepository templateRepository;
+    private ReactiveMongoTemplate mongoTemplate;
 
     @Autowired
     private PromptProviderInitializer promptProviderInitializer;
@@ -49,42 +50,71 @@ public class AIPromptPresetInitializer implements ApplicationRunner {
     private boolean settingTreeGenerationInitOnStartup;
 
     @Override
-    public void run(ApplicationArguments args) throws Exception {
-        log.info("开始初始化系统默认AI预设...");
-        
-        try {
-            initializeSystemPresets()
-                    .doOnSuccess(unused -> log.info("系统默认AI预设初始化完成"))
-                    .doOnError(error -> log.error("初始化系统默认AI预设失败", error))
-                    .block(); // 阻塞等待完成，确保初始化完成后才继续
-        } catch (Exception e) {
-            log.error("初始化系统默认AI预设时发生异常", e);
+    public String seedCollection() {
+        return mongoTemplate.getCollectionName(AIPromptPreset.class);
+    }
+
+    @Override
+    public List<SeedItem> seedItems() {
+        return systemPresets().stream()
+                .map(preset -> new SeedItem(preset.getPresetId(),
+                        Map.of("presetId", preset.getPresetId(), "isSystem", true),
+                        preset))
+                .toList();
+    }
+
+    /**
+     * 本节点写入了种子时，为尚未关联模板的系统预设补充对应功能的系统模板ID（一次批量更新）
+     */
+    @Override
+    public Mono<Void> afterSeeded(boolean applied) {
+        if (!applied) {
+            return Mono.empty();
         }
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AIPromptPreset.class);
+        int linked = 0;
+        for (AIPromptPreset preset : systemPresets()) {
+            String templateId = getSystemTemplateId(AIFeatureType.valueOf(preset.getAiFeatureType()));
+            if (templateId == null) {
+                continue;
+            }
+            bulk.updateOne(Query.query(Criteria.where("presetId").is(preset.getPresetId())
+                            .and("isSystem").is(true)
+                            .and("templateId").is(null)),
+                    Update.update("templateId", templateId));
+            linked++;
+        }
+        if (linked == 0) {
+            return Mono.empty();
+        }
+        return bulk.execute()
+                .doOnSuccess(result -> log.info("系统预设模板关联完成: 更新 {} 个预设", result.getModifiedCount()))
+                .then();
     }
 
     /**
-     * 初始化系统预设
+     * 所有系统预设
      */
-    private Mono<Void> initializeSystemPresets() {
-        List<Mono<AIPromptPreset>> presetMonos = new ArrayList<>();
+    private List<AIPromptPreset> systemPresets() {
+        List<AIPromptPreset> presets = new ArrayList<>();
         
         // 为每个AI功能类型创建系统预设
         for (AIFeatureType featureType : AIFeatureType.values()) {
             if (featureType == AIFeatureType.SETTING_TREE_GENERATION && !settingTreeGenerationInitOnStartup) {
-                log.info("⏭️ 跳过 SETTING_TREE_GENERATION 系统预设初始化（开关关闭）");
+                log.debug("⏭️ 跳过 SETTING_TREE_GENERATION 系统预设（开关关闭）");
                 continue;
             }
-            presetMonos.addAll(createSystemPresetsForFeature(featureType));
+            presets.addAll(createSystemPresetsForFeature(featureType));
         }
         
-        return Flux.merge(presetMonos).then();
+        return presets;
     }
 
     /**
      * 为指定功能类型创建系统预设
      */
-    private List<Mono<AIPromptPreset>> createSystemPresetsForFeature(AIFeatureType featureType) {
-        List<Mono<AIPromptPreset>> presets = new ArrayList<>();
+    private List<AIPromptPreset> createSystemPresetsForFeature(AIFeatureType featureType) {
+        List<AIPromptPreset> presets = new ArrayList<>();
         
         if (featureType == AIFeatureType.TEXT_EXPANSION) {
             presets.add(createTextExpansionSystemPreset());
@@ -110,349 +140,242 @@ public class AIPromptPresetInitializer implements ApplicationRunner {
     /**
      * 创建文本扩写系统预设
      */
-    private Mono<AIPromptPreset> createTextExpansionSystemPreset() {
+    private AIPromptPreset createTextExpansionSystemPreset() {
         String presetId = "system-text-expansion-default";
         
-        return presetRepository.existsByPresetIdAndIsSystemTrue(presetId)
-                .flatMap(exists -> {
-                    if (exists) {
-                        log.info("系统预设已存在，跳过创建: {}", presetId);
-                        return Mono.empty();
-                    }
-                    
-                    try {
-                        UniversalAIRequestDto requestData = UniversalAIRequestDto.builder()
-                                .requestType("expansion")
-                                .modelConfigId("default-gpt-3.5")
-                                .parameters(Map.of(
-                                        "temperature", 0.7,
-                                        "max_tokens", 2000
-                                ))
-                                .build();
-                        
-                        // 🚀 修复：计算系统预设哈希
-                        String presetHash = calculateSystemPresetHash(presetId, AIFeatureType.TEXT_EXPANSION, requestData);
-                        
-                        AIPromptPreset preset = AIPromptPreset.builder()
-                                .presetId(presetId)
-                                .userId("system")
-                                .presetHash(presetHash) // 🚀 修复：设置计算出的哈希值
-                                .presetName("标准文本扩写")
-                                .presetDescription("系统默认的文本扩写预设，适用于大部分小说内容扩写场景")
-                                .presetTags(Arrays.asList("系统预设", "文本扩写", "小说创作"))
-                                .isFavorite(false)
-                                .isPublic(true)
-                                .useCount(0)
-                                .requestData(objectMapper.writeValueAsString(requestData))
-                                .systemPrompt("你是一位专业的小说创作助手。请根据提供的内容进行扩写，保持故事的连贯性和角色性格的一致性。")
-                                .userPrompt("请扩写以下内容：{input}\n\n上下文信息：{context}\n\n要求：\n1. 保持原有的写作风格\n2. 增加更多的细节描述\n3. 让情节发展更加自然流畅")
-                                .aiFeatureType(AIFeatureType.TEXT_EXPANSION.name())
-                                .templateId(getSystemTemplateId(AIFeatureType.TEXT_EXPANSION))
-                                .promptCustomized(false)
-                                .isSystem(true)
-                                .showInQuickAccess(true)
-                                .createdAt(LocalDateTime.now())
-                                .updatedAt(LocalDateTime.now())
-                                .build();
-                        
-                        log.info("创建系统预设: {}", preset.getPresetName());
-                        return presetRepository.save(preset);
-                        
-                    } catch (Exception e) {
-                        log.error("创建文本扩写系统预设失败", e);
-                        return Mono.empty();
-                    }
-                });
+        UniversalAIRequestDto requestData = UniversalAIRequestDto.builder()
+                .requestType("expansion")
+                .modelConfigId("default-gpt-3.5")
+                .parameters(Map.of(
+                        "temperature", 0.7,
+                        "max_tokens", 2000
+                ))
+                .build();
+        
+        // 🚀 修复：计算系统预设哈希
+        String presetHash = calculateSystemPresetHash(presetId, AIFeatureType.TEXT_EXPANSION, requestData);
+        
+        return AIPromptPreset.builder()
+                .presetId(presetId)
+                .userId("system")
+                .presetHash(presetHash) // 🚀 修复：设置计算出的哈希值
+                .presetName("标准文本扩写")
+                .presetDescription("系统默认的文本扩写预设，适用于大部分小说内容扩写场景")
+                .presetTags(Arrays.asList("系统预设", "文本扩写", "小说创作"))
+                .isFavorite(false)
+                .isPublic(true)
+                .useCount(0)
+                .requestData(toRequestDataJson(requestData))
+                .systemPrompt("你是一位专业的小说创作助手。请根据提供的内容进行扩写，保持故事的连贯性和角色性格的一致性。")
+                .userPrompt("请扩写以下内容：{input}\n\n上下文信息：{context}\n\n要求：\n1. 保持原有的写作风格\n2. 增加更多的细节描述\n3. 让情节发展更加自然流畅")
+                .aiFeatureType(AIFeatureType.TEXT_EXPANSION.name())
+                .promptCustomized(false)
+                .isSystem(true)
+                .showInQuickAccess(true)
+                .build();
     }
 
     /**
      * 创建文本重构系统预设
      */
-    private Mono<AIPromptPreset> createTextRefactorSystemPreset() {
+    private AIPromptPreset createTextRefactorSystemPreset() {
         String presetId = "system-text-refactor-default";
         
-        return presetRepository.existsByPresetIdAndIsSystemTrue(presetId)
-                .flatMap(exists -> {
-                    if (exists) {
-                        log.info("系统预设已存在，跳过创建: {}", presetId);
-                        return Mono.empty();
-                    }
-                    
-                    try {
-                        UniversalAIRequestDto requestData = UniversalAIRequestDto.builder()
-                                .requestType("refactor")
-                                .modelConfigId("default-gpt-3.5")
-                                .parameters(Map.of(
-                                        "temperature", 0.6,
-                                        "max_tokens", 2000
-                                ))
-                                .build();
-                        
-                        // 🚀 修复：计算系统预设哈希
-                        String presetHash = calculateSystemPresetHash(presetId, AIFeatureType.TEXT_REFACTOR, requestData);
-                        
-                        AIPromptPreset preset = AIPromptPreset.builder()
-                                .presetId(presetId)
-                                .userId("system")
-                                .presetHash(presetHash) // 🚀 修复：设置计算出的哈希值
-                                .presetName("标准文本重构")
-                                .presetDescription("系统默认的文本重构预设，用于改善文字表达和故事结构")
-                                .presetTags(Arrays.asList("系统预设", "文本重构", "优化"))
-                                .isFavorite(false)
-                                .isPublic(true)
-                                .useCount(0)
-                                .requestData(objectMapper.writeValueAsString(requestData))
-                                .systemPrompt("你是一位专业的文字编辑。请重构提供的内容，改善文字表达和故事结构，保持原有风格和特色。")
-                                .userPrompt("请重构以下内容：{input}\n\n上下文信息：{context}\n\n要求：\n1. 改善文字表达和语言流畅度\n2. 优化故事结构和逻辑\n3. 保持原有的风格特色")
-                                .aiFeatureType(AIFeatureType.TEXT_REFACTOR.name())
-                                .templateId(getSystemTemplateId(AIFeatureType.TEXT_REFACTOR))
-                                .promptCustomized(false)
-                                .isSystem(true)
-                                .showInQuickAccess(true)
-                                .createdAt(LocalDateTime.now())
-                                .updatedAt(LocalDateTime.now())
-                                .build();
-                        
-                        log.info("创建系统预设: {}", preset.getPresetName());
-                        return presetRepository.save(preset);
-                        
-                    } catch (Exception e) {
-                        log.error("创建文本重构系统预设失败", e);
-                        return Mono.empty();
-                    }
-                });
+        UniversalAIRequestDto requestData = UniversalAIRequestDto.builder()
+                .requestType("refactor")
+                .modelConfigId("default-gpt-3.5")
+                .parameters(Map.of(
+                        "temperature", 0.6,
+                        "max_tokens", 2000
+                ))
+                .build();
+        
+        // 🚀 修复：计算系统预设哈希
+        String presetHash = calculateSystemPresetHash(presetId, AIFeatureType.TEXT_REFACTOR, requestData);
+        
+        return AIPromptPreset.builder()
+                .presetId(presetId)
+                .userId("system")
+                .presetHash(presetHash) // 🚀 修复：设置计算出的哈希值
+                .presetName("标准文本重构")
+                .presetDescription("系统默认的文本重构预设，用于改善文字表达和故事结构")
+                .presetTags(Arrays.asList("系统预设", "文本重构", "优化"))
+                .isFavorite(false)
+                .isPublic(true)
+                .useCount(0)
+                .requestData(toRequestDataJson(requestData))
+                .systemPrompt("你是一位专业的文字编辑。请重构提供的内容，改善文字表达和故事结构，保持原有风格和特色。")
+                .userPrompt("请重构以下内容：{input}\n\n上下文信息：{context}\n\n要求：\n1. 改善文字表达和语言流畅度\n2. 优化故事结构和逻辑\n3. 保持原有的风格特色")
+                .aiFeatureType(AIFeatureType.TEXT_REFACTOR.name())
+                .promptCustomized(false)
+                .isSystem(true)
+                .showInQuickAccess(true)
+                .build();
     }
 
     /**
      * 创建文本总结系统预设
      */
-    private Mono<AIPromptPreset> createTextSummarySystemPreset() {
+    private AIPromptPreset createTextSummarySystemPreset() {
         String presetId = "system-text-summary-default";
         
-        return presetRepository.existsByPresetIdAndIsSystemTrue(presetId)
-                .flatMap(exists -> {
-                    if (exists) {
-                        log.info("系统预设已存在，跳过创建: {}", presetId);
-                        return Mono.empty();
-                    }
-                    
-                    try {
-                        UniversalAIRequestDto requestData = UniversalAIRequestDto.builder()
-                                .requestType("summary")
-                                .modelConfigId("default-gpt-3.5")
-                                .parameters(Map.of(
-                                        "temperature", 0.3,
-                                        "max_tokens", 1000
-                                ))
-                                .build();
-                        
-                        // 🚀 修复：计算系统预设哈希
-                        String presetHash = calculateSystemPresetHash(presetId, AIFeatureType.TEXT_SUMMARY, requestData);
-                        
-                        AIPromptPreset preset = AIPromptPreset.builder()
-                                .presetId(presetId)
-                                .userId("system")
-                                .presetHash(presetHash) // 🚀 修复：设置计算出的哈希值
-                                .presetName("标准文本总结")
-                                .presetDescription("系统默认的文本总结预设，用于提取关键情节和重要信息")
-                                .presetTags(Arrays.asList("系统预设", "文本总结", "内容概括"))
-                                .isFavorite(false)
-                                .isPublic(true)
-                                .useCount(0)
-                                .requestData(objectMapper.writeValueAsString(requestData))
-                                .systemPrompt("你是一位专业的文本分析师。请准确总结提供的内容，提取关键情节和重要信息。")
-                                .userPrompt("请总结以下内容：{input}\n\n上下文信息：{context}\n\n要求：\n1. 提取关键情节和重要信息\n2. 保持总结的准确性和完整性\n3. 突出重要的故事转折点")
-                                .aiFeatureType(AIFeatureType.TEXT_SUMMARY.name())
-                                .templateId(getSystemTemplateId(AIFeatureType.TEXT_SUMMARY))
-                                .promptCustomized(false)
-                                .isSystem(true)
-                                .showInQuickAccess(true)
-                                .createdAt(LocalDateTime.now())
-                                .updatedAt(LocalDateTime.now())
-                                .build();
-                        
-                        log.info("创建系统预设: {}", preset.getPresetName());
-                        return presetRepository.save(preset);
-                        
-                    } catch (Exception e) {
-                        log.error("创建文本总结系统预设失败", e);
-                        return Mono.empty();
-                    }
-                });
+        UniversalAIRequestDto requestData = UniversalAIRequestDto.builder()
+                .requestType("summary")
+                .modelConfigId("default-gpt-3.5")
+                .parameters(Map.of(
+                        "temperature", 0.3,
+                        "max_tokens", 1000
+                ))
+                .build();
+        
+        // 🚀 修复：计算系统预设哈希
+        String presetHash = calculateSystemPresetHash(presetId, AIFeatureType.TEXT_SUMMARY, requestData);
+        
+        return AIPromptPreset.builder()
+                .presetId(presetId)
+                .userId("system")
+                .presetHash(presetHash) // 🚀 修复：设置计算出的哈希值
+                .presetName("标准文本总结")
+                .presetDescription("系统默认的文本总结预设，用于提取关键情节和重要信息")
+                .presetTags(Arrays.asList("系统预设", "文本总结", "内容概括"))
+                .isFavorite(false)
+                .isPublic(true)
+                .useCount(0)
+                .requestData(toRequestDataJson(requestData))
+                .systemPrompt("你是一位专业的文本分析师。请准确总结提供的内容，提取关键情节和重要信息。")
+                .userPrompt("请总结以下内容：{input}\n\n上下文信息：{context}\n\n要求：\n1. 提取关键情节和重要信息\n2. 保持总结的准确性和完整性\n3. 突出重要的故事转折点")
+                .aiFeatureType(AIFeatureType.TEXT_SUMMARY.name())
+                .promptCustomized(false)
+                .isSystem(true)
+                .showInQuickAccess(true)
+                .build();
     }
 
     /**
      * 创建聊天系统预设
      */
-    private Mono<AIPromptPreset> createChatSystemPreset() {
+    private AIPromptPreset createChatSystemPreset() {
         String presetId = "system-chat-default";
         
-        return presetRepository.existsByPresetIdAndIsSystemTrue(presetId)
-                .flatMap(exists -> {
-                    if (exists) {
-                        log.info("系统预设已存在，跳过创建: {}", presetId);
-                        return Mono.empty();
-                    }
-                    
-                    try {
-                        UniversalAIRequestDto requestData = UniversalAIRequestDto.builder()
-                                .requestType("chat")
-                                .modelConfigId("default-gpt-3.5")
-                                .parameters(Map.of(
-                                        "temperature", 0.7,
-                                        "max_tokens", 2000
-                                ))
-                                .build();
-                        
-                        // 🚀 修复：计算系统预设哈希
-                        String presetHash = calculateSystemPresetHash(presetId, AIFeatureType.AI_CHAT, requestData);
-                        
-                        AIPromptPreset preset = AIPromptPreset.builder()
-                                .presetId(presetId)
-                                .userId("system")
-                                .presetHash(presetHash) // 🚀 修复：设置计算出的哈希值
-                                .presetName("智能创作助手")
-                                .presetDescription("系统默认的AI聊天预设，专业的小说创作助手")
-                                .presetTags(Arrays.asList("系统预设", "AI聊天", "创作助手"))
-                                .isFavorite(false)
-                                .isPublic(true)
-                                .useCount(0)
-                                .requestData(objectMapper.writeValueAsString(requestData))
-                                .systemPrompt("你是一位专业的小说创作助手，具有丰富的文学知识和创作经验。你可以帮助用户进行小说创作的各种任务。")
-                                .userPrompt("{prompt}")
-                                .aiFeatureType(AIFeatureType.AI_CHAT.name())
-                                .templateId(getSystemTemplateId(AIFeatureType.AI_CHAT))
-                                .promptCustomized(false)
-                                .isSystem(true)
-                                .showInQuickAccess(true)
-                                .createdAt(LocalDateTime.now())
-                                .updatedAt(LocalDateTime.now())
-                                .build();
-                        
-                        log.info("创建系统预设: {}", preset.getPresetName());
-                        return presetRepository.save(preset);
-                        
-                    } catch (Exception e) {
-                        log.error("创建聊天系统预设失败", e);
-                        return Mono.empty();
-                    }
-                });
+        UniversalAIRequestDto requestData = UniversalAIRequestDto.builder()
+                .requestType("chat")
+                .modelConfigId("default-gpt-3.5")
+                .parameters(Map.of(
+                        "temperature", 0.7,
+                        "max_tokens", 2000
+                ))
+                .build();
+        
+        // 🚀 修复：计算系统预设哈希
+        String presetHash = calculateSystemPresetHash(presetId, AIFeatureType.AI_CHAT, requestData);
+        
+        return AIPromptPreset.builder()
+                .presetId(presetId)
+                .userId("system")
+                .presetHash(presetHash) // 🚀 修复：设置计算出的哈希值
+                .presetName("智能创作助手")
+                .presetDescription("系统默认的AI聊天预设，专业的小说创作助手")
+                .presetTags(Arrays.asList("系统预设", "AI聊天", "创作助手"))
+                .isFavorite(false)
+                .isPublic(true)
+                .useCount(0)
+                .requestData(toRequestDataJson(requestData))
+                .systemPrompt("你是一位专业的小说创作助手，具有丰富的文学知识和创作经验。你可以帮助用户进行小说创作的各种任务。")
+                .userPrompt("{prompt}")
+                .aiFeatureType(AIFeatureType.AI_CHAT.name())
+                .promptCustomized(false)
+                .isSystem(true)
+                .showInQuickAccess(true)
+                .build();
     }
 
     /**
      * 创建场景生成系统预设
      */
-    private Mono<AIPromptPreset> createSceneGenerationSystemPreset() {
+    private AIPromptPreset createSceneGenerationSystemPreset() {
         String presetId = "system-scene-generation-default";
         
-        return presetRepository.existsByPresetIdAndIsSystemTrue(presetId)
-                .flatMap(exists -> {
-                    if (exists) {
-                        log.info("系统预设已存在，跳过创建: {}", presetId);
-                        return Mono.empty();
-                    }
-                    
-                    try {
-                        UniversalAIRequestDto requestData = UniversalAIRequestDto.builder()
-                                .requestType("generation")
-                                .modelConfigId("default-gpt-4")
-                                .parameters(Map.of(
-                                        "temperature", 0.8,
-                                        "max_tokens", 3000
-                                ))
-                                .build();
-                        
-                        // 🚀 修复：计算系统预设哈希
-                        String presetHash = calculateSystemPresetHash(presetId, AIFeatureType.SCENE_TO_SUMMARY, requestData);
-                        
-                        AIPromptPreset preset = AIPromptPreset.builder()
-                                .presetId(presetId)
-                                .userId("system")
-                                .presetHash(presetHash) // 🚀 修复：设置计算出的哈希值
-                                .presetName("智能场景生成")
-                                .presetDescription("系统默认的场景生成预设，用于创作新的故事场景")
-                                .presetTags(Arrays.asList("系统预设", "场景生成", "内容创作"))
-                                .isFavorite(false)
-                                .isPublic(true)
-                                .useCount(0)
-                                .requestData(objectMapper.writeValueAsString(requestData))
-                                .systemPrompt("你是一位专业的小说创作者。请根据提供的信息创作引人入胜的故事场景，保持故事的连贯性和吸引力。")
-                                .userPrompt("请根据以下信息生成场景：{prompt}\n\n背景设定：{context}\n\n要求：\n1. 创作生动有趣的故事情节\n2. 保持角色性格的一致性\n3. 符合整体故事背景和风格")
-                                .aiFeatureType(AIFeatureType.SCENE_TO_SUMMARY.name())
-                                .templateId(getSystemTemplateId(AIFeatureType.SCENE_TO_SUMMARY))
-                                .promptCustomized(false)
-                                .isSystem(true)
-                                .showInQuickAccess(true)
-                                .createdAt(LocalDateTime.now())
-                                .updatedAt(LocalDateTime.now())
-                                .build();
-                        
-                        log.info("创建系统预设: {}", preset.getPresetName());
-                        return presetRepository.save(preset);
-                        
-                    } catch (Exception e) {
-                        log.error("创建场景生成系统预设失败", e);
-                        return Mono.empty();
-                    }
-                });
+        UniversalAIRequestDto requestData = UniversalAIRequestDto.builder()
+                .requestType("generation")
+                .modelConfigId("default-gpt-4")
+                .parameters(Map.of(
+                        "temperature", 0.8,
+                        "max_tokens", 3000
+                ))
+                .build();
+        
+        // 🚀 修复：计算系统预设哈希
+        String presetHash = calculateSystemPresetHash(presetId, AIFeatureType.SCENE_TO_SUMMARY, requestData);
+        
+        return AIPromptPreset.builder()
+                .presetId(presetId)
+                .userId("system")
+                .presetHash(presetHash) // 🚀 修复：设置计算出的哈希值
+                .presetName("智能场景生成")
+                .presetDescription("系统默认的场景生成预设，用于创作新的故事场景")
+                .presetTags(Arrays.asList("系统预设", "场景生成", "内容创作"))
+                .isFavorite(false)
+                .isPublic(true)
+                .useCount(0)
+                .requestData(toRequestDataJson(requestData))
+                .systemPrompt("你是一位专业的小说创作者。请根据提供的信息创作引人入胜的故事场景，保持故事的连贯性和吸引力。")
+                .userPrompt("请根据以下信息生成场景：{prompt}\n\n背景设定：{context}\n\n要求：\n1. 创作生动有趣的故事情节\n2. 保持角色性格的一致性\n3. 符合整体故事背景和风格")
+                .aiFeatureType(AIFeatureType.SCENE_TO_SUMMARY.name())
+                .promptCustomized(false)
+                .isSystem(true)
+                .showInQuickAccess(true)
+                .build();
     }
 
     /**
      * 创建通用系统预设
      */
-    private Mono<AIPromptPreset> createGenericSystemPreset(AIFeatureType featureType) {
+    private AIPromptPreset createGenericSystemPreset(AIFeatureType featureType) {
         String presetId = "system-" + featureType.name().toLowerCase().replace("_", "-") + "-default";
         
-        return presetRepository.existsByPresetIdAndIsSystemTrue(presetId)
-                .flatMap(exists -> {
-                    if (exists) {
-                        log.info("系统预设已存在，跳过创建: {}", presetId);
-                        return Mono.empty();
-                    }
-                    
-                    try {
-                        UniversalAIRequestDto requestData = UniversalAIRequestDto.builder()
-                                .requestType("general")
-                                .modelConfigId("default-gpt-3.5")
-                                .parameters(Map.of(
-                                        "temperature", 0.7,
-                                        "max_tokens", 2000
-                                ))
-                                .build();
-                        
-                        // 🚀 修复：计算系统预设哈希
-                        String presetHash = calculateSystemPresetHash(presetId, featureType, requestData);
-                        
-                        AIPromptPreset preset = AIPromptPreset.builder()
-                                .presetId(presetId)
-                                .userId("system")
-                                .presetHash(presetHash) // 🚀 修复：设置计算出的哈希值
-                                .presetName("默认 " + getFeatureDisplayName(featureType))
-                                .presetDescription("系统默认的" + getFeatureDisplayName(featureType) + "预设")
-                                .presetTags(Arrays.asList("系统预设", getFeatureDisplayName(featureType)))
-                                .isFavorite(false)
-                                .isPublic(true)
-                                .useCount(0)
-                                .requestData(objectMapper.writeValueAsString(requestData))
-                                .systemPrompt("你是一位专业的AI助手，可以帮助用户完成各种文本处理任务。")
-                                .userPrompt("{prompt}")
-                                .aiFeatureType(featureType.name())
-                                .templateId(getSystemTemplateId(featureType))
-                                .promptCustomized(false)
-                                .isSystem(true)
-                                .showInQuickAccess(false) // 通用预设默认不显示在快捷访问中
-                                .createdAt(LocalDateTime.now())
-                                .updatedAt(LocalDateTime.now())
-                                .build();
-                        
-                        log.info("创建系统预设: {}", preset.getPresetName());
-                        return presetRepository.save(preset);
-                        
-                    } catch (Exception e) {
-                        log.error("创建通用系统预设失败: featureType={}", featureType, e);
-                        return Mono.empty();
-                    }
-                });
+        UniversalAIRequestDto requestData = UniversalAIRequestDto.builder()
+                .requestType("general")
+                .modelConfigId("default-gpt-3.5")
+                .parameters(Map.of(
+                        "temperature", 0.7,
+                        "max_tokens", 2000
+                ))
+                .build();
+        
+        // 🚀 修复：计算系统预设哈希
+        String presetHash = calculateSystemPresetHash(presetId, featureType, requestData);
+        
+        return AIPromptPreset.builder()
+                .presetId(presetId)
+                .userId("system")
+                .presetHash(presetHash) // 🚀 修复：设置计算出的哈希值
+                .presetName("默认 " + getFeatureDisplayName(featureType))
+                .presetDescription("系统默认的" + getFeatureDisplayName(featureType) + "预设")
+                .presetTags(Arrays.asList("系统预设", getFeatureDisplayName(featureType)))
+                .isFavorite(false)
+                .isPublic(true)
+                .useCount(0)
+                .requestData(toRequestDataJson(requestData))
+                .systemPrompt("你是一位专业的AI助手，可以帮助用户完成各种文本处理任务。")
+                .userPrompt("{prompt}")
+                .aiFeatureType(featureType.name())
+                .promptCustomized(false)
+                .isSystem(true)
+                .showInQuickAccess(false) // 通用预设默认不显示在快捷访问中
+                .build();
+    }
+
+    /**
+     * 请求参数序列化为 JSON，Map 按键排序保证种子内容稳定
+     */
+    private String toRequestDataJson(UniversalAIRequestDto requestData) {
+        try {
+            return objectMapper.writer()
+                    .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                    .writeValueAsString(requestData);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("系统预设请求参数序列化失败", e);
+        }
     }
 
     /**
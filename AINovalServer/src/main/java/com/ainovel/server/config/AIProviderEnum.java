@@ -19,7 +19,8 @@ public enum AIProviderEnum {
     ZHIPU("zhipu", "Zhipu GLM", true, false, 128000),
     QWEN("qwen", "Qwen (DashScope)", true, false, 128000),
     X_AI("x-ai", "xAI", true, false, 128000),
-    GROK("grok", "Grok", true, false, 128000);
+    GROK("grok", "Grok", true, false, 128000),
+    MOCK("mock", "Mock (压测)", true, false, 128000);
     
     private final String code;
     private final String displayName;
@@ -0,0 +1,49 @@
+package com.ainovel.server.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 小说全文检索配置（场景/片段/设定的进程内倒排索引）
+ *
+ * 索引只保存在本节点的内存和 indexDir 中，写入回调也只更新本节点。多节点部署时，
+ * 其他节点的写入要等 snapshotMaxAge 过期重建后才能检索到；需要一致结果时应单节点部署，或关闭 enabled。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "ainovel.search")
+public class FullTextSearchConfig {
+
+    /**
+     * 是否启用进程内全文索引；关闭时片段搜索回退到 MongoDB $text 查询
+     */
+    private boolean enabled = true;
+
+    /**
+     * 索引段文件目录
+     */
+    private String indexDir = "./data/search-index";
+
+    /**
+     * 内存中最多同时保留的小说索引数
+     */
+    private int maxCachedNovels = 50;
+
+    /**
+     * 增量日志累计多少条后重新写快照
+     */
+    private int snapshotEveryOps = 500;
+
+    /**
+     * 快照最大有效期，超过后从数据库重建（其他节点的写入只会在重建时被感知）
+     */
+    private Duration snapshotMaxAge = Duration.ofHours(24);
+
+    /**
+     * 结果摘要中命中位置两侧保留的字符数
+     */
+    private int snippetContextChars = 40;
+}
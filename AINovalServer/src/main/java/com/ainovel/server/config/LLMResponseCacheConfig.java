@@ -0,0 +1,34 @@
+package com.ainovel.server.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LLM 响应缓存配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "ainovel.llm-response-cache")
+public class LLMResponseCacheConfig {
+
+    /**
+     * 总开关，默认关闭：命中时返回的是历史输出，需要的部署显式开启
+     */
+    private boolean enabled = false;
+
+    /**
+     * 启用缓存的功能类型及各自的有效期；未列出的功能不缓存。
+     * 键为 AIFeatureType 名称，或请求 metadata.requestType 中的业务类型
+     */
+    private Map<String, Duration> features = new LinkedHashMap<>();
+
+    /**
+     * 超过该字符数的响应不写入缓存
+     */
+    private int maxContentChars = 200_000;
+}
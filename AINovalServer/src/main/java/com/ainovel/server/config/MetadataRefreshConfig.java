@@ -0,0 +1,36 @@
+package com.ainovel.server.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 小说元数据（总字数/阅读时间）刷新调度配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "ainovel.metadata-refresh")
+public class MetadataRefreshConfig {
+
+    /**
+     * 合并窗口：首个刷新请求之后等待多久执行，窗口内同一小说的请求合并为一次
+     */
+    private Duration window = Duration.ofSeconds(3);
+
+    /**
+     * 集群租约有效期
+     */
+    private Duration leaseTtl = Duration.ofSeconds(60);
+
+    /**
+     * 其他节点正在刷新同一小说时的重试间隔
+     */
+    private Duration retryDelay = Duration.ofSeconds(5);
+
+    /**
+     * 全量重算间隔：超过该时间未全量重算的小说，增量请求会升级为全量重算以纠正累计误差
+     */
+    private Duration fullRecountInterval = Duration.ofMinutes(10);
+}
@@ -0,0 +1,77 @@
+package com.ainovel.server.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 本地模拟模型提供商配置（压测用）
+ *
+ * 启用后，提供商名称为 "mock" 的模型配置由 MockModelProvider 处理，不调用任何外部服务；
+ * 模型名称即行为档位名称，未配置的名称使用 default 档位。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "ainovel.ai.mock-provider")
+public class MockModelProviderConfig {
+
+    /**
+     * 总开关，生产环境保持关闭
+     */
+    private boolean enabled = false;
+
+    /**
+     * 行为档位，键为模型名称
+     */
+    private Map<String, Profile> profiles = new LinkedHashMap<>();
+
+    public Profile profileFor(String modelName) {
+        Profile profile = modelName != null ? profiles.get(modelName) : null;
+        if (profile == null) {
+            profile = profiles.get("default");
+        }
+        return profile != null ? profile : new Profile();
+    }
+
+    @Data
+    public static class Profile {
+        /**
+         * 首个 token 的延迟
+         */
+        private Duration firstTokenLatency = Duration.ofMillis(300);
+
+        /**
+         * 输出速度（token/秒）
+         */
+        private double tokensPerSecond = 50;
+
+        /**
+         * 每次响应输出的 token 数
+         */
+        private int outputTokens = 300;
+
+        /**
+         * 流式输出时每个分片包含的 token 数
+         */
+        private int tokensPerChunk = 1;
+
+        /**
+         * 每个 token 的文本
+         */
+        private String tokenText = "测";
+
+        /**
+         * 请求在输出过程中失败的概率（0-1）
+         */
+        private double errorRate = 0;
+
+        /**
+         * 请求被限流（429）的概率（0-1），在首个 token 之前返回
+         */
+        private double rateLimitRate = 0;
+    }
+}
@@ -1,87 +1,104 @@
 package com.ainovel.server.config;
 
 import com.ainovel.server.domain.model.AIFeatureType;
+import com.ainovel.server.domain.model.EnhancedUserPromptTemplate;
+import com.ainovel.server.service.cache.PromptPackageCache;
 import com.ainovel.server.service.prompt.AIFeaturePromptProvider;
+import com.ainovel.server.service.seed.SeedItem;
+import com.ainovel.server.service.seed.SystemSeedSource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.ApplicationArguments;
-import org.springframework.boot.ApplicationRunner;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Component;
-import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 提示词提供器初始化器
- * 在应用启动时自动初始化所有 Provider 的系统模板
+ * 声明所有 Provider 的系统模板种子，种子写入后一次查询绑定各 Provider 的系统模板ID
  * 
- * 注意：此初始化器必须在 AIPromptPresetInitializer 之前执行
+ * 注意：此种子来源必须排在 AIPromptPresetInitializer 之前，预设依赖这里绑定的模板ID
  */
 @Slf4j
 @Component
 @Order(1) // 确保在 AIPromptPresetInitializer 之前执行
-public class PromptProviderInitializer implements ApplicationRunner {
+public class PromptProviderInitializer implements SystemSeedSource {
 
     @Autowired
     private List<AIFeaturePromptProvider> promptProviders;
 
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    private PromptPackageCache promptPackageCache;
+
     @Value("${ainovel.ai.features.setting-tree-generation.init-on-startup:false}")
     private boolean settingTreeGenerationInitOnStartup;
 
     @Override
-    public void run(ApplicationArguments args) throws Exception {
-        log.info("🚀 开始初始化所有提示词提供器的系统模板...");
+    public String seedCollection() {
+        return mongoTemplate.getCollectionName(EnhancedUserPromptTemplate.class);
+    }
+
+    @Override
+    public List<SeedItem> seedItems() {
         log.info("📊 发现 {} 个提示词提供器", promptProviders.size());
-        
-        try {
-            Flux.fromIterable(promptProviders)
-                    .filter(provider -> {
-                        if (provider.getFeatureType() == AIFeatureType.SETTING_TREE_GENERATION && !settingTreeGenerationInitOnStartup) {
-                            log.info("⏭️ 跳过 SETTING_TREE_GENERATION 提示词提供器的系统模板初始化（开关关闭）");
-                            return false;
-                        }
-                        return true;
-                    })
-                    .flatMap(provider -> {
-                        log.info("🔄 正在初始化提供器: {} ({})", 
-                                provider.getClass().getSimpleName(), 
-                                provider.getFeatureType());
-                        
-                        return provider.initializeSystemTemplate()
-                                .map(templateId -> {
-                                    log.info("✅ 提供器初始化成功: {} -> templateId: {}", 
-                                            provider.getFeatureType(), templateId);
-                                    return templateId;
-                                })
-                                .onErrorResume(error -> {
-                                    log.error("❌ 提供器初始化失败: {}, error: {}", 
-                                            provider.getFeatureType(), error.getMessage(), error);
-                                    return reactor.core.publisher.Mono.empty();
-                                });
-                    })
-                    .collectList()
-                    .doOnSuccess(templateIds -> {
-                        log.info("🎉 所有提示词提供器系统模板初始化完成！成功初始化 {} 个模板", templateIds.size());
-                        
-                        // 输出初始化统计
-                        promptProviders.forEach(provider -> {
-                            String templateId = provider.getSystemTemplateId();
-                            if (templateId != null) {
-                                log.info("📋 {}: {} -> {}", 
-                                        provider.getFeatureType(), 
-                                        provider.getTemplateIdentifier(), 
-                                        templateId);
-                            }
-                        });
-                    })
-                    .doOnError(error -> log.error("💥 提示词提供器系统模板初始化过程中发生异常", error))
-                    .block(); // 阻塞等待完成，确保在预设初始化前完成
-                    
-        } catch (Exception e) {
-            log.error("💥 初始化提示词提供器系统模板时发生异常", e);
-        }
+        return enabledProviders().stream()
+                .map(provider -> new SeedItem(provider.getFeatureType().name(),
+                        Map.of("userId", "system",
+                                "featureType", provider.getFeatureType().name(),
+                                "name", provider.getTemplateIdentifier()),
+                        provider.buildSystemTemplate()))
+                .toList();
+    }
+
+    /**
+     * 一次查询所有系统模板并绑定到各 Provider：优先同名模板，其次同功能类型的任一系统模板
+     * 种子批量写入不触发 Mongo 映射事件，本节点写入后需主动失效提示词包缓存
+     */
+    @Override
+    public Mono<Void> afterSeeded(boolean applied) {
+        Query query = Query.query(Criteria.where("userId").is("system"));
+        query.fields().include("featureType", "name");
+        return mongoTemplate.find(query, EnhancedUserPromptTemplate.class)
+                .collectList()
+                .doOnNext(templates -> {
+                    for (AIFeaturePromptProvider provider : enabledProviders()) {
+                        List<EnhancedUserPromptTemplate> sameFeature = templates.stream()
+                                .filter(template -> template.getFeatureType() == provider.getFeatureType())
+                                .toList();
+                        sameFeature.stream()
+                                .filter(template -> provider.getTemplateIdentifier().equals(template.getName()))
+                                .findFirst()
+                                .or(() -> sameFeature.stream().findFirst())
+                                .ifPresentOrElse(template -> provider.bindSystemTemplateId(template.getId()),
+                                        () -> log.warn("⚠️ 未找到系统模板: {}", provider.getFeatureType()));
+                    }
+                    log.info("🎉 提示词提供器系统模板绑定完成: {}", getAllSystemTemplateIds());
+                    if (applied) {
+                        promptPackageCache.invalidateAll();
+                    }
+                })
+                .then();
+    }
+
+    private List<AIFeaturePromptProvider> enabledProviders() {
+        return promptProviders.stream()
+                .filter(provider -> {
+                    if (provider.getFeatureType() == AIFeatureType.SETTING_TREE_GENERATION && !settingTreeGenerationInitOnStartup) {
+                        log.debug("⏭️ 跳过 SETTING_TREE_GENERATION 提示词提供器的系统模板（开关关闭）");
+                        return false;
+                    }
+                    return true;
+                })
+                .toList();
     }
 
     /**
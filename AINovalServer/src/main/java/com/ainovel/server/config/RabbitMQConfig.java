@@ -3,6 +3,7 @@ package com.ainovel.server.config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.AnonymousQueue;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.DirectExchange;
@@ -45,6 +46,9 @@ public class RabbitMQConfig {
     public static final String TASKS_REQUEUE_EXCHANGE = "tasks.requeue.exchange";
     public static final String TASKS_DLX_EXCHANGE = "tasks.dlx.exchange";
     public static final String TASKS_EVENTS_EXCHANGE = "tasks.events.exchange";
+    public static final String PRINCIPAL_INVALIDATION_EXCHANGE = "auth.principal.invalidation.exchange";
+    public static final String PROMPT_CACHE_INVALIDATION_EXCHANGE = "prompt.cache.invalidation.exchange";
+    public static final String TASK_EVENTS_FANOUT_EXCHANGE = "tasks.events.fanout.exchange";
     
     // 队列名称
     public static final String TASKS_QUEUE = "tasks.queue";
@@ -350,6 +354,63 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(tasksDlqQueue()).to(tasksDlxExchange());
     }
     
+    /**
+     * 认证主体失效广播交换机（节点间同步用户缓存失效）
+     */
+    @Bean
+    public FanoutExchange principalInvalidationExchange() {
+        return new FanoutExchange(PRINCIPAL_INVALIDATION_EXCHANGE, true, false);
+    }
+
+    /**
+     * 每个节点一个匿名队列，节点下线后自动删除
+     */
+    @Bean
+    public Queue principalInvalidationQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding principalInvalidationBinding() {
+        return BindingBuilder.bind(principalInvalidationQueue()).to(principalInvalidationExchange());
+    }
+
+    /**
+     * 提示词包缓存失效广播交换机
+     */
+    @Bean
+    public FanoutExchange promptCacheInvalidationExchange() {
+        return new FanoutExchange(PROMPT_CACHE_INVALIDATION_EXCHANGE, true, false);
+    }
+
+    @Bean
+    public Queue promptCacheInvalidationQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding promptCacheInvalidationBinding() {
+        return BindingBuilder.bind(promptCacheInvalidationQueue()).to(promptCacheInvalidationExchange());
+    }
+
+    /**
+     * 任务事件跨节点广播交换机（每个节点把事件推给本节点的 SSE 订阅者）
+     */
+    @Bean
+    public FanoutExchange taskEventsFanoutExchange() {
+        return new FanoutExchange(TASK_EVENTS_FANOUT_EXCHANGE, true, false);
+    }
+
+    @Bean
+    public Queue taskEventsFanoutQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding taskEventsFanoutBinding() {
+        return BindingBuilder.bind(taskEventsFanoutQueue()).to(taskEventsFanoutExchange());
+    }
+
     /**
      * 任务事件交换机 -> 事件队列绑定
      */
@@ -383,6 +444,16 @@ public class RabbitMQConfig {
                 .with(TASK_TYPE_PREFIX + "GENERATE_SUMMARY");
     }
     
+    /**
+     * 创建打包生成摘要任务类型的绑定 (子任务)
+     */
+    @Bean
+    public Binding generateSummaryBundleBinding() {
+        return BindingBuilder.bind(tasksQueue())
+                .to(tasksExchange())
+                .with(TASK_TYPE_PREFIX + "GENERATE_SUMMARY_BUNDLE");
+    }
+    
     /**
      * 创建任务生成场景类型的绑定
      * (冗余，已被 allTasksBinding 覆盖)
@@ -25,6 +25,9 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class RateLimitConfigurationManager {
     
+    // 限流器类型: memory (单节点) 或 cluster (集群共享供应商配额)
+    private String type = "memory";
+    
     // 维度配置映射
     private Map<String, RateLimitDimensionEnum> dimensions = new HashMap<>();
     
@@ -89,6 +92,7 @@ public class RateLimitConfigurationManager {
         // 设置监控指标
         config.updateMetrics("maxRetryAttempts", determineMaxRetryAttempts(providerConfig, taskConfig));
         config.updateMetrics("timeoutMillis", determineTimeoutMillis(providerConfig, taskConfig));
+        config.updateMetrics("maxPermitWaitMillis", determineMaxPermitWaitMillis(providerConfig, taskConfig));
         // 注入日限额和安全缓冲配置，供限流策略动态读取
         if (providerConfig.getDailyLimit() != null) {
             config.updateMetrics("dailyLimit", providerConfig.getDailyLimit());
@@ -214,6 +218,21 @@ public class RateLimitConfigurationManager {
         return defaultConfig.getDefaultTimeoutMillis();
     }
     
+    /**
+     * 确定获取许可的最长等待时间
+     */
+    private long determineMaxPermitWaitMillis(ProviderConfig providerConfig, TaskConfig taskConfig) {
+        if (taskConfig != null && taskConfig.getMaxPermitWaitMillis() != null) {
+            return taskConfig.getMaxPermitWaitMillis();
+        }
+        
+        if (providerConfig.getMaxPermitWaitMillis() != null) {
+            return providerConfig.getMaxPermitWaitMillis();
+        }
+        
+        return defaultConfig.getMaxPermitWaitMillis();
+    }
+    
     /**
      * 创建默认供应商配置
      */
@@ -263,8 +282,23 @@ public class RateLimitConfigurationManager {
         return summary;
     }
     
+    /**
+     * 是否启用集群共享限流
+     */
+    public boolean isClusterMode() {
+        return "cluster".equalsIgnoreCase(type);
+    }
+    
     // Getters and Setters
     
+    public String getType() {
+        return type;
+    }
+    
+    public void setType(String type) {
+        this.type = type;
+    }
+    
     public Map<String, RateLimitDimensionEnum> getDimensions() {
         return dimensions;
     }
@@ -305,6 +339,7 @@ public class RateLimitConfigurationManager {
         private double rate = 10.0;
         private int burstCapacity = 20;
         private long defaultTimeoutMillis = 5000;
+        private long maxPermitWaitMillis = 2000;
         private RateLimitDimensionEnum dimension = RateLimitDimensionEnum.USER_PROVIDER_MODEL;
     }
     
@@ -320,6 +355,7 @@ public class RateLimitConfigurationManager {
         private RetryStrategyEnum retryStrategy;
         private Integer maxRetryAttempts;
         private Long defaultTimeoutMillis;
+        private Long maxPermitWaitMillis;
         private Integer dailyLimit;
         private Integer safetyBuffer;
     }
@@ -336,5 +372,6 @@ public class RateLimitConfigurationManager {
         private RetryStrategyEnum retryStrategy;
         private Integer maxRetryAttempts;
         private Long defaultTimeoutMillis;
+        private Long maxPermitWaitMillis;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.ainovel.server.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 场景增量自动保存配置（Delta 补丁 + 写入合并）
+ *
+ * 部署要求：写缓冲只存在于处理请求的节点内存中。多节点部署时，同一场景的自动保存请求必须路由到同一节点
+ * （如按 sceneId 或用户做粘性路由），否则另一节点会从数据库加载到尚未落库的旧内容；
+ * 节点异常退出时最多丢失 max-delay 内未落库的输入。无法保证粘性路由时把 debounce 和 max-delay 设为 0：
+ * 每个补丁立即落库，已全部落库的缓冲遇到版本不符时会先从数据库重新加载，真正并发的跨节点写入报告为冲突。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "ainovel.autosave")
+public class SceneAutosaveConfig {
+
+    /**
+     * 去抖窗口：最后一次补丁之后静默多久落库
+     */
+    private Duration debounce = Duration.ofSeconds(2);
+
+    /**
+     * 持续输入时的最长落库间隔，避免一直被去抖推迟
+     */
+    private Duration maxDelay = Duration.ofSeconds(10);
+
+    /**
+     * 历史快照间隔：两次写入 history 的最小间隔
+     */
+    private Duration snapshotInterval = Duration.ofMinutes(5);
+
+    /**
+     * history 最多保留条数，0 表示不裁剪
+     */
+    private int maxHistoryEntries = 0;
+
+    /**
+     * 已落库且空闲超过该时间的写缓冲会被回收
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * 落库失败后的首次重试间隔，此后每次失败翻倍
+     */
+    private Duration retryBackoff = Duration.ofSeconds(1);
+
+    /**
+     * 落库失败重试间隔的上限
+     */
+    private Duration maxRetryBackoff = Duration.ofMinutes(1);
+}
@@ -0,0 +1,59 @@
+package com.ainovel.server.config;
+
+import java.util.List;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.service.seed.SeedManifest;
+import com.ainovel.server.service.seed.SystemSeedReconciler;
+import com.ainovel.server.service.seed.SystemSeedSource;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 系统种子数据初始化器
+ * 汇总系统模板、策略模板、系统预设和默认定价的种子清单，交给协调器与数据库对齐，
+ * 完成后依次回调各来源（绑定系统模板ID等）。不阻塞启动。
+ */
+@Slf4j
+@Component
+@Order(1)
+@RequiredArgsConstructor
+public class SystemSeedInitializer implements ApplicationRunner {
+
+    private final List<SystemSeedSource> seedSources;
+    private final SystemSeedReconciler reconciler;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        SeedManifest manifest;
+        try {
+            manifest = reconciler.manifest(seedSources);
+        } catch (Exception e) {
+            log.error("💥 构建系统种子清单失败", e);
+            return;
+        }
+        log.info("🚀 开始协调系统种子数据: 来源={}, 条目数={}, hash={}", seedSources.size(), manifest.size(), manifest.hash());
+
+        reconciler.reconcile(manifest)
+                .map(outcome -> outcome == SystemSeedReconciler.Outcome.APPLIED)
+                .onErrorResume(error -> {
+                    log.error("💥 系统种子数据协调失败，继续绑定已有数据", error);
+                    return Mono.just(false);
+                })
+                .flatMapMany(applied -> Flux.fromIterable(seedSources)
+                        .concatMap(source -> source.afterSeeded(applied)
+                                .onErrorResume(error -> {
+                                    log.error("❌ 系统种子回调失败: {}", source.getClass().getSimpleName(), error);
+                                    return Mono.empty();
+                                })))
+                .doOnComplete(() -> log.info("🎉 系统种子数据初始化完成"))
+                .subscribe();
+    }
+}
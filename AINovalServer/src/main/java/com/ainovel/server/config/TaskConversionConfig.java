@@ -8,6 +8,8 @@ import com.ainovel.server.task.dto.knowledge.KnowledgeExtractionGroupParameters;
 import com.ainovel.server.task.dto.knowledge.KnowledgeExtractionGroupResult;
 import com.ainovel.server.task.dto.scenegeneration.GenerateSceneParameters;
 import com.ainovel.server.task.dto.scenegeneration.GenerateSceneResult;
+import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryBundleParameters;
+import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryBundleResult;
 import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryParameters;
 import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryResult;
 import com.fasterxml.jackson.databind.JavaType;
@@ -59,6 +61,8 @@ public class TaskConversionConfig {
         // 摘要生成任务
         parameterTypeMap.put("GENERATE_SUMMARY", GenerateSummaryParameters.class);
         resultTypeMap.put("GENERATE_SUMMARY", GenerateSummaryResult.class);
+        parameterTypeMap.put("GENERATE_SUMMARY_BUNDLE", GenerateSummaryBundleParameters.class);
+        resultTypeMap.put("GENERATE_SUMMARY_BUNDLE", GenerateSummaryBundleResult.class);
         
         // 场景生成任务
         parameterTypeMap.put("GENERATE_SCENE", GenerateSceneParameters.class);
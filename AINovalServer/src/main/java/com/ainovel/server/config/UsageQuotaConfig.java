@@ -0,0 +1,36 @@
+package com.ainovel.server.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 用量配额配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "ainovel.quota")
+public class UsageQuotaConfig {
+
+    /**
+     * 滑动窗口长度
+     */
+    private Duration window = Duration.ofDays(1);
+
+    /**
+     * 每次向共享计数预留的额度；节点在本地消耗完后再预留，减少数据库往返
+     */
+    private int reserveBatch = 5;
+
+    /**
+     * 本地预留额度空闲超过该时间后归还
+     */
+    private Duration leaseIdleTimeout = Duration.ofSeconds(30);
+
+    /**
+     * 用户订阅计划功能项缓存时间
+     */
+    private Duration planCacheTtl = Duration.ofMinutes(5);
+}
@@ -0,0 +1,52 @@
+package com.ainovel.server.domain.model;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * LLM 响应缓存条目
+ * 以请求内容的哈希为ID，内容 gzip 压缩存储；到期后由 TTL 索引自动清理。
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "llm_response_cache")
+public class LLMResponseCacheEntry {
+
+    /**
+     * 缓存键：用户、供应商、模型、功能类型、生成参数（含 parameters）和提示词的 SHA-256
+     */
+    @Id
+    private String id;
+
+    private String featureType;
+
+    private String provider;
+
+    private String model;
+
+    /**
+     * gzip 压缩的响应内容（UTF-8）
+     */
+    private byte[] content;
+
+    private String finishReason;
+
+    private Integer promptTokens;
+
+    private Integer completionTokens;
+
+    private Date createdAt;
+
+    @Indexed(expireAfter = "0s")
+    private Date expiresAt;
+}
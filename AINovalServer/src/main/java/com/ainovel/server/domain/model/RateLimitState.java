@@ -0,0 +1,38 @@
+package com.ainovel.server.domain.model;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 集群共享的供应商限流状态（GCRA）
+ * 每个限流键一条文档，所有节点共享；长时间无请求后由 TTL 索引自动清理。
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "rate_limit_states")
+public class RateLimitState {
+
+    /**
+     * 限流键
+     */
+    @Id
+    private String id;
+
+    /**
+     * 理论到达时间（epoch 毫秒）
+     */
+    private long tat;
+
+    @Indexed(expireAfter = "0s")
+    private Date expiresAt;
+}
@@ -0,0 +1,56 @@
+package com.ainovel.server.domain.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 系统种子数据应用标记
+ * 记录最近一次写入数据库的种子清单哈希及各条目哈希，清单未变化时启动阶段无需任何写入
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "system_seed_markers")
+public class SystemSeedMarker {
+
+    @Id
+    private String id;
+
+    /**
+     * 已应用的种子清单哈希
+     */
+    private String manifestHash;
+
+    /**
+     * 已应用的各条目哈希，用于计算下一次的差异
+     */
+    @Builder.Default
+    private List<AppliedItem> items = new ArrayList<>();
+
+    /**
+     * 应用时间
+     */
+    private LocalDateTime appliedAt;
+
+    /**
+     * 已应用的种子条目
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AppliedItem {
+        private String collection;
+        private String key;
+        private String hash;
+    }
+}
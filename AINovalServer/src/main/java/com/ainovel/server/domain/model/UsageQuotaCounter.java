@@ -0,0 +1,38 @@
+package com.ainovel.server.domain.model;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 用量配额计数桶
+ * 每个 (用户, 功能, 窗口起点) 一条文档，所有节点共享；过期后由 TTL 索引自动清理。
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "usage_quota_counters")
+public class UsageQuotaCounter {
+
+    /**
+     * userId:feature:windowStart
+     */
+    @Id
+    private String id;
+
+    /**
+     * 窗口内已计数（含各节点预留但尚未使用的额度）
+     */
+    private long count;
+
+    @Indexed(expireAfter = "0s")
+    private Date expiresAt;
+}
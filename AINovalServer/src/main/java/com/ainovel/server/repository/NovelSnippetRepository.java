@@ -48,6 +48,11 @@ public interface NovelSnippetRepository extends ReactiveMongoRepository<NovelSni
     @Query("{ 'userId': ?0, 'tags': { $in: ?1 }, 'status': 'ACTIVE' }")
     Flux<NovelSnippet> findByUserIdAndTagsIn(String userId, List<String> tags, Pageable pageable);
 
+    /**
+     * 根据小说ID和状态查找片段（用于构建全文索引）
+     */
+    Flux<NovelSnippet> findByNovelIdAndStatus(String novelId, String status);
+
     /**
      * 全文搜索片段
      */
@@ -60,6 +65,12 @@ public interface NovelSnippetRepository extends ReactiveMongoRepository<NovelSni
     @Query("{ 'userId': ?0, 'novelId': ?1, 'createdAt': { '$gte': ?2, '$lte': ?3 }, 'status': 'ACTIVE' }")
     Flux<NovelSnippet> findByUserIdAndNovelIdAndCreatedAtBetween(String userId, String novelId, LocalDateTime startTime, LocalDateTime endTime, Pageable pageable);
 
+    /**
+     * 查找用户在特定小说中的片段，只返回ID
+     */
+    @Query(value = "{ 'userId': ?0, 'novelId': ?1, 'status': 'ACTIVE' }", fields = "{ '_id': 1 }")
+    Flux<NovelSnippet> findIdsByUserIdAndNovelIdAndStatusActive(String userId, String novelId);
+
     /**
      * 统计用户在特定小说中的片段数量
      */
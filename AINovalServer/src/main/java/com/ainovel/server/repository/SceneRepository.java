@@ -2,6 +2,7 @@ package com.ainovel.server.repository;
 
 import java.util.List;
 
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -16,6 +17,11 @@ import reactor.core.publisher.Mono;
 @Repository
 public interface SceneRepository extends ReactiveMongoRepository<Scene, String> {
 
+    /**
+     * 编辑器读取场景时排除的大字段
+     */
+    String EDITOR_EXCLUDED_FIELDS = "{ 'history': 0, 'vectorEmbedding': 0 }";
+
     /**
      * 根据小说ID查找场景
      * @param novelId 小说ID
@@ -51,6 +57,29 @@ public interface SceneRepository extends ReactiveMongoRepository<Scene, String>
      */
     Flux<Scene> findByChapterIdIn(List<String> chapterIds);
 
+    /**
+     * 根据章节ID列表查找场景并按顺序排序
+     * @param chapterIds 章节ID列表
+     * @return 排序后的场景列表
+     */
+    Flux<Scene> findByChapterIdInOrderBySequenceAsc(List<String> chapterIds);
+
+    /**
+     * 编辑器加载：根据小说ID查找场景，不读取历史版本和向量嵌入
+     * @param novelId 小说ID
+     * @return 场景列表
+     */
+    @Query(value = "{ 'novelId': ?0 }", fields = EDITOR_EXCLUDED_FIELDS)
+    Flux<Scene> findEditorScenesByNovelId(String novelId);
+
+    /**
+     * 编辑器加载：根据章节ID列表查找场景并按顺序排序，不读取历史版本和向量嵌入
+     * @param chapterIds 章节ID列表
+     * @return 排序后的场景列表
+     */
+    @Query(value = "{ 'chapterId': { '$in': ?0 } }", fields = EDITOR_EXCLUDED_FIELDS, sort = "{ 'sequence': 1 }")
+    Flux<Scene> findEditorScenesByChapterIdIn(List<String> chapterIds);
+
     /**
      * 根据小说ID和场景类型查找场景
      * @param novelId 小说ID
@@ -14,8 +14,6 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Component;
 
 import com.ainovel.server.domain.model.User;
-import com.ainovel.server.service.JwtService;
-import com.ainovel.server.service.UserService;
 
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
@@ -24,19 +22,18 @@ import reactor.core.publisher.Mono;
 /**
  * JWT认证管理器
  * 负责验证JWT令牌并创建认证对象
+ * 令牌只解析验签一次，用户信息经由 {@link PrincipalCache} 按 (userId, 令牌版本) 缓存
  */
 @Component
 public class JwtAuthenticationManager implements ReactiveAuthenticationManager {
     
     private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationManager.class);
     
-    private final JwtService jwtService;
-    private final UserService userService;
+    private final PrincipalCache principalCache;
     
     @Autowired
-    public JwtAuthenticationManager(JwtService jwtService, UserService userService) {
-        this.jwtService = jwtService;
-        this.userService = userService;
+    public JwtAuthenticationManager(PrincipalCache principalCache) {
+        this.principalCache = principalCache;
     }
     
     @Override
@@ -44,18 +41,19 @@ public class JwtAuthenticationManager implements ReactiveAuthenticationManager {
         String token = authentication.getCredentials().toString();
         
         try {
-            String username = jwtService.extractUsername(token);
+            JwtClaims claims = principalCache.verify(token);
+            String username = claims.username();
             log.debug("尝试认证用户: {}", username);
             
-            return userService.findUserByUsername(username)
+            return principalCache.resolveUser(claims)
                     .filter(user -> {
-                        boolean isValid = jwtService.validateToken(token, user);
+                        boolean isValid = isValidFor(claims, user);
                         log.debug("用户 {} 的token验证结果: {}", username, isValid);
                         return isValid;
                     })
                     .map(user -> {
                         log.debug("用户 {} 认证成功", username);
-                        return createAuthentication(user, token);
+                        return createAuthentication(user, token, claims);
                     })
                     .switchIfEmpty(Mono.error(new BadCredentialsException("Invalid token or user not found")));
         } catch (ExpiredJwtException e) {
@@ -72,10 +70,19 @@ public class JwtAuthenticationManager implements ReactiveAuthenticationManager {
         }
     }
     
-    private Authentication createAuthentication(User user, String token) {
-        // 从JWT中提取角色和权限
-        List<String> roles = jwtService.extractRoles(token);
-        List<String> permissions = jwtService.extractPermissions(token);
+    /**
+     * 令牌主题与用户一致，且令牌版本等于用户当前版本
+     */
+    private boolean isValidFor(JwtClaims claims, User user) {
+        return claims.username() != null
+                && claims.username().equals(user.getUsername())
+                && claims.tokenVersion() == PrincipalCache.tokenVersionOf(user);
+    }
+    
+    private Authentication createAuthentication(User user, String token, JwtClaims claims) {
+        // 角色和权限取自已解析的声明
+        List<String> roles = claims.roles();
+        List<String> permissions = claims.permissions();
         
         // 创建权限列表
         List<SimpleGrantedAuthority> authorities = new ArrayList<>();
@@ -0,0 +1,35 @@
+package com.ainovel.server.security;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 已验签的 JWT 声明（不可变）
+ * 一次解析得到认证所需的全部字段，避免对同一令牌反复解析和 HMAC 校验。
+ *
+ * @param username     主题（用户名）
+ * @param userId       用户ID，旧令牌可能为空
+ * @param roles        角色
+ * @param permissions  功能权限
+ * @param tokenVersion 签发时的用户令牌版本
+ * @param jti          令牌ID
+ * @param expiration   过期时间
+ */
+public record JwtClaims(
+        String username,
+        String userId,
+        List<String> roles,
+        List<String> permissions,
+        int tokenVersion,
+        String jti,
+        Date expiration) {
+
+    public JwtClaims {
+        roles = roles != null ? List.copyOf(roles) : List.of();
+        permissions = permissions != null ? List.copyOf(permissions) : List.of();
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+}
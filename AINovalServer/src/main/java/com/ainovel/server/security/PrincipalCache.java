@@ -0,0 +1,149 @@
+package com.ainovel.server.security;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.config.RabbitMQConfig;
+import com.ainovel.server.domain.model.User;
+import com.ainovel.server.service.JwtService;
+import com.ainovel.server.service.UserService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * 认证主体缓存
+ *
+ * 1. 已验签令牌缓存：令牌字符串 -> 不可变声明，命中时跳过 JWT 解析和 HMAC 校验（过期时间仍在每次使用时检查）。
+ * 2. 用户缓存：userId -> User，按令牌版本校验，命中时跳过每次请求的 Mongo 查询。
+ *
+ * 用户的密码、角色、状态或令牌版本变更时发布 {@link UserPrincipalChangedEvent}，
+ * 本节点立即失效并通过 RabbitMQ 广播给其他节点，其他节点收到后转发为本地事件；缓存 TTL 兜底消息丢失的情况。
+ */
+@Slf4j
+@Component
+public class PrincipalCache {
+
+    /** 当前节点标识，用于忽略自己发出的广播 */
+    static final String NODE_ID = UUID.randomUUID().toString();
+
+    private final JwtService jwtService;
+    private final UserService userService;
+    private final ObjectProvider<RabbitTemplate> rabbitTemplateProvider;
+
+    private final Cache<String, JwtClaims> verifiedTokens;
+    private final Cache<String, User> users;
+
+    public PrincipalCache(JwtService jwtService,
+                          UserService userService,
+                          ObjectProvider<RabbitTemplate> rabbitTemplateProvider,
+                          @Value("${security.principal-cache.max-tokens:20000}") long maxTokens,
+                          @Value("${security.principal-cache.max-users:10000}") long maxUsers,
+                          @Value("${security.principal-cache.ttl:5m}") Duration ttl) {
+        this.jwtService = jwtService;
+        this.userService = userService;
+        this.rabbitTemplateProvider = rabbitTemplateProvider;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxTokens)
+                .expireAfterWrite(ttl)
+                .build();
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * 获取已验签的令牌声明；未缓存时解析一次并缓存
+     *
+     * @throws io.jsonwebtoken.ExpiredJwtException 令牌已过期
+     * @throws io.jsonwebtoken.JwtException 令牌无效
+     */
+    public JwtClaims verify(String token) {
+        JwtClaims claims = verifiedTokens.getIfPresent(token);
+        if (claims != null && claims.isExpired()) {
+            // 缓存期间过期：重新解析以抛出标准的过期异常
+            verifiedTokens.invalidate(token);
+            claims = null;
+        }
+        if (claims == null) {
+            claims = jwtService.parseToken(token);
+            verifiedTokens.put(token, claims);
+        }
+        return claims;
+    }
+
+    /**
+     * 按 (userId, 令牌版本) 解析用户；缓存中的用户版本与令牌不一致时回源重新加载
+     */
+    public Mono<User> resolveUser(JwtClaims claims) {
+        String userId = claims.userId();
+        if (userId == null || userId.isEmpty()) {
+            // 旧令牌没有 userId 声明，按用户名查询且不缓存
+            return userService.findUserByUsername(claims.username());
+        }
+        User cached = users.getIfPresent(userId);
+        if (cached != null && tokenVersionOf(cached) == claims.tokenVersion()) {
+            return Mono.just(cached);
+        }
+        return userService.findUserById(userId)
+                .doOnNext(user -> users.put(userId, user));
+    }
+
+    public static int tokenVersionOf(User user) {
+        return user.getTokenVersion() == null ? 1 : user.getTokenVersion();
+    }
+
+    /**
+     * 用户信息变更：失效本地缓存；本节点发起的变更再广播给其他节点
+     */
+    @EventListener
+    public void onUserPrincipalChanged(UserPrincipalChangedEvent event) {
+        if (event.isAllUsers()) {
+            users.invalidateAll();
+            log.debug("认证主体缓存已全部失效");
+        } else {
+            evictLocal(event.userId());
+        }
+        if (event.remote()) {
+            return;
+        }
+        RabbitTemplate rabbitTemplate = rabbitTemplateProvider.getIfAvailable();
+        if (rabbitTemplate == null) {
+            return;
+        }
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.PRINCIPAL_INVALIDATION_EXCHANGE, "",
+                    new PrincipalInvalidationMessage(event.userId(), event.tokenVersion(), NODE_ID));
+        } catch (Exception e) {
+            log.warn("广播认证主体失效消息失败: userId={}, error={}", event.userId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 仅失效本节点缓存
+     */
+    public void evictLocal(String userId) {
+        if (userId != null) {
+            users.invalidate(userId);
+            log.debug("认证主体缓存已失效: userId={}", userId);
+        }
+    }
+
+    /**
+     * 节点间广播的失效消息
+     *
+     * @param userId 用户ID；为 null 表示所有用户
+     * @param tokenVersion 变更后的令牌版本，可能为 null
+     */
+    public record PrincipalInvalidationMessage(String userId, Integer tokenVersion, String sourceNode) {
+    }
+}
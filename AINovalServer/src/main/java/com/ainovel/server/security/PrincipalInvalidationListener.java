@@ -0,0 +1,32 @@
+package com.ainovel.server.security;
+
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.security.PrincipalCache.PrincipalInvalidationMessage;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 接收其他节点广播的认证主体失效消息
+ * 每个节点绑定一个匿名独占队列到广播交换机，自动确认。
+ * 消息转发为本节点的 {@link UserPrincipalChangedEvent}，由认证主体缓存、令牌撤销登记表、
+ * 用户计划缓存等各自的事件监听器处理，与本节点发起的变更走同一条路径。
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.rabbitmq.enabled", havingValue = "true", matchIfMissing = true)
+public class PrincipalInvalidationListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @RabbitListener(queues = "#{principalInvalidationQueue.name}", ackMode = "AUTO")
+    public void onInvalidation(PrincipalInvalidationMessage message) {
+        if (message == null || PrincipalCache.NODE_ID.equals(message.sourceNode())) {
+            return;
+        }
+        eventPublisher.publishEvent(UserPrincipalChangedEvent.fromRemote(message.userId(), message.tokenVersion()));
+    }
+}
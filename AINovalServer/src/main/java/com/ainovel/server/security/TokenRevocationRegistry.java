@@ -0,0 +1,125 @@
+package com.ainovel.server.security;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.service.UserService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * 长连接的令牌撤销登记表
+ *
+ * SSE 等长连接按 userId 登记自己令牌的签发版本；用户令牌版本提升（管理员强制下线、修改密码）
+ * 或用户被删除时，{@link UserPrincipalChangedEvent} 与其他节点的失效广播推送到这里，
+ * 版本落后的连接立即结束。空闲连接不会产生任何数据库查询；
+ * 只有事件未携带版本且本节点确有该用户的连接时才回源查询一次。
+ */
+@Slf4j
+@Component
+public class TokenRevocationRegistry {
+
+    private final UserService userService;
+    private final Map<String, Set<Watch>> watchesByUser = new ConcurrentHashMap<>();
+    private final AtomicInteger watchCount = new AtomicInteger();
+    private final Counter revokedCounter;
+
+    public TokenRevocationRegistry(UserService userService, MeterRegistry meterRegistry) {
+        this.userService = userService;
+        Gauge.builder("auth.revocation.watches", watchCount, AtomicInteger::get)
+                .description("登记了令牌撤销监听的长连接数")
+                .register(meterRegistry);
+        this.revokedCounter = Counter.builder("auth.revocation.revoked")
+                .description("因令牌撤销被关闭的长连接数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 监听某个令牌版本的撤销
+     *
+     * @return 令牌被撤销时完成的 Mono；取消订阅即注销
+     */
+    public Mono<Void> revocation(String userId, int tokenVersion) {
+        return Mono.create(sink -> {
+            Watch watch = new Watch(tokenVersion, sink);
+            watchesByUser.compute(userId, (k, set) -> {
+                Set<Watch> watches = set != null ? set : ConcurrentHashMap.newKeySet();
+                watches.add(watch);
+                return watches;
+            });
+            watchCount.incrementAndGet();
+            sink.onDispose(() -> unregister(userId, watch));
+        });
+    }
+
+    @EventListener
+    public void onUserPrincipalChanged(UserPrincipalChangedEvent event) {
+        revoke(event.userId(), event.tokenVersion());
+    }
+
+    /**
+     * 关闭该用户令牌版本落后于当前版本的连接（本节点事件与其他节点广播共用）
+     *
+     * @param currentVersion 用户当前令牌版本；为 null 时回源查询，用户不存在则关闭全部连接
+     */
+    public void revoke(String userId, Integer currentVersion) {
+        if (userId == null || !watchesByUser.containsKey(userId)) {
+            return;
+        }
+        if (currentVersion != null) {
+            completeStale(userId, currentVersion);
+            return;
+        }
+        userService.findUserById(userId)
+                .map(user -> Optional.of(PrincipalCache.tokenVersionOf(user)))
+                .defaultIfEmpty(Optional.empty())
+                .subscribe(version -> completeStale(userId, version.orElse(null)),
+                        e -> log.warn("[TOKEN REVOKE] 查询用户令牌版本失败: userId={}, error={}", userId, e.getMessage()));
+    }
+
+    public int getWatchCount() {
+        return watchCount.get();
+    }
+
+    /**
+     * 只关闭版本落后的连接：迟到的旧版本广播不能关闭按新版本签发的连接
+     *
+     * @param currentVersion 为 null 表示用户已不存在，关闭全部连接
+     */
+    private void completeStale(String userId, Integer currentVersion) {
+        Set<Watch> watches = watchesByUser.get(userId);
+        if (watches == null) {
+            return;
+        }
+        for (Watch watch : watches) {
+            if (currentVersion == null || watch.tokenVersion < currentVersion) {
+                log.info("[TOKEN REVOKE] 用户 {} 令牌版本变更（连接: {}, 当前: {}），关闭长连接",
+                        userId, watch.tokenVersion, currentVersion);
+                revokedCounter.increment();
+                watch.sink.success();
+            }
+        }
+    }
+
+    private void unregister(String userId, Watch watch) {
+        watchesByUser.computeIfPresent(userId, (k, set) -> {
+            set.remove(watch);
+            return set.isEmpty() ? null : set;
+        });
+        watchCount.decrementAndGet();
+    }
+
+    private record Watch(int tokenVersion, MonoSink<Void> sink) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.ainovel.server.security;
+
+/**
+ * 用户认证相关信息（密码、角色、状态、令牌版本、订阅等）变更事件
+ * 发布后本节点及其他节点的认证主体缓存、用户计划缓存都会失效，令牌版本落后的长连接会被关闭。
+ *
+ * @param userId 用户ID；为 null 表示所有用户（如订阅计划定义变更）
+ * @param tokenVersion 变更后的用户令牌版本；为 null 表示未知（如用户已删除），由接收方自行解析
+ * @param remote 是否由其他节点的广播转发而来；转发的事件不再广播
+ */
+public record UserPrincipalChangedEvent(String userId, Integer tokenVersion, boolean remote) {
+
+    public UserPrincipalChangedEvent(String userId, Integer tokenVersion) {
+        this(userId, tokenVersion, false);
+    }
+
+    public UserPrincipalChangedEvent(String userId) {
+        this(userId, null, false);
+    }
+
+    /**
+     * 影响所有用户的变更，如订阅计划的功能项或角色被修改
+     */
+    public static UserPrincipalChangedEvent allUsers() {
+        return new UserPrincipalChangedEvent(null, null, false);
+    }
+
+    /**
+     * 由其他节点广播的失效消息转发为本节点事件
+     */
+    public static UserPrincipalChangedEvent fromRemote(String userId, Integer tokenVersion) {
+        return new UserPrincipalChangedEvent(userId, tokenVersion, true);
+    }
+
+    public boolean isAllUsers() {
+        return userId == null;
+    }
+}
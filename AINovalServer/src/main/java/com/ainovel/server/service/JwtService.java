@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Date;
 
 import com.ainovel.server.domain.model.User;
+import com.ainovel.server.security.JwtClaims;
 
 /**
  * JWT服务接口
@@ -92,4 +93,14 @@ public interface JwtService {
      * 提取令牌中的tokenVersion（用户级版本号）
      */
     Integer extractTokenVersion(String token);
-} 
\ No newline at end of file
+
+    /**
+     * 解析并验签令牌，一次性提取认证所需的全部声明
+     *
+     * @param token JWT令牌
+     * @return 不可变的声明对象
+     * @throws io.jsonwebtoken.ExpiredJwtException 令牌已过期
+     * @throws io.jsonwebtoken.JwtException 令牌格式或签名无效
+     */
+    JwtClaims parseToken(String token);
+}
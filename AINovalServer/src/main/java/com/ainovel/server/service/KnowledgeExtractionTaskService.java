@@ -351,6 +351,8 @@ public class KnowledgeExtractionTaskService {
                     parameters.put("modelType", record.getModelType());
                     parameters.put("extractionTypes", record.getExtractionTypes());
                     parameters.put("userId", userId);
+                    // 重试需要新的模型输出，不复用上次的缓存响应
+                    parameters.put("bypassResponseCache", true);
                     
                     if (record.getFanqieNovelId() != null) {
                         parameters.put("fanqieNovelId", record.getFanqieNovelId());
@@ -417,6 +419,7 @@ public class KnowledgeExtractionTaskService {
                     parameters.put("modelConfigId", record.getModelConfigId());
                     parameters.put("modelType", record.getModelType());
                     parameters.put("parentTaskId", taskId);
+                    parameters.put("bypassResponseCache", true);
                     
                     // 需要从原任务中获取小说内容
                     // TODO: 这里需要重新获取小说内容，或者从缓存中读取
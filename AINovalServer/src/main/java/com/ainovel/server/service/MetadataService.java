@@ -41,4 +41,12 @@ public interface MetadataService {
      * @return 操作完成指示
      */
     Mono<Void> triggerNovelMetadataUpdate(Scene scene);
+
+    /**
+     * 已知字数变化量时触发小说元数据增量更新
+     *
+     * @param novelId 小说ID
+     * @param wordCountDelta 字数变化量
+     */
+    void triggerNovelWordCountDelta(String novelId, int wordCountDelta);
 }
@@ -13,6 +13,7 @@ import com.ainovel.server.web.dto.SummarizeSceneResponse;
 import com.ainovel.server.web.dto.OutlineGenerationChunk;
 import com.ainovel.server.domain.model.NextOutline;
 import com.ainovel.server.domain.model.NovelSettingItem;
+import com.ainovel.server.domain.model.Scene;
 import com.ainovel.server.web.dto.request.GenerateSettingsRequest;
 
 import reactor.core.publisher.Flux;
@@ -220,6 +221,17 @@ public interface NovelAIService {
      */
     Mono<SummarizeSceneResponse> summarizeScene(String userId, String sceneId, SummarizeSceneRequest request);
 
+    /**
+     * 一次请求为同一小说的多个场景生成摘要（批量摘要打包模式）
+     *
+     * @param userId 用户ID
+     * @param novelId 小说ID
+     * @param scenes 按阅读顺序排列的场景
+     * @param aiConfigId AI配置ID（为空时使用默认配置）
+     * @return 场景ID -> 摘要；模型输出中缺失或无法解析的场景不在结果中，由调用方逐个兜底
+     */
+    Mono<Map<String, String>> summarizeScenesBundle(String userId, String novelId, List<Scene> scenes, String aiConfigId);
+
     /**
      * 根据摘要生成场景内容 (流式)
      *
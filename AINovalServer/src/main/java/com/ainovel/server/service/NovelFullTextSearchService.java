@@ -0,0 +1,70 @@
+package com.ainovel.server.service;
+
+import java.util.Set;
+
+import com.ainovel.server.domain.model.NovelSettingItem;
+import com.ainovel.server.domain.model.NovelSnippet;
+import com.ainovel.server.domain.model.Scene;
+import com.ainovel.server.service.search.SearchDocumentType;
+import com.ainovel.server.web.dto.response.NovelTextSearchResponse;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 小说内全文检索服务
+ * 基于进程内的 CJK 二元组倒排索引，覆盖场景正文、片段与设定条目。
+ * 写入侧的回调均为异步、尽力而为，失败不影响主流程。
+ *
+ * 索引只存在于本节点（内存 + 本地磁盘快照），写入回调也只更新本节点的索引：
+ * 多节点部署时，其他节点的写入要等本节点快照过期（ainovel.search.snapshot-max-age）重建后才能检索到。
+ * 需要跨节点一致的检索结果时，应单节点部署，或关闭本功能（ainovel.search.enabled=false）回退 MongoDB $text 查询。
+ */
+public interface NovelFullTextSearchService {
+
+    /**
+     * 是否启用
+     */
+    boolean isEnabled();
+
+    /**
+     * 检索小说内容
+     *
+     * @param novelId 小说ID
+     * @param query 查询文本
+     * @param types 限定文档类型，为空表示全部
+     * @param page 页码（从0开始）
+     * @param size 每页大小
+     * @return 分页结果（含高亮）
+     */
+    Mono<NovelTextSearchResponse> search(String novelId, String query, Set<SearchDocumentType> types, int page, int size);
+
+    /**
+     * 检索小说内容，只返回指定ID的文档；过滤在排序分页之前进行，总数与分页都只统计这些文档
+     *
+     * @param allowedIds 允许返回的文档ID，为 null 表示不限
+     */
+    Mono<NovelTextSearchResponse> search(String novelId, String query, Set<SearchDocumentType> types,
+                                         Set<String> allowedIds, int page, int size);
+
+    /**
+     * 丢弃现有索引并从数据库重建
+     */
+    Mono<Void> rebuild(String novelId);
+
+    /**
+     * 删除本节点上该小说的索引（内存与磁盘），下次检索时从数据库重新构建
+     */
+    Mono<Void> delete(String novelId);
+
+    void onSceneSaved(Scene scene);
+
+    void onSceneDeleted(String novelId, String sceneId);
+
+    void onSnippetSaved(NovelSnippet snippet);
+
+    void onSnippetDeleted(String novelId, String snippetId);
+
+    void onSettingSaved(NovelSettingItem item);
+
+    void onSettingDeleted(String novelId, String settingItemId);
+}
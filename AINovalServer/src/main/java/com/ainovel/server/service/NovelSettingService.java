@@ -225,4 +225,18 @@ public interface NovelSettingService {
      * 批量保存设定条目
      */
     reactor.core.publisher.Flux<NovelSettingItem> saveAll(java.util.List<NovelSettingItem> items);
+
+    /**
+     * 按ID批量获取设定条目（单次查询，不存在的ID被忽略）
+     */
+    Flux<NovelSettingItem> getSettingItemsByIds(List<String> itemIds);
+
+    /**
+     * 以一次有序批量写入插入整棵设定树
+     * 条目的ID与 parentId / childrenIds 须已在内存中分配好（见 SettingTreeCloner），写入前统一校验无环
+     *
+     * @param items 设定树的全部条目
+     * @return 按父先子后顺序返回已插入的条目
+     */
+    Flux<NovelSettingItem> insertSettingTree(List<NovelSettingItem> items);
 } 
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.ainovel.server.service;
+
+import java.util.List;
+import java.util.Map;
+
+import com.ainovel.server.web.dto.response.SceneAutosaveResponse;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 场景增量自动保存服务
+ * 接收基于版本号的 Quill Delta 补丁，热点场景在内存写缓冲中合并，按去抖窗口落库。
+ */
+public interface SceneAutosaveService {
+
+    /**
+     * 应用 Delta 补丁
+     *
+     * @param sceneId     场景ID
+     * @param baseVersion 补丁所基于的版本号
+     * @param ops         Delta 变更操作
+     * @param userId      当前用户ID，必须是场景所属小说的作者
+     * @return 新版本号；版本不一致时返回冲突及服务端最新内容；非作者时返回 AccessDeniedException
+     */
+    Mono<SceneAutosaveResponse> applyPatch(String sceneId, int baseVersion, List<Map<String, Object>> ops, String userId);
+
+    /**
+     * 立即落库指定场景的缓冲修改（编辑器失焦/关闭时调用）
+     *
+     * @param sceneId 场景ID
+     * @param userId  当前用户ID，必须是场景所属小说的作者
+     * @return 当前版本号；无缓冲时返回空；非作者时返回 AccessDeniedException
+     */
+    Mono<SceneAutosaveResponse> flush(String sceneId, String userId);
+}
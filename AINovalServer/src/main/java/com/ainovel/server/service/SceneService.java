@@ -38,6 +38,14 @@ public interface SceneService {
      */
     Flux<Scene> findSceneByChapterIdOrdered(String chapterId);
 
+    /**
+     * 一次查询多个章节的场景，按场景顺序排序（调用方按章节分组）
+     *
+     * @param chapterIds 章节ID列表
+     * @return 排序后的场景列表
+     */
+    Flux<Scene> findScenesByChapterIdsOrdered(List<String> chapterIds);
+
     /**
      * 根据小说ID查找场景列表
      *
@@ -0,0 +1,155 @@
+package com.ainovel.server.service.ai;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.ainovel.server.config.MockModelProviderConfig;
+import com.ainovel.server.domain.model.AIRequest;
+import com.ainovel.server.domain.model.AIResponse;
+import com.ainovel.server.domain.model.ModelInfo;
+import com.ainovel.server.domain.model.observability.LLMTrace;
+import com.ainovel.server.service.ai.observability.TraceContextManager;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 本地模拟模型提供商（压测用）
+ *
+ * 按档位配置的首字延迟、输出速度、输出长度逐个 token 输出，并按概率模拟输出中途失败和 429 限流，
+ * 不调用任何外部服务。token 用量按档位计算：非流式写入响应，流式在完成时写入追踪记录，
+ * 与真实提供商一样经过追踪、计费装饰器。
+ */
+@Slf4j
+public class MockModelProvider extends AbstractAIModelProvider {
+
+    public static final String PROVIDER_NAME = "mock";
+
+    private final MockModelProviderConfig.Profile profile;
+
+    public MockModelProvider(String modelName, String apiKey, String apiEndpoint,
+                             MockModelProviderConfig.Profile profile) {
+        super(PROVIDER_NAME, modelName, apiKey, apiEndpoint);
+        this.profile = profile;
+    }
+
+    @Override
+    public Mono<AIResponse> generateContent(AIRequest request) {
+        Failure failure = rollFailure();
+        if (failure == Failure.RATE_LIMITED) {
+            return Mono.delay(profile.getFirstTokenLatency()).then(Mono.error(rateLimited()));
+        }
+        int outputTokens = failure == Failure.ERROR ? failAfterTokens() : profile.getOutputTokens();
+        Duration duration = profile.getFirstTokenLatency().plus(tokenInterval().multipliedBy(outputTokens));
+        return Mono.delay(duration).flatMap(tick -> {
+            if (failure == Failure.ERROR) {
+                return Mono.error(upstreamError(outputTokens));
+            }
+            AIResponse response = createBaseResponse(profile.getTokenText().repeat(outputTokens), request);
+            response.setFinishReason("stop");
+            response.setTokenUsage(usageOf(request, outputTokens));
+            return Mono.just(response);
+        });
+    }
+
+    @Override
+    public Flux<String> generateContentStream(AIRequest request) {
+        return Flux.deferContextual(ctx -> {
+            Failure failure = rollFailure();
+            if (failure == Failure.RATE_LIMITED) {
+                return Mono.delay(profile.getFirstTokenLatency()).thenMany(Flux.<String>error(rateLimited()));
+            }
+            int perChunk = Math.max(1, profile.getTokensPerChunk());
+            int outputTokens = failure == Failure.ERROR ? failAfterTokens() : profile.getOutputTokens();
+            int chunks = (outputTokens + perChunk - 1) / perChunk;
+            String chunkText = profile.getTokenText().repeat(perChunk);
+
+            Flux<String> tokens = Flux.interval(profile.getFirstTokenLatency(), tokenInterval().multipliedBy(perChunk))
+                    .take(chunks)
+                    .map(i -> chunkText);
+            if (failure == Failure.ERROR) {
+                return tokens.concatWith(Flux.error(upstreamError(outputTokens)));
+            }
+            return tokens.doOnComplete(() -> ctx.<LLMTrace>getOrEmpty(TraceContextManager.CONTEXT_KEY).ifPresent(trace ->
+                    // 追踪装饰器完成时会保留已写入的 token 用量
+                    trace.setResponseFromStreamingResult(chunkText.repeat(chunks), Instant.now(),
+                            usageOf(request, chunks * perChunk))));
+        });
+    }
+
+    @Override
+    public Mono<Double> estimateCost(AIRequest request) {
+        return Mono.just(0.0);
+    }
+
+    @Override
+    public Mono<Boolean> validateApiKey() {
+        return Mono.just(true);
+    }
+
+    @Override
+    public Flux<ModelInfo> listModels() {
+        return Flux.just(ModelInfo.basic(getModelName(), getModelName(), PROVIDER_NAME));
+    }
+
+    @Override
+    public Flux<ModelInfo> listModelsWithApiKey(String apiKey, String apiEndpoint) {
+        return listModels();
+    }
+
+    private Failure rollFailure() {
+        double roll = ThreadLocalRandom.current().nextDouble();
+        if (roll < profile.getRateLimitRate()) {
+            return Failure.RATE_LIMITED;
+        }
+        if (roll < profile.getRateLimitRate() + profile.getErrorRate()) {
+            return Failure.ERROR;
+        }
+        return Failure.NONE;
+    }
+
+    /**
+     * 中途失败时已输出的 token 数
+     */
+    private int failAfterTokens() {
+        return ThreadLocalRandom.current().nextInt(Math.max(1, profile.getOutputTokens()));
+    }
+
+    private Duration tokenInterval() {
+        double tps = profile.getTokensPerSecond() > 0 ? profile.getTokensPerSecond() : 50;
+        return Duration.ofNanos(Math.max(1L, (long) (1_000_000_000L / tps)));
+    }
+
+    private ResponseStatusException rateLimited() {
+        return new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "模拟提供商限流: model=" + getModelName());
+    }
+
+    private IllegalStateException upstreamError(int emittedTokens) {
+        return new IllegalStateException("模拟提供商输出中断: model=" + getModelName() + ", 已输出token=" + emittedTokens);
+    }
+
+    /**
+     * 输入 token 按提示词字符数估算（约 2 个字符 1 个 token）
+     */
+    private static AIResponse.TokenUsage usageOf(AIRequest request, int completionTokens) {
+        long chars = request.getPrompt() != null ? request.getPrompt().length() : 0;
+        if (request.getMessages() != null) {
+            for (AIRequest.Message message : request.getMessages()) {
+                chars += message.getContent() != null ? message.getContent().length() : 0;
+            }
+        }
+        AIResponse.TokenUsage usage = new AIResponse.TokenUsage();
+        usage.setPromptTokens((int) Math.max(1, chars / 2));
+        usage.setCompletionTokens(completionTokens);
+        return usage;
+    }
+
+    private enum Failure {
+        NONE, ERROR, RATE_LIMITED
+    }
+}
@@ -70,11 +70,6 @@ public class TracingAIModelProviderDecorator implements AIModelProvider, ToolCal
         trace.getRequest().setTimestamp(startTime);
         trace.getPerformance().setRequestLatencyMs(Duration.between(startTime, Instant.now()).toMillis());
 
-        // 🚀 关键修复：在发起HTTP请求之前就存储trace，确保ChatModelListener能够获取到
-        traceContextManager.setTrace(trace);
-        log.debug("✅ 提前存储trace到上下文，供ChatModelListener使用: traceId={}, threadName={}", 
-                 trace.getTraceId(), Thread.currentThread().getName());
-
         // 2. 执行原始方法并追踪Mono响应（从切面逻辑转移）
         return traceMonoResponse(decoratedProvider.generateContent(request), trace, startTime);
     }
@@ -106,11 +101,6 @@ public class TracingAIModelProviderDecorator implements AIModelProvider, ToolCal
         trace.getPerformance().setRequestLatencyMs(Duration.between(startTime, Instant.now()).toMillis());
         trace.setStreamingType(); // 标记为流式调用
 
-        // 🚀 关键修复：在发起HTTP请求之前就存储trace，确保ChatModelListener能够获取到
-        traceContextManager.setTrace(trace);
-        log.debug("✅ 提前存储trace到上下文，供ChatModelListener使用: traceId={}, threadName={}", 
-                 trace.getTraceId(), Thread.currentThread().getName());
-
         // 2. 执行原始方法并追踪Flux响应（从切面逻辑转移）
         return traceFluxResponse(decoratedProvider.generateContentStream(request), trace, startTime);
     }
@@ -120,10 +110,10 @@ public class TracingAIModelProviderDecorator implements AIModelProvider, ToolCal
      * 从AIModelProviderTraceAspect.traceMonoResponse方法完整转移
      */
     private Mono<AIResponse> traceMonoResponse(Mono<AIResponse> original, LLMTrace trace, Instant startTime) {
-        // 注意：trace已经在generateContent中提前存储到TraceContextManager了
-        
+        // trace随Reactor Context下传，LangChain4j提供者在chat()调用点桥接给ChatModelListener
         return original
-                .contextWrite(ctx -> ctx.put(LLMTrace.class, trace)) // 保持Reactor Context注入（兼容性）
+                .contextWrite(ctx -> ctx.put(TraceContextManager.CONTEXT_KEY, trace))
+                .doFirst(() -> traceContextManager.register(trace))
                 .doOnSuccess(response -> {
                     try {
                         Instant endTime = Instant.now();
@@ -137,8 +127,8 @@ public class TracingAIModelProviderDecorator implements AIModelProvider, ToolCal
                             log.info("🔄 非流式-LangChain4j：装饰器跳过发布，交由监听器处理: traceId={}, type={}", trace.getTraceId(), trace.getType());
                         }
                     } finally {
-                        // 清理trace上下文
-                        traceContextManager.clearTrace();
+                        // 释放trace登记
+                        traceContextManager.release(trace);
                     }
                 })
                 .doOnError(error -> {
@@ -153,10 +143,11 @@ public class TracingAIModelProviderDecorator implements AIModelProvider, ToolCal
                             log.info("🔄 非流式错误-LangChain4j：装饰器跳过发布，交由监听器处理: traceId={}, type={}", trace.getTraceId(), trace.getType());
                         }
                     } finally {
-                        // 清理trace上下文
-                        traceContextManager.clearTrace();
+                        // 释放trace登记
+                        traceContextManager.release(trace);
                     }
-                });
+                })
+                .doOnCancel(() -> traceContextManager.release(trace));
     }
 
     /**
@@ -167,10 +158,10 @@ public class TracingAIModelProviderDecorator implements AIModelProvider, ToolCal
         AtomicReference<Instant> firstChunkTime = new AtomicReference<>();
         StringBuilder contentBuffer = new StringBuilder();
 
-        // 注意：trace已经在generateContentStream中提前存储到TraceContextManager了
-
+        // trace随Reactor Context下传，LangChain4j提供者在chat()调用点桥接给ChatModelListener
         return original
-                .contextWrite(ctx -> ctx.put(LLMTrace.class, trace)) // 保持Reactor Context注入（兼容性）
+                .contextWrite(ctx -> ctx.put(TraceContextManager.CONTEXT_KEY, trace))
+                .doFirst(() -> traceContextManager.register(trace))
                 .doOnNext(content -> {
                     // 记录首个token时间
                     if (firstChunkTime.get() == null && !"heartbeat".equals(content)) {
@@ -219,9 +210,9 @@ public class TracingAIModelProviderDecorator implements AIModelProvider, ToolCal
                         publishTraceEvent(trace);
                         log.info("✅ 流式响应完成，已发布事件: traceId={}", trace.getTraceId());
                     } finally {
-                        // 🚀 由装饰器负责清理上下文
-                        traceContextManager.clearTrace();
-                        log.debug("流式响应完成，已清理trace上下文: traceId={}", trace.getTraceId());
+                        // 🚀 由装饰器负责释放trace登记
+                        traceContextManager.release(trace);
+                        log.debug("流式响应完成，已释放trace: traceId={}", trace.getTraceId());
                     }
                 })
                 .doOnError(error -> {
@@ -233,9 +224,9 @@ public class TracingAIModelProviderDecorator implements AIModelProvider, ToolCal
                         publishTraceEvent(trace);
                         log.debug("流式响应出错，已发布错误事件: traceId={}, error={}", trace.getTraceId(), error.getMessage());
                     } finally {
-                        // 🚀 由装饰器负责清理上下文
-                        traceContextManager.clearTrace();
-                        log.debug("流式响应出错，已清理trace上下文: traceId={}", trace.getTraceId());
+                        // 🚀 由装饰器负责释放trace登记
+                        traceContextManager.release(trace);
+                        log.debug("流式响应出错，已释放trace: traceId={}", trace.getTraceId());
                     }
                 })
                 .doOnCancel(() -> {
@@ -273,9 +264,9 @@ public class TracingAIModelProviderDecorator implements AIModelProvider, ToolCal
                         publishTraceEvent(trace);
                         log.debug("流式响应被取消，已发布事件: traceId={}", trace.getTraceId());
                     } finally {
-                        // 🚀 由装饰器负责清理上下文
-                        traceContextManager.clearTrace();
-                        log.debug("流式响应被取消，已清理trace上下文: traceId={}", trace.getTraceId());
+                        // 🚀 由装饰器负责释放trace登记
+                        traceContextManager.release(trace);
+                        log.debug("流式响应被取消，已释放trace: traceId={}", trace.getTraceId());
                     }
                 });
     }
@@ -0,0 +1,259 @@
+package com.ainovel.server.service.ai.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.config.LLMResponseCacheConfig;
+import com.ainovel.server.domain.model.AIRequest;
+import com.ainovel.server.domain.model.AIResponse;
+import com.ainovel.server.domain.model.LLMResponseCacheEntry;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * LLM 响应缓存（按内容寻址）
+ *
+ * 缓存键由用户、供应商、模型、功能类型、生成参数（温度、最大 token 及 parameters 中的其他参数）和完整提示词计算得出，提示词或参数有任何变化即为新键，
+ * 因此条目无需主动失效，只按功能配置的有效期过期。
+ * 仅对配置中启用的功能生效，适用于摘要、知识提取这类同一输入重复调用、结果可复用的场景；
+ * 带工具定义或工具消息的请求不缓存。请求 metadata 中 {@link #BYPASS_KEY} 为 true 时跳过缓存
+ * （用户主动重新生成、失败任务重试等，见 {@link #bypass(AIRequest)}）。
+ *
+ * 缓存键包含用户ID：命中不产生扣费，不在用户之间共享结果。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LLMResponseCache {
+
+    /**
+     * 请求 metadata 中的跳过缓存标记
+     */
+    public static final String BYPASS_KEY = "bypassResponseCache";
+
+    /**
+     * 命中缓存的响应在 metadata 中带有该标记
+     */
+    public static final String CACHE_HIT_KEY = "responseCacheHit";
+
+    private static final char SEPARATOR = '\u0000';
+
+    /**
+     * 不影响生成结果的请求参数：providerSpecific 中是计费标记、关联ID和幂等键，每次请求都不同
+     */
+    private static final Set<String> EXCLUDED_PARAMETERS = Set.of("providerSpecific");
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final LLMResponseCacheConfig config;
+
+    /**
+     * 标记请求跳过缓存：既不读取也不写入
+     * 用于重新生成、重试这类期望得到新结果的调用，避免复用上次不满意或解析失败的响应
+     */
+    public static AIRequest bypass(AIRequest request) {
+        if (request.getMetadata() == null) {
+            request.setMetadata(new HashMap<>());
+        }
+        request.getMetadata().put(BYPASS_KEY, true);
+        return request;
+    }
+
+    /**
+     * 解析请求对应的缓存有效期；不可缓存时返回 null
+     */
+    public Duration resolveTtl(AIRequest request) {
+        if (!config.isEnabled() || request == null || config.getFeatures().isEmpty()) {
+            return null;
+        }
+        if (request.getToolSpecifications() != null && !request.getToolSpecifications().isEmpty()) {
+            return null;
+        }
+        if (request.getMetadata() != null
+                && Boolean.parseBoolean(String.valueOf(request.getMetadata().get(BYPASS_KEY)))) {
+            return null;
+        }
+        if (request.getMessages() != null) {
+            for (AIRequest.Message message : request.getMessages()) {
+                if (message.getToolExecutionRequests() != null && !message.getToolExecutionRequests().isEmpty()
+                        || message.getToolExecutionResult() != null) {
+                    return null;
+                }
+            }
+        }
+        String featureType = featureTypeOf(request);
+        Duration ttl = featureType == null ? null : config.getFeatures().get(featureType);
+        return ttl != null && !ttl.isZero() && !ttl.isNegative() ? ttl : null;
+    }
+
+    /**
+     * 功能类型：优先取请求的 featureType，其次取 metadata.requestType
+     */
+    public static String featureTypeOf(AIRequest request) {
+        if (request.getFeatureType() != null) {
+            return request.getFeatureType().name();
+        }
+        if (request.getMetadata() != null) {
+            Object requestType = request.getMetadata().get("requestType");
+            if (requestType instanceof String s && !s.isBlank()) {
+                return s;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 计算缓存键
+     */
+    public String keyOf(String provider, String model, AIRequest request) {
+        MessageDigest digest = sha256();
+        update(digest, request.getUserId());
+        update(digest, provider);
+        update(digest, model);
+        update(digest, featureTypeOf(request));
+        update(digest, String.valueOf(request.getTemperature()));
+        update(digest, String.valueOf(request.getMaxTokens()));
+        // 其他生成参数（topP、penalty 等）按键排序后参与计算
+        if (request.getParameters() != null && !request.getParameters().isEmpty()) {
+            new TreeMap<>(request.getParameters()).forEach((name, value) -> {
+                if (!EXCLUDED_PARAMETERS.contains(name)) {
+                    update(digest, name);
+                    update(digest, String.valueOf(value));
+                }
+            });
+        }
+        update(digest, null);
+        update(digest, request.getPrompt());
+        if (request.getMessages() != null) {
+            for (AIRequest.Message message : request.getMessages()) {
+                update(digest, message.getRole());
+                update(digest, message.getContent());
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * 读取缓存；未命中或读取失败时返回 empty
+     */
+    public Mono<AIResponse> get(String key) {
+        return reactiveMongoTemplate.findById(key, LLMResponseCacheEntry.class)
+                // TTL 索引按分钟级周期清理，读取时再校验一次
+                .filter(entry -> entry.getExpiresAt() == null || entry.getExpiresAt().after(new Date()))
+                .map(LLMResponseCache::toResponse)
+                .onErrorResume(e -> {
+                    log.warn("读取LLM响应缓存失败: key={}, error={}", key, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * 写入缓存；只缓存正常完成、不含工具调用的文本响应
+     */
+    public Mono<Void> put(String key, AIRequest request, String provider, Duration ttl, AIResponse response) {
+        if (!isCacheableResponse(response)) {
+            return Mono.empty();
+        }
+        Date now = new Date();
+        LLMResponseCacheEntry entry = LLMResponseCacheEntry.builder()
+                .id(key)
+                .featureType(featureTypeOf(request))
+                .provider(provider)
+                .model(response.getModel())
+                .content(gzip(response.getContent()))
+                .finishReason(response.getFinishReason())
+                .promptTokens(response.getTokenUsage() != null ? response.getTokenUsage().getPromptTokens() : null)
+                .completionTokens(response.getTokenUsage() != null ? response.getTokenUsage().getCompletionTokens() : null)
+                .createdAt(now)
+                .expiresAt(new Date(now.getTime() + ttl.toMillis()))
+                .build();
+        return reactiveMongoTemplate.save(entry)
+                .doOnSuccess(saved -> log.debug("LLM响应已缓存: featureType={}, key={}", saved.getFeatureType(), key))
+                .onErrorResume(e -> {
+                    log.warn("写入LLM响应缓存失败: key={}, error={}", key, e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private boolean isCacheableResponse(AIResponse response) {
+        if (response == null || response.getContent() == null || response.getContent().isBlank()) {
+            return false;
+        }
+        if (response.getStatus() != null && !"ok".equalsIgnoreCase(response.getStatus())) {
+            return false;
+        }
+        if (response.getToolCalls() != null && !response.getToolCalls().isEmpty()) {
+            return false;
+        }
+        return response.getContent().length() <= config.getMaxContentChars();
+    }
+
+    private static AIResponse toResponse(LLMResponseCacheEntry entry) {
+        AIResponse response = new AIResponse();
+        response.setId(entry.getId());
+        response.setModel(entry.getModel());
+        response.setContent(gunzip(entry.getContent()));
+        response.setFinishReason(entry.getFinishReason());
+        AIResponse.TokenUsage usage = new AIResponse.TokenUsage();
+        usage.setPromptTokens(entry.getPromptTokens() != null ? entry.getPromptTokens() : 0);
+        usage.setCompletionTokens(entry.getCompletionTokens() != null ? entry.getCompletionTokens() : 0);
+        response.setTokenUsage(usage);
+        response.setMetadata(Map.of(CACHE_HIT_KEY, true));
+        return response;
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) SEPARATOR);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static byte[] gzip(String content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, content.length() / 3));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    static String gunzip(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
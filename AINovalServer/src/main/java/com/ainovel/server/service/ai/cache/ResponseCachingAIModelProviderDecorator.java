@@ -0,0 +1,170 @@
+package com.ainovel.server.service.ai.cache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.ainovel.server.domain.model.AIRequest;
+import com.ainovel.server.domain.model.AIResponse;
+import com.ainovel.server.domain.model.ModelInfo;
+import com.ainovel.server.service.ai.AIModelProvider;
+import com.ainovel.server.service.ai.capability.ToolCallCapable;
+
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 响应缓存装饰器（最外层）
+ *
+ * 装饰器链顺序：ResponseCaching -> Billing -> Tracing -> RealProvider。
+ * 命中缓存时直接返回，不进入计费层，因此不会预扣费；未命中时正常调用并在成功后写入缓存。
+ * 流式 generateContentStream 命中时一次下发缓存内容；未命中时正常转发，流正常结束后把拼接的全文写入缓存，
+ * 心跳分片不计入，出现错误分片（"错误："开头）或中途取消时不写入。其余方法直接委托。
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ResponseCachingAIModelProviderDecorator implements AIModelProvider, ToolCallCapable {
+
+    private final AIModelProvider decoratedProvider;
+    private final LLMResponseCache responseCache;
+
+    @Override
+    public Mono<AIResponse> generateContent(AIRequest request) {
+        Duration ttl = responseCache.resolveTtl(request);
+        if (ttl == null) {
+            return decoratedProvider.generateContent(request);
+        }
+        String provider = getProviderName();
+        String key = responseCache.keyOf(provider, getModelName(), request);
+        return responseCache.get(key)
+                .doOnNext(hit -> log.info("[ResponseCache] 命中: featureType={}, provider={}, model={}, userId={}",
+                        LLMResponseCache.featureTypeOf(request), provider, getModelName(), request.getUserId()))
+                .switchIfEmpty(Mono.defer(() -> decoratedProvider.generateContent(request)
+                        .flatMap(response -> responseCache.put(key, request, provider, ttl, response)
+                                .thenReturn(response))));
+    }
+
+    @Override
+    public Flux<String> generateContentStream(AIRequest request) {
+        Duration ttl = responseCache.resolveTtl(request);
+        if (ttl == null) {
+            return decoratedProvider.generateContentStream(request);
+        }
+        String provider = getProviderName();
+        String key = responseCache.keyOf(provider, getModelName(), request);
+        return responseCache.get(key)
+                .doOnNext(hit -> log.info("[ResponseCache] 流式命中: featureType={}, provider={}, model={}, userId={}",
+                        LLMResponseCache.featureTypeOf(request), provider, getModelName(), request.getUserId()))
+                .flatMapMany(hit -> Flux.just(hit.getContent()))
+                .switchIfEmpty(Flux.defer(() -> {
+                    StringBuilder content = new StringBuilder();
+                    AtomicBoolean failed = new AtomicBoolean();
+                    return decoratedProvider.generateContentStream(request)
+                            .doOnNext(chunk -> {
+                                if (chunk == null || "heartbeat".equals(chunk)) {
+                                    return;
+                                }
+                                if (chunk.startsWith("错误：")) {
+                                    failed.set(true);
+                                }
+                                content.append(chunk);
+                            })
+                            .concatWith(Mono.defer(() -> failed.get()
+                                    ? Mono.<String>empty()
+                                    : responseCache.put(key, request, provider, ttl, streamedResponse(content.toString()))
+                                            .then(Mono.<String>empty())));
+                }));
+    }
+
+    private AIResponse streamedResponse(String content) {
+        AIResponse response = new AIResponse();
+        response.setModel(getModelName());
+        response.setContent(content);
+        return response;
+    }
+
+    // --- 其余接口方法直接委托 ---
+
+    @Override
+    public String getProviderName() {
+        return decoratedProvider.getProviderName();
+    }
+
+    @Override
+    public String getModelName() {
+        return decoratedProvider.getModelName();
+    }
+
+    @Override
+    public Mono<Double> estimateCost(AIRequest request) {
+        return decoratedProvider.estimateCost(request);
+    }
+
+    @Override
+    public Mono<Boolean> validateApiKey() {
+        return decoratedProvider.validateApiKey();
+    }
+
+    @Override
+    public void setProxy(String host, int port) {
+        decoratedProvider.setProxy(host, port);
+    }
+
+    @Override
+    public void disableProxy() {
+        decoratedProvider.disableProxy();
+    }
+
+    @Override
+    public boolean isProxyEnabled() {
+        return decoratedProvider.isProxyEnabled();
+    }
+
+    @Override
+    public Flux<ModelInfo> listModels() {
+        return decoratedProvider.listModels();
+    }
+
+    @Override
+    public Flux<ModelInfo> listModelsWithApiKey(String apiKey, String apiEndpoint) {
+        return decoratedProvider.listModelsWithApiKey(apiKey, apiEndpoint);
+    }
+
+    @Override
+    public String getApiKey() {
+        return decoratedProvider.getApiKey();
+    }
+
+    @Override
+    public String getApiEndpoint() {
+        return decoratedProvider.getApiEndpoint();
+    }
+
+    // ====== ToolCallCapable 条件实现 ======
+    @Override
+    public boolean supportsToolCalling() {
+        if (decoratedProvider instanceof ToolCallCapable capable) {
+            return capable.supportsToolCalling();
+        }
+        return false;
+    }
+
+    @Override
+    public ChatLanguageModel getToolCallableChatModel() {
+        if (decoratedProvider instanceof ToolCallCapable capable) {
+            return capable.getToolCallableChatModel();
+        }
+        throw new UnsupportedOperationException("被装饰的提供者不支持工具调用: " + decoratedProvider.getClass().getSimpleName());
+    }
+
+    @Override
+    public StreamingChatLanguageModel getToolCallableStreamingChatModel() {
+        if (decoratedProvider instanceof ToolCallCapable capable) {
+            return capable.getToolCallableStreamingChatModel();
+        }
+        return null;
+    }
+}
@@ -1,9 +1,11 @@
 package com.ainovel.server.service.ai.factory;
 
+import com.ainovel.server.config.MockModelProviderConfig;
 import com.ainovel.server.config.ProxyConfig;
 import com.ainovel.server.service.ai.AIModelProvider;
 import com.ainovel.server.service.ai.AnthropicModelProvider;
 import com.ainovel.server.service.ai.GrokModelProvider;
+import com.ainovel.server.service.ai.MockModelProvider;
 import com.ainovel.server.service.ai.TracingAIModelProviderDecorator;
 import com.ainovel.server.service.ai.langchain4j.AnthropicLangChain4jModelProvider;
 // import com.ainovel.server.service.ai.genai.GoogleGenAIGeminiModelProvider; // 不再使用 REST 回退
@@ -37,16 +39,19 @@ public class AIModelProviderFactory {
     private final ApplicationEventPublisher eventPublisher;
     private final ChatModelListenerManager listenerManager;
     private final TraceContextManager traceContextManager;
+    private final MockModelProviderConfig mockProviderConfig;
 
     @Autowired
     public AIModelProviderFactory(ProxyConfig proxyConfig, 
                                  ApplicationEventPublisher eventPublisher,
                                  ChatModelListenerManager listenerManager,
-                                 TraceContextManager traceContextManager) {
+                                 TraceContextManager traceContextManager,
+                                 MockModelProviderConfig mockProviderConfig) {
         this.proxyConfig = proxyConfig;
         this.eventPublisher = eventPublisher;
         this.listenerManager = listenerManager;
         this.traceContextManager = traceContextManager;
+        this.mockProviderConfig = mockProviderConfig;
         
         log.info("🚀 AIModelProviderFactory 初始化完成，监听器管理器: {}", listenerManager.getListenerInfo());
     }
@@ -97,6 +102,13 @@ public class AIModelProviderFactory {
             case "qwen", "dashscope", "tongyi", "alibaba" -> new QwenLangChain4jModelProvider(modelName, apiKey, apiEndpoint, proxyConfig, lm);
             case "x-ai", "grok" -> new GrokModelProvider(modelName, apiKey, apiEndpoint, proxyConfig);
             case "anthropic-native" -> new AnthropicModelProvider(modelName, apiKey, apiEndpoint);
+            // 压测用模拟提供商，需显式开启 ainovel.ai.mock-provider.enabled
+            case MockModelProvider.PROVIDER_NAME -> {
+                if (!mockProviderConfig.isEnabled()) {
+                    throw new IllegalArgumentException("不支持的AI提供商: " + providerName);
+                }
+                yield new MockModelProvider(modelName, apiKey, apiEndpoint, mockProviderConfig.profileFor(modelName));
+            }
             default -> throw new IllegalArgumentException("不支持的AI提供商: " + providerName);
         };
 
@@ -178,6 +190,7 @@ public class AIModelProviderFactory {
                      "doubao", "ark", "volcengine", "bytedance", "zhipu", "glm", "qwen", "dashscope", "tongyi", "alibaba" -> "langchain4j";
                 case "gemini" -> "genai";
                 case "x-ai", "grok" -> "x-ai";
+                case MockModelProvider.PROVIDER_NAME -> MockModelProvider.PROVIDER_NAME;
                 default -> "unknown";
             };
         }
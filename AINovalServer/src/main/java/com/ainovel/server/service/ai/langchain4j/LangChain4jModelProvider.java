@@ -35,6 +35,7 @@ import com.ainovel.server.domain.model.ModelInfo;
 import com.ainovel.server.service.ai.AIModelProvider;
 import com.ainovel.server.service.ai.capability.ToolCallCapable;
 import com.ainovel.server.service.ai.observability.ChatModelListenerManager;
+import com.ainovel.server.service.ai.observability.TraceContextManager;
 
 import dev.langchain4j.agent.tool.ToolExecutionRequest;
 import dev.langchain4j.data.message.AiMessage;
@@ -48,6 +49,7 @@ import dev.langchain4j.model.chat.request.ChatRequest;
 import dev.langchain4j.model.chat.response.ChatResponse;
 import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
 import dev.langchain4j.agent.tool.ToolSpecification;
+import io.micrometer.context.ContextSnapshot;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
@@ -305,8 +307,8 @@ public abstract class LangChain4jModelProvider implements AIModelProvider, ToolC
             return Mono.error(new RuntimeException("模型未初始化"));
         }
 
-        // 使用defer延迟执行
-        return Mono.defer(() -> {
+        // 使用deferContextual延迟执行，并把Context中的trace桥接给同步回调的ChatModelListener
+        return Mono.deferContextual(ctx -> {
             // 创建一个临时对象作为锁
             final Object syncLock = new Object();
             final AIResponse[] responseHolder = new AIResponse[1];
@@ -317,7 +319,7 @@ public abstract class LangChain4jModelProvider implements AIModelProvider, ToolC
             // 记录开始时间
             final long startTime = System.currentTimeMillis();
 
-            try {
+            try (ContextSnapshot.Scope traceScope = TraceContextManager.openScope(ctx)) {
                 // 使用同步块保证完整执行
                 synchronized (syncLock) {
                     // 转换请求为LangChain4j格式
@@ -418,9 +420,9 @@ public abstract class LangChain4jModelProvider implements AIModelProvider, ToolC
             return Flux.just("错误：流式模型未初始化");
         }
 
-        // 将副作用延迟到订阅时执行，避免方法调用即触发底层请求
-        return Flux.defer(() -> {
-            try {
+        // 将副作用延迟到订阅时执行，避免方法调用即触发底层请求；chat()期间把Context中的trace桥接给ChatModelListener
+        return Flux.deferContextual(ctx -> {
+            try (ContextSnapshot.Scope traceScope = TraceContextManager.openScope(ctx)) {
             // 转换请求为LangChain4j格式
             List<ChatMessage> messages = convertToLangChain4jMessages(request);
 
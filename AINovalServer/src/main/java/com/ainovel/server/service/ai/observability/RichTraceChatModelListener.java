@@ -15,7 +15,6 @@ import dev.langchain4j.model.openai.OpenAiChatResponseMetadata;
 import dev.langchain4j.model.openai.OpenAiTokenUsage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import reactor.core.publisher.Mono;
 
 import org.springframework.context.ApplicationEventPublisher;
 
@@ -80,7 +79,7 @@ public class RichTraceChatModelListener implements ChatModelListener {
     private void enrichTraceWithRequestDetails(ChatModelRequestContext context) {
         //log.info("🔍 开始增强请求详细信息，检查各种trace来源...");
         
-        // 🚀 优先从TraceContextManager获取trace（新的主要方式）
+        // 🚀 优先从TraceContextManager获取trace（调用点已把Reactor Context中的trace桥接到当前线程）
         LLMTrace trace = traceContextManager.getTrace();
         if (trace != null) {
             log.info("✅ 从TraceContextManager中找到trace: traceId={}", trace.getTraceId());
@@ -98,26 +97,7 @@ public class RichTraceChatModelListener implements ChatModelListener {
             return;
         }
         
-        // 🚀 最后尝试从Reactor Context获取（兼容性，很可能不会成功）
-        try {
-            Mono.deferContextual(ctx -> {
-                if (ctx.hasKey(LLMTrace.class)) {
-                    LLMTrace reactorTrace = ctx.get(LLMTrace.class);
-                    //log.info("✅ 从Reactor Context中找到trace: traceId={}", reactorTrace.getTraceId());
-                    
-                    // 🚀 关键：将trace存储到attributes中，以便在不同线程的onResponse中访问
-                    context.attributes().put(TRACE_ATTR_KEY, reactorTrace);
-                    enhanceRequestDetails(reactorTrace, context);
-                } else {
-                    log.warn("❌ 未在任何地方找到LLMTrace对象");
-                    log.warn("🔍 TraceContextManager: {}, attributes: {}, Reactor Context: 无trace", 
-                            trace, context.attributes().get(TRACE_ATTR_KEY));
-                }
-                return Mono.empty();
-            }).block(); // 🚀 使用block()确保同步执行
-        } catch (Exception e) {
-            log.error("从Reactor Context获取trace时出错", e);
-        }
+        log.warn("❌ 未找到LLMTrace对象：调用点未通过TraceContextManager.openScope桥接Reactor Context");
     }
     
     /**
@@ -360,9 +340,6 @@ public class RichTraceChatModelListener implements ChatModelListener {
                         log.info("📤 非流式请求：监听器发布事件: traceId={}, type={}", trace.getTraceId(), trace.getType());
                         eventPublisher.publishEvent(new LLMTraceEvent(this, trace));
                         log.info("✅ LLM追踪事件已发布（含完整tokenUsage）: traceId={}", trace.getTraceId());
-                        // 非流式：发布后清理
-                        traceContextManager.clearTrace();
-                        log.debug("已清理trace上下文: traceId={}", trace.getTraceId());
                     }
                 } catch (Exception publishError) {
                     log.error("发布LLM追踪事件失败: traceId={}", trace.getTraceId(), publishError);
@@ -381,10 +358,6 @@ public class RichTraceChatModelListener implements ChatModelListener {
                     }
                 } catch (Exception publishError) {
                     log.error("发布LLM追踪事件失败: traceId={}", trace.getTraceId(), publishError);
-                } finally {
-                    // 🚀 清理trace上下文，防止内存泄漏
-                    traceContextManager.clearTrace();
-                    log.debug("异常情况下已清理trace上下文: traceId={}", trace.getTraceId());
                 }
             }
         } else {
@@ -414,8 +387,6 @@ public class RichTraceChatModelListener implements ChatModelListener {
                     } else {
                         eventPublisher.publishEvent(new LLMTraceEvent(this, trace));
                         log.debug("LLM追踪错误事件已发布: traceId={}", trace.getTraceId());
-                        traceContextManager.clearTrace();
-                        log.debug("错误处理完成，已清理trace上下文: traceId={}", trace.getTraceId());
                     }
                 } catch (Exception publishError) {
                     log.error("发布LLM追踪错误事件失败: traceId={}", trace.getTraceId(), publishError);
@@ -427,10 +398,6 @@ public class RichTraceChatModelListener implements ChatModelListener {
                     eventPublisher.publishEvent(new LLMTraceEvent(this, trace));
                 } catch (Exception publishError) {
                     log.error("发布LLM追踪错误事件失败: traceId={}", trace.getTraceId(), publishError);
-                } finally {
-                    // 🚀 清理trace上下文，防止内存泄漏
-                    traceContextManager.clearTrace();
-                    log.debug("异常错误处理完成，已清理trace上下文: traceId={}", trace.getTraceId());
                 }
             }
         } else {
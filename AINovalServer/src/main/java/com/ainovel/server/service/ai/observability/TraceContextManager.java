@@ -1,77 +1,134 @@
 package com.ainovel.server.service.ai.observability;
 
 import com.ainovel.server.domain.model.observability.LLMTrace;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.context.ContextRegistry;
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import reactor.util.context.ContextView;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.time.Duration;
 
 /**
- * 跨线程Trace上下文管理器
+ * LLM Trace上下文管理器
  * 用于在TracingAIModelProviderDecorator和RichTraceChatModelListener之间传递LLMTrace对象
- * 
- * 由于ChatModelListener运行在LangChain4j的独立线程中，无法访问Reactor Context，
- * 因此需要使用此管理器来实现跨线程的trace传递。
+ *
+ * 当前trace随Reactor Context流动（键为 {@link #CONTEXT_KEY}），不再按线程名存放：
+ * 事件循环线程被成千上万个请求交替复用，虚拟线程的名字又都为空，按线程名存放会互相串号。
+ * ChatModelListener在 chat() 调用内同步回调，拿不到Reactor Context，
+ * 因此在调用点用 {@link #openScope(ContextView)} 把Context中的trace桥接到线程本地变量，
+ * 调用返回后立即恢复，监听器在 onRequest 中读取后写入请求 attributes，后续回调从 attributes 获取。
+ *
+ * 另外维护一个按traceId索引的存活trace登记表，容量有上限并按TTL淘汰，
+ * 漏掉释放的trace不会无限堆积；存活数量与淘汰次数通过指标暴露。
  */
 @Component
 @Slf4j
 public class TraceContextManager {
-    
-    // 使用线程名称作为key存储trace，确保线程安全且避免deprecated警告
-    private final ConcurrentMap<String, LLMTrace> traceContext = new ConcurrentHashMap<>();
-    
+
     /**
-     * 存储当前线程的trace
+     * Reactor Context 及线程本地变量桥接使用的键
      */
-    public void setTrace(LLMTrace trace) {
-        if (trace != null) {
-            String threadName = Thread.currentThread().getName();
-            traceContext.put(threadName, trace);
-            log.debug("存储trace到上下文: traceId={}, threadName={}", trace.getTraceId(), threadName);
-        }
+    public static final String CONTEXT_KEY = "ainovel.llm.trace";
+
+    private static final ThreadLocal<LLMTrace> CURRENT = new ThreadLocal<>();
+
+    private static final ContextSnapshotFactory SNAPSHOT_FACTORY;
+
+    static {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(CONTEXT_KEY, CURRENT::get, CURRENT::set, CURRENT::remove);
+        // Context 中没有trace时清掉线程上可能残留的值，避免监听器拿到上一个请求的trace
+        SNAPSHOT_FACTORY = ContextSnapshotFactory.builder().clearMissing(true).build();
     }
-    
+
+    private final Cache<String, LLMTrace> liveTraces;
+
+    public TraceContextManager(MeterRegistry meterRegistry,
+                               @Value("${ainovel.llm-trace.max-live:10000}") long maxLive,
+                               @Value("${ainovel.llm-trace.ttl:30m}") Duration ttl) {
+        Counter evicted = Counter.builder("llm.trace.evicted")
+                .description("未正常释放、因容量或过期被淘汰的trace数量")
+                .register(meterRegistry);
+        this.liveTraces = Caffeine.newBuilder()
+                .maximumSize(maxLive)
+                .expireAfterWrite(ttl)
+                .removalListener((String traceId, LLMTrace trace, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        evicted.increment();
+                        log.warn("存活trace被淘汰（可能遗漏释放）: traceId={}, 原因={}", traceId, cause);
+                    }
+                })
+                .build();
+        Gauge.builder("llm.trace.live", liveTraces, Cache::estimatedSize)
+                .description("进行中的LLM调用trace数量")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 把Reactor Context中的trace设置到当前线程，关闭返回的作用域时恢复原值
+     * 用于包住会同步回调ChatModelListener的 chat() 调用
+     */
+    public static ContextSnapshot.Scope openScope(ContextView context) {
+        return SNAPSHOT_FACTORY.setThreadLocalsFrom(context, CONTEXT_KEY);
+    }
+
     /**
-     * 获取当前线程的trace
+     * 获取当前作用域内的trace，不在作用域内时返回null
      */
     public LLMTrace getTrace() {
-        String threadName = Thread.currentThread().getName();
-        LLMTrace trace = traceContext.get(threadName);
-        if (trace != null) {
-            log.debug("从上下文获取trace: traceId={}, threadName={}", trace.getTraceId(), threadName);
-        } else {
-            log.debug("当前线程未找到trace: threadName={}", threadName);
+        LLMTrace trace = CURRENT.get();
+        if (trace == null) {
+            log.debug("当前作用域未找到trace: threadName={}", Thread.currentThread().getName());
         }
         return trace;
     }
-    
+
+    /**
+     * 登记一个进行中的trace
+     */
+    public void register(LLMTrace trace) {
+        if (trace != null && trace.getTraceId() != null) {
+            liveTraces.put(trace.getTraceId(), trace);
+            log.debug("登记trace: traceId={}", trace.getTraceId());
+        }
+    }
+
     /**
-     * 清理当前线程的trace
+     * 释放已结束的trace，只有登记的仍是同一个对象时才移除
      */
-    public void clearTrace() {
-        String threadName = Thread.currentThread().getName();
-        LLMTrace trace = traceContext.remove(threadName);
-        if (trace != null) {
-            log.debug("清理trace上下文: traceId={}, threadName={}", trace.getTraceId(), threadName);
+    public void release(LLMTrace trace) {
+        if (trace != null && trace.getTraceId() != null) {
+            liveTraces.asMap().remove(trace.getTraceId(), trace);
+            log.debug("释放trace: traceId={}", trace.getTraceId());
         }
     }
-    
+
+    /**
+     * 按traceId查找进行中的trace
+     */
+    public LLMTrace findTrace(String traceId) {
+        return traceId == null ? null : liveTraces.getIfPresent(traceId);
+    }
+
     /**
-     * 获取上下文中的trace数量（用于监控）
+     * 获取进行中的trace数量（用于监控）
      */
-    public int getContextSize() {
-        return traceContext.size();
+    public long getContextSize() {
+        return liveTraces.estimatedSize();
     }
-    
+
     /**
-     * 清理所有过期的trace（防止内存泄漏）
-     * 可以定期调用此方法清理长时间未使用的trace
+     * 立即执行过期淘汰（一般由Caffeine在读写时顺带完成）
      */
     public void cleanup() {
-        int sizeBefore = traceContext.size();
-        // 这里可以添加基于时间的清理逻辑
-        // 暂时保持简单，依赖正常的clearTrace调用
-        log.debug("Trace上下文清理完成，清理前: {}, 清理后: {}", sizeBefore, traceContext.size());
+        liveTraces.cleanUp();
     }
-}
\ No newline at end of file
+}
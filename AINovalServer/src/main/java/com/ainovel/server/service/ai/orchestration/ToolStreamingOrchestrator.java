@@ -139,7 +139,7 @@ public class ToolStreamingOrchestrator {
             log.error("工具循环出错: 上下文={} 错误={}", contextId, err.getMessage(), err);
             // 显式发出错误事件，便于前端结束等待并展示错误
             try {
-                SinksFieldHolder.emit(toolExecutionService, contextId, ToolEvent.builder()
+                toolExecutionService.emitEvent(contextId, ToolEvent.builder()
                     .contextId(contextId)
                     .eventType("CALL_ERROR")
                     .errorMessage(err.getMessage())
@@ -168,7 +168,7 @@ public class ToolStreamingOrchestrator {
 
     private void emitComplete(String contextId) {
         try {
-            SinksFieldHolder.emit(toolExecutionService, contextId, ToolEvent.builder()
+            toolExecutionService.emitEvent(contextId, ToolEvent.builder()
                 .contextId(contextId)
                 .eventType("COMPLETE")
                 .timestamp(LocalDateTime.now())
@@ -177,17 +177,6 @@ public class ToolStreamingOrchestrator {
                 .build());
         } catch (Exception ignore) {}
     }
-
-    /** 简单的反射助手：复用 ToolExecutionService 的 emitEvent */
-    static class SinksFieldHolder {
-        static void emit(ToolExecutionService svc, String ctx, ToolEvent evt) {
-            try {
-                var m = ToolExecutionService.class.getDeclaredMethod("emitEvent", String.class, ToolEvent.class);
-                m.setAccessible(true);
-                m.invoke(svc, ctx, evt);
-            } catch (Exception ignored) {}
-        }
-    }
 }
 
 
@@ -1,25 +1,23 @@
 package com.ainovel.server.service.ai.pricing;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.ApplicationArguments;
-import org.springframework.boot.ApplicationRunner;
 import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
 import org.springframework.stereotype.Service;
 
 import com.ainovel.server.domain.model.ModelPricing;
-import com.ainovel.server.repository.ModelPricingRepository;
+import com.ainovel.server.service.seed.SeedItem;
+import com.ainovel.server.service.seed.SystemSeedSource;
 
 import lombok.extern.slf4j.Slf4j;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
  * 定价初始化服务
- * 在应用启动时初始化和更新模型定价数据
+ * 声明默认定价种子（由系统种子协调器写入），种子就绪后从官方API同步定价
  * 
  * 更新日志：
  * - 2025-06-27: 根据Google官方API文档更新Gemini 2.5系列定价
@@ -29,10 +27,10 @@ import reactor.core.publisher.Mono;
 @Slf4j
 @Service
 @Order(100) // 确保在其他组件初始化后执行
-public class PricingInitializationService implements ApplicationRunner {
+public class PricingInitializationService implements SystemSeedSource {
     
     @Autowired
-    private ModelPricingRepository modelPricingRepository;
+    private ReactiveMongoTemplate mongoTemplate;
     
     @Autowired(required = false)
     private PricingDataSyncService pricingDataSyncService;
@@ -43,28 +41,35 @@ public class PricingInitializationService implements ApplicationRunner {
     private boolean autoSyncOnStartup = true;
     
     @Override
-    public void run(ApplicationArguments args) throws Exception {
-        log.info("Starting pricing data initialization...");
-        
-        initializeDefaultPricing()
-                .then(syncFromOfficialAPIs())
-                .doOnSuccess(unused -> log.info("Pricing data initialization completed successfully"))
-                .doOnError(error -> log.error("Error during pricing data initialization", error))
-                .subscribe();
+    public String seedCollection() {
+        return mongoTemplate.getCollectionName(ModelPricing.class);
     }
     
     /**
-     * 初始化默认定价数据
-     * 
-     * @return 初始化结果
+     * 默认定价种子，按提供商和模型ID匹配当前生效的定价
      */
-    public Mono<Void> initializeDefaultPricing() {
-        log.info("Initializing default pricing data...");
-        
-        return Flux.fromIterable(getDefaultPricingData())
-                .flatMap(this::saveIfNotExists)
-                .then()
-                .doOnSuccess(unused -> log.info("Default pricing data initialization completed"));
+    @Override
+    public List<SeedItem> seedItems() {
+        return getDefaultPricingData().stream()
+                .map(pricing -> {
+                    pricing.setVersion(1);
+                    return new SeedItem(pricing.getProvider() + ":" + pricing.getModelId(),
+                            Map.of("provider", pricing.getProvider(),
+                                    "modelId", pricing.getModelId(),
+                                    "active", true),
+                            pricing);
+                })
+                .toList();
+    }
+    
+    /**
+     * 默认定价就绪后从官方API同步
+     */
+    @Override
+    public Mono<Void> afterSeeded(boolean applied) {
+        return syncFromOfficialAPIs()
+                .doOnSuccess(unused -> log.info("Pricing data initialization completed successfully"))
+                .doOnError(error -> log.error("Error during pricing data initialization", error));
     }
     
     /**
@@ -97,30 +102,6 @@ public class PricingInitializationService implements ApplicationRunner {
                 .doOnSuccess(unused -> log.info("Official API pricing sync completed"));
     }
     
-    /**
-     * 保存定价数据（如果不存在）
-     * 
-     * @param pricing 定价数据
-     * @return 保存结果
-     */
-    private Mono<ModelPricing> saveIfNotExists(ModelPricing pricing) {
-        return modelPricingRepository.existsByProviderAndModelIdAndActiveTrue(
-                pricing.getProvider(), pricing.getModelId())
-                .flatMap(exists -> {
-                    if (exists) {
-                        log.debug("Pricing for {}:{} already exists, skipping", 
-                                pricing.getProvider(), pricing.getModelId());
-                        return Mono.empty();
-                    } else {
-                        pricing.setCreatedAt(LocalDateTime.now());
-                        pricing.setUpdatedAt(LocalDateTime.now());
-                        pricing.setVersion(1);
-                        pricing.setActive(true);
-                        return modelPricingRepository.save(pricing);
-                    }
-                });
-    }
-    
     /**
      * 获取默认定价数据
      * 热门模型的初始定价配置（基于2025年最新官方定价）
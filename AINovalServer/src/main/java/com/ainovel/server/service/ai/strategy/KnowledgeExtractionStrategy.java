@@ -7,20 +7,21 @@ import com.ainovel.server.domain.model.AIFeatureType;
 import com.ainovel.server.domain.model.KnowledgeExtractionType;
 import com.ainovel.server.domain.model.NovelSettingItem;
 import com.ainovel.server.service.ai.AIModelProvider;
-import com.ainovel.server.utils.JsonRepairUtils;
+import com.ainovel.server.service.ai.cache.LLMResponseCache;
+import com.ainovel.server.service.stream.StreamCoalescer;
+import com.ainovel.server.utils.StreamingJsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * 知识提取策略 - 使用结构化输出
@@ -33,6 +34,19 @@ public class KnowledgeExtractionStrategy {
     private final AIModelProvider aiModelProvider;
     private final ObjectMapper objectMapper;
     
+    /**
+     * 跳过 LLM 响应缓存（重试时使用）
+     */
+    private boolean bypassResponseCache;
+    
+    /**
+     * 设置是否跳过 LLM 响应缓存
+     */
+    public KnowledgeExtractionStrategy bypassResponseCache(boolean bypass) {
+        this.bypassResponseCache = bypass;
+        return this;
+    }
+    
     /**
      * 一次性提取组内所有类型的知识点
      * 
@@ -72,6 +86,9 @@ public class KnowledgeExtractionStrategy {
             AIRequest request = new AIRequest();
             request.setUserId(userId);
             request.setNovelId(novelId);
+            if (bypassResponseCache) {
+                LLMResponseCache.bypass(request);
+            }
             
             // ✅ 设置模型配置ID用于计费识别
             if (modelConfigId != null && !modelConfigId.isBlank()) {
@@ -136,9 +153,9 @@ public class KnowledgeExtractionStrategy {
             
             request.getMessages().add(userMessage);
             
-            // 调用AI生成内容
-            return aiModelProvider.generateContent(request)
-                    .flatMap(response -> retrieveCompleteJson(aiModelProvider, request, response.getContent(), 3))
+            // 流式生成，数组元素随输出逐个解析
+            return StreamingJsonParser.collectJsonArray(contentStream(request))
+                    .flatMap(streamed -> retrieveCompleteJson(aiModelProvider, request, streamed, 3))
                     .flatMap(jsonContent -> parseKnowledgeJsonForGroup(jsonContent, types, novelId, userId))
                     .onErrorResume(error -> {
                         log.error("知识组提取失败: types={}, error={}", 
@@ -185,6 +202,9 @@ public class KnowledgeExtractionStrategy {
             AIRequest request = new AIRequest();
             request.setUserId(userId);
             request.setNovelId(novelId);
+            if (bypassResponseCache) {
+                LLMResponseCache.bypass(request);
+            }
             
             // ✅ 设置模型配置ID用于计费识别
             if (modelConfigId != null && !modelConfigId.isBlank()) {
@@ -249,9 +269,9 @@ public class KnowledgeExtractionStrategy {
                 request.getMessages().add(userMessage);
             }
             
-            // 调用AI生成内容
-            return aiModelProvider.generateContent(request)
-                    .flatMap(response -> retrieveCompleteJson(aiModelProvider, request, response.getContent(), 3))
+            // 流式生成，数组元素随输出逐个解析
+            return StreamingJsonParser.collectJsonArray(contentStream(request))
+                    .flatMap(streamed -> retrieveCompleteJson(aiModelProvider, request, streamed, 3))
                     .flatMap(jsonContent -> parseKnowledgeJson(jsonContent, type, novelId, userId))
                     .onErrorResume(error -> {
                         log.error("知识提取失败: type={}, error={}", type.getDisplayName(), error.getMessage(), error);
@@ -265,6 +285,21 @@ public class KnowledgeExtractionStrategy {
         }
     }
     
+    /**
+     * 生成内容流：丢弃供应商心跳，"错误："开头的错误提示转为异常
+     */
+    private Flux<String> contentStream(AIRequest request) {
+        return aiModelProvider.generateContentStream(request)
+                .filter(chunk -> !StreamCoalescer.PROVIDER_HEARTBEAT.equals(chunk))
+                .handle((chunk, sink) -> {
+                    if (chunk.startsWith("错误：")) {
+                        sink.error(new IllegalStateException(chunk));
+                    } else {
+                        sink.next(chunk);
+                    }
+                });
+    }
+    
     /**
      * 解析知识JSON（组提取）
      */
@@ -359,7 +394,7 @@ public class KnowledgeExtractionStrategy {
         log.info("尝试修复JSON: types={}", types.stream().map(KnowledgeExtractionType::getDisplayName).toList());
         
         try {
-            String repairedJson = JsonRepairUtils.repairJson(jsonContent);
+            String repairedJson = StreamingJsonParser.toJsonArray(jsonContent);
             if (repairedJson != null) {
                 return parseKnowledgeJsonForGroup(repairedJson, types, novelId, userId);
             }
@@ -461,8 +496,8 @@ public class KnowledgeExtractionStrategy {
         log.info("尝试修复JSON: type={}", type.getDisplayName());
         
         try {
-            // 使用工具类修复JSON
-            String repairedJson = JsonRepairUtils.repairJson(jsonContent);
+            // 使用容错解析器修复JSON
+            String repairedJson = StreamingJsonParser.toJsonArray(jsonContent);
             if (repairedJson != null) {
                 return parseKnowledgeJson(repairedJson, type, novelId, userId);
             }
@@ -498,12 +533,8 @@ public class KnowledgeExtractionStrategy {
         
         List<NovelSettingItem> result = new ArrayList<>();
         
-        // 使用正则表达式找到所有完整的JSON对象
-        Pattern objectPattern = Pattern.compile("\\{[^{}]*(?:\\{[^{}]*\\}[^{}]*)*\\}");
-        Matcher matcher = objectPattern.matcher(jsonContent);
-        
-        while (matcher.find()) {
-            String objectJson = matcher.group();
+        // 逐个元素解析，跳过无效元素
+        for (String objectJson : StreamingJsonParser.parseElements(jsonContent)) {
             try {
                 JsonNode node = objectMapper.readTree(objectJson);
                 String name = node.has("name") ? node.get("name").asText() : null;
@@ -630,8 +661,8 @@ public class KnowledgeExtractionStrategy {
             throw new IllegalArgumentException("AI响应为空");
         }
         
-        // 使用工具类提取JSON
-        String extractedJson = JsonRepairUtils.extractJsonFromResponse(response);
+        // 使用容错解析器提取JSON
+        String extractedJson = StreamingJsonParser.toJsonArray(response);
         if (extractedJson != null) {
             return extractedJson;
         }
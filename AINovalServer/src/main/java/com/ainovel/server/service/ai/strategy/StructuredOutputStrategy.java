@@ -4,21 +4,21 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
 
 import com.ainovel.server.domain.model.AIRequest;
 import com.ainovel.server.domain.model.NovelSettingItem;
 import com.ainovel.server.service.EnhancedUserPromptService;
 import com.ainovel.server.service.ai.AIModelProvider;
 import com.ainovel.server.service.dto.AiGeneratedSettingData;
-import com.ainovel.server.utils.JsonRepairUtils;
+import com.ainovel.server.service.stream.StreamCoalescer;
+import com.ainovel.server.utils.StreamingJsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -70,9 +70,18 @@ public class StructuredOutputStrategy implements SettingGenerationStrategy {
                     userMessage.setContent(userPrompt);
                     request.getMessages().add(userMessage);
                     
-                    // 使用模型生成内容，若JSON不完整则自动请求 AI 继续
-                    return aiModelProvider.generateContent(request)
-                        .flatMap(response -> retrieveCompleteJson(aiModelProvider, request, response.getContent(), 3))
+                    // 流式生成，数组元素随输出逐个解析；若JSON不完整则自动请求 AI 继续
+                    Flux<String> contentStream = aiModelProvider.generateContentStream(request)
+                        .filter(chunk -> !StreamCoalescer.PROVIDER_HEARTBEAT.equals(chunk))
+                        .handle((chunk, sink) -> {
+                            if (chunk.startsWith("错误：")) {
+                                sink.error(new IllegalStateException(chunk));
+                            } else {
+                                sink.next(chunk);
+                            }
+                        });
+                    return StreamingJsonParser.collectJsonArray(contentStream)
+                        .flatMap(streamed -> retrieveCompleteJson(aiModelProvider, request, streamed, 3))
                         .flatMap(jsonContent -> {
                             try {
                                 // 记录原始JSON内容用于调试
@@ -112,8 +121,8 @@ public class StructuredOutputStrategy implements SettingGenerationStrategy {
         log.info("尝试修复不完整的JSON, novelId: {}", novelId);
         
         try {
-            // 使用工具类修复JSON
-            String repairedJson = JsonRepairUtils.repairJson(jsonContent);
+            // 使用容错解析器修复JSON
+            String repairedJson = StreamingJsonParser.toJsonArray(jsonContent);
             if (repairedJson != null) {
                 List<AiGeneratedSettingData> generatedDataList = objectMapper.readValue(
                         repairedJson,
@@ -155,12 +164,8 @@ public class StructuredOutputStrategy implements SettingGenerationStrategy {
                                                                    String userId, List<String> validRequestedTypes) {
         List<NovelSettingItem> result = new java.util.ArrayList<>();
         
-        // 使用正则表达式找到所有完整的JSON对象
-        Pattern objectPattern = Pattern.compile("\\{[^{}]*(?:\\{[^{}]*\\}[^{}]*)*\\}");
-        Matcher matcher = objectPattern.matcher(jsonContent);
-        
-        while (matcher.find()) {
-            String objectJson = matcher.group();
+        // 逐个元素解析，跳过无法映射的元素
+        for (String objectJson : StreamingJsonParser.parseElements(jsonContent)) {
             try {
                 AiGeneratedSettingData data = objectMapper.readValue(objectJson, AiGeneratedSettingData.class);
                 NovelSettingItem item = LegacyAISettingGenerationStrategyFactory.convertToNovelSettingItem(data, novelId, userId, validRequestedTypes);
@@ -188,8 +193,8 @@ public class StructuredOutputStrategy implements SettingGenerationStrategy {
 
         log.debug("开始提取JSON，响应长度: {}", response.length());
         
-        // 使用工具类提取JSON
-        String extractedJson = JsonRepairUtils.extractJsonFromResponse(response);
+        // 使用容错解析器提取JSON
+        String extractedJson = StreamingJsonParser.toJsonArray(response);
         if (extractedJson != null) {
             return extractedJson;
         }
@@ -31,6 +31,22 @@ public interface ToolDefinition {
      */
     Object execute(Map<String, Object> parameters);
     
+    /**
+     * 同一上下文内该工具所在并发分组最多同时执行的调用数
+     * 0 表示不限（仍受执行线程池上限约束）；调用之间有先后依赖的工具应声明为 1，按模型给出的顺序执行
+     */
+    default int getMaxConcurrency() {
+        return 0;
+    }
+    
+    /**
+     * 并发分组：同一上下文内同组工具的调用共享一个并发上限
+     * 默认每个工具自成一组；修改同一份共享状态的多个工具应返回相同的分组名
+     */
+    default String getConcurrencyGroup() {
+        return getName();
+    }
+    
     /**
      * 验证参数
      * @param parameters 待验证的参数
@@ -4,30 +4,69 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.langchain4j.agent.tool.ToolExecutionRequest;
 import com.ainovel.server.service.ai.tools.events.ToolEvent;
 import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 import dev.langchain4j.data.message.AiMessage;
 import dev.langchain4j.data.message.ChatMessage;
 import dev.langchain4j.data.message.ToolExecutionResultMessage;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * 工具执行服务
  * 处理AI的工具调用请求
+ *
+ * 同一轮的多个工具调用在有界调度器上并行执行，结果按请求顺序返回给模型。
+ * 工具可在 {@link ToolRegistry} 中声明并发上限，上限按 上下文+分组 在所有调用之间共享，
+ * 超出上限的调用按到达顺序排队；同一上下文的并发批次（如多个请求共用一个设定会话）也不会突破上限。
+ * 每个上下文的事件通道独立加锁，序号分配与发出在同一把锁内完成，订阅方收到的事件序号严格递增。
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class ToolExecutionService {
-    
+
     private final ToolRegistry toolRegistry;
     private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Scheduler toolScheduler;
+    private final Duration batchTimeout;
     // 按 contextId 维护流式事件通道（仅用于“纯数据工具编排”场景）
-    private final Map<String, Sinks.Many<ToolEvent>> contextEventSinks = new HashMap<>();
-    private final Map<String, Long> contextSequences = new HashMap<>();
-    
+    private final Map<String, ContextChannel> contextChannels = new ConcurrentHashMap<>();
+    private final Map<String, Timer> toolTimers = new ConcurrentHashMap<>();
+    // 按 上下文+并发分组 共享的限流通道；空闲时移除
+    private final Map<String, GroupLane> groupLanes = new ConcurrentHashMap<>();
+
+    public ToolExecutionService(ToolRegistry toolRegistry,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${ainovel.tool-execution.max-parallel:16}") int maxParallel,
+                                @Value("${ainovel.tool-execution.queue-size:1000}") int queueSize,
+                                @Value("${ainovel.tool-execution.batch-timeout:5m}") Duration batchTimeout) {
+        this.toolRegistry = toolRegistry;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.batchTimeout = batchTimeout;
+        this.toolScheduler = Schedulers.newBoundedElastic(maxParallel, queueSize, "tool-exec", 60, true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        toolScheduler.dispose();
+    }
+
     /**
      * 执行AI消息中的工具调用
      */
@@ -35,78 +74,206 @@ public class ToolExecutionService {
         // 兼容旧入口，默认无上下文
         return executeToolCalls(aiMessage, null);
     }
-    
+
     /**
      * 执行AI消息中的工具调用（支持上下文）
+     * 多个调用并行执行，返回结果与请求顺序一致
      */
     public List<ChatMessage> executeToolCalls(AiMessage aiMessage, String contextId) {
         List<ChatMessage> results = new ArrayList<>();
-        
+
         if (!aiMessage.hasToolExecutionRequests()) {
             log.debug("No tool execution requests in AI message");
             return results;
         }
-        
-        log.info("处理工具调用请求: 数量={}", aiMessage.toolExecutionRequests().size());
-        
-        for (ToolExecutionRequest request : aiMessage.toolExecutionRequests()) {
-            log.debug("处理工具调用: id={} 工具={} 上下文={} 参数={} ", 
-                request.id(), request.name(), contextId, request.arguments());
-            
+
+        List<ToolExecutionRequest> requests = aiMessage.toolExecutionRequests();
+        log.info("处理工具调用请求: 数量={}", requests.size());
+
+        // 事件：收到调用（按请求顺序先全部发出）
+        for (ToolExecutionRequest request : requests) {
+            emitSequenced(contextId, ToolEvent.builder()
+                .contextId(contextId)
+                .eventType("CALL_RECEIVED")
+                .toolName(request.name())
+                .argumentsJson(request.arguments())
+                .timestamp(java.time.LocalDateTime.now())
+                .build());
+        }
+
+        if (requests.size() == 1 && concurrencyLimitOf(contextId, requests.get(0)) <= 0) {
+            // 单个不限并发的调用无需切换线程
+            results.add(executeRequest(contextId, requests.get(0)));
+            return results;
+        }
+
+        List<CompletableFuture<ChatMessage>> futures = dispatch(contextId, requests);
+        long deadline = System.nanoTime() + batchTimeout.toNanos();
+        for (int i = 0; i < requests.size(); i++) {
+            results.add(awaitResult(futures.get(i), requests.get(i), deadline));
+        }
+        return results;
+    }
+
+    /**
+     * 把一批调用提交到工具调度器
+     * 声明了并发上限的分组经由 上下文+分组 共享的通道执行，同时运行的调用数不超过上限，其余按到达顺序排队；
+     * 修改同一份共享状态的不同工具属于同一分组，共用通道
+     */
+    private List<CompletableFuture<ChatMessage>> dispatch(String contextId, List<ToolExecutionRequest> requests) {
+        List<CompletableFuture<ChatMessage>> futures = new ArrayList<>(requests.size());
+        for (ToolExecutionRequest request : requests) {
+            String group = concurrencyGroupOf(contextId, request);
+            int limit = toolRegistry.getConcurrencyLimit(group);
+            futures.add(limit <= 0 ? submit(contextId, request) : submitInLane(contextId, group, limit, request));
+        }
+        return futures;
+    }
+
+    private String concurrencyGroupOf(String contextId, ToolExecutionRequest request) {
+        return resolveTool(contextId, request.name())
+            .map(ToolDefinition::getConcurrencyGroup)
+            .orElse(request.name());
+    }
+
+    private int concurrencyLimitOf(String contextId, ToolExecutionRequest request) {
+        return toolRegistry.getConcurrencyLimit(concurrencyGroupOf(contextId, request));
+    }
+
+    /**
+     * 取得通道许可后提交；许可用尽时排队，由先完成的调用依次放行
+     */
+    private CompletableFuture<ChatMessage> submitInLane(String contextId, String group, int limit, ToolExecutionRequest request) {
+        String laneKey = (contextId != null ? contextId : "") + "|" + group;
+        CompletableFuture<ChatMessage> result = new CompletableFuture<>();
+        Runnable start = () -> submit(contextId, request).whenComplete((message, error) -> {
+            releaseLane(laneKey);
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(message);
+            }
+        });
+        boolean[] acquired = new boolean[1];
+        groupLanes.compute(laneKey, (key, lane) -> {
+            GroupLane current = lane != null ? lane : new GroupLane();
+            if (current.running < limit) {
+                current.running++;
+                acquired[0] = true;
+            } else {
+                current.waiting.add(start);
+            }
+            return current;
+        });
+        if (acquired[0]) {
+            start.run();
+        }
+        return result;
+    }
+
+    /**
+     * 归还许可：有排队的调用时直接把许可交给队首，否则减少运行数，通道空闲时移除
+     */
+    private void releaseLane(String laneKey) {
+        Runnable[] next = new Runnable[1];
+        groupLanes.computeIfPresent(laneKey, (key, lane) -> {
+            next[0] = lane.waiting.poll();
+            if (next[0] != null) {
+                return lane;
+            }
+            lane.running--;
+            return lane.running > 0 ? lane : null;
+        });
+        if (next[0] != null) {
+            next[0].run();
+        }
+    }
+
+    private CompletableFuture<ChatMessage> submit(String contextId, ToolExecutionRequest request) {
+        CompletableFuture<ChatMessage> future = new CompletableFuture<>();
+        Runnable task = () -> {
             try {
-                // 事件：收到调用
-                emitEvent(contextId, ToolEvent.builder()
-                    .contextId(contextId)
-                    .eventType("CALL_RECEIVED")
-                    .toolName(request.name())
-                    .argumentsJson(request.arguments())
-                    .timestamp(java.time.LocalDateTime.now())
-                    .sequence(nextSequence(contextId))
-                    .build());
-                String result = executeToolCallInContext(contextId, request.name(), request.arguments());
-                results.add(new ToolExecutionResultMessage(
-                    request.id(),
-                    request.name(),
-                    result
-                ));
-                log.info("工具执行成功: 工具={} 结果长度={}", 
-                    request.name(), result.length());
-                // 事件：结果
-                emitEvent(contextId, ToolEvent.builder()
-                    .contextId(contextId)
-                    .eventType("CALL_RESULT")
-                    .toolName(request.name())
-                    .argumentsJson(request.arguments())
-                    .resultJson(result)
-                    .success(true)
-                    .timestamp(java.time.LocalDateTime.now())
-                    .sequence(nextSequence(contextId))
-                    .build());
-            } catch (Exception e) {
-                log.error("工具执行失败: 工具={} 参数={}", 
-                    request.name(), request.arguments(), e);
-                results.add(new ToolExecutionResultMessage(
-                    request.id(),
-                    request.name(),
-                    createErrorResponse(e.getMessage())
-                ));
-                // 事件：错误
-                emitEvent(contextId, ToolEvent.builder()
-                    .contextId(contextId)
-                    .eventType("CALL_ERROR")
-                    .toolName(request.name())
-                    .argumentsJson(request.arguments())
-                    .errorMessage(e.getMessage())
-                    .success(false)
-                    .timestamp(java.time.LocalDateTime.now())
-                    .sequence(nextSequence(contextId))
-                    .build());
+                future.complete(executeRequest(contextId, request));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
             }
+        };
+        try {
+            toolScheduler.schedule(task);
+        } catch (RejectedExecutionException e) {
+            // 调度器队列已满：在调用线程上执行，形成自然背压
+            log.warn("工具调度队列已满，在调用线程执行: 工具={} 上下文={}", request.name(), contextId);
+            task.run();
         }
-        
-        return results;
+        return future;
     }
-    
+
+    private ChatMessage awaitResult(CompletableFuture<ChatMessage> future, ToolExecutionRequest request, long deadline) {
+        try {
+            return future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.error("工具执行超时: 工具={} 超时={}", request.name(), batchTimeout);
+            return new ToolExecutionResultMessage(request.id(), request.name(),
+                createErrorResponse("Tool execution timed out after " + batchTimeout));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ToolExecutionResultMessage(request.id(), request.name(),
+                createErrorResponse("Tool execution interrupted"));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            log.error("工具执行异常: 工具={}", request.name(), cause);
+            return new ToolExecutionResultMessage(request.id(), request.name(),
+                createErrorResponse(cause.getMessage()));
+        }
+    }
+
+    /**
+     * 执行单个调用并发出结果/错误事件，不抛出异常
+     */
+    private ChatMessage executeRequest(String contextId, ToolExecutionRequest request) {
+        log.debug("处理工具调用: id={} 工具={} 上下文={} 参数={} ",
+            request.id(), request.name(), contextId, request.arguments());
+
+        try {
+            String result = executeToolCallInContext(contextId, request.name(), request.arguments());
+            log.info("工具执行成功: 工具={} 结果长度={}",
+                request.name(), result.length());
+            // 事件：结果
+            emitSequenced(contextId, ToolEvent.builder()
+                .contextId(contextId)
+                .eventType("CALL_RESULT")
+                .toolName(request.name())
+                .argumentsJson(request.arguments())
+                .resultJson(result)
+                .success(true)
+                .timestamp(java.time.LocalDateTime.now())
+                .build());
+            return new ToolExecutionResultMessage(
+                request.id(),
+                request.name(),
+                result
+            );
+        } catch (Exception e) {
+            log.error("工具执行失败: 工具={} 参数={}",
+                request.name(), request.arguments(), e);
+            // 事件：错误
+            emitSequenced(contextId, ToolEvent.builder()
+                .contextId(contextId)
+                .eventType("CALL_ERROR")
+                .toolName(request.name())
+                .argumentsJson(request.arguments())
+                .errorMessage(e.getMessage())
+                .success(false)
+                .timestamp(java.time.LocalDateTime.now())
+                .build());
+            return new ToolExecutionResultMessage(
+                request.id(),
+                request.name(),
+                createErrorResponse(e.getMessage())
+            );
+        }
+    }
+
     /**
      * 执行单个工具调用（修复版本：支持上下文工具执行）
      */
@@ -127,27 +294,7 @@ public class ToolExecutionService {
     private String executeToolCallInContext(String context, String toolName, String argumentsJson) throws Exception {
         log.debug("执行工具(解析前): 工具={} 上下文={} 参数原文={}", toolName, context, argumentsJson);
         
-        // 尝试直接查找
-        Optional<ToolDefinition> toolOpt = context != null ? 
-            toolRegistry.getToolForContext(context, toolName) : 
-            toolRegistry.getTool(toolName);
-
-        // 如果直接未命中，执行多格式匹配
-        if (toolOpt.isEmpty()) {
-            String normalizedRequested = normalizeToolName(toolName);
-            Set<String> availableToolNames = context != null ? 
-                toolRegistry.getToolNamesForContext(context) : 
-                toolRegistry.getAvailableToolNames();
-                
-            for (String registeredName : availableToolNames) {
-                if (normalizeToolName(registeredName).equals(normalizedRequested)) {
-                    toolOpt = context != null ? 
-                        toolRegistry.getToolForContext(context, registeredName) : 
-                        toolRegistry.getTool(registeredName);
-                    break;
-                }
-            }
-        }
+        Optional<ToolDefinition> toolOpt = resolveTool(context, toolName);
 
         if (toolOpt.isEmpty()) {
             Set<String> availableTools = context != null ? 
@@ -159,54 +306,130 @@ public class ToolExecutionService {
 
         // 最终解析出的工具名称
         String resolvedToolName = toolOpt.get().getName();
-        
-        // 解析参数
-        Map<String, Object> parameters = parseArguments(argumentsJson);
-        log.debug("解析后的参数: 工具={} 上下文={} 参数={} ", resolvedToolName, context, parameters);
-        
-        // 执行工具
-        log.debug("开始执行工具: 工具={} 上下文={}", resolvedToolName, context);
-        Object rawResult = toolRegistry.executeToolForContext(context, resolvedToolName, parameters);
-        log.debug("工具执行完成: 工具={} 上下文={} 结果类型={}", resolvedToolName, context,
-            rawResult != null ? rawResult.getClass().getSimpleName() : "null");
-
-        // 在生成/修改流程中对结果做精简，避免将大体量数据（如 nodeIdMapping、createdNodeIds）回传给模型
-        Object resultForModel = compactResultIfNecessary(context, resolvedToolName, rawResult);
-        
-        // 序列化结果
-        String serializedResult = objectMapper.writeValueAsString(resultForModel);
-        log.debug("序列化工具结果: 工具={} 上下文={} 内容长度={} 字符", resolvedToolName, context, serializedResult != null ? serializedResult.length() : 0);
-        
-        return serializedResult;
+        long startNanos = System.nanoTime();
+        boolean success = false;
+        try {
+            // 解析参数
+            Map<String, Object> parameters = parseArguments(argumentsJson);
+            log.debug("解析后的参数: 工具={} 上下文={} 参数={} ", resolvedToolName, context, parameters);
+            
+            // 执行工具
+            log.debug("开始执行工具: 工具={} 上下文={}", resolvedToolName, context);
+            Object rawResult = toolRegistry.executeToolForContext(context, resolvedToolName, parameters);
+            log.debug("工具执行完成: 工具={} 上下文={} 结果类型={}", resolvedToolName, context,
+                rawResult != null ? rawResult.getClass().getSimpleName() : "null");
+
+            // 在生成/修改流程中对结果做精简，避免将大体量数据（如 nodeIdMapping、createdNodeIds）回传给模型
+            Object resultForModel = compactResultIfNecessary(context, resolvedToolName, rawResult);
+            
+            // 序列化结果
+            String serializedResult = objectMapper.writeValueAsString(resultForModel);
+            log.debug("序列化工具结果: 工具={} 上下文={} 内容长度={} 字符", resolvedToolName, context, serializedResult != null ? serializedResult.length() : 0);
+            success = true;
+            return serializedResult;
+        } finally {
+            toolTimer(resolvedToolName, success).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 按名称查找工具：先精确匹配，未命中时按标准化名称（忽略大小写与分隔符）匹配
+     */
+    private Optional<ToolDefinition> resolveTool(String context, String toolName) {
+        Optional<ToolDefinition> toolOpt = context != null ? 
+            toolRegistry.getToolForContext(context, toolName) : 
+            toolRegistry.getTool(toolName);
+        if (toolOpt.isPresent()) {
+            return toolOpt;
+        }
+        String normalizedRequested = normalizeToolName(toolName);
+        Set<String> availableToolNames = context != null ? 
+            toolRegistry.getToolNamesForContext(context) : 
+            toolRegistry.getAvailableToolNames();
+        for (String registeredName : availableToolNames) {
+            if (normalizeToolName(registeredName).equals(normalizedRequested)) {
+                return context != null ? 
+                    toolRegistry.getToolForContext(context, registeredName) : 
+                    toolRegistry.getTool(registeredName);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Timer toolTimer(String toolName, boolean success) {
+        String outcome = success ? "success" : "error";
+        return toolTimers.computeIfAbsent(toolName + '|' + outcome, key ->
+            Timer.builder("ai.tool.execution")
+                 .tag("tool", toolName)
+                 .tag("outcome", outcome)
+                 .description("工具调用执行耗时")
+                 .register(meterRegistry));
     }
 
     // ==================== 事件流（纯数据直通编排使用） ====================
     public reactor.core.publisher.Flux<ToolEvent> subscribeToContext(String contextId) {
-        Sinks.Many<ToolEvent> sink = contextEventSinks.computeIfAbsent(contextId, k -> Sinks.many().multicast().onBackpressureBuffer());
-        return sink.asFlux();
+        return contextChannels.computeIfAbsent(contextId, k -> new ContextChannel()).sink.asFlux();
     }
 
     public void closeContext(String contextId) {
-        Sinks.Many<ToolEvent> sink = contextEventSinks.remove(contextId);
-        if (sink != null) {
-            try { sink.tryEmitComplete(); } catch (Exception ignore) {}
+        ContextChannel channel = contextChannels.remove(contextId);
+        if (channel != null) {
+            channel.complete();
         }
-        contextSequences.remove(contextId);
     }
 
-    private void emitEvent(String contextId, ToolEvent event) {
+    /**
+     * 按原样发出事件（不分配序号），供编排器发送 COMPLETE/错误等控制事件
+     */
+    public void emitEvent(String contextId, ToolEvent event) {
         if (contextId == null) return; // 非流式直通场景可忽略
-        Sinks.Many<ToolEvent> sink = contextEventSinks.get(contextId);
-        if (sink != null) {
-            sink.tryEmitNext(event);
+        ContextChannel channel = contextChannels.get(contextId);
+        if (channel != null) {
+            channel.publish(event, false);
+        }
+    }
+
+    /**
+     * 分配上下文内的下一个序号并发出事件
+     */
+    private void emitSequenced(String contextId, ToolEvent event) {
+        if (contextId == null) return;
+        ContextChannel channel = contextChannels.get(contextId);
+        if (channel != null) {
+            channel.publish(event, true);
         }
     }
 
-    private long nextSequence(String contextId) {
-        if (contextId == null) return -1L;
-        long next = contextSequences.getOrDefault(contextId, 0L) + 1L;
-        contextSequences.put(contextId, next);
-        return next;
+    /**
+     * 单个上下文的事件通道
+     * 多个工具线程并发发出事件，序号分配与 tryEmitNext 在同一把锁内，既满足 Sink 的串行发出要求，
+     * 也保证订阅方看到的序号与到达顺序一致。
+     */
+    /**
+     * 一个 上下文+并发分组 的通道状态，只在 groupLanes.compute 内修改
+     */
+    private static final class GroupLane {
+        private int running;
+        private final ArrayDeque<Runnable> waiting = new ArrayDeque<>();
+    }
+
+    private static final class ContextChannel {
+        private final Sinks.Many<ToolEvent> sink = Sinks.many().multicast().onBackpressureBuffer();
+        private long sequence;
+
+        synchronized void publish(ToolEvent event, boolean sequenced) {
+            if (sequenced) {
+                event.setSequence(++sequence);
+            }
+            Sinks.EmitResult result = sink.tryEmitNext(event);
+            if (result.isFailure() && result != Sinks.EmitResult.FAIL_TERMINATED && result != Sinks.EmitResult.FAIL_CANCELLED) {
+                log.warn("工具事件发出失败: 上下文={} 类型={} 结果={}", event.getContextId(), event.getEventType(), result);
+            }
+        }
+
+        synchronized void complete() {
+            sink.tryEmitComplete();
+        }
     }
 
     /**
@@ -301,7 +524,7 @@ public class ToolExecutionService {
      */
     public ToolCallContext createContext(String contextId) {
         log.info("创建工具调用上下文: {}", contextId);
-        return new ToolCallContext(contextId, toolRegistry);
+        return new ToolCallContext(contextId, this);
     }
     
     /**
@@ -309,12 +532,14 @@ public class ToolExecutionService {
      */
     public static class ToolCallContext implements AutoCloseable {
         private final String contextId;
+        private final ToolExecutionService service;
         private final ToolRegistry registry;
         private final Map<String, Object> contextData = new HashMap<>();
         
-        public ToolCallContext(String contextId, ToolRegistry registry) {
+        public ToolCallContext(String contextId, ToolExecutionService service) {
             this.contextId = contextId;
-            this.registry = registry;
+            this.service = service;
+            this.registry = service.toolRegistry;
             log.debug("已创建工具调用上下文: {}", contextId);
         }
         
@@ -338,7 +563,6 @@ public class ToolExecutionService {
          * 在此上下文中执行工具
          */
         public String executeToolInContext(String toolName, String argumentsJson) throws Exception {
-            ToolExecutionService service = new ToolExecutionService(registry, new ObjectMapper());
             return service.executeToolCallInContext(contextId, toolName, argumentsJson);
         }
         
@@ -22,11 +22,15 @@ public class ToolRegistry {
     // 按上下文隔离的工具存储：contextId -> toolName -> ToolDefinition
     private final Map<String, Map<String, ToolDefinition>> contextScopedTools = new ConcurrentHashMap<>();
     
+    // 并发上限：并发分组（默认为工具名）-> 同一上下文内最多同时执行的调用数（未声明表示不限）
+    private final Map<String, Integer> concurrencyLimits = new ConcurrentHashMap<>();
+    
     /**
      * 注册全局工具（系统级工具）
      */
     public void registerTool(ToolDefinition tool) {
         globalTools.put(tool.getName(), tool);
+        declareFromTool(tool);
         log.info("Registered global tool: {}", tool.getName());
     }
     
@@ -36,9 +40,37 @@ public class ToolRegistry {
     public void registerToolForContext(String context, ToolDefinition tool) {
         contextScopedTools.computeIfAbsent(context, unused -> new ConcurrentHashMap<>())
                          .put(tool.getName(), tool);
+        declareFromTool(tool);
         log.info("Registered tool {} for context: {}", tool.getName(), context);
     }
     
+    /**
+     * 声明并发分组的并发上限（覆盖工具自身的声明），maxConcurrent <= 0 表示不限
+     */
+    public void declareConcurrencyLimit(String group, int maxConcurrent) {
+        if (maxConcurrent > 0) {
+            concurrencyLimits.put(group, maxConcurrent);
+        } else {
+            concurrencyLimits.remove(group);
+        }
+        log.info("Declared concurrency limit for group {}: {}", group, maxConcurrent > 0 ? maxConcurrent : "unlimited");
+    }
+    
+    /**
+     * 获取并发分组的并发上限，0 表示不限
+     */
+    public int getConcurrencyLimit(String group) {
+        return group != null ? concurrencyLimits.getOrDefault(group, 0) : 0;
+    }
+    
+    private void declareFromTool(ToolDefinition tool) {
+        int declared = tool.getMaxConcurrency();
+        if (declared > 0) {
+            // 已显式声明的上限优先；同组工具声明不一致时取最先注册的
+            concurrencyLimits.putIfAbsent(tool.getConcurrencyGroup(), declared);
+        }
+    }
+    
     /**
      * 获取全局工具
      */
@@ -1,5 +1,6 @@
 package com.ainovel.server.service.cache;
 
+import com.ainovel.server.domain.model.Novel;
 import com.ainovel.server.domain.model.Scene;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
@@ -8,12 +9,16 @@ import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.*;
 import java.util.function.Supplier;
 
 /**
- * 缓存每本小说的结构索引（章节/场景包含关系）。
- * 通过 ContainIndex 可以快速判断某节点包含哪些下级节点，供去重算法使用。
+ * 缓存每本小说的结构索引。
+ * 1. ContainIndex：章节/场景包含关系，可以快速判断某节点包含哪些下级节点，供去重算法使用。
+ * 2. StructureIndex：按版本缓存的章节顺序索引（按序号排列的章节、章节→序号映射），
+ *    供章节范围类操作按 O(范围) 而不是 O(全书) 定位章节。
  */
 @Component
 public class NovelStructureCache {
@@ -24,6 +29,12 @@ public class NovelStructureCache {
             .expireAfterWrite(Duration.ofMinutes(30))
             .build();
 
+    /** key=novelId -> 章节顺序索引，版本与小说不一致时重建 */
+    private final Cache<String, StructureIndex> structureIndexes = Caffeine.newBuilder()
+            .maximumSize(500)
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .build();
+
     /**
      * 获取索引；不存在时调用 loader 构建并放入缓存。
      */
@@ -43,6 +54,21 @@ public class NovelStructureCache {
      */
     public void evict(String novelId) {
         cache.invalidate(novelId);
+        structureIndexes.invalidate(novelId);
+    }
+
+    /**
+     * 获取与当前小说版本一致的章节顺序索引；版本变化（结构或更新时间变化）时按传入的小说重建。
+     */
+    public StructureIndex getStructureIndex(Novel novel) {
+        long version = StructureIndex.versionOf(novel);
+        StructureIndex existing = structureIndexes.getIfPresent(novel.getId());
+        if (existing != null && existing.getVersion() == version) {
+            return existing;
+        }
+        StructureIndex built = StructureIndex.build(novel, version);
+        structureIndexes.put(novel.getId(), built);
+        return built;
     }
 
     /**
@@ -60,6 +86,106 @@ public class NovelStructureCache {
         }
     }
 
+    /**
+     * 章节顺序索引（不可变）。章节按卷顺序展开后的位置称为序号。
+     */
+    public static class StructureIndex {
+        private final long version;
+        private final List<Novel.Chapter> chapters;
+        private final List<String> chapterIds;
+        private final Map<String, Integer> ordinalByChapterId;
+
+        private StructureIndex(long version, List<Novel.Chapter> chapters, List<String> chapterIds,
+                               Map<String, Integer> ordinalByChapterId) {
+            this.version = version;
+            this.chapters = chapters;
+            this.chapterIds = chapterIds;
+            this.ordinalByChapterId = ordinalByChapterId;
+        }
+
+        static StructureIndex build(Novel novel, long version) {
+            List<Novel.Chapter> chapters = new ArrayList<>();
+            List<String> chapterIds = new ArrayList<>();
+            Map<String, Integer> ordinals = new HashMap<>();
+            for (Novel.Act act : acts(novel)) {
+                if (act.getChapters() == null) {
+                    continue;
+                }
+                for (Novel.Chapter chapter : act.getChapters()) {
+                    // 重复的章节ID以第一次出现为准，与 indexOf 语义一致
+                    ordinals.putIfAbsent(chapter.getId(), chapters.size());
+                    chapters.add(chapter);
+                    chapterIds.add(chapter.getId());
+                }
+            }
+            return new StructureIndex(version, Collections.unmodifiableList(chapters),
+                    Collections.unmodifiableList(chapterIds), ordinals);
+        }
+
+        /**
+         * 版本：更新时间与卷/章节数量的组合，结构变化或小说保存后即失配
+         */
+        static long versionOf(Novel novel) {
+            LocalDateTime updatedAt = novel.getUpdatedAt();
+            long version = updatedAt == null ? 0L : updatedAt.toInstant(ZoneOffset.UTC).toEpochMilli();
+            List<Novel.Act> acts = acts(novel);
+            int chapterCount = 0;
+            for (Novel.Act act : acts) {
+                chapterCount += act.getChapters() == null ? 0 : act.getChapters().size();
+            }
+            return (version * 31 + acts.size()) * 31 + chapterCount;
+        }
+
+        private static List<Novel.Act> acts(Novel novel) {
+            if (novel.getStructure() == null || novel.getStructure().getActs() == null) {
+                return Collections.emptyList();
+            }
+            return novel.getStructure().getActs();
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public int size() {
+            return chapters.size();
+        }
+
+        public boolean isEmpty() {
+            return chapters.isEmpty();
+        }
+
+        /**
+         * 章节序号，不存在时返回 -1
+         */
+        public int ordinalOf(String chapterId) {
+            Integer ordinal = chapterId == null ? null : ordinalByChapterId.get(chapterId);
+            return ordinal == null ? -1 : ordinal;
+        }
+
+        public boolean contains(String chapterId) {
+            return ordinalOf(chapterId) >= 0;
+        }
+
+        public String chapterIdAt(int ordinal) {
+            return chapterIds.get(ordinal);
+        }
+
+        /**
+         * 序号区间 [from, to) 内的章节ID
+         */
+        public List<String> chapterIds(int from, int to) {
+            return chapterIds.subList(from, to);
+        }
+
+        /**
+         * 序号区间 [from, to) 内的章节
+         */
+        public List<Novel.Chapter> chapters(int from, int to) {
+            return chapters.subList(from, to);
+        }
+    }
+
     /**
      * 构建索引的简单工具方法，供 NovelService 使用。
      */
@@ -0,0 +1,25 @@
+package com.ainovel.server.service.cache;
+
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.service.cache.PromptPackageCache.InvalidationMessage;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 接收其他节点广播的提示词包缓存失效消息
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.rabbitmq.enabled", havingValue = "true", matchIfMissing = true)
+public class PromptCacheInvalidationListener {
+
+    private final PromptPackageCache promptPackageCache;
+
+    @RabbitListener(queues = "#{promptCacheInvalidationQueue.name}", ackMode = "AUTO")
+    public void onInvalidation(InvalidationMessage message) {
+        promptPackageCache.onRemoteInvalidation(message);
+    }
+}
@@ -0,0 +1,154 @@
+package com.ainovel.server.service.cache;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.config.RabbitMQConfig;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * 提示词包 / 预设包缓存
+ *
+ * 条目按 (userId, 命名空间, 范围) 缓存，范围通常是 featureType 和 novelId 的组合。
+ * 每个用户有一个版本号，全局（系统预设、公开模板）另有一个版本号，二者都是缓存键的一部分：
+ * 失效时只需推进版本号，旧条目不再可达并随容量/TTL 淘汰，不影响其他用户。
+ *
+ * 同一键的并发未命中只触发一次加载（AsyncCache 共享同一个进行中的 future），避免击穿。
+ * 失效通过 RabbitMQ 广播到其他节点；缓存 TTL 兜底消息丢失的情况。
+ */
+@Slf4j
+@Component
+public class PromptPackageCache {
+
+    public static final String PROMPT_PACKAGE = "prompt-package";
+    public static final String PROMPT_OVERVIEW = "prompt-overview";
+    public static final String PRESET_PACKAGE = "preset-package";
+    public static final String PRESET_ALL = "preset-all";
+
+    /** 当前节点标识，用于忽略自己发出的广播 */
+    static final String NODE_ID = UUID.randomUUID().toString();
+
+    /** 全局失效消息中的 userId 占位 */
+    private static final String ALL_USERS = "*";
+
+    private final ObjectProvider<RabbitTemplate> rabbitTemplateProvider;
+
+    private final AsyncCache<Key, Object> entries;
+
+    /** key=userId -> 版本号；版本号来自单调递增序列，记录被淘汰后重新分配的版本也不会与旧条目重合 */
+    private final Cache<String, Long> userVersions;
+    private final AtomicLong versionSequence = new AtomicLong();
+    private volatile long globalVersion;
+
+    public PromptPackageCache(ObjectProvider<RabbitTemplate> rabbitTemplateProvider,
+                              @Value("${ainovel.prompt-cache.max-entries:20000}") long maxEntries,
+                              @Value("${ainovel.prompt-cache.ttl:30m}") Duration ttl) {
+        this.rabbitTemplateProvider = rabbitTemplateProvider;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .buildAsync();
+        // 版本记录比条目活得久，保证过期前的旧条目不会因版本记录先被淘汰而重新可达
+        this.userVersions = Caffeine.newBuilder()
+                .expireAfterAccess(ttl.multipliedBy(2))
+                .build();
+        this.globalVersion = versionSequence.incrementAndGet();
+    }
+
+    /**
+     * 获取缓存条目；未命中时调用 loader 加载，并发请求共享同一次加载
+     *
+     * @param userId 用户ID
+     * @param namespace 命名空间，见本类常量
+     * @param scope 命名空间内的范围（如 featureType:novelId）
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> get(String userId, String namespace, String scope, Supplier<Mono<T>> loader) {
+        Key key = new Key(userId, namespace, scope, userVersion(userId), globalVersion);
+        return Mono.fromFuture(
+                () -> entries.get(key, (k, executor) -> loader.get().map(value -> (Object) value).toFuture()),
+                true)
+                .map(value -> (T) value);
+    }
+
+    /**
+     * 用户自己的模板或预设变更：失效该用户的全部条目并广播
+     */
+    public void invalidateUser(String userId) {
+        if (userId == null) {
+            return;
+        }
+        evictUserLocal(userId);
+        broadcast(userId);
+    }
+
+    /**
+     * 系统预设或公开模板变更：失效所有用户的条目并广播
+     */
+    public void invalidateAll() {
+        evictAllLocal();
+        broadcast(ALL_USERS);
+    }
+
+    /**
+     * 收到其他节点广播时调用，仅失效本节点
+     */
+    void onRemoteInvalidation(InvalidationMessage message) {
+        if (message == null || NODE_ID.equals(message.sourceNode())) {
+            return;
+        }
+        if (ALL_USERS.equals(message.userId())) {
+            evictAllLocal();
+        } else {
+            evictUserLocal(message.userId());
+        }
+    }
+
+    private long userVersion(String userId) {
+        return userVersions.get(String.valueOf(userId), k -> versionSequence.incrementAndGet());
+    }
+
+    private void evictUserLocal(String userId) {
+        userVersions.put(userId, versionSequence.incrementAndGet());
+        log.debug("提示词包缓存已失效: userId={}", userId);
+    }
+
+    private void evictAllLocal() {
+        globalVersion = versionSequence.incrementAndGet();
+        log.debug("提示词包缓存已全部失效");
+    }
+
+    private void broadcast(String userId) {
+        RabbitTemplate rabbitTemplate = rabbitTemplateProvider.getIfAvailable();
+        if (rabbitTemplate == null) {
+            return;
+        }
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.PROMPT_CACHE_INVALIDATION_EXCHANGE, "",
+                    new InvalidationMessage(userId, NODE_ID));
+        } catch (Exception e) {
+            log.warn("广播提示词包缓存失效消息失败: userId={}, error={}", userId, e.getMessage());
+        }
+    }
+
+    private record Key(String userId, String namespace, String scope, long userVersion, long globalVersion) {
+    }
+
+    /**
+     * 节点间广播的失效消息，userId 为 "*" 表示全部失效
+     */
+    public record InvalidationMessage(String userId, String sourceNode) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.ainovel.server.service.cache;
+
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.domain.model.EnhancedUserPromptTemplate;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 在持久层统一失效提示词包缓存
+ *
+ * 模板的保存和删除无论来自用户、管理后台还是提示词市场，都经过 Mongo 映射事件，
+ * 在这里失效可以覆盖所有写入路径。系统模板或曾经公开、审核过的模板出现在其他用户的包中，
+ * 需全部失效；删除事件只带 _id，无法判断归属，同样全部失效。
+ */
+@Component
+@RequiredArgsConstructor
+public class PromptTemplateCacheEvictor extends AbstractMongoEventListener<EnhancedUserPromptTemplate> {
+
+    private final PromptPackageCache promptPackageCache;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<EnhancedUserPromptTemplate> event) {
+        EnhancedUserPromptTemplate template = event.getSource();
+        if (isSharedWithOthers(template)) {
+            promptPackageCache.invalidateAll();
+        } else {
+            promptPackageCache.invalidateUser(template.getUserId());
+        }
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<EnhancedUserPromptTemplate> event) {
+        promptPackageCache.invalidateAll();
+    }
+
+    private static boolean isSharedWithOthers(EnhancedUserPromptTemplate template) {
+        return template.getUserId() == null
+                || "system".equals(template.getUserId())
+                || Boolean.TRUE.equals(template.getIsPublic())
+                || Boolean.TRUE.equals(template.getIsVerified())
+                // 已提交审核或下架的模板可能刚从公开列表移除
+                || template.getReviewStatus() != null;
+    }
+}
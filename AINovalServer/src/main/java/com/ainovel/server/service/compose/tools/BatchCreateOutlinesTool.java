@@ -52,6 +52,14 @@ public class BatchCreateOutlinesTool implements ToolDefinition {
         return "create_compose_outlines";
     }
 
+    /**
+     * 大纲按调用顺序追加，同一上下文内按顺序执行
+     */
+    @Override
+    public int getMaxConcurrency() {
+        return 1;
+    }
+
     @Override
     public String getDescription() {
         return "批量创建章节大纲条目。每个条目包含 index、title、summary。用于黄金三章等大纲阶段，避免输出自由文本。";
@@ -25,6 +25,7 @@ import com.ainovel.server.service.AIChatService;
 import com.ainovel.server.service.AIService;
 import com.ainovel.server.service.ChatMemoryService;
 import com.ainovel.server.service.UserAIModelConfigService;
+import com.ainovel.server.service.stream.StreamCoalescer;
 import com.ainovel.server.web.dto.request.UniversalAIRequestDto;
 
 import lombok.extern.slf4j.Slf4j;
@@ -531,7 +532,8 @@ public class AIChatServiceImpl implements AIChatService {
                                                 }
                                             });
 
-                                            return stream
+                                            // 相邻分片合并后再下发，减少逐 token 的序列化和 flush
+                                            return StreamCoalescer.coalesceText(stream)
                                                     .doOnNext(responseBuilder::append)
                                                     .map(chunk -> AIChatMessage.builder()
                                                     .sessionId(sessionId)
@@ -835,7 +837,7 @@ public class AIChatServiceImpl implements AIChatService {
                             .flatMapMany(savedUserMessage -> {
                                 session.setMessageCount(session.getMessageCount() + 1);
                                 return buildAIRequestWithMemory(session, actualModelName, content, savedUserMessage.getId(), finalMemoryConfig)
-                                        .flatMapMany(req -> provider.generateContentStream(req)
+                                        .flatMapMany(req -> StreamCoalescer.coalesceText(provider.generateContentStream(req))
                                                 .map(chunk -> AIChatMessage.builder()
                                                         .sessionId(sessionId)
                                                         .role("assistant")
@@ -1143,7 +1145,7 @@ public class AIChatServiceImpl implements AIChatService {
                                         }
                                     });
 
-                                    return provider.generateContentStream(req)
+                                    return StreamCoalescer.coalesceText(provider.generateContentStream(req))
                                             .map(chunk -> {
                                                 // 🚀 累积内容
                                                 fullContent.append(chunk);
@@ -5,6 +5,7 @@ import com.ainovel.server.domain.model.AIPromptPreset;
 import com.ainovel.server.repository.AIPromptPresetRepository;
 import com.ainovel.server.repository.EnhancedUserPromptTemplateRepository;
 import com.ainovel.server.service.AIPresetService;
+import com.ainovel.server.service.cache.PromptPackageCache;
 import com.ainovel.server.web.dto.request.UniversalAIRequestDto;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
@@ -37,6 +38,9 @@ public class AIPresetServiceImpl implements AIPresetService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private PromptPackageCache promptPackageCache;
+
     @Override
     public Mono<AIPromptPreset> createPreset(UniversalAIRequestDto request, String presetName, 
                                            String presetDescription, List<String> presetTags) {
@@ -92,7 +96,8 @@ public class AIPresetServiceImpl implements AIPresetService {
             
             log.info("创建预设对象完成 - presetId: {}, aiFeatureType: {}", presetId, aiFeatureType);
             
-            return presetRepository.save(preset);
+            return presetRepository.save(preset)
+                    .doOnSuccess(this::onPresetChanged);
             
         } catch (Exception e) {
             log.error("创建预设失败", e);
@@ -208,7 +213,8 @@ public class AIPresetServiceImpl implements AIPresetService {
                     log.info("覆盖更新预设完成 - presetId: {}, 新名称: {}", presetId, newPreset.getPresetName());
                     
                     return presetRepository.save(newPreset);
-                });
+                })
+                .doOnSuccess(this::onPresetChanged);
     }
 
     @Override
@@ -231,7 +237,8 @@ public class AIPresetServiceImpl implements AIPresetService {
                     preset.setUpdatedAt(LocalDateTime.now());
                     
                     return presetRepository.save(preset);
-                });
+                })
+                .doOnSuccess(this::onPresetChanged);
     }
 
     @Override
@@ -251,7 +258,8 @@ public class AIPresetServiceImpl implements AIPresetService {
                     preset.setUpdatedAt(LocalDateTime.now());
                     
                     return presetRepository.save(preset);
-                });
+                })
+                .doOnSuccess(this::onPresetChanged);
     }
 
     @Override
@@ -303,7 +311,8 @@ public class AIPresetServiceImpl implements AIPresetService {
                             preset.setTemplateId(template.getId());
                             preset.setUpdatedAt(LocalDateTime.now());
                             return presetRepository.save(preset);
-                        }));
+                        }))
+                .doOnSuccess(this::onPresetChanged);
     }
 
     @Override
@@ -317,7 +326,8 @@ public class AIPresetServiceImpl implements AIPresetService {
                         return Mono.error(new IllegalArgumentException("无法删除系统预设"));
                     }
                     
-                    return presetRepository.deleteByPresetId(presetId);
+                    return presetRepository.deleteByPresetId(presetId)
+                            .doOnSuccess(v -> onPresetChanged(preset));
                 });
     }
 
@@ -357,7 +367,8 @@ public class AIPresetServiceImpl implements AIPresetService {
                             .build();
                     
                     return presetRepository.save(duplicatedPreset);
-                });
+                })
+                .doOnSuccess(this::onPresetChanged);
     }
 
     @Override
@@ -371,7 +382,8 @@ public class AIPresetServiceImpl implements AIPresetService {
                     preset.setUpdatedAt(LocalDateTime.now());
                     
                     return presetRepository.save(preset);
-                });
+                })
+                .doOnSuccess(this::onPresetChanged);
     }
 
     @Override
@@ -385,7 +397,8 @@ public class AIPresetServiceImpl implements AIPresetService {
                     preset.setUpdatedAt(LocalDateTime.now());
                     
                     return presetRepository.save(preset);
-                });
+                })
+                .doOnSuccess(this::onPresetChanged);
     }
 
     @Override
@@ -403,6 +416,21 @@ public class AIPresetServiceImpl implements AIPresetService {
                 .then();
     }
 
+    /**
+     * 预设变更后失效预设包缓存：系统预设和公开预设出现在所有用户的包中，需全部失效
+     * 使用次数变更（recordUsage）不失效，最近使用列表随缓存 TTL 刷新
+     */
+    private void onPresetChanged(AIPromptPreset preset) {
+        if (preset == null) {
+            return;
+        }
+        if (Boolean.TRUE.equals(preset.getIsSystem()) || Boolean.TRUE.equals(preset.getIsPublic())) {
+            promptPackageCache.invalidateAll();
+        } else {
+            promptPackageCache.invalidateUser(preset.getUserId());
+        }
+    }
+
     @Override
     public Mono<AIPromptPreset> getPresetById(String presetId) {
         return presetRepository.findByPresetId(presetId)
@@ -25,6 +25,8 @@ import com.ainovel.server.service.AIService;
 import com.ainovel.server.service.NovelService;
 import com.ainovel.server.service.ai.AIModelProvider;
 import com.ainovel.server.service.ai.capability.ToolCallCapable;
+import com.ainovel.server.service.ai.cache.LLMResponseCache;
+import com.ainovel.server.service.ai.cache.ResponseCachingAIModelProviderDecorator;
 import com.ainovel.server.service.ai.tools.ToolExecutionService;
 import com.ainovel.server.service.ai.factory.AIModelProviderFactory;
 import com.ainovel.server.service.UserAIModelConfigService;
@@ -84,6 +86,8 @@ public class AIServiceImpl implements AIService {
     private CreditService creditService;
     @Autowired
     private StringEncryptor encryptor;
+    @Autowired(required = false)
+    private LLMResponseCache responseCache;
     private final ProviderCapabilityService capabilityService;
     private final ToolExecutionService toolExecutionService;
     private final ToolFallbackRegistry toolFallbackRegistry;
@@ -478,7 +482,9 @@ public class AIServiceImpl implements AIService {
                     log.warn("Tracing disabled: TraceContextManager not injected.");
                 }
             }
-            return new com.ainovel.server.service.ai.BillingAIModelProviderDecorator(inner, creditService, publicModelConfigService);
+            AIModelProvider billing = new com.ainovel.server.service.ai.BillingAIModelProviderDecorator(inner, creditService, publicModelConfigService);
+            // 响应缓存在最外层：命中时不进入计费层
+            return responseCache != null ? new ResponseCachingAIModelProviderDecorator(billing, responseCache) : billing;
         } catch (Throwable e) {
             log.warn("wrapWithBilling failed, fallback to base provider: {}", e.getMessage(), e);
             return base;
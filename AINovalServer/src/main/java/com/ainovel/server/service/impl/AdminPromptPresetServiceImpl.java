@@ -5,6 +5,7 @@ import com.ainovel.server.domain.model.AIPromptPreset;
 import com.ainovel.server.repository.AIPromptPresetRepository;
 import com.ainovel.server.repository.EnhancedUserPromptTemplateRepository;
 import com.ainovel.server.service.AdminPromptPresetService;
+import com.ainovel.server.service.cache.PromptPackageCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -26,6 +27,8 @@ public class AdminPromptPresetServiceImpl implements AdminPromptPresetService {
     private AIPromptPresetRepository presetRepository;
     @Autowired
     private EnhancedUserPromptTemplateRepository templateRepository;
+    @Autowired
+    private PromptPackageCache promptPackageCache;
     
     @Override
     public Flux<AIPromptPreset> findAllSystemPresets() {
@@ -55,6 +58,7 @@ public class AdminPromptPresetServiceImpl implements AdminPromptPresetService {
         }
         
         return presetRepository.save(preset)
+                .doOnSuccess(v -> promptPackageCache.invalidateAll())
                 .doOnSuccess(savedPreset -> log.info("系统预设创建成功: {} (ID: {})", 
                     savedPreset.getPresetName(), savedPreset.getPresetId()));
     }
@@ -102,6 +106,7 @@ public class AdminPromptPresetServiceImpl implements AdminPromptPresetService {
                     }
                     return presetRepository.save(preset);
                 })
+                .doOnSuccess(v -> promptPackageCache.invalidateAll())
                 .doOnSuccess(savedPreset -> log.info("系统预设更新成功: {}", savedPreset.getPresetName()));
     }
     
@@ -114,6 +119,7 @@ public class AdminPromptPresetServiceImpl implements AdminPromptPresetService {
                 .filter(preset -> preset.getIsSystem())
                 .switchIfEmpty(Mono.error(new RuntimeException("只能删除系统预设")))
                 .flatMap(preset -> presetRepository.delete(preset))
+                .doOnSuccess(v -> promptPackageCache.invalidateAll())
                 .doOnSuccess(v -> log.info("系统预设删除成功: {}", presetId));
     }
     
@@ -130,6 +136,7 @@ public class AdminPromptPresetServiceImpl implements AdminPromptPresetService {
                     preset.setUpdatedAt(LocalDateTime.now());
                     return presetRepository.save(preset);
                 })
+                .doOnSuccess(v -> promptPackageCache.invalidateAll())
                 .doOnSuccess(preset -> log.info("系统预设快捷访问状态已更新: {} -> {}", 
                     presetId, preset.getShowInQuickAccess()));
     }
@@ -147,6 +154,7 @@ public class AdminPromptPresetServiceImpl implements AdminPromptPresetService {
                 })
                 .flatMap(preset -> presetRepository.save(preset))
                 .collectList()
+                .doOnSuccess(v -> promptPackageCache.invalidateAll())
                 .doOnSuccess(presets -> log.info("批量更新完成，影响 {} 个预设", presets.size()));
     }
     
@@ -241,6 +249,7 @@ public class AdminPromptPresetServiceImpl implements AdminPromptPresetService {
                 })
                 .flatMap(preset -> presetRepository.save(preset))
                 .collectList()
+                .doOnSuccess(v -> promptPackageCache.invalidateAll())
                 .doOnSuccess(savedPresets -> log.info("成功导入 {} 个系统预设", savedPresets.size()));
     }
     
@@ -279,6 +288,7 @@ public class AdminPromptPresetServiceImpl implements AdminPromptPresetService {
                             
                     return presetRepository.save(systemPreset);
                 })
+                .doOnSuccess(v -> promptPackageCache.invalidateAll())
                 .doOnSuccess(systemPreset -> log.info("用户预设已成功提升为系统预设: {}", 
                     systemPreset.getPresetId()));
     }
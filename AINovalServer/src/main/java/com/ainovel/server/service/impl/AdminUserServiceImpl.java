@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -17,6 +18,7 @@ import org.springframework.transaction.annotation.Transactional;
 import com.ainovel.server.controller.AdminUserController.UserStatistics;
 import com.ainovel.server.controller.AdminUserController.UserUpdateRequest;
 import com.ainovel.server.domain.model.User;
+import com.ainovel.server.security.UserPrincipalChangedEvent;
 import com.ainovel.server.domain.model.User.AccountStatus;
 import com.ainovel.server.repository.UserRepository;
 import com.ainovel.server.service.AdminUserService;
@@ -34,12 +36,24 @@ public class AdminUserServiceImpl implements AdminUserService {
     private final UserRepository userRepository;
     private final ReactiveMongoTemplate mongoTemplate;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Autowired
-    public AdminUserServiceImpl(UserRepository userRepository, ReactiveMongoTemplate mongoTemplate, PasswordEncoder passwordEncoder) {
+    public AdminUserServiceImpl(UserRepository userRepository, ReactiveMongoTemplate mongoTemplate, PasswordEncoder passwordEncoder,
+            ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.mongoTemplate = mongoTemplate;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * 认证相关字段变更后失效各节点的认证主体缓存
+     */
+    private void publishPrincipalChanged(User user) {
+        if (user != null) {
+            eventPublisher.publishEvent(new UserPrincipalChangedEvent(user.getId(), user.getTokenVersion()));
+        }
     }
     
     @Override
@@ -92,7 +106,8 @@ public class AdminUserServiceImpl implements AdminUserService {
                     }
                     user.setUpdatedAt(LocalDateTime.now());
                     return userRepository.save(user);
-                });
+                })
+                .doOnSuccess(this::publishPrincipalChanged);
     }
     
     @Override
@@ -104,7 +119,8 @@ public class AdminUserServiceImpl implements AdminUserService {
                     user.setAccountStatus(status);
                     user.setUpdatedAt(LocalDateTime.now());
                     return userRepository.save(user);
-                });
+                })
+                .doOnSuccess(this::publishPrincipalChanged);
     }
     
     @Override
@@ -116,7 +132,8 @@ public class AdminUserServiceImpl implements AdminUserService {
                     user.addRole(roleId);
                     user.setUpdatedAt(LocalDateTime.now());
                     return userRepository.save(user);
-                });
+                })
+                .doOnSuccess(this::publishPrincipalChanged);
     }
     
     @Override
@@ -128,7 +145,8 @@ public class AdminUserServiceImpl implements AdminUserService {
                     user.removeRole(roleId);
                     user.setUpdatedAt(LocalDateTime.now());
                     return userRepository.save(user);
-                });
+                })
+                .doOnSuccess(this::publishPrincipalChanged);
     }
     
     @Override
@@ -171,6 +189,7 @@ public class AdminUserServiceImpl implements AdminUserService {
                     user.setUpdatedAt(LocalDateTime.now());
                     return userRepository.save(user);
                 })
+                .doOnSuccess(this::publishPrincipalChanged)
                 .then();
     }
 
@@ -299,7 +318,8 @@ public class AdminUserServiceImpl implements AdminUserService {
                     user.setPassword(encoded);
                     user.setUpdatedAt(LocalDateTime.now());
                     return userRepository.save(user);
-                });
+                })
+                .doOnSuccess(this::publishPrincipalChanged);
     }
 
     @Override
@@ -312,6 +332,7 @@ public class AdminUserServiceImpl implements AdminUserService {
                     user.setTokenVersion(v + 1);
                     user.setUpdatedAt(LocalDateTime.now());
                     return userRepository.save(user);
-                });
+                })
+                .doOnSuccess(this::publishPrincipalChanged);
     }
 }
\ No newline at end of file
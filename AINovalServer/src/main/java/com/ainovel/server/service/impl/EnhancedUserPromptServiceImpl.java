@@ -7,7 +7,6 @@ import java.util.Map;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 
 import com.ainovel.server.domain.model.AIFeatureType;
@@ -35,7 +34,6 @@ public class EnhancedUserPromptServiceImpl implements EnhancedUserPromptService
     private PromptProviderFactory promptProviderFactory;
 
     @Override
-    @CacheEvict(value = "promptPackages", allEntries = true)
     public Mono<EnhancedUserPromptTemplate> createPromptTemplate(String userId, String name, String description,
             AIFeatureType featureType, String systemPrompt, String userPrompt, 
             List<String> tags, List<String> categories) {
@@ -80,7 +78,6 @@ public class EnhancedUserPromptServiceImpl implements EnhancedUserPromptService
     }
 
     @Override
-    @CacheEvict(value = "promptPackages", allEntries = true)
     public Mono<EnhancedUserPromptTemplate> updatePromptTemplate(String userId, String templateId, String name,
             String description, String systemPrompt, String userPrompt, 
             List<String> tags, List<String> categories) {
@@ -124,7 +121,6 @@ public class EnhancedUserPromptServiceImpl implements EnhancedUserPromptService
     }
 
     @Override
-    @CacheEvict(value = "promptPackages", allEntries = true)
     public Mono<Void> deletePromptTemplate(String userId, String templateId) {
         log.info("删除用户提示词模板: userId={}, templateId={}", userId, templateId);
 
@@ -223,7 +219,6 @@ public class EnhancedUserPromptServiceImpl implements EnhancedUserPromptService
     }
 
     @Override
-    @CacheEvict(value = "promptPackages", allEntries = true)
     public Mono<EnhancedUserPromptTemplate> copyPublicTemplate(String userId, String templateId) {
         log.info("复制公开模板: userId={}, templateId={}", userId, templateId);
 
@@ -537,7 +532,6 @@ public class EnhancedUserPromptServiceImpl implements EnhancedUserPromptService
     // ==================== 默认模板功能实现 ====================
 
     @Override
-    @CacheEvict(value = "promptPackages", allEntries = true)
     public Mono<EnhancedUserPromptTemplate> setDefaultTemplate(String userId, String templateId) {
         log.info("设置默认模板: userId={}, templateId={}", userId, templateId);
 
@@ -12,9 +12,11 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.ainovel.server.domain.model.User;
+import com.ainovel.server.security.JwtClaims;
 import com.ainovel.server.service.JwtService;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -34,6 +36,10 @@ public class JwtServiceImpl implements JwtService {
     
     @Value("${jwt.refresh-expiration:604800000}") // 默认7天
     private long refreshExpiration;
+
+    /** 签名密钥与解析器只构建一次，避免每次解析重复派生密钥 */
+    private volatile SecretKey signingKey;
+    private volatile JwtParser jwtParser;
     
     @Override
     public String generateToken(User user) {
@@ -145,22 +151,45 @@ public class JwtServiceImpl implements JwtService {
         return v != null ? v : 1;
     }
     
+    @Override
+    @SuppressWarnings("unchecked")
+    public JwtClaims parseToken(String token) {
+        Claims claims = extractAllClaims(token);
+        Integer tokenVersion = claims.get("tokenVersion", Integer.class);
+        String jti = claims.getId() != null ? claims.getId() : claims.get("jti", String.class);
+        return new JwtClaims(
+                claims.getSubject(),
+                claims.get("userId", String.class),
+                claims.get("roles", List.class),
+                claims.get("permissions", List.class),
+                tokenVersion != null ? tokenVersion : 1,
+                jti,
+                claims.getExpiration());
+    }
+
     private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
         final Claims claims = extractAllClaims(token);
         return claimsResolver.apply(claims);
     }
     
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith((SecretKey) getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        JwtParser parser = jwtParser;
+        if (parser == null) {
+            parser = Jwts.parser()
+                    .verifyWith((SecretKey) getSigningKey())
+                    .build();
+            jwtParser = parser;
+        }
+        return parser.parseSignedClaims(token).getPayload();
     }
     
     private Key getSigningKey() {
-        byte[] keyBytes = secretKey.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+        SecretKey key = signingKey;
+        if (key == null) {
+            key = Keys.hmacShaKeyFor(secretKey.getBytes());
+            signingKey = key;
+        }
+        return key;
     }
     
     // 保留旧私有方法的功能由接口方法替代
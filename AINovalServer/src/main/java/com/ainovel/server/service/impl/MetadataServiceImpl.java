@@ -8,13 +8,12 @@ import com.ainovel.server.common.exception.ResourceNotFoundException;
 import com.ainovel.server.domain.model.Novel;
 import com.ainovel.server.domain.model.Scene;
 import com.ainovel.server.repository.NovelRepository;
-import com.ainovel.server.repository.SceneRepository;
 import com.ainovel.server.service.MetadataService;
+import com.ainovel.server.service.metadata.NovelMetadataRefreshScheduler;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 /**
  * 元数据服务实现类
@@ -25,7 +24,7 @@ import reactor.core.scheduler.Schedulers;
 public class MetadataServiceImpl implements MetadataService {
 
     private final NovelRepository novelRepository;
-    private final SceneRepository sceneRepository;
+    private final NovelMetadataRefreshScheduler refreshScheduler;
 
     @Override
     public int calculateWordCount(String content) {
@@ -86,20 +85,11 @@ public class MetadataServiceImpl implements MetadataService {
         return novelRepository.findById(novelId)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("小说", novelId)))
                 .flatMap(novel -> {
-                    // 获取小说的所有场景
-                    return sceneRepository.findByNovelId(novelId)
-                            .collectList()
-                            .flatMap(scenes -> {
-                                // 计算总字数
-                                int totalWordCount = scenes.stream()
-                                        .mapToInt(scene -> scene.getWordCount() != null ? scene.getWordCount() : 0)
-                                        .sum();
-
+                    // 在数据库端汇总场景字数，不读取场景正文
+                    return refreshScheduler.sumSceneWordCount(novelId)
+                            .flatMap(totalWordCount -> {
                                 // 计算估计阅读时间 (假设每分钟阅读300字)
-                                int readTime = totalWordCount / 300;
-                                if (readTime < 1 && totalWordCount > 0) {
-                                    readTime = 1; // 最小阅读时间为1分钟
-                                }
+                                int readTime = NovelMetadataRefreshScheduler.estimateReadTime(totalWordCount);
 
                                 // 确保元数据对象存在
                                 if (novel.getMetadata() == null) {
@@ -126,15 +116,18 @@ public class MetadataServiceImpl implements MetadataService {
             return Mono.empty();
         }
 
-        // 异步更新小说元数据，不阻塞主流程
-        updateNovelMetadata(scene.getNovelId())
-                .subscribeOn(Schedulers.boundedElastic())
-                .subscribe(
-                        novel -> log.debug("成功触发小说 {} 的元数据更新", scene.getNovelId()),
-                        error -> log.error("触发小说 {} 的元数据更新失败", scene.getNovelId(), error)
-                );
+        // 交给刷新调度器合并执行，不阻塞主流程
+        refreshScheduler.requestRecount(scene.getNovelId());
 
         // 立即返回，不等待元数据更新完成
         return Mono.empty();
     }
+
+    @Override
+    public void triggerNovelWordCountDelta(String novelId, int wordCountDelta) {
+        if (wordCountDelta == 0) {
+            return;
+        }
+        refreshScheduler.requestWordCountDelta(novelId, wordCountDelta);
+    }
 }
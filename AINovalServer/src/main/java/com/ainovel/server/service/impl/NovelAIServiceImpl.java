@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -18,6 +19,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import com.ainovel.server.service.ai.cache.LLMResponseCache;
 import com.ainovel.server.service.ai.strategy.LegacyAISettingGenerationStrategyFactory;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
@@ -28,11 +30,13 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 
+import com.ainovel.server.common.util.PromptUtil;
 import com.ainovel.server.common.util.RichTextUtil;
 import com.ainovel.server.domain.model.AIFeatureType;
 import com.ainovel.server.domain.model.AIRequest;
 import com.ainovel.server.domain.model.AIResponse;
 import com.ainovel.server.domain.model.NovelSettingItem;
+import com.ainovel.server.domain.model.Scene;
 import com.ainovel.server.domain.model.SettingType;
 import com.ainovel.server.domain.model.UserAIModelConfig;
 import com.ainovel.server.service.AIService;
@@ -45,6 +49,8 @@ import com.ainovel.server.service.UserAIModelConfigService;
 import com.ainovel.server.service.UserPromptService;
 // import com.ainovel.server.service.UserService;
 import com.ainovel.server.service.ai.AIModelProvider;
+import com.ainovel.server.service.stream.StreamCoalescer;
+import com.ainovel.server.utils.StreamingJsonParser;
 import com.ainovel.server.web.dto.GenerateSceneFromSummaryRequest;
 import com.ainovel.server.web.dto.GenerateSceneFromSummaryResponse;
 import com.ainovel.server.web.dto.OutlineGenerationChunk;
@@ -1368,6 +1374,7 @@ public class NovelAIServiceImpl implements NovelAIService {
                                 aiRequest.setUserId(userId);
                                 aiRequest.setNovelId(novelId); // Use the novelId passed from the previous step
                                 aiRequest.setModel(aiConfig.getModelName());
+                                aiRequest.setFeatureType(AIFeatureType.SCENE_TO_SUMMARY);
 
                                 // System message
                                 AIRequest.Message systemMessage = new AIRequest.Message();
@@ -1382,6 +1389,9 @@ public class NovelAIServiceImpl implements NovelAIService {
                                 aiRequest.getMessages().add(userMessage);
 
                                 aiRequest.setTemperature(0.7);
+                                if (request != null && Boolean.TRUE.equals(request.getRegenerate())) {
+                                    LLMResponseCache.bypass(aiRequest);
+                                }
 
                                 return getAIModelProvider(userId, aiConfig.getModelName())
                                         .flatMap(provider -> {
@@ -1413,6 +1423,99 @@ public class NovelAIServiceImpl implements NovelAIService {
                 });
     }
 
+    @Override
+    public Mono<Map<String, String>> summarizeScenesBundle(String userId, String novelId, List<Scene> scenes, String aiConfigId) {
+        if (scenes == null || scenes.isEmpty()) {
+            return Mono.just(Collections.emptyMap());
+        }
+        return novelService.findNovelById(novelId)
+                .switchIfEmpty(Mono.error(new IllegalArgumentException("找不到小说: " + novelId)))
+                .flatMap(novel -> {
+                    if (!novel.getAuthor().getId().equals(userId)) {
+                        return Mono.error(new AccessDeniedException("用户无权访问该小说"));
+                    }
+                    return userPromptService.getPromptTemplate(userId, AIFeatureType.SCENE_TO_SUMMARY);
+                })
+                .flatMap(promptTemplate -> {
+                    // 场景用短标签 S1..Sn 标识，避免模型抄错长ID
+                    Map<String, String> labelToSceneId = new LinkedHashMap<>();
+                    StringBuilder userContent = new StringBuilder();
+                    String requirement = buildFinalPrompt(promptTemplate, "", "");
+                    if (requirement != null && !requirement.isBlank()) {
+                        userContent.append("摘要要求：\n").append(requirement.trim()).append("\n\n");
+                    }
+                    for (Scene scene : scenes) {
+                        String label = "S" + (labelToSceneId.size() + 1);
+                        labelToSceneId.put(label, scene.getId());
+                        userContent.append("[[场景 ").append(label).append("]]\n")
+                                .append(PromptUtil.extractPlainTextFromRichText(scene.getContent()))
+                                .append("\n\n");
+                    }
+
+                    SummarizeSceneRequest configRequest = new SummarizeSceneRequest();
+                    configRequest.setAiConfigId(aiConfigId);
+                    return resolveAiConfig(userId, configRequest)
+                            .switchIfEmpty(Mono.error(new RuntimeException("无法找到有效的AI配置")))
+                            .flatMap(aiConfig -> {
+                                AIRequest aiRequest = new AIRequest();
+                                aiRequest.setUserId(userId);
+                                aiRequest.setNovelId(novelId);
+                                aiRequest.setModel(aiConfig.getModelName());
+                                aiRequest.setFeatureType(AIFeatureType.SCENE_TO_SUMMARY);
+                                aiRequest.setTemperature(0.7);
+
+                                AIRequest.Message systemMessage = new AIRequest.Message();
+                                systemMessage.setRole("system");
+                                systemMessage.setContent("你是一个专业的小说编辑。用户会提供多个场景，每个场景以 [[场景 标签]] 开头。"
+                                        + "请分别为每个场景生成一个简洁的摘要，摘要只概括该场景本身的内容。"
+                                        + "只输出一个JSON数组，不要输出代码块标记或其他文字，格式为："
+                                        + "[{\"id\":\"S1\",\"summary\":\"摘要内容\"}]，id 必须与场景标签一致，每个场景一项。");
+                                aiRequest.getMessages().add(systemMessage);
+
+                                AIRequest.Message userMessage = new AIRequest.Message();
+                                userMessage.setRole("user");
+                                userMessage.setContent(userContent.toString());
+                                aiRequest.getMessages().add(userMessage);
+
+                                return getAIModelProvider(userId, aiConfig.getModelName())
+                                        .flatMap(provider -> {
+                                            log.info("开始批量生成场景摘要，用户ID: {}, 模型: {}, 场景数: {}",
+                                                    userId, aiConfig.getModelName(), scenes.size());
+                                            // 数组元素随输出逐个解析
+                                            return StreamingJsonParser.elements(provider.generateContentStream(aiRequest)
+                                                            .filter(chunk -> !StreamCoalescer.PROVIDER_HEARTBEAT.equals(chunk)))
+                                                    .<Map<String, String>>collect(LinkedHashMap::new,
+                                                            (summaries, element) -> putBundleSummary(summaries, element, labelToSceneId))
+                                                    .timeout(Duration.ofSeconds(600));
+                                        })
+                                        .doOnNext(summaries -> {
+                                            if (summaries.isEmpty()) {
+                                                log.warn("批量场景摘要输出无法解析为JSON，全部场景将逐个兜底");
+                                            }
+                                        });
+                            });
+                })
+                .doOnNext(result -> log.info("批量场景摘要解析完成，小说ID: {}, 请求场景数: {}, 解析成功: {}",
+                        novelId, scenes.size(), result.size()));
+    }
+
+    /**
+     * 解析批量摘要输出中的一个元素；无法解析的条目忽略，由调用方逐个场景兜底
+     */
+    private void putBundleSummary(Map<String, String> summaries, String element, Map<String, String> labelToSceneId) {
+        try {
+            com.fasterxml.jackson.databind.JsonNode item = objectMapper.readTree(element);
+            String label = item.path("id").asText("").trim();
+            String summary = item.path("summary").asText("").trim();
+            String sceneId = labelToSceneId.get(label);
+            if (sceneId != null && !summary.isEmpty()) {
+                summaries.putIfAbsent(sceneId, summary);
+            }
+        } catch (Exception e) {
+            log.warn("解析批量场景摘要条目失败: {}", e.getMessage());
+        }
+    }
+
     /**
      * 构建最终提示词
      */
@@ -1421,9 +1524,9 @@ public class NovelAIServiceImpl implements NovelAIService {
         Map<String, String> variables = new HashMap<>();
 
         // 1. 将输入的富文本转换为纯文本
-        String plainTextInput = com.ainovel.server.common.util.PromptUtil.extractPlainTextFromRichText(input);
+        String plainTextInput = PromptUtil.extractPlainTextFromRichText(input);
         // 2. 将 RAG 返回的 context (也可能是富文本) 转换为纯文本
-        String plainContext = com.ainovel.server.common.util.PromptUtil.extractPlainTextFromRichText(context);
+        String plainContext = PromptUtil.extractPlainTextFromRichText(context);
 
         // 3. 填充变量，添加多种兼容性变量名
         variables.put("input", plainTextInput); // 当前需要处理的内容
@@ -1464,7 +1567,7 @@ public class NovelAIServiceImpl implements NovelAIService {
 
         // 5. 使用 PromptUtil 格式化模板 (formatPromptTemplate 内部会处理 template 的富文本)
         try {
-            return com.ainovel.server.common.util.PromptUtil.formatPromptTemplate(template, variables);
+            return PromptUtil.formatPromptTemplate(template, variables);
         } catch (Exception e) {
             log.error("格式化提示词模板时出错: {}", e.getMessage(), e);
             // 构建一个后备提示词确保服务不中断
@@ -1531,7 +1634,7 @@ public class NovelAIServiceImpl implements NovelAIService {
         
         // 使用 PromptUtil 格式化模板
         try {
-            String formattedPrompt = com.ainovel.server.common.util.PromptUtil.formatPromptTemplate(userPromptTemplate, variables);
+            String formattedPrompt = PromptUtil.formatPromptTemplate(userPromptTemplate, variables);
             
             // 如果没有风格相关占位符且风格指示不为空，则将风格指示添加到提示词前面
             if (!hasStylePlaceholder && !cleanStyle.isEmpty()) {
@@ -0,0 +1,373 @@
+package com.ainovel.server.service.impl;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+
+import com.ainovel.server.common.util.RichTextUtil;
+import com.ainovel.server.config.FullTextSearchConfig;
+import com.ainovel.server.domain.model.NovelSettingItem;
+import com.ainovel.server.domain.model.NovelSnippet;
+import com.ainovel.server.domain.model.Scene;
+import com.ainovel.server.repository.NovelSettingItemRepository;
+import com.ainovel.server.repository.NovelSnippetRepository;
+import com.ainovel.server.repository.SceneRepository;
+import com.ainovel.server.service.NovelFullTextSearchService;
+import com.ainovel.server.service.search.NovelTextIndex;
+import com.ainovel.server.service.search.SearchDocument;
+import com.ainovel.server.service.search.SearchDocumentType;
+import com.ainovel.server.service.search.SearchIndexStore;
+import com.ainovel.server.web.dto.response.NovelTextSearchResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 小说内全文检索服务实现
+ *
+ * - 索引按小说懒加载：优先读取磁盘快照 + 增量日志，否则从 MongoDB 全量构建并写快照；
+ * - 所有写入回调在单线程调度器上串行执行，保证同一文档的更新顺序；
+ * - 索引加载期间到达的写入先暂存，加载完成后补放，避免丢失更新。
+ */
+@Slf4j
+@Service
+public class NovelFullTextSearchServiceImpl implements NovelFullTextSearchService {
+
+    private final FullTextSearchConfig config;
+    private final SceneRepository sceneRepository;
+    private final NovelSnippetRepository snippetRepository;
+    private final NovelSettingItemRepository settingItemRepository;
+    private final SearchIndexStore store;
+
+    /** 索引写入串行调度器 */
+    private final Scheduler writeScheduler = Schedulers.newSingle("fulltext-index-writer", true);
+
+    /** key=novelId -> 索引句柄 */
+    private final Cache<String, IndexHandle> handles;
+
+    public NovelFullTextSearchServiceImpl(FullTextSearchConfig config,
+                                          SceneRepository sceneRepository,
+                                          NovelSnippetRepository snippetRepository,
+                                          NovelSettingItemRepository settingItemRepository) {
+        this.config = config;
+        this.sceneRepository = sceneRepository;
+        this.snippetRepository = snippetRepository;
+        this.settingItemRepository = settingItemRepository;
+        this.store = new SearchIndexStore(Paths.get(config.getIndexDir()));
+        this.handles = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, config.getMaxCachedNovels()))
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writeScheduler.dispose();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    // ==================== 检索 ====================
+
+    @Override
+    public Mono<NovelTextSearchResponse> search(String novelId, String query, Set<SearchDocumentType> types,
+                                                int page, int size) {
+        return search(novelId, query, types, null, page, size);
+    }
+
+    @Override
+    public Mono<NovelTextSearchResponse> search(String novelId, String query, Set<SearchDocumentType> types,
+                                                Set<String> allowedIds, int page, int size) {
+        int safePage = Math.max(0, page);
+        int safeSize = size > 0 ? Math.min(size, 200) : 20;
+        if (!config.isEnabled() || novelId == null || novelId.isEmpty() || query == null || query.isBlank()) {
+            return Mono.just(toResponse(new NovelTextIndex.Page(0, List.of()), safePage, safeSize));
+        }
+        return acquire(novelId)
+                .publishOn(Schedulers.boundedElastic())
+                .map(handle -> handle.index.search(query, types, allowedIds, safePage, safeSize, config.getSnippetContextChars()))
+                .map(result -> toResponse(result, safePage, safeSize))
+                .doOnError(e -> log.error("全文检索失败: novelId={}, query={}, error={}", novelId, query, e.getMessage()));
+    }
+
+    @Override
+    public Mono<Void> rebuild(String novelId) {
+        return delete(novelId)
+                .then(Mono.defer(() -> acquire(novelId)))
+                .then();
+    }
+
+    @Override
+    public Mono<Void> delete(String novelId) {
+        // 在写入线程上执行，排在已提交的增量写入之后
+        return Mono.fromRunnable(() -> {
+                    handles.invalidate(novelId);
+                    try {
+                        store.delete(novelId);
+                    } catch (Exception e) {
+                        log.warn("删除全文索引文件失败: novelId={}, error={}", novelId, e.getMessage());
+                    }
+                })
+                .subscribeOn(writeScheduler)
+                .then();
+    }
+
+    // ==================== 写入回调 ====================
+
+    @Override
+    public void onSceneSaved(Scene scene) {
+        if (scene == null || scene.getNovelId() == null || scene.getId() == null) {
+            return;
+        }
+        submitUpsert(scene.getNovelId(), toDocument(scene));
+    }
+
+    @Override
+    public void onSceneDeleted(String novelId, String sceneId) {
+        submitRemove(novelId, SearchDocumentType.SCENE, sceneId);
+    }
+
+    @Override
+    public void onSnippetSaved(NovelSnippet snippet) {
+        if (snippet == null || snippet.getNovelId() == null || snippet.getId() == null) {
+            return;
+        }
+        // 软删除的片段不再参与检索
+        if (!"ACTIVE".equals(snippet.getStatus())) {
+            onSnippetDeleted(snippet.getNovelId(), snippet.getId());
+            return;
+        }
+        submitUpsert(snippet.getNovelId(), toDocument(snippet));
+    }
+
+    @Override
+    public void onSnippetDeleted(String novelId, String snippetId) {
+        submitRemove(novelId, SearchDocumentType.SNIPPET, snippetId);
+    }
+
+    @Override
+    public void onSettingSaved(NovelSettingItem item) {
+        if (item == null || item.getNovelId() == null || item.getId() == null) {
+            return;
+        }
+        submitUpsert(item.getNovelId(), toDocument(item));
+    }
+
+    @Override
+    public void onSettingDeleted(String novelId, String settingItemId) {
+        submitRemove(novelId, SearchDocumentType.SETTING, settingItemId);
+    }
+
+    private void submitUpsert(String novelId, SearchDocument document) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        submit(novelId, new Mutation(document, null, null));
+    }
+
+    private void submitRemove(String novelId, SearchDocumentType type, String id) {
+        if (!config.isEnabled() || novelId == null || id == null) {
+            return;
+        }
+        submit(novelId, new Mutation(null, type, id));
+    }
+
+    private void submit(String novelId, Mutation mutation) {
+        writeScheduler.schedule(() -> {
+            try {
+                IndexHandle handle = handles.getIfPresent(novelId);
+                if (handle == null) {
+                    // 索引未加载：若磁盘上已有快照则只追加日志，否则等首次检索时从数据库构建
+                    if (store.exists(novelId)) {
+                        appendWal(novelId, mutation);
+                    }
+                    return;
+                }
+                synchronized (handle) {
+                    if (!handle.ready) {
+                        handle.pending.add(mutation);
+                        return;
+                    }
+                }
+                apply(handle, mutation);
+            } catch (Exception e) {
+                log.warn("全文索引增量更新失败: novelId={}, error={}", novelId, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 在写入线程上执行：更新内存索引、追加日志，必要时重新快照
+     */
+    private void apply(IndexHandle handle, Mutation mutation) throws Exception {
+        if (mutation.document != null) {
+            handle.index.upsert(mutation.document);
+        } else {
+            handle.index.remove(mutation.type, mutation.id);
+        }
+        appendWal(handle.novelId, mutation);
+        if (++handle.walEntries >= config.getSnapshotEveryOps()) {
+            store.writeSnapshot(handle.novelId, handle.index.documents());
+            handle.walEntries = 0;
+        }
+    }
+
+    private void appendWal(String novelId, Mutation mutation) throws Exception {
+        if (mutation.document != null) {
+            store.appendUpsert(novelId, mutation.document);
+        } else {
+            store.appendRemove(novelId, mutation.type, mutation.id);
+        }
+    }
+
+    // ==================== 加载 ====================
+
+    private Mono<IndexHandle> acquire(String novelId) {
+        IndexHandle handle = handles.get(novelId, id -> {
+            IndexHandle created = new IndexHandle(id);
+            created.readyMono = load(created).cache();
+            return created;
+        });
+        return handle.readyMono;
+    }
+
+    private Mono<IndexHandle> load(IndexHandle handle) {
+        String novelId = handle.novelId;
+        return Mono.fromCallable(() -> {
+                    try {
+                        return store.load(novelId, config.getSnapshotMaxAge());
+                    } catch (Exception e) {
+                        log.warn("读取全文索引快照失败，将从数据库重建: novelId={}, error={}", novelId, e.getMessage());
+                        return null;
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(loaded -> {
+                    loaded.documents().forEach(handle.index::upsert);
+                    handle.walEntries = loaded.walEntries();
+                    log.info("从快照加载全文索引: novelId={}, docs={}, walEntries={}",
+                            novelId, handle.index.size(), loaded.walEntries());
+                    return Mono.just(handle);
+                })
+                .switchIfEmpty(Mono.defer(() -> buildFromDatabase(handle)))
+                .publishOn(writeScheduler)
+                .map(h -> {
+                    // 补放加载期间到达的写入
+                    List<Mutation> pending;
+                    synchronized (h) {
+                        pending = new ArrayList<>(h.pending);
+                        h.pending.clear();
+                        h.ready = true;
+                    }
+                    for (Mutation mutation : pending) {
+                        try {
+                            apply(h, mutation);
+                        } catch (Exception e) {
+                            log.warn("补放全文索引写入失败: novelId={}, error={}", novelId, e.getMessage());
+                        }
+                    }
+                    return h;
+                })
+                .doOnError(e -> {
+                    log.error("加载全文索引失败: novelId={}, error={}", novelId, e.getMessage());
+                    handles.asMap().remove(novelId, handle);
+                });
+    }
+
+    private Mono<IndexHandle> buildFromDatabase(IndexHandle handle) {
+        String novelId = handle.novelId;
+        long start = System.currentTimeMillis();
+        Flux<SearchDocument> scenes = sceneRepository.findByNovelId(novelId).map(this::toDocument);
+        Flux<SearchDocument> snippets = snippetRepository.findByNovelIdAndStatus(novelId, "ACTIVE").map(this::toDocument);
+        Flux<SearchDocument> settings = settingItemRepository.findByNovelId(novelId).map(this::toDocument);
+        return Flux.concat(scenes, snippets, settings)
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(handle.index::upsert)
+                .then(Mono.fromCallable(() -> {
+                    store.writeSnapshot(novelId, handle.index.documents());
+                    handle.walEntries = 0;
+                    log.info("从数据库构建全文索引: novelId={}, docs={}, 耗时={}ms",
+                            novelId, handle.index.size(), System.currentTimeMillis() - start);
+                    return handle;
+                }));
+    }
+
+    // ==================== 转换 ====================
+
+    private SearchDocument toDocument(Scene scene) {
+        String text = scene.getContent() != null ? RichTextUtil.deltaJsonToPlainText(scene.getContent()) : "";
+        return new SearchDocument(SearchDocumentType.SCENE, scene.getId(), scene.getChapterId(), scene.getTitle(), text);
+    }
+
+    private SearchDocument toDocument(NovelSnippet snippet) {
+        return new SearchDocument(SearchDocumentType.SNIPPET, snippet.getId(), null, snippet.getTitle(), snippet.getContent());
+    }
+
+    private SearchDocument toDocument(NovelSettingItem item) {
+        return new SearchDocument(SearchDocumentType.SETTING, item.getId(), item.getType(), item.getName(), item.getDescription());
+    }
+
+    private NovelTextSearchResponse toResponse(NovelTextIndex.Page result, int page, int size) {
+        int totalPages = (int) Math.ceil((double) result.totalElements() / size);
+        return NovelTextSearchResponse.builder()
+                .content(result.hits().stream()
+                        .map(hit -> NovelTextSearchResponse.Hit.builder()
+                                .type(hit.type().name())
+                                .id(hit.id())
+                                .parentId(hit.parentId())
+                                .title(hit.title())
+                                .score(hit.score())
+                                .matchCount(hit.matchCount())
+                                .snippet(hit.snippet())
+                                .snippetHighlights(hit.snippetHighlights().stream()
+                                        .map(h -> new int[]{h.start(), h.end()}).collect(Collectors.toList()))
+                                .titleHighlights(hit.titleHighlights().stream()
+                                        .map(h -> new int[]{h.start(), h.end()}).collect(Collectors.toList()))
+                                .build())
+                        .collect(Collectors.toList()))
+                .page(page)
+                .size(size)
+                .totalElements(result.totalElements())
+                .totalPages(totalPages)
+                .hasNext(page < totalPages - 1)
+                .hasPrevious(page > 0)
+                .build();
+    }
+
+    /**
+     * 单本小说的索引句柄
+     */
+    private static final class IndexHandle {
+        final String novelId;
+        final NovelTextIndex index;
+        /** 加载完成前暂存的写入，受 this 锁保护 */
+        final List<Mutation> pending = new ArrayList<>();
+        volatile boolean ready;
+        /** 自上次快照以来的日志条目数，仅在写入线程上修改 */
+        int walEntries;
+        Mono<IndexHandle> readyMono;
+
+        IndexHandle(String novelId) {
+            this.novelId = novelId;
+            this.index = new NovelTextIndex(novelId);
+        }
+    }
+
+    /**
+     * 索引写入：document 非空表示新增/替换，否则按 type+id 删除
+     */
+    private record Mutation(SearchDocument document, SearchDocumentType type, String id) {
+    }
+}
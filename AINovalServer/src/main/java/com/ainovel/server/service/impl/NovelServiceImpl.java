@@ -6,6 +6,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -20,6 +21,7 @@ import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.domain.Sort;
 
 import com.ainovel.server.common.exception.ResourceNotFoundException;
 import com.ainovel.server.domain.model.Character;
@@ -40,6 +42,7 @@ import com.ainovel.server.web.dto.SceneSummaryDto;
 import com.ainovel.server.web.dto.ChaptersForPreloadDto;
 import com.ainovel.server.service.cache.NovelStructureCache;
 import com.ainovel.server.service.cache.NovelStructureCache.ContainIndex;
+import com.ainovel.server.service.cache.NovelStructureCache.StructureIndex;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -162,8 +165,15 @@ public class NovelServiceImpl implements NovelService {
                             scene.setNovelId(id);
                             scene.setChapterId(chapterId);
 
-                            // 添加更新操作到列表中
-                            sceneUpdateOperations.add(sceneRepository.save(scene));
+                            // 版本号在库中版本上递增（自动保存按版本号判断场景是否被整篇改写），再添加更新操作到列表中
+                            sceneUpdateOperations.add(Mono.justOrEmpty(scene.getId())
+                                    .flatMap(sceneRepository::findById)
+                                    .map(existing -> {
+                                        scene.setVersion(existing.getVersion() + 1);
+                                        return scene;
+                                    })
+                                    .defaultIfEmpty(scene)
+                                    .flatMap(sceneRepository::save));
                         });
                     }
 
@@ -474,7 +484,7 @@ public class NovelServiceImpl implements NovelService {
                     }
 
                     // 查询所有场景并按章节分组
-                    return sceneRepository.findByNovelId(novelId)
+                    return sceneRepository.findEditorScenesByNovelId(novelId)
                             .collectList()
                             .map(scenes -> {
                                 // 按章节ID分组
@@ -499,19 +509,11 @@ public class NovelServiceImpl implements NovelService {
         return novelRepository.findById(novelId)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("小说", novelId)))
                 .flatMap(novel -> {
-                    // 获取所有章节ID，并保持它们的顺序
-                    List<String> allChapterIds = new ArrayList<>();
-                    Map<String, Novel.Act> actsByChapterId = new HashMap<>(); // 用于后续查找chapter所属的act
-
-                    for (Novel.Act act : novel.getStructure().getActs()) {
-                        for (Novel.Chapter chapter : act.getChapters()) {
-                            allChapterIds.add(chapter.getId());
-                            actsByChapterId.put(chapter.getId(), act);
-                        }
-                    }
+                    // 章节顺序索引（按小说版本缓存）
+                    StructureIndex index = structureCache.getStructureIndex(novel);
 
                     // 如果没有章节，直接返回只有小说信息的DTO
-                    if (allChapterIds.isEmpty()) {
+                    if (index.isEmpty()) {
                         return Mono.just(NovelWithScenesDto.builder()
                                 .novel(novel)
                                 .scenesByChapter(new HashMap<>())
@@ -522,47 +524,32 @@ public class NovelServiceImpl implements NovelService {
                     String centerChapterId = lastEditedChapterId;
 
                     // 如果未提供lastEditedChapterId或者它不在章节列表中
-                    if (centerChapterId == null || centerChapterId.isEmpty() || !allChapterIds.contains(centerChapterId)) {
+                    if (!index.contains(centerChapterId)) {
                         // 使用novel的lastEditedChapterId字段，尝试使用它
                         centerChapterId = novel.getLastEditedChapterId();
                         // 如果lastEditedChapterId也无效，使用第一个章节
-                        if (centerChapterId == null || centerChapterId.isEmpty() || !allChapterIds.contains(centerChapterId)) {
-                            centerChapterId = allChapterIds.getFirst();
+                        if (!index.contains(centerChapterId)) {
+                            centerChapterId = index.chapterIdAt(0);
                         }
                     }
 
                     // 确定加载范围
-                    int centerIndex = allChapterIds.indexOf(centerChapterId);
+                    int centerIndex = index.ordinalOf(centerChapterId);
                     int startIndex = Math.max(0, centerIndex - chaptersLimit);
-                    int endIndex = Math.min(allChapterIds.size() - 1, centerIndex + chaptersLimit);
+                    int endIndex = Math.min(index.size() - 1, centerIndex + chaptersLimit);
 
                     // 获取要加载的章节ID列表
-                    List<String> chapterIdsToLoad = allChapterIds.subList(startIndex, endIndex + 1);
+                    List<String> chapterIdsToLoad = index.chapterIds(startIndex, endIndex + 1);
 
                     log.info("分页加载章节，中心章节={}, 总章节数={}, 加载章节数={}, 范围从{}到{}",
-                            centerChapterId, allChapterIds.size(), chapterIdsToLoad.size(), startIndex, endIndex);
-
-
-
-
-                    // 获取这些章节的场景
-                    return Flux.fromIterable(chapterIdsToLoad)
-                            .flatMap(sceneRepository::findByChapterId)
-                            .collectList()
-                            .map(scenes -> {
-                                // 按章节ID分组，明确指定返回类型
-                                final Map<String, List<Scene>> scenesByChapter = scenes.stream()
-                                        .collect(Collectors.groupingBy(
-                                                Scene::getChapterId,
-                                                Collectors.toList() // 明确指定下游收集器
-                                        ));
+                            centerChapterId, index.size(), chapterIdsToLoad.size(), startIndex, endIndex);
 
-                                // 构建并返回DTO
-                                return NovelWithScenesDto.builder()
-                                        .novel(novel)
-                                        .scenesByChapter(scenesByChapter)
-                                        .build();
-                            });
+                    // 一次查询获取这些章节的场景
+                    return loadScenesGroupedByChapter(chapterIdsToLoad, false)
+                            .map(scenesByChapter -> NovelWithScenesDto.builder()
+                                    .novel(novel)
+                                    .scenesByChapter(scenesByChapter)
+                                    .build());
                 })
                 .doOnSuccess(dto -> log.info("分页获取小说及场景成功，小说ID: {}, 中心章节ID: {}, 加载章节数: {}",
                 novelId, lastEditedChapterId, dto.getScenesByChapter().size()))
@@ -577,8 +564,8 @@ public class NovelServiceImpl implements NovelService {
         return novelRepository.findById(novelId)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("小说", novelId)))
                 .flatMap(novel -> {
-                    // 准备一个章节的ID列表，以便确定加载范围
-                    List<String> allChapterIds = new ArrayList<>();
+                    StructureIndex index = structureCache.getStructureIndex(novel);
+                    List<String> allChapterIds;
                     
                     // 如果指定了actId，只加载该卷内的章节
                     if (StringUtils.hasText(actIdConstraint)) {
@@ -597,18 +584,14 @@ public class NovelServiceImpl implements NovelService {
                         }
                         
                         // 从指定卷中收集章节ID
-                        for (Chapter chapter : targetAct.getChapters()) {
-                            allChapterIds.add(chapter.getId());
-                        }
+                        List<Chapter> actChapters = targetAct.getChapters();
+                        allChapterIds = actChapters == null ? List.of()
+                                : actChapters.stream().map(Chapter::getId).toList();
                         
                         log.info("根据卷ID {}，找到 {} 个章节", actIdConstraint, allChapterIds.size());
                     } else {
                         // 没有指定actId，按照原有逻辑加载所有卷的章节
-                        for (Act act : novel.getStructure().getActs()) {
-                            for (Chapter chapter : act.getChapters()) {
-                                allChapterIds.add(chapter.getId());
-                            }
-                        }
+                        allChapterIds = index.chapterIds(0, index.size());
                         log.info("未指定卷ID，小说 {} 共有 {} 个章节", novelId, allChapterIds.size());
                     }
                     
@@ -619,8 +602,11 @@ public class NovelServiceImpl implements NovelService {
                     
                     int fromIndex = -1;
                     if (fromChapterId != null) {
-                        fromIndex = allChapterIds.indexOf(fromChapterId); // 当前章节在所有章节列表中的索引
-                        if (fromIndex == -1) {
+                        // 当前章节在加载范围内的索引：指定卷时在卷内章节中查找（只扫描本卷），否则按全书索引定位
+                        fromIndex = StringUtils.hasText(actIdConstraint)
+                                ? allChapterIds.indexOf(fromChapterId)
+                                : index.ordinalOf(fromChapterId);
+                        if (fromIndex < 0 || fromIndex >= allChapterIds.size()) {
                             log.error("找不到指定的章节: {}", fromChapterId);
                             return Mono.just(new HashMap<>());
                         }
@@ -679,25 +665,8 @@ public class NovelServiceImpl implements NovelService {
                         return Mono.just(emptyResult);
                     }
 
-                    // 加载每个章节的场景
-                    return Flux.fromIterable(chapterIdsToLoad)
-                            .flatMap(chapterId -> 
-                                // 为每个章节加载场景
-                                sceneRepository.findByChapterId(chapterId)
-                                    .collectList()
-                                    .doOnNext(scenes -> log.info("章节 {} 的场景数量: {}", chapterId, scenes.size()))
-                            )
-                            .collectList()
-                            .map(sceneLists -> {
-                                Map<String, List<Scene>> groupedScenes = new HashMap<>();
-                                // 将场景按章节ID分组
-                                for (int i = 0; i < chapterIdsToLoad.size() && i < sceneLists.size(); i++) {
-                                    String chapterId = chapterIdsToLoad.get(i);
-                                    List<Scene> scenes = sceneLists.get(i);
-                                    groupedScenes.put(chapterId, scenes);
-                                }
-                                return groupedScenes;
-                            })
+                    // 一次查询加载这些章节的场景，没有场景的章节也保留空列表
+                    return loadScenesGroupedByChapter(chapterIdsToLoad, true)
                             .doOnSuccess(result -> log.info("加载更多场景成功，加载章节数: {}", result.size()));
                 });
     }
@@ -1096,55 +1065,15 @@ public class NovelServiceImpl implements NovelService {
     public Mono<String> getChapterRangeSummaries(String novelId, String startChapterId, String endChapterId) {
         return findNovelById(novelId)
             .<String>flatMap(novel -> { // 显式指定 flatMap 返回类型为 Mono<String>
-                Structure structure = novel.getStructure();
-                if (structure == null || structure.getActs() == null || structure.getActs().isEmpty()) {
-                    log.warn("小说 {} 没有有效的结构或章节信息，无法获取摘要范围", novelId);
-                    return Mono.just(""); // 或者返回特定错误信息
-                }
-
-                // 获取所有章节的扁平列表，方便查找索引
-                List<Chapter> allChapters = structure.getActs().stream()
-                    .flatMap(act -> act.getChapters().stream())
-                    .collect(Collectors.toList());
-
-                if (allChapters.isEmpty()) {
-                     log.warn("小说 {} 结构中没有章节，无法获取摘要范围", novelId);
+                StructureIndex index = structureCache.getStructureIndex(novel);
+                if (index.isEmpty()) {
+                    log.warn("小说 {} 结构中没有章节，无法获取摘要范围", novelId);
                     return Mono.just("");
                 }
 
-                int startIndex = 0;
-                int endIndex = allChapters.size() - 1;
-
-                // 确定起始索引
-                if (startChapterId != null) {
-                    boolean foundStart = false;
-                    for (int i = 0; i < allChapters.size(); i++) {
-                        if (allChapters.get(i).getId().equals(startChapterId)) {
-                            startIndex = i;
-                            foundStart = true;
-                            break;
-                        }
-                    }
-                    if (!foundStart) {
-                         log.warn("未找到起始章节ID: {}, 将从第一章开始", startChapterId);
-                    }
-                }
-
-                // 确定结束索引
-                if (endChapterId != null) {
-                     boolean foundEnd = false;
-                    for (int i = 0; i < allChapters.size(); i++) {
-                        if (allChapters.get(i).getId().equals(endChapterId)) {
-                            endIndex = i;
-                            foundEnd = true;
-                            break;
-                        }
-                    }
-                     if (!foundEnd) {
-                         log.warn("未找到结束章节ID: {}, 将到最后一章结束", endChapterId);
-                         endIndex = allChapters.size() - 1; // 确保 endIndex 有效
-                    }
-                }
+                int[] range = resolveChapterRange(index, startChapterId, endChapterId);
+                int startIndex = range[0];
+                int endIndex = range[1];
 
                 // 确保索引有效且 startIndex <= endIndex
                 if (startIndex > endIndex) {
@@ -1153,22 +1082,25 @@ public class NovelServiceImpl implements NovelService {
                 }
 
                 // 获取指定范围内的章节ID列表
-                List<String> targetChapterIds = allChapters.subList(startIndex, endIndex + 1).stream()
-                    .map(Chapter::getId)
-                    .collect(Collectors.toList());
+                List<String> targetChapterIds = index.chapterIds(startIndex, endIndex + 1);
+
+                log.debug("获取小说 {} 从索引 {} 到 {} 的章节摘要, 章节ID列表: {}", novelId, startIndex, endIndex, targetChapterIds);
+
+                // 一次查询取回范围内所有场景的摘要（只投影需要的字段），再按章节顺序拼接
+                Query query = Query.query(Criteria.where("chapterId").in(targetChapterIds)
+                        .and("summary").nin(null, ""))
+                    .with(Sort.by(Sort.Direction.ASC, "sequence"));
+                query.fields().include("chapterId", "sequence", "summary");
 
-                 log.debug("获取小说 {} 从索引 {} 到 {} 的章节摘要, 章节ID列表: {}", novelId, startIndex, endIndex, targetChapterIds);
-
-                // 并行获取所有目标章节的场景，然后串行处理拼接（保证顺序）
-                return Flux.fromIterable(targetChapterIds)
-                    .<String>concatMap(chapterId -> sceneService.findSceneByChapterId(chapterId) // 使用注入的 SceneService
-                        .filter(scene -> scene.getSummary() != null && !scene.getSummary().isBlank())
-                        .map(Scene::getSummary)
-                        .collect(Collectors.joining("\n\n")) // 拼接单个章节内的摘要
-                    )
-                    .filter(chapterSummary -> !chapterSummary.isEmpty())
-                    .collect(Collectors.joining("\n\n---\n\n")) // 拼接不同章节的摘要，用分隔符区分
-                    .defaultIfEmpty(""); // 如果没有找到任何摘要，返回空字符串
+                return reactiveMongoTemplate.find(query, Scene.class)
+                    .collectList()
+                    .map(scenes -> groupByChapter(targetChapterIds, scenes, false).values().stream()
+                        .map(chapterScenes -> chapterScenes.stream()
+                            .map(Scene::getSummary)
+                            .filter(summary -> summary != null && !summary.isBlank())
+                            .collect(Collectors.joining("\n\n"))) // 拼接单个章节内的摘要
+                        .filter(chapterSummary -> !chapterSummary.isEmpty())
+                        .collect(Collectors.joining("\n\n---\n\n"))); // 拼接不同章节的摘要，用分隔符区分
             })
             .onErrorResume(e -> {
                 log.error("获取小说 {} 章节范围摘要时出错: {}", novelId, e.getMessage(), e);
@@ -1181,55 +1113,15 @@ public class NovelServiceImpl implements NovelService {
     public Mono<String> getChapterRangeContext(String novelId, String startChapterId, String endChapterId) {
         return findNovelById(novelId)
             .<String>flatMap(novel -> { // 显式指定 flatMap 返回类型为 Mono<String>
-                Structure structure = novel.getStructure();
-                if (structure == null || structure.getActs() == null || structure.getActs().isEmpty()) {
-                    log.warn("小说 {} 没有有效的结构或章节信息，无法获取内容范围", novelId);
-                    return Mono.just(""); // 或者返回特定错误信息
-                }
-
-                // 获取所有章节的扁平列表，方便查找索引
-                List<Chapter> allChapters = structure.getActs().stream()
-                    .flatMap(act -> act.getChapters().stream())
-                    .collect(Collectors.toList());
-
-                if (allChapters.isEmpty()) {
-                     log.warn("小说 {} 结构中没有章节，无法获取内容范围", novelId);
+                StructureIndex index = structureCache.getStructureIndex(novel);
+                if (index.isEmpty()) {
+                    log.warn("小说 {} 结构中没有章节，无法获取内容范围", novelId);
                     return Mono.just("");
                 }
 
-                int startIndex = 0;
-                int endIndex = allChapters.size() - 1;
-
-                // 确定起始索引
-                if (startChapterId != null) {
-                    boolean foundStart = false;
-                    for (int i = 0; i < allChapters.size(); i++) {
-                        if (allChapters.get(i).getId().equals(startChapterId)) {
-                            startIndex = i;
-                            foundStart = true;
-                            break;
-                        }
-                    }
-                    if (!foundStart) {
-                         log.warn("未找到起始章节ID: {}, 将从第一章开始", startChapterId);
-                    }
-                }
-
-                // 确定结束索引
-                if (endChapterId != null) {
-                     boolean foundEnd = false;
-                    for (int i = 0; i < allChapters.size(); i++) {
-                        if (allChapters.get(i).getId().equals(endChapterId)) {
-                            endIndex = i;
-                            foundEnd = true;
-                            break;
-                        }
-                    }
-                     if (!foundEnd) {
-                         log.warn("未找到结束章节ID: {}, 将到最后一章结束", endChapterId);
-                         endIndex = allChapters.size() - 1; // 确保 endIndex 有效
-                    }
-                }
+                int[] range = resolveChapterRange(index, startChapterId, endChapterId);
+                int startIndex = range[0];
+                int endIndex = range[1];
 
                 // 确保索引有效且 startIndex <= endIndex
                 if (startIndex > endIndex) {
@@ -1237,44 +1129,40 @@ public class NovelServiceImpl implements NovelService {
                     return Mono.just("");
                 }
 
-                // 获取指定范围内的章节ID列表
-                List<String> targetChapterIds = allChapters.subList(startIndex, endIndex + 1).stream()
-                    .map(Chapter::getId)
-                    .collect(Collectors.toList());
+                // 获取指定范围内的章节
+                List<Chapter> targetChapters = index.chapters(startIndex, endIndex + 1);
+                List<String> targetChapterIds = index.chapterIds(startIndex, endIndex + 1);
 
-                 log.debug("获取小说 {} 从索引 {} 到 {} 的章节内容, 章节ID列表: {}", novelId, startIndex, endIndex, targetChapterIds);
-
-                // 并行获取所有目标章节的场景，然后串行处理拼接（保证顺序）
-                return Flux.fromIterable(targetChapterIds)
-                    .<String>concatMap(chapterId -> {
-                        // 获取章节标题
-                        String chapterTitle = allChapters.stream()
-                            .filter(chapter -> chapter.getId().equals(chapterId))
-                            .findFirst()
-                            .map(Chapter::getTitle)
-                            .orElse("未命名章节");
-                        
-                        // 为每个章节创建一个包含标题和内容的字符串
-                        return sceneService.findSceneByChapterIdOrdered(chapterId) // 使用有序的场景检索
-                            .map(scene -> {
-                                // 获取场景标题和内容
-                                String sceneTitle = scene.getTitle() != null ? scene.getTitle() : "场景";
-                                String sceneContent = RichTextUtil.deltaJsonToPlainText(scene.getContent() != null ? scene.getContent() : "");
+                log.debug("获取小说 {} 从索引 {} 到 {} 的章节内容, 章节ID列表: {}", novelId, startIndex, endIndex, targetChapterIds);
 
-
-                                
-                                // 返回格式化的场景内容
-                                return String.format("【场景：%s】\n%s", sceneTitle, sceneContent);
-                            })
-                            .collect(Collectors.joining("\n\n")) // 拼接同一章节中的所有场景
-                            .map(scenesContent -> {
-                                // 添加章节标题作为前缀
-                                return String.format("%s\n\n%s", chapterTitle, scenesContent);
-                            })
-                            .defaultIfEmpty(String.format("## %s\n\n(无内容)", chapterTitle)); // 如果章节没有场景，添加默认提示
-                    })
-                    .collect(Collectors.joining("\n\n---\n\n")) // 拼接不同章节的内容，用分隔符区分
-                    .defaultIfEmpty(""); // 如果没有找到任何内容，返回空字符串
+                // 一次查询取回范围内所有场景（按 sequence 排序），再按章节顺序拼接
+                return sceneService.findScenesByChapterIdsOrdered(targetChapterIds)
+                    .collectList()
+                    .map(scenes -> {
+                        Map<String, List<Scene>> scenesByChapter = groupByChapter(targetChapterIds, scenes, true);
+                        List<String> chapterContents = new ArrayList<>(targetChapters.size());
+                        for (Chapter chapter : targetChapters) {
+                            String chapterTitle = chapter.getTitle() != null ? chapter.getTitle() : "未命名章节";
+                            List<Scene> chapterScenes = scenesByChapter.getOrDefault(chapter.getId(), Collections.emptyList());
+                            if (chapterScenes.isEmpty()) {
+                                // 如果章节没有场景，添加默认提示
+                                chapterContents.add(String.format("## %s\n\n(无内容)", chapterTitle));
+                                continue;
+                            }
+                            String scenesContent = chapterScenes.stream()
+                                .map(scene -> {
+                                    // 获取场景标题和内容
+                                    String sceneTitle = scene.getTitle() != null ? scene.getTitle() : "场景";
+                                    String sceneContent = RichTextUtil.deltaJsonToPlainText(scene.getContent() != null ? scene.getContent() : "");
+                                    // 返回格式化的场景内容
+                                    return String.format("【场景：%s】\n%s", sceneTitle, sceneContent);
+                                })
+                                .collect(Collectors.joining("\n\n")); // 拼接同一章节中的所有场景
+                            // 添加章节标题作为前缀
+                            chapterContents.add(String.format("%s\n\n%s", chapterTitle, scenesContent));
+                        }
+                        return String.join("\n\n---\n\n", chapterContents); // 拼接不同章节的内容，用分隔符区分
+                    });
             })
             .onErrorResume(e -> {
                 log.error("获取小说 {} 章节范围内容时出错: {}", novelId, e.getMessage(), e);
@@ -1389,6 +1277,7 @@ public class NovelServiceImpl implements NovelService {
 
                 scene.setContent(PromptUtil.convertPlainTextToQuillDelta(content));
                 scene.setUpdatedAt(LocalDateTime.now());
+                scene.setVersion(scene.getVersion() + 1);
                 // 可以考虑调用 calculateWordCount 并设置 scene.wordCount
                 // scene.setWordCount(calculateWordCount(content));
 
@@ -2249,27 +2138,13 @@ public class NovelServiceImpl implements NovelService {
     public Mono<String> getPreviousChapterId(String novelId, String chapterId) {
         return findNovelById(novelId)
             .flatMap(novel -> {
-                // 获取所有章节的有序列表
-                List<String> chapterIds = new ArrayList<>();
-                if (novel.getStructure() != null && novel.getStructure().getActs() != null) {
-                    for (Act act : novel.getStructure().getActs()) {
-                        if (act.getChapters() != null) {
-                            for (Chapter chapter : act.getChapters()) {
-                                chapterIds.add(chapter.getId());
-                            }
-                        }
-                    }
-                }
-                
-                // 找到当前章节的索引
-                int currentIndex = chapterIds.indexOf(chapterId);
+                StructureIndex index = structureCache.getStructureIndex(novel);
+                int currentIndex = index.ordinalOf(chapterId);
                 if (currentIndex <= 0) {
                     // 如果是第一章或未找到，则返回空
                     return Mono.empty();
                 }
-                
-                // 否则返回前一章的ID
-                return Mono.just(chapterIds.get(currentIndex - 1));
+                return Mono.just(index.chapterIdAt(currentIndex - 1));
             });
     }
 
@@ -2282,12 +2157,8 @@ public class NovelServiceImpl implements NovelService {
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("小说", novelId)))
                 .flatMap(novel -> {
                     // 获取所有章节ID，并保持它们的顺序
-                    List<String> allChapterIds = new ArrayList<>();
-                    for (Novel.Act act : novel.getStructure().getActs()) {
-                        for (Novel.Chapter chapter : act.getChapters()) {
-                            allChapterIds.add(chapter.getId());
-                        }
-                    }
+                    StructureIndex index = structureCache.getStructureIndex(novel);
+                    List<String> allChapterIds = index.chapterIds(0, index.size());
 
                     // 如果没有章节，直接返回只有小说信息的DTO
                     if (allChapterIds.isEmpty()) {
@@ -2298,7 +2169,7 @@ public class NovelServiceImpl implements NovelService {
                     }
 
                     // 找到当前章节的索引
-                    int currentIndex = allChapterIds.indexOf(currentChapterId);
+                    int currentIndex = index.ordinalOf(currentChapterId);
                     if (currentIndex == -1) {
                         log.warn("找不到指定的当前章节: {}, 将从第一章开始加载", currentChapterId);
                         currentIndex = -1; // 从第一章开始
@@ -2353,17 +2224,12 @@ public class NovelServiceImpl implements NovelService {
                                 .build());
                     }
 
-                    // 查询指定章节的场景并按章节分组
-                    return Flux.fromIterable(chapterIdsToLoad)
-                            .flatMap(sceneRepository::findByChapterId)
-                            .collectList()
-                            .map(scenes -> {
-                                // 按章节ID分组
-                                Map<String, List<Scene>> scenesByChapter = scenes.stream().map(scene -> {
-                                    scene.setContent(RichTextUtil.deltaJsonToPlainText(scene.getContent()));
-                                    return scene;
-                                })
-                                        .collect(Collectors.groupingBy(Scene::getChapterId));
+                    // 一次查询指定章节的场景并按章节分组
+                    return loadScenesGroupedByChapter(chapterIdsToLoad, false)
+                            .map(scenesByChapter -> {
+                                // 转换场景内容为纯文本
+                                scenesByChapter.values().forEach(scenes -> scenes.forEach(scene ->
+                                        scene.setContent(RichTextUtil.deltaJsonToPlainText(scene.getContent()))));
 
                                 // 构建并返回DTO
                                 return NovelWithScenesDto.builder()
@@ -2385,11 +2251,9 @@ public class NovelServiceImpl implements NovelService {
         return novelRepository.findById(novelId)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("小说", novelId)))
                 .flatMap(novel -> {
-                    // 获取所有章节ID，并保持它们的顺序
-                    List<Chapter> allChapters = new ArrayList<>();
-                    for (Novel.Act act : novel.getStructure().getActs()) {
-                        allChapters.addAll(act.getChapters());
-                    }
+                    // 获取所有章节，并保持它们的顺序
+                    StructureIndex index = structureCache.getStructureIndex(novel);
+                    List<Chapter> allChapters = index.chapters(0, index.size());
 
                     // 如果没有章节，直接返回空结果
                     if (allChapters.isEmpty()) {
@@ -2400,14 +2264,7 @@ public class NovelServiceImpl implements NovelService {
                     }
 
                     // 找到当前章节的索引
-                    int currentIndex = -1;
-                    for (int i = 0; i < allChapters.size(); i++) {
-                        if (allChapters.get(i).getId().equals(currentChapterId)) {
-                            currentIndex = i;
-                            break;
-                        }
-                    }
-                    
+                    int currentIndex = index.ordinalOf(currentChapterId);
                     if (currentIndex == -1) {
                         log.warn("找不到指定的当前章节: {}, 将从第一章开始加载", currentChapterId);
                         currentIndex = -1; // 从第一章开始
@@ -2418,7 +2275,7 @@ public class NovelServiceImpl implements NovelService {
                     if (currentIndex == -1) {
                         // 从第一章开始加载
                         int endIndex = Math.min(allChapters.size(), chaptersLimit);
-                        chaptersToLoad = allChapters.subList(0, endIndex);
+                        chaptersToLoad = new ArrayList<>(allChapters.subList(0, endIndex));
                         log.info("从第一章开始加载，加载章节数: {}", chaptersToLoad.size());
                     } else if (currentIndex >= allChapters.size() - 1 && !includeCurrentChapter) {
                         // 已经是最后一章且不包含当前章节，没有后续章节
@@ -2450,7 +2307,7 @@ public class NovelServiceImpl implements NovelService {
                         }
                         
                         int endIndex = Math.min(allChapters.size(), startIndex + chaptersLimit);
-                        chaptersToLoad = allChapters.subList(startIndex, endIndex);
+                        chaptersToLoad = new ArrayList<>(allChapters.subList(startIndex, endIndex));
                         log.info("最终加载章节范围: {} 到 {}, 共{}章", startIndex, endIndex - 1, chaptersToLoad.size());
                     }
 
@@ -2467,19 +2324,12 @@ public class NovelServiceImpl implements NovelService {
                             .map(Chapter::getId)
                             .collect(Collectors.toList());
 
-                    // 查询指定章节的场景并按章节分组
-                    return Flux.fromIterable(chapterIdsToLoad)
-                            .flatMap(sceneRepository::findByChapterId)
-                            .collectList()
-                            .map(scenes -> {
-                                // 按章节ID分组场景
-                                Map<String, List<Scene>> scenesByChapter = scenes.stream()
-                                        .map(scene -> {
-                                            // 转换场景内容为纯文本
-                                            scene.setContent(RichTextUtil.deltaJsonToPlainText(scene.getContent()));
-                                            return scene;
-                                        })
-                                        .collect(Collectors.groupingBy(Scene::getChapterId));
+                    // 一次查询指定章节的场景并按章节分组
+                    return loadScenesGroupedByChapter(chapterIdsToLoad, false)
+                            .map(scenesByChapter -> {
+                                // 转换场景内容为纯文本
+                                scenesByChapter.values().forEach(scenes -> scenes.forEach(scene ->
+                                        scene.setContent(RichTextUtil.deltaJsonToPlainText(scene.getContent()))));
 
                                 // 构建并返回DTO
                                 return ChaptersForPreloadDto.builder()
@@ -2649,4 +2499,56 @@ public class NovelServiceImpl implements NovelService {
         structureCache.evict(novelId);
     }
 
+    /**
+     * 按章节序号解析章节范围 [start, end]；找不到的起止章节分别回退到第一章和最后一章
+     */
+    private int[] resolveChapterRange(StructureIndex index, String startChapterId, String endChapterId) {
+        int startIndex = 0;
+        int endIndex = index.size() - 1;
+        if (startChapterId != null) {
+            int ordinal = index.ordinalOf(startChapterId);
+            if (ordinal >= 0) {
+                startIndex = ordinal;
+            } else {
+                log.warn("未找到起始章节ID: {}, 将从第一章开始", startChapterId);
+            }
+        }
+        if (endChapterId != null) {
+            int ordinal = index.ordinalOf(endChapterId);
+            if (ordinal >= 0) {
+                endIndex = ordinal;
+            } else {
+                log.warn("未找到结束章节ID: {}, 将到最后一章结束", endChapterId);
+            }
+        }
+        return new int[] {startIndex, endIndex};
+    }
+
+    /**
+     * 一次 $in 查询取回若干章节的场景（不含历史版本和向量嵌入），按章节顺序分组（章节内按 sequence 排序）
+     *
+     * @param includeEmpty 是否为没有场景的章节保留空列表
+     */
+    private Mono<Map<String, List<Scene>>> loadScenesGroupedByChapter(List<String> chapterIds, boolean includeEmpty) {
+        return sceneRepository.findEditorScenesByChapterIdIn(chapterIds)
+                .collectList()
+                .map(scenes -> groupByChapter(chapterIds, scenes, includeEmpty));
+    }
+
+    private static Map<String, List<Scene>> groupByChapter(List<String> chapterIds, List<Scene> scenes, boolean includeEmpty) {
+        Map<String, List<Scene>> grouped = new LinkedHashMap<>();
+        for (String chapterId : chapterIds) {
+            grouped.put(chapterId, new ArrayList<>());
+        }
+        for (Scene scene : scenes) {
+            List<Scene> chapterScenes = grouped.get(scene.getChapterId());
+            if (chapterScenes != null) {
+                chapterScenes.add(scene);
+            }
+        }
+        if (!includeEmpty) {
+            grouped.values().removeIf(List::isEmpty);
+        }
+        return grouped;
+    }
 }
@@ -10,9 +10,12 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import com.ainovel.server.common.exception.ResourceNotFoundException;
@@ -24,7 +27,10 @@ import com.ainovel.server.repository.NovelSettingItemRepository;
 import com.ainovel.server.repository.SettingGroupRepository;
 import com.ainovel.server.service.EmbeddingService;
 import com.ainovel.server.service.KeywordExtractionService;
+import com.ainovel.server.service.NovelFullTextSearchService;
 import com.ainovel.server.service.NovelSettingService;
+import com.ainovel.server.service.setting.SettingTreeCloner;
+import com.ainovel.server.service.setting.mention.SettingMentionIndex;
 import com.ainovel.server.service.vectorstore.VectorStore;
 
 import lombok.RequiredArgsConstructor;
@@ -50,6 +56,12 @@ public class NovelSettingServiceImpl implements NovelSettingService {
     // 暂时设为null以便编译通过，实际上会通过依赖注入注入
     private final KeywordExtractionService keywordExtractionService;
     
+    // 名称/别名提及索引（Aho-Corasick）
+    private final SettingMentionIndex settingMentionIndex;
+    
+    // 小说内全文检索索引
+    private final NovelFullTextSearchService fullTextSearchService;
+    
     // 默认优先级
     private static final int DEFAULT_PRIORITY = 3;
     
@@ -88,7 +100,11 @@ public class NovelSettingServiceImpl implements NovelSettingService {
 //                settingItem.getNovelId(), settingItem.getType(), settingItem.getName());
         
         return settingItemRepository.save(settingItem)
-                .doOnSuccess(saved -> indexSettingItem(saved).subscribe());
+                .doOnSuccess(saved -> {
+                    settingMentionIndex.onSettingSaved(saved);
+                    fullTextSearchService.onSettingSaved(saved);
+                    indexSettingItem(saved).subscribe();
+                });
     }
 
     @Override
@@ -108,7 +124,50 @@ public class NovelSettingServiceImpl implements NovelSettingService {
             if (item.getGeneratedBy() == null) item.setGeneratedBy("AI_SETTING_GENERATION");
             if (item.getRelationships() == null) item.setRelationships(new ArrayList<>());
         });
-        return settingItemRepository.saveAll(items);
+        return settingItemRepository.saveAll(items)
+                .doOnNext(saved -> {
+                    settingMentionIndex.onSettingSaved(saved);
+                    fullTextSearchService.onSettingSaved(saved);
+                });
+    }
+
+    @Override
+    public Flux<NovelSettingItem> getSettingItemsByIds(List<String> itemIds) {
+        if (itemIds == null || itemIds.isEmpty()) {
+            return Flux.empty();
+        }
+        return settingItemRepository.findAllById(itemIds);
+    }
+
+    @Override
+    public Flux<NovelSettingItem> insertSettingTree(List<NovelSettingItem> items) {
+        if (items == null || items.isEmpty()) {
+            return Flux.empty();
+        }
+        List<NovelSettingItem> ordered;
+        try {
+            ordered = SettingTreeCloner.topologicalOrder(items);
+        } catch (IllegalArgumentException e) {
+            return Flux.error(e);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        ordered.forEach(item -> {
+            if (item.getCreatedAt() == null) item.setCreatedAt(now);
+            item.setUpdatedAt(now);
+            if (item.getPriority() == null) item.setPriority(DEFAULT_PRIORITY);
+            if (item.getGeneratedBy() == null) item.setGeneratedBy("USER");
+            if (item.getRelationships() == null) item.setRelationships(new ArrayList<>());
+        });
+        // 父先子后的有序批量插入：中途失败时已写入的部分仍是一棵完整的上层树
+        return mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, NovelSettingItem.class)
+                .insert(ordered)
+                .execute()
+                .doOnSuccess(result -> log.info("批量插入设定树: 条目数={}", result.getInsertedCount()))
+                .thenMany(Flux.fromIterable(ordered))
+                .doOnNext(saved -> {
+                    settingMentionIndex.onSettingSaved(saved);
+                    fullTextSearchService.onSettingSaved(saved);
+                });
     }
     
     @Override
@@ -171,7 +230,11 @@ public class NovelSettingServiceImpl implements NovelSettingService {
                             settingItemId, settingItem.getNovelId(), settingItem.getType(), settingItem.getName());
                     
                     return settingItemRepository.save(settingItem)
-                            .doOnSuccess(saved -> indexSettingItem(saved).subscribe());
+                            .doOnSuccess(saved -> {
+                                settingMentionIndex.onSettingSaved(saved);
+                                fullTextSearchService.onSettingSaved(saved);
+                                indexSettingItem(saved).subscribe();
+                            });
                 });
     }
     
@@ -190,6 +253,10 @@ public class NovelSettingServiceImpl implements NovelSettingService {
                                 return settingGroupRepository.save(group);
                             })
                             .then(settingItemRepository.delete(settingItem))
+                            .doOnSuccess(v -> {
+                                settingMentionIndex.onSettingDeleted(settingItem.getNovelId(), settingItemId);
+                                fullTextSearchService.onSettingDeleted(settingItem.getNovelId(), settingItemId);
+                            })
                             .then(deleteSettingItemIndex(settingItem.getNovelId(), settingItemId));
                 });
     }
@@ -550,15 +617,12 @@ public class NovelSettingServiceImpl implements NovelSettingService {
                         // 移除原有的父子关系（如果存在）
                         String oldParentId = child.getParentId();
                         
-                        // 设置新的父子关系
-                        child.setParentId(parentId);
-                        child.setUpdatedAt(LocalDateTime.now());
-                        
-                        return settingItemRepository.save(child)
+                        // 设置新的父子关系（只更新 parentId，不覆盖其他字段）
+                        return setParentId(childId, parentId)
                             .flatMap(savedChild -> {
                                 // 更新父设定的子设定列表
                                 return updateParentChildrenList(parentId, childId, true)
-                                    .then(oldParentId != null ? 
+                                    .then(oldParentId != null && !oldParentId.equals(parentId) ? 
                                         updateParentChildrenList(oldParentId, childId, false) : 
                                         Mono.empty())
                                     .then(Mono.just(savedChild))
@@ -584,10 +648,7 @@ public class NovelSettingServiceImpl implements NovelSettingService {
                 }
                 
                 // 移除父子关系
-                child.setParentId(null);
-                child.setUpdatedAt(LocalDateTime.now());
-                
-                return settingItemRepository.save(child)
+                return setParentId(childId, null)
                     .flatMap(savedChild -> {
                         // 更新父设定的子设定列表
                         return updateParentChildrenList(parentId, childId, false)
@@ -672,6 +733,8 @@ public class NovelSettingServiceImpl implements NovelSettingService {
                 
                 return settingItemRepository.save(item)
                     .doOnSuccess(savedItem -> {
+                        // 追踪配置影响名称/别名是否参与提及检测
+                        settingMentionIndex.onSettingSaved(savedItem);
                         // 重新索引设定条目以更新追踪配置
                         indexSettingItem(savedItem).subscribe();
                     });
@@ -710,27 +773,34 @@ public class NovelSettingServiceImpl implements NovelSettingService {
             .onErrorReturn(false);
     }
     
+    /**
+     * 原子更新子设定的 parentId，返回更新后的条目
+     */
+    private Mono<NovelSettingItem> setParentId(String childId, String parentId) {
+        Update update = new Update().set("updatedAt", LocalDateTime.now());
+        if (parentId != null) {
+            update.set("parentId", parentId);
+        } else {
+            update.unset("parentId");
+        }
+        return mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(childId)),
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                NovelSettingItem.class)
+            .switchIfEmpty(Mono.error(new ResourceNotFoundException("设定条目", childId)));
+    }
+    
     /**
      * 更新父设定的子设定列表
+     * 使用 $addToSet / $pull 原子更新，兄弟节点并发挂到同一父节点时不会互相覆盖
      */
     private Mono<Void> updateParentChildrenList(String parentId, String childId, boolean add) {
-        return getSettingItemById(parentId)
-            .flatMap(parent -> {
-                if (parent.getChildrenIds() == null) {
-                    parent.setChildrenIds(new ArrayList<>());
-                }
-                
-                if (add) {
-                    if (!parent.getChildrenIds().contains(childId)) {
-                        parent.getChildrenIds().add(childId);
-                    }
-                } else {
-                    parent.getChildrenIds().remove(childId);
-                }
-                
-                parent.setUpdatedAt(LocalDateTime.now());
-                return settingItemRepository.save(parent);
-            })
+        Update update = add
+            ? new Update().addToSet("childrenIds", childId)
+            : new Update().pull("childrenIds", childId);
+        update.set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(parentId)), update, NovelSettingItem.class)
             .then()
             .onErrorResume(e -> {
                 log.warn("更新父设定子列表失败: parentId={}, childId={}, add={}, error={}", 
@@ -781,7 +851,7 @@ public class NovelSettingServiceImpl implements NovelSettingService {
                 embeddingService.generateEmbedding(contextText) : 
                 Mono.just(new float[0]);
         
-        return Mono.zip(keywordsMono, queryVectorMono)
+        Flux<NovelSettingItem> vectorResults = Mono.zip(keywordsMono, queryVectorMono)
                 .flatMapMany(tuple -> {
                     List<String> keywords = tuple.getT1();
                     float[] queryVector = tuple.getT2();
@@ -868,6 +938,24 @@ public class NovelSettingServiceImpl implements NovelSettingService {
                                 return Flux.fromIterable(rerankedResults.subList(0, resultCount));
                             });
                 });
+        
+        // 3. 名称/别名精确提及优先，其余由向量检索补足
+        return settingMentionIndex.detectMentions(novelId, contextText)
+                .flatMapMany(mentions -> {
+                    if (mentions.isEmpty()) {
+                        return vectorResults;
+                    }
+                    log.info("文本中精确提及 {} 个设定条目", mentions.size());
+                    Flux<NovelSettingItem> mentioned = settingItemRepository.findAllById(mentions.keySet())
+                            .sort((a, b) -> Integer.compare(
+                                    mentions.getOrDefault(b.getId(), 0), mentions.getOrDefault(a.getId(), 0)));
+                    return Flux.concat(mentioned, vectorResults.onErrorResume(e -> {
+                                log.warn("向量检索失败，仅返回提及命中的设定: {}", e.getMessage());
+                                return Flux.empty();
+                            }))
+                            .distinct(NovelSettingItem::getId)
+                            .take(topK);
+                });
     }
     
     @Override
@@ -3,6 +3,9 @@ package com.ainovel.server.service.impl;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,9 +20,12 @@ import com.ainovel.server.domain.model.NovelSnippet;
 import com.ainovel.server.domain.model.NovelSnippetHistory;
 import com.ainovel.server.repository.NovelSnippetHistoryRepository;
 import com.ainovel.server.repository.NovelSnippetRepository;
+import com.ainovel.server.service.NovelFullTextSearchService;
 import com.ainovel.server.service.NovelSnippetService;
+import com.ainovel.server.service.search.SearchDocumentType;
 import com.ainovel.server.web.dto.request.NovelSnippetRequest;
 import com.ainovel.server.web.dto.response.NovelSnippetResponse;
+import com.ainovel.server.web.dto.response.NovelTextSearchResponse;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -35,13 +41,16 @@ public class NovelSnippetServiceImpl implements NovelSnippetService {
 
     private final NovelSnippetRepository snippetRepository;
     private final NovelSnippetHistoryRepository historyRepository;
+    private final NovelFullTextSearchService fullTextSearchService;
 
     @Autowired
     public NovelSnippetServiceImpl(
             NovelSnippetRepository snippetRepository,
-            NovelSnippetHistoryRepository historyRepository) {
+            NovelSnippetHistoryRepository historyRepository,
+            NovelFullTextSearchService fullTextSearchService) {
         this.snippetRepository = snippetRepository;
         this.historyRepository = historyRepository;
+        this.fullTextSearchService = fullTextSearchService;
     }
 
     @Override
@@ -74,6 +83,7 @@ public class NovelSnippetServiceImpl implements NovelSnippetService {
                 .build();
 
         return snippetRepository.save(snippet)
+                .doOnSuccess(fullTextSearchService::onSnippetSaved)
                 .flatMap(savedSnippet -> {
                     // 创建历史记录
                     NovelSnippetHistory history = createHistoryRecord(savedSnippet, "CREATE", null, null, "创建片段");
@@ -152,6 +162,7 @@ public class NovelSnippetServiceImpl implements NovelSnippetService {
                     snippet.getMetadata().setCharacterCount(request.getContent().length());
 
                     return snippetRepository.save(snippet)
+                            .doOnSuccess(fullTextSearchService::onSnippetSaved)
                             .flatMap(savedSnippet -> {
                                 // 创建历史记录
                                 NovelSnippetHistory history = createHistoryRecord(
@@ -184,6 +195,7 @@ public class NovelSnippetServiceImpl implements NovelSnippetService {
                     snippet.setUpdatedAt(LocalDateTime.now());
 
                     return snippetRepository.save(snippet)
+                            .doOnSuccess(fullTextSearchService::onSnippetSaved)
                             .flatMap(savedSnippet -> {
                                 // 创建历史记录
                                 NovelSnippetHistory history = createHistoryRecord(
@@ -315,6 +327,7 @@ public class NovelSnippetServiceImpl implements NovelSnippetService {
                                             .build();
 
                                     return snippetRepository.save(newSnippet)
+                                            .doOnSuccess(fullTextSearchService::onSnippetSaved)
                                             .flatMap(savedSnippet -> {
                                                 // 创建历史记录
                                                 NovelSnippetHistory history = createHistoryRecord(
@@ -344,6 +357,7 @@ public class NovelSnippetServiceImpl implements NovelSnippetService {
                     snippet.setUpdatedAt(LocalDateTime.now());
                     
                     return snippetRepository.save(snippet)
+                            .doOnSuccess(fullTextSearchService::onSnippetSaved)
                             .flatMap(savedSnippet -> {
                                 // 创建历史记录
                                 NovelSnippetHistory history = createHistoryRecord(
@@ -394,6 +408,37 @@ public class NovelSnippetServiceImpl implements NovelSnippetService {
             String userId, String novelId, String searchText, Pageable pageable) {
         logger.debug("搜索片段: userId={}, novelId={}, searchText={}", userId, novelId, searchText);
 
+        if (fullTextSearchService.isEnabled()) {
+            // 进程内 CJK 倒排索引：支持中文检索与精确分页；先限定为该用户的片段，再排序分页
+            return snippetRepository.findIdsByUserIdAndNovelIdAndStatusActive(userId, novelId)
+                    .map(NovelSnippet::getId)
+                    .collect(Collectors.toSet())
+                    .flatMap(ownedIds -> fullTextSearchService.search(novelId, searchText, Set.of(SearchDocumentType.SNIPPET),
+                            ownedIds, pageable.getPageNumber(), pageable.getPageSize()))
+                    .flatMap(result -> {
+                        List<String> ids = result.getContent().stream()
+                                .map(NovelTextSearchResponse.Hit::getId)
+                                .collect(Collectors.toList());
+                        return snippetRepository.findAllById(ids)
+                                .filter(snippet -> userId.equals(snippet.getUserId()))
+                                .collectMap(NovelSnippet::getId)
+                                // 保持索引给出的相关度顺序
+                                .map(byId -> ids.stream()
+                                        .map(byId::get)
+                                        .filter(Objects::nonNull)
+                                        .collect(Collectors.toList()))
+                                .map(content -> NovelSnippetResponse.PageResult.<NovelSnippet>builder()
+                                        .content(content)
+                                        .page(result.getPage())
+                                        .size(result.getSize())
+                                        .totalElements(result.getTotalElements())
+                                        .totalPages(result.getTotalPages())
+                                        .hasNext(result.isHasNext())
+                                        .hasPrevious(result.isHasPrevious())
+                                        .build());
+                    });
+        }
+
         return snippetRepository.findByUserIdAndNovelIdAndFullTextSearch(userId, novelId, searchText, pageable)
                 .collectList()
                 .map(content -> NovelSnippetResponse.PageResult.<NovelSnippet>builder()
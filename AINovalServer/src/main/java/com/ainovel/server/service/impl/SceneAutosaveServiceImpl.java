@@ -0,0 +1,503 @@
+package com.ainovel.server.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.mantoux.delta.Delta;
+import org.mantoux.delta.Op;
+import org.mantoux.delta.OpList;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import com.ainovel.server.common.exception.ResourceNotFoundException;
+import com.ainovel.server.common.exception.ValidationException;
+import com.ainovel.server.common.util.RichTextUtil;
+import com.ainovel.server.config.SceneAutosaveConfig;
+import com.ainovel.server.domain.model.Novel;
+import com.ainovel.server.domain.model.Scene;
+import com.ainovel.server.domain.model.Scene.HistoryEntry;
+import com.ainovel.server.domain.model.analytics.WritingEvent;
+import com.ainovel.server.service.MetadataService;
+import com.ainovel.server.service.NovelFullTextSearchService;
+import com.ainovel.server.service.SceneAutosaveService;
+import com.ainovel.server.service.analytics.WritingAnalyticsService;
+import com.ainovel.server.web.dto.response.SceneAutosaveResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 场景增量自动保存实现
+ *
+ * 每个正在编辑的场景在本节点持有一个写缓冲（当前 Delta 文档 + 版本号），补丁在内存中合成，
+ * 去抖窗口内的多次输入合并为一次按字段更新（不读取、不重写整篇文档和 history 数组）。
+ * history 只在达到快照间隔时追加一条。
+ *
+ * 落库使用 "version == 上次落库版本" 的条件更新：若期间场景被整篇更新、恢复或删除，
+ * 条件不满足，缓冲被丢弃，客户端下一次补丁会收到冲突并以服务端内容重新同步。
+ * 写入失败时按指数退避重试，不会在数据库不可用时连续重试。
+ *
+ * 只有场景所属小说的作者可以提交补丁或落库，作者ID在加载缓冲时读取一次。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SceneAutosaveServiceImpl implements SceneAutosaveService {
+
+    private static final TypeReference<List<Op>> OP_LIST_TYPE = new TypeReference<>() {};
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final MetadataService metadataService;
+    private final WritingAnalyticsService writingAnalyticsService;
+    private final NovelFullTextSearchService fullTextSearchService;
+    private final SceneAutosaveConfig config;
+    private final ObjectMapper objectMapper;
+
+    /** key=sceneId -> 写缓冲 */
+    private final Map<String, SceneWriteBuffer> buffers = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<SceneAutosaveResponse> applyPatch(String sceneId, int baseVersion, List<Map<String, Object>> ops, String userId) {
+        if (sceneId == null || sceneId.isEmpty()) {
+            return Mono.error(new ValidationException("sceneId", "场景ID不能为空"));
+        }
+        final Delta change;
+        try {
+            change = new Delta(new OpList(objectMapper.convertValue(ops, OP_LIST_TYPE)));
+        } catch (IllegalArgumentException e) {
+            return Mono.error(new ValidationException("ops", "无法解析Delta补丁: " + e.getMessage()));
+        }
+
+        return applyPatch(sceneId, baseVersion, change, userId, false);
+    }
+
+    /**
+     * @param reloaded 本次缓冲是否刚为校验版本从数据库重新加载
+     */
+    private Mono<SceneAutosaveResponse> applyPatch(String sceneId, int baseVersion, Delta change, String userId, boolean reloaded) {
+        return getBuffer(sceneId).flatMap(buffer -> {
+            if (!buffer.isAuthor(userId)) {
+                return Mono.error(new AccessDeniedException("用户无权编辑该场景"));
+            }
+            synchronized (buffer) {
+                if (buffer.closed) {
+                    // 缓冲刚被回收或因冲突丢弃，重新加载后再应用
+                    return applyPatch(sceneId, baseVersion, change, userId, reloaded);
+                }
+                if (baseVersion != buffer.version && !reloaded && !buffer.dirty && !buffer.flushing) {
+                    // 缓冲已全部落库，数据库中的版本可能已被其他节点或整篇保存推进，重新加载后再比较
+                    close(buffer);
+                    return applyPatch(sceneId, baseVersion, change, userId, true);
+                }
+                if (baseVersion != buffer.version) {
+                    log.debug("自动保存版本冲突: sceneId={}, baseVersion={}, serverVersion={}", sceneId, baseVersion, buffer.version);
+                    return Mono.just(SceneAutosaveResponse.builder()
+                            .sceneId(sceneId)
+                            .version(buffer.version)
+                            .conflict(true)
+                            .pending(buffer.dirty)
+                            .content(serialize(buffer))
+                            .build());
+                }
+                if (change.getOps().isEmpty()) {
+                    return Mono.just(accepted(buffer));
+                }
+                if (baseLength(change) > buffer.document.length()) {
+                    return Mono.error(new ValidationException("ops", "补丁超出文档长度"));
+                }
+
+                long now = System.currentTimeMillis();
+                buffer.document = buffer.document.compose(change);
+                buffer.version++;
+                buffer.lastEditAt = now;
+                buffer.userId = userId;
+                if (!buffer.dirty) {
+                    buffer.dirty = true;
+                    buffer.firstDirtyAt = now;
+                }
+                scheduleFlush(buffer, false);
+                return Mono.just(accepted(buffer));
+            }
+        });
+    }
+
+    @Override
+    public Mono<SceneAutosaveResponse> flush(String sceneId, String userId) {
+        SceneWriteBuffer buffer = buffers.get(sceneId);
+        if (buffer == null) {
+            return Mono.empty();
+        }
+        if (!buffer.isAuthor(userId)) {
+            return Mono.error(new AccessDeniedException("用户无权编辑该场景"));
+        }
+        return persist(buffer, true);
+    }
+
+    /**
+     * 定期回收已落库且长时间无输入的缓冲
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdleBuffers() {
+        long threshold = System.currentTimeMillis() - config.getIdleTimeout().toMillis();
+        int removed = 0;
+        for (SceneWriteBuffer buffer : buffers.values()) {
+            synchronized (buffer) {
+                if (!buffer.dirty && !buffer.flushing && buffer.lastEditAt < threshold) {
+                    close(buffer);
+                    removed++;
+                }
+            }
+        }
+        if (removed > 0) {
+            log.debug("回收空闲自动保存缓冲: {} 个, 剩余 {} 个", removed, buffers.size());
+        }
+    }
+
+    @PreDestroy
+    public void flushAllOnShutdown() {
+        try {
+            Flux.fromIterable(buffers.values())
+                    .flatMap(buffer -> persist(buffer, true))
+                    .then()
+                    .block(Duration.ofSeconds(10));
+        } catch (Exception e) {
+            log.warn("关闭前落库自动保存缓冲失败: {}", e.getMessage());
+        }
+    }
+
+    private Mono<SceneWriteBuffer> getBuffer(String sceneId) {
+        SceneWriteBuffer existing = buffers.get(sceneId);
+        if (existing != null) {
+            return Mono.just(existing);
+        }
+        // 只取最后一条历史记录用于判断快照间隔，不加载向量
+        Query query = Query.query(Criteria.where("_id").is(sceneId));
+        query.fields().slice("history", -1).exclude("vectorEmbedding");
+        return mongoTemplate.findOne(query, Scene.class)
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("场景不存在: " + sceneId)))
+                .flatMap(scene -> findAuthorId(scene.getNovelId()).map(authorId -> {
+                    SceneWriteBuffer loaded = new SceneWriteBuffer(scene, authorId, parseDocument(scene.getContent()),
+                            isOpsObject(scene.getContent()), metadataService.calculateWordCount(scene.getContent()));
+                    SceneWriteBuffer winner = buffers.putIfAbsent(sceneId, loaded);
+                    return winner != null ? winner : loaded;
+                }));
+    }
+
+    /**
+     * 只读取小说的作者字段；小说不存在或没有作者时返回空字符串，任何用户都无法通过校验
+     */
+    private Mono<String> findAuthorId(String novelId) {
+        if (novelId == null) {
+            return Mono.just("");
+        }
+        Query query = Query.query(Criteria.where("_id").is(novelId));
+        query.fields().include("author");
+        return mongoTemplate.findOne(query, Novel.class)
+                .map(novel -> novel.getAuthor() != null && novel.getAuthor().getId() != null ? novel.getAuthor().getId() : "")
+                .defaultIfEmpty("");
+    }
+
+    /**
+     * 安排一次落库：去抖窗口与最长间隔取较早者。调用方须持有缓冲锁。
+     */
+    private void scheduleFlush(SceneWriteBuffer buffer, boolean immediate) {
+        if (buffer.flushing) {
+            // 当前落库完成后会检查 dirty 并重新安排
+            return;
+        }
+        if (buffer.flushTimer != null) {
+            buffer.flushTimer.dispose();
+        }
+        long now = System.currentTimeMillis();
+        long delay = 0;
+        if (!immediate) {
+            long untilMax = buffer.firstDirtyAt + config.getMaxDelay().toMillis() - now;
+            delay = Math.max(0, Math.min(config.getDebounce().toMillis(), untilMax));
+        }
+        // 落库失败后的退避期内，新的输入不会让重试提前
+        delay = Math.max(delay, buffer.retryNotBefore - now);
+        buffer.flushTimer = Mono.delay(Duration.ofMillis(delay))
+                .subscribe(tick -> persist(buffer, false).subscribe(
+                        result -> { },
+                        error -> log.error("自动保存落库失败: sceneId={}", buffer.sceneId, error)));
+    }
+
+    private Mono<SceneAutosaveResponse> persist(SceneWriteBuffer buffer, boolean explicit) {
+        final String content;
+        final int targetVersion;
+        final int expectedVersion;
+        final int wordCountBefore;
+        final boolean snapshotDue;
+        final String previousContent;
+        final String userId;
+        synchronized (buffer) {
+            if (buffer.closed || !buffer.dirty || buffer.flushing) {
+                if (buffer.flushing && explicit) {
+                    buffer.flushRequested = true;
+                }
+                return Mono.just(accepted(buffer));
+            }
+            if (buffer.flushTimer != null) {
+                buffer.flushTimer.dispose();
+                buffer.flushTimer = null;
+            }
+            content = serialize(buffer);
+            targetVersion = buffer.version;
+            expectedVersion = buffer.persistedVersion;
+            wordCountBefore = buffer.persistedWordCount;
+            previousContent = buffer.persistedContent;
+            userId = buffer.userId;
+            snapshotDue = buffer.lastSnapshotAt == null
+                    || Duration.between(buffer.lastSnapshotAt, LocalDateTime.now()).compareTo(config.getSnapshotInterval()) >= 0;
+            buffer.dirty = false;
+            buffer.flushing = true;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int wordCountAfter = metadataService.calculateWordCount(content);
+        Update update = new Update()
+                .set("content", content)
+                .set("wordCount", wordCountAfter)
+                .set("version", targetVersion)
+                .set("updatedAt", now)
+                .set("lastEdited", now);
+        if (snapshotDue) {
+            HistoryEntry entry = HistoryEntry.builder()
+                    .content(previousContent)
+                    .updatedAt(now)
+                    .updatedBy(userId != null ? userId : "system")
+                    .reason("自动保存快照")
+                    .build();
+            Update.PushOperatorBuilder push = update.push("history");
+            if (config.getMaxHistoryEntries() > 0) {
+                push.slice(-config.getMaxHistoryEntries());
+            }
+            push.each(entry);
+        }
+        Query query = Query.query(Criteria.where("_id").is(buffer.sceneId).and("version").is(expectedVersion));
+
+        return mongoTemplate.updateFirst(query, update, Scene.class)
+                .map(result -> {
+                    synchronized (buffer) {
+                        buffer.flushing = false;
+                        if (result.getMatchedCount() == 0) {
+                            // 场景在别处被整篇更新/恢复/删除，缓冲基线已失效
+                            log.warn("自动保存基线已变化，丢弃写缓冲: sceneId={}, expectedVersion={}, bufferedVersion={}",
+                                    buffer.sceneId, expectedVersion, targetVersion);
+                            close(buffer);
+                            return SceneAutosaveResponse.builder()
+                                    .sceneId(buffer.sceneId)
+                                    .version(targetVersion)
+                                    .conflict(true)
+                                    .build();
+                        }
+                        buffer.persistedVersion = targetVersion;
+                        buffer.persistedContent = content;
+                        buffer.persistedWordCount = wordCountAfter;
+                        buffer.failedFlushes = 0;
+                        buffer.retryNotBefore = 0;
+                        if (snapshotDue) {
+                            buffer.lastSnapshotAt = now;
+                        }
+                        if (buffer.dirty) {
+                            buffer.firstDirtyAt = System.currentTimeMillis();
+                            scheduleFlush(buffer, buffer.flushRequested);
+                        }
+                        buffer.flushRequested = false;
+                    }
+                    afterPersist(buffer, content, wordCountBefore, wordCountAfter, userId);
+                    return accepted(buffer);
+                })
+                .onErrorResume(e -> {
+                    synchronized (buffer) {
+                        buffer.flushing = false;
+                        if (!buffer.closed) {
+                            buffer.dirty = true;
+                            buffer.failedFlushes++;
+                            long backoff = retryBackoff(buffer.failedFlushes);
+                            buffer.retryNotBefore = System.currentTimeMillis() + backoff;
+                            log.error("自动保存写入失败，{} 毫秒后重试: sceneId={}, 连续失败={}, error={}",
+                                    backoff, buffer.sceneId, buffer.failedFlushes, e.getMessage());
+                            scheduleFlush(buffer, false);
+                        }
+                    }
+                    return Mono.error(e);
+                });
+    }
+
+    /**
+     * 第 n 次连续失败后的重试间隔：retryBackoff × 2^(n-1)，不超过 maxRetryBackoff
+     */
+    private long retryBackoff(int failures) {
+        long base = Math.max(1, config.getRetryBackoff().toMillis());
+        long max = config.getMaxRetryBackoff().toMillis();
+        int shift = Math.min(failures - 1, 20);
+        return Math.min(max, base << shift);
+    }
+
+    /**
+     * 落库后的附带工作：每个去抖窗口只触发一次，而不是每次按键一次
+     */
+    private void afterPersist(SceneWriteBuffer buffer, String content, int wordCountBefore, int wordCountAfter, String userId) {
+        Scene saved = Scene.builder()
+                .id(buffer.sceneId)
+                .novelId(buffer.novelId)
+                .chapterId(buffer.chapterId)
+                .title(buffer.title)
+                .content(content)
+                .wordCount(wordCountAfter)
+                .build();
+        metadataService.triggerNovelWordCountDelta(buffer.novelId, wordCountAfter - wordCountBefore);
+        fullTextSearchService.onSceneSaved(saved);
+        if (wordCountAfter != wordCountBefore) {
+            writingAnalyticsService.recordEvent(WritingEvent.builder()
+                    .userId(userId != null ? userId : "system")
+                    .novelId(buffer.novelId)
+                    .chapterId(buffer.chapterId)
+                    .sceneId(buffer.sceneId)
+                    .wordCountBefore(wordCountBefore)
+                    .wordCountAfter(wordCountAfter)
+                    .deltaWords(wordCountAfter - wordCountBefore)
+                    .source("MANUAL")
+                    .reason("autosave")
+                    .timestamp(LocalDateTime.now())
+                    .build())
+                    .subscribe(v -> { }, e -> log.debug("记录自动保存写作事件失败: {}", e.getMessage()));
+        }
+    }
+
+    private void close(SceneWriteBuffer buffer) {
+        buffer.closed = true;
+        if (buffer.flushTimer != null) {
+            buffer.flushTimer.dispose();
+            buffer.flushTimer = null;
+        }
+        buffers.remove(buffer.sceneId, buffer);
+    }
+
+    private SceneAutosaveResponse accepted(SceneWriteBuffer buffer) {
+        return SceneAutosaveResponse.builder()
+                .sceneId(buffer.sceneId)
+                .version(buffer.version)
+                .pending(buffer.dirty || buffer.flushing)
+                .build();
+    }
+
+    /**
+     * 补丁作用的原文档长度（retain + delete）
+     */
+    private static int baseLength(Delta change) {
+        int length = 0;
+        for (Op op : change.getOps()) {
+            if (op.isRetain() || op.isDelete()) {
+                length += op.length();
+            }
+        }
+        return length;
+    }
+
+    private static boolean isOpsObject(String content) {
+        return content != null && content.trim().startsWith("{");
+    }
+
+    /**
+     * 将场景内容解析为 Delta 文档；兼容 {"ops":[...]}、[...] 与纯文本
+     */
+    private Delta parseDocument(String content) {
+        if (content == null || content.isBlank()) {
+            return new Delta().insert("\n");
+        }
+        String trimmed = content.trim();
+        try {
+            if (trimmed.startsWith("{") && trimmed.contains("\"ops\"")) {
+                return objectMapper.readValue(trimmed, Delta.class);
+            }
+            if (trimmed.startsWith("[")) {
+                return new Delta(new OpList(objectMapper.readValue(trimmed, OP_LIST_TYPE)));
+            }
+        } catch (Exception e) {
+            log.warn("场景内容不是有效的Delta JSON，按纯文本处理: {}", e.getMessage());
+        }
+        try {
+            return new Delta(new OpList(objectMapper.readValue(RichTextUtil.plainTextToDeltaJson(content), OP_LIST_TYPE)));
+        } catch (Exception e) {
+            return new Delta().insert(content + "\n");
+        }
+    }
+
+    private String serialize(SceneWriteBuffer buffer) {
+        try {
+            return objectMapper.writeValueAsString(buffer.opsObject ? buffer.document : buffer.document.getOps());
+        } catch (Exception e) {
+            throw new IllegalStateException("序列化场景Delta失败: " + buffer.sceneId, e);
+        }
+    }
+
+    /**
+     * 单个场景的写缓冲，所有可变字段在持有该对象锁时访问
+     */
+    private static final class SceneWriteBuffer {
+        final String sceneId;
+        final String novelId;
+        final String chapterId;
+        final String title;
+        /** 小说作者ID；读取不到作者时为空字符串 */
+        final String authorId;
+        /** 原内容是否为 {"ops":[...]} 形式，落库时保持原格式 */
+        final boolean opsObject;
+
+        Delta document;
+        int version;
+        int persistedVersion;
+        String persistedContent;
+        int persistedWordCount;
+        LocalDateTime lastSnapshotAt;
+        String userId;
+
+        boolean dirty;
+        boolean flushing;
+        boolean flushRequested;
+        boolean closed;
+        long firstDirtyAt;
+        long lastEditAt;
+        /** 连续落库失败次数及下次允许重试的时间，成功后清零 */
+        int failedFlushes;
+        long retryNotBefore;
+        Disposable flushTimer;
+
+        SceneWriteBuffer(Scene scene, String authorId, Delta document, boolean opsObject, int wordCount) {
+            this.sceneId = scene.getId();
+            this.novelId = scene.getNovelId();
+            this.chapterId = scene.getChapterId();
+            this.title = scene.getTitle();
+            this.authorId = authorId;
+            this.opsObject = opsObject;
+            this.document = document;
+            this.version = scene.getVersion();
+            this.persistedVersion = scene.getVersion();
+            this.persistedContent = scene.getContent();
+            this.persistedWordCount = wordCount;
+            List<HistoryEntry> history = scene.getHistory();
+            this.lastSnapshotAt = history == null || history.isEmpty() ? null : history.get(history.size() - 1).getUpdatedAt();
+            this.lastEditAt = System.currentTimeMillis();
+        }
+
+        boolean isAuthor(String userId) {
+            return userId != null && !authorId.isEmpty() && authorId.equals(userId);
+        }
+    }
+}
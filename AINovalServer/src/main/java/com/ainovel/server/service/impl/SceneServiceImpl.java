@@ -21,6 +21,7 @@ import com.ainovel.server.domain.model.SceneVersionDiff;
 import com.ainovel.server.repository.SceneRepository;
 import com.ainovel.server.service.IndexingService;
 import com.ainovel.server.service.MetadataService;
+import com.ainovel.server.service.NovelFullTextSearchService;
 import com.ainovel.server.service.SceneService;
 import com.github.difflib.DiffUtils;
 import com.github.difflib.UnifiedDiffUtils;
@@ -45,6 +46,7 @@ public class SceneServiceImpl implements SceneService {
     private final SceneRepository sceneRepository;
     private final MetadataService metadataService;
     private final com.ainovel.server.service.analytics.WritingAnalyticsService writingAnalyticsService;
+    private final NovelFullTextSearchService fullTextSearchService;
 
     @Lazy
     @Autowired
@@ -106,6 +108,15 @@ public class SceneServiceImpl implements SceneService {
                 .map(this::ensureQuillFormat);  // 🔥 读取时确保格式
     }
 
+    @Override
+    public Flux<Scene> findScenesByChapterIdsOrdered(List<String> chapterIds) {
+        if (chapterIds == null || chapterIds.isEmpty()) {
+            return Flux.empty();
+        }
+        return sceneRepository.findByChapterIdInOrderBySequenceAsc(chapterIds)
+                .map(this::ensureQuillFormat);  // 🔥 读取时确保格式
+    }
+
     @Override
     public Flux<Scene> findScenesByNovelId(String novelId) {
         return sceneRepository.findByNovelId(novelId)
@@ -162,6 +173,7 @@ public class SceneServiceImpl implements SceneService {
                                 .doOnSuccess(savedScene -> {
                                     // 异步触发小说元数据更新
                                     metadataService.triggerNovelMetadataUpdate(savedScene).subscribe();
+                                    fullTextSearchService.onSceneSaved(savedScene);
                                 });
                     });
         }
@@ -170,6 +182,7 @@ public class SceneServiceImpl implements SceneService {
                 .doOnSuccess(savedScene -> {
                     // 异步触发小说元数据更新
                     metadataService.triggerNovelMetadataUpdate(savedScene).subscribe();
+                    fullTextSearchService.onSceneSaved(savedScene);
                     // 记录写作事件（新建场景，delta=after-0）
                     try {
                         int after = savedScene.getWordCount() != null ? savedScene.getWordCount() : 0;
@@ -247,6 +260,7 @@ public class SceneServiceImpl implements SceneService {
                                 .doOnNext(savedScene -> {
                                     // 对每个保存的场景异步触发小说元数据更新
                                     metadataService.triggerNovelMetadataUpdate(savedScene).subscribe();
+                                    fullTextSearchService.onSceneSaved(savedScene);
                                 });
                     });
 
@@ -311,6 +325,7 @@ public class SceneServiceImpl implements SceneService {
                             .doOnSuccess(savedScene -> {
                                 // 异步触发小说元数据更新
                                 metadataService.triggerNovelMetadataUpdate(savedScene).subscribe();
+                                fullTextSearchService.onSceneSaved(savedScene);
                                 // 若内容变化，记录写作事件
                                 try {
                                     boolean contentChanged = !Objects.equals(finalExistingScene.getContent(), updatedScene.getContent());
@@ -368,6 +383,7 @@ public class SceneServiceImpl implements SceneService {
                 .flatMap(scene -> {
                     String novelId = scene.getNovelId();
                     return sceneRepository.delete(scene)
+                            .doOnSuccess(v -> fullTextSearchService.onSceneDeleted(novelId, scene.getId()))
                             .then(Mono.defer(() -> {
                                 // 触发小说元数据更新（如果有novelId）
                                 if (novelId != null && !novelId.isEmpty()) {
@@ -380,7 +396,13 @@ public class SceneServiceImpl implements SceneService {
 
     @Override
     public Mono<Void> deleteScenesByNovelId(String novelId) {
-        return sceneRepository.deleteByNovelId(novelId);
+        // 场景已全部删除，直接删除全文索引，下次检索时再从数据库构建
+        return sceneRepository.deleteByNovelId(novelId)
+                .then(fullTextSearchService.delete(novelId)
+                        .onErrorResume(e -> {
+                            log.warn("删除小说全文索引失败: novelId={}, error={}", novelId, e.getMessage());
+                            return Mono.empty();
+                        }));
     }
 
     @Override
@@ -397,6 +419,7 @@ public class SceneServiceImpl implements SceneService {
                     String novelId = scenes.get(0).getNovelId();
 
                     return sceneRepository.deleteByChapterId(chapterId)
+                            .doOnSuccess(v -> scenes.forEach(s -> fullTextSearchService.onSceneDeleted(novelId, s.getId())))
                             .then(Mono.defer(() -> {
                                 // 触发小说元数据更新
                                 if (novelId != null && !novelId.isEmpty()) {
@@ -465,6 +488,7 @@ public class SceneServiceImpl implements SceneService {
                             .doOnSuccess(savedScene -> {
                                 // 异步触发小说元数据更新
                                 metadataService.triggerNovelMetadataUpdate(savedScene).subscribe();
+                                fullTextSearchService.onSceneSaved(savedScene);
                                 try {
                                     // 记录写作事件
                                     com.ainovel.server.domain.model.analytics.WritingEvent event =
@@ -545,6 +569,7 @@ public class SceneServiceImpl implements SceneService {
                             .doOnSuccess(savedScene -> {
                                 // 异步触发小说元数据更新
                                 metadataService.triggerNovelMetadataUpdate(savedScene).subscribe();
+                                fullTextSearchService.onSceneSaved(savedScene);
                             });
                 });
     }
@@ -704,6 +729,7 @@ public class SceneServiceImpl implements SceneService {
     public Mono<Boolean> deleteSceneById(String id) {
         return sceneRepository.findById(id)
                 .flatMap(scene -> sceneRepository.delete(scene)
+                        .doOnSuccess(v -> fullTextSearchService.onSceneDeleted(scene.getNovelId(), scene.getId()))
                         .thenReturn(true))
                 .defaultIfEmpty(false);
     }
@@ -751,9 +777,9 @@ public class SceneServiceImpl implements SceneService {
                     return sceneRepository.findById(scene.getId())
                             .switchIfEmpty(Mono.error(new ResourceNotFoundException("场景不存在: " + scene.getId())))
                             .flatMap(existingScene -> {
-                                // 保留原始创建时间和版本
+                                // 保留原始创建时间，版本号递增（自动保存按版本号判断场景是否被整篇改写）
                                 scene.setCreatedAt(existingScene.getCreatedAt());
-                                scene.setVersion(existingScene.getVersion());
+                                scene.setVersion(existingScene.getVersion() + 1);
                                 
                                 // 设置更新时间
                                 scene.setUpdatedAt(now);
@@ -762,6 +788,7 @@ public class SceneServiceImpl implements SceneService {
                                 return sceneRepository.save(scene);
                             });
                 })
+                .doOnNext(fullTextSearchService::onSceneSaved)
                 .collectList()
                 .doOnSuccess(savedScenes -> {
                     // 如果有相同小说的场景，只触发一次元数据更新
@@ -2,6 +2,7 @@ package com.ainovel.server.service.impl;
 
 import java.time.LocalDateTime;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import com.ainovel.server.domain.model.PaymentOrder;
@@ -12,6 +13,7 @@ import com.ainovel.server.domain.model.UserSubscription.SubscriptionStatus;
 import com.ainovel.server.repository.SubscriptionPlanRepository;
 import com.ainovel.server.repository.UserRepository;
 import com.ainovel.server.repository.UserSubscriptionRepository;
+import com.ainovel.server.security.UserPrincipalChangedEvent;
 import com.ainovel.server.service.SubscriptionAssignmentService;
 
 import lombok.RequiredArgsConstructor;
@@ -26,6 +28,7 @@ public class SubscriptionAssignmentServiceImpl implements SubscriptionAssignment
     private final UserSubscriptionRepository userSubscriptionRepository;
     private final SubscriptionPlanRepository planRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public Mono<Void> assignSubscription(PaymentOrder order) {
@@ -86,6 +89,8 @@ public class SubscriptionAssignmentServiceImpl implements SubscriptionAssignment
                     return user;
                 })
                 .flatMap(userRepository::save)
+                // 角色与订阅变化会影响配额阈值和认证主体缓存
+                .doOnNext(u -> eventPublisher.publishEvent(new UserPrincipalChangedEvent(u.getId(), u.getTokenVersion())))
                 .doOnSuccess(u -> log.info("订阅授予成功: userId={}, plan={}, subscriptionId={}", u.getId(), plan.getPlanName(), subscription.getId())));
     }
 }
@@ -3,12 +3,14 @@ package com.ainovel.server.service.impl;
 import java.time.LocalDateTime;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.ainovel.server.domain.model.SubscriptionPlan;
 import com.ainovel.server.domain.model.SubscriptionPlan.BillingCycle;
 import com.ainovel.server.repository.SubscriptionPlanRepository;
+import com.ainovel.server.security.UserPrincipalChangedEvent;
 import com.ainovel.server.service.SubscriptionPlanService;
 
 import reactor.core.publisher.Flux;
@@ -16,15 +18,20 @@ import reactor.core.publisher.Mono;
 
 /**
  * 订阅计划服务实现
+ * 已有计划的修改、删除和启停会改变订阅用户的功能项与角色，完成后发布全体用户的主体变更事件，
+ * 各节点的用户计划缓存随之失效。
  */
 @Service
 public class SubscriptionPlanServiceImpl implements SubscriptionPlanService {
     
     private final SubscriptionPlanRepository subscriptionPlanRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Autowired
-    public SubscriptionPlanServiceImpl(SubscriptionPlanRepository subscriptionPlanRepository) {
+    public SubscriptionPlanServiceImpl(SubscriptionPlanRepository subscriptionPlanRepository,
+                                       ApplicationEventPublisher eventPublisher) {
         this.subscriptionPlanRepository = subscriptionPlanRepository;
+        this.eventPublisher = eventPublisher;
     }
     
     @Override
@@ -62,7 +69,8 @@ public class SubscriptionPlanServiceImpl implements SubscriptionPlanService {
                         return updatePlanFields(existingPlan, plan);
                     }
                 })
-                .flatMap(subscriptionPlanRepository::save);
+                .flatMap(subscriptionPlanRepository::save)
+                .doOnSuccess(saved -> publishPlanChanged());
     }
     
     private Mono<SubscriptionPlan> updatePlanFields(SubscriptionPlan existingPlan, SubscriptionPlan newPlan) {
@@ -92,7 +100,12 @@ public class SubscriptionPlanServiceImpl implements SubscriptionPlanService {
                 .flatMap(plan -> {
                     // TODO: 检查是否有用户正在使用此计划
                     return subscriptionPlanRepository.deleteById(id);
-                });
+                })
+                .doOnSuccess(v -> publishPlanChanged());
+    }
+    
+    private void publishPlanChanged() {
+        eventPublisher.publishEvent(UserPrincipalChangedEvent.allUsers());
     }
     
     @Override
@@ -129,7 +142,8 @@ public class SubscriptionPlanServiceImpl implements SubscriptionPlanService {
                     plan.setActive(active);
                     plan.setUpdatedAt(LocalDateTime.now());
                     return subscriptionPlanRepository.save(plan);
-                });
+                })
+                .doOnSuccess(saved -> publishPlanChanged());
     }
     
     @Override
@@ -5,9 +5,9 @@ import com.ainovel.server.domain.model.AIPromptPreset;
 import com.ainovel.server.dto.PresetPackage;
 import com.ainovel.server.repository.AIPromptPresetRepository;
 import com.ainovel.server.service.UnifiedPresetAggregationService;
+import com.ainovel.server.service.cache.PromptPackageCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -31,13 +31,21 @@ public class UnifiedPresetAggregationServiceImpl implements UnifiedPresetAggrega
     @Autowired
     private AIPromptPresetRepository presetRepository;
 
+    @Autowired
+    private PromptPackageCache promptPackageCache;
+
     // 缓存统计
     private final Map<String, AtomicLong> cacheHitCounts = new ConcurrentHashMap<>();
     private final Map<String, AtomicLong> cacheMissCounts = new ConcurrentHashMap<>();
 
     @Override
-    //@Cacheable(value = "preset-packages", key = "#featureType.name() + ':' + #userId + ':' + (#novelId ?: 'global')")
     public Mono<PresetPackage> getCompletePresetPackage(AIFeatureType featureType, String userId, String novelId) {
+        return promptPackageCache.get(userId, PromptPackageCache.PRESET_PACKAGE,
+                featureType.name() + ":" + (novelId != null ? novelId : "global"),
+                () -> loadCompletePresetPackage(featureType, userId, novelId));
+    }
+
+    private Mono<PresetPackage> loadCompletePresetPackage(AIFeatureType featureType, String userId, String novelId) {
         log.info("获取完整预设包: featureType={}, userId={}, novelId={}", featureType, userId, novelId);
         
         String cacheKey = featureType.name() + ":" + userId;
@@ -207,16 +215,18 @@ public class UnifiedPresetAggregationServiceImpl implements UnifiedPresetAggrega
         
         cacheHitCounts.clear();
         cacheMissCounts.clear();
-        
-        // 这里应该调用 Spring Cache 的清除方法
-        // cacheManager.getCache("preset-packages").clear();
+        promptPackageCache.invalidateAll();
         
         return Mono.just("缓存清除完成");
     }
 
     @Override
-    @Cacheable(value = "all-user-preset-data", key = "#userId + ':' + (#novelId ?: 'global')")
     public Mono<AllUserPresetData> getAllUserPresetData(String userId, String novelId) {
+        return promptPackageCache.get(userId, PromptPackageCache.PRESET_ALL, novelId != null ? novelId : "global",
+                () -> loadAllUserPresetData(userId, novelId));
+    }
+
+    private Mono<AllUserPresetData> loadAllUserPresetData(String userId, String novelId) {
         log.info("🚀 获取用户所有预设聚合数据: userId={}, novelId={}", userId, novelId);
         
         long startTime = System.currentTimeMillis();
@@ -12,8 +12,6 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 
 import com.ainovel.server.domain.model.AIFeatureType;
@@ -21,6 +19,7 @@ import com.ainovel.server.domain.model.EnhancedUserPromptTemplate;
 import com.ainovel.server.service.EnhancedUserPromptService;
 import com.ainovel.server.service.UnifiedPromptAggregationService;
 import com.ainovel.server.service.UnifiedPromptService;
+import com.ainovel.server.service.cache.PromptPackageCache;
 import com.ainovel.server.service.prompt.AIFeaturePromptProvider;
 import com.ainovel.server.service.prompt.PromptProviderFactory;
 import com.ainovel.server.service.prompt.impl.VirtualThreadPlaceholderResolver;
@@ -52,6 +51,9 @@ public class UnifiedPromptAggregationServiceImpl implements UnifiedPromptAggrega
     
     @Autowired
     private PlaceholderDescriptionService placeholderDescriptionService;
+    
+    @Autowired
+    private PromptPackageCache promptPackageCache;
 
     // 缓存统计
     private final Map<String, Long> cacheHitCounts = new ConcurrentHashMap<>();
@@ -59,8 +61,12 @@ public class UnifiedPromptAggregationServiceImpl implements UnifiedPromptAggrega
     private LocalDateTime lastCacheCleanTime = LocalDateTime.now();
 
     @Override
-    @Cacheable(value = "promptPackages", key = "#featureType + ':' + #userId + ':' + #includePublic")
     public Mono<PromptPackage> getCompletePromptPackage(AIFeatureType featureType, String userId, boolean includePublic) {
+        return promptPackageCache.get(userId, PromptPackageCache.PROMPT_PACKAGE, featureType + ":" + includePublic,
+                () -> loadCompletePromptPackage(featureType, userId, includePublic));
+    }
+
+    private Mono<PromptPackage> loadCompletePromptPackage(AIFeatureType featureType, String userId, boolean includePublic) {
         long startTime = System.currentTimeMillis();
         log.info("开始获取完整提示词包: featureType={}, userId={}, includePublic={}", 
                 featureType, userId, includePublic);
@@ -87,8 +93,12 @@ public class UnifiedPromptAggregationServiceImpl implements UnifiedPromptAggrega
     }
 
     @Override
-    @Cacheable(value = "userPromptOverviews", key = "#userId")
     public Mono<UserPromptOverview> getUserPromptOverview(String userId) {
+        return promptPackageCache.get(userId, PromptPackageCache.PROMPT_OVERVIEW, "all",
+                () -> loadUserPromptOverview(userId));
+    }
+
+    private Mono<UserPromptOverview> loadUserPromptOverview(String userId) {
         log.info("获取用户提示词概览: userId={}", userId);
         
         // 并行获取各种统计信息
@@ -168,18 +178,18 @@ public class UnifiedPromptAggregationServiceImpl implements UnifiedPromptAggrega
     /**
      * 清除所有提示词包缓存
      */
-    @CacheEvict(value = {"promptPackages", "userPromptOverviews"}, allEntries = true)
     public Mono<String> clearAllCaches() {
         log.info("清除所有提示词聚合缓存");
+        promptPackageCache.invalidateAll();
         return Mono.just("缓存已清除");
     }
 
     /**
      * 清除指定用户的缓存
      */
-    @CacheEvict(value = {"promptPackages", "userPromptOverviews"}, allEntries = true)
     public Mono<String> clearUserCache(String userId) {
         log.info("清除用户缓存: userId={}", userId);
+        promptPackageCache.invalidateUser(userId);
         return Mono.just("用户缓存已清除");
     }
 
@@ -58,6 +58,7 @@ import com.ainovel.server.service.prompt.AIFeaturePromptProvider;
 import com.ainovel.server.service.prompt.impl.VirtualThreadPlaceholderResolver;
 import com.ainovel.server.service.prompt.impl.ContextualPlaceholderResolver;
 import com.ainovel.server.service.billing.BillingKeys;
+import com.ainovel.server.service.stream.StreamCoalescer;
 
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
@@ -230,8 +231,9 @@ public class UniversalAIServiceImpl implements UniversalAIService {
         return buildAIRequest(request)
                 .flatMapMany(aiRequest -> {
                     // 根据请求类型调用相应的流式AI服务
-                    return callAIServiceStream(aiRequest, request.getRequestType())
-                            .filter(this::isValidStreamContent) // 先过滤掉无效内容
+                    // 先过滤掉无效内容，再把相邻分片合并后下发（首个分片不延迟）
+                    return StreamCoalescer.coalesceText(callAIServiceStream(aiRequest, request.getRequestType())
+                                    .filter(this::isValidStreamContent))
                             .map(content -> convertToStreamResponseDto(content, request.getRequestType()));
                 })
                 .doOnComplete(() -> log.info("流式通用AI请求完成"))
@@ -1979,8 +1981,11 @@ public class UniversalAIServiceImpl implements UniversalAIService {
 
     /**
      * 计算配置哈希值
+     *
+     * 包级可见：公开入口 generateAndStorePrompt 会紧接着查询和写入预设仓库，
+     * UniversalAIServiceBenchmark 需要绕开这些 I/O 单独测量哈希本身的开销。
      */
-    private String calculateConfigHash(UniversalAIRequestDto request) {
+    String calculateConfigHash(UniversalAIRequestDto request) {
         try {
             // 🚀 修复：添加请求参数验证
             if (request == null) {
@@ -2468,8 +2473,11 @@ public class UniversalAIServiceImpl implements UniversalAIService {
 
     /**
      * 纯计算：根据 ContainIndex 去重，无任何 I/O。
+     *
+     * 包级可见：外层的 preprocessAndDeduplicateSelectionsAsync 依赖 NovelService 读取包含索引，
+     * UniversalAIServiceBenchmark 直接传入构造好的索引，只测量去重本身。
      */
-    private List<UniversalAIRequestDto.ContextSelectionDto> preprocessWithIndex(
+    List<UniversalAIRequestDto.ContextSelectionDto> preprocessWithIndex(
             List<UniversalAIRequestDto.ContextSelectionDto> selections,
             NovelStructureCache.ContainIndex index) {
 
@@ -1,9 +1,10 @@
 package com.ainovel.server.service.impl;
 
-import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import com.ainovel.server.domain.model.AIFeatureType;
@@ -12,19 +13,23 @@ import com.ainovel.server.domain.model.User;
 import com.ainovel.server.repository.SubscriptionPlanRepository;
 import com.ainovel.server.repository.UserRepository;
 import com.ainovel.server.repository.NovelRepository;
+import com.ainovel.server.config.UsageQuotaConfig;
+import com.ainovel.server.security.UserPrincipalChangedEvent;
 import com.ainovel.server.service.UsageQuotaService;
+import com.ainovel.server.service.quota.SlidingWindowQuotaCounter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
 
 /**
- * 简化版配额服务实现：
- * - 从订阅计划 features 中读取阈值
- * - 使用内存级每日计数做演示（生产建议使用Mongo聚合或Redis计数）
+ * 配额服务实现：
+ * - 从订阅计划 features 中读取阈值（按用户缓存，用户信息变更时失效，计划定义变更时全部失效；
+ *   其他节点的变更经认证主体失效广播转发为本地事件）
+ * - 使用集群共享的滑动窗口计数（见 {@link SlidingWindowQuotaCounter}）
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class UsageQuotaServiceImpl implements UsageQuotaService {
 
@@ -35,27 +40,35 @@ public class UsageQuotaServiceImpl implements UsageQuotaService {
     private final UserRepository userRepository;
     private final SubscriptionPlanRepository subscriptionPlanRepository;
     private final NovelRepository novelRepository;
-
-    // 演示用内存计数：key => userId:date:feature
-    private final Map<String, Integer> dailyCounters = new ConcurrentHashMap<>();
-    private final Map<String, Integer> importDailyCounters = new ConcurrentHashMap<>();
+    private final SlidingWindowQuotaCounter quotaCounter;
+
+    /** key=userId -> 订阅计划 features（无计划时为空 Map） */
+    private final Cache<String, Map<String, Object>> planFeatureCache;
+
+    public UsageQuotaServiceImpl(UserRepository userRepository,
+                                 SubscriptionPlanRepository subscriptionPlanRepository,
+                                 NovelRepository novelRepository,
+                                 SlidingWindowQuotaCounter quotaCounter,
+                                 UsageQuotaConfig quotaConfig) {
+        this.userRepository = userRepository;
+        this.subscriptionPlanRepository = subscriptionPlanRepository;
+        this.novelRepository = novelRepository;
+        this.quotaCounter = quotaCounter;
+        this.planFeatureCache = Caffeine.newBuilder()
+            .maximumSize(20000)
+            .expireAfterWrite(quotaConfig.getPlanCacheTtl())
+            .build();
+    }
 
     @Override
     public Mono<Boolean> isWithinLimit(String userId, AIFeatureType featureType) {
         return getUserPlanFeatureInt(userId, FEATURE_AI_DAILY_CALLS, Integer.MAX_VALUE)
-            .map(limit -> {
-                String key = dailyKey(userId, featureType.name());
-                int used = dailyCounters.getOrDefault(key, 0);
-                return used < limit;
-            });
+            .flatMap(limit -> quotaCounter.tryReserve(userId, featureType.name(), limit));
     }
 
     @Override
     public Mono<Void> incrementUsage(String userId, AIFeatureType featureType) {
-        return Mono.fromRunnable(() -> {
-            String key = dailyKey(userId, featureType.name());
-            dailyCounters.merge(key, 1, Integer::sum);
-        });
+        return quotaCounter.consume(userId, featureType.name());
     }
 
     @Override
@@ -75,34 +88,51 @@ public class UsageQuotaServiceImpl implements UsageQuotaService {
     @Override
     public Mono<Boolean> canImportNovel(String userId) {
         return getUserPlanFeatureInt(userId, FEATURE_IMPORT_DAILY, Integer.MAX_VALUE)
-            .map(limit -> {
-                String key = dailyKey(userId, "IMPORT");
-                int used = importDailyCounters.getOrDefault(key, 0);
-                return used < limit;
-            });
+            .flatMap(limit -> quotaCounter.tryReserve(userId, "IMPORT", limit));
     }
 
     @Override
     public Mono<Void> onNovelImported(String userId) {
-        return Mono.fromRunnable(() -> {
-            String key = dailyKey(userId, "IMPORT");
-            importDailyCounters.merge(key, 1, Integer::sum);
-        });
+        return quotaCounter.consume(userId, "IMPORT");
+    }
+
+    /**
+     * 用户角色/订阅等变更后丢弃该用户缓存的计划功能项；订阅计划定义变更时全部丢弃
+     */
+    @EventListener
+    public void onUserPrincipalChanged(UserPrincipalChangedEvent event) {
+        if (event.isAllUsers()) {
+            planFeatureCache.invalidateAll();
+        } else {
+            planFeatureCache.invalidate(event.userId());
+        }
     }
 
     private Mono<Integer> getUserPlanFeatureInt(String userId, String featureKey, int defaultValue) {
+        return getPlanFeatures(userId)
+            .map(features -> {
+                Object val = features.get(featureKey);
+                if (val instanceof Number n) return n.intValue();
+                if (val instanceof String s) {
+                    try { return Integer.parseInt(s); } catch (Exception ignored) {}
+                }
+                return defaultValue;
+            });
+    }
+
+    private Mono<Map<String, Object>> getPlanFeatures(String userId) {
+        Map<String, Object> cached = planFeatureCache.getIfPresent(userId);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
         return userRepository.findById(userId)
             .flatMap(user -> findUserPlan(user)
-                .map(plan -> {
-                    Object val = plan.getFeatures() != null ? plan.getFeatures().get(featureKey) : null;
-                    if (val instanceof Number n) return n.intValue();
-                    if (val instanceof String s) {
-                        try { return Integer.parseInt(s); } catch (Exception ignored) {}
-                    }
-                    return defaultValue;
-                })
-                .defaultIfEmpty(defaultValue))
-            .defaultIfEmpty(defaultValue);
+                // 缓存副本，之后对计划对象的修改不影响缓存
+                .map(plan -> plan.getFeatures() != null
+                    ? Collections.unmodifiableMap(new HashMap<>(plan.getFeatures()))
+                    : Collections.<String, Object>emptyMap()))
+            .defaultIfEmpty(Collections.emptyMap())
+            .doOnNext(features -> planFeatureCache.put(userId, features));
     }
 
     private Mono<SubscriptionPlan> findUserPlan(User user) {
@@ -117,10 +147,6 @@ public class UsageQuotaServiceImpl implements UsageQuotaService {
         }
         return Mono.empty();
     }
-
-    private String dailyKey(String userId, String feature) {
-        return userId + ":" + LocalDate.now() + ":" + feature;
-    }
 }
 
 
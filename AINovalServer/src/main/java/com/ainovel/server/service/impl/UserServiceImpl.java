@@ -3,10 +3,13 @@ package com.ainovel.server.service.impl;
 import java.time.LocalDateTime;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import com.ainovel.server.domain.model.User;
+import com.ainovel.server.security.PrincipalCache;
+import com.ainovel.server.security.UserPrincipalChangedEvent;
 import com.ainovel.server.repository.UserRepository;
 import com.ainovel.server.service.UserService;
 
@@ -20,11 +23,14 @@ public class UserServiceImpl implements UserService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder,
+            ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
     }
     
     @Override
@@ -89,12 +95,14 @@ public class UserServiceImpl implements UserService {
                     existingUser.setUpdatedAt(LocalDateTime.now());
                     return existingUser;
                 })
-                .flatMap(userRepository::save);
+                .flatMap(userRepository::save)
+                .doOnSuccess(this::publishPrincipalChanged);
     }
     
     @Override
     public Mono<Void> deleteUser(String id) {
-        return userRepository.deleteById(id);
+        return userRepository.deleteById(id)
+                .doOnSuccess(v -> eventPublisher.publishEvent(new UserPrincipalChangedEvent(id)));
     }
     
     @Override
@@ -102,10 +110,22 @@ public class UserServiceImpl implements UserService {
       return userRepository.findById(id)
           .map(existingUser -> {
             existingUser.setPassword(encodedPassword);
+            // 修改密码后旧令牌全部失效，已打开的长连接随之关闭
+            existingUser.setTokenVersion(PrincipalCache.tokenVersionOf(existingUser) + 1);
             existingUser.setUpdatedAt(LocalDateTime.now());
             return existingUser;
           })
-          .flatMap(userRepository::save);
+          .flatMap(userRepository::save)
+          .doOnSuccess(this::publishPrincipalChanged);
+    }
+
+    /**
+     * 用户信息变更后失效各节点的认证主体缓存
+     */
+    private void publishPrincipalChanged(User user) {
+        if (user != null) {
+            eventPublisher.publishEvent(new UserPrincipalChangedEvent(user.getId(), user.getTokenVersion()));
+        }
     }
     
 
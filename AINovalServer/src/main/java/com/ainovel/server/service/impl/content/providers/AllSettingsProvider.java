@@ -1,6 +1,8 @@
 package com.ainovel.server.service.impl.content.providers;
 
+import com.ainovel.server.domain.model.NovelSettingItem;
 import com.ainovel.server.service.NovelSettingService;
+import com.ainovel.server.service.setting.mention.SettingMentionIndex;
 import com.ainovel.server.service.impl.content.ContentProvider;
 import com.ainovel.server.service.impl.content.ContentResult;
 import com.ainovel.server.web.dto.request.UniversalAIRequestDto;
@@ -9,12 +11,15 @@ import com.ainovel.server.common.util.PromptXmlFormatter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * 全部设定提供器
- * 用于一次性获取该小说下的所有设定内容，作为通用上下文选择项
+ * 用于一次性获取该小说下的所有设定内容，作为通用上下文选择项。
+ * 有输入文本时按名称/别名提及检测结果筛选：aiContextTracking=detected 的设定仅在被提及时纳入，
+ * 被提及的设定排在前面。
  */
 @Slf4j
 @Component
@@ -28,6 +33,9 @@ public class AllSettingsProvider implements ContentProvider {
     @Autowired
     private PromptXmlFormatter promptXmlFormatter;
 
+    @Autowired
+    private SettingMentionIndex settingMentionIndex;
+
     @Override
     public Mono<ContentResult> getContent(String id, UniversalAIRequestDto request) {
         String targetNovelId = request != null ? request.getNovelId() : null;
@@ -36,8 +44,9 @@ public class AllSettingsProvider implements ContentProvider {
             return Mono.just(new ContentResult("", TYPE_ALL_SETTINGS, id));
         }
 
-        return novelSettingService
-                .getNovelSettingItems(targetNovelId, null, null, null, null, null, Pageable.unpaged())
+        String mentionText = request.getSelectedText() != null && !request.getSelectedText().isEmpty()
+                ? request.getSelectedText() : request.getPrompt();
+        return selectSettings(targetNovelId, mentionText)
                 .map(promptXmlFormatter::formatSettingWithoutId)
                 .collectList()
                 .map(list -> String.join("\n", list))
@@ -58,8 +67,8 @@ public class AllSettingsProvider implements ContentProvider {
             return Mono.just("");
         }
 
-        return novelSettingService
-                .getNovelSettingItems(novelId, null, null, null, null, null, Pageable.unpaged())
+        Object input = parameters != null ? parameters.get("input") : null;
+        return selectSettings(novelId, input instanceof String ? (String) input : null)
                 .map(promptXmlFormatter::formatSettingWithoutId)
                 .collectList()
                 .map(list -> String.join("\n", list))
@@ -83,6 +92,27 @@ public class AllSettingsProvider implements ContentProvider {
                 .reduce(0, Integer::sum)
                 .onErrorReturn(0);
     }
-}
 
+    /**
+     * 按提及检测结果选择设定：never/dont_include 始终不纳入，detected 仅在文本中被提及时纳入。
+     * 没有输入文本时无法检测，返回除 never/dont_include 外的全部设定。
+     */
+    private Flux<NovelSettingItem> selectSettings(String novelId, String mentionText) {
+        Flux<NovelSettingItem> all = novelSettingService
+                .getNovelSettingItems(novelId, null, null, null, null, null, Pageable.unpaged())
+                .filter(item -> !isExcluded(item));
+        if (mentionText == null || mentionText.isBlank()) {
+            return all;
+        }
+        return settingMentionIndex.detectMentions(novelId, mentionText)
+                .flatMapMany(mentions -> all
+                        .filter(item -> !"detected".equals(item.getAiContextTracking()) || mentions.containsKey(item.getId()))
+                        .collectList()
+                        .flatMapMany(items -> Flux.fromIterable(SettingMentionIndex.sortByMentions(items, mentions))));
+    }
 
+    private static boolean isExcluded(NovelSettingItem item) {
+        String tracking = item.getAiContextTracking();
+        return "never".equals(tracking) || "dont_include".equals(tracking);
+    }
+}
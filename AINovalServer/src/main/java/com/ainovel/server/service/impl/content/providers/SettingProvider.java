@@ -4,6 +4,7 @@ import com.ainovel.server.service.impl.content.ContentProvider;
 import com.ainovel.server.service.impl.content.ContentResult;
 import com.ainovel.server.web.dto.request.UniversalAIRequestDto;
 import com.ainovel.server.service.NovelSettingService;
+import com.ainovel.server.service.setting.mention.SettingMentionIndex;
 import com.ainovel.server.common.util.PromptXmlFormatter;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +27,9 @@ public class SettingProvider implements ContentProvider {
     @Autowired
     private PromptXmlFormatter promptXmlFormatter;
 
+    @Autowired
+    private SettingMentionIndex settingMentionIndex;
+
     @Override
     public Mono<ContentResult> getContent(String id, UniversalAIRequestDto request) {
         // 先判断是否为设定组
@@ -45,7 +49,11 @@ public class SettingProvider implements ContentProvider {
         // 按设定类型分组：id形如 type_xxx
         if (id != null && id.startsWith("type_")) {
             String type = id.substring("type_".length());
-            return novelSettingService.getNovelSettingItems(request.getNovelId(), type, null, null, null, null, org.springframework.data.domain.Pageable.unpaged())
+            String mentionText = request.getSelectedText() != null && !request.getSelectedText().isEmpty()
+                    ? request.getSelectedText() : request.getPrompt();
+            // 文本中被提及的设定排在前面
+            return settingMentionIndex.prioritizeMentioned(request.getNovelId(), mentionText,
+                            novelSettingService.getNovelSettingItems(request.getNovelId(), type, null, null, null, null, org.springframework.data.domain.Pageable.unpaged()))
                     .map(promptXmlFormatter::formatSettingWithoutId)
                     .collectList()
                     .map(list -> String.join("\n", list))
@@ -78,7 +86,9 @@ public class SettingProvider implements ContentProvider {
         // 处理设定类型：id形如 type_xxx
         if (contentId != null && contentId.startsWith("type_")) {
             String type = contentId.substring("type_".length());
-            return novelSettingService.getNovelSettingItems(novelId, type, null, null, null, null, org.springframework.data.domain.Pageable.unpaged())
+            Object input = parameters != null ? parameters.get("input") : null;
+            return settingMentionIndex.prioritizeMentioned(novelId, input instanceof String ? (String) input : null,
+                            novelSettingService.getNovelSettingItems(novelId, type, null, null, null, null, org.springframework.data.domain.Pageable.unpaged()))
                     .map(promptXmlFormatter::formatSettingWithoutId)
                     .collectList()
                     .map(list -> String.join("\n", list));
@@ -0,0 +1,66 @@
+package com.ainovel.server.service.lock;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * 基于 MongoDB 的集群租约（带过期时间的互斥锁）
+ *
+ * 每个租约是 distributed_leases 集合中以 key 为 _id 的一条文档。获取时仅在文档不存在或已过期时
+ * upsert 成功；被他人持有时 upsert 触发主键冲突，视为获取失败。持有者宕机后租约到期自动可被抢占。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MongoLeaseManager {
+
+    static final String COLLECTION = "distributed_leases";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    /**
+     * 尝试获取租约
+     *
+     * @param key 租约键
+     * @param ttl 租约有效期，应大于持有期间的最长执行时间
+     * @return 成功时返回持有令牌（释放时使用），被占用时返回空
+     */
+    public Mono<String> tryAcquire(String key, Duration ttl) {
+        String token = UUID.randomUUID().toString();
+        Date now = new Date();
+        Query query = Query.query(Criteria.where("_id").is(key).and("expiresAt").lt(now));
+        Update update = new Update()
+                .set("token", token)
+                .set("acquiredAt", now)
+                .set("expiresAt", new Date(now.getTime() + ttl.toMillis()));
+        return mongoTemplate.upsert(query, update, COLLECTION)
+                .map(result -> token)
+                .onErrorResume(DuplicateKeyException.class, e -> {
+                    log.debug("租约已被占用: key={}", key);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * 释放租约；令牌不匹配（已过期被他人抢占）时不做任何操作
+     */
+    public Mono<Void> release(String key, String token) {
+        Query query = Query.query(Criteria.where("_id").is(key).and("token").is(token));
+        return mongoTemplate.remove(query, COLLECTION)
+                .doOnError(e -> log.warn("释放租约失败: key={}, error={}", key, e.getMessage()))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+}
@@ -0,0 +1,227 @@
+package com.ainovel.server.service.metadata;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.config.MetadataRefreshConfig;
+import com.ainovel.server.domain.model.Novel;
+import com.ainovel.server.service.lock.MongoLeaseManager;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * 小说元数据刷新调度器
+ *
+ * 同一小说在合并窗口内的刷新请求只执行一次；执行期间到达的请求在本次完成后再执行一次。
+ * 执行前需获取该小说的集群租约，其他节点正在刷新时延迟重试，保证全集群同一时刻只有一次重算。
+ *
+ * 已知字数变化量的请求（如自动保存）累加为增量，以 $inc 更新；未知变化或长时间未全量重算时
+ * 使用聚合求和做全量重算（只在数据库端汇总 wordCount，不读取场景正文）。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NovelMetadataRefreshScheduler {
+
+    private static final String LEASE_PREFIX = "novel-metadata:";
+
+    /** 估算阅读时间：每分钟阅读字数 */
+    private static final int WORDS_PER_MINUTE = 300;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final MongoLeaseManager leaseManager;
+    private final MetadataRefreshConfig config;
+
+    /** key=novelId -> 待执行的刷新 */
+    private final Map<String, PendingRefresh> pending = new ConcurrentHashMap<>();
+
+    /** 最近做过全量重算的小说，过期后下一次请求升级为全量 */
+    private Cache<String, Boolean> recentlyRecounted;
+
+    @PostConstruct
+    void init() {
+        recentlyRecounted = Caffeine.newBuilder()
+                .maximumSize(10000)
+                .expireAfterWrite(config.getFullRecountInterval())
+                .build();
+    }
+
+    /**
+     * 请求全量重算小说元数据
+     */
+    public void requestRecount(String novelId) {
+        request(novelId, null);
+    }
+
+    /**
+     * 请求按字数增量更新小说元数据
+     */
+    public void requestWordCountDelta(String novelId, int delta) {
+        request(novelId, delta);
+    }
+
+    /**
+     * 统计小说所有场景的总字数（数据库端聚合）
+     */
+    public Mono<Integer> sumSceneWordCount(String novelId) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("novelId").is(novelId)),
+                Aggregation.group().sum("wordCount").as("total"));
+        return mongoTemplate.aggregate(aggregation, "scenes", Document.class)
+                .next()
+                .map(doc -> ((Number) doc.getOrDefault("total", 0)).intValue())
+                .defaultIfEmpty(0);
+    }
+
+    /**
+     * 根据总字数估算阅读时间（分钟），有内容时至少 1 分钟
+     */
+    public static int estimateReadTime(int totalWordCount) {
+        int readTime = totalWordCount / WORDS_PER_MINUTE;
+        return readTime < 1 && totalWordCount > 0 ? 1 : readTime;
+    }
+
+    private void request(String novelId, Integer delta) {
+        if (novelId == null || novelId.isEmpty()) {
+            return;
+        }
+        PendingRefresh state = pending.computeIfAbsent(novelId, id -> new PendingRefresh());
+        synchronized (state) {
+            if (state.removed) {
+                // 与执行完成后的清理并发，重新登记
+                request(novelId, delta);
+                return;
+            }
+            if (delta == null || recentlyRecounted.getIfPresent(novelId) == null) {
+                state.fullRecount = true;
+            } else {
+                state.wordCountDelta += delta;
+            }
+            state.requested = true;
+            if (!state.running && state.timer == null) {
+                schedule(novelId, state, config.getWindow());
+            }
+        }
+    }
+
+    /**
+     * 调用方须持有 state 锁
+     */
+    private void schedule(String novelId, PendingRefresh state, Duration delay) {
+        state.timer = Mono.delay(delay).subscribe(tick -> run(novelId, state));
+    }
+
+    private void run(String novelId, PendingRefresh state) {
+        final boolean fullRecount;
+        final int delta;
+        synchronized (state) {
+            state.timer = null;
+            if (!state.requested) {
+                return;
+            }
+            fullRecount = state.fullRecount;
+            delta = state.wordCountDelta;
+            state.fullRecount = false;
+            state.wordCountDelta = 0;
+            state.requested = false;
+            state.running = true;
+        }
+
+        String leaseKey = LEASE_PREFIX + novelId;
+        leaseManager.tryAcquire(leaseKey, config.getLeaseTtl())
+                .flatMap(token -> (fullRecount ? recount(novelId) : applyDelta(novelId, delta))
+                        .then(leaseManager.release(leaseKey, token))
+                        .thenReturn(true))
+                .defaultIfEmpty(false)
+                .onErrorResume(e -> {
+                    log.error("小说 {} 元数据刷新失败", novelId, e);
+                    return Mono.just(false);
+                })
+                .subscribe(done -> finish(novelId, state, done, fullRecount, delta));
+    }
+
+    private void finish(String novelId, PendingRefresh state, boolean done, boolean fullRecount, int delta) {
+        synchronized (state) {
+            state.running = false;
+            if (!done) {
+                // 未执行（租约被占用或失败），把本次工作并回待执行队列
+                state.fullRecount |= fullRecount;
+                state.wordCountDelta += delta;
+                state.requested = true;
+                schedule(novelId, state, config.getRetryDelay());
+                return;
+            }
+            if (state.requested) {
+                schedule(novelId, state, config.getWindow());
+                return;
+            }
+            state.removed = true;
+            pending.remove(novelId, state);
+        }
+    }
+
+    private Mono<Void> recount(String novelId) {
+        return sumSceneWordCount(novelId)
+                .flatMap(total -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    Update update = new Update()
+                            .set("metadata.wordCount", total)
+                            .set("metadata.readTime", estimateReadTime(total))
+                            .set("metadata.lastEditedAt", now)
+                            .set("updatedAt", now);
+                    return mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(novelId)), update, Novel.class)
+                            .doOnSuccess(r -> {
+                                recentlyRecounted.put(novelId, Boolean.TRUE);
+                                log.debug("小说 {} 元数据全量重算完成，总字数: {}", novelId, total);
+                            });
+                })
+                .then();
+    }
+
+    private Mono<Void> applyDelta(String novelId, int delta) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .inc("metadata.wordCount", delta)
+                .set("metadata.lastEditedAt", now)
+                .set("updatedAt", now);
+        Query query = Query.query(Criteria.where("id").is(novelId));
+        query.fields().include("metadata.wordCount");
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Novel.class)
+                .flatMap(novel -> {
+                    int total = novel.getMetadata() != null ? novel.getMetadata().getWordCount() : 0;
+                    return mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(novelId)),
+                            Update.update("metadata.readTime", estimateReadTime(total)), Novel.class);
+                })
+                .doOnSuccess(r -> log.debug("小说 {} 元数据增量更新: delta={}", novelId, delta))
+                .then();
+    }
+
+    /**
+     * 单本小说的待执行刷新，所有字段在持有该对象锁时访问
+     */
+    private static final class PendingRefresh {
+        boolean requested;
+        boolean fullRecount;
+        int wordCountDelta;
+        boolean running;
+        boolean removed;
+        Disposable timer;
+    }
+}
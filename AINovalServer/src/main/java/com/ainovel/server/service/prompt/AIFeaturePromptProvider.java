@@ -4,6 +4,7 @@ import java.util.Map;
 import java.util.Set;
 
 import com.ainovel.server.domain.model.AIFeatureType;
+import com.ainovel.server.domain.model.EnhancedUserPromptTemplate;
 
 import reactor.core.publisher.Mono;
 
@@ -78,11 +79,16 @@ public interface AIFeaturePromptProvider {
     // ==================== 🚀 新增：模板初始化相关方法 ====================
 
     /**
-     * 初始化系统模板
-     * 检查数据库中是否存在系统模板，不存在则创建
-     * @return 模板ID
+     * 构建系统模板（不含ID和时间戳），作为系统种子写入数据库
+     * @return 系统模板
      */
-    Mono<String> initializeSystemTemplate();
+    EnhancedUserPromptTemplate buildSystemTemplate();
+
+    /**
+     * 绑定数据库中系统模板的ID
+     * @param templateId 模板ID
+     */
+    void bindSystemTemplateId(String templateId);
 
     /**
      * 获取系统模板ID（缓存的）
@@ -6,8 +6,6 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -16,10 +14,10 @@ import com.ainovel.server.domain.model.EnhancedUserPromptTemplate;
 import com.ainovel.server.service.impl.content.ContentProviderFactory;
 import com.ainovel.server.repository.EnhancedUserPromptTemplateRepository;
 
-import java.time.LocalDateTime;
 import java.util.List;
 
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -38,9 +36,6 @@ public abstract class BasePromptProvider implements AIFeaturePromptProvider {
     @Autowired
     protected ContentPlaceholderResolver placeholderResolver;
 
-    // 占位符匹配模式
-    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("\\{\\{([^}]+)\\}\\}");
-
     protected final AIFeatureType featureType;
     protected final Set<String> supportedPlaceholders;
     
@@ -98,7 +93,8 @@ public abstract class BasePromptProvider implements AIFeaturePromptProvider {
         log.debug("🔧 开始渲染提示词模板，模板长度: {} 字符, userId: {}, novelId: {}", 
                   template.length(), userId, novelId);
         
-        Set<String> placeholders = extractPlaceholders(template);
+        CompiledPromptTemplate compiled = CompiledPromptTemplate.of(template);
+        List<String> placeholders = compiled.placeholders();
         log.info("📋 提取到占位符: {}", placeholders);
         
         if (context != null && !context.isEmpty()) {
@@ -136,40 +132,29 @@ public abstract class BasePromptProvider implements AIFeaturePromptProvider {
             return resolver.resolveTemplate(template, context, userId, novelId)
                     .doOnNext(result -> log.info("✅ 虚拟线程并行处理完成，结果长度: {} 字符", result.length()));
         } else {
-            // 逐个解析占位符（原有逻辑）
-            log.info("🔄 逐个解析占位符，总数: {}", placeholders.size());
-            Mono<String> result = Mono.just(template);
-            
-            for (String placeholder : placeholders) {
-                result = result.flatMap(currentTemplate -> {
-                    log.debug("🔍 处理占位符: {}", placeholder);
-                    
-                    if (placeholderResolver != null && placeholderResolver.supports(placeholder)) {
-                        // 使用占位符解析器获取内容
-                        log.debug("  使用占位符解析器处理: {}", placeholder);
-                        return placeholderResolver.resolvePlaceholder(placeholder, context, userId, novelId)
-                                .map(resolvedContent -> {
-                                    String placeholderPattern = "{{" + placeholder + "}}";
-                                    String replacedTemplate = currentTemplate.replace(placeholderPattern, resolvedContent);
-                                    log.debug("  占位符 {} 解析完成，内容长度: {} 字符", placeholder, resolvedContent.length());
-                                    return replacedTemplate;
-                                })
-                                .doOnError(error -> log.error("  占位符 {} 解析失败: {}", placeholder, error.getMessage()));
-                    } else {
-                        // 回退到简单的参数替换
-                        Object value = (context != null) ? context.get(placeholder) : null;
-                        String placeholderPattern = "{{" + placeholder + "}}";
-                        String replacement = value != null ? value.toString() : "";
-                        log.debug("  简单参数替换: {} -> {} ({}字符)", placeholder, 
-                                 replacement.length() > 50 ? replacement.substring(0, 50) + "..." : replacement, 
-                                 replacement.length());
-                        return Mono.just(currentTemplate.replace(placeholderPattern, replacement));
-                    }
-                });
-            }
-            
-            return result.doOnNext(finalResult -> log.info("✅ 逐个占位符解析完成，最终结果长度: {} 字符", finalResult.length()));
+            // 并发解析各占位符，最后按编译好的模板一次拼接
+            log.info("🔄 并发解析占位符，总数: {}", placeholders.size());
+            return Flux.fromIterable(placeholders)
+                    .flatMap(placeholder -> resolveSinglePlaceholder(placeholder, context, userId, novelId)
+                            .map(content -> Map.entry(placeholder, content)))
+                    .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                    .map(compiled::render)
+                    .doOnNext(finalResult -> log.info("✅ 占位符解析完成，最终结果长度: {} 字符", finalResult.length()));
+        }
+    }
+
+    /**
+     * 解析单个占位符：优先使用占位符解析器，否则回退到上下文参数
+     */
+    private Mono<String> resolveSinglePlaceholder(String placeholder, Map<String, Object> context,
+                                                  String userId, String novelId) {
+        if (placeholderResolver != null && placeholderResolver.supports(placeholder)) {
+            return placeholderResolver.resolvePlaceholder(placeholder, context, userId, novelId)
+                    .doOnNext(resolvedContent -> log.debug("  占位符 {} 解析完成，内容长度: {} 字符", placeholder, resolvedContent.length()))
+                    .doOnError(error -> log.error("  占位符 {} 解析失败: {}", placeholder, error.getMessage()));
         }
+        Object value = (context != null) ? context.get(placeholder) : null;
+        return Mono.just(value != null ? value.toString() : "");
     }
     
     /**
@@ -449,14 +434,7 @@ public abstract class BasePromptProvider implements AIFeaturePromptProvider {
      * 提取占位符
      */
     private Set<String> extractPlaceholders(String content) {
-        Set<String> placeholders = new HashSet<>();
-        Matcher matcher = PLACEHOLDER_PATTERN.matcher(content);
-        
-        while (matcher.find()) {
-            placeholders.add(matcher.group(1).trim());
-        }
-        
-        return placeholders;
+        return new HashSet<>(CompiledPromptTemplate.of(content).placeholders());
     }
 
     /**
@@ -493,30 +471,9 @@ public abstract class BasePromptProvider implements AIFeaturePromptProvider {
     // ==================== 🚀 新增：模板初始化相关方法 ====================
 
     @Override
-    public Mono<String> initializeSystemTemplate() {
-        log.info("🚀 开始初始化系统模板: featureType={}, templateIdentifier={}", 
-                featureType, getTemplateIdentifier());
-        
-        // 检查数据库中是否已存在系统模板
-        return enhancedUserPromptTemplateRepository.findByUserId("system")
-                .filter(template -> 
-                    template.getFeatureType() == featureType
-                )
-                .next()
-                .map(existingTemplate -> {
-                    log.info("✅ 系统模板已存在: templateId={}, name={}", 
-                            existingTemplate.getId(), existingTemplate.getName());
-                    this.systemTemplateId = existingTemplate.getId();
-                    return existingTemplate.getId();
-                })
-                .switchIfEmpty(createSystemTemplate())
-                .doOnSuccess(templateId -> {
-                    this.systemTemplateId = templateId;
-                    log.info("✅ 系统模板初始化完成: featureType={}, templateId={}", 
-                            featureType, templateId);
-                })
-                .doOnError(error -> log.error("❌ 系统模板初始化失败: featureType={}, error={}", 
-                        featureType, error.getMessage(), error));
+    public void bindSystemTemplateId(String templateId) {
+        this.systemTemplateId = templateId;
+        log.info("✅ 系统模板已绑定: featureType={}, templateId={}", featureType, templateId);
     }
 
     @Override
@@ -539,14 +496,9 @@ public abstract class BasePromptProvider implements AIFeaturePromptProvider {
         return featureType.name() + "_1";
     }
 
-    /**
-     * 创建系统模板
-     */
-    private Mono<String> createSystemTemplate() {
-        log.info("📝 创建新的系统模板: featureType={}, templateIdentifier={}", 
-                featureType, getTemplateIdentifier());
-        
-        EnhancedUserPromptTemplate systemTemplate = EnhancedUserPromptTemplate.builder()
+    @Override
+    public EnhancedUserPromptTemplate buildSystemTemplate() {
+        return EnhancedUserPromptTemplate.builder()
                 .userId("system")
                 .featureType(featureType)
                 .name(getTemplateIdentifier())
@@ -561,18 +513,7 @@ public abstract class BasePromptProvider implements AIFeaturePromptProvider {
                 .authorId("system")
                 .version(1)
                 .language("zh")
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
                 .build();
-        
-        return enhancedUserPromptTemplateRepository.save(systemTemplate)
-                .map(savedTemplate -> {
-                    log.info("✅ 系统模板创建成功: templateId={}, name={}, featureType={}", 
-                            savedTemplate.getId(), savedTemplate.getName(), featureType);
-                    return savedTemplate.getId();
-                })
-                .doOnError(error -> log.error("❌ 系统模板创建失败: featureType={}, error={}", 
-                        featureType, error.getMessage(), error));
     }
 
     /**
@@ -0,0 +1,121 @@
+package com.ainovel.server.service.prompt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * 预编译的提示词模板
+ *
+ * 模板只扫描一次，拆成"字面量片段 + 占位符槽位"交替的序列，按模板内容缓存。
+ * 渲染时先计算总长度分配一次缓冲区，再顺序拼接片段与槽位值：
+ * 代价与模板及结果长度线性相关，与占位符个数无关；已代入的内容不会再被扫描，
+ * 即使其中含有 {{...}} 也不会被后续占位符展开。
+ */
+public final class CompiledPromptTemplate {
+
+    /** 与提示词提供器一致的占位符格式：{{name}} 或 {{type:id}} */
+    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("\\{\\{([^}]+)\\}\\}");
+
+    /** 缓存总容量（按模板字符数计） */
+    private static final long CACHE_MAX_CHARS = 16L * 1024 * 1024;
+
+    private static final Cache<String, CompiledPromptTemplate> CACHE = Caffeine.newBuilder()
+            .maximumWeight(CACHE_MAX_CHARS)
+            .weigher((String template, CompiledPromptTemplate compiled) -> template.length())
+            .build();
+
+    private static final CompiledPromptTemplate EMPTY = new CompiledPromptTemplate(new String[] {""}, new String[0], new String[0]);
+
+    /** 字面量片段，比槽位多一个：literals[0] slot[0] literals[1] ... slot[n-1] literals[n] */
+    private final String[] literals;
+    /** 各槽位的占位符名称（不含花括号、去除首尾空白），同名占位符可出现多次 */
+    private final String[] slots;
+    /** 各槽位在模板中的原文，未提供值时原样输出 */
+    private final String[] rawSlots;
+    private final int literalLength;
+    private final List<String> placeholders;
+
+    private CompiledPromptTemplate(String[] literals, String[] slots, String[] rawSlots) {
+        this.literals = literals;
+        this.slots = slots;
+        this.rawSlots = rawSlots;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+        this.placeholders = Collections.unmodifiableList(new ArrayList<>(new LinkedHashSet<>(List.of(slots))));
+    }
+
+    /**
+     * 获取模板的编译结果，相同内容的模板只编译一次
+     */
+    public static CompiledPromptTemplate of(String template) {
+        if (template == null || template.isEmpty()) {
+            return EMPTY;
+        }
+        return CACHE.get(template, CompiledPromptTemplate::compile);
+    }
+
+    /**
+     * 编译模板（不经过缓存）
+     */
+    public static CompiledPromptTemplate compile(String template) {
+        if (template == null || template.isEmpty()) {
+            return EMPTY;
+        }
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        List<String> rawSlots = new ArrayList<>();
+        Matcher matcher = PLACEHOLDER_PATTERN.matcher(template);
+        int last = 0;
+        while (matcher.find()) {
+            literals.add(template.substring(last, matcher.start()));
+            slots.add(matcher.group(1).trim());
+            rawSlots.add(matcher.group());
+            last = matcher.end();
+        }
+        literals.add(template.substring(last));
+        return new CompiledPromptTemplate(literals.toArray(String[]::new), slots.toArray(String[]::new),
+                rawSlots.toArray(String[]::new));
+    }
+
+    /**
+     * 模板中的占位符名称，去重并保持首次出现的顺序
+     */
+    public List<String> placeholders() {
+        return placeholders;
+    }
+
+    /**
+     * 一次性拼接出最终文本
+     *
+     * @param values 占位符名称到内容的映射；未提供的占位符保留原样
+     */
+    public String render(Map<String, String> values) {
+        if (slots.length == 0) {
+            return literals[0];
+        }
+        String[] resolved = new String[slots.length];
+        long capacity = literalLength;
+        for (int i = 0; i < slots.length; i++) {
+            String value = values.get(slots[i]);
+            resolved[i] = value != null ? value : rawSlots[i];
+            capacity += resolved[i].length();
+        }
+        StringBuilder out = new StringBuilder((int) Math.min(capacity, Integer.MAX_VALUE - 8));
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]).append(resolved[i]);
+        }
+        out.append(literals[slots.length]);
+        return out.toString();
+    }
+}
@@ -1,9 +1,6 @@
 package com.ainovel.server.service.prompt.impl;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,10 +8,12 @@ import org.springframework.stereotype.Component;
 
 import com.ainovel.server.service.impl.content.ContentProviderFactory;
 import com.ainovel.server.service.impl.content.ContentProvider;
+import com.ainovel.server.service.prompt.CompiledPromptTemplate;
 import com.ainovel.server.service.prompt.ContentPlaceholderResolver;
 import com.ainovel.server.web.dto.request.UniversalAIRequestDto;
 
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -32,9 +31,6 @@ public class ContextualPlaceholderResolver implements ContentPlaceholderResolver
     @Autowired
     private ContentProviderPlaceholderResolver delegateResolver;
 
-    // 占位符匹配模式：{{type}} 或 {{type:id}}
-    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("\\{\\{([^:}]+)(?::([^}]+))?\\}\\}");
-
     // 专用占位符映射：这些占位符有专门的处理逻辑，不应该在{{context}}中重复
     private static final Map<String, String> SPECIALIZED_PLACEHOLDERS = java.util.Map.ofEntries(
         java.util.Map.entry("snippets", "snippet"),
@@ -51,46 +47,11 @@ public class ContextualPlaceholderResolver implements ContentPlaceholderResolver
         java.util.Map.entry("full_novel_summary", "full_novel_summary")
     );
 
-    // 线程安全的解析上下文跟踪器
-    private final ThreadLocal<PlaceholderResolutionContext> contextTracker = new ThreadLocal<>();
-
-    /**
-     * 占位符解析上下文
-     * 用于跟踪在单次模板解析过程中哪些内容类型已经被专用占位符处理
-     */
-    public static class PlaceholderResolutionContext {
-        private final Set<String> processedContentTypes = ConcurrentHashMap.newKeySet();
-        private final Map<String, String> resolvedContent = new ConcurrentHashMap<>();
-        
-        public void markContentTypeProcessed(String contentType) {
-            processedContentTypes.add(contentType.toLowerCase());
-            log.debug("标记内容类型已处理: {}", contentType);
-        }
-        
-        public boolean isContentTypeProcessed(String contentType) {
-            return processedContentTypes.contains(contentType.toLowerCase());
-        }
-        
-        public void storeResolvedContent(String placeholder, String content) {
-            resolvedContent.put(placeholder, content);
-        }
-        
-        public String getResolvedContent(String placeholder) {
-            return resolvedContent.get(placeholder);
-        }
-        
-        public Set<String> getProcessedContentTypes() {
-            return new HashSet<>(processedContentTypes);
-        }
-        
-        public void clear() {
-            processedContentTypes.clear();
-            resolvedContent.clear();
-        }
-    }
-
     /**
      * 智能解析模板中的所有占位符，确保专用占位符和通用占位符不重复
+     *
+     * 专用占位符对应的内容类型只取决于模板本身，{{context}} 无需等待专用占位符解析完成，
+     * 所有占位符并发解析，最后按编译好的模板一次拼接，代入的内容不会被再次展开。
      */
     public Mono<String> resolveTemplate(String template, Map<String, Object> parameters, 
                                        String userId, String novelId) {
@@ -101,18 +62,11 @@ public class ContextualPlaceholderResolver implements ContentPlaceholderResolver
         log.info("🧠 开始智能占位符解析: template length={}, userId={}, novelId={}", 
                 template.length(), userId, novelId);
         
-        // 初始化解析上下文
-        PlaceholderResolutionContext context = new PlaceholderResolutionContext();
-        contextTracker.set(context);
-        
         // 1. 提取所有占位符
-        List<String> placeholders = extractAllPlaceholders(template);
+        CompiledPromptTemplate compiled = CompiledPromptTemplate.of(template);
+        List<String> placeholders = compiled.placeholders();
         if (placeholders.isEmpty()) {
-            return Mono.just(template)
-                    .doFinally(signalType -> {
-                        context.clear();
-                        contextTracker.remove();
-                    });
+            return Mono.just(template);
         }
         
         log.info("📋 发现占位符: {}", placeholders);
@@ -135,24 +89,27 @@ public class ContextualPlaceholderResolver implements ContentPlaceholderResolver
         log.info("📊 占位符分类 - 专用: {}, 上下文: {}, 其他: {}", 
                 specializedPlaceholders.size(), contextPlaceholders.size(), otherPlaceholders.size());
         
-        // 3. 优先处理专用占位符
-        return resolveSpecializedPlaceholders(template, specializedPlaceholders, parameters, userId, novelId)
-                .flatMap(templateAfterSpecialized -> {
-                    // 4. 处理上下文占位符（排除已处理的内容类型）
-                    return resolveContextPlaceholders(templateAfterSpecialized, contextPlaceholders, 
-                                                     parameters, userId, novelId);
-                })
-                .flatMap(templateAfterContext -> {
-                    // 5. 处理其他占位符
-                    return resolveOtherPlaceholders(templateAfterContext, otherPlaceholders, 
-                                                   parameters, userId, novelId);
-                })
-                .doFinally(signalType -> {
-                    // 🚀 修复：在流完成后清理线程本地上下文
-                    context.clear();
-                    contextTracker.remove();
-                    log.debug("🧹 清理ThreadLocal上下文，信号类型: {}", signalType);
-                });
+        // 3. 专用占位符与其他占位符交给委托解析器，{{context}} 排除专用占位符已覆盖的内容类型
+        Map<String, Mono<String>> resolutions = new LinkedHashMap<>();
+        for (String placeholder : specializedPlaceholders) {
+            resolutions.put(placeholder, delegateResolver.resolvePlaceholder(placeholder, parameters, userId, novelId)
+                    .doOnNext(content -> log.debug("✅ 专用占位符解析完成: {} -> {} 字符", placeholder, content.length())));
+        }
+        if (!contextPlaceholders.isEmpty()) {
+            // 延迟到订阅时才开始解析，多个 {{context}} 共享同一次结果
+            Mono<String> mergedContext = Mono.defer(() -> resolveContextContent(processedContentTypes(specializedPlaceholders),
+                    parameters, userId, novelId)).cache();
+            contextPlaceholders.forEach(placeholder -> resolutions.put(placeholder, mergedContext));
+        }
+        for (String placeholder : otherPlaceholders) {
+            resolutions.put(placeholder, delegateResolver.resolvePlaceholder(placeholder, parameters, userId, novelId));
+        }
+        
+        // 4. 并发解析，一次拼接；解析为空的占位符替换为空字符串，避免原样保留 {{name}}
+        return Flux.fromIterable(resolutions.entrySet())
+                .flatMap(entry -> entry.getValue().defaultIfEmpty("").map(content -> Map.entry(entry.getKey(), content)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .map(compiled::render);
     }
 
     @Override
@@ -175,28 +132,6 @@ public class ContextualPlaceholderResolver implements ContentPlaceholderResolver
         return delegateResolver.getPlaceholderDescription(placeholder);
     }
 
-    /**
-     * 提取模板中的所有占位符
-     */
-    private List<String> extractAllPlaceholders(String template) {
-        List<String> placeholders = new ArrayList<>();
-        Matcher matcher = PLACEHOLDER_PATTERN.matcher(template);
-        
-        while (matcher.find()) {
-            String placeholderName = matcher.group(1); // placeholder 或 type
-            String id = matcher.group(2); // id 或 null
-            
-            // 对于带ID的占位符，使用完整格式，否则只使用名称
-            if (id != null) {
-                placeholders.add(placeholderName + ":" + id);
-            } else {
-                placeholders.add(placeholderName);
-            }
-        }
-        
-        return placeholders.stream().distinct().collect(Collectors.toList());
-    }
-
     /**
      * 判断是否为专用占位符
      */
@@ -209,78 +144,32 @@ public class ContextualPlaceholderResolver implements ContentPlaceholderResolver
     }
 
     /**
-     * 解析专用占位符
+     * 专用占位符覆盖的内容类型，这些类型不再出现在{{context}}中
      */
-    private Mono<String> resolveSpecializedPlaceholders(String template, List<String> placeholders,
-                                                       Map<String, Object> parameters, String userId, String novelId) {
-        if (placeholders.isEmpty()) {
-            return Mono.just(template);
-        }
-        
-        log.info("🎯 处理专用占位符: {}", placeholders);
-        
-        // 解析所有专用占位符
-        List<Mono<Map.Entry<String, String>>> resolutions = placeholders.stream()
-            .map(placeholder -> {
-                return delegateResolver.resolvePlaceholder(placeholder, parameters, userId, novelId)
-                    .map(content -> {
-                        return Map.entry("{{" + placeholder + "}}", content);
-                    })
-                    .doOnNext(entry -> log.debug("✅ 专用占位符解析完成: {} -> {} 字符", 
-                                                entry.getKey(), entry.getValue().length()));
-            })
-            .collect(Collectors.toList());
-        
-        // 并行解析并替换
-        return Mono.zip(resolutions, entries -> {
-            String result = template;
-            for (Object entry : entries) {
-                @SuppressWarnings("unchecked")
-                Map.Entry<String, String> e = (Map.Entry<String, String>) entry;
-                result = result.replace(e.getKey(), e.getValue());
-            }
-            
-            // 🚀 修复：确保在这里标记所有专用占位符对应的内容类型已被处理
-            if (contextTracker.get() != null) {
-                for (String placeholder : placeholders) {
-                    String basePlaceholder = placeholder.contains(":") ? 
-                        placeholder.substring(0, placeholder.indexOf(":")) : placeholder;
-                    String contentType = SPECIALIZED_PLACEHOLDERS.get(basePlaceholder);
-                    if (contentType != null) {
-                        contextTracker.get().markContentTypeProcessed(contentType);
-                        log.debug("🏷️ 标记内容类型已处理: {} -> {}", basePlaceholder, contentType);
-                    }
-                }
+    private Set<String> processedContentTypes(List<String> specializedPlaceholders) {
+        Set<String> processedTypes = new HashSet<>();
+        for (String placeholder : specializedPlaceholders) {
+            String basePlaceholder = placeholder.contains(":") ? 
+                placeholder.substring(0, placeholder.indexOf(":")) : placeholder;
+            String contentType = SPECIALIZED_PLACEHOLDERS.get(basePlaceholder);
+            if (contentType != null) {
+                processedTypes.add(contentType.toLowerCase());
+                log.debug("🏷️ 标记内容类型已处理: {} -> {}", basePlaceholder, contentType);
             }
-            
-            return result;
-        });
+        }
+        return processedTypes;
     }
 
     /**
-     * 解析上下文占位符（排除已被专用占位符处理的内容类型）
+     * 解析上下文占位符的内容（排除已被专用占位符处理的内容类型）
      */
-    private Mono<String> resolveContextPlaceholders(String template, List<String> placeholders,
-                                                   Map<String, Object> parameters, String userId, String novelId) {
-        if (placeholders.isEmpty()) {
-            return Mono.just(template);
-        }
-        
-        Set<String> processedTypes = contextTracker.get() != null ? contextTracker.get().getProcessedContentTypes() : Collections.emptySet();
+    private Mono<String> resolveContextContent(Set<String> processedTypes, Map<String, Object> parameters,
+                                              String userId, String novelId) {
         log.info("🌐 处理上下文占位符，排除已处理的内容类型: {}", processedTypes);
         
-        // 🚀 添加调试：验证ThreadLocal是否正常工作
-        if (contextTracker.get() != null) {
-            log.debug("🧠 ThreadLocal上下文存在，已处理类型: {}", processedTypes);
-        } else {
-            log.warn("⚠️ ThreadLocal上下文为null！");
-        }
-        
         // 构建增强的参数，包含排除信息
         Map<String, Object> enhancedParameters = new HashMap<>(parameters);
-        if (contextTracker.get() != null) {
-            enhancedParameters.put("excludedContentTypes", contextTracker.get().getProcessedContentTypes());
-        }
+        enhancedParameters.put("excludedContentTypes", processedTypes);
         
         // 获取过滤后的上下文数据，并与请求中显式传入的context/previousChaptersContent合并
         return getFilteredContextData(enhancedParameters, userId, novelId)
@@ -311,49 +200,11 @@ public class ContextualPlaceholderResolver implements ContentPlaceholderResolver
                     merged.append(previousChapters.trim());
                 }
 
-                String mergedContext = merged.toString();
-                String result = template;
-                for (String placeholder : placeholders) {
-                    result = result.replace("{{" + placeholder + "}}", mergedContext);
-                }
-                log.info("✅ 上下文占位符处理完成，合并内容长度: {} 字符", mergedContext.length());
-                return result;
+                log.info("✅ 上下文占位符处理完成，合并内容长度: {} 字符", merged.length());
+                return merged.toString();
             });
     }
 
-    /**
-     * 解析其他占位符
-     */
-    private Mono<String> resolveOtherPlaceholders(String template, List<String> placeholders,
-                                                 Map<String, Object> parameters, String userId, String novelId) {
-        if (placeholders.isEmpty()) {
-            return Mono.just(template);
-        }
-        
-        log.info("🔧 处理其他占位符: {}", placeholders);
-        
-        // 解析所有其他占位符
-        List<Mono<Map.Entry<String, String>>> resolutions = placeholders.stream()
-            .map(placeholder -> {
-                return delegateResolver.resolvePlaceholder(placeholder, parameters, userId, novelId)
-                    .map(content -> {
-                        return Map.entry("{{" + placeholder + "}}", content);
-                    });
-            })
-            .collect(Collectors.toList());
-        
-        // 并行解析并替换
-        return Mono.zip(resolutions, entries -> {
-            String result = template;
-            for (Object entry : entries) {
-                @SuppressWarnings("unchecked")
-                Map.Entry<String, String> e = (Map.Entry<String, String>) entry;
-                result = result.replace(e.getKey(), e.getValue());
-            }
-            return result;
-        });
-    }
-
     /**
      * 获取过滤后的上下文数据
      * 排除已被专用占位符处理的内容类型
@@ -1,6 +1,7 @@
 package com.ainovel.server.service.prompt.impl;
 
 import com.ainovel.server.service.impl.content.ContentProviderFactory;
+import com.ainovel.server.service.prompt.CompiledPromptTemplate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -8,8 +9,6 @@ import reactor.core.publisher.Mono;
 import jakarta.annotation.PreDestroy;
 
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -46,9 +45,6 @@ public class VirtualThreadPlaceholderResolver {
 
     private final ContentProviderFactory contentProviderFactory;
     
-    // 占位符匹配模式：{{type}} 或 {{type:id}}
-    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("\\{\\{([^:}]+)(?::([^}]+))?\\}\\}");
-    
     // 🚀 优化：使用专用的虚拟线程池执行器
     private static final ExecutorService VIRTUAL_EXECUTOR = createVirtualThreadExecutor();
     
@@ -121,7 +117,8 @@ public class VirtualThreadPlaceholderResolver {
         log.debug("开始虚拟线程占位符解析: userId={}, novelId={}, template length={}", userId, novelId, template.length());
 
         // 1. 提取所有占位符
-        List<PlaceholderInfo> placeholders = extractPlaceholders(template);
+        CompiledPromptTemplate compiled = CompiledPromptTemplate.of(template);
+        List<PlaceholderInfo> placeholders = extractPlaceholders(compiled);
         if (placeholders.isEmpty()) {
             log.debug("未找到内容提供器占位符，直接返回模板");
             return Mono.just(template);
@@ -136,11 +133,8 @@ public class VirtualThreadPlaceholderResolver {
         // 2. 并行解析所有占位符
         return resolveAllPlaceholdersParallel(placeholders, userId, novelId, parameters)
                 .map(resolvedMap -> {
-                    // 3. 批量替换占位符
-                    String result = template;
-                    for (Map.Entry<String, String> entry : resolvedMap.entrySet()) {
-                        result = result.replace(entry.getKey(), entry.getValue());
-                    }
+                    // 3. 一次拼接，已代入的内容不会被再次扫描
+                    String result = compiled.render(resolvedMap);
                     
                     long duration = System.currentTimeMillis() - startTime;
                     totalResolveTime.addAndGet(duration);
@@ -164,8 +158,8 @@ public class VirtualThreadPlaceholderResolver {
                 .map(placeholder -> CompletableFuture
                         .supplyAsync(() -> resolveSinglePlaceholder(placeholder, userId, novelId, parameters), VIRTUAL_EXECUTOR)
                         .exceptionally(throwable -> {
-                            log.error("占位符解析失败: {}", placeholder.getFullPlaceholder(), throwable);
-                            return Map.entry(placeholder.getFullPlaceholder(), "[内容获取失败]");
+                            log.error("占位符解析失败: {}", placeholder.getName(), throwable);
+                            return Map.entry(placeholder.getName(), "[内容获取失败]");
                         }))
                 .toList();
 
@@ -203,8 +197,8 @@ public class VirtualThreadPlaceholderResolver {
         String cached = placeholderCache.get(cacheKey);
         if (cached != null) {
             cacheHitCount.incrementAndGet();
-            log.debug("使用缓存的占位符结果: {}", placeholder.getFullPlaceholder());
-            return Map.entry(placeholder.getFullPlaceholder(), cached);
+            log.debug("使用缓存的占位符结果: {}", placeholder.getName());
+            return Map.entry(placeholder.getName(), cached);
         }
 
         try {
@@ -212,7 +206,7 @@ public class VirtualThreadPlaceholderResolver {
             var providerOptional = contentProviderFactory.getProvider(placeholder.getType());
             if (providerOptional.isEmpty()) {
                 log.warn("未找到类型为 {} 的内容提供器", placeholder.getType());
-                return Map.entry(placeholder.getFullPlaceholder(), "[不支持的内容类型]");
+                return Map.entry(placeholder.getName(), "[不支持的内容类型]");
             }
 
             // 确定内容ID
@@ -229,14 +223,14 @@ public class VirtualThreadPlaceholderResolver {
                 placeholderCache.put(cacheKey, content);
             }
             
-            log.debug("成功解析占位符: {} -> {} 字符", placeholder.getFullPlaceholder(), 
+            log.debug("成功解析占位符: {} -> {} 字符", placeholder.getName(), 
                      content != null ? content.length() : 0);
             
-            return Map.entry(placeholder.getFullPlaceholder(), content != null ? content : "");
+            return Map.entry(placeholder.getName(), content != null ? content : "");
             
         } catch (Exception e) {
-            log.error("解析占位符失败: {}", placeholder.getFullPlaceholder(), e);
-            return Map.entry(placeholder.getFullPlaceholder(), "[内容获取异常]");
+            log.error("解析占位符失败: {}", placeholder.getName(), e);
+            return Map.entry(placeholder.getName(), "[内容获取异常]");
         }
     }
 
@@ -260,20 +254,19 @@ public class VirtualThreadPlaceholderResolver {
     }
 
     /**
-     * 提取模板中的所有占位符
+     * 提取模板中的所有占位符（同名占位符只解析一次）
      */
-    private List<PlaceholderInfo> extractPlaceholders(String template) {
+    private List<PlaceholderInfo> extractPlaceholders(CompiledPromptTemplate compiled) {
         List<PlaceholderInfo> placeholders = new ArrayList<>();
-        Matcher matcher = PLACEHOLDER_PATTERN.matcher(template);
         
-        while (matcher.find()) {
-            String type = matcher.group(1);
-            String id = matcher.group(2);
-            String fullPlaceholder = matcher.group(0);
+        for (String name : compiled.placeholders()) {
+            int colon = name.indexOf(':');
+            String type = colon >= 0 ? name.substring(0, colon) : name;
+            String id = colon >= 0 ? name.substring(colon + 1) : null;
             
             // 只处理内容提供器类型的占位符
             if (contentProviderFactory.hasProvider(type)) {
-                placeholders.add(new PlaceholderInfo(type, id, fullPlaceholder));
+                placeholders.add(new PlaceholderInfo(type, id, name));
             }
         }
         
@@ -334,17 +327,18 @@ public class VirtualThreadPlaceholderResolver {
     private static class PlaceholderInfo {
         private final String type;
         private final String id;
-        private final String fullPlaceholder;
+        /** 占位符名称（不含花括号），即编译模板中的槽位名 */
+        private final String name;
 
-        public PlaceholderInfo(String type, String id, String fullPlaceholder) {
+        public PlaceholderInfo(String type, String id, String name) {
             this.type = type;
             this.id = id;
-            this.fullPlaceholder = fullPlaceholder;
+            this.name = name;
         }
 
         public String getType() { return type; }
         public String getId() { return id; }
-        public String getFullPlaceholder() { return fullPlaceholder; }
+        public String getName() { return name; }
     }
 
     /**
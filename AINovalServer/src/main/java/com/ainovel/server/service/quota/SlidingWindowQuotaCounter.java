@@ -0,0 +1,282 @@
+package com.ainovel.server.service.quota;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.config.UsageQuotaConfig;
+import com.ainovel.server.domain.model.UsageQuotaCounter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 集群共享的滑动窗口配额计数器
+ *
+ * 计数存放在 usage_quota_counters 集合中，每个窗口一条文档（TTL 自动过期）。
+ * 滑动窗口用相邻两个固定窗口近似：已用量 = 当前窗口计数 + 上一窗口计数 × 上一窗口在滑动区间内的占比。
+ *
+ * 为减少数据库往返，节点一次向共享计数预留一批额度（条件 $inc，保证全集群不超限），
+ * 之后在本地逐个取用；空闲的预留额度定期归还。共享计数只通过带限额条件的预留增加：
+ * {@link #tryReserve} 通过即已占用一个单位，{@link #consume} 只结算该单位，不再写数据库。
+ * 检查通过但最终没有结算的单位（请求失败）同样计入用量，宁可少用不会超限。
+ */
+@Slf4j
+@Component
+public class SlidingWindowQuotaCounter {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final UsageQuotaConfig config;
+    private final Clock clock;
+
+    /** key=userId:feature -> 本节点持有的预留额度 */
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+
+    /** 上一窗口已关闭，其计数可短暂缓存 */
+    private final Cache<String, Long> previousWindowCounts = Caffeine.newBuilder()
+            .maximumSize(50000)
+            .expireAfterWrite(Duration.ofMinutes(1))
+            .build();
+
+    @Autowired
+    public SlidingWindowQuotaCounter(ReactiveMongoTemplate mongoTemplate, UsageQuotaConfig config) {
+        this(mongoTemplate, config, Clock.systemUTC());
+    }
+
+    SlidingWindowQuotaCounter(ReactiveMongoTemplate mongoTemplate, UsageQuotaConfig config, Clock clock) {
+        this.mongoTemplate = mongoTemplate;
+        this.config = config;
+        this.clock = clock;
+    }
+
+    /**
+     * 在限额内占用一个单位（本地预留不足时先向共享计数预留），返回是否占用成功
+     *
+     * @param limit 窗口内允许的次数，Integer.MAX_VALUE 表示不限
+     */
+    public Mono<Boolean> tryReserve(String userId, String feature, long limit) {
+        if (limit >= Integer.MAX_VALUE) {
+            return Mono.just(true);
+        }
+        if (limit <= 0) {
+            return Mono.just(false);
+        }
+        long now = clock.millis();
+        long windowStart = windowStart(now);
+        String leaseKey = userId + ":" + feature;
+        Lease lease = leases.get(leaseKey);
+        if (lease != null && lease.tryTake(windowStart, now)) {
+            return Mono.just(true);
+        }
+
+        return weightedPreviousCount(userId, feature, windowStart, now)
+                .flatMap(previous -> {
+                    long allowedInWindow = limit - previous;
+                    if (allowedInWindow <= 0) {
+                        return Mono.just(false);
+                    }
+                    String counterId = counterId(userId, feature, windowStart);
+                    int batch = (int) Math.min(config.getReserveBatch(), allowedInWindow);
+                    Mono<Integer> granted = reserve(counterId, allowedInWindow, batch, windowStart);
+                    if (batch > 1) {
+                        // 剩余额度不足一批时退化为只预留 1 个
+                        granted = granted.flatMap(n -> n > 0 ? Mono.just(n) : reserve(counterId, allowedInWindow, 1, windowStart));
+                    }
+                    return granted.map(n -> {
+                        if (n > 0) {
+                            // 加入预留的同时为本次调用取走一个，避免被并发调用抢先用完
+                            Lease current = leases.computeIfAbsent(leaseKey, k -> new Lease(now));
+                            Lease.Released stale = current.addAndTake(windowStart, n, clock.millis());
+                            if (stale != null) {
+                                giveBack(leaseKey + ":" + stale.windowStart(), stale.remaining());
+                            }
+                        }
+                        return n > 0;
+                    });
+                });
+    }
+
+    /**
+     * 结算一个由 {@link #tryReserve} 占用的单位；该单位预留时已计入共享计数，这里不再写数据库。
+     * 没有待结算的单位（未经检查就调用）时只记录日志，不会绕过限额增加计数。
+     */
+    public Mono<Void> consume(String userId, String feature) {
+        Lease lease = leases.get(userId + ":" + feature);
+        if (lease == null || !lease.settle()) {
+            log.debug("没有待结算的配额占用，忽略: userId={}, feature={}", userId, feature);
+        }
+        return Mono.empty();
+    }
+
+    /**
+     * 归还空闲或跨窗口的本地预留额度
+     */
+    @Scheduled(fixedDelay = 15000)
+    public void releaseIdleLeases() {
+        long now = clock.millis();
+        long currentWindow = windowStart(now);
+        long idleBefore = now - config.getLeaseIdleTimeout().toMillis();
+        leases.forEach((key, lease) -> {
+            Lease.Released released = lease.releaseIfIdle(idleBefore, currentWindow);
+            if (released != null) {
+                leases.remove(key, lease);
+                if (released.remaining() > 0) {
+                    giveBack(key + ":" + released.windowStart(), released.remaining());
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void releaseAllOnShutdown() {
+        try {
+            Flux.fromIterable(leases.entrySet())
+                    .flatMap(entry -> {
+                        Lease.Released released = entry.getValue().releaseIfIdle(Long.MAX_VALUE, Long.MAX_VALUE);
+                        return released != null && released.remaining() > 0
+                                ? decrement(entry.getKey() + ":" + released.windowStart(), released.remaining())
+                                : Mono.empty();
+                    })
+                    .then()
+                    .block(Duration.ofSeconds(5));
+        } catch (Exception e) {
+            log.warn("关闭前归还配额预留失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 条件预留：仅当预留后不超过窗口允许量时 $inc 成功；超限时 upsert 触发主键冲突
+     */
+    private Mono<Integer> reserve(String counterId, long allowedInWindow, int amount, long windowStart) {
+        Query query = Query.query(Criteria.where("_id").is(counterId).and("count").lte(allowedInWindow - amount));
+        Update update = new Update()
+                .inc("count", amount)
+                .setOnInsert("expiresAt", expiresAt(windowStart));
+        return mongoTemplate.upsert(query, update, UsageQuotaCounter.class)
+                .thenReturn(amount)
+                .onErrorResume(DuplicateKeyException.class, e -> Mono.just(0));
+    }
+
+    private Mono<Long> weightedPreviousCount(String userId, String feature, long windowStart, long now) {
+        long windowMillis = windowMillis();
+        double weight = 1.0 - (double) (now - windowStart) / windowMillis;
+        String previousId = counterId(userId, feature, windowStart - windowMillis);
+        Long cached = previousWindowCounts.getIfPresent(previousId);
+        Mono<Long> previous = cached != null
+                ? Mono.just(cached)
+                : mongoTemplate.findById(previousId, UsageQuotaCounter.class)
+                        .map(UsageQuotaCounter::getCount)
+                        .defaultIfEmpty(0L)
+                        .doOnNext(count -> previousWindowCounts.put(previousId, count));
+        return previous.map(count -> (long) Math.floor(count * weight));
+    }
+
+    private void giveBack(String counterId, int amount) {
+        decrement(counterId, amount).subscribe(
+                v -> { },
+                e -> log.warn("归还配额预留失败: counter={}, amount={}, error={}", counterId, amount, e.getMessage()));
+    }
+
+    private Mono<Void> decrement(String counterId, int amount) {
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(counterId)),
+                        new Update().inc("count", -amount), UsageQuotaCounter.class)
+                .then();
+    }
+
+    private long windowMillis() {
+        return config.getWindow().toMillis();
+    }
+
+    private long windowStart(long timestamp) {
+        long windowMillis = windowMillis();
+        return timestamp / windowMillis * windowMillis;
+    }
+
+    private Date expiresAt(long windowStart) {
+        // 当前窗口结束后仍需作为 "上一窗口" 参与一个窗口的加权
+        return new Date(windowStart + 2 * windowMillis());
+    }
+
+    private static String counterId(String userId, String feature, long windowStart) {
+        return userId + ":" + feature + ":" + windowStart;
+    }
+
+    /**
+     * 本节点持有的某用户某功能的预留额度
+     */
+    private static final class Lease {
+        private long windowStart;
+        /** 已计入共享计数、尚未被取用的单位 */
+        private int remaining;
+        /** 已被取用、等待结算的单位 */
+        private int taken;
+        private long lastUsedAt;
+
+        Lease(long now) {
+            this.lastUsedAt = now;
+        }
+
+        synchronized boolean tryTake(long currentWindow, long now) {
+            if (windowStart != currentWindow || remaining <= 0) {
+                return false;
+            }
+            remaining--;
+            taken++;
+            lastUsedAt = now;
+            return true;
+        }
+
+        synchronized boolean settle() {
+            if (taken <= 0) {
+                return false;
+            }
+            taken--;
+            return true;
+        }
+
+        /**
+         * 加入新预留并取走一个；若原预留属于更早的窗口，返回需要归还的部分
+         */
+        synchronized Released addAndTake(long currentWindow, int amount, long now) {
+            Released stale = null;
+            if (windowStart != currentWindow) {
+                if (remaining > 0) {
+                    stale = new Released(windowStart, remaining);
+                }
+                remaining = 0;
+                windowStart = currentWindow;
+            }
+            remaining += amount - 1;
+            taken++;
+            lastUsedAt = now;
+            return stale;
+        }
+
+        synchronized Released releaseIfIdle(long idleBefore, long currentWindow) {
+            if (lastUsedAt >= idleBefore && windowStart == currentWindow) {
+                return null;
+            }
+            Released released = new Released(windowStart, remaining);
+            remaining = 0;
+            return released;
+        }
+
+        record Released(long windowStart, int remaining) {
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.ainovel.server.service.search;
+
+/**
+ * 面向中日韩文本的分词器。
+ * 连续的 CJK 字符按重叠二元组（bigram）切分，单独出现的 CJK 字符输出一元组；
+ * 其他字母/数字按连续串切分并转为小写；标点与空白作为分隔符。
+ *
+ * 每个词元带有位置号（用于短语匹配）与在原文中的起始偏移（用于高亮）。
+ */
+public final class CjkBigramTokenizer {
+
+    private CjkBigramTokenizer() {
+    }
+
+    /**
+     * 词元回调
+     */
+    @FunctionalInterface
+    public interface TokenConsumer {
+        void accept(String term, int position, int startOffset);
+    }
+
+    /**
+     * 对文本分词，返回产生的词元数量（即下一个可用位置号）。
+     */
+    public static int tokenize(CharSequence text, TokenConsumer consumer) {
+        return tokenize(text, 0, consumer);
+    }
+
+    /**
+     * 从指定位置号开始对文本分词，返回下一个可用位置号。
+     */
+    public static int tokenize(CharSequence text, int startPosition, TokenConsumer consumer) {
+        if (text == null) {
+            return startPosition;
+        }
+        int position = startPosition;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (isCjk(c)) {
+                int start = i;
+                while (i < length && isCjk(text.charAt(i))) {
+                    i++;
+                }
+                if (i - start == 1) {
+                    consumer.accept(String.valueOf(c), position++, start);
+                } else {
+                    for (int j = start; j < i - 1; j++) {
+                        consumer.accept(text.subSequence(j, j + 2).toString(), position++, j);
+                    }
+                }
+            } else if (Character.isLetterOrDigit(c)) {
+                int start = i;
+                while (i < length) {
+                    char ch = text.charAt(i);
+                    if (!Character.isLetterOrDigit(ch) || isCjk(ch)) {
+                        break;
+                    }
+                    i++;
+                }
+                consumer.accept(text.subSequence(start, i).toString().toLowerCase(), position++, start);
+            } else {
+                i++;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * 判断是否为 CJK 表意文字/假名/谚文
+     */
+    public static boolean isCjk(char c) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
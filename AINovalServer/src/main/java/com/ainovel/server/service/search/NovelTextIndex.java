@@ -0,0 +1,452 @@
+package com.ainovel.server.service.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 单本小说的内存倒排索引（带位置信息）。
+ * 词元来自 {@link CjkBigramTokenizer}，倒排表记录每个词元在文档中的位置号，
+ * 支持短语查询（连续位置匹配）、多短语 AND 查询、命中高亮与分页。
+ *
+ * 读多写少：查询持读锁，增量写入先在锁外完成分词，再持写锁替换倒排表。
+ */
+public class NovelTextIndex {
+
+    /** 标题命中加权 */
+    private static final int TITLE_WEIGHT = 3;
+
+    /** 每个命中结果最多返回的高亮数 */
+    private static final int MAX_HIGHLIGHTS_PER_HIT = 20;
+
+    private final String novelId;
+
+    /** term -> (docKey -> 有序位置号) */
+    private final Map<String, Map<String, int[]>> postings = new HashMap<>();
+
+    /** docKey -> 文档条目 */
+    private final Map<String, DocEntry> docs = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public NovelTextIndex(String novelId) {
+        this.novelId = novelId;
+    }
+
+    public String getNovelId() {
+        return novelId;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 新增或替换文档
+     */
+    public void upsert(SearchDocument document) {
+        DocEntry entry = analyze(document);
+        lock.writeLock().lock();
+        try {
+            removeInternal(entry.key);
+            docs.put(entry.key, entry);
+            entry.termPositions.forEach((term, positions) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(entry.key, positions));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 移除文档，文档不存在时忽略
+     */
+    public void remove(SearchDocumentType type, String id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(SearchDocument.key(type, id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 当前全部文档的快照（用于持久化）
+     */
+    public List<SearchDocument> documents() {
+        lock.readLock().lock();
+        try {
+            List<SearchDocument> result = new ArrayList<>(docs.size());
+            for (DocEntry entry : docs.values()) {
+                result.add(entry.document);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 检索。查询按空白拆分为多个短语，文档需命中全部短语。
+     *
+     * @param query        查询文本
+     * @param types        限定文档类型，为空表示不限
+     * @param page         页码（从0开始）
+     * @param size         每页大小
+     * @param contextChars 摘要中命中位置两侧保留的字符数
+     */
+    public Page search(String query, Set<SearchDocumentType> types, int page, int size, int contextChars) {
+        return search(query, types, null, page, size, contextChars);
+    }
+
+    /**
+     * 检索，只统计和返回 ID 在 allowedIds 中的文档（为 null 表示不限）
+     */
+    public Page search(String query, Set<SearchDocumentType> types, Set<String> allowedIds,
+                       int page, int size, int contextChars) {
+        List<Phrase> phrases = parseQuery(query);
+        if (phrases.isEmpty() || size <= 0 || page < 0) {
+            return new Page(0, Collections.emptyList());
+        }
+        lock.readLock().lock();
+        try {
+            // 逐短语求命中，候选集合逐步收窄
+            Map<String, List<int[]>> occurrencesByDoc = null;
+            Map<String, Double> scores = new HashMap<>();
+            for (Phrase phrase : phrases) {
+                Map<String, List<int[]>> phraseHits = matchPhrase(phrase, types,
+                        occurrencesByDoc != null ? occurrencesByDoc.keySet() : null);
+                if (phraseHits.isEmpty()) {
+                    return new Page(0, Collections.emptyList());
+                }
+                double idf = Math.log(1.0 + (double) docs.size() / phraseHits.size());
+                Map<String, List<int[]>> merged = new HashMap<>();
+                for (Map.Entry<String, List<int[]>> e : phraseHits.entrySet()) {
+                    DocEntry entry = docs.get(e.getKey());
+                    int weighted = 0;
+                    for (int[] occ : e.getValue()) {
+                        weighted += occ[2] == 1 ? TITLE_WEIGHT : 1;
+                    }
+                    scores.merge(e.getKey(), idf * (1.0 + Math.log(1.0 + weighted)), Double::sum);
+                    List<int[]> all = new ArrayList<>(e.getValue());
+                    if (occurrencesByDoc != null) {
+                        all.addAll(occurrencesByDoc.get(e.getKey()));
+                    }
+                    merged.put(entry.key, all);
+                }
+                occurrencesByDoc = merged;
+            }
+
+            List<String> ranked = new ArrayList<>(occurrencesByDoc.size());
+            for (String key : occurrencesByDoc.keySet()) {
+                if (allowedIds == null || allowedIds.contains(docs.get(key).document.id())) {
+                    ranked.add(key);
+                }
+            }
+            ranked.sort(Comparator.<String>comparingDouble(scores::get).reversed().thenComparing(k -> k));
+
+            int from = (int) Math.min((long) page * size, ranked.size());
+            int to = Math.min(from + size, ranked.size());
+            List<Hit> hits = new ArrayList<>(to - from);
+            for (String key : ranked.subList(from, to)) {
+                hits.add(buildHit(docs.get(key), occurrencesByDoc.get(key), scores.get(key), contextChars));
+            }
+            return new Page(ranked.size(), hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== 内部实现 ====================
+
+    private void removeInternal(String key) {
+        DocEntry old = docs.remove(key);
+        if (old == null) {
+            return;
+        }
+        for (String term : old.termPositions.keySet()) {
+            Map<String, int[]> byDoc = postings.get(term);
+            if (byDoc != null) {
+                byDoc.remove(key);
+                if (byDoc.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * 分词并构建文档条目（锁外执行）。标题与正文位置号连续，标题在前。
+     */
+    private static DocEntry analyze(SearchDocument document) {
+        Map<String, IntList> building = new HashMap<>();
+        IntList offsets = new IntList(64);
+        CjkBigramTokenizer.TokenConsumer consumer = (term, position, startOffset) -> {
+            building.computeIfAbsent(term, t -> new IntList(4)).add(position);
+            offsets.add(startOffset);
+        };
+        int titleTokens = CjkBigramTokenizer.tokenize(document.title(), consumer);
+        CjkBigramTokenizer.tokenize(document.text(), titleTokens, consumer);
+
+        Map<String, int[]> termPositions = new HashMap<>(building.size() * 2);
+        building.forEach((term, list) -> termPositions.put(term, list.toArray()));
+        return new DocEntry(document, titleTokens, offsets.toArray(), termPositions);
+    }
+
+    /**
+     * 求单个短语在各文档中的出现位置。
+     * 返回 docKey -> 出现列表，每个出现为 [起始偏移, 结束偏移, 是否在标题(1/0)]。
+     */
+    private Map<String, List<int[]>> matchPhrase(Phrase phrase, Set<SearchDocumentType> types, Set<String> candidates) {
+        if (phrase.isSingleCjkChar()) {
+            return matchSingleChar(phrase.tokens.get(0).term.charAt(0), types, candidates);
+        }
+
+        // 以文档频率最低的词元驱动匹配
+        Token driver = null;
+        Map<String, int[]> driverPostings = null;
+        for (Token token : phrase.tokens) {
+            Map<String, int[]> p = postings.get(token.term);
+            if (p == null) {
+                return Collections.emptyMap();
+            }
+            if (driverPostings == null || p.size() < driverPostings.size()) {
+                driver = token;
+                driverPostings = p;
+            }
+        }
+
+        Token first = phrase.tokens.get(0);
+        Token last = phrase.tokens.get(phrase.tokens.size() - 1);
+        Map<String, List<int[]>> result = new HashMap<>();
+        for (Map.Entry<String, int[]> e : driverPostings.entrySet()) {
+            String key = e.getKey();
+            if (candidates != null && !candidates.contains(key)) {
+                continue;
+            }
+            DocEntry entry = docs.get(key);
+            if (!accepts(types, entry)) {
+                continue;
+            }
+            List<int[]> occurrences = null;
+            for (int driverPos : e.getValue()) {
+                int base = driverPos - driver.position;
+                if (base < 0 || !allTokensAt(phrase, key, base)) {
+                    continue;
+                }
+                int startPos = base + first.position;
+                int endPos = base + last.position;
+                boolean inTitle = endPos < entry.titleTokens;
+                if (startPos < entry.titleTokens && !inTitle) {
+                    // 跨越标题与正文的匹配无意义
+                    continue;
+                }
+                if (occurrences == null) {
+                    occurrences = new ArrayList<>();
+                }
+                occurrences.add(new int[]{entry.offsets[startPos], entry.offsets[endPos] + last.term.length(), inTitle ? 1 : 0});
+            }
+            if (occurrences != null) {
+                result.put(key, occurrences);
+            }
+        }
+        return result;
+    }
+
+    private boolean allTokensAt(Phrase phrase, String key, int base) {
+        for (Token token : phrase.tokens) {
+            int[] positions = postings.get(token.term).get(key);
+            if (positions == null || Arrays.binarySearch(positions, base + token.position) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 单个 CJK 字符查询：汇总所有包含该字符的一元/二元词元。
+     * 同一字符会同时出现在相邻两个二元组中，按偏移去重。
+     */
+    private Map<String, List<int[]>> matchSingleChar(char c, Set<SearchDocumentType> types, Set<String> candidates) {
+        Map<String, TreeMap<Integer, Boolean>> byDoc = new HashMap<>();
+        for (Map.Entry<String, Map<String, int[]>> termEntry : postings.entrySet()) {
+            String term = termEntry.getKey();
+            boolean startsWith = term.charAt(0) == c;
+            boolean endsWith = term.length() == 2 && term.charAt(1) == c;
+            if (!startsWith && !endsWith) {
+                continue;
+            }
+            for (Map.Entry<String, int[]> e : termEntry.getValue().entrySet()) {
+                String key = e.getKey();
+                if (candidates != null && !candidates.contains(key)) {
+                    continue;
+                }
+                DocEntry entry = docs.get(key);
+                if (!accepts(types, entry)) {
+                    continue;
+                }
+                TreeMap<Integer, Boolean> offsets = byDoc.computeIfAbsent(key, k -> new TreeMap<>());
+                for (int pos : e.getValue()) {
+                    boolean inTitle = pos < entry.titleTokens;
+                    if (startsWith) {
+                        offsets.put(entry.offsets[pos], inTitle);
+                    }
+                    if (endsWith) {
+                        offsets.put(entry.offsets[pos] + 1, inTitle);
+                    }
+                }
+            }
+        }
+        Map<String, List<int[]>> result = new HashMap<>();
+        byDoc.forEach((key, offsets) -> {
+            List<int[]> occurrences = new ArrayList<>(offsets.size());
+            offsets.forEach((offset, inTitle) -> occurrences.add(new int[]{offset, offset + 1, inTitle ? 1 : 0}));
+            result.put(key, occurrences);
+        });
+        return result;
+    }
+
+    private static boolean accepts(Set<SearchDocumentType> types, DocEntry entry) {
+        return entry != null && (types == null || types.isEmpty() || types.contains(entry.document.type()));
+    }
+
+    private static Hit buildHit(DocEntry entry, List<int[]> occurrences, double score, int contextChars) {
+        SearchDocument doc = entry.document;
+        List<Highlight> titleHighlights = new ArrayList<>();
+        List<int[]> textOccurrences = new ArrayList<>();
+        for (int[] occ : occurrences) {
+            if (occ[2] == 1) {
+                titleHighlights.add(new Highlight(occ[0], occ[1]));
+            } else {
+                textOccurrences.add(occ);
+            }
+        }
+        titleHighlights.sort(Comparator.comparingInt(Highlight::start));
+
+        String text = doc.text() != null ? doc.text() : "";
+        String snippet;
+        List<Highlight> snippetHighlights = new ArrayList<>();
+        if (textOccurrences.isEmpty()) {
+            snippet = text.substring(0, Math.min(text.length(), contextChars * 2));
+        } else {
+            textOccurrences.sort(Comparator.comparingInt(o -> o[0]));
+            int windowStart = Math.max(0, textOccurrences.get(0)[0] - contextChars);
+            int windowEnd = Math.min(text.length(), textOccurrences.get(0)[1] + contextChars);
+            snippet = text.substring(windowStart, windowEnd);
+            int lastEnd = -1;
+            for (int[] occ : textOccurrences) {
+                if (occ[0] >= windowEnd || snippetHighlights.size() >= MAX_HIGHLIGHTS_PER_HIT) {
+                    break;
+                }
+                // 合并重叠区间（多短语或单字查询时可能重叠）
+                int start = Math.max(occ[0], lastEnd) - windowStart;
+                int end = Math.min(occ[1], windowEnd) - windowStart;
+                if (end > start) {
+                    if (!snippetHighlights.isEmpty() && snippetHighlights.get(snippetHighlights.size() - 1).end() == start) {
+                        Highlight prev = snippetHighlights.remove(snippetHighlights.size() - 1);
+                        snippetHighlights.add(new Highlight(prev.start(), end));
+                    } else {
+                        snippetHighlights.add(new Highlight(start, end));
+                    }
+                    lastEnd = end + windowStart;
+                }
+            }
+        }
+        return new Hit(doc.type(), doc.id(), doc.parentId(), doc.title(), score, occurrences.size(),
+                snippet, snippetHighlights, titleHighlights);
+    }
+
+    private static List<Phrase> parseQuery(String query) {
+        if (query == null || query.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<Phrase> phrases = new ArrayList<>();
+        for (String part : query.trim().split("\\s+")) {
+            List<Token> tokens = new ArrayList<>();
+            CjkBigramTokenizer.tokenize(part, (term, position, startOffset) -> tokens.add(new Token(term, position)));
+            if (!tokens.isEmpty()) {
+                phrases.add(new Phrase(tokens));
+            }
+        }
+        return phrases;
+    }
+
+    // ==================== 数据结构 ====================
+
+    private static final class DocEntry {
+        final String key;
+        final SearchDocument document;
+        /** 标题占用的词元数（位置号小于该值的词元属于标题） */
+        final int titleTokens;
+        /** 位置号 -> 在标题/正文中的起始偏移 */
+        final int[] offsets;
+        final Map<String, int[]> termPositions;
+
+        DocEntry(SearchDocument document, int titleTokens, int[] offsets, Map<String, int[]> termPositions) {
+            this.key = document.key();
+            this.document = document;
+            this.titleTokens = titleTokens;
+            this.offsets = offsets;
+            this.termPositions = termPositions;
+        }
+    }
+
+    private record Token(String term, int position) {
+    }
+
+    private record Phrase(List<Token> tokens) {
+        boolean isSingleCjkChar() {
+            return tokens.size() == 1 && tokens.get(0).term.length() == 1
+                    && CjkBigramTokenizer.isCjk(tokens.get(0).term.charAt(0));
+        }
+    }
+
+    /**
+     * 可增长的 int 数组，避免装箱
+     */
+    private static final class IntList {
+        private int[] values;
+        private int size;
+
+        IntList(int capacity) {
+            values = new int[capacity];
+        }
+
+        void add(int v) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = v;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * 高亮区间（左闭右开）
+     */
+    public record Highlight(int start, int end) {
+    }
+
+    /**
+     * 单个命中结果
+     *
+     * @param snippetHighlights 相对于 snippet 的高亮区间
+     * @param titleHighlights   相对于 title 的高亮区间
+     */
+    public record Hit(SearchDocumentType type, String id, String parentId, String title, double score,
+                      int matchCount, String snippet, List<Highlight> snippetHighlights,
+                      List<Highlight> titleHighlights) {
+    }
+
+    /**
+     * 一页检索结果
+     */
+    public record Page(long totalElements, List<Hit> hits) {
+    }
+}
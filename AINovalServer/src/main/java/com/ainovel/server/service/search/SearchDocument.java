@@ -0,0 +1,21 @@
+package com.ainovel.server.service.search;
+
+/**
+ * 参与全文索引的文档（纯文本形式）。
+ *
+ * @param type     文档类型
+ * @param id       文档ID（场景/片段/设定ID）
+ * @param parentId 上级ID（场景为章节ID，其余可为空）
+ * @param title    标题，参与检索且命中时加权
+ * @param text     纯文本内容
+ */
+public record SearchDocument(SearchDocumentType type, String id, String parentId, String title, String text) {
+
+    public String key() {
+        return key(type, id);
+    }
+
+    public static String key(SearchDocumentType type, String id) {
+        return type.name() + ":" + id;
+    }
+}
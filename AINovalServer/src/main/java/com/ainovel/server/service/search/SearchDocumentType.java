@@ -0,0 +1,13 @@
+package com.ainovel.server.service.search;
+
+/**
+ * 全文索引中的文档类型
+ */
+public enum SearchDocumentType {
+    /** 场景正文 */
+    SCENE,
+    /** 片段 */
+    SNIPPET,
+    /** 设定条目 */
+    SETTING
+}
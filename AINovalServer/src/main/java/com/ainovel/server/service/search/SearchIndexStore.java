@@ -0,0 +1,270 @@
+package com.ainovel.server.service.search;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 全文索引的磁盘存储。
+ * 每本小说一个目录，包含压缩的全量快照段文件（snapshot.seg）与追加写的增量日志（wal.log）。
+ * 加载时读取快照并重放日志；日志条目数达到阈值后由调用方触发重新快照并清空日志。
+ *
+ * 快照中保存的是文档纯文本，倒排表在加载时重新构建（线性时间）。
+ * 日志尾部若有进程中断留下的半条记录，加载时截断到最后一条完整记录，之后的追加才能被正确重放。
+ */
+@Slf4j
+public class SearchIndexStore {
+
+    private static final String SNAPSHOT_FILE = "snapshot.seg";
+    private static final String WAL_FILE = "wal.log";
+    private static final int SNAPSHOT_MAGIC = 0x4E545831; // "NTX1"
+    private static final byte OP_UPSERT = 1;
+    private static final byte OP_REMOVE = 2;
+
+    private final Path baseDir;
+
+    public SearchIndexStore(Path baseDir) {
+        this.baseDir = baseDir;
+    }
+
+    /**
+     * 已加载的快照与日志
+     *
+     * @param documents  快照与日志重放后的文档集合
+     * @param walEntries 日志中的条目数
+     */
+    public record Loaded(List<SearchDocument> documents, int walEntries) {
+    }
+
+    public boolean exists(String novelId) {
+        return Files.exists(novelDir(novelId).resolve(SNAPSHOT_FILE));
+    }
+
+    /**
+     * 读取快照并重放日志，快照不存在或早于 maxAge 时返回 null。
+     */
+    public Loaded load(String novelId, Duration maxAge) throws IOException {
+        Path snapshot = novelDir(novelId).resolve(SNAPSHOT_FILE);
+        if (!Files.exists(snapshot)) {
+            return null;
+        }
+        // 按文档键重放，后写覆盖先写
+        Map<String, SearchDocument> replay = new LinkedHashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(snapshot))))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                log.warn("全文索引快照格式不识别，忽略: novelId={}", novelId);
+                return null;
+            }
+            long createdAt = in.readLong();
+            if (maxAge != null && Instant.ofEpochMilli(createdAt).plus(maxAge).isBefore(Instant.now())) {
+                log.info("全文索引快照已过期，将重建: novelId={}", novelId);
+                return null;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                SearchDocument doc = readDocument(in);
+                replay.put(doc.key(), doc);
+            }
+        }
+
+        int walEntries = 0;
+        Path wal = novelDir(novelId).resolve(WAL_FILE);
+        if (Files.exists(wal)) {
+            long walSize = Files.size(wal);
+            // 最后一条完整记录的结束偏移
+            long validLength = 0;
+            CountingInputStream counter = new CountingInputStream(new BufferedInputStream(Files.newInputStream(wal)));
+            try (DataInputStream in = new DataInputStream(counter)) {
+                while (true) {
+                    byte op;
+                    try {
+                        op = in.readByte();
+                    } catch (EOFException eof) {
+                        break;
+                    }
+                    try {
+                        if (op == OP_UPSERT) {
+                            SearchDocument doc = readDocument(in);
+                            replay.put(doc.key(), doc);
+                        } else if (op == OP_REMOVE) {
+                            SearchDocumentType type = SearchDocumentType.valueOf(in.readUTF());
+                            replay.remove(SearchDocument.key(type, in.readUTF()));
+                        } else {
+                            log.warn("全文索引日志出现未知操作，停止重放: novelId={}, op={}", novelId, op);
+                            break;
+                        }
+                        walEntries++;
+                        validLength = counter.count();
+                    } catch (EOFException | UTFDataFormatException | IllegalArgumentException e) {
+                        // 进程中断导致的半条记录，丢弃即可
+                        log.warn("全文索引日志尾部记录不完整，已忽略: novelId={}", novelId);
+                        break;
+                    }
+                }
+            }
+            if (validLength < walSize) {
+                truncateWal(novelId, walSize, validLength);
+            }
+        }
+        return new Loaded(new ArrayList<>(replay.values()), walEntries);
+    }
+
+    /**
+     * 把日志截断到最后一条完整记录；读取之后日志已被追加过则不动它
+     */
+    private synchronized void truncateWal(String novelId, long expectedSize, long validLength) throws IOException {
+        Path wal = novelDir(novelId).resolve(WAL_FILE);
+        try (FileChannel channel = FileChannel.open(wal, StandardOpenOption.WRITE)) {
+            if (channel.size() != expectedSize) {
+                log.warn("全文索引日志在加载期间被追加，跳过截断: novelId={}", novelId);
+                return;
+            }
+            channel.truncate(validLength);
+        } catch (NoSuchFileException e) {
+            return;
+        }
+        log.info("全文索引日志已截断到最后一条完整记录: novelId={}, 原长度={}, 截断后={}", novelId, expectedSize, validLength);
+    }
+
+    /**
+     * 写入全量快照（先写临时文件再原子替换），随后清空日志。
+     */
+    public synchronized void writeSnapshot(String novelId, List<SearchDocument> documents) throws IOException {
+        Path dir = Files.createDirectories(novelDir(novelId));
+        Path tmp = dir.resolve(SNAPSHOT_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(tmp))))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(documents.size());
+            for (SearchDocument doc : documents) {
+                writeDocument(out, doc);
+            }
+        }
+        Files.move(tmp, dir.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(dir.resolve(WAL_FILE));
+    }
+
+    public synchronized void appendUpsert(String novelId, SearchDocument document) throws IOException {
+        try (DataOutputStream out = openWal(novelId)) {
+            out.writeByte(OP_UPSERT);
+            writeDocument(out, document);
+        }
+    }
+
+    public synchronized void appendRemove(String novelId, SearchDocumentType type, String id) throws IOException {
+        try (DataOutputStream out = openWal(novelId)) {
+            out.writeByte(OP_REMOVE);
+            out.writeUTF(type.name());
+            out.writeUTF(id);
+        }
+    }
+
+    /**
+     * 删除小说的全部索引文件
+     */
+    public synchronized void delete(String novelId) throws IOException {
+        Path dir = novelDir(novelId);
+        Files.deleteIfExists(dir.resolve(WAL_FILE));
+        Files.deleteIfExists(dir.resolve(SNAPSHOT_FILE));
+        Files.deleteIfExists(dir);
+    }
+
+    private DataOutputStream openWal(String novelId) throws IOException {
+        Path dir = Files.createDirectories(novelDir(novelId));
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(dir.resolve(WAL_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+    }
+
+    private Path novelDir(String novelId) {
+        // novelId 为服务端生成的 ID，这里仍做一次字符过滤，防止路径穿越
+        return baseDir.resolve(novelId.replaceAll("[^A-Za-z0-9_-]", "_"));
+    }
+
+    /**
+     * 统计已读取字节数，用于定位日志中最后一条完整记录的结束位置
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long count() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    private static void writeDocument(DataOutputStream out, SearchDocument doc) throws IOException {
+        out.writeUTF(doc.type().name());
+        out.writeUTF(doc.id());
+        writeString(out, doc.parentId());
+        writeString(out, doc.title());
+        writeString(out, doc.text());
+    }
+
+    private static SearchDocument readDocument(DataInputStream in) throws IOException {
+        SearchDocumentType type = SearchDocumentType.valueOf(in.readUTF());
+        String id = in.readUTF();
+        return new SearchDocument(type, id, readString(in), readString(in), readString(in));
+    }
+
+    /** writeUTF 有 64KB 限制，正文使用长度前缀的 UTF-8 字节 */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,13 @@
+package com.ainovel.server.service.seed;
+
+import java.util.Map;
+
+/**
+ * 一条系统种子数据：按自然键匹配，文档不存在时插入，仍由种子维护时随种子更新
+ *
+ * @param key    集合内唯一且稳定的标识，用于与上次应用的清单比较差异
+ * @param match  自然键条件（Mongo 字段名到值），插入时这些字段同样写入文档
+ * @param entity 种子实体；不应包含ID和时间戳，保证同一份代码得到相同的哈希
+ */
+public record SeedItem(String key, Map<String, Object> match, Object entity) {
+}
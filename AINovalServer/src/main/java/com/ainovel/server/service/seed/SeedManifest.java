@@ -0,0 +1,123 @@
+package com.ainovel.server.service.seed;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+/**
+ * 系统种子清单
+ *
+ * 把各来源声明的实体按数据库映射规则转换成文档，逐条计算规范化哈希，再由全部条目哈希得到清单哈希。
+ * 规范化时对象字段按名称排序，哈希只取决于种子内容，与 Map 的迭代顺序和 JVM 无关。
+ */
+public final class SeedManifest {
+
+    /**
+     * 转换后的种子条目
+     *
+     * @param item     原始条目
+     * @param document 种子维护的字段（不含自然键字段和 _id）
+     * @param hash     条目哈希
+     */
+    public record Entry(SeedItem item, Document document, String hash) {
+    }
+
+    private final Map<String, List<Entry>> collections;
+    private final String hash;
+    private final int size;
+
+    private SeedManifest(Map<String, List<Entry>> collections) {
+        this.collections = collections;
+        // 条目排序后再计算，清单哈希与来源声明条目的顺序无关
+        List<String> lines = new ArrayList<>();
+        collections.forEach((collection, entries) -> entries.forEach(entry ->
+                lines.add(collection + '/' + entry.item().key() + '=' + entry.hash())));
+        Collections.sort(lines);
+        this.hash = sha256(String.join("\n", lines));
+        this.size = lines.size();
+    }
+
+    /**
+     * 由种子来源构建清单，同一集合的条目按来源顺序合并
+     */
+    public static SeedManifest build(List<? extends SystemSeedSource> sources, MongoConverter converter) {
+        Map<String, List<Entry>> collections = new LinkedHashMap<>();
+        for (SystemSeedSource source : sources) {
+            String collection = source.seedCollection();
+            List<Entry> entries = collections.computeIfAbsent(collection, k -> new ArrayList<>());
+            for (SeedItem item : source.seedItems()) {
+                Document document = new Document();
+                converter.write(item.entity(), document);
+                document.remove("_id");
+                item.match().keySet().forEach(document::remove);
+                StringBuilder canonical = new StringBuilder(collection).append('/').append(item.key()).append('|');
+                appendCanonical(item.match(), canonical);
+                canonical.append('|');
+                appendCanonical(document, canonical);
+                entries.add(new Entry(item, document, sha256(canonical.toString())));
+            }
+        }
+        collections.replaceAll((k, v) -> Collections.unmodifiableList(v));
+        return new SeedManifest(Collections.unmodifiableMap(collections));
+    }
+
+    /**
+     * 按集合分组的条目，保持来源顺序
+     */
+    public Map<String, List<Entry>> collections() {
+        return collections;
+    }
+
+    public String hash() {
+        return hash;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static void appendCanonical(Object value, StringBuilder out) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            map.forEach((k, v) -> sorted.put(String.valueOf(k), v));
+            out.append('{');
+            sorted.forEach((k, v) -> {
+                out.append(k).append(':');
+                appendCanonical(v, out);
+                out.append(',');
+            });
+            out.append('}');
+        } else if (value instanceof Collection<?> collection) {
+            out.append('[');
+            for (Object element : collection) {
+                appendCanonical(element, out);
+                out.append(',');
+            }
+            out.append(']');
+        } else if (value == null) {
+            out.append("null");
+        } else {
+            out.append(value.getClass().getSimpleName()).append('(').append(value).append(')');
+        }
+    }
+
+    private static String sha256(String input) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(input.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.ainovel.server.service.seed;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.domain.model.SystemSeedMarker;
+import com.ainovel.server.service.lock.MongoLeaseManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 系统种子数据协调器
+ *
+ * 数据库中的标记文档记录上次应用的清单哈希：哈希一致时整个种子阶段只有一次读取，不做任何写入。
+ * 不一致时在集群租约下只由一个节点写入：与标记中的条目哈希比较得到新增或变化的条目，
+ * 每个集合一次无序批量写入，最后更新标记。未抢到租约的节点等待标记更新后继续，
+ * 等满一个租约周期仍未完成（持有租约的节点可能已宕机）则重新尝试获取租约。
+ *
+ * 种子写入的文档带有 seedHash 字段，记录写入时的条目哈希。条目变化时只更新 seedHash 仍等于上次应用哈希的文档；
+ * 管理后台和定价同步都通过实体整体保存，保存后文档不再带 seedHash，视为已被接管，不再覆盖。
+ * 引入该字段之前插入的文档同样没有 seedHash，保持不变。
+ */
+@Slf4j
+@Component
+public class SystemSeedReconciler {
+
+    static final String MARKER_ID = "system";
+    static final String LEASE_KEY = "system-seed";
+    static final String SEED_HASH_FIELD = "seedHash";
+
+    /**
+     * 种子阶段结果
+     */
+    public enum Outcome {
+        /** 清单未变化，跳过 */
+        SKIPPED,
+        /** 本节点写入了种子 */
+        APPLIED,
+        /** 其他节点写入了种子 */
+        FOLLOWED
+    }
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final MongoLeaseManager leaseManager;
+    private final MeterRegistry meterRegistry;
+    private final Duration leaseTtl;
+    private final Duration pollInterval;
+    private final Counter writeCounter;
+
+    public SystemSeedReconciler(ReactiveMongoTemplate mongoTemplate,
+                                MongoLeaseManager leaseManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${ainovel.seed.lease-ttl:2m}") Duration leaseTtl,
+                                @Value("${ainovel.seed.poll-interval:1s}") Duration pollInterval) {
+        this.mongoTemplate = mongoTemplate;
+        this.leaseManager = leaseManager;
+        this.meterRegistry = meterRegistry;
+        this.leaseTtl = leaseTtl;
+        this.pollInterval = pollInterval;
+        this.writeCounter = Counter.builder("startup.seed.writes")
+                .description("启动阶段写入的系统种子条目数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 由种子来源构建清单
+     */
+    public SeedManifest manifest(List<? extends SystemSeedSource> sources) {
+        return SeedManifest.build(sources, mongoTemplate.getConverter());
+    }
+
+    /**
+     * 使数据库与清单一致，耗时按结果记录到 startup.seed.duration
+     */
+    public Mono<Outcome> reconcile(SeedManifest manifest) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return readMarker()
+                    .filter(marker -> manifest.hash().equals(marker.getManifestHash()))
+                    .map(marker -> {
+                        log.info("系统种子清单未变化，跳过写入: hash={}, 条目数={}", manifest.hash(), manifest.size());
+                        return Outcome.SKIPPED;
+                    })
+                    .switchIfEmpty(Mono.defer(() -> applyUnderLease(manifest)))
+                    .doOnSuccess(outcome -> recordDuration(start, outcome.name().toLowerCase()))
+                    .doOnError(error -> recordDuration(start, "failed"));
+        });
+    }
+
+    private Mono<Outcome> applyUnderLease(SeedManifest manifest) {
+        return Mono.usingWhen(leaseManager.tryAcquire(LEASE_KEY, leaseTtl),
+                        token -> readMarker()
+                                .map(Optional::of)
+                                .defaultIfEmpty(Optional.empty())
+                                .flatMap(previous -> apply(manifest, previous.orElse(null))),
+                        token -> leaseManager.release(LEASE_KEY, token))
+                .switchIfEmpty(Mono.defer(() -> awaitLeader(manifest)));
+    }
+
+    private Mono<Outcome> apply(SeedManifest manifest, SystemSeedMarker previous) {
+        // 拿到租约前其他节点可能刚写完
+        if (previous != null && manifest.hash().equals(previous.getManifestHash())) {
+            return Mono.just(Outcome.SKIPPED);
+        }
+        Map<String, String> appliedHashes = new HashMap<>();
+        if (previous != null && previous.getItems() != null) {
+            previous.getItems().forEach(item -> appliedHashes.put(item.getCollection() + '/' + item.getKey(), item.getHash()));
+        }
+        Set<String> current = new HashSet<>();
+        manifest.collections().forEach((collection, entries) ->
+                entries.forEach(entry -> current.add(collection + '/' + entry.item().key())));
+        long removed = appliedHashes.keySet().stream().filter(key -> !current.contains(key)).count();
+        if (removed > 0) {
+            log.info("清单中已移除 {} 条系统种子，数据库中的文档保持不变", removed);
+        }
+
+        return Flux.fromIterable(manifest.collections().entrySet())
+                .concatMap(collection -> write(collection.getKey(), collection.getValue().stream()
+                        .filter(entry -> !entry.hash().equals(appliedHashes.get(collection.getKey() + '/' + entry.item().key())))
+                        .toList(), appliedHashes))
+                .reduce(0, Integer::sum)
+                .flatMap(written -> mongoTemplate.save(marker(manifest))
+                        .doOnSuccess(saved -> log.info("系统种子写入完成: hash={}, 写入条目数={}, 清单条目数={}",
+                                manifest.hash(), written, manifest.size()))
+                        .thenReturn(Outcome.APPLIED));
+    }
+
+    /**
+     * 一个集合一次无序批量写入：不存在的文档插入；上次由种子写入且未被接管的文档更新种子字段
+     *
+     * 同一条目的两个操作互斥：文档不存在时更新匹配不到，文档存在时插入不生效，与执行顺序无关。
+     * 种子中去掉的字段不会从已有文档中删除。
+     */
+    private Mono<Integer> write(String collection, List<SeedManifest.Entry> entries, Map<String, String> appliedHashes) {
+        if (entries.isEmpty()) {
+            return Mono.just(0);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+        for (SeedManifest.Entry entry : entries) {
+            Update insert = new Update();
+            entry.document().forEach(insert::setOnInsert);
+            insert.setOnInsert("createdAt", now).setOnInsert("updatedAt", now).setOnInsert(SEED_HASH_FIELD, entry.hash());
+            bulk.upsert(matchOf(entry), insert);
+
+            String appliedHash = appliedHashes.get(collection + '/' + entry.item().key());
+            if (appliedHash != null) {
+                Update refresh = new Update();
+                entry.document().forEach(refresh::set);
+                refresh.set("updatedAt", now).set(SEED_HASH_FIELD, entry.hash());
+                bulk.updateOne(matchOf(entry).addCriteria(Criteria.where(SEED_HASH_FIELD).is(appliedHash)), refresh);
+            }
+        }
+        return bulk.execute()
+                .doOnSuccess(result -> {
+                    writeCounter.increment(entries.size());
+                    log.info("系统种子批量写入: collection={}, 提交={}, 新插入={}, 更新={}",
+                            collection, entries.size(), result.getUpserts().size(), result.getModifiedCount());
+                })
+                .thenReturn(entries.size());
+    }
+
+    private static Query matchOf(SeedManifest.Entry entry) {
+        Query query = new Query();
+        entry.item().match().forEach((field, value) -> query.addCriteria(Criteria.where(field).is(value)));
+        return query;
+    }
+
+    /**
+     * 其他节点持有租约：等待标记更新为当前清单，最长等待一个租约周期；
+     * 超时说明持有者已宕机或在写入另一份清单，此时租约已过期，重新尝试获取
+     */
+    private Mono<Outcome> awaitLeader(SeedManifest manifest) {
+        log.info("系统种子正由其他节点写入，等待完成: hash={}", manifest.hash());
+        return readMarker()
+                .filter(marker -> manifest.hash().equals(marker.getManifestHash()))
+                .repeatWhenEmpty(attempts -> attempts.delayElements(pollInterval))
+                .timeout(leaseTtl)
+                .thenReturn(Outcome.FOLLOWED)
+                .onErrorResume(TimeoutException.class, e -> {
+                    log.warn("等待系统种子写入超时，重新尝试获取租约: hash={}, 等待={}", manifest.hash(), leaseTtl);
+                    return applyUnderLease(manifest);
+                });
+    }
+
+    private Mono<SystemSeedMarker> readMarker() {
+        return Mono.defer(() -> mongoTemplate.findById(MARKER_ID, SystemSeedMarker.class));
+    }
+
+    private SystemSeedMarker marker(SeedManifest manifest) {
+        SystemSeedMarker marker = SystemSeedMarker.builder()
+                .id(MARKER_ID)
+                .manifestHash(manifest.hash())
+                .appliedAt(LocalDateTime.now())
+                .build();
+        manifest.collections().forEach((collection, entries) -> entries.forEach(entry ->
+                marker.getItems().add(new SystemSeedMarker.AppliedItem(collection, entry.item().key(), entry.hash()))));
+        return marker;
+    }
+
+    private void recordDuration(long startNanos, String outcome) {
+        Timer.builder("startup.seed.duration")
+                .description("启动阶段系统种子协调耗时")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+}
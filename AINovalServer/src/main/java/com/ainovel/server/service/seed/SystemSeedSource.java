@@ -0,0 +1,33 @@
+package com.ainovel.server.service.seed;
+
+import java.util.List;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 系统种子数据来源
+ *
+ * 各来源只声明需要存在的种子条目，由 {@link SystemSeedReconciler} 统一比较与写入；
+ * 来源按 {@code @Order} 排序，写入与回调都按该顺序进行。
+ */
+public interface SystemSeedSource {
+
+    /**
+     * 种子写入的集合名
+     */
+    String seedCollection();
+
+    /**
+     * 声明式的种子条目，内容必须是确定的
+     */
+    List<SeedItem> seedItems();
+
+    /**
+     * 种子数据与数据库一致后回调（清单未变化跳过写入时同样会调用），用于绑定数据库生成的ID等
+     *
+     * @param applied 本节点本次是否写入了种子
+     */
+    default Mono<Void> afterSeeded(boolean applied) {
+        return Mono.empty();
+    }
+}
@@ -0,0 +1,134 @@
+package com.ainovel.server.service.setting;
+
+import com.ainovel.server.domain.model.NovelSettingItem;
+
+import java.util.*;
+import java.util.function.UnaryOperator;
+
+/**
+ * 设定树克隆工具
+ *
+ * 在内存中完成整棵设定树的复制：预先分配全部新ID，按旧ID映射改写 parentId / childrenIds，
+ * 对内存中的图做一次无环校验，并按父先子后的顺序输出，供一次有序批量写入。
+ * 不再需要逐条边回库建立父子关系。
+ */
+public final class SettingTreeCloner {
+
+    private SettingTreeCloner() {
+    }
+
+    /**
+     * 克隆一棵（或一片）设定树
+     *
+     * 父子关系优先取 parentChildMap（旧父ID → 旧子ID列表），其次取源条目自身的 parentId；
+     * 任一端不在源条目中的边会被丢弃，被丢弃父节点的子节点成为根节点。
+     *
+     * @param sources 源设定条目
+     * @param parentChildMap 旧父ID到旧子ID列表的映射，可为null
+     * @param copier 由源条目生成新条目内容（ID与父子关系字段由本方法覆盖）
+     * @return 新条目列表，父节点总在子节点之前
+     * @throws IllegalArgumentException 父子关系存在环
+     */
+    public static List<NovelSettingItem> cloneTree(List<NovelSettingItem> sources,
+                                                   Map<String, List<String>> parentChildMap,
+                                                   UnaryOperator<NovelSettingItem> copier) {
+        Map<String, String> oldToNewId = new LinkedHashMap<>();
+        for (NovelSettingItem src : sources) {
+            if (src.getId() != null && !oldToNewId.containsKey(src.getId())) {
+                oldToNewId.put(src.getId(), UUID.randomUUID().toString());
+            }
+        }
+
+        // 子 → 父（旧ID），每个子节点只保留第一个父节点
+        Map<String, String> parentOf = new HashMap<>();
+        if (parentChildMap != null) {
+            parentChildMap.forEach((oldParent, oldChildren) -> {
+                if (oldChildren == null || !oldToNewId.containsKey(oldParent)) {
+                    return;
+                }
+                for (String oldChild : oldChildren) {
+                    if (oldToNewId.containsKey(oldChild) && !oldChild.equals(oldParent)) {
+                        parentOf.putIfAbsent(oldChild, oldParent);
+                    }
+                }
+            });
+        }
+        for (NovelSettingItem src : sources) {
+            String oldParent = src.getParentId();
+            if (src.getId() != null && oldParent != null && oldToNewId.containsKey(oldParent) && !oldParent.equals(src.getId())) {
+                parentOf.putIfAbsent(src.getId(), oldParent);
+            }
+        }
+
+        Map<String, NovelSettingItem> clonesByOldId = new LinkedHashMap<>();
+        for (NovelSettingItem src : sources) {
+            if (src.getId() == null || clonesByOldId.containsKey(src.getId())) {
+                continue;
+            }
+            NovelSettingItem clone = copier.apply(src);
+            clone.setId(oldToNewId.get(src.getId()));
+            String oldParent = parentOf.get(src.getId());
+            clone.setParentId(oldParent != null ? oldToNewId.get(oldParent) : null);
+            clone.setChildrenIds(new ArrayList<>());
+            clonesByOldId.put(src.getId(), clone);
+        }
+        // 子节点顺序与源条目顺序一致
+        for (NovelSettingItem src : sources) {
+            String oldParent = parentOf.get(src.getId());
+            if (oldParent != null) {
+                NovelSettingItem parentClone = clonesByOldId.get(oldParent);
+                String childId = oldToNewId.get(src.getId());
+                if (!parentClone.getChildrenIds().contains(childId)) {
+                    parentClone.getChildrenIds().add(childId);
+                }
+            }
+        }
+        return topologicalOrder(new ArrayList<>(clonesByOldId.values()));
+    }
+
+    /**
+     * 校验一批条目的父子关系构成森林，并按父先子后排序
+     *
+     * 要求：parentId 为空或指向批内条目；childrenIds 与 parentId 一致；不存在环。
+     *
+     * @throws IllegalArgumentException 关系不一致或存在环
+     */
+    public static List<NovelSettingItem> topologicalOrder(List<NovelSettingItem> items) {
+        Map<String, NovelSettingItem> byId = new HashMap<>(items.size() * 2);
+        for (NovelSettingItem item : items) {
+            if (item.getId() == null || byId.put(item.getId(), item) != null) {
+                throw new IllegalArgumentException("设定树中存在空ID或重复ID: " + item.getId());
+            }
+        }
+        Map<String, List<NovelSettingItem>> childrenOf = new HashMap<>();
+        List<NovelSettingItem> roots = new ArrayList<>();
+        for (NovelSettingItem item : items) {
+            String parentId = item.getParentId();
+            if (parentId == null) {
+                roots.add(item);
+                continue;
+            }
+            NovelSettingItem parent = byId.get(parentId);
+            if (parent == null) {
+                throw new IllegalArgumentException("父设定不在本次写入的设定树中: " + item.getId() + " -> " + parentId);
+            }
+            if (parent.getChildrenIds() == null || !parent.getChildrenIds().contains(item.getId())) {
+                throw new IllegalArgumentException("父设定的子列表缺少子设定: " + parentId + " -> " + item.getId());
+            }
+            childrenOf.computeIfAbsent(parentId, k -> new ArrayList<>()).add(item);
+        }
+
+        // 从根出发广度遍历，环上的节点永远不可达
+        List<NovelSettingItem> ordered = new ArrayList<>(items.size());
+        Deque<NovelSettingItem> queue = new ArrayDeque<>(roots);
+        while (!queue.isEmpty()) {
+            NovelSettingItem item = queue.poll();
+            ordered.add(item);
+            queue.addAll(childrenOf.getOrDefault(item.getId(), List.of()));
+        }
+        if (ordered.size() != items.size()) {
+            throw new IllegalArgumentException("不能创建循环父子关系: " + (items.size() - ordered.size()) + " 个设定条目处于环中");
+        }
+        return ordered;
+    }
+}
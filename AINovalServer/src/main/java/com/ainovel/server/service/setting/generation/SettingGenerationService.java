@@ -97,9 +97,6 @@ public class SettingGenerationService implements ISettingGenerationService {
     // 在途任务超时时间：3 分钟
     private static final long INFLIGHT_TIMEOUT_MS = java.util.concurrent.TimeUnit.MINUTES.toMillis(3);
     
-    // 防重复工具调用机制 - 跟踪正在进行的工具调用
-    private final java.util.concurrent.ConcurrentHashMap<String, Boolean> activeToolCalls = new java.util.concurrent.ConcurrentHashMap<>();
-
     // 移除业务层公共模型占位Provider，公共路径逻辑统一由底层装饰器处理
     
     @Override
@@ -244,9 +241,10 @@ public class SettingGenerationService implements ISettingGenerationService {
 
 
     /**
-     * 流式文本阶段 + 增量工具解析：
-     * - 使用用户模型配置进行流式文本生成
-     * - 累计到一定长度或时间片后，将增量文本片段送入 text_to_settings 工具进行结构化
+     * 流式文本阶段 + 增量解析：
+     * - 使用用户模型配置进行流式文本生成，文本按固定格式输出（见 StreamingSettingTextParser）
+     * - 文本边生成边在本地解析，每个节点完整即落地，不再对文本做第二次 LLM 结构化
+     * - 不符合格式的文本在回合结束时送入 text_to_settings 工具兜底解析
      * - 去重与父子映射由现有校验与 crossBatchTempIdMap 保障
      */
     private Mono<Integer> startStreamingTextToSettings(SettingGenerationSession session,
@@ -259,9 +257,15 @@ public class SettingGenerationService implements ISettingGenerationService {
         return promptProvider.getSystemPrompt(session.getUserId(), ctx)
             .zipWith(promptProvider.getUserPrompt(session.getUserId(), template.getId(), ctx))
             .flatMap(prompts -> {
+                java.util.List<String> nodeTypes = strategyAdapter.getSupportedNodeTypes();
+                String supportedTypes = (nodeTypes == null || nodeTypes.isEmpty())
+                        ? java.util.Arrays.stream(com.ainovel.server.domain.model.SettingType.values())
+                            .map(com.ainovel.server.domain.model.SettingType::getValue)
+                            .collect(java.util.stream.Collectors.joining("、"))
+                        : String.join("、", nodeTypes);
                 String baseSys = prompts.getT1() +
                         "\n\n只输出设定纯文本，不要JSON/代码/工具调用。务必按如下严格格式输出，三行一组，每组代表一个设定节点，组与组之间以一个空行分隔：" +
-                        "\n1) 当前节点<tempId> 标题：<名称>" +
+                        "\n1) 当前节点<tempId> 标题：<名称> 类型：<类型>" +
                         "\n2) 父节点是：<parentTempId 或 null> [父节点标题：<父名称>]" +
                         "\n3) 内容：<该节点的描述>" +
                         "\n\n格式要求（必须遵守）：" +
@@ -269,13 +273,14 @@ public class SettingGenerationService implements ISettingGenerationService {
                         "\n- 先创建用户期待深度的根节点，再创建其子节点。而不是先创建完所有父节点才创建相关子节点，比如用户期待创建深度为三，则创建一个根节点，三个第二层子节点，9个第三层子节点，而不是先创建完所有父节点才创建相关子节点。子节点数量可多可少，但必须满足用户期待深度。" +
                         "\n- <tempId> 使用如 R1、R1-1、R2-3 的形式；同一节点在多轮文本中必须保持 tempId 不变。" +
                         "\n- 根节点父节点写为 null；子节点父节点必须写其父节点的 tempId，并可在方括号中给出父节点标题。" +
+                        "\n- <类型> 必须取以下之一：" + supportedTypes + "。" +
                         "\n- 名称中不要包含 '/' 字符；如需斜杠请使用全角 '／'。" +
                         "\n- 严禁在同一行混写多个节点，严禁输出列表、表格、编号或Markdown标记。" +
                         "\n\n示例：" +
-                        "\n当前节点R1 标题：魔法系统" +
+                        "\n当前节点R1 标题：魔法系统 类型：MAGIC_SYSTEM" +
                         "\n父节点是：null" +
                         "\n内容：本世界的超自然能力来源与运行规则的总称……" +
-                        "\n\n当前节点R1-1 标题：法师" +
+                        "\n\n当前节点R1-1 标题：法师 类型：CHARACTER" +
                         "\n父节点是：R1 [父节点标题：魔法系统]" +
                         "\n内容：能感知与操控魔力的人群，通常需要通过学派训练以掌握法术……";
                 String baseUsr = prompts.getT2();
@@ -403,84 +408,44 @@ public class SettingGenerationService implements ISettingGenerationService {
                                     .doOnNext(cfg2 -> log.debug("[Tool][Orchestrator] Using provider={}, model={}, endpoint={} for incremental parsing", cfg2[0], cfg2[1], cfg2[3]))
                                     .cache();
 
-                                // 每轮的累积与消费指针
-                                final StringBuilder accumulator = new StringBuilder();
-                                final java.util.concurrent.atomic.AtomicInteger consumed = new java.util.concurrent.atomic.AtomicInteger(0);
-                                final int minBatch = 800;     // 提高批量阈值，减少过早触发
-                                final int overlap = 120;      // 边界重叠，降低句子截断影响
-                                final java.util.concurrent.atomic.AtomicLong lastFlushMs = new java.util.concurrent.atomic.AtomicLong(System.currentTimeMillis());
+                                // 每轮的累积文本与增量解析器：每次订阅（含中断重试）都重新创建，重放的分片不会重复累积
+                                final java.util.concurrent.atomic.AtomicReference<StringBuilder> accumulator =
+                                    new java.util.concurrent.atomic.AtomicReference<>(new StringBuilder());
+                                final java.util.concurrent.atomic.AtomicReference<StreamingSettingTextParser> parser =
+                                    new java.util.concurrent.atomic.AtomicReference<>(new StreamingSettingTextParser());
 
                                 emitEvent(session.getSessionId(), new SettingGenerationEvent.GenerationProgressEvent(
                                     "开始流式文本生成并增量解析… (第" + (r + 1) + "/" + iterations + ")", null, null, null
                                 ));
 
-                                // 统一构建文本流（公共/私有逻辑已下沉至装饰器）
-                                // 已在上方定义 nonNullProvider 与 textStream，这里直接复用
-                                // com.ainovel.server.service.ai.AIModelProvider nonNullProvider = java.util.Objects.requireNonNull(provider, "模型提供商为空，无法启动文本流");
-                                log.info("[文本阶段] 启动流式文本生成: provider={} model={} ", nonNullProvider.getProviderName(), nonNullProvider.getModelName());
-                                // reactor.core.publisher.Flux<String> textStream = nonNullProvider.generateContentStream(req);
-
-                                return textStream
+                                // 流结束或中断时：产出最后一个节点；不符合格式的文本交给工具解析兜底（整轮都未解析出节点时兜底全文）
+                                final java.util.concurrent.atomic.AtomicBoolean drained = new java.util.concurrent.atomic.AtomicBoolean(false);
+                                final java.util.function.Supplier<String> drainRound = () -> {
+                                    if (!drained.compareAndSet(false, true)) return "";
+                                    StreamingSettingTextParser roundParser = parser.get();
+                                    applyParsedSettingNodes(session, roundParser.finish(), strategyAdapter);
+                                    return roundParser.parsedCount() == 0 ? accumulator.get().toString() : roundParser.drainUnparsed();
+                                };
+
+                                return reactor.core.publisher.Flux.defer(() -> {
+                                        StringBuilder attemptText = new StringBuilder();
+                                        StreamingSettingTextParser attemptParser = new StreamingSettingTextParser();
+                                        accumulator.set(attemptText);
+                                        parser.set(attemptParser);
+                                        return textStream
+                                            // 纯换行分片是节点分隔符，不能按空白过滤
+                                            .filter(chunk -> chunk != null && !chunk.isEmpty() && !"heartbeat".equalsIgnoreCase(chunk))
+                                            .doOnNext(chunk -> {
+                                                attemptText.append(chunk);
+                                                applyParsedSettingNodes(session, attemptParser.feed(chunk), strategyAdapter);
+                                            });
+                                    })
                                     // 仅对中断类错误进行有限次退避重试，避免与底层Provider的重试叠加
                                     .retryWhen(reactor.util.retry.Retry
                                         .backoff(2, java.time.Duration.ofSeconds(1))
                                         .jitter(0.3)
                                         .filter(SettingGenerationService.this::isInterrupted))
-                                    .filter(chunk -> chunk != null && !chunk.isBlank() && !"heartbeat".equalsIgnoreCase(chunk))
-                                    .bufferTimeout(32, java.time.Duration.ofSeconds(4))
-                                    .flatMap(parts -> {
-                                        String part = String.join("", parts);
-                                        if (part.isBlank()) return Mono.empty();
-                                        accumulator.append(part);
-                                        int total = accumulator.length();
-                                        int start = consumed.get();
-                                        int deltaLen = total - start;
-                                        if (deltaLen < minBatch) {
-                                            long now = System.currentTimeMillis();
-                                            if (now - lastFlushMs.get() < 10000L) {
-                                                return Mono.empty();
-                                            }
-                                        }
-                                        String delta = accumulator.substring(start, total);
-                                        // 若已在之前的工具结果中声明完成，则不再发起新的增量编排
-                                        Object finalizedFlag = session.getMetadata().get("streamFinalized");
-                                        if (Boolean.TRUE.equals(finalizedFlag)) {
-                                            return Mono.<Void>empty();
-                                        }
-                                        // 异步触发工具解析，不阻塞文本流与回合结束
-                                        // 优化：添加并发限制和去重，避免同时发起过多工具调用
-                                        String orchestrationKey = session.getSessionId() + ":" + total;
-                                        
-                                        // 防重复调用检查
-                                        if (activeToolCalls.putIfAbsent(orchestrationKey, true) != null) {
-                                            log.debug("跳过重复的工具调用: 批次标识={}", orchestrationKey);
-                                            return Mono.<Void>empty();
-                                        }
-                                        
-                                        orchestratorCfgMono
-                                            .flatMap(cfg2 -> {
-                                                log.debug("触发增量工具解析: sessionId={} 文本长度={} 批次标识={}", 
-                                                    session.getSessionId(), delta.length(), orchestrationKey);
-                                                return orchestrateIncrementalTextToSettings(session, strategyAdapter, cfg2[0], cfg2[1], cfg2[2], cfg2[3], delta, isFinalRound);
-                                            })
-                                            .timeout(java.time.Duration.ofMinutes(3))
-                                            .onErrorResume(err -> {
-                                                emitErrorEvent(session.getSessionId(), "TOOL_STAGE_INC_ERROR", err.getMessage(), null, true);
-                                                return Mono.<Void>empty();
-                                            })
-                                            .doFinally(signalType -> {
-                                                // 完成后清理防重复调用标记
-                                                activeToolCalls.remove(orchestrationKey);
-                                                log.debug("清理工具调用标记: 批次标识={}", orchestrationKey);
-                                            })
-                                            .subscribe();
-
-                                        // 单调更新消费指针与时间戳
-                                        int newConsumed = Math.max(0, accumulator.length() - overlap);
-                                        consumed.updateAndGet(prevVal -> Math.max(prevVal, newConsumed));
-                                        lastFlushMs.set(System.currentTimeMillis());
-                                        return Mono.empty();
-                                    }, 1)
+                                    .then()
                                     // 将流错误改为可恢复/兜底，不向前端发送致命错误
                                     .onErrorResume(err -> {
                                         if (isInterrupted(err)) {
@@ -494,10 +459,8 @@ public class SettingGenerationService implements ISettingGenerationService {
                                             } catch (Exception ignore) {}
                                             try {
                                                 if (!Boolean.TRUE.equals(session.getMetadata().get("streamFinalized"))) {
-                                                    int start2 = consumed.get();
-                                                    int total2 = accumulator.length();
-                                                    if (total2 > start2) {
-                                                        String tail = accumulator.substring(start2, total2);
+                                                    String tail = drainRound.get();
+                                                    if (!tail.isBlank()) {
                                                         orchestratorCfgMono
                                                             .flatMap(cfg2 -> orchestrateIncrementalTextToSettings(session, strategyAdapter, cfg2[0], cfg2[1], cfg2[2], cfg2[3], tail, isFinalRound)
                                                                 .timeout(java.time.Duration.ofMinutes(2))
@@ -510,7 +473,7 @@ public class SettingGenerationService implements ISettingGenerationService {
                                             // 不中断后续链路
                                             return Mono.<Void>empty();
                                         }
-                                        // 非中断错误：可恢复，尝试对已积累文本进行兜底解析；仅在最后一轮时考虑结束
+                                        // 非中断错误：可恢复，尝试对未解析文本进行兜底解析；仅在最后一轮时考虑结束
                                         emitErrorEvent(session.getSessionId(), "TEXT_STREAM_ERROR", err.getMessage(), null, true);
                                         try {
                                             if (isFinalRound) {
@@ -520,8 +483,8 @@ public class SettingGenerationService implements ISettingGenerationService {
                                             }
                                         } catch (Exception ignore) {}
                                         try {
-                                            String snapshot = accumulator.toString();
-                                            if (snapshot != null && !snapshot.isBlank() && !Boolean.TRUE.equals(session.getMetadata().get("streamFinalized"))) {
+                                            String snapshot = Boolean.TRUE.equals(session.getMetadata().get("streamFinalized")) ? "" : drainRound.get();
+                                            if (!snapshot.isBlank()) {
                                                 attemptTextToSettingsJsonFallback(session, snapshot, strategyAdapter)
                                                     .doFinally(sig2 -> {
                                                         try {
@@ -533,16 +496,16 @@ public class SettingGenerationService implements ISettingGenerationService {
                                                     .subscribe();
                                             } else {
                                                 if (isFinalRound && !Boolean.TRUE.equals(session.getMetadata().get("streamFinalized"))) {
-                                                    attemptFinalizeWithInFlightGate(session, "Hybrid streaming error (no content)");
+                                                    scheduleFinalizeAfterTextEnd(session, "Hybrid streaming error (no content)");
                                                 }
                                             }
                                         } catch (Exception ignore3) {}
                                         return Mono.empty();
                                     })
-                                    .doOnComplete(() -> {
+                                    .doOnSuccess(v -> {
                                         try {
                                             // 保存本轮输出以作为后续上下文
-                                            String roundOut = accumulator.toString();
+                                            String roundOut = accumulator.get().toString();
                                             if (roundOut != null && !roundOut.isBlank()) {
                                                 String prevOut = accumulatedText.get();
                                                 String merged = (prevOut == null || prevOut.isBlank()) ? roundOut : (prevOut + "\n" + roundOut);
@@ -550,18 +513,18 @@ public class SettingGenerationService implements ISettingGenerationService {
                                                 try { session.getMetadata().put("accumulatedText", merged); } catch (Exception ignore) {}
                                             }
 
-                                            if (isFinalRound) {
-                                                // 仅在最后一轮记录文本阶段结束，尾段交给工具解析（不触发 finalize）
+                                            if (isFinalRound && !Boolean.TRUE.equals(session.getMetadata().get("textStreamEnded"))) {
+                                                // 仅在最后一轮记录文本阶段结束
                                                 session.getMetadata().put("textStreamEnded", Boolean.TRUE);
                                                 session.getMetadata().put("textEndedAt", System.currentTimeMillis());
                                                 sessionManager.saveSession(session).subscribe();
                                             }
 
                                             if (!Boolean.TRUE.equals(session.getMetadata().get("streamFinalized"))) {
-                                                int start2 = consumed.get();
-                                                int total2 = accumulator.length();
-                                                if (total2 > start2) {
-                                                    String tail = accumulator.substring(start2, total2);
+                                                String tail = drainRound.get();
+                                                if (!tail.isBlank()) {
+                                                    // 兜底：不符合格式的文本交给 text_to_settings 工具解析，最后一轮由工具编排结束时完成会话
+                                                    log.info("[文本阶段] 存在无法按格式解析的文本，交由工具解析: sessionId={} 长度={}", session.getSessionId(), tail.length());
                                                     orchestratorCfgMono
                                                         .flatMap(cfg2 -> orchestrateIncrementalTextToSettings(session, strategyAdapter, cfg2[0], cfg2[1], cfg2[2], cfg2[3], tail, isFinalRound)
                                                             .timeout(java.time.Duration.ofMinutes(2))
@@ -571,10 +534,8 @@ public class SettingGenerationService implements ISettingGenerationService {
                                                             })
                                                         )
                                                         .subscribe();
-                                                } else {
-                                                    // 再次兜底：尝试对全量文本进行解析（不结束会话）；
-                                                    // 是否能解析由解析器自行判断（canParse），并由验证服务去重/过滤。
-                                                    attemptTextToSettingsJsonFallback(session, accumulator.toString(), strategyAdapter).subscribe();
+                                                } else if (isFinalRound) {
+                                                    scheduleFinalizeAfterTextEnd(session, "Streaming text parsed");
                                                 }
                                             }
                                         } catch (Exception e) {
@@ -882,6 +843,41 @@ public class SettingGenerationService implements ISettingGenerationService {
         return s.substring(0, Math.max(0, maxLen - 1)) + "…";
     }
 
+    /**
+     * 落地文本阶段本地解析出的节点：跳过 tempId 已落地的节点（多轮文本会重复输出同一节点，流重试也会重放），
+     * 有新建节点时推送进度事件。
+     */
+    private void applyParsedSettingNodes(SettingGenerationSession session,
+                                         java.util.List<java.util.Map<String, Object>> nodes,
+                                         ConfigurableStrategyAdapter strategyAdapter) {
+        if (nodes == null || nodes.isEmpty() || Boolean.TRUE.equals(session.getMetadata().get("streamFinalized"))) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        java.util.Map<String, String> tempIdMap = (java.util.Map<String, String>) session.getMetadata().get("tempIdMap");
+        java.util.List<java.util.Map<String, Object>> fresh = new java.util.ArrayList<>(nodes.size());
+        for (java.util.Map<String, Object> node : nodes) {
+            Object tempId = node.get("tempId");
+            if (tempId == null || tempIdMap == null || !tempIdMap.containsKey(tempId.toString())) {
+                fresh.add(node);
+            }
+        }
+        int created = applyNodesDirect(session, fresh, strategyAdapter);
+        if (created > 0) {
+            emitEvent(session.getSessionId(), new SettingGenerationEvent.GenerationProgressEvent(
+                "已创建节点:" + created, null, null, null
+            ));
+        }
+    }
+
+    /**
+     * 文本结束后没有工具编排需要等待时，越过 finalize 的缓冲期后再尝试完成
+     */
+    private void scheduleFinalizeAfterTextEnd(SettingGenerationSession session, String message) {
+        Mono.delay(java.time.Duration.ofMillis(400))
+            .subscribe(t -> attemptFinalizeWithInFlightGate(session, message));
+    }
+
     /**
      * 直接在服务端将解析出来的 nodes 落地到会话：
      * - 处理 tempId → 真实ID 的映射（批内 + 跨批）
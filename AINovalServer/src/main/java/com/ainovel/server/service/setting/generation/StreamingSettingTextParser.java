@@ -0,0 +1,269 @@
+package com.ainovel.server.service.setting.generation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ainovel.server.domain.model.SettingType;
+
+/**
+ * 设定文本的增量解析器
+ *
+ * 文本阶段要求模型按固定格式输出，每组代表一个设定节点，组与组之间空行分隔：
+ * <pre>
+ * 当前节点R1-1 标题：法师 类型：CHARACTER
+ * 父节点是：R1 [父节点标题：魔法系统]
+ * 内容：能感知与操控魔力的人群……
+ * </pre>
+ * 解析器按流式分片逐行消费，一个节点在遇到空行、下一个节点标题或流结束时即视为完整并产出，
+ * 产出结构与 text_to_settings 工具结果一致（name/type/description/parentId/tempId），可直接落地。
+ * 缺少标题或内容等不符合格式的段落不会丢弃，原文收集到 {@link #drainUnparsed()}，交由工具解析兜底。
+ *
+ * 非线程安全，每个文本流使用一个实例。
+ */
+final class StreamingSettingTextParser {
+
+    private static final String HEADER_PREFIX = "当前节点";
+    private static final String TITLE_LABEL = "标题";
+    private static final String TYPE_LABEL = "类型";
+    private static final String PARENT_LABEL = "父节点是";
+    private static final String CONTENT_LABEL = "内容";
+
+    /** 尚未遇到换行的半行文本 */
+    private final StringBuilder pendingLine = new StringBuilder(128);
+    /** 当前节点的原文，解析失败时整体交给兜底 */
+    private final StringBuilder blockRaw = new StringBuilder(512);
+    private final StringBuilder description = new StringBuilder(256);
+    private final StringBuilder unparsed = new StringBuilder();
+
+    private boolean inBlock;
+    private boolean hasContent;
+    private String tempId;
+    private String name;
+    private String type;
+    private String parentTempId;
+    private int parsedCount;
+
+    /**
+     * 消费一段流式文本，返回本次完成的节点
+     */
+    List<Map<String, Object>> feed(CharSequence chunk) {
+        if (chunk == null || chunk.length() == 0) {
+            return Collections.emptyList();
+        }
+        List<Map<String, Object>> completed = null;
+        int lineStart = 0;
+        for (int i = 0; i < chunk.length(); i++) {
+            if (chunk.charAt(i) != '\n') {
+                continue;
+            }
+            pendingLine.append(chunk, lineStart, i);
+            completed = acceptLine(pendingLine.toString(), completed);
+            pendingLine.setLength(0);
+            lineStart = i + 1;
+        }
+        pendingLine.append(chunk, lineStart, chunk.length());
+        return completed != null ? completed : Collections.emptyList();
+    }
+
+    /**
+     * 流结束：处理最后的半行并产出最后一个节点
+     */
+    List<Map<String, Object>> finish() {
+        List<Map<String, Object>> completed = null;
+        if (pendingLine.length() > 0) {
+            completed = acceptLine(pendingLine.toString(), null);
+            pendingLine.setLength(0);
+        }
+        completed = closeBlock(completed);
+        return completed != null ? completed : Collections.emptyList();
+    }
+
+    /**
+     * 取出目前为止无法按格式解析的原文，并清空
+     */
+    String drainUnparsed() {
+        String text = unparsed.toString();
+        unparsed.setLength(0);
+        return text;
+    }
+
+    /**
+     * 已成功解析的节点数
+     */
+    int parsedCount() {
+        return parsedCount;
+    }
+
+    private List<Map<String, Object>> acceptLine(String rawLine, List<Map<String, Object>> completed) {
+        String line = stripListMarker(rawLine.trim());
+        if (line.isEmpty()) {
+            // 空行是组分隔符；节点还没有内容时继续等待（模型偶尔会在行间多空一行）
+            return hasContent ? closeBlock(completed) : completed;
+        }
+        if (line.startsWith(HEADER_PREFIX)) {
+            completed = closeBlock(completed);
+            inBlock = true;
+            appendRaw(blockRaw, rawLine);
+            parseHeader(line.substring(HEADER_PREFIX.length()));
+            return completed;
+        }
+        if (!inBlock) {
+            appendRaw(unparsed, rawLine);
+            return completed;
+        }
+        appendRaw(blockRaw, rawLine);
+        String value;
+        if ((value = valueOf(line, PARENT_LABEL)) != null) {
+            parentTempId = parseParent(value);
+        } else if ((value = valueOf(line, TYPE_LABEL)) != null) {
+            type = value;
+        } else if ((value = valueOf(line, CONTENT_LABEL)) != null) {
+            hasContent = true;
+            description.append(value);
+        } else if (hasContent) {
+            // 内容换行续写
+            description.append('\n').append(line);
+        }
+        return completed;
+    }
+
+    /**
+     * 解析 "R1-1 标题：法师 类型：CHARACTER"（"当前节点"之后的部分）
+     */
+    private void parseHeader(String rest) {
+        int titleAt = rest.indexOf(TITLE_LABEL);
+        if (titleAt < 0) {
+            tempId = firstToken(rest);
+            return;
+        }
+        tempId = firstToken(rest.substring(0, titleAt));
+        String title = stripSeparator(rest.substring(titleAt + TITLE_LABEL.length()));
+        // 仅当"类型"后紧跟冒号时才视为类型字段，避免名称本身含"类型"二字
+        int typeAt = Math.max(title.lastIndexOf(TYPE_LABEL + "："), title.lastIndexOf(TYPE_LABEL + ":"));
+        if (typeAt >= 0) {
+            type = firstToken(title.substring(typeAt + TYPE_LABEL.length() + 1));
+            title = title.substring(0, typeAt);
+        }
+        name = title.trim();
+    }
+
+    private List<Map<String, Object>> closeBlock(List<Map<String, Object>> completed) {
+        if (!inBlock) {
+            return completed;
+        }
+        if (hasContent && name != null && !name.isEmpty()) {
+            Map<String, Object> node = new HashMap<>(8);
+            node.put("name", name);
+            node.put("type", resolveType(type).getValue());
+            node.put("description", description.toString().trim());
+            node.put("parentId", parentTempId);
+            if (tempId != null && !tempId.isEmpty()) {
+                node.put("tempId", tempId);
+            }
+            if (completed == null) {
+                completed = new ArrayList<>(4);
+            }
+            completed.add(node);
+            parsedCount++;
+        } else {
+            unparsed.append(blockRaw).append('\n');
+        }
+        resetBlock();
+        return completed;
+    }
+
+    private void resetBlock() {
+        inBlock = false;
+        hasContent = false;
+        tempId = null;
+        name = null;
+        type = null;
+        parentTempId = null;
+        blockRaw.setLength(0);
+        description.setLength(0);
+    }
+
+    /**
+     * 类型既接受枚举值（CHARACTER），也接受中文名称（角色）；无法识别时为 OTHER
+     */
+    static SettingType resolveType(String value) {
+        if (value == null || value.isBlank()) {
+            return SettingType.OTHER;
+        }
+        String v = value.trim();
+        for (SettingType t : SettingType.values()) {
+            if (t.getValue().equalsIgnoreCase(v) || t.getDisplayName().equals(v)) {
+                return t;
+            }
+        }
+        return SettingType.OTHER;
+    }
+
+    private static String parseParent(String value) {
+        String token = firstToken(value);
+        int bracket = token.indexOf('[');
+        if (bracket >= 0) {
+            token = token.substring(0, bracket);
+        }
+        if (token.isEmpty() || "null".equalsIgnoreCase(token) || "无".equals(token)) {
+            return null;
+        }
+        return token;
+    }
+
+    /**
+     * line 以 label 开头且后跟冒号时返回冒号后的值，否则返回 null
+     */
+    private static String valueOf(String line, String label) {
+        if (!line.startsWith(label)) {
+            return null;
+        }
+        int i = label.length();
+        if (i < line.length() && isSeparator(line.charAt(i))) {
+            return line.substring(i + 1).trim();
+        }
+        return null;
+    }
+
+    private static String stripSeparator(String s) {
+        String t = s.trim();
+        return !t.isEmpty() && isSeparator(t.charAt(0)) ? t.substring(1).trim() : t;
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '：' || c == ':';
+    }
+
+    private static String firstToken(String s) {
+        String t = s.trim();
+        for (int i = 0; i < t.length(); i++) {
+            if (Character.isWhitespace(t.charAt(i))) {
+                return t.substring(0, i);
+            }
+        }
+        return t;
+    }
+
+    /**
+     * 去掉模型照抄的格式编号或 Markdown 标记，如 "1) "、"- "、"**"
+     */
+    private static String stripListMarker(String line) {
+        String s = line;
+        if (s.length() > 2 && Character.isDigit(s.charAt(0)) && (s.charAt(1) == ')' || s.charAt(1) == '）' || s.charAt(1) == '.')) {
+            s = s.substring(2).trim();
+        } else if (s.startsWith("- ")) {
+            s = s.substring(2).trim();
+        }
+        if (s.indexOf('*') >= 0) {
+            s = s.replace("**", "").trim();
+        }
+        return s;
+    }
+
+    private static void appendRaw(StringBuilder target, String rawLine) {
+        target.append(rawLine).append('\n');
+    }
+}
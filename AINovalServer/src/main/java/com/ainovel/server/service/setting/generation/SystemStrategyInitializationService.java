@@ -5,90 +5,69 @@ import com.ainovel.server.domain.model.EnhancedUserPromptTemplate;
 import com.ainovel.server.domain.model.settinggeneration.SettingGenerationConfig;
 import com.ainovel.server.repository.EnhancedUserPromptTemplateRepository;
 import com.ainovel.server.service.prompt.providers.SettingTreeGenerationPromptProvider;
+import com.ainovel.server.service.seed.SeedItem;
+import com.ainovel.server.service.seed.SystemSeedSource;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.context.event.ApplicationReadyEvent;
-import org.springframework.context.event.EventListener;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
-import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 
 /**
  * 系统策略初始化服务
- * 负责在系统启动时将所有硬编码的策略Bean初始化为数据库中的模板记录
+ * 把所有硬编码的策略Bean声明为系统模板种子，由系统种子协调器写入数据库
  */
 @Slf4j
 @Service
+@Order(3)
 @RequiredArgsConstructor
-public class SystemStrategyInitializationService {
+public class SystemStrategyInitializationService implements SystemSeedSource {
 
     private final SettingGenerationStrategyFactory strategyFactory;
     private final EnhancedUserPromptTemplateRepository templateRepository;
     private final SettingTreeGenerationPromptProvider promptProvider;
+    private final ReactiveMongoTemplate mongoTemplate;
 
     @Value("${ainovel.ai.features.setting-tree-generation.init-on-startup:false}")
     private boolean settingTreeGenerationInitOnStartup;
 
+    @Override
+    public String seedCollection() {
+        return mongoTemplate.getCollectionName(EnhancedUserPromptTemplate.class);
+    }
+
     /**
-     * 系统启动后初始化所有策略模板
+     * 每个策略一个系统模板种子，按模板标识匹配
      */
-    @EventListener(ApplicationReadyEvent.class)
-    public void initializeSystemStrategies() {
+    @Override
+    public List<SeedItem> seedItems() {
         if (!settingTreeGenerationInitOnStartup) {
             log.info("⏭️ 跳过 SETTING_TREE_GENERATION 策略模板初始化（开关关闭）");
-            return;
+            return List.of();
         }
-        log.info("🚀 开始初始化系统策略模板...");
-        
-        Map<String, SettingGenerationStrategy> allStrategies = strategyFactory.getAllStrategies();
-        
-        allStrategies.values().forEach(strategy -> {
-            initializeStrategyTemplate(strategy)
-                .doOnSuccess(templateId -> 
-                    log.info("✅ 策略模板初始化成功: {} -> {}", strategy.getStrategyName(), templateId))
-                .doOnError(error -> 
-                    log.error("❌ 策略模板初始化失败: {}, error: {}", strategy.getStrategyName(), error.getMessage()))
-                .subscribe();
-        });
-        
-        log.info("🎉 系统策略模板初始化完成，共处理 {} 个策略", allStrategies.size());
-    }
-
-    /**
-     * 初始化单个策略的模板
-     */
-    private Mono<String> initializeStrategyTemplate(SettingGenerationStrategy strategy) {
-        String templateIdentifier = buildTemplateIdentifier(strategy);
-        
-        // 检查数据库中是否已存在系统模板
-        return templateRepository.findByUserId("system")
-            .filter(template -> 
-                template.getFeatureType() == AIFeatureType.SETTING_TREE_GENERATION && 
-                templateIdentifier.equals(template.getName())
-            )
-            .next()
-            .map(existingTemplate -> {
-                log.debug("✅ 策略模板已存在: templateId={}, name={}", 
-                    existingTemplate.getId(), existingTemplate.getName());
-                return existingTemplate.getId();
+        return strategyFactory.getAllStrategies().values().stream()
+            .sorted(Comparator.comparing(SettingGenerationStrategy::getStrategyId))
+            .map(strategy -> {
+                String templateIdentifier = buildTemplateIdentifier(strategy);
+                return new SeedItem(templateIdentifier,
+                    Map.of("userId", "system",
+                        "featureType", AIFeatureType.SETTING_TREE_GENERATION.name(),
+                        "name", templateIdentifier),
+                    buildStrategyTemplate(strategy, templateIdentifier));
             })
-            .switchIfEmpty(createStrategyTemplate(strategy, templateIdentifier))
-            .doOnError(error -> 
-                log.error("❌ 策略模板初始化失败: strategy={}, error={}", 
-                    strategy.getStrategyName(), error.getMessage(), error));
+            .toList();
     }
 
     /**
-     * 创建策略模板
+     * 构建策略模板（不含ID和时间戳）
      */
-    private Mono<String> createStrategyTemplate(SettingGenerationStrategy strategy, String templateIdentifier) {
-        log.info("📝 创建新的策略模板: strategy={}, templateIdentifier={}",
-            strategy.getStrategyName(), templateIdentifier);
-
+    private EnhancedUserPromptTemplate buildStrategyTemplate(SettingGenerationStrategy strategy, String templateIdentifier) {
         SettingGenerationConfig config = strategy.createDefaultConfig();
 
         String systemPrompt;
@@ -121,7 +100,7 @@ public class SystemStrategyInitializationService {
                 break;
         }
 
-        EnhancedUserPromptTemplate systemTemplate = EnhancedUserPromptTemplate.builder()
+        return EnhancedUserPromptTemplate.builder()
             .userId("system")
             .featureType(AIFeatureType.SETTING_TREE_GENERATION)
             .name(templateIdentifier)
@@ -137,19 +116,7 @@ public class SystemStrategyInitializationService {
             .authorId("system")
             .version(1)
             .language("zh")
-            .createdAt(LocalDateTime.now())
-            .updatedAt(LocalDateTime.now())
             .build();
-
-        return templateRepository.save(systemTemplate)
-            .map(savedTemplate -> {
-                log.info("✅ 策略模板创建成功: templateId={}, name={}, strategy={}",
-                    savedTemplate.getId(), savedTemplate.getName(), strategy.getStrategyName());
-                return savedTemplate.getId();
-            })
-            .doOnError(error ->
-                log.error("❌ 策略模板创建失败: strategy={}, error={}",
-                    strategy.getStrategyName(), error.getMessage(), error));
     }
 
     /**
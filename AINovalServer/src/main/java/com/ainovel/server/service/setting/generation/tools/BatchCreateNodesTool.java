@@ -34,6 +34,19 @@ public class BatchCreateNodesTool implements ToolDefinition {
         return "create_setting_nodes";
     }
     
+    /**
+     * 后一批次可能通过 tempId 引用前一批次的节点，与单个创建共用会话分组，同一上下文内按顺序执行
+     */
+    @Override
+    public String getConcurrencyGroup() {
+        return CreateSettingNodeTool.SESSION_CONCURRENCY_GROUP;
+    }
+    
+    @Override
+    public int getMaxConcurrency() {
+        return 1;
+    }
+    
     @Override
     public String getDescription() {
         return "批量创建多个设定节点。首选方式，用于一次性创建多个相关设定项，大幅提升效率。强烈建议使用此工具而非 `create_setting_node`。";
@@ -17,6 +17,12 @@ import java.util.*;
 @Slf4j
 public class CreateSettingNodeTool implements ToolDefinition {
     
+    /**
+     * 修改设定生成会话的工具共用的并发分组：会话中的节点集合不是线程安全的，
+     * 且子节点创建时要校验父节点已存在，同一上下文内按模型给出的顺序串行执行
+     */
+    public static final String SESSION_CONCURRENCY_GROUP = "setting-generation-session";
+    
     private final SettingNodeHandler handler;
     
     public CreateSettingNodeTool(SettingNodeHandler handler) {
@@ -28,6 +34,16 @@ public class CreateSettingNodeTool implements ToolDefinition {
         return "create_setting_node";
     }
     
+    @Override
+    public String getConcurrencyGroup() {
+        return SESSION_CONCURRENCY_GROUP;
+    }
+    
+    @Override
+    public int getMaxConcurrency() {
+        return 1;
+    }
+    
     @Override
     public String getDescription() {
         return "创建单个设定节点。辅助工具。优先使用 `create_setting_nodes` 批量创建；仅在需要单独处理特殊设定或补充个别设定时使用。";
@@ -26,6 +26,19 @@ public class MarkGenerationCompleteTool implements ToolDefinition {
         return "markGenerationComplete";
     }
     
+    /**
+     * 完成标记须排在同一轮的节点创建之后
+     */
+    @Override
+    public String getConcurrencyGroup() {
+        return CreateSettingNodeTool.SESSION_CONCURRENCY_GROUP;
+    }
+    
+    @Override
+    public int getMaxConcurrency() {
+        return 1;
+    }
+    
     @Override
     public String getDescription() {
         return "标记当前设定生成任务已完成。";
@@ -27,6 +27,19 @@ public class MarkModificationCompleteTool implements ToolDefinition {
         return "markModificationComplete";
     }
 
+    /**
+     * 完成标记须排在同一轮的节点创建之后
+     */
+    @Override
+    public String getConcurrencyGroup() {
+        return CreateSettingNodeTool.SESSION_CONCURRENCY_GROUP;
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+        return 1;
+    }
+
     @Override
     public String getDescription() {
         return "当对一个或多个设定节点的修改和创建操作全部完成后，调用此工具来结束当前修改流程。";
@@ -12,6 +12,7 @@ import com.ainovel.server.service.NovelSettingService;
 import com.ainovel.server.service.setting.NovelSettingHistoryService;
 
 import com.ainovel.server.service.setting.SettingConversionService;
+import com.ainovel.server.service.setting.SettingTreeCloner;
 import com.ainovel.server.service.setting.generation.InMemorySessionManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -559,78 +560,59 @@ public class NovelSettingHistoryServiceImpl implements NovelSettingHistoryServic
                         log.info("[历史拷贝] 该历史无 generatedSettingIds，跳过");
                         return Mono.just(java.util.Collections.<String>emptyList());
                     }
-                    // 批量查询源条目
-                    return Flux.fromIterable(ids)
-                            .flatMap(novelSettingService::getSettingItemById)
+                    // 一次查询取回全部源条目，在内存中克隆整棵树后一次有序批量写入
+                    return novelSettingService.getSettingItemsByIds(ids)
                             .collectList()
                             .flatMap(sourceItems -> {
-                                try { log.info("[历史拷贝] 准备克隆设定条目数量: {}", (sourceItems != null ? sourceItems.size() : 0)); } catch (Exception ignore) {}
-                                Map<String, List<String>> parentChildMap = history.getParentChildMap() != null
-                                        ? new HashMap<>(history.getParentChildMap())
-                                        : new HashMap<>();
-                                // 先创建所有条目的浅拷贝并分配新ID
-                                Map<String, String> oldToNewId = new HashMap<>();
-                                List<NovelSettingItem> clones = new ArrayList<>();
-                                for (NovelSettingItem src : sourceItems) {
-                                    String newId = UUID.randomUUID().toString();
-                                    oldToNewId.put(src.getId(), newId);
-                                    NovelSettingItem clone = NovelSettingItem.builder()
-                                            .id(newId)
-                                            .novelId(novelId)
-                                            .userId(userId)
-                                            .name(src.getName())
-                                            .type(src.getType())
-                                            .description(src.getDescription())
-                                            .attributes(src.getAttributes() != null ? new HashMap<>(src.getAttributes()) : null)
-                                            .imageUrl(src.getImageUrl())
-                                            .relationships(null) // 关系后续可按需复制
-                                            .sceneIds(null) // 场景关联不复制
-                                            .priority(src.getPriority())
-                                            .generatedBy("HISTORY_RESTORE")
-                                            .tags(src.getTags() != null ? new ArrayList<>(src.getTags()) : null)
-                                            .status(src.getStatus())
-                                            .vector(null)
-                                            .createdAt(LocalDateTime.now())
-                                            .updatedAt(LocalDateTime.now())
-                                            .isAiSuggestion(false)
-                                            .metadata(src.getMetadata() != null ? new HashMap<>(src.getMetadata()) : null)
-                                            .parentId(null) // 先置空，稍后重建
-                                            .childrenIds(null)
-                                            .nameAliasTracking(src.getNameAliasTracking())
-                                            .aiContextTracking(src.getAiContextTracking())
-                                            .referenceUpdatePolicy(src.getReferenceUpdatePolicy())
-                                            .build();
-                                    clones.add(clone);
+                                log.info("[历史拷贝] 准备克隆设定条目数量: {}", sourceItems.size());
+                                // findAllById 不保证顺序，按历史记录中的顺序排列，子节点顺序随之稳定
+                                Map<String, Integer> position = new HashMap<>();
+                                for (int i = 0; i < ids.size(); i++) {
+                                    position.putIfAbsent(ids.get(i), i);
                                 }
-                                // 批量保存克隆条目
-                                return novelSettingService.saveAll(clones)
+                                sourceItems.sort(Comparator.comparingInt(item -> position.getOrDefault(item.getId(), Integer.MAX_VALUE)));
+                                LocalDateTime now = LocalDateTime.now();
+                                List<NovelSettingItem> clones = SettingTreeCloner.cloneTree(
+                                        sourceItems,
+                                        history.getParentChildMap(),
+                                        src -> copyForRestore(src, novelId, userId, now));
+                                return novelSettingService.insertSettingTree(clones)
+                                        .map(NovelSettingItem::getId)
                                         .collectList()
-                                        .flatMap(saved -> {
-                                            try { log.info("[历史拷贝] 已保存克隆条目数量: {}，开始重建父子关系", (saved != null ? saved.size() : 0)); } catch (Exception ignore) {}
-                                            // 根据 parentChildMap 重建父子关系
-                                            List<Mono<NovelSettingItem>> relOps = new ArrayList<>();
-                                            for (Map.Entry<String, List<String>> e : parentChildMap.entrySet()) {
-                                                String oldParent = e.getKey();
-                                                String newParent = oldToNewId.get(oldParent);
-                                                if (newParent == null) continue;
-                                                for (String oldChild : e.getValue()) {
-                                                    String newChild = oldToNewId.get(oldChild);
-                                                    if (newChild == null) continue;
-                                                    relOps.add(novelSettingService.setParentChildRelationship(newChild, newParent));
-                                                }
-                                            }
-                                            return Flux.fromIterable(relOps)
-                                                    .flatMap(m -> m)
-                                                    .then(Mono.fromSupplier(() -> {
-                                                        List<String> newIds = saved.stream().map(NovelSettingItem::getId).collect(Collectors.toList());
-                                                        try { log.info("[历史拷贝] 关系重建完成，新条目数: {}", newIds.size()); } catch (Exception ignore) {}
-                                                        return newIds;
-                                                    }));
-                                        });
+                                        .doOnSuccess(newIds -> log.info("[历史拷贝] 设定树写入完成，新条目数: {}", newIds.size()));
                             });
                 });
     }
 
+    /**
+     * 复制源条目内容用于恢复，ID与父子关系由 SettingTreeCloner 重新分配
+     */
+    private NovelSettingItem copyForRestore(NovelSettingItem src, String novelId, String userId, LocalDateTime now) {
+        return NovelSettingItem.builder()
+                .novelId(novelId)
+                .userId(userId)
+                .name(src.getName())
+                .type(src.getType())
+                .description(src.getDescription())
+                .attributes(src.getAttributes() != null ? new HashMap<>(src.getAttributes()) : null)
+                .imageUrl(src.getImageUrl())
+                .relationships(null) // 关系后续可按需复制
+                .sceneIds(null) // 场景关联不复制
+                .priority(src.getPriority())
+                .generatedBy("HISTORY_RESTORE")
+                .tags(src.getTags() != null ? new ArrayList<>(src.getTags()) : null)
+                .status(src.getStatus())
+                .vector(null)
+                .createdAt(now)
+                .updatedAt(now)
+                .isAiSuggestion(false)
+                .metadata(src.getMetadata() != null ? new HashMap<>(src.getMetadata()) : null)
+                .nameAliasTracking(src.getNameAliasTracking())
+                .aiContextTracking(src.getAiContextTracking())
+                .referenceUpdatePolicy(src.getReferenceUpdatePolicy())
+                .build();
+    }
+
     /**
      * 批量删除历史记录
      * 
@@ -0,0 +1,203 @@
+package com.ainovel.server.service.setting.mention;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 不可变的 Aho-Corasick 多模式匹配自动机。
+ * 构建后以紧凑数组存储（每个状态的出边为有序 char[] + int[]，二分查找），
+ * 扫描文本时只需一次线性遍历即可找出所有关键词出现位置，线程安全。
+ *
+ * 匹配时对拉丁字母做小写归一（中文不受影响）。
+ */
+public final class AhoCorasickMatcher {
+
+    private static final AhoCorasickMatcher EMPTY = new AhoCorasickMatcher(Collections.emptyList());
+
+    /** 模式串（已归一化） */
+    private final String[] patterns;
+    /** 每个状态的出边字符（有序） */
+    private final char[][] edgeChars;
+    /** 每个状态的出边目标状态 */
+    private final int[][] edgeTargets;
+    /** 失败指针 */
+    private final int[] fail;
+    /** 以该状态结尾的模式下标，-1 表示无 */
+    private final int[] terminal;
+    /** 输出链接：沿失败链最近的终止状态，-1 表示无 */
+    private final int[] outputLink;
+
+    private AhoCorasickMatcher(List<String> keywords) {
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<Integer> terminalList = new ArrayList<>();
+        List<String> patternList = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        terminalList.add(-1);
+
+        for (String keyword : keywords) {
+            String normalized = normalize(keyword);
+            if (normalized.isEmpty()) {
+                continue;
+            }
+            int state = 0;
+            for (int i = 0; i < normalized.length(); i++) {
+                char c = normalized.charAt(i);
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    terminalList.add(-1);
+                    trie.get(state).put(c, next);
+                }
+                state = next;
+            }
+            if (terminalList.get(state) < 0) {
+                terminalList.set(state, patternList.size());
+                patternList.add(normalized);
+            }
+        }
+
+        int size = trie.size();
+        this.patterns = patternList.toArray(new String[0]);
+        this.edgeChars = new char[size][];
+        this.edgeTargets = new int[size][];
+        this.fail = new int[size];
+        this.terminal = new int[size];
+        this.outputLink = new int[size];
+
+        for (int s = 0; s < size; s++) {
+            TreeMap<Character, Integer> edges = trie.get(s);
+            char[] chars = new char[edges.size()];
+            int[] targets = new int[edges.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> e : edges.entrySet()) {
+                chars[i] = e.getKey();
+                targets[i] = e.getValue();
+                i++;
+            }
+            edgeChars[s] = chars;
+            edgeTargets[s] = targets;
+            terminal[s] = terminalList.get(s);
+        }
+
+        // BFS 计算失败指针与输出链接
+        Arrays.fill(outputLink, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int target : edgeTargets[0]) {
+            fail[target] = 0;
+            queue.add(target);
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            char[] chars = edgeChars[s];
+            int[] targets = edgeTargets[s];
+            for (int i = 0; i < chars.length; i++) {
+                int child = targets[i];
+                int f = fail[s];
+                int next;
+                while ((next = transition(f, chars[i])) < 0 && f != 0) {
+                    f = fail[f];
+                }
+                fail[child] = next >= 0 ? next : 0;
+                int fs = fail[child];
+                outputLink[child] = terminal[fs] >= 0 ? fs : outputLink[fs];
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * 由关键词集合构建自动机，空白与重复关键词会被忽略。
+     */
+    public static AhoCorasickMatcher build(Iterable<String> keywords) {
+        if (keywords == null) {
+            return EMPTY;
+        }
+        List<String> list = new ArrayList<>();
+        keywords.forEach(list::add);
+        return list.isEmpty() ? EMPTY : new AhoCorasickMatcher(list);
+    }
+
+    public static AhoCorasickMatcher empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 关键词归一化：去除首尾空白，拉丁字母转小写。
+     */
+    public static String normalize(String keyword) {
+        if (keyword == null) {
+            return "";
+        }
+        String trimmed = keyword.trim();
+        StringBuilder sb = null;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            char lower = Character.toLowerCase(c);
+            if (lower != c && sb == null) {
+                sb = new StringBuilder(trimmed.length()).append(trimmed, 0, i);
+            }
+            if (sb != null) {
+                sb.append(lower);
+            }
+        }
+        return sb != null ? sb.toString() : trimmed;
+    }
+
+    public int patternCount() {
+        return patterns.length;
+    }
+
+    public boolean isEmpty() {
+        return patterns.length == 0;
+    }
+
+    /**
+     * 单次线性扫描，统计每个模式的出现次数。
+     *
+     * @return 模式串（归一化后）-> 出现次数；未命中时返回空 Map
+     */
+    public Map<String, Integer> countMatches(CharSequence text) {
+        if (text == null || text.length() == 0 || patterns.length == 0) {
+            return Collections.emptyMap();
+        }
+        int[] counts = new int[patterns.length];
+        boolean any = false;
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            int next;
+            while ((next = transition(state, c)) < 0 && state != 0) {
+                state = fail[state];
+            }
+            state = next >= 0 ? next : 0;
+            int out = terminal[state] >= 0 ? state : outputLink[state];
+            while (out >= 0) {
+                counts[terminal[out]]++;
+                any = true;
+                out = outputLink[out];
+            }
+        }
+        if (!any) {
+            return Collections.emptyMap();
+        }
+        Map<String, Integer> result = new HashMap<>();
+        for (int p = 0; p < counts.length; p++) {
+            if (counts[p] > 0) {
+                result.put(patterns[p], counts[p]);
+            }
+        }
+        return result;
+    }
+
+    private int transition(int state, char c) {
+        int idx = Arrays.binarySearch(edgeChars[state], c);
+        return idx >= 0 ? edgeTargets[state][idx] : -1;
+    }
+}
@@ -0,0 +1,242 @@
+package com.ainovel.server.service.setting.mention;
+
+import com.ainovel.server.domain.model.NovelSettingItem;
+import com.ainovel.server.repository.NovelSettingItemRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 设定名称/别名提及索引。
+ * 每本小说维护一份 "关键词 -> 设定ID" 字典与对应的 Aho-Corasick 自动机，
+ * 用于在场景正文/选中文本中一次线性扫描找出所有被提及的人物、地点、物品等设定，
+ * 无需向量检索或 LLM 调用。
+ *
+ * 设定变更时只增量更新字典条目（不回查数据库），自动机在下一次检测时按需重建。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SettingMentionIndex {
+
+    /** 别名可能存放的属性键 */
+    private static final List<String> ALIAS_ATTRIBUTE_KEYS = List.of("别名", "aliases", "alias", "外号", "称号");
+
+    /** 别名分隔符 */
+    private static final String ALIAS_SEPARATOR_REGEX = "[,，、;；/|\\n]";
+
+    /** 过短的关键词（如单字）误命中率过高，不参与匹配 */
+    private static final int MIN_KEYWORD_LENGTH = 2;
+
+    private final NovelSettingItemRepository settingItemRepository;
+
+    /** key=novelId -> 提及字典 */
+    private final Cache<String, MentionDictionary> cache = Caffeine.newBuilder()
+            .maximumSize(500)
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .build();
+
+    /**
+     * 检测文本中提及的设定，返回 设定ID -> 提及次数。
+     */
+    public Mono<Map<String, Integer>> detectMentions(String novelId, String text) {
+        if (novelId == null || novelId.isEmpty() || text == null || text.isBlank()) {
+            return Mono.just(Collections.emptyMap());
+        }
+        return getDictionary(novelId)
+                .map(dictionary -> dictionary.detect(text))
+                .onErrorResume(e -> {
+                    log.warn("设定提及检测失败: novelId={}, error={}", novelId, e.getMessage());
+                    return Mono.just(Collections.emptyMap());
+                });
+    }
+
+    /**
+     * 将被提及的设定排在前面（按提及次数降序），其余保持原有顺序。
+     * 文本为空时原样返回。
+     */
+    public Flux<NovelSettingItem> prioritizeMentioned(String novelId, String text, Flux<NovelSettingItem> items) {
+        if (text == null || text.isBlank()) {
+            return items;
+        }
+        return Mono.zip(detectMentions(novelId, text), items.collectList())
+                .flatMapMany(tuple -> Flux.fromIterable(sortByMentions(tuple.getT2(), tuple.getT1())));
+    }
+
+    /**
+     * 按提及次数降序排序；List.sort 为稳定排序，未提及的条目保持原顺序。
+     */
+    public static List<NovelSettingItem> sortByMentions(List<NovelSettingItem> items, Map<String, Integer> mentions) {
+        if (mentions.isEmpty() || items.size() < 2) {
+            return items;
+        }
+        List<NovelSettingItem> sorted = new ArrayList<>(items);
+        sorted.sort(Comparator.comparingInt(
+                (NovelSettingItem item) -> mentions.getOrDefault(item.getId(), 0)).reversed());
+        return sorted;
+    }
+
+    /**
+     * 设定新增或更新后调用；仅在该小说字典已加载时增量更新。
+     */
+    public void onSettingSaved(NovelSettingItem item) {
+        if (item == null || item.getNovelId() == null || item.getId() == null) {
+            return;
+        }
+        MentionDictionary dictionary = cache.getIfPresent(item.getNovelId());
+        if (dictionary != null) {
+            dictionary.put(item.getId(), keywordsOf(item));
+        }
+    }
+
+    /**
+     * 设定删除后调用。
+     */
+    public void onSettingDeleted(String novelId, String settingItemId) {
+        if (novelId == null || settingItemId == null) {
+            return;
+        }
+        MentionDictionary dictionary = cache.getIfPresent(novelId);
+        if (dictionary != null) {
+            dictionary.remove(settingItemId);
+        }
+    }
+
+    /**
+     * 在批量变更等场景下显式失效。
+     */
+    public void evict(String novelId) {
+        cache.invalidate(novelId);
+    }
+
+    private Mono<MentionDictionary> getDictionary(String novelId) {
+        MentionDictionary existing = cache.getIfPresent(novelId);
+        if (existing != null) {
+            return Mono.just(existing);
+        }
+        return settingItemRepository.findByNovelId(novelId)
+                .collectList()
+                .publishOn(Schedulers.boundedElastic())
+                .map(items -> {
+                    MentionDictionary dictionary = new MentionDictionary();
+                    for (NovelSettingItem item : items) {
+                        dictionary.put(item.getId(), keywordsOf(item));
+                    }
+                    // 并发加载时以先放入者为准，避免覆盖期间发生的增量更新
+                    MentionDictionary winner = cache.asMap().putIfAbsent(novelId, dictionary);
+                    log.debug("构建设定提及字典: novelId={}, items={}", novelId, items.size());
+                    return winner != null ? winner : dictionary;
+                });
+    }
+
+    /**
+     * 提取设定条目参与匹配的关键词：名称 + 属性中的别名。
+     * nameAliasTracking=no_track 或 aiContextTracking=never 的条目不参与追踪。
+     */
+    static Set<String> keywordsOf(NovelSettingItem item) {
+        if ("no_track".equals(item.getNameAliasTracking()) || "never".equals(item.getAiContextTracking())) {
+            return Collections.emptySet();
+        }
+        Set<String> keywords = new LinkedHashSet<>();
+        addKeyword(keywords, item.getName());
+        Map<String, String> attributes = item.getAttributes();
+        if (attributes != null) {
+            for (String key : ALIAS_ATTRIBUTE_KEYS) {
+                String value = attributes.get(key);
+                if (value != null && !value.isBlank()) {
+                    for (String alias : value.split(ALIAS_SEPARATOR_REGEX)) {
+                        addKeyword(keywords, alias);
+                    }
+                }
+            }
+        }
+        return keywords;
+    }
+
+    private static void addKeyword(Set<String> keywords, String raw) {
+        String normalized = AhoCorasickMatcher.normalize(raw);
+        if (normalized.length() >= MIN_KEYWORD_LENGTH) {
+            keywords.add(normalized);
+        }
+    }
+
+    /**
+     * 单本小说的提及字典。字典条目支持并发增量更新，自动机惰性重建。
+     */
+    static final class MentionDictionary {
+
+        /** settingId -> 关键词集合 */
+        private final Map<String, Set<String>> keywordsBySetting = new ConcurrentHashMap<>();
+
+        /** 字典版本号，每次条目变化自增 */
+        private final AtomicLong version = new AtomicLong();
+
+        /** 最近一次构建的自动机 */
+        private volatile Snapshot snapshot;
+
+        void put(String settingId, Set<String> keywords) {
+            Set<String> previous = keywords.isEmpty()
+                    ? keywordsBySetting.remove(settingId)
+                    : keywordsBySetting.put(settingId, keywords);
+            if (!Objects.equals(previous, keywords.isEmpty() ? null : keywords)) {
+                version.incrementAndGet();
+            }
+        }
+
+        void remove(String settingId) {
+            if (keywordsBySetting.remove(settingId) != null) {
+                version.incrementAndGet();
+            }
+        }
+
+        Map<String, Integer> detect(String text) {
+            Snapshot current = snapshot;
+            if (current == null || current.version != version.get()) {
+                current = rebuild();
+            }
+            Map<String, Integer> keywordCounts = current.matcher.countMatches(text);
+            if (keywordCounts.isEmpty()) {
+                return Collections.emptyMap();
+            }
+            Map<String, List<String>> settingsByKeyword = current.settingsByKeyword;
+            Map<String, Integer> result = new HashMap<>();
+            keywordCounts.forEach((keyword, count) -> {
+                for (String settingId : settingsByKeyword.getOrDefault(keyword, Collections.emptyList())) {
+                    result.merge(settingId, count, Integer::sum);
+                }
+            });
+            return result;
+        }
+
+        private synchronized Snapshot rebuild() {
+            long targetVersion = version.get();
+            Snapshot current = snapshot;
+            if (current != null && current.version == targetVersion) {
+                return current;
+            }
+            // 先读版本再读条目：构建期间若有变更，版本号不一致会在下一次检测时再次重建
+            Map<String, List<String>> settingsByKeyword = new HashMap<>();
+            keywordsBySetting.forEach((settingId, keywords) -> {
+                for (String keyword : keywords) {
+                    settingsByKeyword.computeIfAbsent(keyword, k -> new ArrayList<>(1)).add(settingId);
+                }
+            });
+            current = new Snapshot(targetVersion, AhoCorasickMatcher.build(settingsByKeyword.keySet()), settingsByKeyword);
+            snapshot = current;
+            return current;
+        }
+    }
+
+    private record Snapshot(long version, AhoCorasickMatcher matcher, Map<String, List<String>> settingsByKeyword) {
+    }
+}
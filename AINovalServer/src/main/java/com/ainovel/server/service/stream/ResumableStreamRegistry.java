@@ -0,0 +1,271 @@
+package com.ainovel.server.service.stream;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.common.exception.ResourceNotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.ConnectableFlux;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 可续传的 AI 流注册表
+ *
+ * 每个 AI 流分配一个流ID，事件ID改写为 "流ID:序号"。上游调用与客户端连接解耦：
+ * 客户端断开后上游继续运行一个宽限期，产生的事件保存在有界回放缓冲中（只保留最近的若干条）。
+ * 客户端携带 Last-Event-ID 在宽限期内重新连接时，先收到错过的事件，再继续接收实时事件；
+ * 宽限期内没有任何订阅者时停止上游调用，用户主动停止生成时通过 {@link #cancel} 立即停止。
+ *
+ * 缓冲只在本节点内存中，重连需要路由到同一节点；流结束后保留一段时间供重连，之后释放。
+ */
+@Slf4j
+@Component
+public class ResumableStreamRegistry {
+
+    /**
+     * 响应头：本次流的ID
+     */
+    public static final String STREAM_ID_HEADER = "X-AI-Stream-Id";
+
+    /**
+     * 缓冲溢出导致部分事件无法回放时发送的事件名
+     */
+    public static final String GAP_EVENT = "stream-gap";
+
+    private static final char ID_SEPARATOR = ':';
+
+    private final int bufferSize;
+    private final Duration disconnectGrace;
+    private final Cache<String, BufferedStream> streams;
+
+    public ResumableStreamRegistry(@Value("${ainovel.ai-stream.replay-buffer-size:2000}") int bufferSize,
+                                   @Value("${ainovel.ai-stream.retention:10m}") Duration retention,
+                                   @Value("${ainovel.ai-stream.max-lifetime:2h}") Duration maxLifetime,
+                                   @Value("${ainovel.ai-stream.max-streams:10000}") long maxStreams,
+                                   @Value("${ainovel.ai-stream.disconnect-grace:30s}") Duration disconnectGrace) {
+        this.bufferSize = bufferSize;
+        this.disconnectGrace = disconnectGrace;
+        this.streams = Caffeine.newBuilder()
+                .maximumSize(maxStreams)
+                // 运行中的流最多保留 maxLifetime；结束后只再保留 retention
+                .expireAfter(new Expiry<String, BufferedStream>() {
+                    @Override
+                    public long expireAfterCreate(String key, BufferedStream value, long currentTime) {
+                        return maxLifetime.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, BufferedStream value, long currentTime,
+                                                  long currentDuration) {
+                        return value.isFinished() ? retention.toNanos() : currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, BufferedStream value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public static String newStreamId() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * 注册一个 AI 流并返回可供客户端订阅的事件流
+     *
+     * 上游在首次订阅时启动，并沿用该订阅的 Reactor Context（安全上下文等）。客户端取消不会立即停止上游，
+     * 所有订阅者都断开并超过宽限期后才停止。同一流ID的重复订阅共享同一次上游调用。心跳等无需回放的事件不要放进 events。
+     *
+     * @param streamId 流ID，见 {@link #newStreamId()}
+     * @param ownerId 流所属用户（取自认证主体），重连和取消时校验；为 null 时只凭流ID即可重连
+     * @param events 已格式化的 SSE 事件
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Flux<ServerSentEvent<T>> register(String streamId, String ownerId, Flux<ServerSentEvent<T>> events) {
+        return Flux.deferContextual(ctx -> {
+            BufferedStream stream = streams.get(streamId, id -> {
+                BufferedStream created = new BufferedStream(ownerId);
+                created.events = events
+                        .index((seq, event) -> withId(event, id + ID_SEPARATOR + seq))
+                        .doFinally(signal -> onFinished(id, created, signal))
+                        // 停止信号取消上游调用，回放流随之正常结束
+                        .takeUntilOther(created.stopSignal.asMono())
+                        .contextWrite(ctx)
+                        .replay(bufferSize);
+                return created;
+            });
+            // 在缓存计算之外连接，避免上游同步结束时在计算中回写缓存
+            stream.connectOnce();
+            return (Flux<ServerSentEvent<T>>) (Flux<?>) track(streamId, stream);
+        });
+    }
+
+    /**
+     * 停止一个流的上游调用（用户主动停止生成），已连接的订阅者收到已缓冲的事件后正常结束
+     *
+     * @param streamId 流ID
+     * @param userId 当前用户ID
+     * @return 流不存在或不属于当前用户时返回 {@link ResourceNotFoundException}
+     */
+    public Mono<Void> cancel(String streamId, String userId) {
+        return Mono.fromRunnable(() -> {
+            BufferedStream stream = ownedStream(streamId, userId);
+            log.info("AI流被用户停止: streamId={}, finished={}", streamId, stream.isFinished());
+            stream.stop();
+        });
+    }
+
+    /**
+     * 重新连接到一个流
+     *
+     * @param streamId 流ID
+     * @param userId 当前用户ID
+     * @param lastEventId 客户端最后收到的事件ID（"流ID:序号" 或序号），为空时从缓冲中最早的事件开始
+     * @return 错过的事件和后续实时事件；缓冲已不包含全部错过的事件时，先发送一个 {@link #GAP_EVENT} 事件
+     */
+    @SuppressWarnings("unchecked")
+    public Flux<ServerSentEvent<Object>> resume(String streamId, String userId, String lastEventId) {
+        BufferedStream stream;
+        try {
+            stream = ownedStream(streamId, userId);
+        } catch (ResourceNotFoundException e) {
+            return Flux.error(e);
+        }
+        long lastSeq = sequenceOf(lastEventId);
+        log.info("AI流重连: streamId={}, lastSeq={}, finished={}", streamId, lastSeq, stream.isFinished());
+
+        return Flux.defer(() -> {
+            AtomicBoolean first = new AtomicBoolean(true);
+            return ((Flux<ServerSentEvent<Object>>) (Flux<?>) track(streamId, stream))
+                    .filter(event -> sequenceOf(event.id()) > lastSeq)
+                    .concatMap(event -> {
+                        long seq = sequenceOf(event.id());
+                        if (first.compareAndSet(true, false) && seq > lastSeq + 1) {
+                            log.warn("AI流回放缓冲不完整: streamId={}, 缺失序号 {} - {}", streamId, lastSeq + 1, seq - 1);
+                            return Flux.just(gapEvent(streamId, lastSeq + 1, seq - 1), event);
+                        }
+                        return Flux.just(event);
+                    });
+        });
+    }
+
+    private BufferedStream ownedStream(String streamId, String userId) {
+        BufferedStream stream = streamId == null ? null : streams.getIfPresent(streamId);
+        // 不属于当前用户的流按不存在处理，不暴露流ID是否有效
+        if (stream == null || (stream.ownerId != null && !stream.ownerId.equals(userId))) {
+            throw new ResourceNotFoundException("AI流", streamId);
+        }
+        return stream;
+    }
+
+    /**
+     * 统计订阅者：最后一个订阅者断开后启动宽限期计时，期间有新订阅则作废，到期仍无订阅者时停止上游
+     */
+    private Flux<? extends ServerSentEvent<?>> track(String streamId, BufferedStream stream) {
+        return stream.events
+                .doOnSubscribe(subscription -> {
+                    stream.subscribers.incrementAndGet();
+                    stream.generation.incrementAndGet();
+                })
+                .doFinally(signal -> {
+                    long generation = stream.generation.incrementAndGet();
+                    if (stream.subscribers.decrementAndGet() > 0 || stream.isFinished()) {
+                        return;
+                    }
+                    Schedulers.parallel().schedule(() -> {
+                        if (stream.generation.get() == generation && stream.subscribers.get() == 0 && !stream.isFinished()) {
+                            log.info("AI流所有连接已断开超过 {}s，停止生成: streamId={}", disconnectGrace.toSeconds(), streamId);
+                            stream.stop();
+                        }
+                    }, disconnectGrace.toMillis(), TimeUnit.MILLISECONDS);
+                });
+    }
+
+    private void onFinished(String streamId, BufferedStream stream, SignalType signal) {
+        stream.finished = true;
+        // 同值替换以触发过期时间重算
+        streams.asMap().replace(streamId, stream, stream);
+        log.debug("AI流上游结束: streamId={}, signal={}", streamId, signal);
+    }
+
+    private static <T> ServerSentEvent<T> withId(ServerSentEvent<T> event, String id) {
+        return ServerSentEvent.<T>builder()
+                .id(id)
+                .event(event.event())
+                .data(event.data())
+                .retry(event.retry())
+                .comment(event.comment())
+                .build();
+    }
+
+    private static ServerSentEvent<Object> gapEvent(String streamId, long from, long to) {
+        return ServerSentEvent.<Object>builder()
+                .id(streamId + ID_SEPARATOR + "gap")
+                .event(GAP_EVENT)
+                .data(Map.of("from", from, "to", to))
+                .build();
+    }
+
+    /**
+     * 从事件ID中解析序号，无法解析时返回 -1
+     */
+    static long sequenceOf(String eventId) {
+        if (eventId == null || eventId.isBlank()) {
+            return -1;
+        }
+        String seq = eventId.substring(eventId.lastIndexOf(ID_SEPARATOR) + 1);
+        try {
+            return Long.parseLong(seq.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static final class BufferedStream {
+        private final String ownerId;
+        private final AtomicBoolean connected = new AtomicBoolean();
+        private final AtomicInteger subscribers = new AtomicInteger();
+        private final AtomicLong generation = new AtomicLong();
+        private final Sinks.Empty<Void> stopSignal = Sinks.empty();
+        private ConnectableFlux<? extends ServerSentEvent<?>> events;
+        private volatile boolean finished;
+
+        private BufferedStream(String ownerId) {
+            this.ownerId = ownerId;
+        }
+
+        private void connectOnce() {
+            if (connected.compareAndSet(false, true)) {
+                events.connect();
+            }
+        }
+
+        private void stop() {
+            stopSignal.tryEmitEmpty();
+        }
+
+        private boolean isFinished() {
+            return finished;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.ainovel.server.service.stream;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * AI 流式输出的分片合并
+ *
+ * 供应商每个 token 都是一个元素，逐个序列化为 SSE 事件时序列化和 flush 的开销远大于内容本身。
+ * 这里把相邻元素合并后再下发：
+ * <ul>
+ *   <li>第一个元素立即下发，首字延迟不变；</li>
+ *   <li>之后的元素在时间窗口内累积，窗口结束或累积字符数达到上限时下发；</li>
+ *   <li>下游没有需求（客户端读取慢）时继续累积，需求到来时一次性下发，批次随之变大；</li>
+ *   <li>心跳等控制元素不参与合并：先下发已累积的内容，再单独下发该元素。</li>
+ * </ul>
+ * 累积期间只暂存元素，下发时一次性合并整批，客户端长时间不读取时也不会反复拷贝已累积的内容。
+ */
+public final class StreamCoalescer {
+
+    /**
+     * 默认合并窗口
+     */
+    public static final Duration DEFAULT_WINDOW = Duration.ofMillis(40);
+
+    /**
+     * 默认单批最大字符数
+     */
+    public static final int DEFAULT_MAX_CHARS = 2048;
+
+    /**
+     * 供应商在流中插入的心跳内容
+     */
+    public static final String PROVIDER_HEARTBEAT = "heartbeat";
+
+    private StreamCoalescer() {
+    }
+
+    /**
+     * 合并文本分片；供应商心跳和"错误："开头的错误提示保持独立
+     */
+    public static Flux<String> coalesceText(Flux<String> source) {
+        return coalesce(source, DEFAULT_WINDOW, DEFAULT_MAX_CHARS,
+                StreamCoalescer::isControlText,
+                (pending, next) -> true,
+                batch -> String.join("", batch),
+                String::length);
+    }
+
+    /**
+     * 合并任意类型的分片
+     *
+     * @param window 合并窗口
+     * @param maxChars 单批最大字符数，达到后立即下发
+     * @param isolated 不参与合并的元素
+     * @param canMerge 已累积的最后一个元素能否与下一个元素合并（例如属于同一个选项）
+     * @param merger 把一批按顺序累积的元素合并为一个，每批下发时调用一次；只有一个元素的批次直接下发
+     * @param sizeOf 元素的字符数
+     */
+    public static <T> Flux<T> coalesce(Flux<T> source, Duration window, int maxChars,
+                                       Predicate<T> isolated,
+                                       BiPredicate<T, T> canMerge,
+                                       Function<List<T>, T> merger,
+                                       ToIntFunction<T> sizeOf) {
+        return Flux.create(sink -> {
+            Coalescer<T> coalescer = new Coalescer<>(sink, Schedulers.parallel(), window.toNanos(), maxChars,
+                    isolated, canMerge, merger, sizeOf);
+            sink.onRequest(n -> coalescer.onRequest());
+            Disposable upstream = source
+                    .contextWrite(sink.contextView())
+                    .subscribe(coalescer::onNext, coalescer::onError, coalescer::onComplete);
+            sink.onDispose(() -> {
+                upstream.dispose();
+                coalescer.cancelTimer();
+            });
+        });
+    }
+
+    private static boolean isControlText(String content) {
+        return PROVIDER_HEARTBEAT.equals(content) || content.startsWith("错误：");
+    }
+
+    /**
+     * 单个流的合并状态；上游回调、定时器和下游请求来自不同线程，用对象锁串行化
+     */
+    private static final class Coalescer<T> {
+        private final FluxSink<T> sink;
+        private final Scheduler scheduler;
+        private final long windowNanos;
+        private final int maxChars;
+        private final Predicate<T> isolated;
+        private final BiPredicate<T, T> canMerge;
+        private final Function<List<T>, T> merger;
+        private final ToIntFunction<T> sizeOf;
+
+        private boolean first = true;
+        private final List<T> pending = new ArrayList<>();
+        private int pendingChars;
+        /** 窗口定时器；为 null 且有待下发内容时，表示窗口已到期、正在等待下游需求 */
+        private Disposable timer;
+
+        private Coalescer(FluxSink<T> sink, Scheduler scheduler, long windowNanos, int maxChars,
+                          Predicate<T> isolated, BiPredicate<T, T> canMerge,
+                          Function<List<T>, T> merger, ToIntFunction<T> sizeOf) {
+            this.sink = sink;
+            this.scheduler = scheduler;
+            this.windowNanos = windowNanos;
+            this.maxChars = maxChars;
+            this.isolated = isolated;
+            this.canMerge = canMerge;
+            this.merger = merger;
+            this.sizeOf = sizeOf;
+        }
+
+        synchronized void onNext(T item) {
+            if (isolated.test(item)) {
+                flush();
+                sink.next(item);
+                return;
+            }
+            if (first) {
+                first = false;
+                sink.next(item);
+                return;
+            }
+            if (!pending.isEmpty() && !canMerge.test(pending.get(pending.size() - 1), item)) {
+                flush();
+            }
+            pending.add(item);
+            pendingChars += sizeOf.applyAsInt(item);
+            if (pendingChars >= maxChars && sink.requestedFromDownstream() > 0) {
+                flush();
+            } else if (timer == null) {
+                timer = scheduler.schedule(this::onWindowEnd, windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        synchronized void onError(Throwable error) {
+            flush();
+            sink.error(error);
+        }
+
+        synchronized void onComplete() {
+            flush();
+            sink.complete();
+        }
+
+        synchronized void onRequest() {
+            // 窗口已到期但当时没有需求的内容，在需求到来时下发
+            if (timer == null && !pending.isEmpty()) {
+                flush();
+            }
+        }
+
+        synchronized void cancelTimer() {
+            if (timer != null) {
+                timer.dispose();
+                timer = null;
+            }
+        }
+
+        private synchronized void onWindowEnd() {
+            timer = null;
+            if (!pending.isEmpty() && sink.requestedFromDownstream() > 0) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            cancelTimer();
+            if (!pending.isEmpty()) {
+                T batch = pending.size() == 1 ? pending.get(0) : merger.apply(List.copyOf(pending));
+                pending.clear();
+                pendingChars = 0;
+                sink.next(batch);
+            }
+        }
+    }
+}
@@ -38,4 +38,9 @@ public class BatchGenerateSummaryParameters {
      * 是否覆盖已有摘要
      */
     private boolean overwriteExisting;
+
+    /**
+     * 是否把连续场景打包后一次请求生成摘要（为空时使用服务端默认配置）
+     */
+    private Boolean packScenes;
 } 
\ No newline at end of file
@@ -53,5 +53,9 @@ public class KnowledgeExtractionGroupParameters {
      * 章节数量（用于章节大纲提取）
      */
     private Integer chapterCount;
+    
+    /**
+     * 跳过 LLM 响应缓存（失败任务重试时设置，避免复用上次解析失败的响应）
+     */
+    private Boolean bypassResponseCache;
 }
-
@@ -71,6 +71,9 @@ public class KnowledgeExtractionParameters {
      * 预览会话ID（用户导入文本时使用，用于获取章节详情）
      */
     private String previewSessionId;
+    
+    /**
+     * 跳过 LLM 响应缓存（失败任务重试时设置，避免复用上次解析失败的响应）
+     */
+    private Boolean bypassResponseCache;
 }
-
-
@@ -0,0 +1,39 @@
+package com.ainovel.server.task.dto.summarygeneration;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 打包生成多个场景摘要任务的参数DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GenerateSummaryBundleParameters {
+
+    /**
+     * 小说ID
+     */
+    private String novelId;
+
+    /**
+     * 按阅读顺序排列的场景ID
+     */
+    private List<String> sceneIds;
+
+    /**
+     * 选定的 AI 模型配置ID（如果为空则使用用户默认模型）
+     */
+    private String aiConfigId;
+
+    /**
+     * 是否使用AI模型增强（可选）
+     */
+    @Builder.Default
+    private Boolean useAIEnhancement = true;
+}
@@ -0,0 +1,45 @@
+package com.ainovel.server.task.dto.summarygeneration;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 打包生成多个场景摘要任务的结果DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GenerateSummaryBundleResult {
+
+    /**
+     * 包内场景总数
+     */
+    private int totalScenes;
+
+    /**
+     * 成功写入摘要的场景ID
+     */
+    private List<String> succeededSceneIds;
+
+    /**
+     * 打包请求未覆盖、改为逐个生成的场景数
+     */
+    private int fallbackCount;
+
+    /**
+     * 失败的场景ID -> 错误信息
+     */
+    private Map<String, String> failedSceneDetails;
+
+    /**
+     * 完成时间
+     */
+    private Instant completedAt;
+}
@@ -0,0 +1,24 @@
+package com.ainovel.server.task.events;
+
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 单节点扇出：直接投递到本节点的事件中心（未启用 RabbitMQ 时及测试使用）
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.rabbitmq.enabled", havingValue = "false")
+public class LocalTaskEventFanout implements TaskEventFanout {
+
+    private final TaskEventHub hub;
+
+    @Override
+    public void publish(Map<String, Object> event) {
+        hub.publish(event);
+    }
+}
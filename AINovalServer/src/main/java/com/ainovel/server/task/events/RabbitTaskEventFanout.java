@@ -0,0 +1,63 @@
+package com.ainovel.server.task.events;
+
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.config.RabbitMQConfig;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 基于 RabbitMQ 扇出交换机的跨节点投递
+ *
+ * 本节点的事件直接进入本地事件中心，同时广播给其他节点；
+ * 每个节点用自己的匿名队列接收，忽略自己发出的消息，避免重复投递。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.rabbitmq.enabled", havingValue = "true", matchIfMissing = true)
+public class RabbitTaskEventFanout implements TaskEventFanout {
+
+    /** 本节点标识，用于忽略自己发出的广播 */
+    static final String NODE_ID = UUID.randomUUID().toString();
+
+    private final TaskEventHub hub;
+    private final ObjectProvider<RabbitTemplate> rabbitTemplateProvider;
+
+    @Override
+    public void publish(Map<String, Object> event) {
+        hub.publish(event);
+        RabbitTemplate rabbitTemplate = rabbitTemplateProvider.getIfAvailable();
+        if (rabbitTemplate == null) {
+            return;
+        }
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.TASK_EVENTS_FANOUT_EXCHANGE, "",
+                    new FanoutMessage(event, NODE_ID));
+        } catch (Exception e) {
+            log.warn("广播任务事件失败: type={} taskId={} error={}", event.get("type"), event.get("taskId"), e.getMessage());
+        }
+    }
+
+    @RabbitListener(queues = "#{taskEventsFanoutQueue.name}", ackMode = "AUTO")
+    public void onRemoteEvent(FanoutMessage message) {
+        if (message == null || message.event() == null || NODE_ID.equals(message.sourceNode())) {
+            return;
+        }
+        hub.publish(message.event());
+    }
+
+    /**
+     * 节点间广播的任务事件
+     */
+    public record FanoutMessage(Map<String, Object> event, String sourceNode) {
+    }
+}
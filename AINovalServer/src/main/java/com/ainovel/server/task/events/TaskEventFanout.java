@@ -0,0 +1,15 @@
+package com.ainovel.server.task.events;
+
+import java.util.Map;
+
+/**
+ * 任务事件的跨节点扇出。
+ * 实现需保证事件送达所有节点（含本节点）的 {@link TaskEventHub}，每个节点只投递一次。
+ */
+public interface TaskEventFanout {
+
+    /**
+     * 把事件投递到所有节点上该用户的订阅者。
+     */
+    void publish(Map<String, Object> event);
+}
@@ -0,0 +1,259 @@
+package com.ainovel.server.task.events;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+/**
+ * 按用户路由的任务事件分发中心（单节点）
+ *
+ * 每条 SSE 连接是一个订阅者，持有自己的有界环形缓冲，只在下游有需求时出队。
+ * 事件按 userId 直接投递给该用户的订阅者，其他连接不参与；慢连接只会让自己的缓冲溢出，
+ * 溢出时按策略丢弃最旧事件或合并进度事件，并在下一条事件前补发一个重同步标记，
+ * 提示客户端有事件被跳过、应重新拉取任务状态。
+ */
+@Slf4j
+@Component
+public class TaskEventHub {
+
+    /** 重同步标记的事件类型 */
+    public static final String RESYNC_TYPE = "TASK_EVENTS_RESYNC";
+
+    private static final String PROGRESS_TYPE = "TASK_PROGRESS";
+
+    /**
+     * 缓冲区满时的处理策略
+     */
+    public enum OverflowPolicy {
+        /** 丢弃最旧的事件 */
+        DROP_OLDEST,
+        /** 同一任务的进度事件只保留最新一条，否则优先丢弃最旧的进度事件 */
+        COALESCE_PROGRESS
+    }
+
+    private final Map<String, Set<Subscriber>> subscribersByUser = new ConcurrentHashMap<>();
+    private final int bufferSize;
+    private final OverflowPolicy overflowPolicy;
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong queuedEvents = new AtomicLong();
+    private final Counter droppedCounter;
+    private final Counter coalescedCounter;
+    private final Counter resyncCounter;
+
+    public TaskEventHub(MeterRegistry meterRegistry,
+                        @Value("${ainovel.task-events.buffer-size:256}") int bufferSize,
+                        @Value("${ainovel.task-events.overflow-policy:COALESCE_PROGRESS}") OverflowPolicy overflowPolicy) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("任务事件缓冲区大小必须大于0: " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+        this.overflowPolicy = overflowPolicy;
+        Gauge.builder("task.events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("任务事件流的订阅连接数")
+                .register(meterRegistry);
+        Gauge.builder("task.events.queue.depth", queuedEvents, AtomicLong::get)
+                .description("所有订阅者缓冲区中待发送的事件总数")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("task.events.dropped")
+                .description("因订阅者缓冲区溢出被丢弃的事件数")
+                .tag("policy", overflowPolicy.name())
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("task.events.coalesced")
+                .description("被同任务更新的进度事件合并掉的进度事件数")
+                .register(meterRegistry);
+        this.resyncCounter = Counter.builder("task.events.resync")
+                .description("发送给客户端的重同步标记数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 订阅某个用户的任务事件，取消订阅时自动注销
+     */
+    public Flux<Map<String, Object>> subscribe(String userId) {
+        Objects.requireNonNull(userId, "userId");
+        return Flux.create(sink -> {
+            Subscriber subscriber = new Subscriber(userId, sink);
+            subscribersByUser.compute(userId, (k, set) -> {
+                Set<Subscriber> subscribers = set != null ? set : ConcurrentHashMap.newKeySet();
+                subscribers.add(subscriber);
+                return subscribers;
+            });
+            subscriberCount.incrementAndGet();
+            sink.onDispose(() -> unregister(subscriber));
+            sink.onRequest(n -> subscriber.drain());
+        });
+    }
+
+    /**
+     * 把事件投递给本节点上该用户的所有订阅者，不会阻塞调用方
+     */
+    public void publish(Map<String, Object> event) {
+        Object userId = event.get("userId");
+        if (userId == null) {
+            log.debug("[TASK EVENTS HUB] 事件缺少 userId，无法路由: type={} taskId={}", event.get("type"), event.get("taskId"));
+            return;
+        }
+        Set<Subscriber> subscribers = subscribersByUser.get(String.valueOf(userId));
+        if (subscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    public long getQueuedEvents() {
+        return queuedEvents.get();
+    }
+
+    private void unregister(Subscriber subscriber) {
+        subscribersByUser.computeIfPresent(subscriber.userId, (k, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+        subscriberCount.decrementAndGet();
+        subscriber.clear();
+    }
+
+    private static boolean isProgress(Map<String, Object> event) {
+        return PROGRESS_TYPE.equals(event.get("type"));
+    }
+
+    /**
+     * 单个连接：有界缓冲 + 按需出队
+     */
+    private final class Subscriber {
+
+        private final String userId;
+        private final FluxSink<Map<String, Object>> sink;
+        private final ArrayDeque<Map<String, Object>> buffer = new ArrayDeque<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        /** 自上次重同步标记以来被丢弃的事件数，受 buffer 锁保护 */
+        private int skipped;
+        private boolean closed;
+
+        private Subscriber(String userId, FluxSink<Map<String, Object>> sink) {
+            this.userId = userId;
+            this.sink = sink;
+        }
+
+        private void offer(Map<String, Object> event) {
+            synchronized (buffer) {
+                if (closed) {
+                    return;
+                }
+                if (buffer.size() >= bufferSize) {
+                    makeRoom(event);
+                }
+                buffer.addLast(event);
+                queuedEvents.incrementAndGet();
+            }
+            drain();
+        }
+
+        /**
+         * 缓冲区已满时腾出一个位置
+         */
+        private void makeRoom(Map<String, Object> incoming) {
+            if (overflowPolicy == OverflowPolicy.COALESCE_PROGRESS) {
+                if (isProgress(incoming) && removeFirst(queued -> isProgress(queued)
+                        && Objects.equals(queued.get("taskId"), incoming.get("taskId")))) {
+                    // 新进度覆盖同任务的旧进度，客户端不会丢失状态，无需重同步
+                    coalescedCounter.increment();
+                    return;
+                }
+                if (removeFirst(TaskEventHub::isProgress)) {
+                    dropped();
+                    return;
+                }
+            }
+            buffer.pollFirst();
+            queuedEvents.decrementAndGet();
+            dropped();
+        }
+
+        private boolean removeFirst(Predicate<Map<String, Object>> matcher) {
+            for (Iterator<Map<String, Object>> it = buffer.iterator(); it.hasNext(); ) {
+                if (matcher.test(it.next())) {
+                    it.remove();
+                    queuedEvents.decrementAndGet();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void dropped() {
+            skipped++;
+            droppedCounter.increment();
+        }
+
+        /**
+         * 在下游需求范围内出队；同一时刻只有一个线程在发送
+         */
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                while (sink.requestedFromDownstream() > 0 && !sink.isCancelled()) {
+                    Map<String, Object> next;
+                    synchronized (buffer) {
+                        if (skipped > 0) {
+                            next = resyncMarker(skipped);
+                            skipped = 0;
+                        } else {
+                            next = buffer.pollFirst();
+                            if (next == null) {
+                                break;
+                            }
+                            queuedEvents.decrementAndGet();
+                        }
+                    }
+                    sink.next(next);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private Map<String, Object> resyncMarker(int dropped) {
+            resyncCounter.increment();
+            log.debug("[TASK EVENTS HUB] 订阅者缓冲溢出，发送重同步标记: userId={} dropped={}", userId, dropped);
+            Map<String, Object> marker = new HashMap<>();
+            marker.put("type", RESYNC_TYPE);
+            marker.put("userId", userId);
+            marker.put("dropped", dropped);
+            return marker;
+        }
+
+        private void clear() {
+            synchronized (buffer) {
+                closed = true;
+                queuedEvents.addAndGet(-buffer.size());
+                buffer.clear();
+            }
+        }
+    }
+}
@@ -11,9 +11,10 @@ import java.util.Map;
 public interface TaskEventPublisher {
 
     /**
-     * 获取统一的任务事件流（用于 SSE 输出）。
+     * 获取某个用户的任务事件流（用于 SSE 输出）。
+     * 每次调用对应一个独立订阅，缓冲溢出时会收到 {@link TaskEventHub#RESYNC_TYPE} 标记。
      */
-    Flux<Map<String, Object>> events();
+    Flux<Map<String, Object>> events(String userId);
 
     /**
      * 直接发布一条事件（Map 版本）。
@@ -1,9 +1,9 @@
 package com.ainovel.server.task.events;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Sinks;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -12,23 +12,23 @@ import com.ainovel.server.task.event.internal.*;
 
 /**
  * 任务事件发布实现（基础设施层）。
- * 负责承载事件 Sinks，供 SSE 与服务层使用。
+ * 事件经 {@link TaskEventFanout} 投递到各节点的 {@link TaskEventHub}，按用户路由给 SSE 连接。
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class TaskEventPublisherImpl implements TaskEventPublisher {
 
-    // 🔧 修复：使用multicast代替replay，避免历史事件重放导致SSE连接风暴
-    // replay会缓存历史事件并在新连接时重放，导致服务重启后前端收到大量重复事件
-    private final Sinks.Many<Map<String, Object>> sink = Sinks.many().multicast().onBackpressureBuffer();
-    
+    private final TaskEventHub hub;
+    private final TaskEventFanout fanout;
+
     // 事件去重：记录最近发送的事件，防止短时间内重复发送
     private final Map<String, Long> recentEventHashes = new java.util.concurrent.ConcurrentHashMap<>();
     private static final long DEDUP_WINDOW_MS = 1000; // 1秒内相同事件视为重复
 
     @Override
-    public Flux<Map<String, Object>> events() {
-        return sink.asFlux();
+    public Flux<Map<String, Object>> events(String userId) {
+        return hub.subscribe(userId);
     }
 
     @Override
@@ -73,7 +73,7 @@ public class TaskEventPublisherImpl implements TaskEventPublisher {
         }
         
         try {
-            sink.emitNext(m, (signalType, emitResult) -> emitResult == Sinks.EmitResult.FAIL_NON_SERIALIZED);
+            fanout.publish(m);
             recentEventHashes.put(eventHash, now);
             
             // 清理过期的去重记录（保持Map大小可控）
@@ -81,7 +81,7 @@ public class TaskEventPublisherImpl implements TaskEventPublisher {
                 cleanupExpiredDedup(now);
             }
             
-            log.info("[TASK EVENTS EMIT] type={} taskId={} taskType={} hasResult={} parentTaskId={}",
+            log.debug("[TASK EVENTS EMIT] type={} taskId={} taskType={} hasResult={} parentTaskId={}",
                     type, taskId, taskType, m.containsKey("result"), m.get("parentTaskId"));
         } catch (Exception ex) {
             log.warn("[TASK EVENTS EMIT FAIL] type={} taskId={} taskType={} keys={} error={}",
@@ -70,7 +70,7 @@ public abstract class BaseAITaskExecutor {
                         requestId, providerCode, modelName);
                 
                 return reactor.core.publisher.Mono.defer(() ->
-                        rateLimiterService.tryAcquirePermit(providerCode, userId, modelName, requestId)
+                        rateLimiterService.acquirePermit(providerCode, userId, modelName, requestId)
                 )
                     .doOnError(ex ->
                         log.error("[任务:{}] 限流检查异常: {}", requestId, ex.toString(), ex)
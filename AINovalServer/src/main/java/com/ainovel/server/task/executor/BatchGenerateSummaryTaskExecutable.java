@@ -1,5 +1,6 @@
 package com.ainovel.server.task.executor;
 
+import com.ainovel.server.common.util.PromptUtil;
 import com.ainovel.server.domain.model.Novel;
 import com.ainovel.server.domain.model.Novel.Chapter;
 import com.ainovel.server.domain.model.Scene;
@@ -8,16 +9,20 @@ import com.ainovel.server.service.SceneService;
 import com.ainovel.server.task.BackgroundTaskExecutable;
 import com.ainovel.server.task.TaskContext;
 import com.ainovel.server.task.dto.batchsummary.BatchGenerateSummaryParameters;
+import com.ainovel.server.task.dto.batchsummary.BatchGenerateSummaryProgress;
 import com.ainovel.server.task.dto.batchsummary.BatchGenerateSummaryResult;
+import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryBundleParameters;
 import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryParameters;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +39,24 @@ public class BatchGenerateSummaryTaskExecutable implements BackgroundTaskExecuta
     private final NovelService novelService;
     private final SceneService sceneService;
 
+    /**
+     * 未在任务参数中指定时，是否默认打包
+     */
+    @Value("${ainovel.batch-summary.packing.enabled:true}")
+    private boolean packingEnabled;
+
+    /**
+     * 单个包的输入 token 预算（按正文字符数估算）
+     */
+    @Value("${ainovel.batch-summary.packing.token-budget:6000}")
+    private int bundleTokenBudget;
+
+    /**
+     * 单个包最多场景数，限制单次输出的长度
+     */
+    @Value("${ainovel.batch-summary.packing.max-scenes:20}")
+    private int maxScenesPerBundle;
+
     @Override
     public Mono<BatchGenerateSummaryResult> execute(TaskContext<BatchGenerateSummaryParameters> context) {
         BatchGenerateSummaryParameters parameters = context.getParameters();
@@ -75,6 +98,11 @@ public class BatchGenerateSummaryTaskExecutable implements BackgroundTaskExecuta
                 // 3. 获取该范围内所有章节ID
                 List<String> chapterIds = getChapterIdsInRange(novel, startOrder, endOrder);
                 
+                boolean packScenes = parameters.getPackScenes() != null ? parameters.getPackScenes() : packingEnabled;
+                if (packScenes) {
+                    return executePacked(context, chapterIds);
+                }
+                
                 // 查询这些章节下的所有场景
                 return sceneService.findScenesByChapterIds(chapterIds)
                     .collectList()
@@ -135,6 +163,112 @@ public class BatchGenerateSummaryTaskExecutable implements BackgroundTaskExecuta
             });
     }
 
+    /**
+     * 打包模式：按阅读顺序把待生成的连续场景按 token 预算分包，每包提交一个打包子任务；
+     * 只有一个场景的包仍提交单场景子任务
+     */
+    private Mono<BatchGenerateSummaryResult> executePacked(TaskContext<BatchGenerateSummaryParameters> context,
+                                                           List<String> chapterIds) {
+        BatchGenerateSummaryParameters parameters = context.getParameters();
+        Map<String, Integer> chapterIndex = new HashMap<>();
+        for (int i = 0; i < chapterIds.size(); i++) {
+            chapterIndex.put(chapterIds.get(i), i);
+        }
+
+        return sceneService.findScenesByChapterIdsOrdered(chapterIds)
+            .collectList()
+            .flatMap(scenes -> {
+                // 查询结果按场景顺序排列，这里再按章节顺序稳定排序得到全书阅读顺序
+                List<Scene> ordered = new ArrayList<>(scenes);
+                ordered.sort(Comparator.comparing(scene -> chapterIndex.getOrDefault(scene.getChapterId(), Integer.MAX_VALUE)));
+
+                int totalScenes = ordered.size();
+                List<Scene> pending = ordered.stream()
+                    .filter(scene -> parameters.isOverwriteExisting()
+                            || scene.getSummary() == null || scene.getSummary().trim().isEmpty())
+                    .collect(Collectors.toList());
+                int skippedCount = totalScenes - pending.size();
+                List<List<String>> bundles = packIntoBundles(pending);
+
+                log.info("指定章节范围内找到 {} 个场景，待生成 {} 个，打包为 {} 个子任务", totalScenes, pending.size(), bundles.size());
+
+                // 先记录场景总数，聚合器按场景数累计子任务结果并判断是否全部完成
+                BatchGenerateSummaryProgress initialProgress = BatchGenerateSummaryProgress.builder()
+                    .totalScenes(totalScenes)
+                    .skippedCount(skippedCount)
+                    .build();
+                return context.updateProgress(initialProgress)
+                    .thenMany(Flux.fromIterable(bundles))
+                    .concatMap(bundle -> {
+                        Mono<String> submitted;
+                        if (bundle.size() == 1) {
+                            submitted = context.submitSubTask("GENERATE_SUMMARY", GenerateSummaryParameters.builder()
+                                .sceneId(bundle.get(0))
+                                .novelId(parameters.getNovelId())
+                                .aiConfigId(parameters.getAiConfigId())
+                                .useAIEnhancement(true)
+                                .build());
+                        } else {
+                            submitted = context.submitSubTask(GenerateSummaryBundleTaskExecutable.TASK_TYPE,
+                                GenerateSummaryBundleParameters.builder()
+                                    .sceneIds(bundle)
+                                    .novelId(parameters.getNovelId())
+                                    .aiConfigId(parameters.getAiConfigId())
+                                    .useAIEnhancement(true)
+                                    .build());
+                        }
+                        return submitted
+                            .doOnNext(subTaskId -> log.info("为 {} 个场景提交子任务 {}", bundle.size(), subTaskId))
+                            .thenReturn(0)
+                            .onErrorResume(e -> {
+                                log.error("为场景 {} 提交子任务失败: {}", bundle, e.getMessage());
+                                return Mono.just(bundle.size());
+                            });
+                    })
+                    .reduce(0, Integer::sum)
+                    .map(failedCount -> BatchGenerateSummaryResult.builder()
+                        .totalScenes(totalScenes)
+                        .successCount(0) // 初始为0，后续由状态聚合器更新
+                        .failedCount(failedCount)
+                        .conflictCount(0)
+                        .skippedCount(skippedCount)
+                        .failedSceneDetails(new HashMap<>())
+                        .build());
+            });
+    }
+
+    /**
+     * 把连续场景按输入 token 预算和场景数上限分包；超出预算的单个场景独占一包
+     */
+    private List<List<String>> packIntoBundles(List<Scene> scenes) {
+        List<List<String>> bundles = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int currentTokens = 0;
+        for (Scene scene : scenes) {
+            int tokens = estimateTokens(scene);
+            if (!current.isEmpty()
+                    && (currentTokens + tokens > bundleTokenBudget || current.size() >= maxScenesPerBundle)) {
+                bundles.add(current);
+                current = new ArrayList<>();
+                currentTokens = 0;
+            }
+            current.add(scene.getId());
+            currentTokens += tokens;
+        }
+        if (!current.isEmpty()) {
+            bundles.add(current);
+        }
+        return bundles;
+    }
+
+    /**
+     * 粗略估算场景正文的 token 数：中文约每字一个 token，按纯文本字符数计
+     */
+    private static int estimateTokens(Scene scene) {
+        String plain = PromptUtil.extractPlainTextFromRichText(scene.getContent());
+        return plain != null ? plain.length() : 0;
+    }
+
     private Map<String, Integer> getChapterOrderMap(Novel novel) {
         Map<String, Integer> chapterOrderMap = new HashMap<>();
         
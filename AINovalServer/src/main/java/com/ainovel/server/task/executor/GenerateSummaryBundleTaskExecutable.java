@@ -0,0 +1,144 @@
+package com.ainovel.server.task.executor;
+
+import com.ainovel.server.domain.model.Scene;
+import com.ainovel.server.service.NovelAIService;
+import com.ainovel.server.service.UserAIModelConfigService;
+import com.ainovel.server.task.BackgroundTaskExecutable;
+import com.ainovel.server.task.TaskContext;
+import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryBundleParameters;
+import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryBundleResult;
+import com.ainovel.server.task.service.EnhancedRateLimiterService;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 打包生成多个场景摘要的任务执行器 (响应式)
+ *
+ * 一个包内的连续场景合并为一次结构化请求，再把结果拆回各场景写入；
+ * 打包结果中缺失或无法解析的场景、以及打包请求整体失败时，逐个场景按单场景摘要流程兜底。
+ */
+@Slf4j
+@Component
+public class GenerateSummaryBundleTaskExecutable extends BaseAITaskExecutor
+        implements BackgroundTaskExecutable<GenerateSummaryBundleParameters, GenerateSummaryBundleResult> {
+
+    public static final String TASK_TYPE = "GENERATE_SUMMARY_BUNDLE";
+
+    private final NovelAIService novelAIService;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final GenerateSummaryTaskExecutable singleSummaryExecutable;
+
+    public GenerateSummaryBundleTaskExecutable(
+            NovelAIService novelAIService,
+            UserAIModelConfigService userAIModelConfigService,
+            ReactiveMongoTemplate reactiveMongoTemplate,
+            EnhancedRateLimiterService rateLimiterService,
+            GenerateSummaryTaskExecutable singleSummaryExecutable) {
+        super(userAIModelConfigService, rateLimiterService);
+        this.novelAIService = novelAIService;
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.singleSummaryExecutable = singleSummaryExecutable;
+    }
+
+    @Override
+    public Mono<GenerateSummaryBundleResult> execute(TaskContext<GenerateSummaryBundleParameters> context) {
+        GenerateSummaryBundleParameters parameters = context.getParameters();
+        List<String> sceneIds = parameters.getSceneIds() != null ? parameters.getSceneIds() : Collections.emptyList();
+        boolean useAIEnhancement = !Boolean.FALSE.equals(parameters.getUseAIEnhancement());
+        String userId = context.getUserId();
+        String aiConfigId = parameters.getAiConfigId();
+        String requestId = context.getTaskId();
+
+        log.info("[任务:{}] 开始打包生成场景摘要，小说ID: {}, 场景数: {}, AI配置ID: {}",
+                requestId, parameters.getNovelId(), sceneIds.size(), aiConfigId);
+
+        Map<String, String> failedSceneDetails = new LinkedHashMap<>();
+        List<String> succeededSceneIds = new ArrayList<>();
+        AtomicInteger fallbackCount = new AtomicInteger();
+
+        return reactiveMongoTemplate.find(Query.query(Criteria.where("_id").in(sceneIds)), Scene.class)
+            .collectMap(Scene::getId)
+            .flatMap(sceneMap -> {
+                // 保持参数中的阅读顺序，剔除不存在或没有内容的场景
+                List<Scene> packable = new ArrayList<>();
+                for (String sceneId : sceneIds) {
+                    Scene scene = sceneMap.get(sceneId);
+                    if (scene == null) {
+                        failedSceneDetails.put(sceneId, "场景不存在");
+                    } else if (scene.getContent() == null || scene.getContent().trim().isEmpty()) {
+                        failedSceneDetails.put(sceneId, "场景内容为空，无法生成摘要");
+                    } else {
+                        packable.add(scene);
+                    }
+                }
+                if (packable.isEmpty()) {
+                    return Mono.just(Collections.<String, String>emptyMap()).zipWith(Mono.just(packable));
+                }
+                // 打包请求失败时不走限流器的重试调度，直接按场景兜底
+                return executeWithRateLimit(userId, useAIEnhancement, aiConfigId, requestId,
+                        novelAIService.summarizeScenesBundle(userId, parameters.getNovelId(), packable, aiConfigId))
+                    .onErrorResume(e -> {
+                        log.warn("[任务:{}] 打包摘要请求失败，将逐个场景生成: {}", requestId, e.getMessage());
+                        return Mono.just(Collections.<String, String>emptyMap());
+                    })
+                    .defaultIfEmpty(Collections.<String, String>emptyMap())
+                    .zipWith(Mono.just(packable));
+            })
+            .flatMapMany(tuple -> {
+                Map<String, String> summaries = tuple.getT1();
+                return Flux.fromIterable(tuple.getT2())
+                    .concatMap(scene -> {
+                        String sceneId = scene.getId();
+                        String summary = summaries.get(sceneId);
+                        Mono<?> operation;
+                        if (summary != null) {
+                            operation = singleSummaryExecutable.saveSummary(requestId, sceneId, scene.getVersion(), summary);
+                        } else {
+                            fallbackCount.incrementAndGet();
+                            log.info("[任务:{}] 场景 {} 不在打包结果中，逐个生成", requestId, sceneId);
+                            operation = singleSummaryExecutable.summarizeAndSave(
+                                    userId, sceneId, aiConfigId, useAIEnhancement, requestId, null);
+                        }
+                        return operation
+                            .doOnNext(saved -> succeededSceneIds.add(sceneId))
+                            .then()
+                            .onErrorResume(e -> {
+                                log.error("[任务:{}] 场景 {} 摘要生成失败: {}", requestId, sceneId, e.getMessage());
+                                failedSceneDetails.put(sceneId, e.getMessage() != null ? e.getMessage() : "未知错误");
+                                return Mono.empty();
+                            });
+                    });
+            })
+            .then(Mono.fromSupplier(() -> {
+                log.info("[任务:{}] 打包摘要完成，场景数: {}, 成功: {}, 兜底: {}, 失败: {}",
+                        requestId, sceneIds.size(), succeededSceneIds.size(), fallbackCount.get(), failedSceneDetails.size());
+                return GenerateSummaryBundleResult.builder()
+                    .totalScenes(sceneIds.size())
+                    .succeededSceneIds(succeededSceneIds)
+                    .fallbackCount(fallbackCount.get())
+                    .failedSceneDetails(failedSceneDetails)
+                    .completedAt(Instant.now())
+                    .build();
+            }));
+    }
+
+    @Override
+    public String getTaskType() {
+        return TASK_TYPE;
+    }
+}
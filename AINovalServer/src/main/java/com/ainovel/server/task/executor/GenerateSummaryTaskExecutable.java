@@ -61,6 +61,14 @@ public class GenerateSummaryTaskExecutable extends BaseAITaskExecutor
         log.info("[任务:{}] 开始为场景 {} 生成摘要，用户ID: {}, 是否使用AI增强: {}, AI配置ID: {}", 
                 requestId, sceneId, userId, useAIEnhancement, aiConfigId);
 
+        return summarizeAndSave(userId, sceneId, aiConfigId, useAIEnhancement, requestId, parameters);
+    }
+
+    /**
+     * 为单个场景生成摘要并写回场景；批量打包模式中未被打包结果覆盖的场景也走这里兜底
+     */
+    <T> Mono<GenerateSummaryResult> summarizeAndSave(String userId, String sceneId, String aiConfigId,
+                                                   boolean useAIEnhancement, String requestId, T parameters) {
         return sceneService.findSceneById(sceneId)
             .switchIfEmpty(Mono.error(new IllegalStateException("场景不存在: " + sceneId)))
             .flatMap(scene -> {
@@ -87,9 +95,33 @@ public class GenerateSummaryTaskExecutable extends BaseAITaskExecutor
                             }
                             log.info("[任务:{}] 场景 {} 摘要生成成功，长度: {}", requestId, sceneId, generatedSummary.length());
 
-                            return updateSceneSummaryAtomic(sceneId, actualVersion, generatedSummary)
-                                .flatMap(updateSuccess -> {
-                                    if (updateSuccess) {
+                            return saveSummary(requestId, sceneId, actualVersion, generatedSummary);
+                        }),
+                    parameters);
+            });
+    }
+
+    /**
+     * 按版本原子写入摘要；生成期间场景被修改时基于最新版本再试一次
+     */
+    Mono<GenerateSummaryResult> saveSummary(String requestId, String sceneId, int expectedVersion, String generatedSummary) {
+        return updateSceneSummaryAtomic(sceneId, expectedVersion, generatedSummary)
+            .flatMap(updateSuccess -> {
+                if (updateSuccess) {
+                    return Mono.just(GenerateSummaryResult.builder()
+                        .sceneId(sceneId)
+                        .summary(generatedSummary)
+                        .processingTimeMs(System.currentTimeMillis())
+                        .completedAt(Instant.now())
+                        .build());
+                } else {
+                    log.info("[任务:{}] 场景 {} 在生成摘要过程中被修改，将尝试基于最新版本更新", requestId, sceneId);
+                    return sceneService.findSceneById(sceneId)
+                        .switchIfEmpty(Mono.error(new IllegalStateException("场景不存在: " + sceneId)))
+                        .flatMap(latestScene -> 
+                            updateSceneSummaryAtomic(sceneId, latestScene.getVersion(), generatedSummary)
+                                .flatMap(retrySuccess -> {
+                                    if (retrySuccess) {
                                         return Mono.just(GenerateSummaryResult.builder()
                                             .sceneId(sceneId)
                                             .summary(generatedSummary)
@@ -97,28 +129,11 @@ public class GenerateSummaryTaskExecutable extends BaseAITaskExecutor
                                             .completedAt(Instant.now())
                                             .build());
                                     } else {
-                                        log.info("[任务:{}] 场景 {} 在生成摘要过程中被修改，将尝试基于最新版本更新", requestId, sceneId);
-                                        return sceneService.findSceneById(sceneId)
-                                            .switchIfEmpty(Mono.error(new IllegalStateException("场景不存在: " + sceneId)))
-                                            .flatMap(latestScene -> 
-                                                updateSceneSummaryAtomic(sceneId, latestScene.getVersion(), generatedSummary)
-                                                    .flatMap(retrySuccess -> {
-                                                        if (retrySuccess) {
-                                                            return Mono.just(GenerateSummaryResult.builder()
-                                                                .sceneId(sceneId)
-                                                                .summary(generatedSummary)
-                                                                .processingTimeMs(System.currentTimeMillis())
-                                                                .completedAt(Instant.now())
-                                                                .build());
-                                                        } else {
-                                                            return Mono.error(new RuntimeException("场景更新失败，版本冲突"));
-                                                        }
-                                                    })
-                                            );
+                                        return Mono.error(new RuntimeException("场景更新失败，版本冲突"));
                                     }
-                                });
-                        }),
-                    parameters);
+                                })
+                        );
+                }
             });
     }
 
@@ -174,7 +174,8 @@ public class KnowledgeExtractionGroupTaskExecutor
                 })
                 .flatMap(provider -> {
                     // 创建知识提取策略
-                    KnowledgeExtractionStrategy strategy = new KnowledgeExtractionStrategy(provider, objectMapper);
+                    KnowledgeExtractionStrategy strategy = new KnowledgeExtractionStrategy(provider, objectMapper)
+                            .bypassResponseCache(Boolean.TRUE.equals(parameters.getBypassResponseCache()));
                     
                     // ✅ 一次性为整个组的所有类型调用LLM（传递章节数量、模型配置信息）
                     return strategy.extractKnowledgeForGroup(
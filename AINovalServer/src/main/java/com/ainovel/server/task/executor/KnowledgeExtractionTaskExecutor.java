@@ -554,6 +554,9 @@ public class KnowledgeExtractionTaskExecutor implements BackgroundTaskExecutable
                     subTaskParams.put("modelConfigId", parameters.getModelConfigId());
                     subTaskParams.put("modelType", parameters.getModelType());
                     subTaskParams.put("parentTaskId", context.getTaskId());
+                    if (Boolean.TRUE.equals(parameters.getBypassResponseCache())) {
+                        subTaskParams.put("bypassResponseCache", true);
+                    }
                     
                     // ✅ 如果是章节大纲组，传递章节数量
                     if ("章节大纲".equals(group.getName())) {
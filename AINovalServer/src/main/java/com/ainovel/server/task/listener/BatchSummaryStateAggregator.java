@@ -2,9 +2,12 @@ package com.ainovel.server.task.listener;
 
 import com.ainovel.server.task.dto.batchsummary.BatchGenerateSummaryProgress;
 import com.ainovel.server.task.dto.batchsummary.BatchGenerateSummaryResult;
+import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryBundleParameters;
+import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryBundleResult;
 import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryResult;
 import com.ainovel.server.task.event.internal.TaskCompletedEvent;
 import com.ainovel.server.task.event.internal.TaskFailedEvent;
+import com.ainovel.server.task.executor.GenerateSummaryBundleTaskExecutable;
 import com.ainovel.server.task.model.BackgroundTask;
 import com.ainovel.server.task.model.TaskStatus;
 import com.ainovel.server.task.service.TaskStateService;
@@ -17,6 +20,7 @@ import reactor.core.publisher.Mono;
 
 import java.util.AbstractMap;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -44,7 +48,7 @@ public class BatchSummaryStateAggregator {
             return;
         }
 
-        if (!"GENERATE_SUMMARY".equals(event.getTaskType())) {
+        if (!isSummarySubTask(event.getTaskType())) {
             return; // 只处理摘要生成任务
         }
 
@@ -69,6 +73,15 @@ public class BatchSummaryStateAggregator {
                     }))
                     .filter(parentTask -> "BATCH_GENERATE_SUMMARY".equals(parentTask.getTaskType()))
                     .flatMap(parentTask -> {
+                        // 打包子任务一次完成多个场景
+                        if (event.getResult() instanceof GenerateSummaryBundleResult bundleResult) {
+                            Map<String, String> failures = bundleResult.getFailedSceneDetails() != null
+                                    ? bundleResult.getFailedSceneDetails() : Map.of();
+                            int succeeded = bundleResult.getSucceededSceneIds() != null
+                                    ? bundleResult.getSucceededSceneIds().size() : 0;
+                            return applyToParentTask(parentTask, bundleResult.getTotalScenes(),
+                                    succeeded, failures.size(), 0, failures);
+                        }
                         // 获取子任务结果
                         if (!(event.getResult() instanceof GenerateSummaryResult)) {
                             log.warn("子任务结果类型不匹配: {}", 
@@ -99,7 +112,7 @@ public class BatchSummaryStateAggregator {
             return;
         }
 
-        if (!"GENERATE_SUMMARY".equals(event.getTaskType())) {
+        if (!isSummarySubTask(event.getTaskType())) {
             return; // 只处理摘要生成任务
         }
 
@@ -138,6 +151,8 @@ public class BatchSummaryStateAggregator {
                 
                 final String finalSceneId = sceneId;
                 final String finalErrorMessage = errorMessage != null ? errorMessage : "未知错误";
+                // 打包子任务整体失败：包内每个场景都计为失败
+                final List<String> bundleSceneIds = bundleSceneIdsOf(task);
                 
                 return taskStateService.getTask(parentTaskId)
                     .switchIfEmpty(Mono.<BackgroundTask>defer(() -> {
@@ -146,6 +161,12 @@ public class BatchSummaryStateAggregator {
                     }))
                     .filter(parentTask -> "BATCH_GENERATE_SUMMARY".equals(parentTask.getTaskType()))
                     .flatMap(parentTask -> {
+                        if (GenerateSummaryBundleTaskExecutable.TASK_TYPE.equals(event.getTaskType())) {
+                            Map<String, String> failures = new HashMap<>();
+                            bundleSceneIds.forEach(id -> failures.put(id, finalErrorMessage));
+                            return applyToParentTask(parentTask, bundleSceneIds.size(), 0,
+                                    bundleSceneIds.size(), 0, failures);
+                        }
                         // 更新父任务进度
                         Map.Entry<String, String> failedEntry = finalSceneId != null ? 
                                 new AbstractMap.SimpleEntry<>(finalSceneId, finalErrorMessage) : null;
@@ -169,6 +190,31 @@ public class BatchSummaryStateAggregator {
      */
     private Mono<Void> updateParentTaskProgress(BackgroundTask parentTask, GenerateSummaryResult result, 
                                         boolean isSuccess, Map.Entry<String, String> failedEntry) {
+        if (isSuccess) {
+            boolean hasConflict = result != null && result.getModelName() != null && 
+                                result.getModelName().contains("conflict");
+            // 版本冲突 - 判断条件需要根据实际业务逻辑调整
+            return hasConflict
+                    ? applyToParentTask(parentTask, 1, 0, 0, 1, Map.of())
+                    : applyToParentTask(parentTask, 1, 1, 0, 0, Map.of());
+        }
+        Map<String, String> failures = failedEntry != null
+                ? Map.of(failedEntry.getKey(), failedEntry.getValue()) : Map.of();
+        return applyToParentTask(parentTask, 1, 0, 1, 0, failures);
+    }
+
+    /**
+     * 把子任务结果累加到父任务的进度和结果上
+     *
+     * @param processed 本次处理完成的场景数
+     * @param succeeded 其中成功的场景数
+     * @param failed 其中失败的场景数
+     * @param conflicts 其中版本冲突的场景数
+     * @param failures 失败的场景ID和错误消息
+     * @return 完成信号
+     */
+    private Mono<Void> applyToParentTask(BackgroundTask parentTask, int processed, int succeeded,
+                                         int failed, int conflicts, Map<String, String> failures) {
         // 获取当前进度
         BatchGenerateSummaryProgress currentProgress = null;
         if (parentTask.getProgress() instanceof BatchGenerateSummaryProgress) {
@@ -204,7 +250,7 @@ public class BatchSummaryStateAggregator {
         // 创建状态统计的副本，以确保它们在lambda中是有效不变的
         final int totalScenes = currentProgress.getTotalScenes();
         final int skippedCount = currentProgress.getSkippedCount();
-        final int processedCount = currentProgress.getProcessedCount() + 1;
+        final int processedCount = currentProgress.getProcessedCount() + processed;
         final int startingSuccessCount = currentProgress.getSuccessCount();
         final int startingFailedCount = currentProgress.getFailedCount();
         final int startingConflictCount = currentProgress.getConflictCount();
@@ -229,45 +275,17 @@ public class BatchSummaryStateAggregator {
                 currentResult.getFailedSceneDetails() != null ? 
                 currentResult.getFailedSceneDetails() : new HashMap<>());
         
-        // 根据任务状态更新计数器
-        if (isSuccess) {
-            // 子任务成功
-            boolean hasConflict = result != null && result.getModelName() != null && 
-                                result.getModelName().contains("conflict");
-            if (hasConflict) {
-                // 版本冲突 - 判断条件需要根据实际业务逻辑调整
-                progressBuilder.successCount(startingSuccessCount)
-                              .failedCount(startingFailedCount)
-                              .conflictCount(startingConflictCount + 1);
-                
-                resultBuilder.successCount(startingResultSuccessCount)
-                           .failedCount(startingResultFailedCount)
-                           .conflictCount(startingResultConflictCount + 1);
-            } else {
-                // 正常成功
-                progressBuilder.successCount(startingSuccessCount + 1)
-                              .failedCount(startingFailedCount)
-                              .conflictCount(startingConflictCount);
-                
-                resultBuilder.successCount(startingResultSuccessCount + 1)
-                           .failedCount(startingResultFailedCount)
-                           .conflictCount(startingResultConflictCount);
-            }
-        } else {
-            // 子任务失败
-            progressBuilder.successCount(startingSuccessCount)
-                          .failedCount(startingFailedCount + 1)
-                          .conflictCount(startingConflictCount);
-            
-            resultBuilder.successCount(startingResultSuccessCount)
-                       .failedCount(startingResultFailedCount + 1)
-                       .conflictCount(startingResultConflictCount);
-            
-            // 添加失败细节
-            if (failedEntry != null) {
-                failedSceneDetails.put(failedEntry.getKey(), failedEntry.getValue());
-            }
-        }
+        // 根据子任务结果更新计数器
+        progressBuilder.successCount(startingSuccessCount + succeeded)
+                      .failedCount(startingFailedCount + failed)
+                      .conflictCount(startingConflictCount + conflicts);
+        
+        resultBuilder.successCount(startingResultSuccessCount + succeeded)
+                   .failedCount(startingResultFailedCount + failed)
+                   .conflictCount(startingResultConflictCount + conflicts);
+        
+        // 添加失败细节
+        failedSceneDetails.putAll(failures);
         
         // 设置失败详情
         resultBuilder.failedSceneDetails(failedSceneDetails);
@@ -317,6 +335,25 @@ public class BatchSummaryStateAggregator {
             }));
     }
 
+    private static boolean isSummarySubTask(String taskType) {
+        return "GENERATE_SUMMARY".equals(taskType) || GenerateSummaryBundleTaskExecutable.TASK_TYPE.equals(taskType);
+    }
+
+    /**
+     * 从打包子任务参数中读取场景ID列表
+     */
+    @SuppressWarnings("unchecked")
+    private static List<String> bundleSceneIdsOf(BackgroundTask task) {
+        Object params = task.getParameters();
+        if (params instanceof GenerateSummaryBundleParameters bundleParams && bundleParams.getSceneIds() != null) {
+            return bundleParams.getSceneIds();
+        }
+        if (params instanceof Map<?, ?> paramMap && paramMap.get("sceneIds") instanceof List<?> ids) {
+            return (List<String>) ids;
+        }
+        return List.of();
+    }
+
     /**
      * 检查并标记事件为已处理
      * 
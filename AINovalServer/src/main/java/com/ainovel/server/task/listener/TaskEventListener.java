@@ -3,11 +3,6 @@ package com.ainovel.server.task.listener;
 import com.ainovel.server.config.RabbitMQConfig;
 import com.rabbitmq.client.Channel;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.beans.factory.annotation.Qualifier;
-import java.nio.charset.StandardCharsets;
-import com.ainovel.server.task.events.TaskEventPublisher;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
@@ -17,21 +12,15 @@ import java.util.Map;
 
 /**
  * 任务事件监听器，用于处理任务事件消息
+ *
+ * 事件队列由多个节点竞争消费，不能用来向 SSE 连接桥接；
+ * SSE 的跨节点投递由 {@link com.ainovel.server.task.events.TaskEventFanout} 负责，这里只做确认。
  */
 @Slf4j
 @Component
 @org.springframework.boot.autoconfigure.condition.ConditionalOnProperty(name = "task.transport", havingValue = "rabbit", matchIfMissing = true)
 public class TaskEventListener {
 
-    private final TaskEventPublisher sseBroker;
-    private final ObjectMapper objectMapper;
-
-    @Autowired
-    public TaskEventListener(TaskEventPublisher sseBroker, @Qualifier("taskObjectMapper") ObjectMapper objectMapper) {
-        this.sseBroker = sseBroker;
-        this.objectMapper = objectMapper;
-    }
-
     /**
      * 处理任务事件消息
      * 
@@ -51,23 +40,8 @@ public class TaskEventListener {
             taskId = (String) headers.get("x-task-id");
             eventType = (String) headers.get("x-event-type");
             
-            log.info("收到任务事件: taskId={}, eventType={}", taskId, eventType);
+            log.debug("收到任务事件: taskId={}, eventType={}", taskId, eventType);
 
-            // 解析消息体为 Map，并透传到 SSE Broker（跨实例桥接）
-            Map<String, Object> payload;
-            try {
-                String body = new String(message.getBody(), StandardCharsets.UTF_8);
-                payload = objectMapper.readValue(body, new com.fasterxml.jackson.core.type.TypeReference<Map<String, Object>>(){});
-            } catch (Exception parseEx) {
-                log.warn("任务事件消息体解析失败，使用空载荷: {}", parseEx.getMessage());
-                payload = new java.util.HashMap<>();
-            }
-            // 补充必要字段，统一成 SSE 事件格式
-            payload.putIfAbsent("type", eventType != null ? eventType : "TASK_UNKNOWN");
-            payload.putIfAbsent("taskId", taskId);
-            // 透传到 Publisher
-            sseBroker.publish(payload);
-            
             // 确认消息已处理
             channel.basicAck(deliveryTag, false);
             log.debug("任务事件处理成功: taskId={}, eventType={}", taskId, eventType);
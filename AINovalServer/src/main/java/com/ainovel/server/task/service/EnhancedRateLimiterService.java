@@ -3,6 +3,7 @@ package com.ainovel.server.task.service;
 import com.ainovel.server.config.AIProviderEnum;
 import com.ainovel.server.config.ProviderRateLimitConfig;
 import com.ainovel.server.task.service.factory.RateLimitStrategyFactory;
+import com.ainovel.server.task.service.ratelimit.ClusterRateLimiter;
 import com.ainovel.server.task.service.retry.RabbitMQRetryManager;
 import com.ainovel.server.task.service.strategy.IRateLimitStrategy;
 import lombok.RequiredArgsConstructor;
@@ -11,6 +12,7 @@ import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 import com.ainovel.server.config.RateLimitConfigurationManager;
 
+import java.time.Duration;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -23,6 +25,9 @@ import java.util.concurrent.ConcurrentHashMap;
  * 3. RabbitMQ重试机制集成
  * 4. 并发安全的配置管理
  * 5. 智能错误处理和监控
+ * 6. 可等待许可：GCRA 可算出下一个许可的时间点，预约后延迟执行，而不是拒绝后进入重试队列
+ * 7. 集群模式（task.ratelimiter.type=cluster）：在本地限流之外再向集群共享状态预约，约束多节点共用同一 API Key 时的总速率；
+ *    集群拒绝时撤销本地预约，避免被拒绝的请求占用本地许可
  */
 @Slf4j
 @Service
@@ -32,6 +37,7 @@ public class EnhancedRateLimiterService {
     private final RateLimitStrategyFactory strategyFactory;
     private final RabbitMQRetryManager retryManager;
     private final RateLimitConfigurationManager rateLimitConfigurationManager;
+    private final ClusterRateLimiter clusterRateLimiter;
     
     // 配置缓存 - 按用户和模型分组
     private final ConcurrentHashMap<String, ProviderRateLimitConfig> configCache = new ConcurrentHashMap<>();
@@ -46,25 +52,68 @@ public class EnhancedRateLimiterService {
      * @return 许可获取结果
      */
     public Mono<PermitResult> tryAcquirePermit(String providerCode, String userId, String modelName, String requestId) {
+        return tryAcquirePermit(providerCode, userId, modelName, requestId, Duration.ZERO);
+    }
+    
+    /**
+     * 获取AI服务限流许可，最多等待配置的许可等待时间（maxPermitWaitMillis，与 AI 调用超时分开配置）
+     */
+    public Mono<PermitResult> acquirePermit(String providerCode, String userId, String modelName, String requestId) {
+        return Mono.defer(() -> {
+            ProviderRateLimitConfig config = getOrCreateConfig(providerCode, userId, modelName);
+            Object maxWait = config.getMetric("maxPermitWaitMillis");
+            long maxWaitMillis = maxWait instanceof Number ? ((Number) maxWait).longValue() : 0L;
+            return tryAcquirePermit(providerCode, userId, modelName, requestId, Duration.ofMillis(maxWaitMillis));
+        });
+    }
+    
+    /**
+     * 获取AI服务限流许可，许可在最长等待时间内可用时异步等待到该时间点
+     * 
+     * @param maxWait 最长等待时间，Duration.ZERO 表示不等待
+     * @return 许可获取结果（等待结束后发出）
+     */
+    public Mono<PermitResult> tryAcquirePermit(String providerCode, String userId, String modelName,
+                                               String requestId, Duration maxWait) {
         try {
             // 获取供应商配置
             ProviderRateLimitConfig config = getOrCreateConfig(providerCode, userId, modelName);
             
             // 获取限流策略
             IRateLimitStrategy strategy = strategyFactory.getStrategy(config.getRateLimitStrategy());
+            long maxWaitMillis = Math.max(0, maxWait.toMillis());
             
-            // 尝试获取许可
-            return strategy.tryAcquire(config, requestId)
-                    .map(permitted -> {
-                        if (permitted) {
-                            log.debug("限流许可获取成功: provider={}, user={}, model={}, requestId={}", 
-                                    providerCode, userId, modelName, requestId);
-                            return PermitResult.success(config, strategy.getStrategyName());
-                        } else {
+            // 预约许可：本地策略与集群状态都给出等待时间，取较大者
+            return strategy.reserve(config, requestId, maxWaitMillis)
+                    .flatMap(localWait -> {
+                        if (localWait < 0) {
                             log.warn("限流许可获取失败: provider={}, user={}, model={}, requestId={}", 
                                     providerCode, userId, modelName, requestId);
-                            return PermitResult.rejected(config, "限流器拒绝请求");
+                            return Mono.just(PermitResult.rejected(config, "限流器拒绝请求"));
                         }
+                        Mono<Long> clusterWait = rateLimitConfigurationManager.isClusterMode()
+                                ? clusterRateLimiter.reserveOrAllow(config.getRateLimiterKey(),
+                                        config.getEffectiveRate(), config.getEffectiveBurstCapacity(), maxWaitMillis)
+                                : Mono.just(0L);
+                        return clusterWait.flatMap(remoteWait -> {
+                            if (remoteWait < 0) {
+                                log.warn("集群限流许可获取失败: provider={}, user={}, model={}, requestId={}", 
+                                        providerCode, userId, modelName, requestId);
+                                // 请求不会发出，归还本地已预约的许可
+                                return strategy.cancelReservation(config, requestId)
+                                        .thenReturn(PermitResult.rejected(config, "集群限流器拒绝请求"));
+                            }
+                            long waitMillis = Math.max(localWait, remoteWait);
+                            PermitResult result = PermitResult.success(config, strategy.getStrategyName());
+                            if (waitMillis == 0) {
+                                log.debug("限流许可获取成功: provider={}, user={}, model={}, requestId={}", 
+                                        providerCode, userId, modelName, requestId);
+                                return Mono.just(result);
+                            }
+                            log.debug("限流许可已预约，等待 {}ms: provider={}, user={}, model={}, requestId={}", 
+                                    waitMillis, providerCode, userId, modelName, requestId);
+                            return Mono.delay(Duration.ofMillis(waitMillis)).thenReturn(result);
+                        });
                     })
                     .onErrorResume(ex -> {
                         log.error("限流检查出错: provider={}, user={}, requestId={}, error={}", 
@@ -166,6 +215,9 @@ public class EnhancedRateLimiterService {
         if (config != null) {
             IRateLimitStrategy strategy = strategyFactory.getStrategy(config.getRateLimitStrategy());
             return strategy.reset(config)
+                    .then(rateLimitConfigurationManager.isClusterMode()
+                            ? clusterRateLimiter.reset(config.getRateLimiterKey())
+                            : Mono.empty())
                     .then(retryManager.clearRetryCount(config.getRateLimiterKey()))
                     .doOnSuccess(v -> {
                         config.resetToDefault();
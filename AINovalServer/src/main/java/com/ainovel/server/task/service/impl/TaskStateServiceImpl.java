@@ -378,6 +378,7 @@ public class TaskStateServiceImpl implements TaskStateService {
         // 排除摘要相关任务类型和拆书任务类型
         List<String> excludeTypes = Arrays.asList(
             "GENERATE_SUMMARY", 
+            "GENERATE_SUMMARY_BUNDLE",
             "BATCH_GENERATE_SUMMARY",
             "KNOWLEDGE_EXTRACTION_FANQIE",
             "KNOWLEDGE_EXTRACTION_TEXT",
@@ -0,0 +1,88 @@
+package com.ainovel.server.task.service.ratelimit;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.domain.model.RateLimitState;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * 集群共享的 GCRA 限流器
+ *
+ * 多个节点共用同一供应商 API Key 时，各节点的本地限流无法约束总速率。
+ * 这里把 TAT 存放在 rate_limit_states 集合中，每次获取许可是一次条件 findAndModify：
+ * 仅当 tat <= now + 容忍度 + 最长等待 时把 tat 推进一个发放间隔，否则 upsert 触发主键冲突即为拒绝。
+ *
+ * 时间取自各节点本地时钟（毫秒），节点间时钟偏差会按比例影响精度。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClusterRateLimiter {
+
+    private static final String KEY_PREFIX = "provider:";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    /**
+     * 预约一个集群许可
+     *
+     * @param key 限流键
+     * @param ratePerSecond 集群总速率
+     * @param burstCapacity 集群突发容量
+     * @param maxWaitMillis 最多可等待的毫秒数
+     * @return 需要等待的毫秒数（0 表示立即可用）；超出最长等待时返回 -1
+     */
+    public Mono<Long> reserve(String key, double ratePerSecond, int burstCapacity, long maxWaitMillis) {
+        long now = System.currentTimeMillis();
+        long interval = Math.max(1, (long) (1000 / Math.max(ratePerSecond, 0.001)));
+        long tolerance = interval * (Math.max(1, burstCapacity) - 1);
+
+        Query query = Query.query(Criteria.where("_id").is(KEY_PREFIX + key)
+                .and("tat").lte(now + tolerance + maxWaitMillis));
+        Document set = new Document("tat", new Document("$add", List.of(
+                new Document("$max", List.of(new Document("$ifNull", List.of("$tat", now)), now)), interval)))
+                // 状态在发放间隔和突发窗口都过去后已无意义
+                .append("expiresAt", new Document("$add", List.of(
+                        new Document("$toDate", new Document("$max", List.of(
+                                new Document("$ifNull", List.of("$tat", now)), now))),
+                        interval + tolerance + 60_000L)));
+        AggregationUpdate update = AggregationUpdate.from(List.of(Aggregation.stage(new Document("$set", set))));
+
+        return mongoTemplate.findAndModify(query, update,
+                        FindAndModifyOptions.options().upsert(true).returnNew(true), RateLimitState.class)
+                .map(state -> Math.max(0, state.getTat() - interval - tolerance - now))
+                .onErrorResume(DuplicateKeyException.class, e -> Mono.just(-1L));
+    }
+
+    /**
+     * 集群状态不可用时的降级：放行并记录（本地限流仍然生效）
+     */
+    public Mono<Long> reserveOrAllow(String key, double ratePerSecond, int burstCapacity, long maxWaitMillis) {
+        return reserve(key, ratePerSecond, burstCapacity, maxWaitMillis)
+                .onErrorResume(e -> {
+                    log.warn("集群限流状态不可用，仅使用本地限流: key={}, error={}", key, e.getMessage());
+                    return Mono.just(0L);
+                });
+    }
+
+    /**
+     * 清除集群限流状态
+     */
+    public Mono<Void> reset(String key) {
+        return mongoTemplate.remove(Query.query(Criteria.where("_id").is(KEY_PREFIX + key)), RateLimitState.class)
+                .then();
+    }
+}
@@ -0,0 +1,108 @@
+package com.ainovel.server.task.service.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地无锁 GCRA（通用信元速率算法）限流器
+ *
+ * 状态只有一个理论到达时间 TAT（纳秒），每次获取许可是对它的一次 CAS：
+ * newTat = max(tat, now) + 发放间隔，当 newTat - now 不超过 突发容量 × 发放间隔 时放行。
+ * 与令牌桶等价，但不需要锁，也不需要后台补充令牌。
+ *
+ * 速率可在运行时调整（降速、恢复），调整后的间隔从下一次获取开始生效。
+ */
+public final class GcraRateLimiter {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final int burstCapacity;
+    private final AtomicLong tat;
+
+    private volatile double ratePerSecond;
+    private volatile long emissionIntervalNanos;
+
+    public GcraRateLimiter(double ratePerSecond, int burstCapacity) {
+        this.burstCapacity = Math.max(1, burstCapacity);
+        this.tat = new AtomicLong(System.nanoTime());
+        updateRate(ratePerSecond);
+    }
+
+    /**
+     * 立即获取一个许可，不等待
+     */
+    public boolean tryAcquire() {
+        return reserve(0) == 0;
+    }
+
+    /**
+     * 预约一个许可
+     *
+     * @param maxWaitNanos 最多可等待的纳秒数
+     * @return 需要等待的纳秒数（0 表示立即可用）；超出最长等待时返回 -1 且不占用许可
+     */
+    public long reserve(long maxWaitNanos) {
+        long now = System.nanoTime();
+        while (true) {
+            long current = tat.get();
+            long interval = emissionIntervalNanos;
+            long base = current - now > 0 ? current : now;
+            long wait = Math.max(0, base - toleranceNanos(interval) - now);
+            if (wait > maxWaitNanos) {
+                return -1;
+            }
+            if (tat.compareAndSet(current, base + interval)) {
+                return wait;
+            }
+        }
+    }
+
+    /**
+     * 以毫秒为单位预约一个许可，等待时间向上取整
+     *
+     * @return 需要等待的毫秒数；超出最长等待时返回 -1
+     */
+    public long reserveMillis(long maxWaitMillis) {
+        long waitNanos = reserve(TimeUnit.MILLISECONDS.toNanos(maxWaitMillis));
+        return waitNanos < 0 ? -1 : (waitNanos + 999_999) / 1_000_000;
+    }
+
+    /**
+     * 撤销一次成功的预约：TAT 回退一个发放间隔，许可归还给后续请求
+     * 用于本地预约后被其他约束（如集群限流）拒绝、请求实际不会发出的情况
+     */
+    public void cancelReservation() {
+        tat.addAndGet(-emissionIntervalNanos);
+    }
+
+    /**
+     * 当前可立即获取的许可数
+     */
+    public int getAvailablePermits() {
+        long interval = emissionIntervalNanos;
+        long backlog = Math.max(0, tat.get() - System.nanoTime());
+        long available = (toleranceNanos(interval) + interval - backlog) / interval;
+        return (int) Math.max(0, Math.min(burstCapacity, available));
+    }
+
+    /**
+     * 调整速率（每秒许可数）
+     */
+    public void updateRate(double ratePerSecond) {
+        double rate = ratePerSecond > 0 ? ratePerSecond : 0.001;
+        this.ratePerSecond = rate;
+        this.emissionIntervalNanos = Math.max(1, (long) (NANOS_PER_SECOND / rate));
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public int getBurstCapacity() {
+        return burstCapacity;
+    }
+
+    private long toleranceNanos(long interval) {
+        return interval * (burstCapacity - 1);
+    }
+}
@@ -18,6 +18,30 @@ public interface IRateLimitStrategy {
      */
     Mono<Boolean> tryAcquire(ProviderRateLimitConfig config, String requestId);
     
+    /**
+     * 预约限流许可，许可将在一段时间后可用时返回需要等待的时长
+     * 默认不支持等待，退化为立即获取
+     * 
+     * @param config 供应商配置
+     * @param requestId 请求ID
+     * @param maxWaitMillis 最多可等待的毫秒数
+     * @return 需要等待的毫秒数（0 表示立即可用），无法在最长等待内获取时返回 -1
+     */
+    default Mono<Long> reserve(ProviderRateLimitConfig config, String requestId, long maxWaitMillis) {
+        return tryAcquire(config, requestId).map(acquired -> acquired ? 0L : -1L);
+    }
+    
+    /**
+     * 撤销一次成功的预约（reserve 返回非负值），请求因其他原因不会发出时调用
+     * 默认无操作
+     * 
+     * @param config 供应商配置
+     * @param requestId 请求ID
+     */
+    default Mono<Void> cancelReservation(ProviderRateLimitConfig config, String requestId) {
+        return Mono.empty();
+    }
+    
     /**
      * 释放许可 (如果策略需要)
      * 
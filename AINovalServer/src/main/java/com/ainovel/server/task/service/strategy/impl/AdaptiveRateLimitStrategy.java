@@ -1,12 +1,15 @@
 package com.ainovel.server.task.service.strategy.impl;
 
 import com.ainovel.server.config.ProviderRateLimitConfig;
+import com.ainovel.server.task.service.ratelimit.GcraRateLimiter;
 import com.ainovel.server.task.service.strategy.IRateLimitStrategy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 自适应限流策略
@@ -21,25 +24,40 @@ import java.util.concurrent.ConcurrentHashMap;
 @Component
 public class AdaptiveRateLimitStrategy implements IRateLimitStrategy {
     
-    private final ConcurrentHashMap<String, AdaptiveTokenBucket> buckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AdaptiveLimiter> buckets = new ConcurrentHashMap<>();
     
     @Override
     public Mono<Boolean> tryAcquire(ProviderRateLimitConfig config, String requestId) {
+        return reserve(config, requestId, 0).map(wait -> wait == 0);
+    }
+    
+    @Override
+    public Mono<Long> reserve(ProviderRateLimitConfig config, String requestId, long maxWaitMillis) {
         String key = config.getRateLimiterKey();
-        AdaptiveTokenBucket bucket = buckets.computeIfAbsent(key, k -> 
-            new AdaptiveTokenBucket(config.getEffectiveRate(), config.getEffectiveBurstCapacity()));
+        AdaptiveLimiter bucket = buckets.computeIfAbsent(key, k -> 
+            new AdaptiveLimiter(config.getEffectiveRate(), config.getEffectiveBurstCapacity()));
         
-        boolean acquired = bucket.tryConsume();
+        long waitMillis = bucket.reserveMillis(maxWaitMillis);
         
-        if (acquired) {
-            log.debug("自适应策略许可获取成功: key={}, currentRate={}, requestId={}", 
-                    key, bucket.getCurrentRate(), requestId);
+        if (waitMillis >= 0) {
+            log.debug("自适应策略许可获取成功: key={}, currentRate={}, waitMillis={}, requestId={}", 
+                    key, bucket.getCurrentRate(), waitMillis, requestId);
         } else {
             log.warn("自适应策略许可获取失败: key={}, available={}, errorRate={}, requestId={}", 
                     key, bucket.getAvailableTokens(), bucket.getErrorRate(), requestId);
         }
         
-        return Mono.just(acquired);
+        return Mono.just(waitMillis);
+    }
+    
+    @Override
+    public Mono<Void> cancelReservation(ProviderRateLimitConfig config, String requestId) {
+        AdaptiveLimiter bucket = buckets.get(config.getRateLimiterKey());
+        if (bucket != null) {
+            bucket.cancelReservation();
+            log.debug("自适应策略撤销预约: key={}, requestId={}", config.getRateLimiterKey(), requestId);
+        }
+        return Mono.empty();
     }
     
     @Override
@@ -51,7 +69,7 @@ public class AdaptiveRateLimitStrategy implements IRateLimitStrategy {
     @Override
     public Mono<Integer> getAvailablePermits(ProviderRateLimitConfig config) {
         String key = config.getRateLimiterKey();
-        AdaptiveTokenBucket bucket = buckets.get(key);
+        AdaptiveLimiter bucket = buckets.get(key);
         int available = bucket != null ? bucket.getAvailableTokens() : 0;
         
         log.debug("自适应策略可用许可: key={}, available={}", key, available);
@@ -61,7 +79,7 @@ public class AdaptiveRateLimitStrategy implements IRateLimitStrategy {
     @Override
     public Mono<Void> recordError(ProviderRateLimitConfig config, String errorType, String requestId) {
         String key = config.getRateLimiterKey();
-        AdaptiveTokenBucket bucket = buckets.get(key);
+        AdaptiveLimiter bucket = buckets.get(key);
         
         if (bucket != null) {
             bucket.recordError(errorType);
@@ -75,7 +93,7 @@ public class AdaptiveRateLimitStrategy implements IRateLimitStrategy {
     @Override
     public Mono<Void> recordSuccess(ProviderRateLimitConfig config, String requestId) {
         String key = config.getRateLimiterKey();
-        AdaptiveTokenBucket bucket = buckets.get(key);
+        AdaptiveLimiter bucket = buckets.get(key);
         
         if (bucket != null) {
             bucket.recordSuccess();
@@ -100,21 +118,18 @@ public class AdaptiveRateLimitStrategy implements IRateLimitStrategy {
     }
     
     /**
-     * 自适应令牌桶实现
-     * 支持根据错误率动态调整速率
+     * 自适应限流器
+     * 在 GCRA 限流器基础上根据错误率动态调整速率
      */
-    private static class AdaptiveTokenBucket {
+    private static class AdaptiveLimiter {
         private final double baseRate;
-        private final int baseCapacity;
-        private volatile double currentRate;
-        private volatile double tokens;
-        private volatile long lastRefill;
+        private final GcraRateLimiter limiter;
         
         // 统计信息
-        private volatile int errorCount = 0;
-        private volatile int successCount = 0;
-        private volatile int totalRequests = 0;
-        private volatile long lastAdjustment = System.currentTimeMillis();
+        private final AtomicInteger errorCount = new AtomicInteger(0);
+        private final AtomicInteger successCount = new AtomicInteger(0);
+        private final AtomicInteger totalRequests = new AtomicInteger(0);
+        private final AtomicLong lastAdjustment = new AtomicLong(System.currentTimeMillis());
         
         // 自适应参数
         private static final int MIN_SAMPLES = 10;           // 最小样本数
@@ -122,58 +137,58 @@ public class AdaptiveRateLimitStrategy implements IRateLimitStrategy {
         private static final double MAX_RATE_MULTIPLIER = 2.0; // 最大速率倍数
         private static final double MIN_RATE_MULTIPLIER = 0.1; // 最小速率倍数
         
-        public AdaptiveTokenBucket(double rate, int capacity) {
+        public AdaptiveLimiter(double rate, int capacity) {
             this.baseRate = rate;
-            this.baseCapacity = capacity;
-            this.currentRate = rate;
-            this.tokens = capacity;
-            this.lastRefill = System.currentTimeMillis();
+            this.limiter = new GcraRateLimiter(rate, capacity);
         }
         
-        public synchronized boolean tryConsume() {
-            refill();
+        public long reserveMillis(long maxWaitMillis) {
             adjustRateIfNeeded();
             
-            if (tokens >= 1.0) {
-                tokens -= 1.0;
-                totalRequests++;
-                return true;
+            long waitMillis = limiter.reserveMillis(maxWaitMillis);
+            if (waitMillis >= 0) {
+                totalRequests.incrementAndGet();
             }
-            return false;
+            return waitMillis;
         }
         
-        private void refill() {
-            long now = System.currentTimeMillis();
-            double elapsed = (now - lastRefill) / 1000.0;
-            tokens = Math.min(baseCapacity, tokens + elapsed * currentRate);
-            lastRefill = now;
+        public void cancelReservation() {
+            limiter.cancelReservation();
+            totalRequests.decrementAndGet();
         }
         
         public void recordError(String errorType) {
-            errorCount++;
-            totalRequests++;
+            errorCount.incrementAndGet();
+            totalRequests.incrementAndGet();
             
             // 立即调整策略对严重错误
             if (errorType.contains("429") || errorType.contains("quota")) {
-                currentRate = Math.max(baseRate * MIN_RATE_MULTIPLIER, currentRate * 0.5);
-                log.warn("自适应策略紧急降速: errorType={}, newRate={}", errorType, currentRate);
+                double newRate = Math.max(baseRate * MIN_RATE_MULTIPLIER, limiter.getRatePerSecond() * 0.5);
+                limiter.updateRate(newRate);
+                log.warn("自适应策略紧急降速: errorType={}, newRate={}", errorType, newRate);
             }
         }
         
         public void recordSuccess() {
-            successCount++;
-            totalRequests++;
+            successCount.incrementAndGet();
+            totalRequests.incrementAndGet();
         }
         
         private void adjustRateIfNeeded() {
             long now = System.currentTimeMillis();
+            long last = lastAdjustment.get();
             
             // 检查是否需要调整
-            if (now - lastAdjustment < ADJUSTMENT_INTERVAL || totalRequests < MIN_SAMPLES) {
+            if (now - last < ADJUSTMENT_INTERVAL || totalRequests.get() < MIN_SAMPLES) {
+                return;
+            }
+            // 只由一个线程执行本轮调整
+            if (!lastAdjustment.compareAndSet(last, now)) {
                 return;
             }
             
-            double errorRate = (double) errorCount / totalRequests;
+            int total = totalRequests.get();
+            double errorRate = total > 0 ? (double) errorCount.get() / total : 0.0;
             double newRateMultiplier = calculateRateMultiplier(errorRate);
             double newRate = baseRate * newRateMultiplier;
             
@@ -181,18 +196,17 @@ public class AdaptiveRateLimitStrategy implements IRateLimitStrategy {
             newRate = Math.max(baseRate * MIN_RATE_MULTIPLIER, 
                     Math.min(baseRate * MAX_RATE_MULTIPLIER, newRate));
             
+            double currentRate = limiter.getRatePerSecond();
             if (Math.abs(newRate - currentRate) > 0.01) {
                 log.info("自适应策略调整速率: errorRate={}, oldRate={}, newRate={}, samples={}", 
-                        errorRate, currentRate, newRate, totalRequests);
-                currentRate = newRate;
+                        errorRate, currentRate, newRate, total);
+                limiter.updateRate(newRate);
             }
             
-            // 重置统计信息
-            lastAdjustment = now;
             // 保留部分历史数据用于平滑调整
-            errorCount = errorCount / 2;
-            successCount = successCount / 2;
-            totalRequests = totalRequests / 2;
+            errorCount.updateAndGet(v -> v / 2);
+            successCount.updateAndGet(v -> v / 2);
+            totalRequests.updateAndGet(v -> v / 2);
         }
         
         private double calculateRateMultiplier(double errorRate) {
@@ -210,16 +224,16 @@ public class AdaptiveRateLimitStrategy implements IRateLimitStrategy {
         }
         
         public double getCurrentRate() {
-            return currentRate;
+            return limiter.getRatePerSecond();
         }
         
         public double getErrorRate() {
-            return totalRequests > 0 ? (double) errorCount / totalRequests : 0.0;
+            int total = totalRequests.get();
+            return total > 0 ? (double) errorCount.get() / total : 0.0;
         }
         
         public int getAvailableTokens() {
-            refill();
-            return (int) tokens;
+            return limiter.getAvailablePermits();
         }
     }
-} 
\ No newline at end of file
+}
@@ -1,12 +1,15 @@
 package com.ainovel.server.task.service.strategy.impl;
 
 import com.ainovel.server.config.ProviderRateLimitConfig;
+import com.ainovel.server.task.service.ratelimit.GcraRateLimiter;
 import com.ainovel.server.task.service.strategy.IRateLimitStrategy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 激进限流策略
@@ -21,30 +24,45 @@ import java.util.concurrent.ConcurrentHashMap;
 @Component
 public class AggressiveRateLimitStrategy implements IRateLimitStrategy {
     
-    private final ConcurrentHashMap<String, EnhancedTokenBucket> buckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, EnhancedLimiter> buckets = new ConcurrentHashMap<>();
     
     @Override
     public Mono<Boolean> tryAcquire(ProviderRateLimitConfig config, String requestId) {
+        return reserve(config, requestId, 0).map(wait -> wait == 0);
+    }
+    
+    @Override
+    public Mono<Long> reserve(ProviderRateLimitConfig config, String requestId, long maxWaitMillis) {
         String key = config.getRateLimiterKey();
         
         // 激进策略：使用更大的速率和容量
         double enhancedRate = config.getEffectiveRate() * 2.0;
         int enhancedCapacity = config.getEffectiveBurstCapacity() * 2;
         
-        EnhancedTokenBucket bucket = buckets.computeIfAbsent(key, k -> 
-            new EnhancedTokenBucket(enhancedRate, enhancedCapacity));
+        EnhancedLimiter bucket = buckets.computeIfAbsent(key, k -> 
+            new EnhancedLimiter(enhancedRate, enhancedCapacity));
         
-        boolean acquired = bucket.tryConsume();
+        long waitMillis = bucket.reserveMillis(maxWaitMillis);
         
-        if (acquired) {
-            log.debug("激进策略许可获取成功: key={}, enhancedRate={}, requestId={}", 
-                    key, enhancedRate, requestId);
+        if (waitMillis >= 0) {
+            log.debug("激进策略许可获取成功: key={}, enhancedRate={}, waitMillis={}, requestId={}", 
+                    key, enhancedRate, waitMillis, requestId);
         } else {
             log.warn("激进策略许可获取失败: key={}, available={}, requestId={}", 
                     key, bucket.getAvailableTokens(), requestId);
         }
         
-        return Mono.just(acquired);
+        return Mono.just(waitMillis);
+    }
+    
+    @Override
+    public Mono<Void> cancelReservation(ProviderRateLimitConfig config, String requestId) {
+        EnhancedLimiter bucket = buckets.get(config.getRateLimiterKey());
+        if (bucket != null) {
+            bucket.cancelReservation();
+            log.debug("激进策略撤销预约: key={}, requestId={}", config.getRateLimiterKey(), requestId);
+        }
+        return Mono.empty();
     }
     
     @Override
@@ -56,7 +74,7 @@ public class AggressiveRateLimitStrategy implements IRateLimitStrategy {
     @Override
     public Mono<Integer> getAvailablePermits(ProviderRateLimitConfig config) {
         String key = config.getRateLimiterKey();
-        EnhancedTokenBucket bucket = buckets.get(key);
+        EnhancedLimiter bucket = buckets.get(key);
         int available = bucket != null ? bucket.getAvailableTokens() : 0;
         
         log.debug("激进策略可用许可: key={}, available={}", key, available);
@@ -66,7 +84,7 @@ public class AggressiveRateLimitStrategy implements IRateLimitStrategy {
     @Override
     public Mono<Void> recordError(ProviderRateLimitConfig config, String errorType, String requestId) {
         String key = config.getRateLimiterKey();
-        EnhancedTokenBucket bucket = buckets.get(key);
+        EnhancedLimiter bucket = buckets.get(key);
         
         if (bucket != null && (errorType.contains("429") || errorType.contains("quota"))) {
             // 遇到配额错误时，临时降低速率
@@ -80,7 +98,7 @@ public class AggressiveRateLimitStrategy implements IRateLimitStrategy {
     @Override
     public Mono<Void> recordSuccess(ProviderRateLimitConfig config, String requestId) {
         String key = config.getRateLimiterKey();
-        EnhancedTokenBucket bucket = buckets.get(key);
+        EnhancedLimiter bucket = buckets.get(key);
         
         if (bucket != null) {
             bucket.recordSuccess();
@@ -104,67 +122,59 @@ public class AggressiveRateLimitStrategy implements IRateLimitStrategy {
     }
     
     /**
-     * 增强型令牌桶实现
-     * 支持动态调整和快速恢复
+     * 增强型限流器
+     * 在 GCRA 限流器基础上支持临时降速和快速恢复
      */
-    private static class EnhancedTokenBucket {
+    private static class EnhancedLimiter {
         private final double baseRate;
-        private final int baseCapacity;
-        private volatile double currentRate;
-        private volatile double tokens;
-        private volatile long lastRefill;
-        private volatile long lastSlowdown = 0;
-        private volatile int successCount = 0;
+        private final GcraRateLimiter limiter;
+        private final AtomicLong lastSlowdown = new AtomicLong(0);
+        private final AtomicInteger successCount = new AtomicInteger(0);
+        private volatile boolean slowedDown = false;
         
         // 激进策略参数
         private static final long SLOWDOWN_DURATION = 10000; // 10秒降速期
         private static final double SLOWDOWN_FACTOR = 0.3;   // 降速到30%
         private static final int RECOVERY_THRESHOLD = 5;     // 5次成功后恢复
         
-        public EnhancedTokenBucket(double rate, int capacity) {
+        public EnhancedLimiter(double rate, int capacity) {
             this.baseRate = rate;
-            this.baseCapacity = capacity;
-            this.currentRate = rate;
-            this.tokens = capacity;
-            this.lastRefill = System.currentTimeMillis();
+            this.limiter = new GcraRateLimiter(rate, capacity);
         }
         
-        public synchronized boolean tryConsume() {
-            refill();
-            if (tokens >= 1.0) {
-                tokens -= 1.0;
-                return true;
-            }
-            return false;
+        public long reserveMillis(long maxWaitMillis) {
+            recoverIfNeeded();
+            return limiter.reserveMillis(maxWaitMillis);
+        }
+        
+        public void cancelReservation() {
+            limiter.cancelReservation();
         }
         
-        private void refill() {
-            long now = System.currentTimeMillis();
-            double elapsed = (now - lastRefill) / 1000.0;
-            
+        private void recoverIfNeeded() {
             // 检查是否需要恢复正常速率
-            if (now - lastSlowdown > SLOWDOWN_DURATION && successCount >= RECOVERY_THRESHOLD) {
-                currentRate = baseRate;
-                successCount = 0;
+            if (slowedDown
+                    && System.currentTimeMillis() - lastSlowdown.get() > SLOWDOWN_DURATION
+                    && successCount.get() >= RECOVERY_THRESHOLD) {
+                slowedDown = false;
+                limiter.updateRate(baseRate);
+                successCount.set(0);
             }
-            
-            tokens = Math.min(baseCapacity, tokens + elapsed * currentRate);
-            lastRefill = now;
         }
         
         public void temporarySlowdown() {
-            currentRate = baseRate * SLOWDOWN_FACTOR;
-            lastSlowdown = System.currentTimeMillis();
-            successCount = 0;
+            limiter.updateRate(baseRate * SLOWDOWN_FACTOR);
+            lastSlowdown.set(System.currentTimeMillis());
+            successCount.set(0);
+            slowedDown = true;
         }
         
         public void recordSuccess() {
-            successCount++;
+            successCount.incrementAndGet();
         }
         
         public int getAvailableTokens() {
-            refill();
-            return (int) tokens;
+            return limiter.getAvailablePermits();
         }
     }
-} 
\ No newline at end of file
+}
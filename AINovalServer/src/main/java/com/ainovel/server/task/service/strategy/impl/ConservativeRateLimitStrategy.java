@@ -6,9 +6,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDate;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -20,16 +18,15 @@ import java.util.concurrent.atomic.AtomicLong;
  * 特点:
  * 1. 严格的日限额控制
  * 2. 时间窗口重置
- * 3. 并发安全的计数器
+ * 3. 无锁计数器：日期与计数打包在一个 long 中，跨日重置与计数在同一次 CAS 内完成
  * 4. 自动错误恢复
  */
 @Slf4j
 @Component
 public class ConservativeRateLimitStrategy implements IRateLimitStrategy {
     
-    // 并发安全的计数器 - 按配置键分组
-    private final ConcurrentHashMap<String, AtomicInteger> dailyCounters = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, AtomicLong> lastResetTime = new ConcurrentHashMap<>();
+    // 日计数器 - 按配置键分组，高 32 位为日期(epochDay)，低 32 位为当日计数
+    private final ConcurrentHashMap<String, AtomicLong> dailyCounters = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, AtomicInteger> consecutiveErrors = new ConcurrentHashMap<>();
     
     // Gemini特定限制
@@ -40,34 +37,35 @@ public class ConservativeRateLimitStrategy implements IRateLimitStrategy {
     public Mono<Boolean> tryAcquire(ProviderRateLimitConfig config, String requestId) {
         String key = config.getRateLimiterKey();
         
-        return checkAndResetDaily(key)
-                .flatMap(reset -> {
-                    // 检查日限额
-                    AtomicInteger counter = dailyCounters.computeIfAbsent(key, k -> new AtomicInteger(0));
-                    int currentCount = counter.get();
+        return Mono.fromCallable(() -> {
+                    long today = currentDay();
+                    AtomicLong counter = dailyCounters.computeIfAbsent(key, k -> new AtomicLong(pack(today, 0)));
                     
                     // 动态限制：根据错误率调整
                     int effectiveLimit = calculateEffectiveLimit(config, key);
                     
-                    if (currentCount >= effectiveLimit) {
-                        log.warn("达到日限额: key={}, count={}, limit={}, requestId={}", 
-                                key, currentCount, effectiveLimit, requestId);
-                        return Mono.just(false);
+                    while (true) {
+                        long packed = counter.get();
+                        boolean newDay = dayOf(packed) != today;
+                        int currentCount = newDay ? 0 : countOf(packed);
+                        
+                        // 检查日限额
+                        if (currentCount >= effectiveLimit) {
+                            log.warn("达到日限额: key={}, count={}, limit={}, requestId={}", 
+                                    key, currentCount, effectiveLimit, requestId);
+                            return false;
+                        }
+                        
+                        // 跨日重置与计数在同一次 CAS 内完成
+                        if (counter.compareAndSet(packed, pack(today, currentCount + 1))) {
+                            if (newDay) {
+                                consecutiveErrors.remove(key);
+                                log.info("重置日限额计数器: key={}", key);
+                            }
+                            log.debug("获取限流许可成功: key={}, count={}, requestId={}", key, currentCount + 1, requestId);
+                            return true;
+                        }
                     }
-                    
-                    // 原子性增加计数
-                    int newCount = counter.incrementAndGet();
-                    
-                    // 双重检查，防止竞争条件
-                    if (newCount > effectiveLimit) {
-                        counter.decrementAndGet(); // 回滚
-                        log.warn("并发竞争导致超限，回滚: key={}, newCount={}, limit={}, requestId={}", 
-                                key, newCount, effectiveLimit, requestId);
-                        return Mono.just(false);
-                    }
-                    
-                    log.debug("获取限流许可成功: key={}, count={}, requestId={}", key, newCount, requestId);
-                    return Mono.just(true);
                 })
                 .onErrorResume(ex -> {
                     log.error("限流检查失败: key={}, requestId={}, error={}", key, requestId, ex.getMessage());
@@ -75,6 +73,21 @@ public class ConservativeRateLimitStrategy implements IRateLimitStrategy {
                 });
     }
     
+    @Override
+    public Mono<Void> cancelReservation(ProviderRateLimitConfig config, String requestId) {
+        AtomicLong counter = dailyCounters.get(config.getRateLimiterKey());
+        if (counter == null) {
+            return Mono.empty();
+        }
+        long today = currentDay();
+        // 只归还当日计数，跨日后计数已重置
+        counter.getAndUpdate(packed -> dayOf(packed) == today && countOf(packed) > 0
+                ? pack(today, countOf(packed) - 1)
+                : packed);
+        log.debug("保守策略撤销预约: key={}, requestId={}", config.getRateLimiterKey(), requestId);
+        return Mono.empty();
+    }
+    
     @Override
     public Mono<Void> release(ProviderRateLimitConfig config, String requestId) {
         // 保守策略通常不需要释放许可，因为基于时间窗口
@@ -84,8 +97,9 @@ public class ConservativeRateLimitStrategy implements IRateLimitStrategy {
     @Override
     public Mono<Integer> getAvailablePermits(ProviderRateLimitConfig config) {
         String key = config.getRateLimiterKey();
-        AtomicInteger counter = dailyCounters.get(key);
-        int used = counter != null ? counter.get() : 0;
+        AtomicLong counter = dailyCounters.get(key);
+        long packed = counter != null ? counter.get() : 0;
+        int used = counter != null && dayOf(packed) == currentDay() ? countOf(packed) : 0;
         int limit = calculateEffectiveLimit(config, key);
         return Mono.just(Math.max(0, limit - used));
     }
@@ -128,7 +142,6 @@ public class ConservativeRateLimitStrategy implements IRateLimitStrategy {
         String key = config.getRateLimiterKey();
         
         dailyCounters.remove(key);
-        lastResetTime.remove(key);
         consecutiveErrors.remove(key);
         
         log.info("重置限流器状态: key={}", key);
@@ -140,46 +153,20 @@ public class ConservativeRateLimitStrategy implements IRateLimitStrategy {
         return "CONSERVATIVE";
     }
     
-    /**
-     * 检查并重置日计数器
-     */
-    private Mono<Boolean> checkAndResetDaily(String key) {
-        AtomicLong lastReset = lastResetTime.computeIfAbsent(key, k -> new AtomicLong(0));
-        long now = System.currentTimeMillis();
-        long resetTime = lastReset.get();
-        
-        // 检查是否需要重置 (新的一天)
-        if (shouldResetDaily(resetTime, now)) {
-            synchronized (lastReset) {
-                // 双重检查锁定
-                if (shouldResetDaily(lastReset.get(), now)) {
-                    dailyCounters.remove(key);
-                    consecutiveErrors.remove(key);
-                    lastReset.set(now);
-                    
-                    log.info("重置日限额计数器: key={}", key);
-                    return Mono.just(true);
-                }
-            }
-        }
-        
-        return Mono.just(false);
+    private static long currentDay() {
+        return LocalDate.now().toEpochDay();
     }
     
-    /**
-     * 判断是否应该重置日计数器
-     */
-    private boolean shouldResetDaily(long lastResetTime, long currentTime) {
-        if (lastResetTime == 0) return true;
-        
-        LocalDateTime lastReset = LocalDateTime.ofInstant(
-                java.time.Instant.ofEpochMilli(lastResetTime), 
-                java.time.ZoneId.systemDefault());
-        LocalDateTime now = LocalDateTime.ofInstant(
-                java.time.Instant.ofEpochMilli(currentTime), 
-                java.time.ZoneId.systemDefault());
-        
-        return !lastReset.toLocalDate().equals(now.toLocalDate());
+    private static long pack(long day, int count) {
+        return (day << 32) | (count & 0xFFFFFFFFL);
+    }
+    
+    private static long dayOf(long packed) {
+        return packed >>> 32;
+    }
+    
+    private static int countOf(long packed) {
+        return (int) packed;
     }
     
     /**
@@ -220,9 +207,9 @@ public class ConservativeRateLimitStrategy implements IRateLimitStrategy {
         Object dailyLimitObj = config.getMetric("dailyLimit");
         int baseLimit = dailyLimitObj instanceof Number ? ((Number) dailyLimitObj).intValue() : GEMINI_DAILY_LIMIT;
 
-        AtomicInteger counter = dailyCounters.get(key);
+        AtomicLong counter = dailyCounters.get(key);
         if (counter != null) {
-            counter.set(Math.max(0, baseLimit - 5));
+            counter.set(pack(currentDay(), Math.max(0, baseLimit - 5)));
         }
         
         log.error("触发紧急限制: key={}, requestId={}", key, requestId);
@@ -1,6 +1,7 @@
 package com.ainovel.server.task.service.strategy.impl;
 
 import com.ainovel.server.config.ProviderRateLimitConfig;
+import com.ainovel.server.task.service.ratelimit.GcraRateLimiter;
 import com.ainovel.server.task.service.strategy.IRateLimitStrategy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -10,7 +11,7 @@ import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 标准限流策略
- * 基于令牌桶算法的标准限流实现
+ * 基于 GCRA 的标准限流实现（与令牌桶等价，无锁）
  * 
  * 适用场景：
  * - 付费API的一般限流需求
@@ -21,24 +22,38 @@ import java.util.concurrent.ConcurrentHashMap;
 @Component
 public class StandardRateLimitStrategy implements IRateLimitStrategy {
     
-    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, GcraRateLimiter> limiters = new ConcurrentHashMap<>();
     
     @Override
     public Mono<Boolean> tryAcquire(ProviderRateLimitConfig config, String requestId) {
+        return reserve(config, requestId, 0).map(wait -> wait == 0);
+    }
+    
+    @Override
+    public Mono<Long> reserve(ProviderRateLimitConfig config, String requestId, long maxWaitMillis) {
         String key = config.getRateLimiterKey();
-        TokenBucket bucket = buckets.computeIfAbsent(key, k -> 
-            new TokenBucket(config.getEffectiveRate(), config.getEffectiveBurstCapacity()));
+        GcraRateLimiter limiter = limiters.computeIfAbsent(key, k -> 
+            new GcraRateLimiter(config.getEffectiveRate(), config.getEffectiveBurstCapacity()));
         
-        boolean acquired = bucket.tryConsume();
+        long waitMillis = limiter.reserveMillis(maxWaitMillis);
         
-        if (acquired) {
-            log.debug("标准策略许可获取成功: key={}, requestId={}", key, requestId);
-        } else {
-            log.warn("标准策略许可获取失败: key={}, available={}, requestId={}", 
-                    key, bucket.getAvailableTokens(), requestId);
+        if (waitMillis >= 0) {
+            log.debug("标准策略许可获取成功: key={}, waitMillis={}, requestId={}", key, waitMillis, requestId);
+            return Mono.just(waitMillis);
         }
-        
-        return Mono.just(acquired);
+        log.warn("标准策略许可获取失败: key={}, available={}, requestId={}", 
+                key, limiter.getAvailablePermits(), requestId);
+        return Mono.just(-1L);
+    }
+    
+    @Override
+    public Mono<Void> cancelReservation(ProviderRateLimitConfig config, String requestId) {
+        GcraRateLimiter limiter = limiters.get(config.getRateLimiterKey());
+        if (limiter != null) {
+            limiter.cancelReservation();
+            log.debug("标准策略撤销预约: key={}, requestId={}", config.getRateLimiterKey(), requestId);
+        }
+        return Mono.empty();
     }
     
     @Override
@@ -50,8 +65,8 @@ public class StandardRateLimitStrategy implements IRateLimitStrategy {
     @Override
     public Mono<Integer> getAvailablePermits(ProviderRateLimitConfig config) {
         String key = config.getRateLimiterKey();
-        TokenBucket bucket = buckets.get(key);
-        int available = bucket != null ? bucket.getAvailableTokens() : 0;
+        GcraRateLimiter limiter = limiters.get(key);
+        int available = limiter != null ? limiter.getAvailablePermits() : 0;
         
         log.debug("标准策略可用许可: key={}, available={}", key, available);
         return Mono.just(available);
@@ -76,7 +91,7 @@ public class StandardRateLimitStrategy implements IRateLimitStrategy {
     @Override
     public Mono<Void> reset(ProviderRateLimitConfig config) {
         String key = config.getRateLimiterKey();
-        buckets.remove(key);
+        limiters.remove(key);
         log.info("标准策略重置: key={}", key);
         return Mono.empty();
     }
@@ -85,42 +100,4 @@ public class StandardRateLimitStrategy implements IRateLimitStrategy {
     public String getStrategyName() {
         return "STANDARD";
     }
-    
-    /**
-     * 令牌桶实现
-     */
-    private static class TokenBucket {
-        private final double rate;
-        private final int capacity;
-        private volatile double tokens;
-        private volatile long lastRefill;
-        
-        public TokenBucket(double rate, int capacity) {
-            this.rate = rate;
-            this.capacity = capacity;
-            this.tokens = capacity;
-            this.lastRefill = System.currentTimeMillis();
-        }
-        
-        public synchronized boolean tryConsume() {
-            refill();
-            if (tokens >= 1.0) {
-                tokens -= 1.0;
-                return true;
-            }
-            return false;
-        }
-        
-        private void refill() {
-            long now = System.currentTimeMillis();
-            double elapsed = (now - lastRefill) / 1000.0;
-            tokens = Math.min(capacity, tokens + elapsed * rate);
-            lastRefill = now;
-        }
-        
-        public int getAvailableTokens() {
-            refill();
-            return (int) tokens;
-        }
-    }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,512 @@
+package com.ainovel.server.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 容错的流式JSON解析器
+ * 专门用于解析AI生成的JSON：输出可能夹带说明文字或代码块标记、被截断、缺逗号或多逗号。
+ *
+ * 单遍状态机，按字符逐个处理，可以分片喂入：
+ * <ul>
+ *   <li>定位第一个数组或对象，之前的说明文字、```json 标记等忽略；方括号内出现未加引号的普通单词
+ *   （如 "[see below]"）或没有对象、数组元素（如 "[设定]"、"[1]"）时视为说明文字，继续寻找；</li>
+ *   <li>根为数组时，每个元素闭合即产出；根为对象时，对象本身作为一个元素，之后可继续出现下一个对象；
+ *   空对象（如说明文字中的 "{注意}"）不产出；</li>
+ *   <li>字符串中的换行等控制字符转义，多余逗号删除，缺失的逗号补上，True/False/None 归一为 JSON 字面量；</li>
+ *   <li>输入结束时，未完成的元素回退到最后一个完整的值并自动补齐括号，截断的字符串值直接闭合保留。</li>
+ * </ul>
+ * 产出的每个元素都是紧凑的 JSON 文本；个别元素仍无法解析时由调用方跳过该元素即可，不影响其余元素。
+ *
+ * 非线程安全，每个输入流使用一个实例。
+ */
+public final class StreamingJsonParser {
+
+    /** 对象内：期待键或 '}' */
+    private static final byte OBJ_KEY = 0;
+    /** 对象内：键之后，期待 ':' */
+    private static final byte OBJ_COLON = 1;
+    /** 对象内：':' 之后，期待值 */
+    private static final byte OBJ_VALUE = 2;
+    /** 对象内：值之后，期待 ',' 或 '}' */
+    private static final byte OBJ_NEXT = 3;
+    /** 数组内：期待值或 ']' */
+    private static final byte ARR_VALUE = 4;
+    /** 数组内：值之后，期待 ',' 或 ']' */
+    private static final byte ARR_NEXT = 5;
+
+    /** 当前元素的输出 */
+    private final StringBuilder out = new StringBuilder(256);
+    /** 未加引号的字面量（数字、true/false/null） */
+    private final StringBuilder literal = new StringBuilder(16);
+    private final List<String> emitted = new ArrayList<>();
+
+    /** 当前元素内的容器栈（不含根数组） */
+    private byte[] stack = new byte[16];
+    private int depth;
+
+    private boolean rootArray;
+    private boolean inElement;
+    private boolean inString;
+    private boolean stringIsKey;
+    private boolean escaped;
+    private boolean done;
+    private int elementCount;
+    /** 当前根数组已产出的对象或数组元素数 */
+    private int rootContainers;
+
+    /** 最后一个完整值之后的输出长度与容器深度，截断时回退到这里 */
+    private int safeLen;
+    private int safeDepth;
+
+    /**
+     * 消费一段文本，返回本次完成的元素
+     */
+    public List<String> feed(CharSequence chunk) {
+        if (chunk == null || done) {
+            return Collections.emptyList();
+        }
+        for (int i = 0; i < chunk.length() && !done; i++) {
+            accept(chunk.charAt(i));
+        }
+        return drainEmitted();
+    }
+
+    /**
+     * 输入结束：补齐未完成的元素并返回
+     */
+    public List<String> finish() {
+        if (!done && inElement) {
+            if (literal.length() > 0) {
+                finishLiteral();
+            }
+            if (inString) {
+                if (stringIsKey) {
+                    inString = false;
+                    rollbackToSafePoint();
+                } else {
+                    inString = false;
+                    if (escaped) {
+                        // 去掉悬空的转义符
+                        out.setLength(out.length() - 1);
+                        escaped = false;
+                    }
+                    out.append('"');
+                    valueCompleted();
+                }
+            }
+            if (inElement) {
+                byte state = stack[depth - 1];
+                if (state == OBJ_COLON || state == OBJ_VALUE) {
+                    rollbackToSafePoint();
+                }
+                stripTrailingComma();
+                while (depth > 0) {
+                    out.append(stack[--depth] >= ARR_VALUE ? ']' : '}');
+                }
+                emit();
+            }
+        }
+        done = true;
+        return drainEmitted();
+    }
+
+    /**
+     * 已产出的元素数
+     */
+    public int elementCount() {
+        return elementCount;
+    }
+
+    /**
+     * 解析完整文本，返回其中所有元素
+     */
+    public static List<String> parseElements(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        StreamingJsonParser parser = new StreamingJsonParser();
+        List<String> elements = new ArrayList<>(parser.feed(text));
+        elements.addAll(parser.finish());
+        return elements;
+    }
+
+    /**
+     * 解析完整文本并组装为 JSON 数组文本；没有任何元素时返回 null
+     */
+    public static String toJsonArray(String text) {
+        List<String> elements = parseElements(text);
+        return elements.isEmpty() ? null : joinArray(elements);
+    }
+
+    /**
+     * 流式解析：文本分片流 → 元素流，每个元素闭合即下发，流结束时补齐最后一个元素
+     */
+    public static Flux<String> elements(Flux<String> chunks) {
+        return Flux.defer(() -> {
+            StreamingJsonParser parser = new StreamingJsonParser();
+            return chunks.concatMapIterable(parser::feed)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(parser.finish())));
+        });
+    }
+
+    /**
+     * 流式解析并组装为 JSON 数组文本：元素随文本到达逐个解析，流结束时拼接；
+     * 没有任何元素时返回原始文本，交给调用方的续写或兜底流程
+     */
+    public static Mono<String> collectJsonArray(Flux<String> chunks) {
+        return Mono.defer(() -> {
+            StringBuilder raw = new StringBuilder();
+            return elements(chunks.doOnNext(raw::append))
+                    .collectList()
+                    .map(elements -> elements.isEmpty() ? raw.toString() : joinArray(elements));
+        });
+    }
+
+    private static String joinArray(List<String> elements) {
+        int length = 2 + elements.size();
+        for (String element : elements) {
+            length += element.length();
+        }
+        StringBuilder array = new StringBuilder(length).append('[');
+        for (int i = 0; i < elements.size(); i++) {
+            if (i > 0) {
+                array.append(',');
+            }
+            array.append(elements.get(i));
+        }
+        return array.append(']').toString();
+    }
+
+    private void accept(char c) {
+        if (inString) {
+            acceptStringChar(c);
+            return;
+        }
+        if (literal.length() > 0) {
+            if (isLiteralChar(c)) {
+                literal.append(c);
+                return;
+            }
+            finishLiteral();
+        }
+        if (!inElement) {
+            acceptOutsideElement(c);
+            return;
+        }
+        switch (stack[depth - 1]) {
+            case OBJ_KEY -> {
+                if (c == '"') {
+                    startString(true);
+                } else if (c == '}' || c == ']') {
+                    closeContainer();
+                }
+            }
+            case OBJ_COLON -> {
+                if (c == ':') {
+                    out.append(':');
+                    stack[depth - 1] = OBJ_VALUE;
+                } else if (c == '}' || c == ']' || c == ',') {
+                    // 只有键没有值
+                    out.append(":null");
+                    stack[depth - 1] = OBJ_NEXT;
+                    accept(c);
+                }
+            }
+            case OBJ_VALUE -> {
+                if (c == '}' || c == ']' || c == ',') {
+                    out.append("null");
+                    stack[depth - 1] = OBJ_NEXT;
+                    accept(c);
+                } else {
+                    startValue(c);
+                }
+            }
+            case OBJ_NEXT -> {
+                if (c == ',') {
+                    out.append(',');
+                    stack[depth - 1] = OBJ_KEY;
+                } else if (c == '}' || c == ']') {
+                    closeContainer();
+                } else if (c == '"') {
+                    // 缺少逗号
+                    out.append(',');
+                    stack[depth - 1] = OBJ_KEY;
+                    startString(true);
+                }
+            }
+            case ARR_VALUE -> {
+                if (c == '}' || c == ']') {
+                    closeContainer();
+                } else if (c != ',') {
+                    startValue(c);
+                }
+            }
+            case ARR_NEXT -> {
+                if (c == ',') {
+                    out.append(',');
+                    stack[depth - 1] = ARR_VALUE;
+                } else if (c == '}' || c == ']') {
+                    closeContainer();
+                } else if (isValueStart(c)) {
+                    // 缺少逗号
+                    out.append(',');
+                    stack[depth - 1] = ARR_VALUE;
+                    startValue(c);
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * 元素之外：寻找根数组或对象，根数组内寻找下一个元素
+     */
+    private void acceptOutsideElement(char c) {
+        if (!rootArray) {
+            if (c == '[') {
+                rootArray = true;
+                rootContainers = 0;
+            } else if (c == '{') {
+                startElement();
+                openContainer(OBJ_KEY, '{');
+            }
+            return;
+        }
+        if (c == ']') {
+            // 说明文字中的方括号（如 "[设定]"、脚注 "[1]"）不算根数组，继续寻找
+            rootArray = false;
+            done = rootContainers > 0;
+        } else if (isValueStart(c)) {
+            startElement();
+            startValue(c);
+        }
+    }
+
+    private void acceptStringChar(char c) {
+        if (escaped) {
+            escaped = false;
+            if ("\"\\/bfnrtu".indexOf(c) < 0) {
+                // 非法转义按字面反斜杠处理
+                out.append('\\');
+            }
+            out.append(c);
+        } else if (c == '\\') {
+            escaped = true;
+            out.append(c);
+        } else if (c == '"') {
+            out.append(c);
+            inString = false;
+            if (stringIsKey) {
+                stack[depth - 1] = OBJ_COLON;
+            } else {
+                valueCompleted();
+            }
+        } else if (c < 0x20) {
+            switch (c) {
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> out.append(String.format("\\u%04x", (int) c));
+            }
+        } else {
+            out.append(c);
+        }
+    }
+
+    private void startValue(char c) {
+        if (c == '{') {
+            openContainer(OBJ_KEY, '{');
+        } else if (c == '[') {
+            openContainer(ARR_VALUE, '[');
+        } else if (c == '"') {
+            startString(false);
+        } else if (isLiteralChar(c)) {
+            literal.append(c);
+        }
+    }
+
+    private void startString(boolean key) {
+        out.append('"');
+        inString = true;
+        stringIsKey = key;
+    }
+
+    private void openContainer(byte state, char open) {
+        if (depth == stack.length) {
+            byte[] grown = new byte[depth * 2];
+            System.arraycopy(stack, 0, grown, 0, depth);
+            stack = grown;
+        }
+        stack[depth++] = state;
+        out.append(open);
+        markSafePoint();
+    }
+
+    /**
+     * 闭合栈顶容器；括号类型写错（如 {"a":1] ）时按栈顶容器的类型闭合
+     */
+    private void closeContainer() {
+        stripTrailingComma();
+        out.append(stack[--depth] >= ARR_VALUE ? ']' : '}');
+        valueCompleted();
+    }
+
+    private void finishLiteral() {
+        String token = literal.toString();
+        literal.setLength(0);
+        if (depth == 0 && !isKnownLiteral(token)) {
+            // 根数组中出现未加引号的普通单词（如 "[see below]"），方括号属于说明文字
+            resetElement();
+            rootArray = false;
+            return;
+        }
+        out.append(normalizeLiteral(token));
+        valueCompleted();
+    }
+
+    private void valueCompleted() {
+        if (depth == 0) {
+            emit();
+            return;
+        }
+        byte state = stack[depth - 1];
+        if (state == OBJ_VALUE) {
+            stack[depth - 1] = OBJ_NEXT;
+        } else if (state == ARR_VALUE) {
+            stack[depth - 1] = ARR_NEXT;
+        }
+        markSafePoint();
+    }
+
+    private void markSafePoint() {
+        safeLen = out.length();
+        safeDepth = depth;
+    }
+
+    private void rollbackToSafePoint() {
+        out.setLength(safeLen);
+        depth = safeDepth;
+        byte state = stack[depth - 1];
+        if (state == OBJ_COLON || state == OBJ_VALUE) {
+            stack[depth - 1] = OBJ_KEY;
+        }
+    }
+
+    private void stripTrailingComma() {
+        int last = out.length() - 1;
+        if (last >= 0 && out.charAt(last) == ',') {
+            out.setLength(last);
+        }
+    }
+
+    private void startElement() {
+        inElement = true;
+        safeLen = 0;
+        safeDepth = 0;
+    }
+
+    private void emit() {
+        boolean container = out.length() > 0 && (out.charAt(0) == '{' || out.charAt(0) == '[');
+        // 空容器没有内容（说明文字中的 "{注意}"、截断后只剩括号），丢弃
+        if (out.length() > (container ? 2 : 0)) {
+            if (rootArray && container) {
+                rootContainers++;
+            }
+            emitted.add(out.toString());
+            elementCount++;
+        }
+        resetElement();
+    }
+
+    private void resetElement() {
+        out.setLength(0);
+        depth = 0;
+        inElement = false;
+    }
+
+    private List<String> drainEmitted() {
+        if (emitted.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>(emitted);
+        emitted.clear();
+        return result;
+    }
+
+    private static boolean isValueStart(char c) {
+        return c == '{' || c == '[' || c == '"' || isLiteralChar(c);
+    }
+
+    private static boolean isLiteralChar(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+                || c == '-' || c == '+' || c == '.';
+    }
+
+    private static boolean isKnownLiteral(String token) {
+        if (isJsonNumber(token)) {
+            return true;
+        }
+        return switch (token.toLowerCase()) {
+            case "true", "false", "null", "none" -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * 字面量归一：合法数字原样保留，布尔与空值兼容大小写及 Python 写法，其余视为 null
+     */
+    private static String normalizeLiteral(String token) {
+        if (isJsonNumber(token)) {
+            return token;
+        }
+        return switch (token.toLowerCase()) {
+            case "true" -> "true";
+            case "false" -> "false";
+            default -> "null";
+        };
+    }
+
+    private static boolean isJsonNumber(String s) {
+        int i = 0;
+        int n = s.length();
+        if (i < n && s.charAt(i) == '-') {
+            i++;
+        }
+        int digits = i;
+        while (i < n && Character.isDigit(s.charAt(i))) {
+            i++;
+        }
+        if (i == digits) {
+            return false;
+        }
+        if (i < n && s.charAt(i) == '.') {
+            int fraction = ++i;
+            while (i < n && Character.isDigit(s.charAt(i))) {
+                i++;
+            }
+            if (i == fraction) {
+                return false;
+            }
+        }
+        if (i < n && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            i++;
+            if (i < n && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+                i++;
+            }
+            int exponent = i;
+            while (i < n && Character.isDigit(s.charAt(i))) {
+                i++;
+            }
+            if (i == exponent) {
+                return false;
+            }
+        }
+        return i == n;
+    }
+}
@@ -3,6 +3,8 @@ package com.ainovel.server.web.controller;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -11,7 +13,9 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.ainovel.server.domain.model.AIChatMessage;
 import com.ainovel.server.domain.model.AIChatSession;
+import com.ainovel.server.security.CurrentUser;
 import com.ainovel.server.service.AIChatService;
+import com.ainovel.server.service.stream.ResumableStreamRegistry;
 import com.ainovel.server.web.base.ReactiveBaseController;
 import com.ainovel.server.web.dto.ChatMemoryConfigDto;
 import com.ainovel.server.web.dto.IdDto;
@@ -49,6 +53,7 @@ public class AIChatController extends ReactiveBaseController {
     private final UniversalAIService universalAIService;
     private final ObjectMapper objectMapper;
     private final com.ainovel.server.service.UsageQuotaService usageQuotaService;
+    private final ResumableStreamRegistry streamRegistry;
 
     /**
      * 创建聊天会话
@@ -225,7 +230,9 @@ public class AIChatController extends ReactiveBaseController {
      * @return 流式AI响应消息 (SSE)
      */
     @PostMapping(value = "/messages/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public Flux<ServerSentEvent<AIChatMessage>> streamMessage(@RequestBody SessionMessageDto sessionMessageDto) {
+    public Flux<ServerSentEvent<AIChatMessage>> streamMessage(@RequestBody SessionMessageDto sessionMessageDto,
+                                                             @AuthenticationPrincipal CurrentUser currentUser,
+                                                             ServerHttpResponse serverResponse) {
         log.info("流式发送消息请求: userId={}, novelId={}, sessionId={}", 
                 sessionMessageDto.getUserId(), sessionMessageDto.getNovelId(), sessionMessageDto.getSessionId());
         
@@ -255,28 +262,12 @@ public class AIChatController extends ReactiveBaseController {
         }
         
         // 🚀 包装为标准SSE格式，参考NextOutlineController的实现
-        Flux<ServerSentEvent<AIChatMessage>> eventFlux = share
+        Flux<ServerSentEvent<AIChatMessage>> events = share
                 .map(message -> ServerSentEvent.<AIChatMessage>builder()
-                        .id(message.getId() != null ? message.getId() : UUID.randomUUID().toString())
                         .event("chat-message") // 统一事件名称
                         .data(message)
                         .retry(Duration.ofSeconds(10))
-                        .build());
-
-        // 🚀 追加SSE心跳，使用自定义事件名，前端默认按 chat-message 过滤，故心跳将被忽略
-        Flux<ServerSentEvent<AIChatMessage>> heartbeatStream = Flux.interval(Duration.ofSeconds(15))
-                .map(i -> ServerSentEvent.<AIChatMessage>builder()
-                        .id("heartbeat-" + i)
-                        .event("heartbeat")
-                        .comment("keepalive")
                         .build())
-                // 当主流完成时自动停止心跳
-                .takeUntilOther(eventFlux.ignoreElements());
-
-        return Flux.merge(eventFlux, heartbeatStream)
-                .doOnSubscribe(subscription -> log.info("SSE 连接建立 for chat stream, sessionId: {}", sessionMessageDto.getSessionId()))
-                .doOnCancel(() -> log.info("SSE 连接关闭 for chat stream, sessionId: {}", sessionMessageDto.getSessionId()))
-                .doOnError(error -> log.error("SSE 流错误 for chat stream, sessionId: {}: {}", sessionMessageDto.getSessionId(), error.getMessage(), error))
                 .onErrorResume(error -> {
                     log.error("聊天流式请求发生错误，发送错误事件: sessionId={}, error={} ", sessionMessageDto.getSessionId(), error.getMessage());
 
@@ -290,11 +281,30 @@ public class AIChatController extends ReactiveBaseController {
                             .build();
 
                     return Flux.just(ServerSentEvent.<AIChatMessage>builder()
-                            .id(UUID.randomUUID().toString())
                             .event("chat-error")
                             .data(errorMessage)
                             .build());
                 });
+
+        // 客户端断开后生成继续进行，可凭流ID重连；重复订阅共享同一次生成
+        String streamId = ResumableStreamRegistry.newStreamId();
+        serverResponse.getHeaders().set(ResumableStreamRegistry.STREAM_ID_HEADER, streamId);
+        Flux<ServerSentEvent<AIChatMessage>> eventFlux = streamRegistry.register(streamId, currentUser != null ? currentUser.getId() : null, events);
+
+        // 🚀 追加SSE心跳，使用自定义事件名，前端默认按 chat-message 过滤，故心跳将被忽略
+        Flux<ServerSentEvent<AIChatMessage>> heartbeatStream = Flux.interval(Duration.ofSeconds(15))
+                .map(i -> ServerSentEvent.<AIChatMessage>builder()
+                        .id("heartbeat-" + i)
+                        .event("heartbeat")
+                        .comment("keepalive")
+                        .build())
+                // 当主流完成时自动停止心跳
+                .takeUntilOther(eventFlux.ignoreElements());
+
+        return Flux.merge(eventFlux, heartbeatStream)
+                .doOnSubscribe(subscription -> log.info("SSE 连接建立 for chat stream, sessionId: {}, streamId: {}", sessionMessageDto.getSessionId(), streamId))
+                .doOnCancel(() -> log.info("SSE 连接关闭 for chat stream, sessionId: {}", sessionMessageDto.getSessionId()))
+                .doOnError(error -> log.error("SSE 流错误 for chat stream, sessionId: {}: {}", sessionMessageDto.getSessionId(), error.getMessage(), error));
     }
 
     /**
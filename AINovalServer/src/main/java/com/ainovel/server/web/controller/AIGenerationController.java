@@ -82,6 +82,10 @@ public class AIGenerationController extends ReactiveBaseController {
         if (request == null) {
             request = new SummarizeSceneRequest();
         }
+        // 编辑器中主动点击生成即为重新生成，不复用缓存的摘要
+        if (request.getRegenerate() == null) {
+            request.setRegenerate(true);
+        }
 
         // 使用快速响应策略，不等待完整生成就返回
         // 生成一个唯一的任务ID
@@ -166,6 +170,10 @@ public class AIGenerationController extends ReactiveBaseController {
 
         // 如果请求为null，创建一个空请求
         final SummarizeSceneRequest request = requestBody != null ? requestBody : new SummarizeSceneRequest();
+        // 编辑器中主动点击生成即为重新生成，不复用缓存的摘要
+        if (request.getRegenerate() == null) {
+            request.setRegenerate(true);
+        }
         final long startTime = System.currentTimeMillis();
         final AtomicBoolean hasReceivedContent = new AtomicBoolean(false);
         final AtomicBoolean isStreamCompleted = new AtomicBoolean(false);
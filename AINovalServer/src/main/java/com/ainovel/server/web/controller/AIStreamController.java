@@ -0,0 +1,85 @@
+package com.ainovel.server.web.controller;
+
+import java.time.Duration;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ainovel.server.security.CurrentUser;
+import com.ainovel.server.service.stream.ResumableStreamRegistry;
+import com.ainovel.server.web.base.ReactiveBaseController;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * AI 流控制器
+ * 客户端在生成过程中断开后，凭流ID和最后收到的事件ID重新连接，补收错过的事件并继续接收后续事件；
+ * 用户主动停止生成时凭流ID停止上游调用
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/ai/streams")
+@RequiredArgsConstructor
+public class AIStreamController extends ReactiveBaseController {
+
+    private final ResumableStreamRegistry streamRegistry;
+
+    /**
+     * 重新连接到 AI 流
+     *
+     * @param streamId 流ID（响应头 X-AI-Stream-Id，或事件ID中冒号前的部分）
+     * @param lastEventIdHeader 标准 Last-Event-ID 请求头
+     * @param lastEventIdParam 无法设置请求头的客户端可改用查询参数
+     * @return 错过的事件和后续实时事件
+     */
+    @GetMapping(value = "/{streamId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> resume(
+            @PathVariable String streamId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam,
+            @AuthenticationPrincipal CurrentUser currentUser) {
+        String lastEventId = lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam;
+        // 事件流与心跳的结束信号共用一次订阅，两者都订阅后才连接上游，全部取消时断开
+        Flux<ServerSentEvent<Object>> events = streamRegistry.resume(streamId,
+                currentUser != null ? currentUser.getId() : null, lastEventId)
+                .publish()
+                .refCount(2);
+
+        // 心跳保持连接，主流结束时停止
+        Flux<ServerSentEvent<Object>> heartbeatStream = Flux.interval(Duration.ofSeconds(15))
+                .map(i -> ServerSentEvent.<Object>builder()
+                        .id("heartbeat-" + i)
+                        .event("heartbeat")
+                        .comment("keepalive")
+                        .build())
+                .takeUntilOther(events.ignoreElements());
+
+        return Flux.merge(events, heartbeatStream)
+                .doOnCancel(() -> log.info("AI流重连连接关闭: streamId={}", streamId));
+    }
+
+    /**
+     * 停止 AI 流的生成（如聊天中的“停止”），只有流的所有者可以停止
+     *
+     * @param streamId 流ID
+     */
+    @DeleteMapping("/{streamId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> cancel(@PathVariable String streamId,
+                             @AuthenticationPrincipal CurrentUser currentUser) {
+        return streamRegistry.cancel(streamId, currentUser != null ? currentUser.getId() : null);
+    }
+}
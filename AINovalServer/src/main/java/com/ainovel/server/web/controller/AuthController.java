@@ -644,15 +644,22 @@ public class AuthController {
     
     /**
      * 修改密码
+     * 修改后用户的 tokenVersion 递增，旧令牌全部失效，因此按新版本重新签发令牌返回给当前客户端
      * @param request 修改密码请求
-     * @return 操作结果
+     * @return 认证响应
      */
     @PostMapping("/change-password")
-    public Mono<ResponseEntity<Void>> changePassword(@RequestBody ChangePasswordRequest request) {
+    public Mono<ResponseEntity<Object>> changePassword(@RequestBody ChangePasswordRequest request) {
         return userService.findUserByUsername(request.getUsername())
                 .filter(user -> passwordEncoder.matches(request.getCurrentPassword(), user.getPassword()))
                 .flatMap(user -> userService.updateUserPassword(user.getId(), passwordEncoder.encode(request.getNewPassword())))
-                .map(updatedUser -> ResponseEntity.ok().<Void>build())
+                .map(updatedUser -> ResponseEntity.ok((Object) new AuthResponse(
+                        jwtService.generateToken(updatedUser),
+                        jwtService.generateRefreshToken(updatedUser),
+                        updatedUser.getId(),
+                        updatedUser.getUsername(),
+                        updatedUser.getDisplayName()
+                )))
                 .defaultIfEmpty(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
     }
     
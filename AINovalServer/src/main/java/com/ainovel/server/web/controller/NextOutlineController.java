@@ -2,7 +2,10 @@ package com.ainovel.server.web.controller;
 
 import com.ainovel.server.domain.model.AIFeatureType;
 import com.ainovel.server.domain.model.AIRequest;
+import com.ainovel.server.security.CurrentUser;
 import com.ainovel.server.service.NextOutlineService;
+import com.ainovel.server.service.stream.ResumableStreamRegistry;
+import com.ainovel.server.service.stream.StreamCoalescer;
 import com.ainovel.server.task.dto.storyprediction.StoryPredictionParameters;
 import com.ainovel.server.task.dto.storyprediction.StoryPredictionResult;
 import com.ainovel.server.task.model.BackgroundTask;
@@ -16,6 +19,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
@@ -30,6 +35,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 
 /**
@@ -44,6 +50,7 @@ public class NextOutlineController {
     private final NextOutlineService nextOutlineService;
     private final TaskSubmissionService taskSubmissionService;
     private final TaskStateService taskStateService;
+    private final ResumableStreamRegistry streamRegistry;
     
     private static final String SSE_EVENT_NAME = "outline-chunk";
 
@@ -82,18 +89,24 @@ public class NextOutlineController {
     @PostMapping(value = "/generate-stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public Flux<ServerSentEvent<OutlineGenerationChunk>> generateNextOutlinesStream(
             @PathVariable String novelId,
-            @Valid @RequestBody NextOutlineDTO.GenerateRequest request) {
+            @Valid @RequestBody NextOutlineDTO.GenerateRequest request,
+            @AuthenticationPrincipal CurrentUser currentUser,
+            ServerHttpResponse serverResponse) {
 
         log.info("请求流式生成剧情大纲: novelId={}, startChapter={}, endChapter={}, numOptions={}",
                 novelId, request.getStartChapterId(), request.getEndChapterId(), request.getNumOptions());
 
-        return nextOutlineService.generateNextOutlinesStream(novelId, request)
+        String streamId = ResumableStreamRegistry.newStreamId();
+        serverResponse.getHeaders().set(ResumableStreamRegistry.STREAM_ID_HEADER, streamId);
+
+        Flux<ServerSentEvent<OutlineGenerationChunk>> events = coalesceChunks(nextOutlineService.generateNextOutlinesStream(novelId, request))
                 .map(chunk -> ServerSentEvent.<OutlineGenerationChunk>builder()
-                        .id(chunk.getOptionId() + "-" + UUID.randomUUID().toString())
                         .event(SSE_EVENT_NAME)
                         .data(chunk)
                         .retry(Duration.ofSeconds(10))
-                        .build())
+                        .build());
+
+        return streamRegistry.register(streamId, currentUser != null ? currentUser.getId() : null, events)
                 .doOnSubscribe(subscription -> log.info("SSE 连接建立 for generate-stream, novelId: {}", novelId))
                 .doOnCancel(() -> log.info("SSE 连接关闭 for generate-stream, novelId: {}", novelId))
                 .doOnError(error -> log.error("SSE 流错误 for generate-stream, novelId: {}: {}", novelId, error.getMessage(), error));
@@ -109,23 +122,54 @@ public class NextOutlineController {
     @PostMapping(value = "/regenerate-option", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public Flux<ServerSentEvent<OutlineGenerationChunk>> regenerateOutlineOption(
             @PathVariable String novelId,
-            @Valid @RequestBody NextOutlineDTO.RegenerateOptionRequest request) {
+            @Valid @RequestBody NextOutlineDTO.RegenerateOptionRequest request,
+            @AuthenticationPrincipal CurrentUser currentUser,
+            ServerHttpResponse serverResponse) {
 
         log.info("请求流式重新生成单个剧情大纲: novelId={}, optionId={}, configId={}",
                 novelId, request.getOptionId(), request.getSelectedConfigId());
 
-        return nextOutlineService.regenerateOutlineOption(novelId, request)
+        String streamId = ResumableStreamRegistry.newStreamId();
+        serverResponse.getHeaders().set(ResumableStreamRegistry.STREAM_ID_HEADER, streamId);
+
+        Flux<ServerSentEvent<OutlineGenerationChunk>> events = coalesceChunks(nextOutlineService.regenerateOutlineOption(novelId, request))
                 .map(chunk -> ServerSentEvent.<OutlineGenerationChunk>builder()
-                        .id(chunk.getOptionId() + "-" + UUID.randomUUID().toString())
                         .event(SSE_EVENT_NAME)
                         .data(chunk)
                         .retry(Duration.ofSeconds(10))
-                        .build())
-                 .doOnSubscribe(subscription -> log.info("SSE 连接建立 for regenerate-option, novelId: {}, optionId: {}", novelId, request.getOptionId()))
+                        .build());
+
+        return streamRegistry.register(streamId, currentUser != null ? currentUser.getId() : null, events)
+                .doOnSubscribe(subscription -> log.info("SSE 连接建立 for regenerate-option, novelId: {}, optionId: {}", novelId, request.getOptionId()))
                 .doOnCancel(() -> log.info("SSE 连接关闭 for regenerate-option, novelId: {}, optionId: {}", novelId, request.getOptionId()))
                 .doOnError(error -> log.error("SSE 流错误 for regenerate-option, novelId: {}, optionId: {}: {}", novelId, request.getOptionId(), error.getMessage(), error));
     }
 
+    /**
+     * 合并同一选项的相邻文本块后再下发；结束块和错误块保持独立
+     */
+    private static Flux<OutlineGenerationChunk> coalesceChunks(Flux<OutlineGenerationChunk> chunks) {
+        return StreamCoalescer.coalesce(chunks, StreamCoalescer.DEFAULT_WINDOW, StreamCoalescer.DEFAULT_MAX_CHARS,
+                chunk -> chunk.isFinalChunk() || chunk.getError() != null,
+                (pending, next) -> Objects.equals(pending.getOptionId(), next.getOptionId()),
+                NextOutlineController::mergeChunks,
+                chunk -> chunk.getTextChunk() != null ? chunk.getTextChunk().length() : 0);
+    }
+
+    private static OutlineGenerationChunk mergeChunks(List<OutlineGenerationChunk> batch) {
+        StringBuilder text = new StringBuilder();
+        String optionTitle = null;
+        for (OutlineGenerationChunk chunk : batch) {
+            if (chunk.getTextChunk() != null) {
+                text.append(chunk.getTextChunk());
+            }
+            if (chunk.getOptionTitle() != null) {
+                optionTitle = chunk.getOptionTitle();
+            }
+        }
+        return new OutlineGenerationChunk(batch.get(0).getOptionId(), optionTitle, text.toString(), false, null);
+    }
+
     /**
      * 保存选中的剧情大纲
      *
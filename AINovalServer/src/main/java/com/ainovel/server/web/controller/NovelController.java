@@ -1,15 +1,25 @@
 package com.ainovel.server.web.controller;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -24,18 +34,23 @@ import com.ainovel.server.domain.model.Novel;
 import com.ainovel.server.domain.model.Scene;
 import com.ainovel.server.domain.model.Scene.HistoryEntry;
 import com.ainovel.server.service.ImportService;
+import com.ainovel.server.service.NovelFullTextSearchService;
 import com.ainovel.server.service.NovelService;
 import com.ainovel.server.service.SceneService;
+import com.ainovel.server.service.search.SearchDocumentType;
 import com.ainovel.server.web.base.ReactiveBaseController;
 import com.ainovel.server.web.dto.AuthorIdDto;
 import com.ainovel.server.web.dto.ChapterSceneDto;
 import com.ainovel.server.web.dto.ChapterScenesDto;
+import com.ainovel.server.web.dto.EditorNovelWithScenesDto;
+import com.ainovel.server.web.dto.EditorSceneDto;
 import com.ainovel.server.web.dto.IdDto;
 import com.ainovel.server.web.dto.ImportStatus;
 import com.ainovel.server.web.dto.JobIdResponse;
 import com.ainovel.server.web.dto.LoadMoreScenesRequestDto;
 import com.ainovel.server.web.dto.NovelChapterDto;
 import com.ainovel.server.web.dto.NovelChapterSceneDto;
+import com.ainovel.server.web.dto.NovelTextSearchRequestDto;
 import com.ainovel.server.web.dto.NovelWithScenesDto;
 import com.ainovel.server.web.dto.NovelWithSummariesDto;
 import com.ainovel.server.web.dto.PaginatedScenesRequestDto;
@@ -49,6 +64,10 @@ import com.ainovel.server.web.dto.ChaptersForPreloadDto;
 import com.ainovel.server.web.dto.ImportPreviewRequest;
 import com.ainovel.server.web.dto.ImportPreviewResponse;
 import com.ainovel.server.web.dto.ImportConfirmRequest;
+import com.ainovel.server.web.dto.response.NovelTextSearchResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -70,6 +89,13 @@ public class NovelController extends ReactiveBaseController {
     private final SceneService sceneService;
     private final ImportService importService;
     private final com.ainovel.server.service.UsageQuotaService usageQuotaService;
+    private final NovelFullTextSearchService fullTextSearchService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 编辑器数据只允许客户端私有缓存，且每次使用前都需要重新验证
+     */
+    private static final CacheControl EDITOR_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
 
     /**
      * 创建小说
@@ -113,8 +139,10 @@ public class NovelController extends ReactiveBaseController {
      * @return 小说及其所有场景数据
      */
     @PostMapping("/get-with-scenes")
-    public Mono<NovelWithScenesDto> getNovelWithScenes(@RequestBody IdDto idDto) {
-        return novelService.getNovelWithAllScenes(idDto.getId());
+    public Mono<ResponseEntity<EditorNovelWithScenesDto>> getNovelWithScenes(@RequestBody IdDto idDto,
+                                                                             ServerHttpRequest request) {
+        return withContentEtag(request, idDto.getId(),
+                () -> novelService.getNovelWithAllScenes(idDto.getId()).map(EditorNovelWithScenesDto::from));
     }
 
     /**
@@ -135,7 +163,8 @@ public class NovelController extends ReactiveBaseController {
      * @return 小说及其分页加载的场景数据
      */
     @PostMapping("/get-with-paginated-scenes")
-    public Mono<NovelWithScenesDto> getNovelWithPaginatedScenes(@RequestBody PaginatedScenesRequestDto paginatedScenesRequestDto) {
+    public Mono<ResponseEntity<EditorNovelWithScenesDto>> getNovelWithPaginatedScenes(@RequestBody PaginatedScenesRequestDto paginatedScenesRequestDto,
+                                                                                      ServerHttpRequest request) {
         String novelId = paginatedScenesRequestDto.getNovelId();
         String lastEditedChapterId = paginatedScenesRequestDto.getLastEditedChapterId();
         int chaptersLimit = paginatedScenesRequestDto.getChaptersLimit();
@@ -143,7 +172,9 @@ public class NovelController extends ReactiveBaseController {
         log.info("获取小说分页场景数据: novelId={}, lastEditedChapterId={}, chaptersLimit={}",
                 novelId, lastEditedChapterId, chaptersLimit);
 
-        return novelService.getNovelWithPaginatedScenes(novelId, lastEditedChapterId, chaptersLimit);
+        return withContentEtag(request, novelId,
+                () -> novelService.getNovelWithPaginatedScenes(novelId, lastEditedChapterId, chaptersLimit)
+                        .map(EditorNovelWithScenesDto::from));
     }
 
     /**
@@ -153,7 +184,8 @@ public class NovelController extends ReactiveBaseController {
      * @return 小说及其后续章节的场景数据
      */
     @PostMapping("/get-chapters-after")
-    public Mono<NovelWithScenesDto> getChaptersAfter(@RequestBody ChaptersAfterRequestDto chaptersAfterRequestDto) {
+    public Mono<ResponseEntity<EditorNovelWithScenesDto>> getChaptersAfter(@RequestBody ChaptersAfterRequestDto chaptersAfterRequestDto,
+                                                                           ServerHttpRequest request) {
         String novelId = chaptersAfterRequestDto.getNovelId();
         String currentChapterId = chaptersAfterRequestDto.getCurrentChapterId();
         int chaptersLimit = chaptersAfterRequestDto.getChaptersLimit();
@@ -162,7 +194,9 @@ public class NovelController extends ReactiveBaseController {
         log.info("获取当前章节后面的章节: novelId={}, currentChapterId={}, chaptersLimit={}, includeCurrentChapter={}",
                 novelId, currentChapterId, chaptersLimit, includeCurrentChapter);
 
-        return novelService.getChaptersAfter(novelId, currentChapterId, chaptersLimit, includeCurrentChapter);
+        return withContentEtag(request, novelId,
+                () -> novelService.getChaptersAfter(novelId, currentChapterId, chaptersLimit, includeCurrentChapter)
+                        .map(EditorNovelWithScenesDto::from));
     }
 
     /**
@@ -195,7 +229,8 @@ public class NovelController extends ReactiveBaseController {
      * @return 加载的更多场景数据，按章节组织
      */
     @PostMapping("/load-more-scenes")
-    public Mono<Map<String, List<Scene>>> loadMoreScenes(@RequestBody LoadMoreScenesRequestDto loadMoreScenesRequestDto) {
+    public Mono<ResponseEntity<Map<String, List<EditorSceneDto>>>> loadMoreScenes(@RequestBody LoadMoreScenesRequestDto loadMoreScenesRequestDto,
+                                                                                 ServerHttpRequest request) {
         String novelId = loadMoreScenesRequestDto.getNovelId();
         String actId = loadMoreScenesRequestDto.getActId();
         String fromChapterId = loadMoreScenesRequestDto.getFromChapterId();
@@ -205,7 +240,58 @@ public class NovelController extends ReactiveBaseController {
         log.info("加载更多场景: novelId={}, actId={}, fromChapterId={}, direction={}, chaptersLimit={}",
                 novelId, actId, fromChapterId, direction, chaptersLimit);
 
-        return novelService.loadMoreScenes(novelId, actId, fromChapterId, direction, chaptersLimit);
+        return withContentEtag(request, novelId,
+                () -> novelService.loadMoreScenes(novelId, actId, fromChapterId, direction, chaptersLimit)
+                        .map(EditorNovelWithScenesDto::toEditorScenes));
+    }
+
+    /**
+     * 编辑器读取接口的 ETag 协商
+     * ETag 是响应体 JSON 的摘要，由已加载的数据计算，不额外查询数据库；请求携带的 If-None-Match 与之匹配时
+     * 返回不带响应体的 304，省去传输和客户端解析。
+     * 这些接口是 POST，Spring 的 checkNotModified 对非 GET/HEAD 请求按前置条件失败处理，因此这里自行比较。
+     */
+    private <T> Mono<ResponseEntity<T>> withContentEtag(ServerHttpRequest request, String novelId,
+                                                        Supplier<Mono<T>> bodySupplier) {
+        return bodySupplier.get()
+                .map(body -> {
+                    String etag = contentEtag(body);
+                    if (etagMatches(request.getHeaders().getIfNoneMatch(), etag)) {
+                        log.debug("编辑器内容未变化，返回304: novelId={}, path={}", novelId, request.getPath());
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                .eTag(etag)
+                                .cacheControl(EDITOR_CACHE_CONTROL)
+                                .<T>build();
+                    }
+                    return ResponseEntity.ok()
+                            .eTag(etag)
+                            .cacheControl(EDITOR_CACHE_CONTROL)
+                            .body(body);
+                });
+    }
+
+    /**
+     * 响应体 JSON 的 MD5；Map 按键排序，内容相同的响应得到相同的 ETag
+     */
+    private String contentEtag(Object body) {
+        try {
+            DigestOutputStream digest = new DigestOutputStream(OutputStream.nullOutputStream(), MessageDigest.getInstance("MD5"));
+            objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS).writeValue(digest, body);
+            return "\"" + HexFormat.of().formatHex(digest.getMessageDigest().digest()) + "\"";
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("计算编辑器内容ETag失败", e);
+        }
+    }
+
+    private static boolean etagMatches(List<String> ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch) {
+            // If-None-Match 使用弱比较
+            String value = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if ("*".equals(value) || etag.equals(value)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -377,6 +463,40 @@ public class NovelController extends ReactiveBaseController {
         return novelService.searchNovelsByTitle(searchDto.getTitle());
     }
 
+    /**
+     * 小说内全文检索（场景正文、片段、设定），支持中文短语检索、分页与高亮
+     *
+     * @param request 检索请求
+     * @param currentUser 当前用户
+     * @return 分页检索结果
+     */
+    @PostMapping("/search-text")
+    public Mono<NovelTextSearchResponse> searchNovelText(
+            @RequestBody NovelTextSearchRequestDto request,
+            @AuthenticationPrincipal com.ainovel.server.security.CurrentUser currentUser) {
+        if (!StringUtils.hasText(request.getNovelId()) || !StringUtils.hasText(request.getQuery())) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "缺少小说ID或检索内容"));
+        }
+        Set<SearchDocumentType> types;
+        try {
+            types = request.getTypes() == null ? Set.of() : request.getTypes().stream()
+                    .map(t -> SearchDocumentType.valueOf(t.toUpperCase()))
+                    .collect(Collectors.toSet());
+        } catch (IllegalArgumentException e) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "无效的检索类型: " + request.getTypes()));
+        }
+        String userId = currentUser != null ? currentUser.getId() : null;
+        return novelService.findNovelById(request.getNovelId())
+                .flatMap(novel -> {
+                    String authorId = novel.getAuthor() != null ? novel.getAuthor().getId() : null;
+                    if (userId == null || !userId.equals(authorId)) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN, "无权检索该小说"));
+                    }
+                    return fullTextSearchService.search(request.getNovelId(), request.getQuery(), types,
+                            request.getPage(), request.getSize());
+                });
+    }
+
     /**
      * 获取小说章节的场景内容（按顺序排序）
      *
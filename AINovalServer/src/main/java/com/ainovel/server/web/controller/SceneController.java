@@ -7,6 +7,9 @@ import java.util.UUID;
 import java.util.ArrayList;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -18,6 +21,8 @@ import org.springframework.web.server.ResponseStatusException;
 import com.ainovel.server.domain.model.Scene;
 import com.ainovel.server.domain.model.Scene.HistoryEntry;
 import com.ainovel.server.domain.model.SceneVersionDiff;
+import com.ainovel.server.security.CurrentUser;
+import com.ainovel.server.service.SceneAutosaveService;
 import com.ainovel.server.service.SceneService;
 import com.ainovel.server.web.base.ReactiveBaseController;
 import com.ainovel.server.web.dto.ChapterIdDto;
@@ -25,9 +30,11 @@ import com.ainovel.server.web.dto.IdDto;
 import com.ainovel.server.web.dto.NovelIdDto;
 import com.ainovel.server.web.dto.NovelIdTypeDto;
 import com.ainovel.server.web.dto.SceneContentUpdateDto;
+import com.ainovel.server.web.dto.SceneDeltaPatchDto;
 import com.ainovel.server.web.dto.SceneRestoreDto;
 import com.ainovel.server.web.dto.SceneUpdateDto;
 import com.ainovel.server.web.dto.SceneVersionCompareDto;
+import com.ainovel.server.web.dto.response.SceneAutosaveResponse;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -46,6 +53,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 public class SceneController extends ReactiveBaseController {
 
     private final SceneService sceneService;
+    private final SceneAutosaveService sceneAutosaveService;
 
     /**
      * 获取场景详情
@@ -219,6 +227,44 @@ public class SceneController extends ReactiveBaseController {
                 updateDto.getReason());
     }
 
+    /**
+     * 增量自动保存：提交基于版本号的 Delta 补丁，服务端合并后按去抖窗口落库
+     * 版本不一致时返回 409 及服务端最新内容；调用者不是小说作者时返回 403
+     *
+     * @param patchDto 补丁数据
+     * @return 新版本号
+     */
+    @PostMapping("/autosave/patch")
+    public Mono<ResponseEntity<SceneAutosaveResponse>> autosavePatch(@RequestBody SceneDeltaPatchDto patchDto,
+            @AuthenticationPrincipal CurrentUser currentUser) {
+        if (StringUtils.isEmpty(patchDto.getSceneId()) || patchDto.getBaseVersion() == null) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "场景ID和基准版本号不能为空"));
+        }
+        String userId = currentUser != null ? currentUser.getId() : null;
+        return sceneAutosaveService.applyPatch(patchDto.getSceneId(), patchDto.getBaseVersion(), patchDto.getOps(), userId)
+                .map(result -> result.isConflict()
+                        ? ResponseEntity.status(HttpStatus.CONFLICT).body(result)
+                        : ResponseEntity.ok(result))
+                .onErrorResume(AccessDeniedException.class,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.FORBIDDEN).<SceneAutosaveResponse>build()));
+    }
+
+    /**
+     * 立即落库场景的自动保存缓冲（编辑器失焦或关闭时调用）
+     *
+     * @param idDto 包含场景ID的DTO
+     * @return 当前版本号；无缓冲时返回空；调用者不是小说作者时返回 403
+     */
+    @PostMapping("/autosave/flush")
+    public Mono<ResponseEntity<SceneAutosaveResponse>> autosaveFlush(@RequestBody IdDto idDto,
+            @AuthenticationPrincipal CurrentUser currentUser) {
+        String userId = currentUser != null ? currentUser.getId() : null;
+        return sceneAutosaveService.flush(idDto.getId(), userId)
+                .map(ResponseEntity::ok)
+                .onErrorResume(AccessDeniedException.class,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.FORBIDDEN).<SceneAutosaveResponse>build()));
+    }
+
     /**
      * 获取场景的历史版本列表
      * 
@@ -1,6 +1,7 @@
 package com.ainovel.server.web.controller;
 
 import com.ainovel.server.security.CurrentUser;
+import com.ainovel.server.security.TokenRevocationRegistry;
 // import com.ainovel.server.task.event.internal.*; // 不再需要直接引用内部事件类
 import com.ainovel.server.task.model.TaskStatus;
 import com.ainovel.server.task.service.TaskSubmissionService;
@@ -41,6 +42,7 @@ public class TaskStatusController {
     private final TaskSubmissionService taskSubmissionService;
     private final TaskEventPublisher taskEventPublisher;
     private final JwtService jwtService;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
     
     // 🔧 SSE连接管理：记录每个用户的活跃连接，防止重复连接
     private final Map<String, Long> activeConnections = new java.util.concurrent.ConcurrentHashMap<>();
@@ -331,31 +333,18 @@ public class TaskStatusController {
                 .retry(java.time.Duration.ofDays(365))
                 .build();
 
-        Flux<ServerSentEvent<Map<String, Object>>> messageFlux = taskEventPublisher.events()
-                .filter(ev -> {
-                    Object uid = ev.get("userId");
-                    // 🔒 严格过滤：只允许匹配当前userId的事件通过
-                    boolean pass = (uid != null && userId.equals(String.valueOf(uid)));
-                    if (!pass) {
-                        log.debug("[SSE FILTER MISS] expectUserId={} actualUserId={}", userId, uid);
-                    }
-                    return pass;
-                })
+        // 事件中心按 userId 路由，只会收到当前用户的事件；缓冲溢出时会先收到一条重同步标记
+        Flux<ServerSentEvent<Map<String, Object>>> messageFlux = taskEventPublisher.events(userId)
                 .map(ev -> {
-                    try {
-                        Object type = ev.get("type");
-                        Object taskId = ev.get("taskId");
-                        Object parent = ev.get("parentTaskId");
-                        Object uid = ev.get("userId");
-                        boolean hasResult = ev.containsKey("result");
-                        log.info("[SSE OUT] type={} taskId={} parentTaskId={} userId={} hasResult={}", type, taskId, parent, uid, hasResult);
-                    } catch (Throwable ignore) {}
+                    if (log.isDebugEnabled()) {
+                        log.debug("[SSE OUT] type={} taskId={} parentTaskId={} userId={} hasResult={}",
+                                ev.get("type"), ev.get("taskId"), ev.get("parentTaskId"), userId, ev.containsKey("result"));
+                    }
                     return ServerSentEvent.<Map<String, Object>>builder()
                             .event("message")
                             .data(ev)
                             .build();
-                })
-                ;
+                });
 
         Flux<ServerSentEvent<Map<String, Object>>> heartbeatFlux = Flux.interval(Duration.ofSeconds(20))
                 .map(tick -> {
@@ -365,26 +354,14 @@ public class TaskStatusController {
 
         Mono<ServerSentEvent<Map<String, Object>>> completeOnce = Mono.delay(untilExpire).thenReturn(completeSse);
 
-        // 版本变更检测（数据库轮询，单机亦可）：每20秒比对一次用户tokenVersion
-        final Integer tokenVersionInTokenFinal = tokenVersionInToken;
-        Flux<ServerSentEvent<Map<String, Object>>> versionWatcher = Flux.interval(Duration.ofSeconds(20))
-            .flatMap(tick -> com.ainovel.server.config.SpringContextHolder.getBean(com.ainovel.server.service.UserService.class)
-                .findUserById(userId)
-                .flatMap(user -> {
-                    Integer currentVersion = user.getTokenVersion() == null ? 1 : user.getTokenVersion();
-                    if (tokenVersionInTokenFinal != null && !currentVersion.equals(tokenVersionInTokenFinal)) {
-                        log.info("[SSE TOKEN VERSION CHANGE] 用户 {} token版本变更（token: {}, db: {}），发送complete信号", 
-                                userId, tokenVersionInTokenFinal, currentVersion);
-                        return Mono.just(completeSse); // 版本号变更：强制complete
-                    }
-                    return Mono.empty(); // 版本号未变更，不发送事件
-                })
-            )
-            .take(1);
+        // 令牌撤销：tokenVersion 提升时由撤销登记表推送，立即结束连接（不再轮询数据库）
+        Mono<ServerSentEvent<Map<String, Object>>> revoked = tokenVersionInToken == null
+                ? Mono.never()
+                : tokenRevocationRegistry.revocation(userId, tokenVersionInToken).thenReturn(completeSse);
 
         return Flux.merge(messageFlux, heartbeatFlux)
-                .takeUntilOther(Flux.merge(completeOnce, versionWatcher))
-                .concatWith(Flux.merge(completeOnce, versionWatcher).take(1))
+                .takeUntilOther(Mono.firstWithSignal(completeOnce, revoked))
+                .concatWith(Mono.just(completeSse))
                 .doOnCancel(() -> {
                     // 连接取消时清理记录和计数
                     activeConnections.remove(userId);
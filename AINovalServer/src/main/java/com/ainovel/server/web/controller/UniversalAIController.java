@@ -5,11 +5,13 @@ import com.ainovel.server.web.dto.response.UniversalAIResponseDto;
 import com.ainovel.server.web.dto.response.UniversalAIPreviewResponseDto;
 import com.ainovel.server.service.UniversalAIService;
 import com.ainovel.server.service.CostEstimationService;
+import com.ainovel.server.service.stream.ResumableStreamRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
@@ -20,7 +22,6 @@ import jakarta.validation.Valid;
 import org.apache.skywalking.apm.toolkit.trace.Trace;
 
 
-import java.time.Duration;
 import java.util.UUID;
 
 /**
@@ -35,6 +36,14 @@ public class UniversalAIController {
     private static final Logger logger = LoggerFactory.getLogger(UniversalAIController.class);
     private static final String SSE_EVENT_NAME = "message";
 
+    /**
+     * 结束事件内容固定，预先构建；事件ID由流注册表统一改写
+     */
+    private static final ServerSentEvent<String> COMPLETE_EVENT = ServerSentEvent.<String>builder()
+            .event("complete")
+            .data("{\"data\":\"[DONE]\"}")
+            .build();
+
     @Autowired
     private UniversalAIService universalAIService;
 
@@ -44,6 +53,9 @@ public class UniversalAIController {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ResumableStreamRegistry streamRegistry;
+
     /**
      * 发送通用AI请求（非流式）
      *
@@ -120,7 +132,8 @@ public class UniversalAIController {
     @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public Flux<ServerSentEvent<String>> streamRequest(
             @Valid @RequestBody UniversalAIRequestDto request,
-            @AuthenticationPrincipal com.ainovel.server.security.CurrentUser currentUser) {
+            @AuthenticationPrincipal com.ainovel.server.security.CurrentUser currentUser,
+            ServerHttpResponse serverResponse) {
         
         try {
             if ((request.getUserId() == null || request.getUserId().isBlank()) && currentUser != null && currentUser.getId() != null) {
@@ -132,7 +145,10 @@ public class UniversalAIController {
                    request.getRequestType(), request.getUserId(), 
                    request.getModelConfigId(), request.getNovelId());
 
-        return universalAIService.processStreamRequest(request)
+        String streamId = ResumableStreamRegistry.newStreamId();
+        serverResponse.getHeaders().set(ResumableStreamRegistry.STREAM_ID_HEADER, streamId);
+
+        Flux<ServerSentEvent<String>> events = universalAIService.processStreamRequest(request)
                 .map(response -> {
                     try {
                         String jsonResponse = objectMapper.writeValueAsString(response);
@@ -150,12 +166,8 @@ public class UniversalAIController {
                                 .build();
                     }
                 })
-                .delayElements(Duration.ofMillis(50)) // 控制发送频率
-                .concatWith(Mono.just(ServerSentEvent.<String>builder()
-                        .id(UUID.randomUUID().toString())
-                        .event("complete")
-                        .data("{\"data\":\"[DONE]\"}")
-                        .build()))
+                // 分片已在服务层按时间窗口合并，这里不再逐条延迟
+                .concatWith(Mono.just(COMPLETE_EVENT))
                 .onErrorResume(error -> {
                     logger.error("流式响应失败 - 类型: {}, 错误: {}",
                             request.getRequestType(), error.getMessage(), error);
@@ -194,8 +206,11 @@ public class UniversalAIController {
                                         .build()
                         );
                     }
-                })
-                .doOnSubscribe(subscription -> logger.info("开始流式响应 - 类型: {}", request.getRequestType()))
+                });
+
+        // 客户端断开后生成继续进行，可凭流ID重连
+        return streamRegistry.register(streamId, currentUser != null ? currentUser.getId() : null, events)
+                .doOnSubscribe(subscription -> logger.info("开始流式响应 - 类型: {}, streamId: {}", request.getRequestType(), streamId))
                 .doOnComplete(() -> logger.info("流式响应完成 - 类型: {}", request.getRequestType()))
                 .doOnError(error -> logger.error("流式响应失败 - 类型: {}, 错误: {}", 
                                                 request.getRequestType(), error.getMessage()));
@@ -0,0 +1,53 @@
+package com.ainovel.server.web.dto;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ainovel.server.domain.model.Novel;
+import com.ainovel.server.domain.model.Scene;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 编辑器加载用的小说及场景DTO
+ * JSON 结构与 NovelWithScenesDto 一致，场景使用精简的 EditorSceneDto
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EditorNovelWithScenesDto {
+
+    /**
+     * 小说基本信息
+     */
+    private Novel novel;
+
+    /**
+     * 场景，按章节ID分组
+     */
+    private Map<String, List<EditorSceneDto>> scenesByChapter;
+
+    public static EditorNovelWithScenesDto from(NovelWithScenesDto dto) {
+        return EditorNovelWithScenesDto.builder()
+                .novel(dto.getNovel())
+                .scenesByChapter(toEditorScenes(dto.getScenesByChapter()))
+                .build();
+    }
+
+    /**
+     * 按章节分组的场景转换为编辑器场景，保持章节顺序
+     */
+    public static Map<String, List<EditorSceneDto>> toEditorScenes(Map<String, List<Scene>> scenesByChapter) {
+        Map<String, List<EditorSceneDto>> result = new LinkedHashMap<>();
+        if (scenesByChapter != null) {
+            scenesByChapter.forEach((chapterId, scenes) ->
+                    result.put(chapterId, scenes.stream().map(EditorSceneDto::from).toList()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,79 @@
+package com.ainovel.server.web.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.ainovel.server.domain.model.Scene;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 编辑器场景DTO
+ * 只包含编辑器渲染需要的字段，不携带历史版本和向量嵌入（历史版本通过单独的接口获取）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EditorSceneDto {
+
+    private String id;
+
+    private String novelId;
+
+    private String chapterId;
+
+    private String title;
+
+    private String content;
+
+    private String summary;
+
+    private Integer wordCount;
+
+    private Integer sequence;
+
+    private String sceneType;
+
+    private List<String> characterIds;
+
+    private List<String> locations;
+
+    private String timeframe;
+
+    private int version;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
+    private LocalDateTime createdAt;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
+    private LocalDateTime updatedAt;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
+    private LocalDateTime lastEdited;
+
+    public static EditorSceneDto from(Scene scene) {
+        return EditorSceneDto.builder()
+                .id(scene.getId())
+                .novelId(scene.getNovelId())
+                .chapterId(scene.getChapterId())
+                .title(scene.getTitle())
+                .content(scene.getContent())
+                .summary(scene.getSummary())
+                .wordCount(scene.getWordCount())
+                .sequence(scene.getSequence())
+                .sceneType(scene.getSceneType())
+                .characterIds(scene.getCharacterIds())
+                .locations(scene.getLocations())
+                .timeframe(scene.getTimeframe())
+                .version(scene.getVersion())
+                .createdAt(scene.getCreatedAt())
+                .updatedAt(scene.getUpdatedAt())
+                .lastEdited(scene.getLastEdited())
+                .build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.ainovel.server.web.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 小说内全文检索请求
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NovelTextSearchRequestDto {
+
+    /**
+     * 小说ID
+     */
+    private String novelId;
+
+    /**
+     * 查询文本，空白分隔的多个短语需同时命中
+     */
+    private String query;
+
+    /**
+     * 限定文档类型（SCENE/SNIPPET/SETTING），为空表示全部
+     */
+    private List<String> types;
+
+    /**
+     * 页码，从0开始
+     */
+    private int page = 0;
+
+    /**
+     * 每页大小
+     */
+    private int size = 20;
+}
@@ -0,0 +1,29 @@
+package com.ainovel.server.web.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 场景增量自动保存请求：基于版本号的 Quill Delta 补丁
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SceneDeltaPatchDto {
+
+    private String sceneId;
+
+    /**
+     * 客户端补丁所基于的场景版本号（上一次自动保存响应中的 version）
+     */
+    private Integer baseVersion;
+
+    /**
+     * Quill Delta 变更操作（retain/insert/delete）
+     */
+    private List<Map<String, Object>> ops;
+}
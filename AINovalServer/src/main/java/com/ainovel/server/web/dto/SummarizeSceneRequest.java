@@ -35,4 +35,9 @@ public class SummarizeSceneRequest {
      * 选定的 AI 模型配置ID（可选）
      */
     private String aiConfigId;
+    
+    /**
+     * 重新生成：为 true 时跳过 LLM 响应缓存，总是请求模型生成新的摘要
+     */
+    private Boolean regenerate;
 } 
\ No newline at end of file
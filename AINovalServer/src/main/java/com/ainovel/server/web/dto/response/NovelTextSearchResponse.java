@@ -0,0 +1,50 @@
+package com.ainovel.server.web.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 小说内全文检索结果（分页）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NovelTextSearchResponse {
+
+    private List<Hit> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+    private boolean hasNext;
+    private boolean hasPrevious;
+
+    /**
+     * 单个命中
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Hit {
+        /** 文档类型：SCENE/SNIPPET/SETTING */
+        private String type;
+        private String id;
+        /** 场景所属章节ID */
+        private String parentId;
+        private String title;
+        private double score;
+        private int matchCount;
+        /** 命中位置附近的正文摘要 */
+        private String snippet;
+        /** 摘要内的高亮区间 [start, end) */
+        private List<int[]> snippetHighlights;
+        /** 标题内的高亮区间 [start, end) */
+        private List<int[]> titleHighlights;
+    }
+}
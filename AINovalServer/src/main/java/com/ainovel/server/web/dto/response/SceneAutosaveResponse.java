@@ -0,0 +1,38 @@
+package com.ainovel.server.web.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 场景增量自动保存响应
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SceneAutosaveResponse {
+
+    private String sceneId;
+
+    /**
+     * 服务端当前版本号，客户端下一次补丁以此为 baseVersion
+     */
+    private int version;
+
+    /**
+     * 版本冲突：客户端需以 content 为基准重新同步
+     */
+    private boolean conflict;
+
+    /**
+     * 是否仍有未落库的缓冲修改
+     */
+    private boolean pending;
+
+    /**
+     * 仅在冲突时返回的服务端最新内容
+     */
+    private String content;
+}
@@ -0,0 +1,113 @@
+package com.ainovel.server.benchmark;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 两份 JMH JSON 结果的对比报告
+ *
+ * 按"基准名 + 参数"对齐，对比主指标得分和每次调用分配字节数（gc.alloc.rate.norm）。
+ * 回归百分比统一换算成"变差为正"：耗时类模式得分变大为回归，吞吐模式得分变小为回归。
+ */
+final class BaselineReport {
+
+    private static final String ALLOC_METRIC = "gc.alloc.rate.norm";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final List<Row> rows;
+
+    private BaselineReport(List<Row> rows) {
+        this.rows = rows;
+    }
+
+    static BaselineReport compare(Path baselineFile, Path currentFile) throws IOException {
+        Map<String, Entry> baseline = load(baselineFile);
+        Map<String, Entry> current = load(currentFile);
+        List<Row> rows = new ArrayList<>(current.size());
+        current.forEach((key, cur) -> rows.add(new Row(key, baseline.get(key), cur)));
+        return new BaselineReport(rows);
+    }
+
+    /**
+     * 所有对齐项中最大的回归百分比（耗时与分配取较大者），没有回归时为 0
+     */
+    double worstRegressionPercent() {
+        double worst = 0;
+        for (Row row : rows) {
+            if (row.base == null) {
+                continue;
+            }
+            worst = Math.max(worst, row.scoreRegression());
+            worst = Math.max(worst, row.allocRegression());
+        }
+        return worst;
+    }
+
+    void print(PrintStream out) {
+        out.println();
+        out.println("==== 基准对比（正数为回归） ====");
+        out.printf("%-90s %14s %14s %9s %14s %14s %9s%n",
+                "基准 [参数]", "基线得分", "当前得分", "得分变化", "基线B/op", "当前B/op", "分配变化");
+        for (Row row : rows) {
+            if (row.base == null) {
+                out.printf("%-90s %14s %14.3f %9s %14s %14.0f %9s%n",
+                        row.key, "-", row.cur.score, "新增", "-", row.cur.allocBytes, "-");
+                continue;
+            }
+            out.printf("%-90s %14.3f %14.3f %8.1f%% %14.0f %14.0f %8.1f%%%n",
+                    row.key, row.base.score, row.cur.score, row.scoreRegression(),
+                    row.base.allocBytes, row.cur.allocBytes, row.allocRegression());
+        }
+    }
+
+    private static Map<String, Entry> load(Path file) throws IOException {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        for (JsonNode node : MAPPER.readTree(file.toFile())) {
+            StringBuilder key = new StringBuilder(node.path("benchmark").asText());
+            JsonNode params = node.path("params");
+            if (params.isObject()) {
+                // 参数按名称排序，避免 JSON 字段顺序不同导致对不上
+                Map<String, String> sorted = new TreeMap<>();
+                params.fields().forEachRemaining(e -> sorted.put(e.getKey(), e.getValue().asText()));
+                key.append(' ').append(sorted);
+            }
+            JsonNode alloc = node.path("secondaryMetrics").path(ALLOC_METRIC).path("score");
+            entries.put(key.toString(), new Entry(
+                    node.path("mode").asText(),
+                    node.path("primaryMetric").path("score").asDouble(),
+                    alloc.isMissingNode() ? Double.NaN : alloc.asDouble()));
+        }
+        return entries;
+    }
+
+    private record Entry(String mode, double score, double allocBytes) {
+    }
+
+    private record Row(String key, Entry base, Entry cur) {
+
+        double scoreRegression() {
+            double change = percentChange(base.score, cur.score);
+            return "thrpt".equals(cur.mode) ? -change : change;
+        }
+
+        double allocRegression() {
+            return percentChange(base.allocBytes, cur.allocBytes);
+        }
+
+        private static double percentChange(double before, double after) {
+            if (Double.isNaN(before) || Double.isNaN(after) || before == 0) {
+                return 0;
+            }
+            return (after - before) / before * 100;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.ainovel.server.benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH 基准入口
+ *
+ * 默认运行全部 *Benchmark 并挂载 GC 分析器（输出 gc.alloc.rate.norm 即每次调用分配字节数），
+ * 结果写入 JSON。指定基线文件时与基线逐项对比并打印报告；设置了回归阈值且有任一项
+ * 耗时或分配回归超过阈值时以非零状态退出，便于在流水线里守住优化成果。
+ *
+ * 系统属性：
+ * <ul>
+ *   <li>jmh.include：基准正则，默认 com.ainovel.server.*Benchmark.*</li>
+ *   <li>jmh.result：结果 JSON 路径，默认 target/jmh/result.json</li>
+ *   <li>jmh.baseline：基线结果 JSON（一般是上一版本的 result.json），为空时不对比</li>
+ *   <li>jmh.maxRegressionPercent：允许的最大回归百分比，0 表示只报告不拦截</li>
+ * </ul>
+ * 命令行参数按 JMH 原生参数解析（如 -f 2 -wi 5），会覆盖基准类上的注解配置。
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String include = System.getProperty("jmh.include", "com.ainovel.server.*Benchmark.*");
+        Path resultFile = Path.of(System.getProperty("jmh.result", "target/jmh/result.json"));
+        String baseline = System.getProperty("jmh.baseline", "");
+        double maxRegressionPercent = Double.parseDouble(System.getProperty("jmh.maxRegressionPercent", "0"));
+
+        if (resultFile.getParent() != null) {
+            Files.createDirectories(resultFile.getParent());
+        }
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile.toString())
+                .jvmArgsAppend("-Dlogback.configurationFile=jmh-logback.xml")
+                .build();
+        new Runner(options).run();
+
+        if (baseline.isBlank()) {
+            return;
+        }
+        BaselineReport report = BaselineReport.compare(Path.of(baseline), resultFile);
+        report.print(System.out);
+        if (maxRegressionPercent > 0 && report.worstRegressionPercent() > maxRegressionPercent) {
+            System.err.printf("基准回归 %.1f%% 超过阈值 %.1f%%%n", report.worstRegressionPercent(), maxRegressionPercent);
+            System.exit(1);
+        }
+    }
+}
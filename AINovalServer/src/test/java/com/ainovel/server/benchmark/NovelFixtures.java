@@ -0,0 +1,163 @@
+package com.ainovel.server.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.ainovel.server.domain.model.Scene;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 基准测试用的中文小说夹具
+ *
+ * 用固定种子从句子池中拼出章节、段落和对话，结构接近真实网文：每章约四千字，
+ * 每个场景约一千五百字，段落长短不一，约三成段落为对话。同一规模每次生成的内容完全一致，
+ * 保证不同版本之间的基准结果可以直接对比。
+ */
+public final class NovelFixtures {
+
+    public static final long SEED = 20240601L;
+
+    /** 每章字数 */
+    public static final int CHAPTER_CHARS = 4000;
+    /** 每个场景字数 */
+    public static final int SCENE_CHARS = 1500;
+
+    private static final String[] NAMES = {"林渊", "苏清寒", "叶孤舟", "沈知微", "陆长风", "顾青衣", "白砚"};
+
+    private static final String[] PLACES = {"青云宗", "落霞城", "北境雪原", "天机阁", "万妖山脉", "归墟海"};
+
+    private static final String[] NARRATION = {
+            "夜色如墨，山风裹着细雨从崖边掠过，%s站在石阶尽头，望着远处%s的灯火一盏盏熄灭。",
+            "他缓缓吐出一口浊气，体内灵力沿着经脉运转一周天，原本滞涩的丹田竟隐隐生出一丝暖意。",
+            "%s的长老们早已在大殿中等候多时，檀香袅袅，却压不住空气里那股若有若无的肃杀。",
+            "剑光一闪，三丈外的古松应声而断，断口平滑如镜，连一片松针都未曾震落。",
+            "%s心中微凛，这一路行来太过顺利，顺利得仿佛有人刻意在前方替他扫清了障碍。",
+            "晨雾渐散，%s的轮廓在天光里显露出来，城墙上斑驳的刀痕诉说着百年前那场大战的惨烈。",
+            "她垂下眼帘，指尖轻轻摩挲着袖中那枚玉佩，玉佩温润，却带着一丝不属于这个季节的寒意。",
+            "远处传来沉闷的钟声，一下，两下，三下——那是宗门只在生死存亡之际才会敲响的警钟。",
+            "%s没有回头，只是将手中的酒坛往地上一摔，碎片四溅，酒香混着血腥气弥漫开来。",
+            "石壁上的符文忽明忽暗，像是某种沉睡已久的东西正在苏醒，连脚下的大地都在微微震颤。",
+    };
+
+    private static final String[] DIALOGUE = {
+            "“你可知道，%s的那位老祖宗，当年也是在这里陨落的？”",
+            "“少废话，要打便打，我%s从来不怕死。”",
+            "“师兄，此事恐怕没有那么简单。”%s压低了声音，“%s那边已经三日没有传回消息了。”",
+            "“走吧，天亮之前必须赶到%s，否则一切都来不及了。”",
+            "“我等这一天，已经等了整整十年。”",
+            "“你以为凭这点手段，就能瞒得过%s的眼睛？”",
+    };
+
+    private static final String[] CHAPTER_TITLES = {"风起", "暗潮", "故人", "剑鸣", "夜行", "血契", "归途", "惊变"};
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private NovelFixtures() {
+    }
+
+    /**
+     * 生成约 chars 个字符的小说正文（含"第N章 标题"行，段落之间换行）
+     */
+    public static String novelText(int chars) {
+        Random random = new Random(SEED);
+        StringBuilder out = new StringBuilder(chars + 256);
+        int chapter = 1;
+        while (out.length() < chars) {
+            out.append(chapterTitle(chapter++)).append('\n');
+            int target = Math.min(chars, out.length() + CHAPTER_CHARS);
+            appendParagraphs(random, out, target);
+        }
+        return out.toString();
+    }
+
+    /**
+     * 纯文本转 Quill Delta JSON：每段一个 insert，部分段落带加粗/斜体等行内属性
+     */
+    public static String quillDelta(String plainText) {
+        Random random = new Random(SEED);
+        List<Map<String, Object>> ops = new ArrayList<>();
+        for (String line : plainText.split("\n", -1)) {
+            int roll = random.nextInt(10);
+            if (roll == 0 && line.length() > 8) {
+                // 段首几个字加粗，模拟作者手动标注
+                ops.add(Map.of("insert", line.substring(0, 4), "attributes", Map.of("bold", true)));
+                ops.add(Map.of("insert", line.substring(4) + "\n"));
+            } else if (roll == 1 && !line.isEmpty()) {
+                ops.add(Map.of("insert", line, "attributes", Map.of("italic", true)));
+                ops.add(Map.of("insert", "\n"));
+            } else {
+                ops.add(Map.of("insert", line + "\n"));
+            }
+        }
+        try {
+            return MAPPER.writeValueAsString(ops);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 生成总字数约 chars 的场景列表（内容为 Quill Delta），以及章节顺序映射
+     */
+    public static NovelScenes scenes(int chars) {
+        Random random = new Random(SEED);
+        List<Scene> scenes = new ArrayList<>();
+        Map<String, Integer> chapterOrderMap = new LinkedHashMap<>();
+        int total = 0;
+        int chapter = 0;
+        while (total < chars) {
+            chapter++;
+            String chapterId = "chapter_" + chapter;
+            chapterOrderMap.put(chapterId, chapter);
+            int chapterChars = 0;
+            for (int seq = 0; chapterChars < CHAPTER_CHARS && total < chars; seq++) {
+                StringBuilder body = new StringBuilder(SCENE_CHARS + 128);
+                appendParagraphs(random, body, Math.min(SCENE_CHARS, chars - total));
+                String text = body.toString();
+                scenes.add(Scene.builder()
+                        .id("scene_" + chapter + "_" + seq)
+                        .novelId("novel_bench")
+                        .chapterId(chapterId)
+                        .title(chapterTitle(chapter) + " · 场景" + (seq + 1))
+                        .summary(text.substring(0, Math.min(60, text.length())))
+                        .content(quillDelta(text))
+                        .sequence(seq)
+                        .build());
+                chapterChars += text.length();
+                total += text.length();
+            }
+        }
+        return new NovelScenes(scenes, chapterOrderMap);
+    }
+
+    private static String chapterTitle(int chapter) {
+        return "第" + chapter + "章 " + CHAPTER_TITLES[(chapter - 1) % CHAPTER_TITLES.length];
+    }
+
+    /**
+     * 追加段落直到 out 达到 target 长度；每段 1~4 句，约三成为对话
+     */
+    private static void appendParagraphs(Random random, StringBuilder out, int target) {
+        while (out.length() < target) {
+            int sentences = 1 + random.nextInt(4);
+            boolean dialogue = random.nextInt(10) < 3;
+            for (int i = 0; i < sentences; i++) {
+                String[] pool = dialogue ? DIALOGUE : NARRATION;
+                out.append(String.format(pool[random.nextInt(pool.length)],
+                        pick(random, NAMES), pick(random, PLACES)));
+            }
+            out.append('\n');
+        }
+    }
+
+    private static String pick(Random random, String[] pool) {
+        return pool[random.nextInt(pool.length)];
+    }
+
+    public record NovelScenes(List<Scene> scenes, Map<String, Integer> chapterOrderMap) {
+    }
+}
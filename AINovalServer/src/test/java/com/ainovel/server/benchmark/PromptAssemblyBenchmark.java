@@ -0,0 +1,53 @@
+package com.ainovel.server.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ainovel.server.common.util.PromptXmlFormatter;
+import com.ainovel.server.domain.model.Scene;
+
+/**
+ * 提示词组装基准：整本小说正文格式化为 XML 上下文（full_novel_text）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PromptAssemblyBenchmark {
+
+    @Param({"1000", "100000", "3000000"})
+    private int chars;
+
+    private List<Scene> scenes;
+    private Map<String, Integer> chapterOrderMap;
+
+    private final PromptXmlFormatter formatter = new PromptXmlFormatter();
+
+    @Setup
+    public void setUp() {
+        NovelFixtures.NovelScenes fixture = NovelFixtures.scenes(chars);
+        scenes = fixture.scenes();
+        chapterOrderMap = fixture.chapterOrderMap();
+    }
+
+    @Benchmark
+    public String formatFullNovelText() {
+        return formatter.formatFullNovelTextUsingChapterOrderMap("剑起青云", "少年林渊入青云宗修行的故事",
+                scenes, chapterOrderMap, true);
+    }
+}
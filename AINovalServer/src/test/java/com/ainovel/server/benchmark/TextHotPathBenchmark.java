@@ -0,0 +1,99 @@
+package com.ainovel.server.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ainovel.server.common.util.PromptUtil;
+import com.ainovel.server.common.util.RichTextUtil;
+import com.ainovel.server.domain.dto.ParsedNovelData;
+import com.ainovel.server.service.impl.MetadataServiceImpl;
+import com.ainovel.server.service.impl.TxtNovelParser;
+import com.ainovel.server.utils.StreamingJsonParser;
+
+/**
+ * 文本热路径基准：富文本互转、字数统计、TXT 导入解析、LLM JSON 输出解析
+ *
+ * 规模参数为正文字符数，覆盖单个场景（1K）、中篇（100K）到长篇整本（3M）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextHotPathBenchmark {
+
+    @Param({"1000", "100000", "3000000"})
+    private int chars;
+
+    private String plainText;
+    private String deltaJson;
+    private List<String> txtLines;
+    private String truncatedJsonArray;
+
+    private final MetadataServiceImpl metadataService = new MetadataServiceImpl(null, null);
+    private final TxtNovelParser txtNovelParser = new TxtNovelParser();
+
+    @Setup
+    public void setUp() {
+        plainText = NovelFixtures.novelText(chars);
+        deltaJson = NovelFixtures.quillDelta(plainText);
+        txtLines = plainText.lines().toList();
+        truncatedJsonArray = settingItemsJson(plainText);
+    }
+
+    @Benchmark
+    public String deltaJsonToPlainText() {
+        return RichTextUtil.deltaJsonToPlainText(deltaJson);
+    }
+
+    @Benchmark
+    public String convertPlainTextToQuillDelta() {
+        return PromptUtil.convertPlainTextToQuillDelta(plainText);
+    }
+
+    @Benchmark
+    public int calculateWordCount() {
+        return metadataService.calculateWordCount(deltaJson);
+    }
+
+    @Benchmark
+    public ParsedNovelData parseTxtNovel() {
+        return txtNovelParser.parseStream(txtLines.stream());
+    }
+
+    @Benchmark
+    public List<String> parseTruncatedJsonArray() {
+        return StreamingJsonParser.parseElements(truncatedJsonArray);
+    }
+
+    /**
+     * 模型输出的设定数组：每段正文作为一条设定描述，末尾截断在字符串中间，模拟超出 maxTokens 的输出
+     */
+    private static String settingItemsJson(String text) {
+        StringBuilder json = new StringBuilder(text.length() + text.length() / 4);
+        json.append("```json\n[");
+        int index = 0;
+        for (String paragraph : text.split("\n")) {
+            if (index > 0) {
+                json.append(',');
+            }
+            json.append("\n  {\"name\": \"设定").append(index++)
+                    .append("\", \"type\": \"LORE\", \"description\": \"")
+                    .append(paragraph.replace("\"", "\\\"")).append("\"}");
+        }
+        return json.substring(0, json.length() - Math.min(json.length() / 10, 40));
+    }
+}
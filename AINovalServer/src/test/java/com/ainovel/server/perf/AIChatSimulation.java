@@ -0,0 +1,53 @@
+package com.ainovel.server.perf;
+
+import static io.gatling.javaapi.core.CoreDsl.StringBody;
+import static io.gatling.javaapi.core.CoreDsl.during;
+import static io.gatling.javaapi.core.CoreDsl.jsonPath;
+import static io.gatling.javaapi.core.CoreDsl.pause;
+import static io.gatling.javaapi.core.CoreDsl.scenario;
+import static io.gatling.javaapi.core.CoreDsl.substring;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+import java.time.Duration;
+
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+
+/**
+ * AI聊天压测：每个虚拟用户创建一个会话，然后循环发送流式消息
+ */
+public class AIChatSimulation extends Simulation {
+
+    private static final String AI_CONFIG = """
+            {"requestType":"chat","userId":"#{userId}","novelId":"%s","modelConfigId":"%s"}
+            """.formatted(PerfSettings.NOVEL_ID, PerfSettings.MODEL_CONFIG_ID).strip();
+
+    private final ScenarioBuilder chat = scenario("AI聊天")
+            .exec(PerfSettings.login())
+            .exec(http("创建会话")
+                    .post("/api/v1/ai-chat/sessions/create")
+                    .header("Authorization", "Bearer #{token}")
+                    .body(StringBody("""
+                            {"userId":"#{userId}","novelId":"%s","modelName":"","metadata":{}}
+                            """.formatted(PerfSettings.NOVEL_ID)))
+                    .check(status().is(201), jsonPath("$.sessionId").saveAs("chatSessionId")))
+            .exec(during(PerfSettings.DURATION).on(
+                    http("流式发送消息")
+                            .post("/api/v1/ai-chat/messages/stream")
+                            .header("Authorization", "Bearer #{token}")
+                            .header("Accept", "text/event-stream")
+                            .body(StringBody("""
+                                    {"userId":"#{userId}","novelId":"%s","sessionId":"#{chatSessionId}",
+                                     "content":"主角接下来应该如何面对这场危机？","metadata":{"aiConfig":%s}}
+                                    """.formatted(PerfSettings.NOVEL_ID, AI_CONFIG)))
+                            .check(status().is(200), substring("\"messageType\"").exists()),
+                    pause(Duration.ofSeconds(2), Duration.ofSeconds(5))
+            ));
+
+    {
+        setUp(chat.injectOpen(PerfSettings.injection()))
+                .protocols(PerfSettings.httpProtocol())
+                .assertions(PerfSettings.assertions());
+    }
+}
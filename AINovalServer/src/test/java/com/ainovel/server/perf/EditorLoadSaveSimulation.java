@@ -0,0 +1,52 @@
+package com.ainovel.server.perf;
+
+import static io.gatling.javaapi.core.CoreDsl.StringBody;
+import static io.gatling.javaapi.core.CoreDsl.during;
+import static io.gatling.javaapi.core.CoreDsl.pause;
+import static io.gatling.javaapi.core.CoreDsl.repeat;
+import static io.gatling.javaapi.core.CoreDsl.scenario;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+import java.time.Duration;
+
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+
+/**
+ * 编辑器压测：打开小说（分页加载场景，重复打开走 ETag 协商），随后多次保存场景内容
+ *
+ * 保存会写入 perf.sceneId 指定的场景，应使用压测专用的小说。
+ */
+public class EditorLoadSaveSimulation extends Simulation {
+
+    private final ScenarioBuilder editor = scenario("编辑器加载与保存")
+            .exec(PerfSettings.login())
+            .exec(during(PerfSettings.DURATION).on(
+                    http("加载小说分页场景")
+                            .post("/api/v1/novels/get-with-paginated-scenes")
+                            .header("Authorization", "Bearer #{token}")
+                            .body(StringBody("""
+                                    {"novelId":"%s","lastEditedChapterId":"%s","chaptersLimit":5}
+                                    """.formatted(PerfSettings.NOVEL_ID, PerfSettings.CHAPTER_ID)))
+                            .check(status().in(200, 304)),
+                    repeat(5).on(
+                            pause(Duration.ofSeconds(2), Duration.ofSeconds(6)),
+                            http("保存场景内容")
+                                    .post("/api/v1/novels/update-chapter-scene-content")
+                                    .header("Authorization", "Bearer #{token}")
+                                    .body(StringBody(session -> """
+                                            {"id":"%s","novelId":"%s","chapterId":"%s","userId":"%s","reason":"perf",
+                                             "content":"[{\\"insert\\":\\"压测保存 %d\\\\n\\"}]"}
+                                            """.formatted(PerfSettings.SCENE_ID, PerfSettings.NOVEL_ID, PerfSettings.CHAPTER_ID,
+                                            session.getString("userId"), System.nanoTime())))
+                                    .check(status().is(200))
+                    )
+            ));
+
+    {
+        setUp(editor.injectOpen(PerfSettings.injection()))
+                .protocols(PerfSettings.httpProtocol())
+                .assertions(PerfSettings.assertions());
+    }
+}
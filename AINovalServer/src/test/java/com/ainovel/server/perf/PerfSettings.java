@@ -0,0 +1,85 @@
+package com.ainovel.server.perf;
+
+import static io.gatling.javaapi.core.CoreDsl.StringBody;
+import static io.gatling.javaapi.core.CoreDsl.exec;
+import static io.gatling.javaapi.core.CoreDsl.global;
+import static io.gatling.javaapi.core.CoreDsl.jsonPath;
+import static io.gatling.javaapi.core.CoreDsl.rampUsers;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+import java.time.Duration;
+
+import io.gatling.javaapi.core.Assertion;
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.OpenInjectionStep;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+/**
+ * 压测公共配置
+ *
+ * 通过系统属性传入，例如：
+ * <pre>
+ * mvn gatling:test -Dgatling.simulationClass=com.ainovel.server.perf.UniversalAIStreamSimulation \
+ *   -Dperf.baseUrl=http://localhost:18080 -Dperf.username=perf -Dperf.password=perf123 \
+ *   -Dperf.modelConfigId=xxx -Dperf.novelId=xxx -Dperf.users=50
+ * </pre>
+ * AI 相关场景应使用 provider 为 mock 的模型配置（服务端开启 ainovel.ai.mock-provider.enabled），
+ * 不产生供应商费用；模型名称选择档位（default/fast/slow/flaky/rate-limited）。
+ */
+public final class PerfSettings {
+
+    public static final String BASE_URL = System.getProperty("perf.baseUrl", "http://localhost:18080");
+    public static final String USERNAME = System.getProperty("perf.username", "perf");
+    public static final String PASSWORD = System.getProperty("perf.password", "perf123");
+
+    public static final String MODEL_CONFIG_ID = System.getProperty("perf.modelConfigId", "");
+    public static final String NOVEL_ID = System.getProperty("perf.novelId", "");
+    public static final String CHAPTER_ID = System.getProperty("perf.chapterId", "");
+    public static final String SCENE_ID = System.getProperty("perf.sceneId", "");
+    public static final String END_CHAPTER_ID = System.getProperty("perf.endChapterId", CHAPTER_ID);
+
+    /** 虚拟用户数 */
+    public static final int USERS = Integer.getInteger("perf.users", 20);
+    /** 虚拟用户启动的爬坡时间 */
+    public static final Duration RAMP = Duration.ofSeconds(Integer.getInteger("perf.rampSeconds", 30));
+    /** 每个虚拟用户的持续时间 */
+    public static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("perf.durationSeconds", 120));
+
+    /** 断言：成功率下限（百分比） */
+    public static final double MIN_SUCCESS_PERCENT = Double.parseDouble(System.getProperty("perf.minSuccessPercent", "99"));
+    /** 断言：p95 响应时间上限（毫秒） */
+    public static final int MAX_P95_MILLIS = Integer.getInteger("perf.maxP95Millis", 30_000);
+
+    private PerfSettings() {
+    }
+
+    public static HttpProtocolBuilder httpProtocol() {
+        return http.baseUrl(BASE_URL)
+                .acceptHeader("application/json")
+                .contentTypeHeader("application/json")
+                .acceptEncodingHeader("gzip")
+                .userAgentHeader("ainovel-gatling");
+    }
+
+    /**
+     * 登录并保存 token、userId
+     */
+    public static ChainBuilder login() {
+        return exec(http("登录")
+                .post("/api/v1/auth/login")
+                .body(StringBody("{\"username\":\"" + USERNAME + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .check(status().is(200), jsonPath("$.token").saveAs("token"), jsonPath("$.userId").saveAs("userId")));
+    }
+
+    public static OpenInjectionStep injection() {
+        return rampUsers(USERS).during(RAMP);
+    }
+
+    public static Assertion[] assertions() {
+        return new Assertion[] {
+                global().successfulRequests().percent().gte(MIN_SUCCESS_PERCENT),
+                global().responseTime().percentile(95.0).lte(MAX_P95_MILLIS)
+        };
+    }
+}
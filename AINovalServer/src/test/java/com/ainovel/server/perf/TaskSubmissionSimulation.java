@@ -0,0 +1,60 @@
+package com.ainovel.server.perf;
+
+import static io.gatling.javaapi.core.CoreDsl.StringBody;
+import static io.gatling.javaapi.core.CoreDsl.asLongAs;
+import static io.gatling.javaapi.core.CoreDsl.during;
+import static io.gatling.javaapi.core.CoreDsl.exec;
+import static io.gatling.javaapi.core.CoreDsl.jsonPath;
+import static io.gatling.javaapi.core.CoreDsl.pause;
+import static io.gatling.javaapi.core.CoreDsl.scenario;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+import java.time.Duration;
+import java.util.Set;
+
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+
+/**
+ * 后台任务压测：提交批量摘要任务并轮询状态直至结束
+ *
+ * 章节范围为 perf.chapterId 到 perf.endChapterId；模型配置应使用 mock 提供商。
+ */
+public class TaskSubmissionSimulation extends Simulation {
+
+    private static final Set<String> TERMINAL = Set.of(
+            "COMPLETED", "FAILED", "CANCELLED", "DEAD_LETTER", "COMPLETED_WITH_ERRORS");
+    private static final int MAX_POLLS = Integer.getInteger("perf.maxPolls", 120);
+
+    private final ScenarioBuilder tasks = scenario("批量摘要任务")
+            .exec(PerfSettings.login())
+            .exec(during(PerfSettings.DURATION).on(
+                    http("提交批量摘要任务")
+                            .post("/api/tasks/batch-generate-summary")
+                            .header("Authorization", "Bearer #{token}")
+                            .body(StringBody("""
+                                    {"novelId":"%s","startChapterId":"%s","endChapterId":"%s","aiConfigId":"%s",
+                                     "overwriteExisting":true}
+                                    """.formatted(PerfSettings.NOVEL_ID, PerfSettings.CHAPTER_ID,
+                                    PerfSettings.END_CHAPTER_ID, PerfSettings.MODEL_CONFIG_ID)))
+                            .check(status().is(202), jsonPath("$.taskId").saveAs("taskId")),
+                    exec(session -> session.set("taskStatus", "QUEUED").set("polls", 0)),
+                    asLongAs(session -> !TERMINAL.contains(session.getString("taskStatus"))
+                            && session.getInt("polls") < MAX_POLLS).on(
+                            pause(Duration.ofSeconds(1)),
+                            http("查询任务状态")
+                                    .get("/api/v1/api/tasks/#{taskId}/status")
+                                    .header("Authorization", "Bearer #{token}")
+                                    .check(status().is(200), jsonPath("$.status").saveAs("taskStatus")),
+                            exec(session -> session.set("polls", session.getInt("polls") + 1))
+                    ),
+                    pause(Duration.ofSeconds(2), Duration.ofSeconds(5))
+            ));
+
+    {
+        setUp(tasks.injectOpen(PerfSettings.injection()))
+                .protocols(PerfSettings.httpProtocol())
+                .assertions(PerfSettings.assertions());
+    }
+}
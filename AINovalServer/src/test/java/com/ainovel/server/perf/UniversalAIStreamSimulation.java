@@ -0,0 +1,61 @@
+package com.ainovel.server.perf;
+
+import static io.gatling.javaapi.core.CoreDsl.StringBody;
+import static io.gatling.javaapi.core.CoreDsl.during;
+import static io.gatling.javaapi.core.CoreDsl.pause;
+import static io.gatling.javaapi.core.CoreDsl.scenario;
+import static io.gatling.javaapi.core.CoreDsl.substring;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+import java.time.Duration;
+
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+
+/**
+ * 通用AI接口压测：流式扩写与非流式请求
+ *
+ * 流式请求按普通 POST 计时，响应时间为整个流的耗时；流没有正常结束或结束事件带 hasError 时判为失败。
+ */
+public class UniversalAIStreamSimulation extends Simulation {
+
+    private static final String REQUEST_BODY = """
+            {"requestType":"#{requestType}","userId":"#{userId}","novelId":"%s","sceneId":"%s",
+             "modelConfigId":"%s","selectedText":"夜色渐深，他推开了那扇旧木门。",
+             "instructions":"扩写为一段三百字左右的场景描写","parameters":{"temperature":0.7,"maxTokens":800}}
+            """.formatted(PerfSettings.NOVEL_ID, PerfSettings.SCENE_ID, PerfSettings.MODEL_CONFIG_ID);
+
+    private final ScenarioBuilder stream = scenario("通用AI-流式")
+            .exec(PerfSettings.login())
+            .exec(session -> session.set("requestType", "expansion"))
+            .exec(during(PerfSettings.DURATION).on(
+                    http("通用AI流式")
+                            .post("/api/v1/ai/universal/stream")
+                            .header("Authorization", "Bearer #{token}")
+                            .header("Accept", "text/event-stream")
+                            .body(StringBody(REQUEST_BODY))
+                            .check(status().is(200), substring("[DONE]").exists(), substring("\"hasError\":true").notExists()),
+                    pause(Duration.ofSeconds(1), Duration.ofSeconds(3))
+            ));
+
+    private final ScenarioBuilder request = scenario("通用AI-非流式")
+            .exec(PerfSettings.login())
+            .exec(session -> session.set("requestType", "summary"))
+            .exec(during(PerfSettings.DURATION).on(
+                    http("通用AI非流式")
+                            .post("/api/v1/ai/universal/request")
+                            .header("Authorization", "Bearer #{token}")
+                            .body(StringBody(REQUEST_BODY))
+                            .check(status().is(200)),
+                    pause(Duration.ofSeconds(1), Duration.ofSeconds(3))
+            ));
+
+    {
+        setUp(
+                stream.injectOpen(PerfSettings.injection()),
+                request.injectOpen(PerfSettings.injection())
+        ).protocols(PerfSettings.httpProtocol())
+                .assertions(PerfSettings.assertions());
+    }
+}
@@ -0,0 +1,123 @@
+package com.ainovel.server.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.ainovel.server.config.RabbitMQConfig;
+import com.ainovel.server.domain.model.User;
+import com.ainovel.server.service.JwtService;
+import com.ainovel.server.service.UserService;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import reactor.core.publisher.Mono;
+
+/**
+ * 认证主体缓存测试
+ * 验证已验签令牌只解析一次、缓存期间过期的令牌不再命中、令牌版本提升或角色变更事件后重新加载用户，以及只广播本节点发起的变更
+ */
+class PrincipalCacheTest {
+
+    private static final String TOKEN = "header.payload.signature";
+
+    private final JwtService jwtService = mock(JwtService.class);
+    private final UserService userService = mock(UserService.class);
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final AtomicReference<User> storedUser = new AtomicReference<>(user(1, List.of("USER")));
+    private final PrincipalCache cache;
+
+    @SuppressWarnings("unchecked")
+    PrincipalCacheTest() {
+        ObjectProvider<RabbitTemplate> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(rabbitTemplate);
+        when(userService.findUserById("u1")).thenAnswer(inv -> Mono.just(storedUser.get()));
+        cache = new PrincipalCache(jwtService, userService, provider, 100, 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void verifiedTokenIsParsedOnce() {
+        JwtClaims claims = claims(1, new Date(System.currentTimeMillis() + 60_000));
+        when(jwtService.parseToken(TOKEN)).thenReturn(claims);
+
+        assertSame(claims, cache.verify(TOKEN));
+        assertSame(claims, cache.verify(TOKEN));
+
+        verify(jwtService, times(1)).parseToken(TOKEN);
+    }
+
+    @Test
+    void tokenThatExpiredWhileCachedIsNotServed() throws Exception {
+        when(jwtService.parseToken(TOKEN))
+                .thenReturn(claims(1, new Date(System.currentTimeMillis() + 50)))
+                .thenThrow(new ExpiredJwtException(null, null, "JWT expired"));
+        cache.verify(TOKEN);
+
+        Thread.sleep(100);
+
+        // 缓存中的声明已过期，重新解析得到标准的过期异常
+        assertThrows(ExpiredJwtException.class, () -> cache.verify(TOKEN));
+        verify(jwtService, times(2)).parseToken(TOKEN);
+    }
+
+    @Test
+    void tokenVersionBumpReloadsTheUser() {
+        assertEquals(1, PrincipalCache.tokenVersionOf(cache.resolveUser(claims(1, null)).block()));
+        cache.resolveUser(claims(1, null)).block();
+        verify(userService, times(1)).findUserById("u1");
+
+        storedUser.set(user(2, List.of("USER")));
+        User reloaded = cache.resolveUser(claims(2, null)).block();
+
+        assertEquals(2, PrincipalCache.tokenVersionOf(reloaded));
+        verify(userService, times(2)).findUserById("u1");
+    }
+
+    @Test
+    void roleChangeEventEvictsTheCachedUser() {
+        cache.resolveUser(claims(1, null)).block();
+        storedUser.set(user(1, List.of("USER", "ADMIN")));
+
+        // 未失效前仍命中缓存
+        assertEquals(List.of("USER"), cache.resolveUser(claims(1, null)).block().getRoles());
+
+        cache.onUserPrincipalChanged(new UserPrincipalChangedEvent("u1", 1));
+
+        assertEquals(List.of("USER", "ADMIN"), cache.resolveUser(claims(1, null)).block().getRoles());
+        verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.PRINCIPAL_INVALIDATION_EXCHANGE), eq(""),
+                any(PrincipalCache.PrincipalInvalidationMessage.class));
+    }
+
+    @Test
+    void remoteEventEvictsWithoutRebroadcasting() {
+        cache.resolveUser(claims(1, null)).block();
+
+        cache.onUserPrincipalChanged(UserPrincipalChangedEvent.fromRemote("u1", 1));
+        cache.resolveUser(claims(1, null)).block();
+
+        verify(userService, times(2)).findUserById("u1");
+        verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), any(Object.class));
+    }
+
+    private static JwtClaims claims(int tokenVersion, Date expiration) {
+        return new JwtClaims("writer", "u1", List.of("USER"), List.of(), tokenVersion, "jti-1", expiration);
+    }
+
+    private static User user(int tokenVersion, List<String> roles) {
+        return User.builder().id("u1").username("writer").tokenVersion(tokenVersion).roles(roles).build();
+    }
+}
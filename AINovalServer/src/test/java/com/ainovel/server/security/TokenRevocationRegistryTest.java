@@ -0,0 +1,71 @@
+package com.ainovel.server.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import com.ainovel.server.domain.model.User;
+import com.ainovel.server.service.UserService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * 长连接令牌撤销测试
+ * 验证只关闭版本落后的连接、迟到的旧版本广播不影响新令牌，以及用户不存在时关闭全部连接
+ */
+class TokenRevocationRegistryTest {
+
+    private final UserService userService = mock(UserService.class);
+    private final TokenRevocationRegistry registry = new TokenRevocationRegistry(userService, new SimpleMeterRegistry());
+
+    @Test
+    void onlyConnectionsWithAnOlderVersionAreClosed() {
+        AtomicBoolean oldClosed = watch("u1", 1);
+        AtomicBoolean currentClosed = watch("u1", 2);
+        AtomicBoolean newerClosed = watch("u1", 3);
+
+        // 版本 2 的广播迟于版本 3 的令牌签发到达
+        registry.revoke("u1", 2);
+
+        assertTrue(oldClosed.get());
+        assertFalse(currentClosed.get());
+        assertFalse(newerClosed.get());
+        assertEquals(2, registry.getWatchCount());
+    }
+
+    @Test
+    void versionIsLookedUpWhenTheEventCarriesNone() {
+        AtomicBoolean oldClosed = watch("u1", 1);
+        AtomicBoolean currentClosed = watch("u1", 4);
+        when(userService.findUserById("u1")).thenReturn(Mono.just(User.builder().id("u1").tokenVersion(4).build()));
+
+        registry.revoke("u1", null);
+
+        assertTrue(oldClosed.get());
+        assertFalse(currentClosed.get());
+    }
+
+    @Test
+    void deletedUserLosesAllConnections() {
+        AtomicBoolean first = watch("u1", 1);
+        AtomicBoolean second = watch("u1", 7);
+        when(userService.findUserById("u1")).thenReturn(Mono.empty());
+
+        registry.revoke("u1", null);
+
+        assertTrue(first.get());
+        assertTrue(second.get());
+        assertEquals(0, registry.getWatchCount());
+    }
+
+    private AtomicBoolean watch(String userId, int tokenVersion) {
+        AtomicBoolean closed = new AtomicBoolean();
+        registry.revocation(userId, tokenVersion).subscribe(v -> { }, e -> { }, () -> closed.set(true));
+        return closed;
+    }
+}
@@ -0,0 +1,83 @@
+package com.ainovel.server.service.ai.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import com.ainovel.server.config.LLMResponseCacheConfig;
+import com.ainovel.server.domain.model.AIFeatureType;
+import com.ainovel.server.domain.model.AIRequest;
+
+/**
+ * LLM 响应缓存测试
+ * 验证生成参数参与缓存键、计费标记不影响缓存键、重新生成时跳过缓存，以及未显式开启时不缓存
+ */
+class LLMResponseCacheTest {
+
+    private final LLMResponseCache cache = new LLMResponseCache(mock(ReactiveMongoTemplate.class), config());
+
+    @Test
+    void generationParametersArePartOfTheKey() {
+        AIRequest base = request();
+        AIRequest withTopP = request();
+        withTopP.getParameters().put("topP", 0.5);
+        AIRequest sameTopPOtherOrder = request();
+        sameTopPOtherOrder.getParameters().put("topP", 0.5);
+        sameTopPOtherOrder.getParameters().put("modelConfigId", "cfg");
+        withTopP.getParameters().put("modelConfigId", "cfg");
+
+        assertNotEquals(cache.keyOf("openai", "gpt-4o", base), cache.keyOf("openai", "gpt-4o", withTopP));
+        assertEquals(cache.keyOf("openai", "gpt-4o", withTopP), cache.keyOf("openai", "gpt-4o", sameTopPOtherOrder));
+    }
+
+    @Test
+    void billingMarkersDoNotChangeTheKey() {
+        AIRequest first = request();
+        first.getParameters().put("providerSpecific", Map.of("requestIdempotencyKey", "a"));
+        AIRequest second = request();
+        second.getParameters().put("providerSpecific", Map.of("requestIdempotencyKey", "b"));
+
+        assertEquals(cache.keyOf("openai", "gpt-4o", first), cache.keyOf("openai", "gpt-4o", second));
+    }
+
+    @Test
+    void bypassedRequestIsNotCacheable() {
+        AIRequest request = request();
+        assertEquals(Duration.ofDays(7), cache.resolveTtl(request));
+
+        assertNull(cache.resolveTtl(LLMResponseCache.bypass(request)));
+    }
+
+    @Test
+    void cacheIsOffUnlessEnabled() {
+        LLMResponseCacheConfig defaults = new LLMResponseCacheConfig();
+        defaults.getFeatures().put("SCENE_TO_SUMMARY", Duration.ofDays(7));
+        LLMResponseCache disabled = new LLMResponseCache(mock(ReactiveMongoTemplate.class), defaults);
+
+        assertNull(disabled.resolveTtl(request()));
+    }
+
+    private static AIRequest request() {
+        AIRequest request = new AIRequest();
+        request.setUserId("u1");
+        request.setFeatureType(AIFeatureType.SCENE_TO_SUMMARY);
+        request.setTemperature(0.7);
+        AIRequest.Message message = new AIRequest.Message();
+        message.setRole("user");
+        message.setContent("场景内容");
+        request.getMessages().add(message);
+        return request;
+    }
+
+    private static LLMResponseCacheConfig config() {
+        LLMResponseCacheConfig config = new LLMResponseCacheConfig();
+        config.setEnabled(true);
+        config.getFeatures().put("SCENE_TO_SUMMARY", Duration.ofDays(7));
+        return config;
+    }
+}
@@ -0,0 +1,86 @@
+package com.ainovel.server.service.ai.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.ainovel.server.domain.model.AIRequest;
+import com.ainovel.server.domain.model.AIResponse;
+import com.ainovel.server.service.ai.AIModelProvider;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * 响应缓存装饰器的流式缓存测试
+ * 验证未命中时原样转发并缓存全文（不含心跳）、命中时一次下发，以及错误分片不写入缓存
+ */
+class ResponseCachingAIModelProviderDecoratorTest {
+
+    private final AIRequest request = new AIRequest();
+
+    private AIModelProvider provider;
+    private LLMResponseCache cache;
+    private ResponseCachingAIModelProviderDecorator decorator;
+
+    @BeforeEach
+    void setUp() {
+        provider = mock(AIModelProvider.class);
+        when(provider.getProviderName()).thenReturn("openai");
+        when(provider.getModelName()).thenReturn("gpt-4o");
+        cache = mock(LLMResponseCache.class);
+        when(cache.resolveTtl(request)).thenReturn(Duration.ofDays(1));
+        when(cache.keyOf("openai", "gpt-4o", request)).thenReturn("k");
+        when(cache.put(anyString(), any(), anyString(), any(), any())).thenReturn(Mono.empty());
+        decorator = new ResponseCachingAIModelProviderDecorator(provider, cache);
+    }
+
+    @Test
+    void missForwardsChunksAndCachesTheFullText() {
+        when(cache.get("k")).thenReturn(Mono.empty());
+        when(provider.generateContentStream(request)).thenReturn(Flux.just("[{\"a\"", "heartbeat", ":1}]"));
+
+        StepVerifier.create(decorator.generateContentStream(request))
+                .expectNext("[{\"a\"", "heartbeat", ":1}]")
+                .verifyComplete();
+
+        ArgumentCaptor<AIResponse> cached = ArgumentCaptor.forClass(AIResponse.class);
+        verify(cache).put(eq("k"), eq(request), eq("openai"), eq(Duration.ofDays(1)), cached.capture());
+        assertEquals("[{\"a\":1}]", cached.getValue().getContent());
+    }
+
+    @Test
+    void hitEmitsTheCachedTextWithoutCallingTheProvider() {
+        AIResponse hit = new AIResponse();
+        hit.setContent("缓存内容");
+        when(cache.get("k")).thenReturn(Mono.just(hit));
+
+        StepVerifier.create(decorator.generateContentStream(request))
+                .expectNext("缓存内容")
+                .verifyComplete();
+        verify(provider, never()).generateContentStream(any());
+    }
+
+    @Test
+    void errorChunkIsNotCached() {
+        when(cache.get("k")).thenReturn(Mono.empty());
+        when(provider.generateContentStream(request)).thenReturn(Flux.just("部分", "错误：429 Too Many Requests"));
+
+        StepVerifier.create(decorator.generateContentStream(request))
+                .expectNextCount(2)
+                .verifyComplete();
+        verify(cache, never()).put(anyString(), any(), anyString(), any(), any());
+    }
+}
@@ -0,0 +1,279 @@
+package com.ainovel.server.service.ai.observability;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ainovel.server.domain.model.AIRequest;
+import com.ainovel.server.domain.model.AIResponse;
+import com.ainovel.server.domain.model.observability.LLMTrace;
+import com.ainovel.server.service.ai.AIModelProvider;
+import com.ainovel.server.service.ai.TracingAIModelProviderDecorator;
+import com.ainovel.server.service.ai.observability.events.LLMTraceEvent;
+
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Hooks;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+/**
+ * Trace 随 Reactor Context 传递的并发测试
+ * 少量事件循环线程上交替执行大量流式生成，模拟监听器在 chat() 调用内同步读取 trace、
+ * 在其他线程回调响应，验证每个 trace 最终拿到的都是自己的请求与响应。
+ */
+class TraceContextPropagationTest {
+
+    private static final int GENERATIONS = 5000;
+    private static final int CHUNKS = 3;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TraceContextManager manager;
+    private Scheduler eventLoop;
+    private Queue<LLMTrace> published;
+    private Queue<String> mismatches;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        manager = new TraceContextManager(meterRegistry, 100_000, Duration.ofMinutes(5));
+        eventLoop = Schedulers.newParallel("test-loop", 2);
+        published = new ConcurrentLinkedQueue<>();
+        mismatches = new ConcurrentLinkedQueue<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventLoop.dispose();
+        Hooks.disableAutomaticContextPropagation();
+    }
+
+    @Test
+    void interleavedStreamsKeepTheirOwnTrace() {
+        runInterleavedStreams();
+    }
+
+    @Test
+    void interleavedStreamsKeepTheirOwnTraceWithAutomaticPropagation() {
+        Hooks.enableAutomaticContextPropagation();
+        runInterleavedStreams();
+    }
+
+    @Test
+    void retriedCallSeesTraceOnEveryAttempt() {
+        ListenerLikeProvider provider = new ListenerLikeProvider();
+        TracingAIModelProviderDecorator decorated = new TracingAIModelProviderDecorator(provider, this::publish, manager, false);
+
+        List<AIResponse> responses = Flux.range(0, 200)
+                .flatMap(i -> decorated.generateContent(request("retry-" + i)), 64)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+        assertNotNull(responses);
+        assertEquals(200, responses.size());
+        assertTrue(mismatches.isEmpty(), () -> "trace 串号: " + mismatches);
+        assertEquals(200, published.size());
+        for (LLMTrace trace : published) {
+            assertEquals(trace.getTraceId(), trace.getResponse().getMessage().getContent(), "响应归属错误");
+            // 每个请求第一次调用失败后重试一次，两次 chat() 都应读到同一个 trace
+            assertEquals(2, provider.requestCalls.get(trace.getTraceId()).get());
+        }
+        assertEquals(0, manager.getContextSize());
+    }
+
+    @Test
+    void unreleasedTracesAreBoundedAndExposedAsGauge() throws InterruptedException {
+        TraceContextManager bounded = new TraceContextManager(meterRegistry, 10, Duration.ofMinutes(5));
+        for (int i = 0; i < 100; i++) {
+            bounded.register(LLMTrace.fromRequest("leak-" + i, "test", "test-model", request("leak-" + i)));
+        }
+        bounded.cleanup();
+
+        assertTrue(bounded.getContextSize() <= 10, "登记表超过容量上限: " + bounded.getContextSize());
+        // 淘汰通知在Caffeine的后台执行器上发出，稍等计数追上
+        Counter evicted = meterRegistry.get("llm.trace.evicted").counter();
+        for (int i = 0; i < 100 && evicted.count() < 90; i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(evicted.count() >= 90, "淘汰计数: " + evicted.count());
+
+        LLMTrace kept = LLMTrace.fromRequest("kept", "test", "test-model", request("kept"));
+        bounded.register(kept);
+        assertSame(kept, bounded.findTrace("kept"));
+        bounded.release(kept);
+        assertNull(bounded.findTrace("kept"));
+        assertNull(bounded.getTrace(), "作用域外不应读到trace");
+    }
+
+    private void runInterleavedStreams() {
+        ListenerLikeProvider provider = new ListenerLikeProvider();
+        // 流式事件统一由装饰器发布
+        TracingAIModelProviderDecorator decorated = new TracingAIModelProviderDecorator(provider, this::publish, manager, true);
+
+        Long total = Flux.range(0, GENERATIONS)
+                .flatMap(i -> decorated.generateContentStream(request("stream-" + i)), 512)
+                .count()
+                .block(Duration.ofSeconds(60));
+
+        assertEquals((long) GENERATIONS * CHUNKS, total);
+        assertTrue(mismatches.isEmpty(), () -> "trace 串号: " + mismatches.stream().limit(10).toList());
+        assertEquals(GENERATIONS, published.size());
+        for (LLMTrace trace : published) {
+            String id = trace.getTraceId();
+            assertEquals(id, trace.getUserId(), "请求归属错误");
+            assertEquals("resp-" + id, trace.getResponse().getMetadata().getId(), "响应归属错误: " + id);
+            assertEquals(expectedContent(id), trace.getResponse().getMessage().getContent(), "内容归属错误: " + id);
+        }
+        assertEquals(0, manager.getContextSize(), "结束后仍有trace未释放");
+        Gauge live = meterRegistry.get("llm.trace.live").gauge();
+        assertEquals(0.0, live.value());
+    }
+
+    private void publish(Object event) {
+        published.add(((LLMTraceEvent) event).getTrace());
+    }
+
+    private static AIRequest request(String id) {
+        AIRequest request = new AIRequest();
+        request.setTraceId(id);
+        request.setUserId(id);
+        request.setModel("test-model");
+        return request;
+    }
+
+    private static String expectedContent(String id) {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < CHUNKS; i++) {
+            content.append(id).append('#').append(i);
+        }
+        return content.toString();
+    }
+
+    /**
+     * 与 LangChain4jModelProvider 相同的调用方式：订阅时用 Context 打开作用域，
+     * 作用域内同步执行"onRequest"读取 trace 并放入请求 attributes，之后在其他线程回调"onResponse"
+     */
+    private final class ListenerLikeProvider implements AIModelProvider {
+
+        private final Map<String, AtomicInteger> requestCalls = new ConcurrentHashMap<>();
+
+        @Override
+        public Flux<String> generateContentStream(AIRequest request) {
+            return Flux.deferContextual(ctx -> {
+                Map<String, Object> attributes = new HashMap<>();
+                try (ContextSnapshot.Scope traceScope = TraceContextManager.openScope(ctx)) {
+                    onRequest(request, attributes);
+                }
+                assertOutOfScope(request);
+                return Flux.interval(Duration.ofMillis(1), eventLoop)
+                        .take(CHUNKS)
+                        .map(i -> request.getTraceId() + "#" + i)
+                        .concatWith(Mono.fromRunnable(() -> onResponse(request, attributes)));
+            }).subscribeOn(eventLoop);
+        }
+
+        @Override
+        public Mono<AIResponse> generateContent(AIRequest request) {
+            return Mono.deferContextual(ctx -> {
+                Map<String, Object> attributes = new HashMap<>();
+                int attempt;
+                try (ContextSnapshot.Scope traceScope = TraceContextManager.openScope(ctx)) {
+                    attempt = onRequest(request, attributes);
+                }
+                if (attempt == 1) {
+                    return Mono.error(new IllegalStateException("首次调用失败"));
+                }
+                onResponse(request, attributes);
+                AIResponse response = new AIResponse();
+                response.setContent(request.getTraceId());
+                return Mono.just(response);
+            })
+            .subscribeOn(eventLoop)
+            .retryWhen(Retry.backoff(1, Duration.ofMillis(5)));
+        }
+
+        private int onRequest(AIRequest request, Map<String, Object> attributes) {
+            LLMTrace trace = manager.getTrace();
+            if (trace == null || !request.getTraceId().equals(trace.getTraceId())) {
+                mismatches.add(request.getTraceId() + " 读到 " + (trace == null ? null : trace.getTraceId()));
+            }
+            attributes.put("llm.trace", trace);
+            return requestCalls.computeIfAbsent(request.getTraceId(), k -> new AtomicInteger()).incrementAndGet();
+        }
+
+        private void onResponse(AIRequest request, Map<String, Object> attributes) {
+            if (attributes.get("llm.trace") instanceof LLMTrace trace) {
+                trace.setResponseFromStreamingResult("", Instant.now());
+                trace.getResponse().getMetadata().setId("resp-" + request.getTraceId());
+            }
+        }
+
+        private void assertOutOfScope(AIRequest request) {
+            // 作用域关闭后线程上不能残留别的请求的trace（自动传播模式下可能恢复为本请求自己的trace）
+            LLMTrace leaked = manager.getTrace();
+            if (leaked != null && !request.getTraceId().equals(leaked.getTraceId())) {
+                mismatches.add(request.getTraceId() + " 作用域外残留 " + leaked.getTraceId());
+            }
+        }
+
+        @Override
+        public String getProviderName() {
+            return "test";
+        }
+
+        @Override
+        public String getModelName() {
+            return "test-model";
+        }
+
+        @Override
+        public Mono<Double> estimateCost(AIRequest request) {
+            return Mono.just(0.0);
+        }
+
+        @Override
+        public Mono<Boolean> validateApiKey() {
+            return Mono.just(true);
+        }
+
+        @Override
+        public void setProxy(String host, int port) {
+        }
+
+        @Override
+        public void disableProxy() {
+        }
+
+        @Override
+        public boolean isProxyEnabled() {
+            return false;
+        }
+
+        @Override
+        public String getApiKey() {
+            return "test";
+        }
+
+        @Override
+        public String getApiEndpoint() {
+            return null;
+        }
+    }
+}
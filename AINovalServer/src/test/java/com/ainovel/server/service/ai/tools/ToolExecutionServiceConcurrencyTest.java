@@ -0,0 +1,315 @@
+package com.ainovel.server.service.ai.tools;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ainovel.server.domain.model.setting.generation.SettingNode;
+import com.ainovel.server.service.ai.tools.events.ToolEvent;
+import com.ainovel.server.service.setting.generation.tools.BatchCreateNodesTool;
+import com.ainovel.server.service.setting.generation.tools.CreateSettingNodeTool;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * ToolExecutionService 并发执行测试
+ * 验证并行执行、结果顺序、并发上限（含同组工具共用通道、同一上下文的并发调用共享上限），以及多上下文并发时事件不丢失、序号不重复
+ */
+class ToolExecutionServiceConcurrencyTest {
+
+    private ToolRegistry registry;
+    private SimpleMeterRegistry meterRegistry;
+    private ToolExecutionService service;
+
+    @BeforeEach
+    void setUp() {
+        registry = new ToolRegistry();
+        meterRegistry = new SimpleMeterRegistry();
+        service = new ToolExecutionService(registry, new ObjectMapper(), meterRegistry, 32, 100_000, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void independentCallsRunInParallelAndKeepRequestOrder() {
+        String contextId = "ctx-parallel";
+        registry.registerToolForContext(contextId, new SleepingTool("slow_tool", 0, 200));
+
+        long start = System.nanoTime();
+        List<ChatMessage> results = service.executeToolCalls(batch("slow_tool", 10, 0), contextId);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(10, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            ToolExecutionResultMessage message = (ToolExecutionResultMessage) results.get(i);
+            assertEquals("call-0-" + i, message.id());
+            assertTrue(message.text().contains("\"index\":" + i), message.text());
+        }
+        // 串行需要 2 秒
+        assertTrue(elapsedMillis < 1000, "并行执行耗时过长: " + elapsedMillis + "ms");
+    }
+
+    @Test
+    void toolWithConcurrencyLimitRunsInRequestOrder() {
+        String contextId = "ctx-ordered";
+        SleepingTool ordered = new SleepingTool("ordered_tool", 1, 20);
+        registry.registerToolForContext(contextId, ordered);
+        registry.registerToolForContext(contextId, new SleepingTool("free_tool", 0, 20));
+
+        List<ToolExecutionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            requests.add(request("ordered_tool", "o-" + i, i));
+            requests.add(request("free_tool", "f-" + i, i));
+        }
+        List<ChatMessage> results = service.executeToolCalls(AiMessage.from(requests), contextId);
+
+        assertEquals(12, results.size());
+        assertEquals(1, ordered.maxObservedConcurrency.get());
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), ordered.executionOrder);
+    }
+
+    @Test
+    void concurrencyLimitIsSharedAcrossConcurrentCallsOnTheSameContext() throws Exception {
+        String contextId = "ctx-shared";
+        SleepingTool limited = new SleepingTool("limited_tool", 2, 10);
+        registry.registerToolForContext(contextId, limited);
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<ChatMessage>>> futures = new ArrayList<>();
+            for (int c = 0; c < 8; c++) {
+                // 一半是单个调用，一半是批量调用，都不能突破分组上限
+                int size = c % 2 == 0 ? 1 : 4;
+                int batchIndex = c;
+                futures.add(callers.submit(() -> service.executeToolCalls(batch("limited_tool", size, batchIndex), contextId)));
+            }
+            int total = 0;
+            for (Future<List<ChatMessage>> future : futures) {
+                total += future.get(30, TimeUnit.SECONDS).size();
+            }
+            assertEquals(20, total);
+        } finally {
+            callers.shutdownNow();
+        }
+        assertEquals(2, limited.maxObservedConcurrency.get());
+        assertEquals(20, limited.executionOrder.size());
+    }
+
+    @Test
+    void settingSessionToolsShareOneSerialLaneSoChildrenFollowParents() {
+        String contextId = "ctx-setting";
+        // 与设定生成会话一样：非线程安全的节点表，创建子节点前校验父节点已存在
+        Map<String, SettingNode> generatedNodes = new HashMap<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CreateSettingNodeTool.SettingNodeHandler handler = node -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+                if (node.getParentId() != null && !generatedNodes.containsKey(node.getParentId())) {
+                    return false;
+                }
+                generatedNodes.put(node.getId(), node);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                running.decrementAndGet();
+            }
+        };
+        registry.registerToolForContext(contextId, new CreateSettingNodeTool(handler));
+        registry.registerToolForContext(contextId, new BatchCreateNodesTool(handler, new ConcurrentHashMap<>()));
+
+        List<ToolExecutionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            String parent = i == 0 ? "null" : "\"n-" + (i - 1) + "\"";
+            requests.add(ToolExecutionRequest.builder()
+                    .id("c-" + i)
+                    .name("create_setting_node")
+                    .arguments("{\"id\":\"n-" + i + "\",\"name\":\"节点" + i + "\",\"type\":\"LORE\","
+                            + "\"description\":\"描述\",\"parentId\":" + parent + "}")
+                    .build());
+        }
+        List<ChatMessage> results = service.executeToolCalls(AiMessage.from(requests), contextId);
+
+        assertEquals(8, results.size());
+        for (ChatMessage result : results) {
+            assertTrue(((ToolExecutionResultMessage) result).text().contains("\"success\":true"), result.toString());
+        }
+        assertEquals(1, maxRunning.get());
+        assertEquals(8, generatedNodes.size());
+    }
+
+    @Test
+    void failingCallReturnsErrorWithoutAffectingSiblings() {
+        String contextId = "ctx-error";
+        registry.registerToolForContext(contextId, new SleepingTool("slow_tool", 0, 5));
+
+        List<ToolExecutionRequest> requests = List.of(
+                request("slow_tool", "ok-1", 1),
+                request("missing_tool", "bad", 2),
+                request("slow_tool", "ok-2", 3));
+        List<ChatMessage> results = service.executeToolCalls(AiMessage.from(requests), contextId);
+
+        assertEquals(3, results.size());
+        assertTrue(((ToolExecutionResultMessage) results.get(0)).text().contains("\"index\":1"));
+        assertTrue(((ToolExecutionResultMessage) results.get(1)).text().contains("\"success\":false"));
+        assertTrue(((ToolExecutionResultMessage) results.get(2)).text().contains("\"index\":3"));
+    }
+
+    @Test
+    void concurrentContextsLoseNoEventsAndNeverDuplicateSequences() throws Exception {
+        int contexts = 300;
+        int batchesPerContext = 3;
+        int callsPerBatch = 8;
+
+        Map<String, List<ToolEvent>> received = new ConcurrentHashMap<>();
+        CountDownLatch completed = new CountDownLatch(contexts);
+        for (int c = 0; c < contexts; c++) {
+            String contextId = "ctx-" + c;
+            registry.registerToolForContext(contextId, new SleepingTool("slow_tool", 0, 3));
+            registry.registerToolForContext(contextId, new SleepingTool("ordered_tool", 1, 1));
+            List<ToolEvent> events = new CopyOnWriteArrayList<>();
+            received.put(contextId, events);
+            service.subscribeToContext(contextId).subscribe(events::add, e -> completed.countDown(), completed::countDown);
+        }
+
+        ExecutorService callers = Executors.newFixedThreadPool(64);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < contexts; c++) {
+                String contextId = "ctx-" + c;
+                futures.add(callers.submit(() -> {
+                    // 同一上下文内的批次依次执行（与工具循环一致），不同上下文之间并发
+                    for (int b = 0; b < batchesPerContext; b++) {
+                        List<ToolExecutionRequest> requests = new ArrayList<>();
+                        for (int i = 0; i < callsPerBatch; i++) {
+                            String tool = i % 4 == 0 ? "ordered_tool" : "slow_tool";
+                            requests.add(request(tool, "call-" + b + "-" + i, i));
+                        }
+                        List<ChatMessage> results = service.executeToolCalls(AiMessage.from(requests), contextId);
+                        assertEquals(callsPerBatch, results.size());
+                    }
+                    service.closeContext(contextId);
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        assertTrue(completed.await(10, TimeUnit.SECONDS), "部分上下文的事件流未结束");
+
+        int expectedEvents = batchesPerContext * callsPerBatch * 2;
+        for (Map.Entry<String, List<ToolEvent>> entry : received.entrySet()) {
+            List<ToolEvent> events = entry.getValue();
+            assertEquals(expectedEvents, events.size(), "事件丢失: " + entry.getKey());
+            for (int i = 0; i < events.size(); i++) {
+                assertEquals(i + 1L, events.get(i).getSequence(), "序号重复或乱序: " + entry.getKey());
+                assertEquals(entry.getKey(), events.get(i).getContextId());
+            }
+            long results = events.stream().filter(e -> "CALL_RESULT".equals(e.getEventType())).count();
+            assertEquals(batchesPerContext * callsPerBatch, results, "结果事件数量不符: " + entry.getKey());
+        }
+
+        Timer timer = meterRegistry.find("ai.tool.execution").tag("tool", "slow_tool").tag("outcome", "success").timer();
+        assertNotNull(timer);
+        assertEquals(contexts * batchesPerContext * callsPerBatch * 3L / 4, timer.count());
+    }
+
+    private static AiMessage batch(String toolName, int size, int batchIndex) {
+        List<ToolExecutionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            requests.add(request(toolName, "call-" + batchIndex + "-" + i, i));
+        }
+        return AiMessage.from(requests);
+    }
+
+    private static ToolExecutionRequest request(String toolName, String id, int index) {
+        return ToolExecutionRequest.builder()
+                .id(id)
+                .name(toolName)
+                .arguments("{\"index\":" + index + "}")
+                .build();
+    }
+
+    /**
+     * 睡眠一段时间后回显 index 的测试工具，记录执行顺序与观测到的最大并发数
+     */
+    private static final class SleepingTool implements ToolDefinition {
+        private final String name;
+        private final int maxConcurrency;
+        private final long sleepMillis;
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxObservedConcurrency = new AtomicInteger();
+        private final List<Integer> executionOrder = new CopyOnWriteArrayList<>();
+
+        SleepingTool(String name, int maxConcurrency, long sleepMillis) {
+            this.name = name;
+            this.maxConcurrency = maxConcurrency;
+            this.sleepMillis = sleepMillis;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getDescription() {
+            return name;
+        }
+
+        @Override
+        public ToolSpecification getSpecification() {
+            return ToolSpecification.builder().name(name).description(name).build();
+        }
+
+        @Override
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        @Override
+        public Object execute(Map<String, Object> parameters) {
+            int now = running.incrementAndGet();
+            maxObservedConcurrency.accumulateAndGet(now, Math::max);
+            try {
+                executionOrder.add(((Number) parameters.get("index")).intValue());
+                Thread.sleep(sleepMillis + ThreadLocalRandom.current().nextLong(2));
+                return Map.of("success", true, "index", parameters.get("index"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+}
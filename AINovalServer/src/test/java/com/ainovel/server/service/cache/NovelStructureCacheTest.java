@@ -0,0 +1,95 @@
+package com.ainovel.server.service.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.ainovel.server.domain.model.Novel;
+import com.ainovel.server.service.cache.NovelStructureCache.StructureIndex;
+
+/**
+ * 小说结构缓存测试
+ * 验证章节顺序索引按版本复用、更新时间或章节数量变化时重建、显式失效后重建，以及重复章节ID以首次出现为准
+ */
+class NovelStructureCacheTest {
+
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2026, 10, 1, 12, 0);
+
+    private final NovelStructureCache cache = new NovelStructureCache();
+
+    @Test
+    void indexIsReusedWhileTheVersionMatches() {
+        Novel novel = novel(UPDATED_AT, "c1", "c2", "c3");
+
+        StructureIndex first = cache.getStructureIndex(novel);
+        StructureIndex second = cache.getStructureIndex(novel(UPDATED_AT, "c1", "c2", "c3"));
+
+        assertSame(first, second);
+        assertEquals(3, first.size());
+        assertEquals(1, first.ordinalOf("c2"));
+        assertEquals(List.of("c2", "c3"), first.chapterIds(1, 3));
+    }
+
+    @Test
+    void indexIsRebuiltWhenTheVersionChanges() {
+        StructureIndex original = cache.getStructureIndex(novel(UPDATED_AT, "c1", "c2"));
+
+        // 小说保存后更新时间变化
+        StructureIndex saved = cache.getStructureIndex(novel(UPDATED_AT.plusSeconds(1), "c2", "c1"));
+        assertNotSame(original, saved);
+        assertNotEquals(original.getVersion(), saved.getVersion());
+        assertEquals(0, saved.ordinalOf("c2"));
+
+        // 更新时间未变但章节数量变化
+        StructureIndex added = cache.getStructureIndex(novel(UPDATED_AT.plusSeconds(1), "c2", "c1", "c3"));
+        assertNotSame(saved, added);
+        assertEquals(2, added.ordinalOf("c3"));
+    }
+
+    @Test
+    void evictForcesARebuild() {
+        Novel novel = novel(UPDATED_AT, "c1", "c2");
+        StructureIndex before = cache.getStructureIndex(novel);
+
+        cache.evict(novel.getId());
+
+        StructureIndex after = cache.getStructureIndex(novel);
+        assertNotSame(before, after);
+        assertEquals(before.getVersion(), after.getVersion());
+    }
+
+    @Test
+    void duplicateChapterIdsResolveToTheFirstOccurrence() {
+        Novel novel = novel(UPDATED_AT, "c1", "dup");
+        novel.getStructure().getActs().add(act("a2", "dup", "c3"));
+
+        StructureIndex index = cache.getStructureIndex(novel);
+
+        assertEquals(4, index.size());
+        assertEquals(1, index.ordinalOf("dup"));
+        assertEquals(-1, index.ordinalOf("missing"));
+        assertFalse(index.contains(null));
+    }
+
+    private static Novel novel(LocalDateTime updatedAt, String... chapterIds) {
+        List<Novel.Act> acts = new ArrayList<>();
+        acts.add(act("a1", chapterIds));
+        return Novel.builder()
+                .id("novel-1")
+                .updatedAt(updatedAt)
+                .structure(Novel.Structure.builder().acts(acts).build())
+                .build();
+    }
+
+    private static Novel.Act act(String actId, String... chapterIds) {
+        List<Novel.Chapter> chapters = new ArrayList<>();
+        for (String chapterId : chapterIds) {
+            chapters.add(Novel.Chapter.builder().id(chapterId).build());
+        }
+        return Novel.Act.builder().id(actId).chapters(chapters).build();
+    }
+}
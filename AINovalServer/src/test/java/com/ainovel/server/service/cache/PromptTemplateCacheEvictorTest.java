@@ -0,0 +1,52 @@
+package com.ainovel.server.service.cache;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+
+import com.ainovel.server.domain.model.EnhancedUserPromptTemplate;
+
+/**
+ * 提示词模板缓存失效测试
+ * 验证私有模板只失效作者，公开、审核中或系统模板以及删除时全部失效
+ */
+class PromptTemplateCacheEvictorTest {
+
+    private final PromptPackageCache cache = mock(PromptPackageCache.class);
+    private final PromptTemplateCacheEvictor evictor = new PromptTemplateCacheEvictor(cache);
+
+    @Test
+    void privateTemplateSaveInvalidatesOnlyTheAuthor() {
+        evictor.onAfterSave(saved(EnhancedUserPromptTemplate.builder().userId("u1").build()));
+
+        verify(cache).invalidateUser("u1");
+        verify(cache, never()).invalidateAll();
+    }
+
+    @Test
+    void sharedTemplateSaveInvalidatesEveryone() {
+        evictor.onAfterSave(saved(EnhancedUserPromptTemplate.builder().userId("u1").isPublic(true).build()));
+        evictor.onAfterSave(saved(EnhancedUserPromptTemplate.builder().userId("u1").reviewStatus("REJECTED").build()));
+        evictor.onAfterSave(saved(EnhancedUserPromptTemplate.builder().userId("system").build()));
+
+        verify(cache, times(3)).invalidateAll();
+        verify(cache, never()).invalidateUser("u1");
+    }
+
+    @Test
+    void deleteInvalidatesEveryone() {
+        evictor.onAfterDelete(new AfterDeleteEvent<>(new Document("_id", "t1"), EnhancedUserPromptTemplate.class, "enhanced_user_prompt_templates"));
+
+        verify(cache).invalidateAll();
+    }
+
+    private static AfterSaveEvent<EnhancedUserPromptTemplate> saved(EnhancedUserPromptTemplate template) {
+        return new AfterSaveEvent<>(template, new Document(), "enhanced_user_prompt_templates");
+    }
+}
@@ -0,0 +1,89 @@
+package com.ainovel.server.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ainovel.server.domain.model.User;
+import com.ainovel.server.security.JwtClaims;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+
+/**
+ * JWT 服务测试
+ * 验证一次解析得到全部认证声明、声明不可变、过期令牌和被篡改的令牌解析失败
+ */
+class JwtServiceImplTest {
+
+    private final JwtServiceImpl jwtService = jwtService(86_400_000L);
+
+    @Test
+    void parseTokenReadsEveryClaimOnce() {
+        User user = User.builder().id("u1").username("writer").tokenVersion(3).build();
+        String token = jwtService.generateTokenWithRolesAndPermissions(user, List.of("USER"), List.of("AI_CHAT"));
+
+        JwtClaims claims = jwtService.parseToken(token);
+
+        assertEquals("writer", claims.username());
+        assertEquals("u1", claims.userId());
+        assertEquals(List.of("USER"), claims.roles());
+        assertEquals(List.of("AI_CHAT"), claims.permissions());
+        assertEquals(3, claims.tokenVersion());
+        assertEquals(jwtService.extractJti(token), claims.jti());
+        assertEquals(jwtService.extractExpiration(token), claims.expiration());
+        assertFalse(claims.isExpired());
+    }
+
+    @Test
+    void tokensWithoutVersionOrPermissionsUseDefaults() {
+        User user = User.builder().id("u1").username("writer").build();
+
+        JwtClaims claims = jwtService.parseToken(jwtService.generateRefreshToken(user));
+
+        assertEquals(1, claims.tokenVersion());
+        assertEquals(List.of(), claims.roles());
+        assertEquals(List.of(), claims.permissions());
+    }
+
+    @Test
+    void claimsAreImmutableCopies() {
+        List<String> roles = new ArrayList<>(List.of("USER"));
+        JwtClaims claims = new JwtClaims("writer", "u1", roles, null, 1, "jti", null);
+
+        roles.add("ADMIN");
+
+        assertEquals(List.of("USER"), claims.roles());
+        assertThrows(UnsupportedOperationException.class, () -> claims.roles().add("ADMIN"));
+        assertFalse(claims.isExpired());
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        JwtServiceImpl expiring = jwtService(-1_000L);
+        String token = expiring.generateToken(User.builder().id("u1").username("writer").build());
+
+        assertThrows(ExpiredJwtException.class, () -> expiring.parseToken(token));
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        String token = jwtService.generateToken(User.builder().id("u1").username("writer").build());
+        String[] parts = token.split("\\.");
+        String forged = parts[0] + "." + parts[1] + "." + new StringBuilder(parts[2]).reverse();
+
+        assertThrows(JwtException.class, () -> jwtService.parseToken(forged));
+    }
+
+    private static JwtServiceImpl jwtService(long expirationMillis) {
+        JwtServiceImpl service = new JwtServiceImpl();
+        ReflectionTestUtils.setField(service, "secretKey", "testSecretKey-0123456789-0123456789-abcdef");
+        ReflectionTestUtils.setField(service, "jwtExpiration", expirationMillis);
+        ReflectionTestUtils.setField(service, "refreshExpiration", expirationMillis);
+        return service;
+    }
+}
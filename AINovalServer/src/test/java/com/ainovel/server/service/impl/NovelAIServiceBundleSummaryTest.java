@@ -0,0 +1,114 @@
+package com.ainovel.server.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jasypt.encryption.StringEncryptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ainovel.server.domain.model.AIFeatureType;
+import com.ainovel.server.domain.model.AIRequest;
+import com.ainovel.server.domain.model.Novel;
+import com.ainovel.server.domain.model.Scene;
+import com.ainovel.server.domain.model.UserAIModelConfig;
+import com.ainovel.server.service.AIService;
+import com.ainovel.server.service.EnhancedUserPromptService;
+import com.ainovel.server.service.KnowledgeService;
+import com.ainovel.server.service.NovelService;
+import com.ainovel.server.service.SceneService;
+import com.ainovel.server.service.UserAIModelConfigService;
+import com.ainovel.server.service.UserPromptService;
+import com.ainovel.server.service.ai.AIModelProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 批量场景摘要测试
+ * 验证场景以短标签送入模型、输出中的标签映射回场景ID，未知标签、重复标签、空摘要和无法解析的条目被忽略
+ */
+class NovelAIServiceBundleSummaryTest {
+
+    private static final String USER_ID = "user-1";
+    private static final String NOVEL_ID = "novel-1";
+    private static final String CONFIG_ID = "config-1";
+
+    private final NovelService novelService = mock(NovelService.class);
+    private final AIModelProvider provider = mock(AIModelProvider.class);
+    private final AtomicReference<AIRequest> sentRequest = new AtomicReference<>();
+    private final NovelAIServiceImpl service;
+
+    private final List<Scene> scenes = List.of(
+            Scene.builder().id("scene-a").content("林舟推开了门").build(),
+            Scene.builder().id("scene-b").content("雨一直下").build(),
+            Scene.builder().id("scene-c").content("她没有回头").build());
+
+    NovelAIServiceBundleSummaryTest() {
+        UserPromptService userPromptService = mock(UserPromptService.class);
+        UserAIModelConfigService configService = mock(UserAIModelConfigService.class);
+        UserAIModelConfig config = new UserAIModelConfig();
+        config.setModelName("gpt-4o");
+        when(userPromptService.getPromptTemplate(USER_ID, AIFeatureType.SCENE_TO_SUMMARY)).thenReturn(Mono.just("请简洁概括"));
+        when(configService.getConfigurationById(USER_ID, CONFIG_ID)).thenReturn(Mono.just(config));
+        when(novelService.findNovelById(NOVEL_ID)).thenReturn(Mono.just(Novel.builder()
+                .id(NOVEL_ID).author(Novel.Author.builder().id(USER_ID).build()).build()));
+
+        NovelAIServiceImpl impl = new NovelAIServiceImpl(mock(AIService.class), mock(KnowledgeService.class),
+                novelService, mock(EnhancedUserPromptService.class), mock(SceneService.class),
+                mock(StringEncryptor.class), new ObjectMapper());
+        ReflectionTestUtils.setField(impl, "userPromptService", userPromptService);
+        ReflectionTestUtils.setField(impl, "userAIModelConfigService", configService);
+        service = spy(impl);
+        doReturn(Mono.just(provider)).when(service).getAIModelProvider(USER_ID, "gpt-4o");
+    }
+
+    @Test
+    void labelsInTheReplyAreMappedBackToSceneIds() {
+        // 输出顺序与输入不同、跨分片，并夹带未知标签、重复标签、空摘要和损坏的条目
+        reply("[{\"id\":\"S3\",\"summary\":\"她离开\"},{\"id\":\"S1\",\"sum",
+                "mary\":\"林舟进门\"},{\"id\":\"S9\",\"summary\":\"不存在\"},",
+                "{\"id\":\"S1\",\"summary\":\"重复\"},{\"id\":\"S2\",\"summary\":\"  \"},{\"id\":}]");
+
+        Map<String, String> summaries = service.summarizeScenesBundle(USER_ID, NOVEL_ID, scenes, CONFIG_ID).block();
+
+        assertEquals(Map.of("scene-c", "她离开", "scene-a", "林舟进门"), summaries);
+        String userContent = sentRequest.get().getMessages().get(1).getContent();
+        assertTrue(userContent.indexOf("[[场景 S1]]\n林舟推开了门") < userContent.indexOf("[[场景 S2]]\n雨一直下"));
+        assertTrue(userContent.indexOf("[[场景 S2]]") < userContent.indexOf("[[场景 S3]]\n她没有回头"));
+        assertFalse(userContent.contains("scene-a"));
+    }
+
+    @Test
+    void unparseableReplyYieldsNoSummaries() {
+        reply("抱歉，我无法完成这个请求。");
+
+        Map<String, String> summaries = service.summarizeScenesBundle(USER_ID, NOVEL_ID, scenes, CONFIG_ID).block();
+
+        // 空结果由调用方逐个场景兜底
+        assertTrue(summaries.isEmpty());
+    }
+
+    @Test
+    void callersOtherThanTheAuthorAreRejected() {
+        assertThrows(AccessDeniedException.class,
+                () -> service.summarizeScenesBundle("intruder", NOVEL_ID, scenes, CONFIG_ID).block());
+    }
+
+    private void reply(String... chunks) {
+        when(provider.generateContentStream(any(AIRequest.class))).thenAnswer(inv -> {
+            sentRequest.set(inv.getArgument(0));
+            return Flux.just(chunks);
+        });
+    }
+}
@@ -0,0 +1,89 @@
+package com.ainovel.server.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import com.ainovel.server.domain.model.Novel;
+import com.ainovel.server.domain.model.Scene;
+import com.ainovel.server.repository.NovelRepository;
+import com.ainovel.server.repository.SceneRepository;
+import com.ainovel.server.service.SceneService;
+import com.ainovel.server.service.StorageService;
+import com.ainovel.server.service.cache.NovelStructureCache;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 按卷加载更多场景测试
+ * 验证指定卷时加载范围取自该卷自己的章节列表，即使卷内章节在全书索引中不连续也不会越界到其他卷
+ */
+class NovelServiceLoadMoreScenesTest {
+
+    private final NovelRepository novelRepository = mock(NovelRepository.class);
+    private final SceneRepository sceneRepository = mock(SceneRepository.class);
+    private final NovelServiceImpl service = new NovelServiceImpl(novelRepository, sceneRepository,
+            mock(StorageService.class), mock(SceneService.class), mock(ReactiveMongoTemplate.class),
+            new NovelStructureCache());
+
+    NovelServiceLoadMoreScenesTest() {
+        // 第二卷的首章ID与第一卷的章节重复，它在全书索引中的序号指向第一卷
+        Novel novel = Novel.builder()
+                .id("novel-1")
+                .updatedAt(LocalDateTime.of(2026, 10, 1, 12, 0))
+                .structure(Novel.Structure.builder()
+                        .acts(new ArrayList<>(List.of(act("a1", "c1", "dup", "c2"), act("a2", "dup", "c3", "c4"))))
+                        .build())
+                .build();
+        when(novelRepository.findById("novel-1")).thenReturn(Mono.just(novel));
+        when(sceneRepository.findEditorScenesByChapterIdIn(anyList())).thenAnswer(inv -> Flux.fromIterable(
+                inv.<List<String>>getArgument(0).stream()
+                        .map(chapterId -> Scene.builder().id("scene-" + chapterId).chapterId(chapterId).build())
+                        .toList()));
+    }
+
+    @Test
+    void initialLoadUsesTheActsOwnChapters() {
+        Map<String, List<Scene>> loaded = service.loadMoreScenes("novel-1", "a2", null, "down", 5).block();
+
+        assertEquals(List.of("dup", "c3", "c4"), List.copyOf(loaded.keySet()));
+    }
+
+    @Test
+    void loadingFromAChapterStaysWithinTheAct() {
+        Map<String, List<Scene>> down = service.loadMoreScenes("novel-1", "a2", "c3", "down", 5).block();
+        assertEquals(List.of("c4"), List.copyOf(down.keySet()));
+
+        Map<String, List<Scene>> up = service.loadMoreScenes("novel-1", "a2", "c3", "up", 5).block();
+        assertEquals(List.of("dup"), List.copyOf(up.keySet()));
+
+        // 不属于该卷的章节不作为起点
+        Map<String, List<Scene>> outside = service.loadMoreScenes("novel-1", "a2", "c1", "down", 5).block();
+        assertTrue(outside.isEmpty());
+    }
+
+    @Test
+    void withoutActTheWholeBookIsInRange() {
+        Map<String, List<Scene>> loaded = service.loadMoreScenes("novel-1", null, "c2", "down", 2).block();
+
+        assertEquals(List.of("dup", "c3"), List.copyOf(loaded.keySet()));
+    }
+
+    private static Novel.Act act(String actId, String... chapterIds) {
+        List<Novel.Chapter> chapters = new ArrayList<>();
+        for (String chapterId : chapterIds) {
+            chapters.add(Novel.Chapter.builder().id(chapterId).build());
+        }
+        return Novel.Act.builder().id(actId).chapters(chapters).build();
+    }
+}
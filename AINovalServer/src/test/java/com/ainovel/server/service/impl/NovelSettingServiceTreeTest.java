@@ -0,0 +1,189 @@
+package com.ainovel.server.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import com.ainovel.server.domain.model.NovelSettingGenerationHistory;
+import com.ainovel.server.domain.model.NovelSettingItem;
+import com.ainovel.server.service.setting.SettingTreeCloner;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * 设定树写入与父子关系测试
+ * 验证历史恢复走一次有序批量插入、父子列表使用 $addToSet/$pull 原子更新，以及环检测
+ */
+class NovelSettingServiceTreeTest {
+
+    private static final String USER = "user-1";
+
+    @Test
+    void restoresLargeTreeWithOneOrderedBulkInsert() {
+        SettingTreeMongoFixture mongo = new SettingTreeMongoFixture(Duration.ZERO);
+        mongo.seedHistory("h1", USER, 2000, 6);
+        mongo.resetRoundTrips();
+
+        List<String> newIds = mongo.historyService.copyHistoryItemsToNovel("h1", "target", USER).block();
+
+        assertNotNull(newIds);
+        assertEquals(2000, newIds.size());
+        // 读历史 + 批量读源条目 + 一次批量写入
+        assertEquals(3, mongo.roundTrips());
+        assertEquals(1, mongo.bulkInserts().size());
+        assertParentsBeforeChildren(mongo.bulkInserts().get(0));
+        assertEquals(0, mongo.missingChildren("target"));
+
+        List<NovelSettingItem> restored = mongo.itemsOfNovel("target");
+        Map<String, NovelSettingItem> byId = new HashMap<>();
+        restored.forEach(item -> byId.put(item.getId(), item));
+        Map<String, String> parentNameOf = new HashMap<>();
+        for (NovelSettingItem item : restored) {
+            assertFalse(item.getId().startsWith("h1-src-"), "新条目沿用了旧ID");
+            assertEquals("HISTORY_RESTORE", item.getGeneratedBy());
+            NovelSettingItem parent = item.getParentId() == null ? null : byId.get(item.getParentId());
+            if (item.getParentId() != null) {
+                assertNotNull(parent, "父节点指向了树外: " + item.getName());
+            }
+            parentNameOf.put(item.getName(), parent == null ? null : parent.getName());
+        }
+        // 结构与源树一致：设定i 的父节点是 设定(i-1)/6
+        for (int i = 0; i < 2000; i++) {
+            assertEquals(i == 0 ? null : "设定" + ((i - 1) / 6), parentNameOf.get("设定" + i));
+        }
+    }
+
+    @Test
+    void cyclicParentChildMapIsRejectedBeforeAnyWrite() {
+        SettingTreeMongoFixture mongo = new SettingTreeMongoFixture(Duration.ZERO);
+        NovelSettingGenerationHistory history = mongo.seedHistory("h3", USER, 3, 2);
+        // 0 → 1 → 2 → 0
+        history.getParentChildMap().clear();
+        history.getParentChildMap().put("h3-src-0", new ArrayList<>(List.of("h3-src-1")));
+        history.getParentChildMap().put("h3-src-1", new ArrayList<>(List.of("h3-src-2")));
+        history.getParentChildMap().put("h3-src-2", new ArrayList<>(List.of("h3-src-0")));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> mongo.historyService.copyHistoryItemsToNovel("h3", "target", USER).block());
+        assertTrue(mongo.bulkInserts().isEmpty());
+        assertTrue(mongo.itemsOfNovel("target").isEmpty());
+    }
+
+    @Test
+    void insertSettingTreeOrdersParentsFirstAndFillsDefaults() {
+        SettingTreeMongoFixture mongo = new SettingTreeMongoFixture(Duration.ZERO);
+        NovelSettingItem grandchild = NovelSettingItem.builder().id("c").novelId("n").name("C").parentId("b").build();
+        NovelSettingItem child = NovelSettingItem.builder().id("b").novelId("n").name("B").parentId("a")
+                .childrenIds(new ArrayList<>(List.of("c"))).build();
+        NovelSettingItem root = NovelSettingItem.builder().id("a").novelId("n").name("A")
+                .childrenIds(new ArrayList<>(List.of("b"))).build();
+
+        List<NovelSettingItem> saved = mongo.settingService.insertSettingTree(List.of(grandchild, child, root))
+                .collectList().block();
+
+        assertEquals(List.of("a", "b", "c"), saved.stream().map(NovelSettingItem::getId).toList());
+        assertEquals(List.of("a", "b", "c"),
+                mongo.bulkInserts().get(0).stream().map(NovelSettingItem::getId).toList());
+        assertEquals(1, mongo.roundTrips());
+        NovelSettingItem stored = mongo.get("c");
+        assertEquals("USER", stored.getGeneratedBy());
+        assertEquals(3, stored.getPriority());
+        assertNotNull(stored.getCreatedAt());
+    }
+
+    @Test
+    void concurrentSiblingsAreAllAddedToTheParent() {
+        SettingTreeMongoFixture mongo = new SettingTreeMongoFixture(Duration.ofMillis(1));
+        mongo.put(item("p", null));
+        List<String> childIds = IntStream.range(0, 50).mapToObj(i -> "c" + i).toList();
+        childIds.forEach(id -> mongo.put(item(id, null)));
+
+        Flux.fromIterable(childIds)
+                .flatMap(id -> mongo.settingService.setParentChildRelationship(id, "p"), childIds.size())
+                .blockLast();
+
+        assertEquals(childIds.size(), mongo.get("p").getChildrenIds().size());
+        assertTrue(mongo.get("p").getChildrenIds().containsAll(childIds));
+        childIds.forEach(id -> assertEquals("p", mongo.get(id).getParentId()));
+        assertEquals(childIds.size(), mongo.parentListUpdates().size());
+        mongo.parentListUpdates().forEach(update -> assertTrue(update.containsKey("$addToSet")));
+        verify(mongo.settingItemRepository, never()).save(any());
+    }
+
+    @Test
+    void movingAChildPullsItFromTheOldParent() {
+        SettingTreeMongoFixture mongo = new SettingTreeMongoFixture(Duration.ZERO);
+        mongo.put(item("old", null, "c"));
+        mongo.put(item("new", null));
+        mongo.put(item("c", "old"));
+
+        mongo.settingService.setParentChildRelationship("c", "new").block();
+
+        assertEquals("new", mongo.get("c").getParentId());
+        assertEquals(List.of("c"), mongo.get("new").getChildrenIds());
+        assertTrue(mongo.get("old").getChildrenIds().isEmpty());
+        assertEquals(List.of("$addToSet", "$pull"), mongo.parentListUpdates().stream()
+                .map(update -> update.keySet().stream().filter(key -> !"$set".equals(key)).findFirst().orElseThrow())
+                .toList());
+    }
+
+    @Test
+    void removeParentChildRelationshipUnsetsParentAndPullsChild() {
+        SettingTreeMongoFixture mongo = new SettingTreeMongoFixture(Duration.ZERO);
+        mongo.put(item("p", null, "c"));
+        mongo.put(item("c", "p"));
+
+        NovelSettingItem detached = mongo.settingService.removeParentChildRelationship("c").block();
+
+        assertNull(detached.getParentId());
+        assertNull(mongo.get("c").getParentId());
+        assertTrue(mongo.get("p").getChildrenIds().isEmpty());
+        Document update = mongo.parentListUpdates().get(0);
+        assertEquals("c", update.get("$pull", Document.class).getString("childrenIds"));
+    }
+
+    @Test
+    void edgesToItemsOutsideTheTreeBecomeRoots() {
+        NovelSettingItem orphan = NovelSettingItem.builder().id("a").name("A").parentId("missing").build();
+        NovelSettingItem child = NovelSettingItem.builder().id("b").name("B").parentId("a").build();
+
+        List<NovelSettingItem> clones = SettingTreeCloner.cloneTree(List.of(child, orphan), null,
+                src -> NovelSettingItem.builder().name(src.getName()).build());
+
+        assertEquals(List.of("A", "B"), clones.stream().map(NovelSettingItem::getName).toList(), "父节点应排在子节点之前");
+        assertNull(clones.get(0).getParentId());
+        assertEquals(clones.get(0).getId(), clones.get(1).getParentId());
+        assertEquals(List.of(clones.get(1).getId()), clones.get(0).getChildrenIds());
+    }
+
+    private static NovelSettingItem item(String id, String parentId, String... childrenIds) {
+        return NovelSettingItem.builder()
+                .id(id).novelId("n").userId(USER).name(id).type("CHARACTER")
+                .parentId(parentId).childrenIds(new ArrayList<>(List.of(childrenIds)))
+                .build();
+    }
+
+    private static void assertParentsBeforeChildren(List<NovelSettingItem> inserted) {
+        Map<String, Integer> position = new HashMap<>();
+        for (int i = 0; i < inserted.size(); i++) {
+            position.put(inserted.get(i).getId(), i);
+        }
+        for (NovelSettingItem item : inserted) {
+            if (item.getParentId() != null) {
+                assertTrue(position.get(item.getParentId()) < position.get(item.getId()),
+                        "子节点排在父节点之前: " + item.getName());
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.ainovel.server.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.security.access.AccessDeniedException;
+
+import com.ainovel.server.config.SceneAutosaveConfig;
+import com.ainovel.server.domain.model.Novel;
+import com.ainovel.server.domain.model.Scene;
+import com.ainovel.server.service.MetadataService;
+import com.ainovel.server.service.NovelFullTextSearchService;
+import com.ainovel.server.service.analytics.WritingAnalyticsService;
+import com.ainovel.server.web.dto.response.SceneAutosaveResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.result.UpdateResult;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 场景增量自动保存测试
+ * 验证补丁在缓冲中合成、过期基准版本返回冲突、落库只写一次、非作者被拒绝，以及落库失败后按退避间隔重试
+ */
+class SceneAutosaveServiceImplTest {
+
+    private static final String AUTHOR = "author-1";
+    private static final String SCENE_ID = "scene-1";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+    private final MetadataService metadataService = mock(MetadataService.class);
+    private final WritingAnalyticsService writingAnalyticsService = mock(WritingAnalyticsService.class);
+    private final SceneAutosaveConfig config = new SceneAutosaveConfig();
+
+    SceneAutosaveServiceImplTest() {
+        Scene scene = Scene.builder()
+                .id(SCENE_ID).novelId("novel-1").chapterId("chapter-1").title("第一幕")
+                .content("{\"ops\":[{\"insert\":\"你好\\n\"}]}")
+                .version(3)
+                .build();
+        Novel novel = Novel.builder().id("novel-1").author(Novel.Author.builder().id(AUTHOR).build()).build();
+        when(mongoTemplate.findOne(any(Query.class), eq(Scene.class))).thenReturn(Mono.just(scene));
+        when(mongoTemplate.findOne(any(Query.class), eq(Novel.class))).thenReturn(Mono.just(novel));
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Scene.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+        when(metadataService.calculateWordCount(anyString())).thenAnswer(inv -> inv.<String>getArgument(0).length());
+        when(writingAnalyticsService.recordEvent(any())).thenReturn(Mono.empty());
+        // 默认不触发定时落库，由测试显式 flush
+        config.setDebounce(Duration.ofMinutes(1));
+        config.setMaxDelay(Duration.ofMinutes(1));
+    }
+
+    private SceneAutosaveServiceImpl service() {
+        return new SceneAutosaveServiceImpl(mongoTemplate, metadataService, writingAnalyticsService,
+                mock(NovelFullTextSearchService.class), config, objectMapper);
+    }
+
+    @Test
+    void patchesAreComposedInTheBufferAndFlushedOnce() throws Exception {
+        SceneAutosaveServiceImpl service = service();
+
+        SceneAutosaveResponse first = service.applyPatch(SCENE_ID, 3, insertAt(2, "世界"), AUTHOR).block();
+        SceneAutosaveResponse second = service.applyPatch(SCENE_ID, 4, insertAt(4, "！"), AUTHOR).block();
+
+        assertEquals(4, first.getVersion());
+        assertEquals(5, second.getVersion());
+        assertTrue(second.isPending());
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Scene.class));
+
+        SceneAutosaveResponse flushed = service.flush(SCENE_ID, AUTHOR).block();
+
+        assertEquals(5, flushed.getVersion());
+        assertFalse(flushed.isPending());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate, times(1)).updateFirst(query.capture(), update.capture(), eq(Scene.class));
+        // 以上次落库的版本为条件，一次写入合成后的全文
+        assertEquals(3, query.getValue().getQueryObject().get("version"));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(5, set.get("version"));
+        assertEquals("你好世界！\n", text(set.getString("content")));
+
+        // 没有新输入时再次 flush 不写库
+        service.flush(SCENE_ID, AUTHOR).block();
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Scene.class));
+    }
+
+    @Test
+    void staleBaseVersionReturnsConflictWithTheBufferedContent() throws Exception {
+        SceneAutosaveServiceImpl service = service();
+        service.applyPatch(SCENE_ID, 3, insertAt(2, "世界"), AUTHOR).block();
+
+        SceneAutosaveResponse conflict = service.applyPatch(SCENE_ID, 3, insertAt(0, "旧"), AUTHOR).block();
+
+        assertTrue(conflict.isConflict());
+        assertEquals(4, conflict.getVersion());
+        assertTrue(conflict.isPending());
+        assertEquals("你好世界\n", text(conflict.getContent()));
+    }
+
+    @Test
+    void callersOtherThanTheAuthorAreRejected() {
+        SceneAutosaveServiceImpl service = service();
+
+        assertThrows(AccessDeniedException.class,
+                () -> service.applyPatch(SCENE_ID, 3, insertAt(0, "篡改"), "intruder").block());
+        assertThrows(AccessDeniedException.class,
+                () -> service.applyPatch(SCENE_ID, 3, insertAt(0, "篡改"), null).block());
+
+        service.applyPatch(SCENE_ID, 3, insertAt(2, "世界"), AUTHOR).block();
+        assertThrows(AccessDeniedException.class, () -> service.flush(SCENE_ID, "intruder").block());
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Scene.class));
+    }
+
+    @Test
+    void failedWriteIsRetriedAfterBackoffEvenWhenInputContinues() throws Exception {
+        config.setDebounce(Duration.ZERO);
+        config.setMaxDelay(Duration.ZERO);
+        config.setRetryBackoff(Duration.ofMillis(400));
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Scene.class)))
+                .thenReturn(Mono.error(new IllegalStateException("数据库不可用")))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+        SceneAutosaveServiceImpl service = service();
+
+        service.applyPatch(SCENE_ID, 3, insertAt(2, "世界"), AUTHOR).block();
+        verify(mongoTemplate, timeout(1000).times(1)).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Scene.class));
+        // 退避期内的新输入不会立即触发重试
+        service.applyPatch(SCENE_ID, 4, insertAt(4, "！"), AUTHOR).block();
+        Thread.sleep(150);
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Scene.class));
+
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate, timeout(2000).times(2)).updateFirst(any(Query.class), update.capture(), eq(Scene.class));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals("你好世界！\n", text(set.getString("content")));
+        Thread.sleep(100);
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Scene.class));
+    }
+
+    private static List<Map<String, Object>> insertAt(int offset, String text) {
+        return offset == 0
+                ? List.of(Map.of("insert", text))
+                : List.of(Map.of("retain", offset), Map.of("insert", text));
+    }
+
+    private String text(String content) throws Exception {
+        JsonNode ops = objectMapper.readTree(content).get("ops");
+        StringBuilder text = new StringBuilder();
+        ops.forEach(op -> text.append(op.get("insert").asText()));
+        return text.toString();
+    }
+}
@@ -0,0 +1,270 @@
+package com.ainovel.server.service.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.ainovel.server.domain.model.NovelSettingGenerationHistory;
+import com.ainovel.server.domain.model.NovelSettingItem;
+import com.ainovel.server.repository.NovelSettingGenerationHistoryRepository;
+import com.ainovel.server.repository.NovelSettingItemHistoryRepository;
+import com.ainovel.server.repository.NovelSettingItemRepository;
+import com.ainovel.server.repository.SettingGroupRepository;
+import com.ainovel.server.service.EmbeddingService;
+import com.ainovel.server.service.KeywordExtractionService;
+import com.ainovel.server.service.NovelFullTextSearchService;
+import com.ainovel.server.service.setting.SettingConversionService;
+import com.ainovel.server.service.setting.generation.InMemorySessionManager;
+import com.ainovel.server.service.setting.impl.NovelSettingHistoryServiceImpl;
+import com.ainovel.server.service.setting.mention.SettingMentionIndex;
+import com.ainovel.server.service.vectorstore.VectorStore;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 设定树测试夹具：真实的 NovelSettingServiceImpl / NovelSettingHistoryServiceImpl，
+ * 底层 ReactiveMongoTemplate 与仓库为 Mockito 模拟，数据保存在内存中
+ *
+ * 模拟只负责按 MongoDB 语义执行收到的命令（有序批量插入、findAndModify 的 $set/$unset、
+ * updateFirst 的 $addToSet/$pull），并统计往返次数；可为每次往返设置固定延迟。
+ * 每次读写都复制文档，读-改-写的并发覆盖与真实数据库一致。
+ */
+final class SettingTreeMongoFixture {
+
+    private final Map<String, NovelSettingItem> documents = new ConcurrentHashMap<>();
+    private final Map<String, NovelSettingGenerationHistory> histories = new ConcurrentHashMap<>();
+    private final AtomicInteger roundTrips = new AtomicInteger();
+    private final List<List<NovelSettingItem>> bulkInserts = Collections.synchronizedList(new ArrayList<>());
+    private final List<Document> parentListUpdates = Collections.synchronizedList(new ArrayList<>());
+    private final Duration latency;
+
+    final ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+    final NovelSettingItemRepository settingItemRepository = mock(NovelSettingItemRepository.class);
+    final NovelSettingServiceImpl settingService;
+    final NovelSettingHistoryServiceImpl historyService;
+
+    SettingTreeMongoFixture(Duration latency) {
+        this.latency = latency;
+        mockRepository();
+        mockTemplate();
+        settingService = new NovelSettingServiceImpl(settingItemRepository, mock(SettingGroupRepository.class),
+                mongoTemplate, mock(EmbeddingService.class), mock(VectorStore.class),
+                mock(KeywordExtractionService.class), mock(SettingMentionIndex.class),
+                mock(NovelFullTextSearchService.class));
+        NovelSettingGenerationHistoryRepository historyRepository = mock(NovelSettingGenerationHistoryRepository.class);
+        when(historyRepository.findById(anyString())).thenAnswer(inv ->
+                roundTrip(() -> histories.get(inv.<String>getArgument(0))));
+        historyService = new NovelSettingHistoryServiceImpl(historyRepository,
+                mock(NovelSettingItemHistoryRepository.class), new SettingConversionService(),
+                mock(InMemorySessionManager.class), settingService);
+    }
+
+    /**
+     * 写入一棵源设定树及引用它的历史记录：共 size 个节点，节点 i 的父节点是 (i-1)/fanout
+     */
+    NovelSettingGenerationHistory seedHistory(String historyId, String userId, int size, int fanout) {
+        List<String> ids = new ArrayList<>(size);
+        Map<String, List<String>> parentChildMap = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            String id = historyId + "-src-" + i;
+            String parentId = i == 0 ? null : historyId + "-src-" + ((i - 1) / fanout);
+            ids.add(id);
+            documents.put(id, NovelSettingItem.builder()
+                    .id(id).novelId("source-novel").userId(userId)
+                    .name("设定" + i).type("CHARACTER")
+                    .parentId(parentId).childrenIds(new ArrayList<>())
+                    .build());
+            if (parentId != null) {
+                parentChildMap.computeIfAbsent(parentId, k -> new ArrayList<>()).add(id);
+                documents.get(parentId).getChildrenIds().add(id);
+            }
+        }
+        NovelSettingGenerationHistory history = NovelSettingGenerationHistory.builder()
+                .historyId(historyId).userId(userId)
+                .generatedSettingIds(ids).parentChildMap(parentChildMap)
+                .build();
+        histories.put(historyId, history);
+        return history;
+    }
+
+    void put(NovelSettingItem item) {
+        documents.put(item.getId(), copy(item));
+    }
+
+    NovelSettingItem get(String id) {
+        return copy(documents.get(id));
+    }
+
+    int roundTrips() {
+        return roundTrips.get();
+    }
+
+    void resetRoundTrips() {
+        roundTrips.set(0);
+    }
+
+    /**
+     * 收到的批量插入，每个元素是一次 bulkOps 的全部文档（按插入顺序）
+     */
+    List<List<NovelSettingItem>> bulkInserts() {
+        return bulkInserts;
+    }
+
+    /**
+     * 收到的父节点子列表更新（updateFirst 的更新文档）
+     */
+    List<Document> parentListUpdates() {
+        return parentListUpdates;
+    }
+
+    List<NovelSettingItem> itemsOfNovel(String novelId) {
+        return documents.values().stream()
+                .filter(item -> novelId.equals(item.getNovelId()))
+                .map(SettingTreeMongoFixture::copy)
+                .toList();
+    }
+
+    /**
+     * 统计某小说中父节点子列表缺失的子节点数量
+     */
+    int missingChildren(String novelId) {
+        Map<String, NovelSettingItem> byId = new HashMap<>();
+        itemsOfNovel(novelId).forEach(item -> byId.put(item.getId(), item));
+        int missing = 0;
+        for (NovelSettingItem item : byId.values()) {
+            NovelSettingItem parent = item.getParentId() != null ? byId.get(item.getParentId()) : null;
+            if (parent != null && (parent.getChildrenIds() == null || !parent.getChildrenIds().contains(item.getId()))) {
+                missing++;
+            }
+        }
+        return missing;
+    }
+
+    private void mockRepository() {
+        when(settingItemRepository.findById(anyString())).thenAnswer(inv ->
+                roundTrip(() -> copy(documents.get(inv.<String>getArgument(0)))));
+        when(settingItemRepository.findAllById(any(Iterable.class))).thenAnswer(inv -> {
+            Iterable<String> ids = inv.getArgument(0);
+            return roundTrip(() -> {
+                List<NovelSettingItem> found = new ArrayList<>();
+                ids.forEach(id -> {
+                    NovelSettingItem item = documents.get(id);
+                    if (item != null) {
+                        found.add(copy(item));
+                    }
+                });
+                // 数据库不保证 $in 查询的返回顺序
+                Collections.shuffle(found);
+                return found;
+            }).flatMapMany(Flux::fromIterable);
+        });
+    }
+
+    private void mockTemplate() {
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.ORDERED), eq(NovelSettingItem.class))).thenAnswer(inv -> {
+            List<NovelSettingItem> inserted = new ArrayList<>();
+            ReactiveBulkOperations bulk = mock(ReactiveBulkOperations.class);
+            when(bulk.insert(anyList())).thenAnswer(call -> {
+                call.<List<NovelSettingItem>>getArgument(0).forEach(item -> inserted.add(copy(item)));
+                return bulk;
+            });
+            when(bulk.execute()).thenAnswer(call -> roundTrip(() -> {
+                bulkInserts.add(inserted);
+                inserted.forEach(item -> documents.put(item.getId(), copy(item)));
+                BulkWriteResult result = mock(BulkWriteResult.class);
+                when(result.getInsertedCount()).thenReturn(inserted.size());
+                return result;
+            }));
+            return bulk;
+        });
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(NovelSettingItem.class))).thenAnswer(inv -> {
+            String id = idOf(inv.getArgument(0));
+            Document update = inv.<UpdateDefinition>getArgument(1).getUpdateObject();
+            return roundTrip(() -> documents.computeIfPresent(id, (k, item) -> {
+                NovelSettingItem updated = copy(item);
+                Document set = update.get("$set", Document.class);
+                if (set != null && set.containsKey("parentId")) {
+                    updated.setParentId(set.getString("parentId"));
+                }
+                Document unset = update.get("$unset", Document.class);
+                if (unset != null && unset.containsKey("parentId")) {
+                    updated.setParentId(null);
+                }
+                return updated;
+            })).map(SettingTreeMongoFixture::copy);
+        });
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(NovelSettingItem.class))).thenAnswer(inv -> {
+            String id = idOf(inv.getArgument(0));
+            Document update = inv.<UpdateDefinition>getArgument(1).getUpdateObject();
+            return roundTrip(() -> {
+                parentListUpdates.add(update);
+                NovelSettingItem updated = documents.computeIfPresent(id, (k, item) -> {
+                    NovelSettingItem next = copy(item);
+                    List<String> children = next.getChildrenIds() != null ? next.getChildrenIds() : new ArrayList<>();
+                    Document addToSet = update.get("$addToSet", Document.class);
+                    if (addToSet != null && !children.contains(addToSet.getString("childrenIds"))) {
+                        children.add(addToSet.getString("childrenIds"));
+                    }
+                    Document pull = update.get("$pull", Document.class);
+                    if (pull != null) {
+                        children.remove(pull.getString("childrenIds"));
+                    }
+                    next.setChildrenIds(children);
+                    return next;
+                });
+                return UpdateResult.acknowledged(updated != null ? 1 : 0, updated != null ? 1L : 0L, null);
+            });
+        });
+    }
+
+    private static String idOf(Query query) {
+        return Objects.toString(query.getQueryObject().get("_id"), null);
+    }
+
+    private <T> Mono<T> roundTrip(Supplier<T> operation) {
+        Mono<T> call = Mono.fromSupplier(() -> {
+            roundTrips.incrementAndGet();
+            return operation.get();
+        });
+        return latency.isZero() ? call : call.delaySubscription(latency);
+    }
+
+    private static NovelSettingItem copy(NovelSettingItem item) {
+        if (item == null) {
+            return null;
+        }
+        return NovelSettingItem.builder()
+                .id(item.getId()).novelId(item.getNovelId()).userId(item.getUserId())
+                .name(item.getName()).type(item.getType()).generatedBy(item.getGeneratedBy())
+                .priority(item.getPriority()).createdAt(item.getCreatedAt()).updatedAt(item.getUpdatedAt())
+                .parentId(item.getParentId())
+                .childrenIds(item.getChildrenIds() != null ? new ArrayList<>(item.getChildrenIds()) : null)
+                .build();
+    }
+}
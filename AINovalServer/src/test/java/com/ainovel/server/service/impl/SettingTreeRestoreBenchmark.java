@@ -0,0 +1,115 @@
+package com.ainovel.server.service.impl;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ainovel.server.domain.model.NovelSettingGenerationHistory;
+import com.ainovel.server.domain.model.NovelSettingItem;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * 设定历史恢复基准：整树克隆 vs 逐边建立父子关系
+ *
+ * 两种方式都调用真实的 NovelSettingServiceImpl：整树克隆走 copyHistoryItemsToNovel 的一次有序批量插入；
+ * 逐边方式先批量插入不带父子关系的副本，再对每条边调用 setParentChildRelationship。
+ * 底层为带固定往返延迟的 Mongo 模拟，辅助计数器输出数据库往返次数（roundTrips）
+ * 和父节点子列表中缺失的子节点数（missingChildren），JMH 报告的是各次迭代之和。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SettingTreeRestoreBenchmark {
+
+    private static final String USER = "bench-user";
+
+    @Param({"2000"})
+    private int nodes;
+
+    /** 单次数据库往返的模拟延迟（微秒） */
+    @Param({"200"})
+    private int latencyMicros;
+
+    private SettingTreeMongoFixture mongo;
+    private NovelSettingGenerationHistory history;
+    private final AtomicInteger targets = new AtomicInteger();
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        mongo = new SettingTreeMongoFixture(Duration.ofNanos(latencyMicros * 1000L));
+        history = mongo.seedHistory("bench", USER, nodes, 8);
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class RestoreCounters {
+        public long roundTrips;
+        public long missingChildren;
+    }
+
+    @Benchmark
+    public List<String> treeClone(RestoreCounters counters) {
+        String novelId = "target-" + targets.incrementAndGet();
+        mongo.resetRoundTrips();
+        List<String> ids = mongo.historyService.copyHistoryItemsToNovel("bench", novelId, USER).block();
+        record(counters, novelId);
+        return ids;
+    }
+
+    @Benchmark
+    public List<String> perEdge(RestoreCounters counters) {
+        String novelId = "target-" + targets.incrementAndGet();
+        mongo.resetRoundTrips();
+        Map<String, String> newIdOf = new HashMap<>();
+        List<NovelSettingItem> copies = history.getGeneratedSettingIds().stream()
+                .<NovelSettingItem>map(sourceId -> {
+                    NovelSettingItem source = mongo.get(sourceId);
+                    String newId = novelId + "-" + sourceId;
+                    newIdOf.put(sourceId, newId);
+                    return NovelSettingItem.builder()
+                            .id(newId).novelId(novelId).userId(USER)
+                            .name(source.getName()).type(source.getType())
+                            .generatedBy("HISTORY_RESTORE")
+                            .build();
+                })
+                .toList();
+        List<String> ids = mongo.settingService.insertSettingTree(copies)
+                .map(NovelSettingItem::getId)
+                .collectList()
+                .flatMap(saved -> Flux.fromIterable(history.getParentChildMap().entrySet())
+                        .flatMap(edges -> Flux.fromIterable(edges.getValue())
+                                .flatMap(childId -> mongo.settingService.setParentChildRelationship(
+                                        newIdOf.get(childId), newIdOf.get(edges.getKey()))))
+                        .then()
+                        .thenReturn(saved))
+                .block();
+        record(counters, novelId);
+        return ids;
+    }
+
+    private void record(RestoreCounters counters, String novelId) {
+        counters.roundTrips += mongo.roundTrips();
+        counters.missingChildren += mongo.missingChildren(novelId);
+    }
+}
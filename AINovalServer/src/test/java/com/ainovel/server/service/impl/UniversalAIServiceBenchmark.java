@@ -0,0 +1,104 @@
+package com.ainovel.server.service.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ainovel.server.service.cache.NovelStructureCache;
+import com.ainovel.server.web.dto.request.UniversalAIRequestDto;
+
+/**
+ * 通用 AI 请求预处理基准：配置哈希与上下文选择去重
+ *
+ * 两个方法都是纯计算，放在同包下直接调用包级方法，不需要启动 Spring 上下文。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UniversalAIServiceBenchmark {
+
+    /** 上下文选择数量：日常勾选几项，到整卷章节+场景全选 */
+    @Param({"10", "200", "2000"})
+    private int selections;
+
+    private final UniversalAIServiceImpl service = new UniversalAIServiceImpl();
+
+    private UniversalAIRequestDto request;
+    private NovelStructureCache.ContainIndex containIndex;
+
+    @Setup
+    public void setUp() {
+        int chapters = Math.max(1, selections / 10);
+        List<UniversalAIRequestDto.ContextSelectionDto> list = new ArrayList<>(selections);
+        Map<String, Set<String>> containMap = new HashMap<>();
+        Set<String> allChapters = new HashSet<>();
+        for (int c = 0; c < chapters; c++) {
+            String chapterId = "chapter_" + c;
+            Set<String> scenesOfChapter = new HashSet<>();
+            for (int s = 0; s < 8; s++) {
+                scenesOfChapter.add("scene_" + c + "_" + s);
+            }
+            containMap.put(chapterId, scenesOfChapter);
+            allChapters.add(chapterId);
+            allChapters.addAll(scenesOfChapter);
+        }
+        containMap.put("full_novel_text_bench", allChapters);
+
+        for (int i = 0; list.size() < selections; i++) {
+            int c = i % chapters;
+            switch (i % 5) {
+                case 0 -> list.add(selection("chapter", "chapter_" + c, "第" + (c + 1) + "章"));
+                case 1, 2 -> list.add(selection("scene", "scene_" + c + "_" + (i % 8), "场景" + i));
+                case 3 -> list.add(selection("character", "setting_" + i, "角色" + i));
+                default -> list.add(selection("snippet", "snippet_" + i, "片段" + i));
+            }
+        }
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("enableSmartContext", true);
+        parameters.put("temperature", 0.8);
+        parameters.put("maxTokens", 4096);
+        request = UniversalAIRequestDto.builder()
+                .requestType("expansion")
+                .userId("user_bench")
+                .novelId("novel_bench")
+                .instructions("请在保持人物性格一致的前提下扩写这一段，增加环境描写与心理活动。")
+                .contextSelections(list)
+                .parameters(parameters)
+                .build();
+        containIndex = new NovelStructureCache.ContainIndex(containMap);
+    }
+
+    @Benchmark
+    public String calculateConfigHash() {
+        return service.calculateConfigHash(request);
+    }
+
+    @Benchmark
+    public List<UniversalAIRequestDto.ContextSelectionDto> preprocessWithIndex() {
+        return service.preprocessWithIndex(request.getContextSelections(), containIndex);
+    }
+
+    private static UniversalAIRequestDto.ContextSelectionDto selection(String type, String id, String title) {
+        return UniversalAIRequestDto.ContextSelectionDto.builder().type(type).id(id).title(title).build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.ainovel.server.service.lock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 集群租约测试
+ * 验证空闲租约可获取、被持有时获取失败、过期后可被抢占，以及只有持有者能释放
+ */
+class MongoLeaseManagerTest {
+
+    private static final String KEY = "novel-metadata:n1";
+
+    private final Map<String, Document> leases = new ConcurrentHashMap<>();
+    private final MongoLeaseManager leaseManager = new MongoLeaseManager(mongoTemplate());
+
+    @Test
+    void heldLeaseCannotBeAcquiredAgain() {
+        String token = leaseManager.tryAcquire(KEY, Duration.ofMinutes(1)).block();
+
+        assertNotNull(token);
+        assertNull(leaseManager.tryAcquire(KEY, Duration.ofMinutes(1)).block());
+        // 其他键不受影响
+        assertNotNull(leaseManager.tryAcquire("novel-metadata:n2", Duration.ofMinutes(1)).block());
+    }
+
+    @Test
+    void expiredLeaseIsTakenOver() {
+        String crashed = leaseManager.tryAcquire(KEY, Duration.ofMinutes(1)).block();
+        // 持有者宕机，租约过期
+        leases.get(KEY).put("expiresAt", new Date(System.currentTimeMillis() - 1000));
+
+        String takeover = leaseManager.tryAcquire(KEY, Duration.ofMinutes(1)).block();
+
+        assertNotNull(takeover);
+        assertNotEquals(crashed, takeover);
+        assertEquals(takeover, leases.get(KEY).getString("token"));
+    }
+
+    @Test
+    void onlyTheHolderCanRelease() {
+        String crashed = leaseManager.tryAcquire(KEY, Duration.ofMinutes(1)).block();
+        leases.get(KEY).put("expiresAt", new Date(System.currentTimeMillis() - 1000));
+        String holder = leaseManager.tryAcquire(KEY, Duration.ofMinutes(1)).block();
+
+        // 过期前的持有者迟到的释放不影响新持有者
+        leaseManager.release(KEY, crashed).block();
+        assertNull(leaseManager.tryAcquire(KEY, Duration.ofMinutes(1)).block());
+
+        leaseManager.release(KEY, holder).block();
+        assertNotNull(leaseManager.tryAcquire(KEY, Duration.ofMinutes(1)).block());
+    }
+
+    /**
+     * 按 MongoDB 语义执行租约的条件 upsert / 删除：条件不满足的 upsert 以主键冲突失败
+     */
+    private ReactiveMongoTemplate mongoTemplate() {
+        ReactiveMongoTemplate template = mock(ReactiveMongoTemplate.class);
+        when(template.upsert(any(Query.class), any(UpdateDefinition.class), eq(MongoLeaseManager.COLLECTION))).thenAnswer(inv -> {
+            Document query = inv.<Query>getArgument(0).getQueryObject();
+            Document set = inv.<UpdateDefinition>getArgument(1).getUpdateObject().get("$set", Document.class);
+            return Mono.fromCallable(() -> {
+                synchronized (leases) {
+                    String id = query.getString("_id");
+                    Document existing = leases.get(id);
+                    Date before = query.get("expiresAt", Document.class).get("$lt", Date.class);
+                    if (existing != null && !existing.get("expiresAt", Date.class).before(before)) {
+                        throw new DuplicateKeyException("E11000 duplicate key: " + id);
+                    }
+                    leases.put(id, new Document(set));
+                    return UpdateResult.acknowledged(existing == null ? 0 : 1, 1L, null);
+                }
+            });
+        });
+        when(template.remove(any(Query.class), eq(MongoLeaseManager.COLLECTION))).thenAnswer(inv -> {
+            Document query = inv.<Query>getArgument(0).getQueryObject();
+            return Mono.fromCallable(() -> {
+                synchronized (leases) {
+                    Document existing = leases.get(query.getString("_id"));
+                    if (existing != null && existing.getString("token").equals(query.getString("token"))) {
+                        leases.remove(query.getString("_id"));
+                        return DeleteResult.acknowledged(1);
+                    }
+                    return DeleteResult.acknowledged(0);
+                }
+            });
+        });
+        return template;
+    }
+}
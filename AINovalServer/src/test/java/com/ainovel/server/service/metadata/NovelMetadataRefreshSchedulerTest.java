@@ -0,0 +1,108 @@
+package com.ainovel.server.service.metadata;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.ainovel.server.config.MetadataRefreshConfig;
+import com.ainovel.server.domain.model.Novel;
+import com.ainovel.server.service.lock.MongoLeaseManager;
+import com.mongodb.client.result.UpdateResult;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 小说元数据刷新调度测试
+ * 验证合并窗口内的多次请求只重算一次、已全量重算过的小说把增量合并为一次 $inc，以及租约被占用时延迟重试
+ */
+class NovelMetadataRefreshSchedulerTest {
+
+    private static final String NOVEL_ID = "novel-1";
+
+    private final ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+    private final MongoLeaseManager leaseManager = mock(MongoLeaseManager.class);
+    private final MetadataRefreshConfig config = new MetadataRefreshConfig();
+    private final NovelMetadataRefreshScheduler scheduler;
+
+    NovelMetadataRefreshSchedulerTest() {
+        config.setWindow(Duration.ofMillis(100));
+        config.setRetryDelay(Duration.ofMillis(100));
+        when(leaseManager.tryAcquire(anyString(), any())).thenReturn(Mono.just("token"));
+        when(leaseManager.release(anyString(), anyString())).thenReturn(Mono.empty());
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("scenes"), eq(Document.class)))
+                .thenReturn(Flux.just(new Document("total", 900)));
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Novel.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(Novel.class)))
+                .thenReturn(Mono.just(Novel.builder().id(NOVEL_ID)
+                        .metadata(Novel.Metadata.builder().wordCount(930).build()).build()));
+        scheduler = new NovelMetadataRefreshScheduler(mongoTemplate, leaseManager, config);
+        scheduler.init();
+    }
+
+    @Test
+    void requestsWithinTheWindowRecountOnce() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            scheduler.requestRecount(NOVEL_ID);
+        }
+
+        verify(mongoTemplate, timeout(2000)).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Novel.class));
+        Thread.sleep(300);
+        verify(mongoTemplate, times(1)).aggregate(any(Aggregation.class), eq("scenes"), eq(Document.class));
+        verify(leaseManager, times(1)).tryAcquire(eq("novel-metadata:" + NOVEL_ID), any());
+        verify(leaseManager, times(1)).release("novel-metadata:" + NOVEL_ID, "token");
+    }
+
+    @Test
+    void deltasAfterARecountAreMergedIntoOneIncrement() throws Exception {
+        // 首次请求没有近期全量重算，升级为全量
+        scheduler.requestWordCountDelta(NOVEL_ID, 5);
+        verify(mongoTemplate, timeout(2000)).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Novel.class));
+        Thread.sleep(200);
+
+        scheduler.requestWordCountDelta(NOVEL_ID, 10);
+        scheduler.requestWordCountDelta(NOVEL_ID, 25);
+        scheduler.requestWordCountDelta(NOVEL_ID, -5);
+
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate, timeout(2000)).findAndModify(any(Query.class), update.capture(),
+                any(FindAndModifyOptions.class), eq(Novel.class));
+        Thread.sleep(300);
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Novel.class));
+        verify(mongoTemplate, times(1)).aggregate(any(Aggregation.class), eq("scenes"), eq(Document.class));
+        Document inc = update.getValue().getUpdateObject().get("$inc", Document.class);
+        assertEquals(30, inc.get("metadata.wordCount"));
+    }
+
+    @Test
+    void busyLeaseIsRetriedLater() {
+        when(leaseManager.tryAcquire(anyString(), any()))
+                .thenReturn(Mono.empty())
+                .thenReturn(Mono.just("token"));
+
+        scheduler.requestRecount(NOVEL_ID);
+
+        verify(mongoTemplate, timeout(2000)).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Novel.class));
+        verify(leaseManager, times(2)).tryAcquire(anyString(), any());
+        verify(mongoTemplate, times(1)).aggregate(any(Aggregation.class), eq("scenes"), eq(Document.class));
+    }
+}
@@ -0,0 +1,58 @@
+package com.ainovel.server.service.prompt;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 预编译提示词模板测试
+ * 验证一次拼接的结果与逐个替换一致，且代入内容中的占位符不会被再次展开
+ */
+class CompiledPromptTemplateTest {
+
+    @Test
+    void rendersLiteralsAndSlotsInOrder() {
+        CompiledPromptTemplate compiled = CompiledPromptTemplate.compile("你好，{{name}}！今天写{{ chapter:c1 }}，再见{{name}}");
+
+        assertEquals(List.of("name", "chapter:c1"), compiled.placeholders());
+        assertEquals("你好，林渊！今天写第一章，再见林渊",
+                compiled.render(Map.of("name", "林渊", "chapter:c1", "第一章")));
+    }
+
+    @Test
+    void substitutedContentIsNotExpandedAgain() {
+        CompiledPromptTemplate compiled = CompiledPromptTemplate.compile("{{full_novel_text}}\n---\n{{input}}");
+
+        String result = compiled.render(Map.of(
+                "full_novel_text", "他在纸上写下 {{input}} 几个字",
+                "input", "续写下一段"));
+
+        assertEquals("他在纸上写下 {{input}} 几个字\n---\n续写下一段", result);
+    }
+
+    @Test
+    void missingValuesKeepOriginalPlaceholder() {
+        CompiledPromptTemplate compiled = CompiledPromptTemplate.compile("A{{ x }}B{{y}}C");
+
+        assertEquals("A{{ x }}B1C", compiled.render(Map.of("y", "1")));
+    }
+
+    @Test
+    void templatesWithoutPlaceholdersAreReturnedAsIs() {
+        String template = "没有占位符的模板 {单括号}";
+
+        assertTrue(CompiledPromptTemplate.of(template).placeholders().isEmpty());
+        assertSame(template, CompiledPromptTemplate.of(template).render(Map.of()));
+        assertEquals("", CompiledPromptTemplate.of(null).render(Map.of()));
+    }
+
+    @Test
+    void sameTemplateIsCompiledOnce() {
+        String template = "{{a}}-{{b}}";
+
+        assertSame(CompiledPromptTemplate.of(template), CompiledPromptTemplate.of(new String(template)));
+    }
+}
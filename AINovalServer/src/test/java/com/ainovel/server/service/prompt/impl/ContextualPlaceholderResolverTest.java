@@ -205,6 +205,42 @@ class ContextualPlaceholderResolverTest {
             .verifyError();
     }
 
+    /**
+     * 测试解析为空的占位符替换为空字符串，而不是原样保留
+     */
+    @Test
+    void testEmptyResolutionIsReplacedWithEmptyString() {
+        String template = "设定：{{settings}}|上下文：{{context}}|结束";
+
+        when(delegateResolver.resolvePlaceholder(eq("settings"), any(), eq(userId), eq(novelId)))
+            .thenReturn(Mono.empty());
+
+        StepVerifier.create(contextualResolver.resolveTemplate(template, parameters, userId, novelId))
+            .expectNext("设定：|上下文：|结束")
+            .verifyComplete();
+    }
+
+    /**
+     * 测试{{context}}在订阅前不开始解析
+     */
+    @Test
+    void testContextResolutionIsDeferredUntilSubscribe() {
+        parameters.put("contextSelections", List.of(createContextSelection("scene_1", "场景1", "scenes")));
+
+        Mono<String> result = contextualResolver.resolveTemplate("上下文：{{context}}", parameters, userId, novelId);
+
+        verifyNoInteractions(contentProviderFactory);
+
+        ContentProvider sceneProvider = mock(ContentProvider.class);
+        when(contentProviderFactory.getProvider("scenes")).thenReturn(Optional.of(sceneProvider));
+        when(sceneProvider.getContentForPlaceholder(eq(userId), eq(novelId), eq("scene_1"), any()))
+            .thenReturn(Mono.just("森林中的小屋"));
+
+        StepVerifier.create(result)
+            .expectNextMatches(text -> text.contains("森林中的小屋"))
+            .verifyComplete();
+    }
+
     /**
      * 测试线程安全性 - 并发解析不同模板
      */
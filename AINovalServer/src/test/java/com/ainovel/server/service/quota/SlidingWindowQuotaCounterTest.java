@@ -0,0 +1,203 @@
+package com.ainovel.server.service.quota;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.ainovel.server.config.UsageQuotaConfig;
+import com.ainovel.server.domain.model.UsageQuotaCounter;
+import com.mongodb.client.result.UpdateResult;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 滑动窗口配额计数器测试
+ * 验证多节点并发检查在限额处只放行限额内的请求、结算不写共享计数，以及跨窗口时归还旧窗口的预留
+ */
+class SlidingWindowQuotaCounterTest {
+
+    private static final Duration WINDOW = Duration.ofMinutes(1);
+
+    private final Map<String, Long> counts = new ConcurrentHashMap<>();
+    private final AtomicInteger upserts = new AtomicInteger();
+    private final ReactiveMongoTemplate mongoTemplate = mongoTemplate();
+    private final MutableClock clock = new MutableClock(WINDOW.toMillis() * 1000 + 10_000);
+    private final UsageQuotaConfig config = new UsageQuotaConfig();
+
+    SlidingWindowQuotaCounterTest() {
+        config.setWindow(WINDOW);
+        config.setReserveBatch(5);
+    }
+
+    @Test
+    void concurrentReservesAcrossNodesNeverExceedTheLimit() {
+        List<SlidingWindowQuotaCounter> nodes = List.of(
+                new SlidingWindowQuotaCounter(mongoTemplate, config, clock),
+                new SlidingWindowQuotaCounter(mongoTemplate, config, clock));
+
+        long granted = Flux.range(0, 40)
+                .flatMap(i -> Mono.defer(() -> nodes.get(i % 2).tryReserve("u1", "AI_CHAT", 3))
+                        .subscribeOn(Schedulers.parallel()))
+                .filter(Boolean::booleanValue)
+                .count()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(3, granted);
+        assertEquals(3L, counts.get(counterId(currentWindow())));
+    }
+
+    @Test
+    void lastUnitIsGrantedToOnlyOneConcurrentCaller() {
+        SlidingWindowQuotaCounter counter = new SlidingWindowQuotaCounter(mongoTemplate, config, clock);
+        counts.put(counterId(currentWindow()), 9L);
+
+        long granted = Flux.range(0, 20)
+                .flatMap(i -> Mono.defer(() -> counter.tryReserve("u1", "AI_CHAT", 10))
+                        .subscribeOn(Schedulers.parallel()))
+                .filter(Boolean::booleanValue)
+                .count()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(1, granted);
+        assertEquals(10L, counts.get(counterId(currentWindow())));
+    }
+
+    @Test
+    void consumeSettlesTheReservedUnitWithoutWriting() {
+        SlidingWindowQuotaCounter counter = new SlidingWindowQuotaCounter(mongoTemplate, config, clock);
+
+        assertTrue(counter.tryReserve("u1", "AI_CHAT", 10).block());
+        int writes = upserts.get();
+        counter.consume("u1", "AI_CHAT").block();
+        // 未经检查的结算不会绕过限额写入
+        counter.consume("u1", "AI_CHAT").block();
+        counter.consume("u2", "AI_CHAT").block();
+
+        assertEquals(writes, upserts.get());
+        assertEquals(5L, counts.get(counterId(currentWindow())));
+        assertFalse(counts.keySet().stream().anyMatch(id -> id.startsWith("u2:")));
+    }
+
+    @Test
+    void reserveAcrossWindowChangeReturnsTheOldLease() {
+        SlidingWindowQuotaCounter counter = new SlidingWindowQuotaCounter(mongoTemplate, config, clock);
+        long firstWindow = currentWindow();
+        assertTrue(counter.tryReserve("u1", "AI_CHAT", 10).block());
+        assertEquals(5L, counts.get(counterId(firstWindow)));
+
+        clock.advance(WINDOW);
+        long secondWindow = currentWindow();
+        // 上一窗口 5 次 × 剩余权重 50/60 = 4，本窗口还能预留 6 个，一批 5 个
+        assertTrue(counter.tryReserve("u1", "AI_CHAT", 10).block());
+        counter.consume("u1", "AI_CHAT").block();
+        counter.consume("u1", "AI_CHAT").block();
+
+        // 旧窗口未取用的 4 个归还，只留下实际占用的 1 个
+        assertEquals(1L, counts.get(counterId(firstWindow)));
+        assertEquals(5L, counts.get(counterId(secondWindow)));
+    }
+
+    private long currentWindow() {
+        return clock.millis() / WINDOW.toMillis() * WINDOW.toMillis();
+    }
+
+    private static String counterId(long windowStart) {
+        return "u1:AI_CHAT:" + windowStart;
+    }
+
+    /**
+     * 按 MongoDB 语义执行计数器的 upsert / $inc：条件不满足的 upsert 以主键冲突失败
+     */
+    private ReactiveMongoTemplate mongoTemplate() {
+        ReactiveMongoTemplate template = mock(ReactiveMongoTemplate.class);
+        when(template.upsert(any(Query.class), any(UpdateDefinition.class), eq(UsageQuotaCounter.class))).thenAnswer(inv -> {
+            Document query = inv.<Query>getArgument(0).getQueryObject();
+            long amount = ((Number) inv.<UpdateDefinition>getArgument(1).getUpdateObject()
+                    .get("$inc", Document.class).get("count")).longValue();
+            return Mono.fromCallable(() -> {
+                upserts.incrementAndGet();
+                synchronized (counts) {
+                    String id = query.getString("_id");
+                    Long current = counts.get(id);
+                    Document condition = query.get("count", Document.class);
+                    if (current != null && condition != null
+                            && current > ((Number) condition.get("$lte")).longValue()) {
+                        throw new DuplicateKeyException("E11000 duplicate key: " + id);
+                    }
+                    counts.merge(id, amount, Long::sum);
+                    return UpdateResult.acknowledged(current == null ? 0 : 1, 1L, null);
+                }
+            });
+        });
+        when(template.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(UsageQuotaCounter.class))).thenAnswer(inv -> {
+            String id = inv.<Query>getArgument(0).getQueryObject().getString("_id");
+            long amount = ((Number) inv.<UpdateDefinition>getArgument(1).getUpdateObject()
+                    .get("$inc", Document.class).get("count")).longValue();
+            return Mono.fromCallable(() -> {
+                synchronized (counts) {
+                    counts.computeIfPresent(id, (k, v) -> v + amount);
+                }
+                return UpdateResult.acknowledged(1, 1L, null);
+            });
+        });
+        when(template.findById(any(String.class), eq(UsageQuotaCounter.class))).thenAnswer(inv -> {
+            Long count = counts.get(inv.<String>getArgument(0));
+            return Mono.justOrEmpty(count == null ? null : UsageQuotaCounter.builder().count(count).build());
+        });
+        return template;
+    }
+
+    private static final class MutableClock extends Clock {
+        private final AtomicLong millis;
+
+        MutableClock(long millis) {
+            this.millis = new AtomicLong(millis);
+        }
+
+        void advance(Duration duration) {
+            millis.addAndGet(duration.toMillis());
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.ainovel.server.service.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 中日韩二元分词器测试
+ * 验证连续汉字切为重叠二元组、单个汉字输出一元组、拉丁串转小写，以及位置号与原文偏移
+ */
+class CjkBigramTokenizerTest {
+
+    @Test
+    void cjkRunsAreSplitIntoOverlappingBigrams() {
+        List<String> tokens = tokens("青云山下");
+
+        assertEquals(List.of("青云@0:0", "云山@1:1", "山下@2:2"), tokens);
+    }
+
+    @Test
+    void isolatedCjkCharacterIsEmittedAsUnigram() {
+        assertEquals(List.of("剑@0:0", "与@1:2", "刀@2:4"), tokens("剑 与 刀"));
+    }
+
+    @Test
+    void latinAndDigitsAreLowercasedRunsSeparatedFromCjk() {
+        List<String> tokens = tokens("AI写作v2，Hello-World");
+
+        assertEquals(List.of("ai@0:0", "写作@1:2", "v2@2:4", "hello@3:7", "world@4:13"), tokens);
+    }
+
+    @Test
+    void kanaAndHangulCountAsCjk() {
+        assertTrue(CjkBigramTokenizer.isCjk('か'));
+        assertTrue(CjkBigramTokenizer.isCjk('カ'));
+        assertTrue(CjkBigramTokenizer.isCjk('한'));
+        assertFalse(CjkBigramTokenizer.isCjk('a'));
+        assertFalse(CjkBigramTokenizer.isCjk('，'));
+    }
+
+    @Test
+    void positionsContinueFromTheGivenStart() {
+        List<String> tokens = new ArrayList<>();
+
+        int next = CjkBigramTokenizer.tokenize("标题", 0, (term, position, offset) -> tokens.add(term + "@" + position));
+        next = CjkBigramTokenizer.tokenize("正文内容", next, (term, position, offset) -> tokens.add(term + "@" + position));
+
+        assertEquals(4, next);
+        assertEquals(List.of("标题@0", "正文@1", "文内@2", "内容@3"), tokens);
+        assertEquals(7, CjkBigramTokenizer.tokenize(null, 7, (term, position, offset) -> fail()));
+    }
+
+    private static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        CjkBigramTokenizer.tokenize(text, (term, position, offset) -> tokens.add(term + "@" + position + ":" + offset));
+        return tokens;
+    }
+}
@@ -0,0 +1,34 @@
+package com.ainovel.server.service.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 小说全文索引测试
+ * 验证按文档ID限定检索范围时，过滤发生在分页之前，总数只统计允许的文档
+ */
+class NovelTextIndexTest {
+
+    @Test
+    void allowedIdsAreFilteredBeforePaging() {
+        NovelTextIndex index = new NovelTextIndex("n1");
+        for (int i = 0; i < 6; i++) {
+            index.upsert(new SearchDocument(SearchDocumentType.SNIPPET, "s" + i, null, "片段" + i, "青云山下的客栈"));
+        }
+        Set<String> owned = Set.of("s1", "s3", "s5");
+
+        NovelTextIndex.Page first = index.search("客栈", Set.of(SearchDocumentType.SNIPPET), owned, 0, 2, 10);
+        NovelTextIndex.Page second = index.search("客栈", Set.of(SearchDocumentType.SNIPPET), owned, 1, 2, 10);
+
+        assertEquals(3, first.totalElements());
+        assertEquals(2, first.hits().size());
+        assertEquals(1, second.hits().size());
+        List<String> ids = List.of(first.hits().get(0).id(), first.hits().get(1).id(), second.hits().get(0).id());
+        assertTrue(owned.containsAll(ids));
+        assertEquals(6, index.search("客栈", null, 0, 10, 10).totalElements());
+    }
+}
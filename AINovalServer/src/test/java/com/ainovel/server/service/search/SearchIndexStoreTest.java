@@ -0,0 +1,99 @@
+package com.ainovel.server.service.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * 全文索引磁盘存储测试
+ * 验证快照加日志的重放顺序、超长正文的读写、过期快照，以及尾部半条记录被截断后新的追加仍能重放
+ */
+class SearchIndexStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void walIsReplayedOverTheSnapshot() throws Exception {
+        SearchIndexStore store = new SearchIndexStore(dir);
+        store.writeSnapshot("n1", List.of(scene("a", "旧内容"), scene("b", "保留")));
+        store.appendUpsert("n1", scene("a", "新内容"));
+        store.appendUpsert("n1", scene("c", "新增"));
+        store.appendRemove("n1", SearchDocumentType.SCENE, "b");
+
+        SearchIndexStore.Loaded loaded = store.load("n1", null);
+
+        assertEquals(3, loaded.walEntries());
+        Map<String, String> texts = texts(loaded);
+        assertEquals(Map.of("a", "新内容", "c", "新增"), texts);
+    }
+
+    @Test
+    void snapshotResetsTheWalAndKeepsLongText() throws Exception {
+        SearchIndexStore store = new SearchIndexStore(dir);
+        store.appendUpsert("n1", scene("a", "日志中的旧条目"));
+        String longText = "长".repeat(40_000);
+        store.writeSnapshot("n1", List.of(scene("a", longText)));
+
+        SearchIndexStore.Loaded loaded = store.load("n1", null);
+
+        assertEquals(0, loaded.walEntries());
+        assertEquals(longText, texts(loaded).get("a"));
+        assertNull(store.load("n1", Duration.ofMillis(-1)), "过期快照应返回 null");
+        assertNull(store.load("missing", null));
+    }
+
+    @Test
+    void truncatedTailIsCutSoLaterAppendsAreReplayed() throws Exception {
+        SearchIndexStore store = new SearchIndexStore(dir);
+        store.writeSnapshot("n1", List.of());
+        store.appendUpsert("n1", scene("a", "完整记录"));
+        Path wal = dir.resolve("n1").resolve("wal.log");
+        long complete = Files.size(wal);
+        store.appendUpsert("n1", scene("b", "写到一半进程退出"));
+        try (FileChannel channel = FileChannel.open(wal, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(wal) - 5);
+        }
+
+        SearchIndexStore.Loaded afterCrash = store.load("n1", null);
+        assertEquals(1, afterCrash.walEntries());
+        assertEquals(complete, Files.size(wal), "半条记录应被截断");
+
+        store.appendUpsert("n1", scene("c", "重启后的追加"));
+        SearchIndexStore.Loaded reloaded = store.load("n1", null);
+
+        assertEquals(2, reloaded.walEntries());
+        assertEquals(Map.of("a", "完整记录", "c", "重启后的追加"), texts(reloaded));
+    }
+
+    @Test
+    void deleteRemovesAllFiles() throws Exception {
+        SearchIndexStore store = new SearchIndexStore(dir);
+        store.writeSnapshot("n1", List.of(scene("a", "内容")));
+        store.appendRemove("n1", SearchDocumentType.SCENE, "a");
+
+        store.delete("n1");
+
+        assertFalse(store.exists("n1"));
+        assertFalse(Files.exists(dir.resolve("n1")));
+    }
+
+    private static SearchDocument scene(String id, String text) {
+        return new SearchDocument(SearchDocumentType.SCENE, id, "chapter-1", "场景" + id, text);
+    }
+
+    private static Map<String, String> texts(SearchIndexStore.Loaded loaded) {
+        return loaded.documents().stream()
+                .collect(Collectors.toMap(SearchDocument::id, SearchDocument::text, (x, y) -> y));
+    }
+}
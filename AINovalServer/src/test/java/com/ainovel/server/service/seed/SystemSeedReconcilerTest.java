@@ -0,0 +1,226 @@
+package com.ainovel.server.service.seed;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.ainovel.server.domain.model.ModelPricing;
+import com.ainovel.server.domain.model.SystemSeedMarker;
+import com.ainovel.server.service.lock.MongoLeaseManager;
+import com.mongodb.bulk.BulkWriteResult;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * 系统种子协调器测试
+ * 验证冷启动每个集合一次批量写入、热重启零写入、清单变化只写差异并只更新仍由种子维护的文档，
+ * 以及未抢到租约的节点等待标记、主节点宕机后重新获取租约
+ */
+class SystemSeedReconcilerTest {
+
+    private final AtomicReference<SystemSeedMarker> storedMarker = new AtomicReference<>();
+    private final Map<String, List<Query>> upsertsByCollection = new HashMap<>();
+    private final Map<String, List<Query>> refreshesByCollection = new HashMap<>();
+    private final Map<String, List<UpdateDefinition>> refreshUpdatesByCollection = new HashMap<>();
+    private final AtomicInteger markerWrites = new AtomicInteger();
+
+    private ReactiveMongoTemplate mongoTemplate;
+    private MongoLeaseManager leaseManager;
+
+    @BeforeEach
+    void setUp() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        mongoTemplate = mock(ReactiveMongoTemplate.class);
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.findById(SystemSeedReconciler.MARKER_ID, SystemSeedMarker.class))
+                .thenAnswer(inv -> Mono.justOrEmpty(storedMarker.get()));
+        when(mongoTemplate.save(any(SystemSeedMarker.class))).thenAnswer(inv -> {
+            SystemSeedMarker marker = inv.getArgument(0);
+            markerWrites.incrementAndGet();
+            storedMarker.set(marker);
+            return Mono.just(marker);
+        });
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), anyString())).thenAnswer(inv -> {
+            List<Query> upserts = upsertsByCollection.computeIfAbsent(inv.getArgument(1), k -> new ArrayList<>());
+            ReactiveBulkOperations bulk = mock(ReactiveBulkOperations.class);
+            when(bulk.upsert(any(Query.class), any(UpdateDefinition.class))).thenAnswer(call -> {
+                upserts.add(call.getArgument(0));
+                return bulk;
+            });
+            when(bulk.updateOne(any(Query.class), any(UpdateDefinition.class))).thenAnswer(call -> {
+                refreshesByCollection.computeIfAbsent(inv.getArgument(1), k -> new ArrayList<>()).add(call.getArgument(0));
+                refreshUpdatesByCollection.computeIfAbsent(inv.getArgument(1), k -> new ArrayList<>()).add(call.getArgument(1));
+                return bulk;
+            });
+            when(bulk.execute()).thenReturn(Mono.just(mock(BulkWriteResult.class)));
+            return bulk;
+        });
+
+        leaseManager = mock(MongoLeaseManager.class);
+        when(leaseManager.tryAcquire(anyString(), any())).thenReturn(Mono.just("token"));
+        when(leaseManager.release(anyString(), anyString())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void coldStartWritesOneBulkUpsertPerCollectionAndTheMarker() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        SystemSeedReconciler reconciler = reconciler(registry);
+
+        SeedManifest manifest = reconciler.manifest(sources(0.001));
+        assertEquals(SystemSeedReconciler.Outcome.APPLIED, reconciler.reconcile(manifest).block());
+
+        assertEquals(2, upsertsByCollection.get("model_pricing").size());
+        assertEquals(1, upsertsByCollection.get("templates").size());
+        assertTrue(refreshesByCollection.isEmpty(), "首次写入没有需要更新的已有文档");
+        verify(mongoTemplate).bulkOps(BulkOperations.BulkMode.UNORDERED, "model_pricing");
+        verify(mongoTemplate).bulkOps(BulkOperations.BulkMode.UNORDERED, "templates");
+        assertEquals(1, markerWrites.get());
+        assertEquals(manifest.hash(), storedMarker.get().getManifestHash());
+        assertEquals(3, storedMarker.get().getItems().size());
+        assertEquals(3.0, registry.get("startup.seed.writes").counter().count());
+        assertEquals(1, registry.get("startup.seed.duration").tag("outcome", "applied").timer().count());
+        verify(leaseManager).release(SystemSeedReconciler.LEASE_KEY, "token");
+    }
+
+    @Test
+    void warmRestartDoesZeroSeedWrites() {
+        reconciler(new SimpleMeterRegistry()).reconcile(reconciler(new SimpleMeterRegistry()).manifest(sources(0.001))).block();
+        upsertsByCollection.clear();
+        markerWrites.set(0);
+
+        // 重启：新的协调器实例、重新构建的清单
+        MeterRegistry registry = new SimpleMeterRegistry();
+        SystemSeedReconciler restarted = reconciler(registry);
+        SystemSeedReconciler.Outcome outcome = restarted.reconcile(restarted.manifest(sources(0.001))).block();
+
+        assertEquals(SystemSeedReconciler.Outcome.SKIPPED, outcome);
+        assertTrue(upsertsByCollection.isEmpty());
+        assertEquals(0, markerWrites.get());
+        assertEquals(0.0, registry.get("startup.seed.writes").counter().count());
+        assertEquals(1, registry.get("startup.seed.duration").tag("outcome", "skipped").timer().count());
+        // 只有启动时那一次 tryAcquire，重启时没有获取租约
+        verify(leaseManager).tryAcquire(anyString(), any());
+    }
+
+    @Test
+    void changedManifestWritesOnlyTheChangedItems() {
+        SystemSeedReconciler reconciler = reconciler(new SimpleMeterRegistry());
+        SeedManifest original = reconciler.manifest(sources(0.001));
+        reconciler.reconcile(original).block();
+        upsertsByCollection.clear();
+
+        SeedManifest changed = reconciler.manifest(sources(0.002));
+        assertEquals(SystemSeedReconciler.Outcome.APPLIED, reconciler.reconcile(changed).block());
+
+        assertEquals(1, upsertsByCollection.get("model_pricing").size());
+        assertFalse(upsertsByCollection.containsKey("templates"));
+        assertEquals(changed.hash(), storedMarker.get().getManifestHash());
+
+        // 已有文档只在 seedHash 仍是上次写入的哈希时更新，被管理后台保存过的文档不再带 seedHash
+        String appliedHash = original.collections().get("model_pricing").get(0).hash();
+        String newHash = changed.collections().get("model_pricing").get(0).hash();
+        assertEquals(1, refreshesByCollection.get("model_pricing").size());
+        Document filter = refreshesByCollection.get("model_pricing").get(0).getQueryObject();
+        assertEquals(appliedHash, filter.getString(SystemSeedReconciler.SEED_HASH_FIELD));
+        assertEquals("gpt-4o", filter.getString("modelId"));
+        Document set = refreshUpdatesByCollection.get("model_pricing").get(0).getUpdateObject().get("$set", Document.class);
+        assertEquals(0.002, set.getDouble("inputPricePerThousandTokens"));
+        assertEquals(newHash, set.getString(SystemSeedReconciler.SEED_HASH_FIELD));
+        Document insert = upsertsByCollection.get("model_pricing").get(0).getQueryObject();
+        assertFalse(insert.containsKey(SystemSeedReconciler.SEED_HASH_FIELD), "插入条件只包含自然键");
+    }
+
+    @Test
+    void nodeWithoutLeaseWaitsForTheLeaderWithoutWriting() {
+        SystemSeedReconciler leader = reconciler(new SimpleMeterRegistry());
+        SeedManifest manifest = leader.manifest(sources(0.001));
+        when(leaseManager.tryAcquire(anyString(), any())).thenReturn(Mono.empty());
+        AtomicInteger reads = new AtomicInteger();
+        when(mongoTemplate.findById(SystemSeedReconciler.MARKER_ID, SystemSeedMarker.class)).thenAnswer(inv -> {
+            // 第三次读取时主节点已写完
+            if (reads.incrementAndGet() < 3) {
+                return Mono.empty();
+            }
+            return Mono.just(SystemSeedMarker.builder().id(SystemSeedReconciler.MARKER_ID).manifestHash(manifest.hash()).build());
+        });
+
+        assertEquals(SystemSeedReconciler.Outcome.FOLLOWED, leader.reconcile(manifest).block(Duration.ofSeconds(5)));
+        assertTrue(upsertsByCollection.isEmpty());
+        assertEquals(0, markerWrites.get());
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), anyString());
+    }
+
+    @Test
+    void nodeRetriesTheLeaseWhenTheLeaderDies() {
+        SystemSeedReconciler follower = new SystemSeedReconciler(mongoTemplate, leaseManager, new SimpleMeterRegistry(),
+                Duration.ofMillis(100), Duration.ofMillis(10));
+        SeedManifest manifest = follower.manifest(sources(0.001));
+        // 主节点拿到租约后宕机，标记始终不更新；租约过期后本节点获取成功
+        when(leaseManager.tryAcquire(anyString(), any())).thenReturn(Mono.empty(), Mono.just("token"));
+
+        assertEquals(SystemSeedReconciler.Outcome.APPLIED, follower.reconcile(manifest).block(Duration.ofSeconds(5)));
+        verify(leaseManager, times(2)).tryAcquire(SystemSeedReconciler.LEASE_KEY, Duration.ofMillis(100));
+        assertEquals(1, markerWrites.get());
+        assertEquals(manifest.hash(), storedMarker.get().getManifestHash());
+    }
+
+    private SystemSeedReconciler reconciler(MeterRegistry registry) {
+        return new SystemSeedReconciler(mongoTemplate, leaseManager, registry, Duration.ofSeconds(5), Duration.ofMillis(10));
+    }
+
+    private List<SystemSeedSource> sources(double gptInputPrice) {
+        SystemSeedSource pricing = new FixedSource("model_pricing", List.of(
+                pricingItem("openai", "gpt-4o", gptInputPrice),
+                pricingItem("anthropic", "claude-3-haiku", 0.00025)));
+        SystemSeedSource templates = new FixedSource("templates", List.of(
+                new SeedItem("TEXT_EXPANSION", Map.of("userId", "system", "name", "TEXT_EXPANSION_1"),
+                        ModelPricing.builder().description("扩写模板").additionalPricing(new HashMap<>(Map.of("a", 1.0, "b", 2.0))).build())));
+        return List.of(pricing, templates);
+    }
+
+    private static SeedItem pricingItem(String provider, String modelId, double inputPrice) {
+        return new SeedItem(provider + ":" + modelId,
+                Map.of("provider", provider, "modelId", modelId, "active", true),
+                ModelPricing.builder().provider(provider).modelId(modelId)
+                        .inputPricePerThousandTokens(inputPrice).outputPricePerThousandTokens(0.01)
+                        .source(ModelPricing.PricingSource.DEFAULT).active(true).version(1).build());
+    }
+
+    private record FixedSource(String seedCollection, List<SeedItem> seedItems) implements SystemSeedSource {
+    }
+}
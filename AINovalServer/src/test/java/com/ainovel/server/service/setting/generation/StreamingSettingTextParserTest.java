@@ -0,0 +1,136 @@
+package com.ainovel.server.service.setting.generation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 设定文本增量解析器测试
+ * 验证跨分片的半行、任意分片边界、不符合格式的段落进入兜底原文，以及流结束时产出最后一个节点
+ */
+class StreamingSettingTextParserTest {
+
+    private static final String TEXT = """
+            当前节点R1 标题：魔法系统 类型：MAGIC_SYSTEM
+            父节点是：null
+            内容：以魔力为核心的力量体系。
+
+            当前节点R1-1 标题：法师 类型：角色
+            父节点是：R1 [父节点标题：魔法系统]
+            内容：能感知与操控魔力的人群，
+            多居于高塔。
+            """;
+
+    @Test
+    void partialLinesAcrossChunksAreJoined() {
+        StreamingSettingTextParser parser = new StreamingSettingTextParser();
+
+        assertTrue(parser.feed("当前节点R1 标").isEmpty());
+        assertTrue(parser.feed("题：魔法系统 类型：MAGIC_SYS").isEmpty());
+        assertTrue(parser.feed("TEM\n父节点是：null\n内容：以魔力").isEmpty());
+        assertTrue(parser.feed("为核心的力量体系。\n").isEmpty());
+        List<Map<String, Object>> completed = parser.feed("\n当前节点R1-1");
+
+        assertEquals(1, completed.size());
+        Map<String, Object> node = completed.get(0);
+        assertEquals("魔法系统", node.get("name"));
+        assertEquals("MAGIC_SYSTEM", node.get("type"));
+        assertEquals("以魔力为核心的力量体系。", node.get("description"));
+        assertNull(node.get("parentId"));
+        assertEquals("R1", node.get("tempId"));
+    }
+
+    @Test
+    void everyChunkBoundaryYieldsTheSameNodes() {
+        List<Map<String, Object>> expected = parseInChunks(TEXT);
+        assertEquals(2, expected.size());
+        Map<String, Object> child = expected.get(1);
+        assertEquals("法师", child.get("name"));
+        assertEquals("CHARACTER", child.get("type"));
+        assertEquals("R1", child.get("parentId"));
+        assertEquals("能感知与操控魔力的人群，\n多居于高塔。", child.get("description"));
+
+        for (int i = 1; i < TEXT.length(); i++) {
+            assertEquals(expected, parseInChunks(TEXT.substring(0, i), TEXT.substring(i)), "分片位置: " + i);
+        }
+    }
+
+    @Test
+    void malformedBlocksAreKeptForTheFallback() {
+        StreamingSettingTextParser parser = new StreamingSettingTextParser();
+        String text = """
+                以下是生成的设定：
+                当前节点R2 标题：无内容节点 类型：LOCATION
+
+                当前节点R3 类型：ITEM
+                内容：缺少标题的节点
+
+                当前节点R4 标题：城堡 类型：未知类型
+                内容：古老的城堡。
+                """;
+
+        List<Map<String, Object>> nodes = new ArrayList<>(parser.feed(text));
+        nodes.addAll(parser.finish());
+
+        assertEquals(1, nodes.size());
+        assertEquals("城堡", nodes.get(0).get("name"));
+        assertEquals("OTHER", nodes.get(0).get("type"));
+        assertEquals(1, parser.parsedCount());
+        String unparsed = parser.drainUnparsed();
+        assertTrue(unparsed.contains("以下是生成的设定："));
+        assertTrue(unparsed.contains("当前节点R3 类型：ITEM\n内容：缺少标题的节点"));
+        assertEquals("", parser.drainUnparsed(), "取出后清空");
+    }
+
+    @Test
+    void blankLinesBeforeContentDoNotCloseTheNode() {
+        StreamingSettingTextParser parser = new StreamingSettingTextParser();
+
+        assertTrue(parser.feed("1) **当前节点R1 标题：王都 类型：地点**\n\n\n- 内容：王国的首都\n").isEmpty());
+        List<Map<String, Object>> nodes = parser.feed("\n");
+
+        assertEquals(1, nodes.size());
+        assertEquals("王都", nodes.get(0).get("name"));
+        assertEquals("LOCATION", nodes.get(0).get("type"));
+        assertEquals("王国的首都", nodes.get(0).get("description"));
+        assertEquals("", parser.drainUnparsed());
+    }
+
+    @Test
+    void finishFlushesTheTrailingPartialLineAndLastNode() {
+        StreamingSettingTextParser parser = new StreamingSettingTextParser();
+
+        assertTrue(parser.feed("当前节点R1 标题：法师 类型：CHARACTER\n内容：擅长").isEmpty());
+        assertTrue(parser.feed("元素魔法").isEmpty());
+        List<Map<String, Object>> nodes = parser.finish();
+
+        assertEquals(1, nodes.size());
+        assertEquals("擅长元素魔法", nodes.get(0).get("description"));
+        assertTrue(parser.finish().isEmpty(), "重复结束不应再次产出");
+    }
+
+    @Test
+    void finishMovesAnIncompleteLastNodeToTheFallback() {
+        StreamingSettingTextParser parser = new StreamingSettingTextParser();
+
+        parser.feed("当前节点R1 标题：法师 类型：CHARACTER\n父节点是：无");
+
+        assertTrue(parser.finish().isEmpty());
+        assertEquals(0, parser.parsedCount());
+        assertEquals("当前节点R1 标题：法师 类型：CHARACTER\n父节点是：无\n\n", parser.drainUnparsed());
+    }
+
+    private static List<Map<String, Object>> parseInChunks(String... chunks) {
+        StreamingSettingTextParser parser = new StreamingSettingTextParser();
+        List<Map<String, Object>> nodes = new ArrayList<>();
+        for (String chunk : chunks) {
+            nodes.addAll(parser.feed(chunk));
+        }
+        nodes.addAll(parser.finish());
+        return nodes;
+    }
+}
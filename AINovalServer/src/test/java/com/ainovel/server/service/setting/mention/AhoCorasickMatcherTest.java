@@ -0,0 +1,58 @@
+package com.ainovel.server.service.setting.mention;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Aho-Corasick 多模式匹配测试
+ * 验证重叠与互为前后缀的关键词都被计数、中文名称匹配、拉丁字母大小写归一，以及空白和重复关键词被忽略
+ */
+class AhoCorasickMatcherTest {
+
+    @Test
+    void overlappingAndNestedPatternsAreAllCounted() {
+        AhoCorasickMatcher matcher = AhoCorasickMatcher.build(List.of("he", "she", "his", "hers"));
+
+        Map<String, Integer> counts = matcher.countMatches("ushers");
+
+        assertEquals(Map.of("he", 1, "she", 1, "hers", 1), counts);
+    }
+
+    @Test
+    void chineseNamesSharingCharactersAreCountedIndependently() {
+        AhoCorasickMatcher matcher = AhoCorasickMatcher.build(List.of("张三", "张三丰", "三丰", "武当山"));
+
+        Map<String, Integer> counts = matcher.countMatches("张三丰上了武当山，张三在山下等候。");
+
+        assertEquals(Map.of("张三", 2, "张三丰", 1, "三丰", 1, "武当山", 1), counts);
+    }
+
+    @Test
+    void repeatedOccurrencesIncludingSelfOverlapAreCounted() {
+        AhoCorasickMatcher matcher = AhoCorasickMatcher.build(List.of("哈哈"));
+
+        assertEquals(Map.of("哈哈", 3), matcher.countMatches("哈哈哈哈"));
+    }
+
+    @Test
+    void latinLettersAreMatchedCaseInsensitively() {
+        AhoCorasickMatcher matcher = AhoCorasickMatcher.build(List.of(" Excalibur ", "EXCALIBUR", "亚瑟"));
+
+        assertEquals(2, matcher.patternCount());
+        assertEquals(Map.of("excalibur", 2, "亚瑟", 1), matcher.countMatches("亚瑟拔出了EXCALIBUR——excalibur！"));
+        assertEquals("excalibur", AhoCorasickMatcher.normalize("  ExCalibur "));
+    }
+
+    @Test
+    void emptyMatcherAndEmptyTextYieldNothing() {
+        assertTrue(AhoCorasickMatcher.build(List.of("", "   ")).isEmpty());
+        assertSame(AhoCorasickMatcher.empty(), AhoCorasickMatcher.build(null));
+        assertTrue(AhoCorasickMatcher.empty().countMatches("任意文本").isEmpty());
+        assertTrue(AhoCorasickMatcher.build(List.of("张三")).countMatches("").isEmpty());
+        assertTrue(AhoCorasickMatcher.build(List.of("张三")).countMatches("李四").isEmpty());
+    }
+}
@@ -0,0 +1,91 @@
+package com.ainovel.server.service.setting.mention;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.ainovel.server.domain.model.NovelSettingItem;
+import com.ainovel.server.repository.NovelSettingItemRepository;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * 设定提及索引测试
+ * 验证名称与别名都能命中、不追踪的设定被排除，以及保存/删除设定后字典增量更新而不回查数据库
+ */
+class SettingMentionIndexTest {
+
+    private static final String NOVEL = "novel-1";
+
+    private final NovelSettingItemRepository repository = mock(NovelSettingItemRepository.class);
+    private final SettingMentionIndex index = new SettingMentionIndex(repository);
+
+    SettingMentionIndexTest() {
+        when(repository.findByNovelId(NOVEL)).thenReturn(Flux.just(
+                item("s1", "张无忌", Map.of("别名", "教主、无忌")),
+                item("s2", "光明顶", Map.of()),
+                NovelSettingItem.builder().id("s3").novelId(NOVEL).name("路人甲").nameAliasTracking("no_track").build()));
+    }
+
+    @Test
+    void namesAndAliasesAreDetected() {
+        Map<String, Integer> mentions = index.detectMentions(NOVEL, "教主回到光明顶，无忌二字响彻山谷。路人甲看着张无忌。").block();
+
+        // 张无忌 中同时包含别名 无忌，两者都计入
+        assertEquals(Map.of("s1", 4, "s2", 1), mentions);
+    }
+
+    @Test
+    void savingASettingUpdatesTheLoadedDictionary() {
+        assertEquals(Map.of(), index.detectMentions(NOVEL, "峨眉派的灭绝师太").block());
+
+        index.onSettingSaved(item("s4", "灭绝师太", Map.of("外号", "灭绝")));
+        index.onSettingSaved(item("s2", "昆仑山", Map.of()));
+
+        Map<String, Integer> mentions = index.detectMentions(NOVEL, "灭绝师太离开光明顶去了昆仑山").block();
+        assertEquals(Map.of("s4", 2, "s2", 1), mentions);
+        verify(repository, times(1)).findByNovelId(NOVEL);
+    }
+
+    @Test
+    void deletingASettingRemovesItsKeywords() {
+        assertEquals(Map.of("s2", 1), index.detectMentions(NOVEL, "光明顶").block());
+
+        index.onSettingDeleted(NOVEL, "s2");
+
+        assertEquals(Map.of(), index.detectMentions(NOVEL, "光明顶").block());
+        verify(repository, times(1)).findByNovelId(NOVEL);
+    }
+
+    @Test
+    void changesBeforeTheDictionaryIsLoadedAreReadFromTheRepository() {
+        index.onSettingSaved(item("s9", "未加载", Map.of()));
+        index.onSettingDeleted(NOVEL, "s1");
+
+        assertEquals(Map.of("s1", 2), index.detectMentions(NOVEL, "张无忌").block());
+
+        index.evict(NOVEL);
+        index.detectMentions(NOVEL, "张无忌").block();
+        verify(repository, times(2)).findByNovelId(NOVEL);
+    }
+
+    @Test
+    void mentionedSettingsAreSortedFirst() {
+        List<NovelSettingItem> items = List.of(item("a", "甲", Map.of()), item("b", "乙", Map.of()), item("c", "丙", Map.of()));
+
+        List<NovelSettingItem> sorted = SettingMentionIndex.sortByMentions(items, Map.of("c", 3, "b", 1));
+
+        assertEquals(List.of("c", "b", "a"), sorted.stream().map(NovelSettingItem::getId).toList());
+    }
+
+    private static NovelSettingItem item(String id, String name, Map<String, String> attributes) {
+        return NovelSettingItem.builder().id(id).novelId(NOVEL).name(name).attributes(attributes).build();
+    }
+}
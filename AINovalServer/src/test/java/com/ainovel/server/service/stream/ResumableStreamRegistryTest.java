@@ -0,0 +1,91 @@
+package com.ainovel.server.service.stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+
+import com.ainovel.server.common.exception.ResourceNotFoundException;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+/**
+ * 可续传 AI 流注册表测试
+ * 验证断开后宽限期内可重连、宽限期后停止上游，以及只有所有者可以停止流
+ */
+class ResumableStreamRegistryTest {
+
+    private final ResumableStreamRegistry registry =
+            new ResumableStreamRegistry(100, Duration.ofMinutes(1), Duration.ofMinutes(10), 100, Duration.ofMillis(200));
+
+    @Test
+    void upstreamKeepsRunningWithinGraceAndResumeReplaysMissedEvents() {
+        AtomicBoolean upstreamCancelled = new AtomicBoolean();
+        String streamId = ResumableStreamRegistry.newStreamId();
+        Disposable client = registry.register(streamId, "u1", ticks(upstreamCancelled)).subscribe();
+        sleep(80);
+        client.dispose();
+
+        List<ServerSentEvent<Object>> resumed = registry.resume(streamId, "u1", streamId + ":0")
+                .take(3)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertFalse(upstreamCancelled.get());
+        assertEquals(List.of(streamId + ":1", streamId + ":2", streamId + ":3"),
+                resumed.stream().map(ServerSentEvent::id).toList());
+    }
+
+    @Test
+    void upstreamIsCancelledWhenNoSubscriberReturnsWithinGrace() {
+        AtomicBoolean upstreamCancelled = new AtomicBoolean();
+        String streamId = ResumableStreamRegistry.newStreamId();
+        registry.register(streamId, "u1", ticks(upstreamCancelled)).subscribe().dispose();
+
+        sleep(500);
+
+        assertTrue(upstreamCancelled.get());
+    }
+
+    @Test
+    void ownerCanCancelAndOthersCannot() {
+        AtomicBoolean upstreamCancelled = new AtomicBoolean();
+        String streamId = ResumableStreamRegistry.newStreamId();
+        Flux<ServerSentEvent<String>> client = registry.register(streamId, "u1", ticks(upstreamCancelled));
+
+        StepVerifier.create(client)
+                .expectNextCount(1)
+                .then(() -> {
+                    StepVerifier.create(registry.cancel(streamId, "u2"))
+                            .expectError(ResourceNotFoundException.class)
+                            .verify();
+                    assertFalse(upstreamCancelled.get());
+                    registry.cancel(streamId, "u1").block();
+                })
+                .thenConsumeWhile(event -> true)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertTrue(upstreamCancelled.get());
+    }
+
+    private static Flux<ServerSentEvent<String>> ticks(AtomicBoolean cancelled) {
+        return Flux.interval(Duration.ofMillis(20))
+                .map(i -> ServerSentEvent.builder("tick-" + i).event("message").build())
+                .doOnCancel(() -> cancelled.set(true));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
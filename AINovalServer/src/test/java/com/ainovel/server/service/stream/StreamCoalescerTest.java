@@ -0,0 +1,77 @@
+package com.ainovel.server.service.stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+/**
+ * 流式分片合并测试
+ * 验证首个分片立即下发、下游无需求时累积的分片在需求到来时只合并一次，以及控制元素保持独立
+ */
+class StreamCoalescerTest {
+
+    @Test
+    void backloggedChunksAreMergedOnceWhenDemandArrives() {
+        List<String> chunks = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            chunks.add("字");
+        }
+        AtomicInteger merges = new AtomicInteger();
+        AtomicInteger mergedItems = new AtomicInteger();
+
+        // 上游保持打开，只有下游请求能触发下发
+        StepVerifier.create(StreamCoalescer.coalesce(Flux.fromIterable(chunks).concatWith(Flux.never()),
+                        Duration.ofMillis(10), Integer.MAX_VALUE,
+                        item -> false,
+                        (pending, next) -> true,
+                        batch -> {
+                            merges.incrementAndGet();
+                            mergedItems.addAndGet(batch.size());
+                            return String.join("", batch);
+                        },
+                        String::length), 1)
+                .expectNext("字")
+                .thenAwait(Duration.ofMillis(50))
+                .thenRequest(1)
+                .assertNext(batch -> assertEquals(9_999, batch.length()))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+
+        // 9999 个分片一次合并，而不是逐个拼接
+        assertEquals(1, merges.get());
+        assertEquals(9_999, mergedItems.get());
+    }
+
+    @Test
+    void textStreamKeepsControlChunksIsolated() {
+        List<String> emitted = StreamCoalescer.coalesceText(
+                        Flux.just("你", "好", "heartbeat", "世", "界", "错误：超时"))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(List.of("你", "好", "heartbeat", "世界", "错误：超时"), emitted);
+    }
+
+    @Test
+    void batchesAreSplitWhereItemsCannotMerge() {
+        List<String> emitted = StreamCoalescer.coalesce(Flux.just("a1", "a2", "b1", "b2", "a3"),
+                        Duration.ofSeconds(1), Integer.MAX_VALUE,
+                        item -> false,
+                        (pending, next) -> Objects.equals(pending.charAt(0), next.charAt(0)),
+                        batch -> String.join("+", batch),
+                        String::length)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(List.of("a1", "a2", "b1+b2", "a3"), emitted);
+    }
+}
@@ -0,0 +1,39 @@
+package com.ainovel.server.task.events;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.reactivestreams.Subscription;
+
+import reactor.core.publisher.BaseSubscriber;
+
+/**
+ * 手动控制需求的测试订阅者，模拟快/慢不同的 SSE 连接
+ */
+final class RecordingSubscriber extends BaseSubscriber<Map<String, Object>> {
+
+    private final long initialRequest;
+    final List<Map<String, Object>> received = Collections.synchronizedList(new ArrayList<>());
+
+    RecordingSubscriber(long initialRequest) {
+        this.initialRequest = initialRequest;
+    }
+
+    @Override
+    protected void hookOnSubscribe(Subscription subscription) {
+        if (initialRequest > 0) {
+            request(initialRequest);
+        }
+    }
+
+    @Override
+    protected void hookOnNext(Map<String, Object> value) {
+        received.add(value);
+    }
+
+    List<Object> types() {
+        return received.stream().map(ev -> ev.get("type")).toList();
+    }
+}
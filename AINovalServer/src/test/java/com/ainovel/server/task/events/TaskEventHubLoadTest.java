@@ -0,0 +1,115 @@
+package com.ainovel.server.task.events;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.ainovel.server.task.events.TaskEventHub.OverflowPolicy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 任务事件中心负载测试：1万个空闲连接 + 1个高频用户
+ *
+ * 高频用户同时开着一个正常连接和一个停止读取的连接。验证：
+ * 发布每条事件的CPU开销与空闲连接数量无关；停滞连接不影响正常连接收到全部事件；
+ * 停滞连接的缓冲始终有界；空闲连接收不到任何事件。
+ */
+@Slf4j
+class TaskEventHubLoadTest {
+
+    private static final int IDLE_SUBSCRIBERS = 10_000;
+    private static final int HOT_EVENTS = 200_000;
+    private static final int BUFFER_SIZE = 256;
+
+    @Test
+    void hotUserCostIsIndependentOfIdleSubscribersAndSlowTabsDoNotBlock() {
+        // 预热，避免JIT影响对比
+        runScenario(0);
+        runScenario(IDLE_SUBSCRIBERS);
+
+        long baselineNanos = Long.MAX_VALUE;
+        long loadedNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            baselineNanos = Math.min(baselineNanos, runScenario(0));
+            loadedNanos = Math.min(loadedNanos, runScenario(IDLE_SUBSCRIBERS));
+        }
+        log.info("高频用户 {} 条事件: 无空闲连接 CPU {} ms, {} 个空闲连接时 CPU {} ms",
+                HOT_EVENTS, baselineNanos / 1_000_000, IDLE_SUBSCRIBERS, loadedNanos / 1_000_000);
+        // 按用户路由：空闲连接不参与每条事件的处理，CPU 曲线应当平坦
+        assertTrue(loadedNanos < baselineNanos * 3,
+                "空闲连接拖慢了发布: baseline=" + baselineNanos + "ns loaded=" + loadedNanos + "ns");
+    }
+
+    /**
+     * @return 发布线程消耗的CPU时间（纳秒）
+     */
+    private long runScenario(int idleSubscribers) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TaskEventHub hub = new TaskEventHub(meterRegistry, BUFFER_SIZE, OverflowPolicy.COALESCE_PROGRESS);
+        List<RecordingSubscriber> idle = new ArrayList<>(idleSubscribers);
+        for (int i = 0; i < idleSubscribers; i++) {
+            RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+            hub.subscribe("idle-" + i).subscribe(subscriber);
+            idle.add(subscriber);
+        }
+        RecordingSubscriber fast = new RecordingSubscriber(Long.MAX_VALUE);
+        RecordingSubscriber stalled = new RecordingSubscriber(1);
+        hub.subscribe("hot").subscribe(fast);
+        hub.subscribe("hot").subscribe(stalled);
+        assertEquals(idleSubscribers + 2, hub.getSubscriberCount());
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long start = threads.getCurrentThreadCpuTime();
+        long maxQueued = 0;
+        for (int i = 0; i < HOT_EVENTS; i++) {
+            hub.publish(hotEvent(i));
+            if ((i & 1023) == 0) {
+                maxQueued = Math.max(maxQueued, hub.getQueuedEvents());
+            }
+        }
+        long cpu = threads.getCurrentThreadCpuTime() - start;
+
+        // 停滞连接不造成队头阻塞：正常连接按顺序收到全部事件
+        assertEquals(HOT_EVENTS, fast.received.size());
+        assertEquals(HOT_EVENTS - 1, fast.received.get(HOT_EVENTS - 1).get("seq"));
+        // 停滞连接只收到第一条，其余被有界缓冲吸收
+        assertEquals(1, stalled.received.size());
+        assertTrue(maxQueued <= BUFFER_SIZE, "缓冲超过上限: " + maxQueued);
+        assertTrue(hub.getQueuedEvents() <= BUFFER_SIZE);
+        assertTrue(meterRegistry.get("task.events.dropped").counter().count()
+                + meterRegistry.get("task.events.coalesced").counter().count() > 0);
+        for (RecordingSubscriber subscriber : idle) {
+            assertTrue(subscriber.received.isEmpty());
+        }
+
+        // 停滞连接恢复读取后先收到重同步标记
+        stalled.request(Long.MAX_VALUE);
+        assertEquals(TaskEventHub.RESYNC_TYPE, stalled.received.get(1).get("type"));
+
+        idle.forEach(RecordingSubscriber::dispose);
+        fast.dispose();
+        stalled.dispose();
+        assertEquals(0, hub.getSubscriberCount());
+        assertEquals(0, hub.getQueuedEvents());
+        return cpu;
+    }
+
+    private static Map<String, Object> hotEvent(int seq) {
+        Map<String, Object> event = new HashMap<>();
+        // 每100条里1条状态事件，其余是少量任务的进度
+        event.put("type", seq % 100 == 0 ? "TASK_STARTED" : "TASK_PROGRESS");
+        event.put("taskId", "task-" + (seq % 8));
+        event.put("userId", "hot");
+        event.put("seq", seq);
+        return event;
+    }
+}
@@ -0,0 +1,127 @@
+package com.ainovel.server.task.events;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ainovel.server.task.events.TaskEventHub.OverflowPolicy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 任务事件中心测试：按用户路由、溢出策略、重同步标记与指标
+ */
+class TaskEventHubTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void eventsAreRoutedOnlyToSubscribersOfTheSameUser() {
+        TaskEventHub hub = new TaskEventHub(meterRegistry, 16, OverflowPolicy.DROP_OLDEST);
+        TaskEventPublisherImpl publisher = new TaskEventPublisherImpl(hub, new LocalTaskEventFanout(hub));
+        RecordingSubscriber alice = new RecordingSubscriber(Long.MAX_VALUE);
+        RecordingSubscriber aliceSecondTab = new RecordingSubscriber(Long.MAX_VALUE);
+        RecordingSubscriber bob = new RecordingSubscriber(Long.MAX_VALUE);
+        publisher.events("alice").subscribe(alice);
+        publisher.events("alice").subscribe(aliceSecondTab);
+        publisher.events("bob").subscribe(bob);
+
+        publisher.publish("TASK_STARTED", "t1", "SUMMARY", "alice", Map.of());
+        publisher.publish(Map.of("type", "TASK_COMPLETED", "taskId", "t2", "userId", "bob"));
+        publisher.publish("TASK_STARTED", "t3", "SUMMARY", null, Map.of());
+
+        assertEquals(List.of("t1"), alice.received.stream().map(ev -> ev.get("taskId")).toList());
+        assertEquals(List.of("t1"), aliceSecondTab.received.stream().map(ev -> ev.get("taskId")).toList());
+        assertEquals(List.of("t2"), bob.received.stream().map(ev -> ev.get("taskId")).toList());
+        assertEquals(3.0, meterRegistry.get("task.events.subscribers").gauge().value());
+    }
+
+    @Test
+    void slowSubscriberDropsOldestAndReceivesResyncMarker() {
+        TaskEventHub hub = new TaskEventHub(meterRegistry, 4, OverflowPolicy.DROP_OLDEST);
+        RecordingSubscriber slow = new RecordingSubscriber(0);
+        hub.subscribe("u").subscribe(slow);
+
+        for (int i = 0; i < 10; i++) {
+            hub.publish(event("TASK_STARTED", "t" + i));
+        }
+        assertTrue(slow.received.isEmpty());
+        assertEquals(4.0, meterRegistry.get("task.events.queue.depth").gauge().value());
+        assertEquals(6.0, meterRegistry.get("task.events.dropped").counter().count());
+
+        slow.request(10);
+
+        assertEquals(TaskEventHub.RESYNC_TYPE, slow.received.get(0).get("type"));
+        assertEquals(6, slow.received.get(0).get("dropped"));
+        assertEquals(List.of("t6", "t7", "t8", "t9"),
+                slow.received.subList(1, slow.received.size()).stream().map(ev -> ev.get("taskId")).toList());
+        assertEquals(0.0, meterRegistry.get("task.events.queue.depth").gauge().value());
+        assertEquals(1.0, meterRegistry.get("task.events.resync").counter().count());
+    }
+
+    @Test
+    void coalesceProgressKeepsLatestProgressPerTaskBeforeDroppingOtherEvents() {
+        TaskEventHub hub = new TaskEventHub(meterRegistry, 3, OverflowPolicy.COALESCE_PROGRESS);
+        RecordingSubscriber slow = new RecordingSubscriber(0);
+        hub.subscribe("u").subscribe(slow);
+
+        hub.publish(event("TASK_STARTED", "a"));
+        hub.publish(progress("a", 10));
+        hub.publish(progress("b", 10));
+        // 缓冲已满：合并 a 的旧进度，不算丢弃
+        hub.publish(progress("a", 20));
+        assertEquals(0.0, meterRegistry.get("task.events.dropped").counter().count());
+        assertEquals(1.0, meterRegistry.get("task.events.coalesced").counter().count());
+        // 非进度事件：优先丢弃最旧的进度事件（b），而不是 a 的开始事件
+        hub.publish(event("TASK_COMPLETED", "a"));
+
+        slow.request(Long.MAX_VALUE);
+
+        assertEquals(List.of(TaskEventHub.RESYNC_TYPE, "TASK_STARTED", "TASK_PROGRESS", "TASK_COMPLETED"), slow.types());
+        assertEquals(1, slow.received.get(0).get("dropped"));
+        assertEquals(20, slow.received.get(2).get("progress"));
+        assertEquals(1.0, meterRegistry.get("task.events.dropped").counter().count());
+    }
+
+    @Test
+    void cancelledSubscribersAreUnregisteredAndReleaseTheirBuffers() {
+        TaskEventHub hub = new TaskEventHub(meterRegistry, 8, OverflowPolicy.DROP_OLDEST);
+        RecordingSubscriber slow = new RecordingSubscriber(0);
+        hub.subscribe("u").subscribe(slow);
+        hub.publish(event("TASK_STARTED", "t1"));
+        hub.publish(event("TASK_STARTED", "t2"));
+        assertEquals(1, hub.getSubscriberCount());
+        assertEquals(2, hub.getQueuedEvents());
+
+        slow.dispose();
+        hub.publish(event("TASK_STARTED", "t3"));
+
+        assertEquals(0, hub.getSubscriberCount());
+        assertEquals(0, hub.getQueuedEvents());
+        assertTrue(slow.received.isEmpty());
+    }
+
+    private static Map<String, Object> event(String type, String taskId) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("type", type);
+        event.put("taskId", taskId);
+        event.put("userId", "u");
+        return event;
+    }
+
+    private static Map<String, Object> progress(String taskId, int percent) {
+        Map<String, Object> event = event("TASK_PROGRESS", taskId);
+        event.put("progress", percent);
+        return event;
+    }
+}
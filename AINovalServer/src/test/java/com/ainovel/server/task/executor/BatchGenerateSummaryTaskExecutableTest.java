@@ -0,0 +1,136 @@
+package com.ainovel.server.task.executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ainovel.server.domain.model.Novel;
+import com.ainovel.server.domain.model.Scene;
+import com.ainovel.server.service.NovelService;
+import com.ainovel.server.service.SceneService;
+import com.ainovel.server.task.TaskContext;
+import com.ainovel.server.task.dto.batchsummary.BatchGenerateSummaryParameters;
+import com.ainovel.server.task.dto.batchsummary.BatchGenerateSummaryProgress;
+import com.ainovel.server.task.dto.batchsummary.BatchGenerateSummaryResult;
+import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryBundleParameters;
+import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryParameters;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 批量场景摘要打包测试
+ * 验证待生成场景按阅读顺序、token 预算和场景数上限分包，单场景包提交单场景子任务，以及提交失败按包内场景数计为失败
+ */
+class BatchGenerateSummaryTaskExecutableTest {
+
+    private static final String USER_ID = "user-1";
+    private static final String NOVEL_ID = "novel-1";
+
+    private final NovelService novelService = mock(NovelService.class);
+    private final SceneService sceneService = mock(SceneService.class);
+    private final BatchGenerateSummaryTaskExecutable executable = new BatchGenerateSummaryTaskExecutable(novelService, sceneService);
+
+    private final List<String> submittedTypes = new ArrayList<>();
+    private final List<List<String>> submittedScenes = new ArrayList<>();
+
+    BatchGenerateSummaryTaskExecutableTest() {
+        ReflectionTestUtils.setField(executable, "packingEnabled", true);
+        ReflectionTestUtils.setField(executable, "bundleTokenBudget", 10);
+        ReflectionTestUtils.setField(executable, "maxScenesPerBundle", 3);
+
+        Novel.Chapter first = Novel.Chapter.builder().id("c1").order(1).build();
+        Novel.Chapter second = Novel.Chapter.builder().id("c2").order(2).build();
+        Novel novel = Novel.builder()
+                .id(NOVEL_ID)
+                .author(Novel.Author.builder().id(USER_ID).build())
+                .structure(Novel.Structure.builder()
+                        .acts(List.of(Novel.Act.builder().id("a1").chapters(List.of(first, second)).build()))
+                        .build())
+                .build();
+        when(novelService.findNovelById(NOVEL_ID)).thenReturn(Mono.just(novel));
+        // 查询按场景序号排列，章节之间交错
+        when(sceneService.findScenesByChapterIdsOrdered(List.of("c1", "c2"))).thenReturn(Flux.just(
+                scene("e", "c2", "二二", null),
+                scene("a", "c1", "一二三四", null),
+                scene("d", "c2", "一二三", "已有摘要"),
+                scene("b", "c1", "五六七八", null),
+                scene("f", "c2", "二二", null),
+                scene("c", "c1", "超过预算的长场景正文内容", null),
+                scene("g", "c2", "二二", null),
+                scene("h", "c2", "二二", null)));
+    }
+
+    @Test
+    void pendingScenesArePackedInReadingOrderWithinBudget() {
+        TaskContext<BatchGenerateSummaryParameters> context = context();
+
+        BatchGenerateSummaryResult result = executable.execute(context).block();
+
+        assertEquals(List.of(
+                GenerateSummaryBundleTaskExecutable.TASK_TYPE, "GENERATE_SUMMARY",
+                GenerateSummaryBundleTaskExecutable.TASK_TYPE, "GENERATE_SUMMARY"), submittedTypes);
+        // a+b 达到预算；c 超出预算独占一包；e、f、g 达到场景数上限；d 已有摘要被跳过
+        assertEquals(List.of(List.of("a", "b"), List.of("c"), List.of("e", "f", "g"), List.of("h")), submittedScenes);
+        assertEquals(8, result.getTotalScenes());
+        assertEquals(1, result.getSkippedCount());
+        assertEquals(0, result.getFailedCount());
+
+        ArgumentCaptor<Object> progress = ArgumentCaptor.forClass(Object.class);
+        verify(context).updateProgress(progress.capture());
+        BatchGenerateSummaryProgress initial = (BatchGenerateSummaryProgress) progress.getValue();
+        assertEquals(8, initial.getTotalScenes());
+        assertEquals(1, initial.getSkippedCount());
+    }
+
+    @Test
+    void failedSubmissionCountsEverySceneInTheBundle() {
+        TaskContext<BatchGenerateSummaryParameters> context = context();
+        when(context.submitSubTask(any(), any())).thenAnswer(inv -> {
+            Object parameters = inv.getArgument(1);
+            if (parameters instanceof GenerateSummaryBundleParameters bundle && bundle.getSceneIds().contains("e")) {
+                return Mono.error(new IllegalStateException("队列不可用"));
+            }
+            return Mono.just("sub-task");
+        });
+
+        BatchGenerateSummaryResult result = executable.execute(context).block();
+
+        assertEquals(3, result.getFailedCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    private TaskContext<BatchGenerateSummaryParameters> context() {
+        TaskContext<BatchGenerateSummaryParameters> context = mock(TaskContext.class);
+        when(context.getUserId()).thenReturn(USER_ID);
+        when(context.getParameters()).thenReturn(BatchGenerateSummaryParameters.builder()
+                .novelId(NOVEL_ID)
+                .startChapterId("c1")
+                .endChapterId("c2")
+                .build());
+        when(context.updateProgress(any())).thenReturn(Mono.empty());
+        when(context.submitSubTask(anyString(), any())).thenAnswer(inv -> {
+            submittedTypes.add(inv.getArgument(0));
+            Object parameters = inv.getArgument(1);
+            submittedScenes.add(parameters instanceof GenerateSummaryBundleParameters bundle
+                    ? bundle.getSceneIds()
+                    : List.of(((GenerateSummaryParameters) parameters).getSceneId()));
+            return Mono.just("sub-task");
+        });
+        return context;
+    }
+
+    private static Scene scene(String id, String chapterId, String content, String summary) {
+        return Scene.builder().id(id).novelId(NOVEL_ID).chapterId(chapterId).content(content).summary(summary).build();
+    }
+}
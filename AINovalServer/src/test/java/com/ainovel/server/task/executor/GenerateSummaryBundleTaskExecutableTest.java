@@ -0,0 +1,125 @@
+package com.ainovel.server.task.executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.ainovel.server.domain.model.Scene;
+import com.ainovel.server.domain.model.UserAIModelConfig;
+import com.ainovel.server.service.NovelAIService;
+import com.ainovel.server.service.UserAIModelConfigService;
+import com.ainovel.server.task.TaskContext;
+import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryBundleParameters;
+import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryBundleResult;
+import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryResult;
+import com.ainovel.server.task.service.EnhancedRateLimiterService;
+import com.ainovel.server.task.service.EnhancedRateLimiterService.PermitResult;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 打包场景摘要执行器测试
+ * 验证打包结果按场景写回、结果中缺失的场景逐个兜底、打包请求失败时全部兜底，以及不存在的场景计为失败
+ */
+class GenerateSummaryBundleTaskExecutableTest {
+
+    private static final String USER_ID = "user-1";
+    private static final String NOVEL_ID = "novel-1";
+    private static final String CONFIG_ID = "config-1";
+
+    private final NovelAIService novelAIService = mock(NovelAIService.class);
+    private final UserAIModelConfigService configService = mock(UserAIModelConfigService.class);
+    private final ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+    private final EnhancedRateLimiterService rateLimiter = mock(EnhancedRateLimiterService.class);
+    private final GenerateSummaryTaskExecutable single = mock(GenerateSummaryTaskExecutable.class);
+    private final GenerateSummaryBundleTaskExecutable executable = new GenerateSummaryBundleTaskExecutable(
+            novelAIService, configService, mongoTemplate, rateLimiter, single);
+
+    private final List<Scene> scenes = List.of(scene("s1", "第一场"), scene("s2", "第二场"), scene("s3", "第三场"));
+
+    GenerateSummaryBundleTaskExecutableTest() {
+        UserAIModelConfig config = new UserAIModelConfig();
+        config.setProvider("openai");
+        config.setModelName("gpt-4o");
+        when(configService.getConfigurationById(USER_ID, CONFIG_ID)).thenReturn(Mono.just(config));
+        when(rateLimiter.acquirePermit(anyString(), anyString(), anyString(), anyString()))
+                .thenReturn(Mono.just(PermitResult.success(null, "test")));
+        when(rateLimiter.recordSuccess(anyString(), anyString(), anyString(), anyString())).thenReturn(Mono.empty());
+        when(rateLimiter.recordErrorAndRetry(anyString(), anyString(), anyString(), anyString(), any(), any()))
+                .thenReturn(Mono.empty());
+        when(mongoTemplate.find(any(Query.class), eq(Scene.class))).thenReturn(Flux.fromIterable(scenes));
+        when(single.saveSummary(anyString(), anyString(), anyInt(), anyString()))
+                .thenAnswer(inv -> Mono.just(result(inv.getArgument(1))));
+        when(single.summarizeAndSave(eq(USER_ID), anyString(), eq(CONFIG_ID), eq(true), anyString(), isNull()))
+                .thenAnswer(inv -> Mono.just(result(inv.getArgument(1))));
+    }
+
+    @Test
+    void bundleSummariesAreSavedAndMissingScenesFallBack() {
+        when(novelAIService.summarizeScenesBundle(USER_ID, NOVEL_ID, scenes, CONFIG_ID))
+                .thenReturn(Mono.just(Map.of("s1", "摘要一", "s3", "摘要三")));
+
+        GenerateSummaryBundleResult result = executable.execute(context(List.of("s1", "s2", "s3", "missing"))).block();
+
+        assertEquals(4, result.getTotalScenes());
+        assertEquals(List.of("s1", "s2", "s3"), result.getSucceededSceneIds());
+        assertEquals(1, result.getFallbackCount());
+        assertEquals(Map.of("missing", "场景不存在"), result.getFailedSceneDetails());
+        verify(single).saveSummary("task-1", "s1", 2, "摘要一");
+        verify(single).saveSummary("task-1", "s3", 2, "摘要三");
+        verify(single).summarizeAndSave(USER_ID, "s2", CONFIG_ID, true, "task-1", null);
+        verify(single, never()).summarizeAndSave(eq(USER_ID), eq("s1"), any(), eq(true), anyString(), isNull());
+    }
+
+    @Test
+    void failedBundleCallFallsBackForEveryScene() {
+        when(novelAIService.summarizeScenesBundle(USER_ID, NOVEL_ID, scenes, CONFIG_ID))
+                .thenReturn(Mono.error(new IllegalStateException("模型超时")));
+        when(single.summarizeAndSave(USER_ID, "s3", CONFIG_ID, true, "task-1", null))
+                .thenReturn(Mono.error(new IllegalStateException("版本冲突")));
+
+        GenerateSummaryBundleResult result = executable.execute(context(List.of("s1", "s2", "s3"))).block();
+
+        assertEquals(3, result.getFallbackCount());
+        assertEquals(List.of("s1", "s2"), result.getSucceededSceneIds());
+        assertEquals(Map.of("s3", "版本冲突"), result.getFailedSceneDetails());
+        verify(single, never()).saveSummary(anyString(), anyString(), anyInt(), anyString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TaskContext<GenerateSummaryBundleParameters> context(List<String> sceneIds) {
+        TaskContext<GenerateSummaryBundleParameters> context = mock(TaskContext.class);
+        when(context.getTaskId()).thenReturn("task-1");
+        when(context.getUserId()).thenReturn(USER_ID);
+        when(context.getParameters()).thenReturn(GenerateSummaryBundleParameters.builder()
+                .novelId(NOVEL_ID)
+                .sceneIds(sceneIds)
+                .aiConfigId(CONFIG_ID)
+                .useAIEnhancement(true)
+                .build());
+        return context;
+    }
+
+    private static Scene scene(String id, String content) {
+        return Scene.builder().id(id).novelId(NOVEL_ID).chapterId("chapter-1").content(content).version(2).build();
+    }
+
+    private static GenerateSummaryResult result(String sceneId) {
+        return GenerateSummaryResult.builder().sceneId(sceneId).summary("摘要").build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.ainovel.server.task.listener;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.ainovel.server.task.dto.batchsummary.BatchGenerateSummaryProgress;
+import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryBundleParameters;
+import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryBundleResult;
+import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryResult;
+import com.ainovel.server.task.event.internal.TaskCompletedEvent;
+import com.ainovel.server.task.event.internal.TaskFailedEvent;
+import com.ainovel.server.task.executor.GenerateSummaryBundleTaskExecutable;
+import com.ainovel.server.task.model.BackgroundTask;
+import com.ainovel.server.task.service.TaskStateService;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 批量摘要状态聚合器测试
+ * 验证打包子任务的完成和失败按包内场景数累计到父任务进度，全部场景处理完后父任务才结束
+ */
+class BatchSummaryStateAggregatorTest {
+
+    private static final String PARENT_ID = "parent-1";
+
+    private final TaskStateService taskStateService = mock(TaskStateService.class);
+    private final BatchSummaryStateAggregator aggregator = new BatchSummaryStateAggregator(taskStateService);
+    private final BackgroundTask parent = BackgroundTask.builder()
+            .id(PARENT_ID)
+            .taskType("BATCH_GENERATE_SUMMARY")
+            .progress(BatchGenerateSummaryProgress.builder().totalScenes(6).skippedCount(0).build())
+            .build();
+
+    BatchSummaryStateAggregatorTest() {
+        when(taskStateService.getTask(PARENT_ID)).thenAnswer(inv -> Mono.just(parent));
+        when(taskStateService.recordProgress(eq(PARENT_ID), any())).thenAnswer(inv -> {
+            parent.setProgress(inv.getArgument(1));
+            return Mono.empty();
+        });
+        when(taskStateService.recordCompletion(eq(PARENT_ID), any())).thenReturn(Mono.empty());
+        when(taskStateService.recordFailure(eq(PARENT_ID), anyMap(), anyBoolean())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void bundleResultsAreCountedPerScene() {
+        subTask("bundle-1", GenerateSummaryBundleTaskExecutable.TASK_TYPE, null);
+        aggregator.onSummaryTaskCompleted(new TaskCompletedEvent(this, "bundle-1",
+                GenerateSummaryBundleTaskExecutable.TASK_TYPE, "user-1",
+                GenerateSummaryBundleResult.builder()
+                        .totalScenes(3)
+                        .succeededSceneIds(List.of("s1", "s2"))
+                        .failedSceneDetails(Map.of("s3", "版本冲突"))
+                        .build()));
+
+        BatchGenerateSummaryProgress progress = progress();
+        assertEquals(3, progress.getProcessedCount());
+        assertEquals(2, progress.getSuccessCount());
+        assertEquals(1, progress.getFailedCount());
+        verify(taskStateService, never()).recordCompletion(eq(PARENT_ID), any());
+
+        // 单场景子任务仍按一个场景计
+        subTask("single-1", "GENERATE_SUMMARY", null);
+        aggregator.onSummaryTaskCompleted(new TaskCompletedEvent(this, "single-1", "GENERATE_SUMMARY", "user-1",
+                GenerateSummaryResult.builder().sceneId("s4").build()));
+
+        assertEquals(4, progress().getProcessedCount());
+        assertEquals(3, progress().getSuccessCount());
+        verify(taskStateService, never()).recordCompletion(eq(PARENT_ID), any());
+    }
+
+    @Test
+    void failedBundleCountsEverySceneAndFinishesTheParent() {
+        subTask("bundle-1", GenerateSummaryBundleTaskExecutable.TASK_TYPE, null);
+        aggregator.onSummaryTaskCompleted(new TaskCompletedEvent(this, "bundle-1",
+                GenerateSummaryBundleTaskExecutable.TASK_TYPE, "user-1",
+                GenerateSummaryBundleResult.builder()
+                        .totalScenes(3)
+                        .succeededSceneIds(List.of("s1", "s2", "s3"))
+                        .failedSceneDetails(Map.of())
+                        .build()));
+        subTask("bundle-2", GenerateSummaryBundleTaskExecutable.TASK_TYPE,
+                GenerateSummaryBundleParameters.builder().sceneIds(List.of("s4", "s5", "s6")).build());
+        aggregator.onSummaryTaskFailed(new TaskFailedEvent(this, "bundle-2",
+                GenerateSummaryBundleTaskExecutable.TASK_TYPE, "user-1", Map.of("message", "模型超时"), true));
+
+        BatchGenerateSummaryProgress progress = progress();
+        assertEquals(6, progress.getProcessedCount());
+        assertEquals(3, progress.getSuccessCount());
+        assertEquals(3, progress.getFailedCount());
+        verify(taskStateService).recordCompletion(eq(PARENT_ID), any());
+        verify(taskStateService, never()).recordFailure(eq(PARENT_ID), anyMap(), anyBoolean());
+    }
+
+    private void subTask(String taskId, String taskType, Object parameters) {
+        BackgroundTask task = BackgroundTask.builder()
+                .id(taskId)
+                .taskType(taskType)
+                .parentTaskId(PARENT_ID)
+                .parameters(parameters)
+                .build();
+        when(taskStateService.getTask(taskId)).thenReturn(Mono.just(task));
+    }
+
+    private BatchGenerateSummaryProgress progress() {
+        return (BatchGenerateSummaryProgress) parent.getProgress();
+    }
+}
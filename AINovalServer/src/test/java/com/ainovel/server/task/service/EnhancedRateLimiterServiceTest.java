@@ -0,0 +1,87 @@
+package com.ainovel.server.task.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.ainovel.server.config.AIProviderEnum;
+import com.ainovel.server.config.ProviderRateLimitConfig;
+import com.ainovel.server.config.RateLimitConfigurationManager;
+import com.ainovel.server.config.RateLimitDimensionEnum;
+import com.ainovel.server.config.RateLimitStrategyEnum;
+import com.ainovel.server.task.service.factory.RateLimitStrategyFactory;
+import com.ainovel.server.task.service.ratelimit.ClusterRateLimiter;
+import com.ainovel.server.task.service.retry.RabbitMQRetryManager;
+import com.ainovel.server.task.service.strategy.impl.StandardRateLimitStrategy;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 增强限流服务测试
+ * 验证集群限流拒绝时归还本地已预约的许可，以及可等待许可按许可等待时间而不是 AI 调用超时等待
+ */
+class EnhancedRateLimiterServiceTest {
+
+    private final StandardRateLimitStrategy strategy = new StandardRateLimitStrategy();
+    private final ClusterRateLimiter clusterRateLimiter = mock(ClusterRateLimiter.class);
+    private EnhancedRateLimiterService service;
+    private ProviderRateLimitConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = ProviderRateLimitConfig.builder()
+                .provider(AIProviderEnum.OPENAI)
+                .rateLimitStrategy(RateLimitStrategyEnum.STANDARD)
+                .dimension(RateLimitDimensionEnum.GLOBAL)
+                .build();
+        config.getMetrics().put("dailyLimit", 0);
+        config.getMetrics().put("safetyBuffer", 0);
+
+        RateLimitStrategyFactory strategyFactory = mock(RateLimitStrategyFactory.class);
+        when(strategyFactory.getStrategy(any())).thenReturn(strategy);
+        RateLimitConfigurationManager configurationManager = mock(RateLimitConfigurationManager.class);
+        when(configurationManager.createProviderConfig(any(), anyString(), anyString(), isNull())).thenReturn(config);
+        when(configurationManager.isClusterMode()).thenReturn(true);
+
+        service = new EnhancedRateLimiterService(strategyFactory, mock(RabbitMQRetryManager.class),
+                configurationManager, clusterRateLimiter);
+    }
+
+    @Test
+    void clusterRejectionReturnsTheLocalPermit() {
+        int burst = config.getEffectiveBurstCapacity();
+        when(clusterRateLimiter.reserveOrAllow(anyString(), anyDouble(), anyInt(), anyLong())).thenReturn(Mono.just(-1L));
+
+        // 远多于突发容量的请求都被集群拒绝，本地许可不应被耗尽
+        for (int i = 0; i < burst * 3; i++) {
+            EnhancedRateLimiterService.PermitResult result = service.tryAcquirePermit("openai", "u1", "gpt-4o", "r" + i).block();
+            assertFalse(result.isSuccess());
+        }
+        assertEquals(burst, strategy.getAvailablePermits(config).block());
+
+        when(clusterRateLimiter.reserveOrAllow(anyString(), anyDouble(), anyInt(), anyLong())).thenReturn(Mono.just(0L));
+        assertTrue(service.tryAcquirePermit("openai", "u1", "gpt-4o", "ok").block().isSuccess());
+    }
+
+    @Test
+    void acquirePermitWaitsUpToThePermitWaitNotTheCallTimeout() {
+        config.getMetrics().put("timeoutMillis", 60_000L);
+        config.getMetrics().put("maxPermitWaitMillis", 250L);
+        ArgumentCaptor<Long> maxWait = ArgumentCaptor.forClass(Long.class);
+        when(clusterRateLimiter.reserveOrAllow(anyString(), anyDouble(), anyInt(), maxWait.capture())).thenReturn(Mono.just(0L));
+
+        assertTrue(service.acquirePermit("openai", "u1", "gpt-4o", "r1").block().isSuccess());
+
+        assertEquals(250L, maxWait.getValue());
+    }
+}
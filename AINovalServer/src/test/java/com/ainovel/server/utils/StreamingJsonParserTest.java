@@ -0,0 +1,110 @@
+package com.ainovel.server.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+/**
+ * 容错流式 JSON 解析器测试
+ * 验证任意分片边界、转义、数组前后的说明文字、嵌套数组、截断补齐，以及元素在流结束前下发
+ */
+class StreamingJsonParserTest {
+
+    @Test
+    void everyChunkBoundaryYieldsTheSameElements() {
+        String text = "结果如下：[{\"name\":\"林\\\"风\\\"\",\"tags\":[\"剑\",\"侠\"]},{\"name\":\"x\\\\y\",\"n\":-1.5e3},true]";
+        List<String> expected = List.of(
+                "{\"name\":\"林\\\"风\\\"\",\"tags\":[\"剑\",\"侠\"]}",
+                "{\"name\":\"x\\\\y\",\"n\":-1.5e3}",
+                "true");
+        assertEquals(expected, StreamingJsonParser.parseElements(text));
+
+        for (int i = 1; i < text.length(); i++) {
+            for (int j = i; j < text.length(); j++) {
+                assertEquals(expected, feedChunks(text.substring(0, i), text.substring(i, j), text.substring(j)),
+                        "分片位置: " + i + ", " + j);
+            }
+        }
+    }
+
+    @Test
+    void controlCharactersInStringsAreEscapedAndInvalidEscapesKept() {
+        List<String> elements = StreamingJsonParser.parseElements("[{\"d\":\"第一行\n第二行\t\\q\"}]");
+
+        assertEquals(List.of("{\"d\":\"第一行\\n第二行\\t\\\\q\"}"), elements);
+    }
+
+    @Test
+    void proseBeforeAndAfterTheArrayIsIgnored() {
+        String text = "Here is the result [see below] and [设定]:\n```json\n"
+                + "[{\"a\":1},{\"a\":2}]\n```\n{注意} 以上为全部设定 [完]";
+
+        assertEquals(List.of("{\"a\":1}", "{\"a\":2}"), StreamingJsonParser.parseElements(text));
+        assertEquals("[{\"a\":1},{\"a\":2}]", StreamingJsonParser.toJsonArray(text));
+    }
+
+    @Test
+    void scalarOnlyBracketsDoNotEndParsing() {
+        // 脚注 [1] 无法与只含数字的数组区分，元素照常产出，由调用方跳过；之后的数组仍被解析
+        assertEquals(List.of("1", "{\"a\":1}"), StreamingJsonParser.parseElements("见注释 [1]：[{\"a\":1}]"));
+    }
+
+    @Test
+    void emptyObjectInProseAfterRootObjectsIsNotEmitted() {
+        assertEquals(List.of("{\"a\":1}", "{\"b\":2}"),
+                StreamingJsonParser.parseElements("{\"a\":1}\n{\"b\":2}\n{注意}"));
+    }
+
+    @Test
+    void nestedArraysAreEmittedAsWholeElements() {
+        assertEquals(List.of("[1,2]", "[3,[4,[5]]]", "{\"t\":[[1],[]]}"),
+                StreamingJsonParser.parseElements("[[1,2],[3,[4,[5]]],{\"t\":[[1],[]]}]"));
+    }
+
+    @Test
+    void truncatedOutputIsRepairedToTheLastCompleteValue() {
+        assertEquals(List.of("{\"a\":1,\"b\":[true,null]}", "{\"c\":\"截断\"}"),
+                StreamingJsonParser.parseElements("[{\"a\":1,\"b\":[True,None,],},{\"c\":\"截断"));
+        assertEquals(List.of("{\"a\":1}"), StreamingJsonParser.parseElements("[{\"a\":1},{\"b\":"));
+    }
+
+    @Test
+    void elementsAreEmittedBeforeTheStreamEnds() {
+        Sinks.Many<String> chunks = Sinks.many().unicast().onBackpressureBuffer();
+
+        StepVerifier.create(StreamingJsonParser.elements(chunks.asFlux()))
+                .then(() -> chunks.tryEmitNext("[{\"a\":1},{\"b\""))
+                .expectNext("{\"a\":1}")
+                .then(() -> chunks.tryEmitNext(":2}, {\"c\":"))
+                .expectNext("{\"b\":2}")
+                .then(chunks::tryEmitComplete)
+                .verifyComplete();
+    }
+
+    @Test
+    void collectJsonArrayReturnsRawTextWhenThereAreNoElements() {
+        StepVerifier.create(StreamingJsonParser.collectJsonArray(Flux.just("[{\"a\"", ":1}", ",{\"b\":2}]")))
+                .expectNext("[{\"a\":1},{\"b\":2}]")
+                .verifyComplete();
+        StepVerifier.create(StreamingJsonParser.collectJsonArray(Flux.just("抱歉，", "无法生成")))
+                .expectNext("抱歉，无法生成")
+                .verifyComplete();
+    }
+
+    private static List<String> feedChunks(String... chunks) {
+        StreamingJsonParser parser = new StreamingJsonParser();
+        List<String> elements = new ArrayList<>();
+        for (String chunk : chunks) {
+            elements.addAll(parser.feed(chunk));
+        }
+        elements.addAll(parser.finish());
+        return elements;
+    }
+}
@@ -0,0 +1,64 @@
+package com.ainovel.server.web.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+
+import com.ainovel.server.service.stream.ResumableStreamRegistry;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+/**
+ * AI 流重连接口测试
+ * 验证事件流只被订阅一次、事件流结束时心跳随之停止，以及客户端断开时取消传到事件流
+ */
+class AIStreamControllerTest {
+
+    private final ResumableStreamRegistry registry = mock(ResumableStreamRegistry.class);
+    private final AIStreamController controller = new AIStreamController(registry);
+    private final AtomicInteger subscriptions = new AtomicInteger();
+    private final AtomicInteger cancellations = new AtomicInteger();
+
+    @Test
+    void eventsAreSubscribedOnceAndCompleteTheResponse() {
+        resumeWith(Flux.just(event("s:1"), event("s:2")));
+
+        List<ServerSentEvent<Object>> received = controller.resume("s", "s:0", null, null)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(List.of("s:1", "s:2"), received.stream().map(ServerSentEvent::id).toList());
+        assertEquals(1, subscriptions.get());
+    }
+
+    @Test
+    void clientDisconnectCancelsTheEventStream() {
+        resumeWith(Flux.never());
+
+        Disposable connection = controller.resume("s", null, "s:0", null).subscribe();
+        assertEquals(1, subscriptions.get());
+
+        connection.dispose();
+        assertEquals(1, cancellations.get());
+    }
+
+    private void resumeWith(Flux<ServerSentEvent<Object>> events) {
+        when(registry.resume(eq("s"), any(), eq("s:0"))).thenReturn(events
+                .doOnSubscribe(s -> subscriptions.incrementAndGet())
+                .doOnCancel(cancellations::incrementAndGet));
+    }
+
+    private static ServerSentEvent<Object> event(String id) {
+        return ServerSentEvent.<Object>builder().id(id).event("chunk").data("内容").build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.ainovel.server.web.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+import com.ainovel.server.domain.model.Novel;
+import com.ainovel.server.domain.model.Scene;
+import com.ainovel.server.service.ImportService;
+import com.ainovel.server.service.NovelFullTextSearchService;
+import com.ainovel.server.service.NovelService;
+import com.ainovel.server.service.SceneService;
+import com.ainovel.server.service.UsageQuotaService;
+import com.ainovel.server.web.dto.EditorNovelWithScenesDto;
+import com.ainovel.server.web.dto.IdDto;
+import com.ainovel.server.web.dto.NovelWithScenesDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 编辑器读取接口的 ETag 测试
+ * 验证 ETag 由响应内容计算、If-None-Match 匹配（含弱校验前缀）时返回不带响应体的 304，以及内容变化后 ETag 随之变化
+ */
+class NovelControllerEtagTest {
+
+    private static final String NOVEL_ID = "novel-1";
+    private static final String PATH = "/api/v1/novels/get-with-scenes";
+
+    private final NovelService novelService = mock(NovelService.class);
+    private final NovelController controller = new NovelController(novelService, mock(SceneService.class),
+            mock(ImportService.class), mock(UsageQuotaService.class), mock(NovelFullTextSearchService.class),
+            new ObjectMapper().findAndRegisterModules());
+
+    @Test
+    void matchingIfNoneMatchReturnsNotModifiedWithoutBody() {
+        when(novelService.getNovelWithAllScenes(NOVEL_ID)).thenReturn(Mono.just(novelWithScene("你好")));
+
+        ResponseEntity<EditorNovelWithScenesDto> first = get(MockServerHttpRequest.post(PATH).build());
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertNotNull(first.getBody());
+        String etag = first.getHeaders().getETag();
+        assertNotNull(etag);
+
+        ResponseEntity<EditorNovelWithScenesDto> strong = get(MockServerHttpRequest.post(PATH)
+                .header("If-None-Match", etag).build());
+        assertEquals(HttpStatus.NOT_MODIFIED, strong.getStatusCode());
+        assertNull(strong.getBody());
+        assertEquals(etag, strong.getHeaders().getETag());
+
+        ResponseEntity<EditorNovelWithScenesDto> weak = get(MockServerHttpRequest.post(PATH)
+                .header("If-None-Match", "W/" + etag).build());
+        assertEquals(HttpStatus.NOT_MODIFIED, weak.getStatusCode());
+        assertNull(weak.getBody());
+    }
+
+    @Test
+    void changedContentProducesNewEtag() {
+        when(novelService.getNovelWithAllScenes(NOVEL_ID))
+                .thenReturn(Mono.just(novelWithScene("你好")))
+                .thenReturn(Mono.just(novelWithScene("你好世界")));
+
+        String etag = get(MockServerHttpRequest.post(PATH).build()).getHeaders().getETag();
+        ResponseEntity<EditorNovelWithScenesDto> changed = get(MockServerHttpRequest.post(PATH)
+                .header("If-None-Match", etag).build());
+
+        // 场景内容变化（小说本身未更新）时仍返回新内容
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+        assertNotNull(changed.getBody());
+        assertNotEquals(etag, changed.getHeaders().getETag());
+    }
+
+    private ResponseEntity<EditorNovelWithScenesDto> get(MockServerHttpRequest request) {
+        IdDto idDto = new IdDto();
+        idDto.setId(NOVEL_ID);
+        return controller.getNovelWithScenes(idDto, request).block();
+    }
+
+    private static NovelWithScenesDto novelWithScene(String text) {
+        Novel novel = Novel.builder().id(NOVEL_ID).title("测试小说").build();
+        Scene scene = Scene.builder().id("scene-1").novelId(NOVEL_ID).chapterId("chapter-1")
+                .content("{\"ops\":[{\"insert\":\"" + text + "\\n\"}]}").build();
+        return NovelWithScenesDto.builder()
+                .novel(novel)
+                .scenesByChapter(Map.of("chapter-1", List.of(scene)))
+                .build();
+    }
+}
@@ -0,0 +1,149 @@
+package com.ainovel.server.web.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+import com.ainovel.server.security.CurrentUser;
+import com.ainovel.server.security.TokenRevocationRegistry;
+import com.ainovel.server.security.UserPrincipalChangedEvent;
+import com.ainovel.server.service.JwtService;
+import com.ainovel.server.service.UserService;
+import com.ainovel.server.task.events.LocalTaskEventFanout;
+import com.ainovel.server.task.events.TaskEventHub;
+import com.ainovel.server.task.events.TaskEventPublisherImpl;
+import com.ainovel.server.task.service.TaskSubmissionService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+/**
+ * 任务事件 SSE 流的令牌撤销测试
+ * 验证空闲连接不再定期查库，令牌版本提升后受影响的连接立即收到 complete 并结束。
+ */
+@Slf4j
+class TaskEventStreamRevocationTest {
+
+    private static final String TOKEN_V1 = "token-v1";
+
+    private UserService userService;
+    private TokenRevocationRegistry registry;
+    private TaskStatusController controller;
+    private VirtualTimeScheduler virtualTime;
+
+    @BeforeEach
+    void setUp() {
+        virtualTime = VirtualTimeScheduler.getOrSet();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        userService = mock(UserService.class);
+        registry = new TokenRevocationRegistry(userService, meterRegistry);
+        JwtService jwtService = mock(JwtService.class);
+        when(jwtService.extractExpiration(TOKEN_V1)).thenReturn(new Date(System.currentTimeMillis() + Duration.ofDays(1).toMillis()));
+        when(jwtService.extractTokenVersion(TOKEN_V1)).thenReturn(1);
+        TaskEventHub hub = new TaskEventHub(meterRegistry, 16, TaskEventHub.OverflowPolicy.DROP_OLDEST);
+        controller = new TaskStatusController(mock(TaskSubmissionService.class),
+                new TaskEventPublisherImpl(hub, new LocalTaskEventFanout(hub)), jwtService, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        VirtualTimeScheduler.reset();
+    }
+
+    @Test
+    void idleStreamsDoNotQueryTheDatabaseOverAnHour() {
+        List<Stream> streams = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            streams.add(open("idle-user-" + (i % 100)));
+        }
+        assertEquals(500, registry.getWatchCount());
+
+        virtualTime.advanceTimeBy(Duration.ofHours(1));
+
+        verifyNoInteractions(userService);
+        for (Stream stream : streams) {
+            // 每20秒一次心跳，连接一直保持
+            assertEquals(180, stream.events.size());
+            assertFalse(stream.completed);
+        }
+        streams.forEach(stream -> stream.subscription.dispose());
+        assertEquals(0, registry.getWatchCount());
+    }
+
+    @Test
+    void tokenVersionBumpCompletesAffectedStreamsImmediately() {
+        List<Stream> revoked = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            revoked.add(open("alice"));
+        }
+        Stream other = open("bob");
+
+        long start = System.nanoTime();
+        registry.onUserPrincipalChanged(new UserPrincipalChangedEvent("alice", 2));
+        long latencyMicros = (System.nanoTime() - start) / 1000;
+        log.info("撤销 {} 条连接耗时 {} µs", revoked.size(), latencyMicros);
+
+        // 推送在发布线程上同步完成，无需等待任何轮询周期
+        for (Stream stream : revoked) {
+            assertTrue(stream.completed);
+            assertEquals("complete", stream.events.get(stream.events.size() - 1).event());
+        }
+        assertFalse(other.completed);
+        assertEquals(1, registry.getWatchCount());
+        verifyNoInteractions(userService);
+
+        // 同版本的变更（例如修改头像）不影响连接
+        registry.onUserPrincipalChanged(new UserPrincipalChangedEvent("bob", 1));
+        assertFalse(other.completed);
+        other.subscription.dispose();
+    }
+
+    @Test
+    void eventsWithoutVersionResolveOnceAndOnlyForUsersWithStreams() {
+        Stream first = open("carol");
+        Stream second = open("carol");
+        when(userService.findUserById(anyString())).thenReturn(Mono.empty());
+
+        // 本节点没有该用户的连接：不查库
+        registry.revoke("dave", null);
+        verifyNoInteractions(userService);
+
+        // 用户已删除：一次查询后关闭全部连接
+        registry.onUserPrincipalChanged(new UserPrincipalChangedEvent("carol"));
+        verify(userService, times(1)).findUserById("carol");
+        assertTrue(first.completed);
+        assertTrue(second.completed);
+        assertEquals(0, registry.getWatchCount());
+    }
+
+    private Stream open(String userId) {
+        MockServerHttpRequest request = MockServerHttpRequest.get("/api/v1/api/tasks/events")
+                .header("Authorization", "Bearer " + TOKEN_V1)
+                .build();
+        Stream stream = new Stream();
+        stream.subscription = controller.streamTaskEvents(new CurrentUser(userId, userId), null, "9.9.9", request)
+                .subscribe(stream.events::add, e -> fail(e), () -> stream.completed = true);
+        return stream;
+    }
+
+    private static final class Stream {
+        final List<ServerSentEvent<Map<String, Object>>> events = new ArrayList<>();
+        Disposable subscription;
+        boolean completed;
+    }
+}